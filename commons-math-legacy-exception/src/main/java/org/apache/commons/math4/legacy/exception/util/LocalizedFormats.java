@@ -141,8 +141,10 @@ public enum LocalizedFormats implements Localizable {
     INSUFFICIENT_ROWS_AND_COLUMNS("insufficient data: only {0} rows and {1} columns."),
     INTEGRATION_METHOD_NEEDS_AT_LEAST_TWO_PREVIOUS_POINTS("multistep method needs at least {0} previous steps, got {1}"),
     INTERNAL_ERROR("internal error, please fill a bug report at {0}"),
+    INTERRUPTED("computation interrupted"),
     INVALID_BINARY_DIGIT("invalid binary digit: {0}"),
     INVALID_BINARY_CHROMOSOME("binary mutation works on BinaryChromosome only"),
+    INVALID_CHROMOSOME_TYPE("{0} only works with {1} chromosomes"),
     INVALID_BRACKETING_PARAMETERS("invalid bracketing parameters:  lower bound={0},  initial={1}, upper bound={2}"),
     INVALID_FIXED_LENGTH_CHROMOSOME("one-point crossover only works with fixed-length chromosomes"),
     INVALID_IMPLEMENTATION("required functionality is missing in {0}"),
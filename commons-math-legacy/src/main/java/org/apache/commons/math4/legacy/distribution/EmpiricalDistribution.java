@@ -19,14 +19,23 @@ package org.apache.commons.math4.legacy.distribution;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.DoubleConsumer;
 import java.util.function.Function;
+import java.util.stream.DoubleStream;
 
 import org.apache.commons.statistics.distribution.NormalDistribution;
 import org.apache.commons.statistics.distribution.ContinuousDistribution;
 import org.apache.commons.numbers.core.Precision;
 import org.apache.commons.rng.UniformRandomProvider;
+import org.apache.commons.math4.legacy.core.MathArrays;
+import org.apache.commons.math4.legacy.exception.DimensionMismatchException;
+import org.apache.commons.math4.legacy.exception.MathIllegalArgumentException;
+import org.apache.commons.math4.legacy.exception.NoDataException;
+import org.apache.commons.math4.legacy.exception.NotFiniteNumberException;
+import org.apache.commons.math4.legacy.exception.NumberIsTooLargeException;
 import org.apache.commons.math4.legacy.exception.OutOfRangeException;
 import org.apache.commons.math4.legacy.exception.NotStrictlyPositiveException;
+import org.apache.commons.math4.legacy.exception.util.LocalizedFormats;
 import org.apache.commons.math4.legacy.stat.descriptive.StatisticalSummary;
 import org.apache.commons.math4.legacy.stat.descriptive.SummaryStatistics;
 import org.apache.commons.math4.core.jdkmath.JdkMath;
@@ -107,34 +116,27 @@ public final class EmpiricalDistribution extends AbstractRealDistribution
     private final Function<SummaryStatistics, ContinuousDistribution> kernelFactory;
 
     /**
-     * Creates a new instance with the specified data.
+     * Creates a new instance with the specified bins.
      *
-     * @param binCount Number of bins.  Must be strictly positive.
-     * @param input Input data.  Cannot be {@code null}.
+     * @param binCount Number of bins.
+     * @param min Lower bound of the first bin.
+     * @param max Upper bound of the last bin.
+     * @param binStats Statistics of the values in each of the bins.
+     * @param sampleStats Statistics of all the values.
      * @param kernelFactory Kernel factory.
-     * @throws NotStrictlyPositiveException if {@code binCount <= 0}.
      */
     private EmpiricalDistribution(int binCount,
-                                  double[] input,
+                                  double min,
+                                  double max,
+                                  List<SummaryStatistics> binStats,
+                                  SummaryStatistics sampleStats,
                                   Function<SummaryStatistics, ContinuousDistribution> kernelFactory) {
-        if (binCount <= 0) {
-            throw new NotStrictlyPositiveException(binCount);
-        }
         this.binCount = binCount;
-
-        // First pass through the data.
-        sampleStats = new SummaryStatistics();
-        for (int i = 0; i < input.length; i++) {
-            sampleStats.addValue(input[i]);
-        }
-
-        // Set up grid.
-        min = sampleStats.getMin();
-        max = sampleStats.getMax();
+        this.min = min;
+        this.max = max;
         delta = (max - min) / binCount;
-
-        // Second pass through the data.
-        binStats = createBinStats(input);
+        this.binStats = binStats;
+        this.sampleStats = sampleStats;
 
         // Assign upper bounds based on bin counts.
         upperBounds = new double[binCount];
@@ -146,7 +148,7 @@ public final class EmpiricalDistribution extends AbstractRealDistribution
         upperBounds[binCount - 1] = 1d;
 
         this.kernelFactory = kernelFactory;
-     }
+    }
 
     /**
      * Factory that creates a new instance from the specified data.
@@ -160,8 +162,36 @@ public final class EmpiricalDistribution extends AbstractRealDistribution
     public static EmpiricalDistribution from(int binCount,
                                              double[] input,
                                              Function<SummaryStatistics, ContinuousDistribution> kernelFactory) {
+        if (binCount <= 0) {
+            throw new NotStrictlyPositiveException(binCount);
+        }
+
+        // First pass through the data.
+        final SummaryStatistics sampleStats = new SummaryStatistics();
+        for (int i = 0; i < input.length; i++) {
+            sampleStats.addValue(input[i]);
+        }
+
+        // Set up grid.
+        final double min = sampleStats.getMin();
+        final double max = sampleStats.getMax();
+        final double delta = (max - min) / binCount;
+
+        // Second pass through the data.
+        final List<SummaryStatistics> binStats = new ArrayList<>();
+        for (int i = 0; i < binCount; i++) {
+            binStats.add(i, new SummaryStatistics());
+        }
+        for (int i = 0; i < input.length; i++) {
+            final double v = input[i];
+            binStats.get(findBin(v, min, delta, binCount)).addValue(v);
+        }
+
         return new EmpiricalDistribution(binCount,
-                                         input,
+                                         min,
+                                         max,
+                                         binStats,
+                                         sampleStats,
                                          kernelFactory);
     }
 
@@ -179,25 +209,48 @@ public final class EmpiricalDistribution extends AbstractRealDistribution
     }
 
     /**
-     * Create statistics (second pass through the data).
+     * Creates a builder that loads the data incrementally, in a single
+     * pass.  The bins are laid out on a grid that is adapted as the data
+     * range grows.
      *
-     * @param input Input data.
-     * @return bins statistics.
+     * @param binCount Number of bins.  Must be strictly positive.
+     * @return a new builder.
+     * @throws NotStrictlyPositiveException if {@code binCount <= 0}.
+     * @see Builder
      */
-    private List<SummaryStatistics> createBinStats(double[] input) {
-        final List<SummaryStatistics> stats = new ArrayList<>();
+    public static Builder builder(int binCount) {
+        return new Builder(binCount, Double.NaN, Double.NaN);
+    }
 
-        for (int i = 0; i < binCount; i++) {
-            stats.add(i, new SummaryStatistics());
+    /**
+     * Creates a builder that loads the data incrementally, in a single
+     * pass.  The bins divide the given range into {@code binCount}
+     * intervals of equal length; when {@code lower} and {@code upper}
+     * are the minimum and maximum of the data, the distribution is the
+     * same as the one created by {@link #from(int,double[]) from}.
+     *
+     * @param binCount Number of bins.  Must be strictly positive.
+     * @param lower Lower bound of the data range.
+     * @param upper Upper bound of the data range.
+     * @return a new builder.
+     * @throws NotStrictlyPositiveException if {@code binCount <= 0}.
+     * @throws NotFiniteNumberException if one of the bounds is not finite.
+     * @throws NumberIsTooLargeException if {@code lower > upper}.
+     * @see Builder
+     */
+    public static Builder builder(int binCount,
+                                  double lower,
+                                  double upper) {
+        if (!Double.isFinite(lower)) {
+            throw new NotFiniteNumberException(lower);
         }
-
-        // Second pass though the data.
-        for (int i = 0; i < input.length; i++) {
-            final double v = input[i];
-            stats.get(findBin(v)).addValue(v);
+        if (!Double.isFinite(upper)) {
+            throw new NotFiniteNumberException(upper);
         }
-
-        return stats;
+        if (lower > upper) {
+            throw new NumberIsTooLargeException(lower, upper, true);
+        }
+        return new Builder(binCount, lower, upper);
     }
 
     /**
@@ -207,6 +260,22 @@ public final class EmpiricalDistribution extends AbstractRealDistribution
      * @return the index of the bin containing the value.
      */
     private int findBin(double value) {
+        return findBin(value, min, delta, binCount);
+    }
+
+    /**
+     * Returns the index of the bin to which the given value belongs.
+     *
+     * @param value Value whose bin we are trying to find.
+     * @param min Lower bound of the first bin.
+     * @param delta Bin width.
+     * @param binCount Number of bins.
+     * @return the index of the bin containing the value.
+     */
+    private static int findBin(double value,
+                               double min,
+                               double delta,
+                               int binCount) {
         return Math.min(Math.max((int) JdkMath.ceil((value - min) / delta) - 1,
                                  0),
                         binCount - 1);
@@ -548,6 +617,439 @@ public final class EmpiricalDistribution extends AbstractRealDistribution
         };
     }
 
+    /**
+     * Incremental loader of the data from which an {@link EmpiricalDistribution}
+     * is created.
+     *
+     * <p>Values can be added one at a time, by chunks or from a stream, so that
+     * the sample need not be held in memory.  Builders that have been fed on
+     * different threads can be {@link #combine(Builder) combined}; for example:
+     * <pre>
+     * EmpiricalDistribution dist = values.parallel()
+     *     .collect(() -&gt; EmpiricalDistribution.builder(100),
+     *              EmpiricalDistribution.Builder::accept,
+     *              EmpiricalDistribution.Builder::combine)
+     *     .build();
+     * </pre>
+     *
+     * <p>When the data range is specified at creation (see
+     * {@link EmpiricalDistribution#builder(int,double,double)}), the bins are
+     * fixed and values outside the range are rejected.</p>
+     *
+     * <p>Otherwise (see {@link EmpiricalDistribution#builder(int)}), the bins
+     * are laid out on a grid whose spacing is a power of two, and whose nodes
+     * are multiples of the spacing.  When a value falls outside of the current
+     * grid, the spacing is doubled (merging adjacent bins) until the grid covers
+     * all the values.  Since all the grids are aligned with each other, no
+     * information is lost when builders are combined.  The support of the
+     * resulting distribution is the range covered by the grid: it can be up
+     * to twice as large as the range of the data.</p>
+     *
+     * <p>This class is not thread-safe.</p>
+     *
+     * @since 4.0
+     */
+    public static final class Builder implements DoubleConsumer {
+        /** Number of bins. */
+        private final int binCount;
+        /** Whether the bins have been fixed at creation. */
+        private final boolean fixedRange;
+        /** Upper bound of the last bin (fixed range only). */
+        private final double upper;
+        /** Lower bound of the first bin. */
+        private double lower;
+        /**
+         * Bin width.  In adaptive mode, it is zero until two distinct
+         * values have been added.
+         */
+        private double width;
+        /** Statistics of the values in each bin ({@code null} for empty bins). */
+        private SummaryStatistics[] bins;
+        /** Statistics of all the values. */
+        private final SummaryStatistics sampleStats = new SummaryStatistics();
+        /**
+         * Values (all equal) added before the adaptive grid could be set up,
+         * or {@code null}.
+         */
+        private SummaryStatistics pending;
+
+        /**
+         * @param binCount Number of bins.
+         * @param lower Lower bound of the data range ({@code NaN} for adaptive
+         * binning).
+         * @param upper Upper bound of the data range ({@code NaN} for adaptive
+         * binning).
+         * @throws NotStrictlyPositiveException if {@code binCount <= 0}.
+         */
+        private Builder(int binCount,
+                        double lower,
+                        double upper) {
+            if (binCount <= 0) {
+                throw new NotStrictlyPositiveException(binCount);
+            }
+            this.binCount = binCount;
+            bins = new SummaryStatistics[binCount];
+            fixedRange = !Double.isNaN(lower);
+            this.lower = lower;
+            this.upper = upper;
+            if (fixedRange) {
+                width = (upper - lower) / binCount;
+            } else {
+                width = 0;
+                pending = new SummaryStatistics();
+            }
+        }
+
+        /**
+         * Adds a value to the sample.
+         *
+         * @param value Value.
+         * @throws NotFiniteNumberException if {@code value} is not finite.
+         * @throws OutOfRangeException if the range was specified at creation
+         * and {@code value} is outside of it.
+         */
+        @Override
+        public void accept(double value) {
+            if (!Double.isFinite(value)) {
+                throw new NotFiniteNumberException(value);
+            }
+
+            if (fixedRange) {
+                if (value < lower ||
+                    value > upper) {
+                    throw new OutOfRangeException(value, lower, upper);
+                }
+                bin(findBin(value, lower, width, binCount)).addValue(value);
+            } else if (width == 0) {
+                if (pending.getN() == 0 ||
+                    pending.getMin() == value) {
+                    pending.addValue(value);
+                } else {
+                    final double v = pending.getMin();
+                    final double a = Math.min(v, value);
+                    final double b = Math.max(v, value);
+                    layout(a, b, Math.scalb(1d, Math.getExponent(b / binCount - a / binCount)));
+                    bin(gridIndex(value)).addValue(value);
+                }
+            } else {
+                if (!isCovered(value)) {
+                    layout(Math.min(value, sampleStats.getMin()),
+                           Math.max(value, sampleStats.getMax()),
+                           width);
+                }
+                bin(gridIndex(value)).addValue(value);
+            }
+
+            sampleStats.addValue(value);
+        }
+
+        /**
+         * Adds values to the sample.
+         *
+         * @param values Values.
+         * @return this instance.
+         * @throws NotFiniteNumberException if one of the values is not finite.
+         * @throws OutOfRangeException if the range was specified at creation
+         * and one of the values is outside of it.
+         */
+        public Builder addValues(double[] values) {
+            return addValues(values, 0, values.length);
+        }
+
+        /**
+         * Adds a chunk of an array to the sample.
+         *
+         * @param values Values.
+         * @param begin Index of the first value to add.
+         * @param length Number of values to add.
+         * @return this instance.
+         * @throws MathIllegalArgumentException if the indices are invalid.
+         * @throws NotFiniteNumberException if one of the values is not finite.
+         * @throws OutOfRangeException if the range was specified at creation
+         * and one of the values is outside of it.
+         */
+        public Builder addValues(double[] values,
+                                 int begin,
+                                 int length) {
+            MathArrays.verifyValues(values, begin, length, true);
+            final int end = begin + length;
+            for (int i = begin; i < end; i++) {
+                accept(values[i]);
+            }
+            return this;
+        }
+
+        /**
+         * Adds the values of a stream to the sample.
+         * The stream is consumed sequentially; to load a parallel stream,
+         * use {@link DoubleStream#collect(java.util.function.Supplier,
+         * java.util.function.ObjDoubleConsumer, java.util.function.BiConsumer)
+         * collect} with {@link #combine(Builder)} as the combiner.
+         *
+         * @param values Values.
+         * @return this instance.
+         * @throws NotFiniteNumberException if one of the values is not finite.
+         * @throws OutOfRangeException if the range was specified at creation
+         * and one of the values is outside of it.
+         */
+        public Builder addValues(DoubleStream values) {
+            values.sequential().forEach(this);
+            return this;
+        }
+
+        /**
+         * Adds the values loaded by another builder to this builder.
+         * The other builder is not modified.
+         *
+         * @param other Builder.
+         * @return this instance.
+         * @throws DimensionMismatchException if the builders do not have the
+         * same number of bins.
+         * @throws MathIllegalArgumentException if the builders were not created
+         * with the same range.
+         */
+        public Builder combine(Builder other) {
+            if (other.binCount != binCount) {
+                throw new DimensionMismatchException(other.binCount, binCount);
+            }
+            if (other.fixedRange != fixedRange ||
+                (fixedRange &&
+                 (other.lower != lower ||
+                  other.upper != upper))) {
+                throw new MathIllegalArgumentException(LocalizedFormats.DIMENSIONS_MISMATCH);
+            }
+            if (other.sampleStats.getN() == 0) {
+                return this;
+            }
+
+            if (fixedRange) {
+                for (int i = 0; i < binCount; i++) {
+                    if (other.bins[i] != null) {
+                        merge(bins, i, other.bins[i]);
+                    }
+                }
+            } else if (other.width == 0) {
+                addEqualValues(other.pending);
+            } else if (width == 0) {
+                // Adopt the grid of the other builder.
+                final SummaryStatistics own = pending;
+                pending = null;
+                width = other.width;
+                lower = other.lower;
+                for (int i = 0; i < binCount; i++) {
+                    if (other.bins[i] != null) {
+                        bins[i] = other.bins[i].copy();
+                    }
+                }
+                if (own.getN() != 0) {
+                    addEqualValues(own);
+                }
+            } else {
+                layout(Math.min(sampleStats.getMin(), other.sampleStats.getMin()),
+                       Math.max(sampleStats.getMax(), other.sampleStats.getMax()),
+                       Math.max(width, other.width));
+                rebin(other.bins, other.lower, other.width, bins);
+            }
+
+            sampleStats.combine(other.sampleStats);
+            return this;
+        }
+
+        /**
+         * Creates the distribution, using the default within-bin kernel.
+         * The builder can still be used afterwards.
+         *
+         * @return a new distribution.
+         * @throws NoDataException if no value has been added.
+         */
+        public EmpiricalDistribution build() {
+            return build(defaultKernel());
+        }
+
+        /**
+         * Creates the distribution.
+         * The builder can still be used afterwards.
+         *
+         * @param kernelFactory Factory for creating within-bin kernels.
+         * @return a new distribution.
+         * @throws NoDataException if no value has been added.
+         */
+        public EmpiricalDistribution build(Function<SummaryStatistics, ContinuousDistribution> kernelFactory) {
+            if (sampleStats.getN() == 0) {
+                throw new NoDataException();
+            }
+
+            final double min;
+            final double max;
+            final List<SummaryStatistics> binStats = new ArrayList<>(binCount);
+            if (!fixedRange && width == 0) {
+                // All values are equal.
+                min = pending.getMin();
+                max = min;
+                binStats.add(pending.copy());
+                for (int i = 1; i < binCount; i++) {
+                    binStats.add(new SummaryStatistics());
+                }
+            } else {
+                min = lower;
+                max = fixedRange ? upper : lower + binCount * width;
+                for (int i = 0; i < binCount; i++) {
+                    binStats.add(bins[i] == null ? new SummaryStatistics() : bins[i].copy());
+                }
+            }
+
+            return new EmpiricalDistribution(binCount,
+                                             min,
+                                             max,
+                                             binStats,
+                                             sampleStats.copy(),
+                                             kernelFactory);
+        }
+
+        /**
+         * Adds a group of values that are all equal (adaptive binning only).
+         *
+         * @param equal Statistics of the values.
+         */
+        private void addEqualValues(SummaryStatistics equal) {
+            final double value = equal.getMin();
+            if (width == 0) {
+                if (pending.getN() == 0 ||
+                    pending.getMin() == value) {
+                    pending.combine(equal);
+                    return;
+                }
+                final double v = pending.getMin();
+                final double a = Math.min(v, value);
+                final double b = Math.max(v, value);
+                layout(a, b, Math.scalb(1d, Math.getExponent(b / binCount - a / binCount)));
+            } else if (!isCovered(value)) {
+                layout(Math.min(value, sampleStats.getMin()),
+                       Math.max(value, sampleStats.getMax()),
+                       width);
+            }
+            merge(bins, gridIndex(value), equal);
+        }
+
+        /**
+         * Sets up the smallest adaptive grid that covers the given range,
+         * and whose spacing is at least the given one; the values loaded
+         * so far are redistributed into the new bins.
+         *
+         * @param a Lower bound of the range.
+         * @param b Upper bound of the range.
+         * @param minWidth Smallest allowed spacing (a power of two).
+         */
+        private void layout(double a,
+                            double b,
+                            double minWidth) {
+            double w = minWidth;
+            while (Math.ceil(b / w) - Math.ceil(a / w) > binCount - 1) {
+                w *= 2;
+            }
+
+            final SummaryStatistics[] newBins = new SummaryStatistics[binCount];
+            final double oldLower = lower;
+            final double oldWidth = width;
+            final SummaryStatistics[] oldBins = bins;
+            lower = (Math.ceil(a / w) - 1) * w;
+            width = w;
+            bins = newBins;
+            if (oldWidth != 0) {
+                rebin(oldBins, oldLower, oldWidth, newBins);
+            }
+            if (pending != null) {
+                if (pending.getN() != 0) {
+                    merge(newBins, gridIndex(pending.getMin()), pending);
+                }
+                pending = null;
+            }
+        }
+
+        /**
+         * Merges the bins of an aligned grid into the bins of the current
+         * grid, whose spacing must be a multiple of the source spacing.
+         *
+         * @param source Bins to merge.
+         * @param sourceLower Lower bound of the source grid.
+         * @param sourceWidth Spacing of the source grid.
+         * @param dest Bins of the current grid.
+         */
+        private void rebin(SummaryStatistics[] source,
+                           double sourceLower,
+                           double sourceWidth,
+                           SummaryStatistics[] dest) {
+            final double ratio = width / sourceWidth;
+            final double first = sourceLower / sourceWidth;
+            final double offset = lower / width;
+            for (int i = 0; i < binCount; i++) {
+                if (source[i] != null) {
+                    // Source bin "i" is the interval (first + i, first + i + 1] (in
+                    // units of the source spacing): find the destination bin that
+                    // contains its upper bound.
+                    final int j = (int) (Math.ceil((first + i + 1) / ratio) - 1 - offset);
+                    merge(dest, clamp(j), source[i]);
+                }
+            }
+        }
+
+        /**
+         * @param value Value.
+         * @return {@code true} if the adaptive grid contains {@code value}.
+         */
+        private boolean isCovered(double value) {
+            final double index = Math.ceil(value / width) - 1 - lower / width;
+            return index >= 0 &&
+                index < binCount;
+        }
+
+        /**
+         * @param value Value (must be covered by the adaptive grid).
+         * @return the index of the bin that contains {@code value}.
+         */
+        private int gridIndex(double value) {
+            return clamp((int) (Math.ceil(value / width) - 1 - lower / width));
+        }
+
+        /**
+         * @param index Bin index.
+         * @return the index, clamped to the valid range.
+         */
+        private int clamp(int index) {
+            return Math.min(Math.max(index, 0), binCount - 1);
+        }
+
+        /**
+         * @param index Bin index.
+         * @return the statistics of the bin (created if necessary).
+         */
+        private SummaryStatistics bin(int index) {
+            SummaryStatistics s = bins[index];
+            if (s == null) {
+                s = new SummaryStatistics();
+                bins[index] = s;
+            }
+            return s;
+        }
+
+        /**
+         * Adds a copy of the given statistics into a bin.
+         *
+         * @param dest Bins.
+         * @param index Index of the destination bin.
+         * @param stats Statistics to add.
+         */
+        private static void merge(SummaryStatistics[] dest,
+                                  int index,
+                                  SummaryStatistics stats) {
+            if (dest[index] == null) {
+                dest[index] = stats.copy();
+            } else {
+                dest[index].combine(stats);
+            }
+        }
+    }
+
     /**
      * Constant distribution.
      */
@@ -0,0 +1,323 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.filter;
+
+import org.apache.commons.math4.legacy.exception.DimensionMismatchException;
+import org.apache.commons.math4.legacy.exception.NullArgumentException;
+import org.apache.commons.math4.legacy.linear.Array2DRowRealMatrix;
+import org.apache.commons.math4.legacy.linear.NonSquareMatrixException;
+import org.apache.commons.math4.legacy.linear.RealMatrix;
+import org.apache.commons.math4.legacy.linear.RealVector;
+import org.apache.commons.math4.legacy.linear.SingularMatrixException;
+
+/**
+ * Base class for the Kalman filters of nonlinear systems.
+ * <p>
+ * The state estimation and the error covariance are kept in primitive arrays,
+ * and the subclasses preallocate all the workspace they need, so that a
+ * prediction or a correction step does not allocate any memory (unless
+ * the models do).
+ * The process and measurement noises are assumed to be additive.
+ *
+ * @see ExtendedKalmanFilter
+ * @see UnscentedKalmanFilter
+ * @since 4.0
+ */
+public abstract class AbstractNonLinearKalmanFilter {
+    /** The process model used by this filter instance. */
+    private final NonLinearProcessModel processModel;
+    /** The measurement model used by this filter instance. */
+    private final NonLinearMeasurementModel measurementModel;
+    /** Dimension of the state. */
+    private final int n;
+    /** Dimension of the measurement. */
+    private final int m;
+    /** The internal state estimation vector. */
+    private final double[] state;
+    /** The error covariance matrix. */
+    private final double[][] covariance;
+
+    /**
+     * Creates a new filter with the given process and measurement models.
+     *
+     * @param process
+     *            the model defining the underlying process dynamics
+     * @param measurement
+     *            the model defining the given measurement characteristics
+     * @throws NullArgumentException
+     *             if any of the given inputs is null (except for the initial
+     *             state estimate and error covariance)
+     * @throws NonSquareMatrixException
+     *             if the process or measurement noise, or the initial error
+     *             covariance, is not square
+     * @throws DimensionMismatchException
+     *             if the initial state estimate or error covariance does not
+     *             fit the process noise
+     */
+    AbstractNonLinearKalmanFilter(final NonLinearProcessModel process,
+                                  final NonLinearMeasurementModel measurement) {
+        NullArgumentException.check(process);
+        NullArgumentException.check(measurement);
+
+        this.processModel = process;
+        this.measurementModel = measurement;
+
+        final RealMatrix q = process.getProcessNoise();
+        NullArgumentException.check(q);
+        checkSquare(q);
+        n = q.getRowDimension();
+
+        final RealMatrix r = measurement.getMeasurementNoise();
+        NullArgumentException.check(r);
+        checkSquare(r);
+        m = r.getRowDimension();
+
+        state = new double[n];
+        covariance = new double[n][n];
+        reset(process.getInitialStateEstimate(), process.getInitialErrorCovariance());
+    }
+
+    /**
+     * Resets the state estimation and the error covariance.
+     *
+     * @param x Initial state estimation; if {@code null}, a zero vector is used.
+     * @param p Initial error covariance; if {@code null}, the process noise is used.
+     * @throws DimensionMismatchException if the dimensions do not fit the state.
+     * @throws NonSquareMatrixException if {@code p} is not square.
+     */
+    public void reset(final RealVector x,
+                      final RealMatrix p) {
+        if (x == null) {
+            for (int i = 0; i < n; i++) {
+                state[i] = 0;
+            }
+        } else {
+            if (x.getDimension() != n) {
+                throw new DimensionMismatchException(x.getDimension(), n);
+            }
+            for (int i = 0; i < n; i++) {
+                state[i] = x.getEntry(i);
+            }
+        }
+
+        final RealMatrix p0 = p == null ? processModel.getProcessNoise() : p;
+        checkSquare(p0);
+        if (p0.getRowDimension() != n) {
+            throw new DimensionMismatchException(p0.getRowDimension(), n);
+        }
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                covariance[i][j] = p0.getEntry(i, j);
+            }
+        }
+    }
+
+    /**
+     * Returns the dimension of the state estimation vector.
+     *
+     * @return the state dimension
+     */
+    public int getStateDimension() {
+        return n;
+    }
+
+    /**
+     * Returns the dimension of the measurement vector.
+     *
+     * @return the measurement vector dimension
+     */
+    public int getMeasurementDimension() {
+        return m;
+    }
+
+    /**
+     * Returns the current state estimation vector.
+     *
+     * @return the state estimation vector
+     */
+    public double[] getStateEstimation() {
+        return state.clone();
+    }
+
+    /**
+     * Returns the current error covariance matrix.
+     *
+     * @return the error covariance matrix
+     */
+    public double[][] getErrorCovariance() {
+        final double[][] copy = new double[n][];
+        for (int i = 0; i < n; i++) {
+            copy[i] = covariance[i].clone();
+        }
+        return copy;
+    }
+
+    /**
+     * Returns a copy of the current error covariance matrix.
+     *
+     * @return the error covariance matrix
+     */
+    public RealMatrix getErrorCovarianceMatrix() {
+        return new Array2DRowRealMatrix(covariance);
+    }
+
+    /**
+     * Predict the internal state estimation one time step ahead.
+     */
+    public void predict() {
+        predict(null);
+    }
+
+    /**
+     * Predict the internal state estimation one time step ahead.
+     *
+     * @param u
+     *            the control vector (may be {@code null})
+     * @throws DimensionMismatchException
+     *             if the process noise no longer fits the state
+     */
+    public void predict(final double[] u) {
+        final RealMatrix q = processModel.getProcessNoise();
+        checkDimension(q, n);
+        doPredict(u, q);
+        symmetrize(covariance);
+    }
+
+    /**
+     * Correct the current state estimate with an actual measurement.
+     *
+     * @param z
+     *            the measurement vector
+     * @throws NullArgumentException
+     *             if the measurement vector is {@code null}
+     * @throws DimensionMismatchException
+     *             if the dimension of the measurement vector does not fit
+     * @throws SingularMatrixException
+     *             if the covariance matrix of the innovation is singular
+     */
+    public void correct(final double[] z) {
+        NullArgumentException.check(z);
+        if (z.length != m) {
+            throw new DimensionMismatchException(z.length, m);
+        }
+        final RealMatrix r = measurementModel.getMeasurementNoise();
+        checkDimension(r, m);
+        doCorrect(z, r);
+        symmetrize(covariance);
+    }
+
+    /**
+     * Performs the prediction step.
+     *
+     * @param u Control vector (may be {@code null}).
+     * @param q Process noise.
+     */
+    abstract void doPredict(double[] u, RealMatrix q);
+
+    /**
+     * Performs the correction step.
+     *
+     * @param z Measurement vector.
+     * @param r Measurement noise.
+     */
+    abstract void doCorrect(double[] z, RealMatrix r);
+
+    /**
+     * @return the process model.
+     */
+    NonLinearProcessModel getProcessModel() {
+        return processModel;
+    }
+
+    /**
+     * @return the measurement model.
+     */
+    NonLinearMeasurementModel getMeasurementModel() {
+        return measurementModel;
+    }
+
+    /**
+     * @return the state estimation (not copied).
+     */
+    double[] state() {
+        return state;
+    }
+
+    /**
+     * @return the error covariance (not copied).
+     */
+    double[][] covariance() {
+        return covariance;
+    }
+
+    /**
+     * Computes, in place, the Cholesky factor of the covariance matrix of the
+     * innovation, and the gain {@code K = C S^-1}.
+     *
+     * @param s Covariance matrix of the innovation, replaced by its factor.
+     * @param c Cross-covariance of the state and the measurement, replaced by the gain.
+     * @throws SingularMatrixException if {@code s} is singular.
+     */
+    static void gain(final double[][] s,
+                     final double[][] c) {
+        NoiseFactors.cholesky(s);
+        for (int i = 0; i < s.length; i++) {
+            if (s[i][i] == 0) {
+                throw new SingularMatrixException();
+            }
+        }
+        NoiseFactors.solveRight(s, c);
+    }
+
+    /**
+     * @param a Square matrix, replaced by {@code (A + A^T) / 2}.
+     */
+    private static void symmetrize(final double[][] a) {
+        for (int i = 0; i < a.length; i++) {
+            for (int j = 0; j < i; j++) {
+                final double v = 0.5 * (a[i][j] + a[j][i]);
+                a[i][j] = v;
+                a[j][i] = v;
+            }
+        }
+    }
+
+    /**
+     * @param a Matrix.
+     * @throws NonSquareMatrixException if the matrix is not square.
+     */
+    private static void checkSquare(final RealMatrix a) {
+        if (!a.isSquare()) {
+            throw new NonSquareMatrixException(a.getRowDimension(),
+                                               a.getColumnDimension());
+        }
+    }
+
+    /**
+     * @param a Noise matrix.
+     * @param dim Expected dimension.
+     * @throws DimensionMismatchException if the matrix does not have the
+     * expected dimension.
+     */
+    private static void checkDimension(final RealMatrix a,
+                                       final int dim) {
+        if (a.getRowDimension() != dim ||
+            a.getColumnDimension() != dim) {
+            throw new DimensionMismatchException(a.getRowDimension(), dim);
+        }
+    }
+}
@@ -24,10 +24,11 @@ import org.apache.commons.math4.legacy.linear.RealMatrix;
 
 /**
  * Default implementation of a {@link MeasurementModel} for the use with a {@link KalmanFilter}.
+ * Being linear, it can also be used with the {@link NonLinearMeasurementModel nonlinear filters}.
  *
  * @since 3.0
  */
-public class DefaultMeasurementModel implements MeasurementModel {
+public class DefaultMeasurementModel implements MeasurementModel, NonLinearMeasurementModel {
 
     /**
      * The measurement matrix, used to associate the measurement vector to the
@@ -83,4 +84,30 @@ public class DefaultMeasurementModel implements MeasurementModel {
     public RealMatrix getMeasurementNoise() {
         return measurementNoise;
     }
+
+    /** {@inheritDoc} */
+    @Override
+    public void measure(double[] state, double[] result) {
+        final int m = measurementMatrix.getRowDimension();
+        final int n = measurementMatrix.getColumnDimension();
+        for (int i = 0; i < m; i++) {
+            double s = 0;
+            for (int k = 0; k < n; k++) {
+                s += measurementMatrix.getEntry(i, k) * state[k];
+            }
+            result[i] = s;
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void getJacobian(double[] state, double[][] result) {
+        final int m = measurementMatrix.getRowDimension();
+        final int n = measurementMatrix.getColumnDimension();
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < n; j++) {
+                result[i][j] = measurementMatrix.getEntry(i, j);
+            }
+        }
+    }
 }
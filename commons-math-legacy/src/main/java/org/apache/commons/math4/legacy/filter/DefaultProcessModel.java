@@ -26,10 +26,11 @@ import org.apache.commons.math4.legacy.linear.RealVector;
 
 /**
  * Default implementation of a {@link ProcessModel} for the use with a {@link KalmanFilter}.
+ * Being linear, it can also be used with the {@link NonLinearProcessModel nonlinear filters}.
  *
  * @since 3.0
  */
-public class DefaultProcessModel implements ProcessModel {
+public class DefaultProcessModel implements ProcessModel, NonLinearProcessModel {
     /**
      * The state transition matrix, used to advance the internal state estimation each time-step.
      */
@@ -167,4 +168,43 @@ public class DefaultProcessModel implements ProcessModel {
     public RealMatrix getInitialErrorCovariance() {
         return initialErrorCovMatrix;
     }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws DimensionMismatchException if the dimension of the control
+     * vector does not match the control matrix.
+     */
+    @Override
+    public void evolve(double[] state, double[] control, double[] result) {
+        final int n = stateTransitionMatrix.getRowDimension();
+        int c = 0;
+        if (control != null) {
+            c = controlMatrix == null ? 0 : controlMatrix.getColumnDimension();
+            if (control.length != c) {
+                throw new DimensionMismatchException(control.length, c);
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            double s = 0;
+            for (int k = 0; k < n; k++) {
+                s += stateTransitionMatrix.getEntry(i, k) * state[k];
+            }
+            for (int k = 0; k < c; k++) {
+                s += controlMatrix.getEntry(i, k) * control[k];
+            }
+            result[i] = s;
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void getJacobian(double[] state, double[] control, double[][] result) {
+        final int n = stateTransitionMatrix.getRowDimension();
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                result[i][j] = stateTransitionMatrix.getEntry(i, j);
+            }
+        }
+    }
 }
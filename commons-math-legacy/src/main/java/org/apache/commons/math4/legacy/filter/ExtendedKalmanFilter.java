@@ -0,0 +1,265 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.filter;
+
+import org.apache.commons.math4.legacy.exception.DimensionMismatchException;
+import org.apache.commons.math4.legacy.exception.MathUnsupportedOperationException;
+import org.apache.commons.math4.legacy.exception.NullArgumentException;
+import org.apache.commons.math4.legacy.linear.NonSquareMatrixException;
+import org.apache.commons.math4.legacy.linear.RealMatrix;
+
+/**
+ * Extended Kalman filter.
+ * <p>
+ * The models are linearized around the current state estimation, by means of
+ * the Jacobians computed by
+ * {@link NonLinearProcessModel#getJacobian(double[], double[], double[][])} and
+ * {@link NonLinearMeasurementModel#getJacobian(double[], double[][])}:
+ * <pre>
+ * x(k)- = f(x(k-1), u(k-1))
+ * P(k)- = F P(k-1) F^T + Q
+ * K(k) = P(k)- H^T (H P(k)- H^T + R)^-1
+ * x(k) = x(k)- + K(k) (z(k) - h(x(k)-))
+ * P(k) = (I - K(k) H) P(k)- (I - K(k) H)^T + K(k) R K(k)^T
+ * </pre>
+ * The covariance update uses the Joseph form, which keeps the error
+ * covariance positive semi-definite in the presence of rounding errors.
+ * <p>
+ * When both models are linear (e.g. {@link DefaultProcessModel} and
+ * {@link DefaultMeasurementModel}), the filter is equivalent to the
+ * {@link KalmanFilter}.
+ * <p>
+ * The {@link #predict(double[]) prediction} (resp. {@link #correct(double[])
+ * correction}) step throws a {@link MathUnsupportedOperationException} if
+ * the process (resp. measurement) model does not provide its Jacobian.
+ *
+ * @see UnscentedKalmanFilter
+ * @since 4.0
+ */
+public class ExtendedKalmanFilter extends AbstractNonLinearKalmanFilter {
+    /** Jacobian of the state transition. */
+    private final double[][] transitionJacobian;
+    /** Jacobian of the measurement function. */
+    private final double[][] measurementJacobian;
+    /** Workspace ({@code n x n}). */
+    private final double[][] work;
+    /** Workspace ({@code n x n}): {@code I - K H}. */
+    private final double[][] update;
+    /** Cross-covariance {@code P H^T}, then gain ({@code n x m}). */
+    private final double[][] gain;
+    /** Workspace ({@code n x m}): {@code K R}. */
+    private final double[][] gainNoise;
+    /** Covariance of the innovation, then its factor ({@code m x m}). */
+    private final double[][] innovationCovariance;
+    /** Predicted state. */
+    private final double[] predicted;
+    /** Innovation. */
+    private final double[] innovation;
+
+    /**
+     * Creates a new extended Kalman filter with the given process and
+     * measurement models.
+     *
+     * @param process
+     *            the model defining the underlying process dynamics
+     * @param measurement
+     *            the model defining the given measurement characteristics
+     * @throws NullArgumentException
+     *             if any of the given inputs is null (except for the initial
+     *             state estimate and error covariance)
+     * @throws NonSquareMatrixException
+     *             if the process or measurement noise, or the initial error
+     *             covariance, is not square
+     * @throws DimensionMismatchException
+     *             if the initial state estimate or error covariance does not
+     *             fit the process noise
+     */
+    public ExtendedKalmanFilter(final NonLinearProcessModel process,
+                                final NonLinearMeasurementModel measurement) {
+        super(process, measurement);
+        final int n = getStateDimension();
+        final int m = getMeasurementDimension();
+        transitionJacobian = new double[n][n];
+        measurementJacobian = new double[m][n];
+        work = new double[n][n];
+        update = new double[n][n];
+        gain = new double[n][m];
+        gainNoise = new double[n][m];
+        innovationCovariance = new double[m][m];
+        predicted = new double[n];
+        innovation = new double[m];
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    void doPredict(final double[] u,
+                   final RealMatrix q) {
+        final NonLinearProcessModel model = getProcessModel();
+        final double[] x = state();
+        final double[][] p = covariance();
+        final double[][] f = transitionJacobian;
+        final int n = x.length;
+
+        // x(k)- = f(x(k-1), u(k-1))
+        model.getJacobian(x, u, f);
+        model.evolve(x, u, predicted);
+        System.arraycopy(predicted, 0, x, 0, n);
+
+        // P(k)- = F P(k-1) F^T + Q
+        multiply(f, p, work);
+        for (int i = 0; i < n; i++) {
+            final double[] wi = work[i];
+            for (int j = 0; j < n; j++) {
+                final double[] fj = f[j];
+                double s = q.getEntry(i, j);
+                for (int k = 0; k < n; k++) {
+                    s += wi[k] * fj[k];
+                }
+                p[i][j] = s;
+            }
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    void doCorrect(final double[] z,
+                   final RealMatrix r) {
+        final NonLinearMeasurementModel model = getMeasurementModel();
+        final double[] x = state();
+        final double[][] p = covariance();
+        final double[][] h = measurementJacobian;
+        final double[][] s = innovationCovariance;
+        final double[][] k = gain;
+        final int n = x.length;
+        final int m = z.length;
+
+        model.getJacobian(x, h);
+        model.measure(x, innovation);
+        for (int i = 0; i < m; i++) {
+            innovation[i] = z[i] - innovation[i];
+        }
+
+        // P H^T
+        for (int i = 0; i < n; i++) {
+            final double[] pi = p[i];
+            for (int j = 0; j < m; j++) {
+                final double[] hj = h[j];
+                double sum = 0;
+                for (int l = 0; l < n; l++) {
+                    sum += pi[l] * hj[l];
+                }
+                k[i][j] = sum;
+            }
+        }
+
+        // S = H P H^T + R (lower triangle)
+        for (int i = 0; i < m; i++) {
+            final double[] hi = h[i];
+            for (int j = 0; j <= i; j++) {
+                double sum = r.getEntry(i, j);
+                for (int l = 0; l < n; l++) {
+                    sum += hi[l] * k[l][j];
+                }
+                s[i][j] = sum;
+            }
+        }
+
+        // K = P H^T S^-1
+        gain(s, k);
+
+        // x(k) = x(k)- + K (z - h(x(k)-))
+        for (int i = 0; i < n; i++) {
+            final double[] ki = k[i];
+            double sum = 0;
+            for (int j = 0; j < m; j++) {
+                sum += ki[j] * innovation[j];
+            }
+            x[i] += sum;
+        }
+
+        // I - K H
+        for (int i = 0; i < n; i++) {
+            final double[] ki = k[i];
+            final double[] ui = update[i];
+            for (int j = 0; j < n; j++) {
+                double sum = i == j ? 1 : 0;
+                for (int l = 0; l < m; l++) {
+                    sum -= ki[l] * h[l][j];
+                }
+                ui[j] = sum;
+            }
+        }
+
+        // K R
+        for (int i = 0; i < n; i++) {
+            final double[] ki = k[i];
+            for (int j = 0; j < m; j++) {
+                double sum = 0;
+                for (int l = 0; l < m; l++) {
+                    sum += ki[l] * r.getEntry(l, j);
+                }
+                gainNoise[i][j] = sum;
+            }
+        }
+
+        // P(k) = (I - K H) P(k)- (I - K H)^T + K R K^T
+        multiply(update, p, work);
+        for (int i = 0; i < n; i++) {
+            final double[] wi = work[i];
+            final double[] gi = gainNoise[i];
+            for (int j = 0; j < n; j++) {
+                final double[] uj = update[j];
+                final double[] kj = k[j];
+                double sum = 0;
+                for (int l = 0; l < n; l++) {
+                    sum += wi[l] * uj[l];
+                }
+                for (int l = 0; l < m; l++) {
+                    sum += gi[l] * kj[l];
+                }
+                p[i][j] = sum;
+            }
+        }
+    }
+
+    /**
+     * Computes {@code C = A B} for square matrices.
+     *
+     * @param a Left factor.
+     * @param b Right factor.
+     * @param c Product (output, distinct from the factors).
+     */
+    private static void multiply(final double[][] a,
+                                 final double[][] b,
+                                 final double[][] c) {
+        final int n = a.length;
+        for (int i = 0; i < n; i++) {
+            final double[] ai = a[i];
+            final double[] ci = c[i];
+            for (int j = 0; j < n; j++) {
+                ci[j] = 0;
+            }
+            for (int k = 0; k < n; k++) {
+                final double aik = ai[k];
+                final double[] bk = b[k];
+                for (int j = 0; j < n; j++) {
+                    ci[j] += aik * bk[j];
+                }
+            }
+        }
+    }
+}
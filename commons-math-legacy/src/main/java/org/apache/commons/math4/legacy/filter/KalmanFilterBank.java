@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.filter;
+
+import java.util.concurrent.ExecutorService;
+
+import org.apache.commons.math4.legacy.exception.DimensionMismatchException;
+import org.apache.commons.math4.legacy.exception.NotStrictlyPositiveException;
+import org.apache.commons.math4.legacy.exception.NullArgumentException;
+import org.apache.commons.math4.legacy.linear.SingularMatrixException;
+import org.apache.commons.math4.legacy.util.ConcurrentTasks;
+
+/**
+ * Set of independent {@link SquareRootKalmanFilter square-root Kalman filters}
+ * that share the same process and measurement models (e.g. one filter per
+ * tracked object).
+ *
+ * <p>The noise matrices are read from the models, and factored, once per
+ * step for all the filters; the filters can be stepped concurrently, by
+ * groups of consecutive filters.</p>
+ *
+ * @since 4.0
+ */
+public class KalmanFilterBank {
+    /** Number of filters stepped by the same task. */
+    private static final int GROUP_SIZE = 64;
+    /** The process model. */
+    private final ProcessModel processModel;
+    /** The measurement model. */
+    private final MeasurementModel measurementModel;
+    /** Noise factors shared by the filters. */
+    private final NoiseFactors factors;
+    /** Filters. */
+    private final SquareRootKalmanFilter[] filters;
+
+    /**
+     * Creates filters initialized from the process model.
+     *
+     * @param process
+     *            the model defining the underlying process dynamics
+     * @param measurement
+     *            the model defining the given measurement characteristics
+     * @param size
+     *            number of filters
+     * @throws NotStrictlyPositiveException if {@code size <= 0}.
+     * @see SquareRootKalmanFilter#SquareRootKalmanFilter(ProcessModel,MeasurementModel)
+     */
+    public KalmanFilterBank(final ProcessModel process,
+                            final MeasurementModel measurement,
+                            final int size) {
+        if (size <= 0) {
+            throw new NotStrictlyPositiveException(size);
+        }
+        NullArgumentException.check(process);
+        NullArgumentException.check(measurement);
+        NullArgumentException.check(measurement.getMeasurementMatrix());
+
+        this.processModel = process;
+        this.measurementModel = measurement;
+        factors = new NoiseFactors(measurement.getMeasurementMatrix().getData(),
+                                   measurement.getMeasurementMatrix().getColumnDimension());
+        filters = new SquareRootKalmanFilter[size];
+        for (int i = 0; i < size; i++) {
+            filters[i] = new SquareRootKalmanFilter(process, measurement, factors);
+        }
+    }
+
+    /**
+     * @return the number of filters.
+     */
+    public int getSize() {
+        return filters.length;
+    }
+
+    /**
+     * Gets one of the filters (e.g. to read its estimation, or to
+     * {@link SquareRootKalmanFilter#reset(double[],
+     * org.apache.commons.math4.legacy.linear.RealMatrix) reset} it).
+     * The filters must not be stepped individually while the bank is
+     * being stepped.
+     *
+     * @param index Index of the filter.
+     * @return the filter.
+     */
+    public SquareRootKalmanFilter getFilter(final int index) {
+        return filters[index];
+    }
+
+    /**
+     * Predicts the state estimation of all the filters one time step ahead.
+     *
+     * @param u
+     *            the control vector of each filter ({@code null} if there is
+     *            no control input)
+     * @param executor
+     *            executor ({@code null} to step all the filters in the
+     *            calling thread)
+     * @throws DimensionMismatchException
+     *             if the number of control vectors, or the dimension of one
+     *             of them, does not fit
+     */
+    public void predict(final double[][] u,
+                        final ExecutorService executor) {
+        if (u != null) {
+            if (u.length != filters.length) {
+                throw new DimensionMismatchException(u.length, filters.length);
+            }
+            for (int i = 0; i < filters.length; i++) {
+                filters[i].checkControl(u[i]);
+            }
+        }
+
+        factors.setProcessNoise(processModel.getProcessNoise());
+        ConcurrentTasks.runRanges(executor, filters.length, GROUP_SIZE, (from, to) -> {
+                for (int i = from; i < to; i++) {
+                    filters[i].doPredict(u == null ? null : u[i]);
+                }
+            });
+    }
+
+    /**
+     * Corrects the state estimation of all the filters.
+     *
+     * @param z
+     *            the measurement vector of each filter ({@code null} for
+     *            the filters that have no measurement in this step)
+     * @param executor
+     *            executor ({@code null} to step all the filters in the
+     *            calling thread)
+     * @throws NullArgumentException
+     *             if {@code z} is {@code null}
+     * @throws DimensionMismatchException
+     *             if the number of measurement vectors, or the dimension of
+     *             one of them, does not fit
+     * @throws SingularMatrixException
+     *             if the measurement noise is singular
+     */
+    public void correct(final double[][] z,
+                        final ExecutorService executor) {
+        NullArgumentException.check(z);
+        if (z.length != filters.length) {
+            throw new DimensionMismatchException(z.length, filters.length);
+        }
+        for (int i = 0; i < filters.length; i++) {
+            if (z[i] != null) {
+                filters[i].checkMeasurement(z[i]);
+            }
+        }
+
+        factors.setMeasurementNoise(measurementModel.getMeasurementNoise());
+        ConcurrentTasks.runRanges(executor, filters.length, GROUP_SIZE, (from, to) -> {
+                for (int i = from; i < to; i++) {
+                    if (z[i] != null) {
+                        filters[i].doCorrect(z[i]);
+                    }
+                }
+            });
+    }
+}
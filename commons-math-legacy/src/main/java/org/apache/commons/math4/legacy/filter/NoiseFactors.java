@@ -0,0 +1,338 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.filter;
+
+import org.apache.commons.math4.legacy.linear.NonPositiveDefiniteMatrixException;
+import org.apache.commons.math4.legacy.linear.RealMatrix;
+import org.apache.commons.math4.legacy.linear.SingularMatrixException;
+import org.apache.commons.math4.core.jdkmath.JdkMath;
+
+/**
+ * Factors of the noise covariances of a {@link SquareRootKalmanFilter},
+ * computed once per step and shared by all the filters of a
+ * {@link KalmanFilterBank}; the static methods are the dense kernels
+ * shared by the filters that work on arrays.
+ *
+ * <ul>
+ *  <li>Lower triangular square root of the process noise Q.</li>
+ *  <li>Lower triangular square root L of the measurement noise R, and
+ *   "whitened" measurement matrix L<sup>-1</sup>H: with the measurement
+ *   transformed the same way, its noise has unit covariance, so that the
+ *   components can be processed one at a time.</li>
+ * </ul>
+ */
+final class NoiseFactors {
+    /** Relative threshold below which a pivot of a covariance is deemed zero. */
+    private static final double PIVOT_THRESHOLD = 1e-12;
+    /** Measurement matrix. */
+    private final double[][] measurement;
+    /** Square root of the process noise. */
+    private final double[][] sqrtQ;
+    /** Square root of the measurement noise. */
+    private final double[][] sqrtR;
+    /** Whitened measurement matrix. */
+    private final double[][] whitenedH;
+    /** Whether the measurement noise is diagonal. */
+    private boolean diagonalR;
+
+    /**
+     * @param measurement Measurement matrix (not copied).
+     * @param stateDimension Dimension of the state.
+     */
+    NoiseFactors(double[][] measurement,
+                 int stateDimension) {
+        final int m = measurement.length;
+        this.measurement = measurement;
+        sqrtQ = new double[stateDimension][stateDimension];
+        sqrtR = new double[m][m];
+        whitenedH = new double[m][stateDimension];
+    }
+
+    /**
+     * Factors the process noise.
+     *
+     * @param q Process noise covariance.
+     * @throws NonPositiveDefiniteMatrixException if {@code q} is not
+     * positive semi-definite.
+     */
+    void setProcessNoise(RealMatrix q) {
+        cholesky(q, sqrtQ);
+    }
+
+    /**
+     * Factors the measurement noise, and whitens the measurement matrix.
+     *
+     * @param r Measurement noise covariance.
+     * @throws SingularMatrixException if {@code r} is singular.
+     * @throws NonPositiveDefiniteMatrixException if {@code r} is not
+     * positive semi-definite.
+     */
+    void setMeasurementNoise(RealMatrix r) {
+        final int m = sqrtR.length;
+        diagonalR = true;
+        for (int i = 0; i < m && diagonalR; i++) {
+            for (int j = 0; j < m; j++) {
+                if (i != j && r.getEntry(i, j) != 0) {
+                    diagonalR = false;
+                    break;
+                }
+            }
+        }
+
+        if (diagonalR) {
+            for (int i = 0; i < m; i++) {
+                final double rii = r.getEntry(i, i);
+                if (rii < 0) {
+                    throw new NonPositiveDefiniteMatrixException(rii, i, 0);
+                }
+                sqrtR[i][i] = JdkMath.sqrt(rii);
+            }
+        } else {
+            cholesky(r, sqrtR);
+        }
+        for (int i = 0; i < m; i++) {
+            if (sqrtR[i][i] == 0) {
+                throw new SingularMatrixException();
+            }
+        }
+
+        for (int i = 0; i < m; i++) {
+            whiten(measurement[i], whitenedH, i);
+        }
+    }
+
+    /**
+     * @return the lower triangular square root of the process noise.
+     */
+    double[][] getSqrtProcessNoise() {
+        return sqrtQ;
+    }
+
+    /**
+     * @return the whitened measurement matrix.
+     */
+    double[][] getWhitenedMeasurementMatrix() {
+        return whitenedH;
+    }
+
+    /**
+     * Whitens a measurement.
+     *
+     * @param z Measurement.
+     * @param out Whitened measurement.
+     */
+    void whiten(double[] z,
+                double[] out) {
+        final int m = sqrtR.length;
+        if (diagonalR) {
+            for (int i = 0; i < m; i++) {
+                out[i] = z[i] / sqrtR[i][i];
+            }
+        } else {
+            // Forward substitution.
+            for (int i = 0; i < m; i++) {
+                double s = z[i];
+                for (int k = 0; k < i; k++) {
+                    s -= sqrtR[i][k] * out[k];
+                }
+                out[i] = s / sqrtR[i][i];
+            }
+        }
+    }
+
+    /**
+     * Whitens the columns of a row of the measurement matrix.
+     *
+     * @param hRow Row of the measurement matrix.
+     * @param out Whitened matrix.
+     * @param row Index of the row.
+     */
+    private void whiten(double[] hRow,
+                        double[][] out,
+                        int row) {
+        final int n = hRow.length;
+        if (diagonalR) {
+            final double scale = 1 / sqrtR[row][row];
+            for (int j = 0; j < n; j++) {
+                out[row][j] = hRow[j] * scale;
+            }
+        } else {
+            // Row "row" of the forward substitution, for all columns at once.
+            final double diag = sqrtR[row][row];
+            for (int j = 0; j < n; j++) {
+                double s = hRow[j];
+                for (int k = 0; k < row; k++) {
+                    s -= sqrtR[row][k] * out[k][j];
+                }
+                out[row][j] = s / diag;
+            }
+        }
+    }
+
+    /**
+     * Computes the lower triangular Cholesky factor of a symmetric positive
+     * semi-definite matrix (only its lower triangle is accessed).
+     *
+     * @param a Matrix.
+     * @param l Factor (output).
+     * @throws NonPositiveDefiniteMatrixException if {@code a} is not
+     * positive semi-definite.
+     * @see #cholesky(double[][])
+     */
+    static void cholesky(RealMatrix a,
+                         double[][] l) {
+        final int n = l.length;
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j <= i; j++) {
+                l[i][j] = a.getEntry(i, j);
+            }
+        }
+        cholesky(l);
+    }
+
+    /**
+     * Computes, in place, the lower triangular Cholesky factor of a symmetric
+     * positive semi-definite matrix (only its lower triangle is accessed).
+     * The columns of the factor that correspond to zero pivots are set to zero.
+     *
+     * @param l Matrix, replaced by its factor.
+     * @throws NonPositiveDefiniteMatrixException if the matrix is not
+     * positive semi-definite.
+     */
+    static void cholesky(double[][] l) {
+        final int n = l.length;
+        double maxDiag = 0;
+        for (int j = 0; j < n; j++) {
+            maxDiag = JdkMath.max(maxDiag, JdkMath.abs(l[j][j]));
+        }
+        final double threshold = PIVOT_THRESHOLD * maxDiag;
+
+        for (int j = 0; j < n; j++) {
+            final double[] lj = l[j];
+            double d = lj[j];
+            for (int k = 0; k < j; k++) {
+                d -= lj[k] * lj[k];
+            }
+            if (d < -threshold) {
+                throw new NonPositiveDefiniteMatrixException(d, j, threshold);
+            }
+            if (d <= threshold) {
+                lj[j] = 0;
+                for (int i = j + 1; i < n; i++) {
+                    l[i][j] = 0;
+                }
+            } else {
+                final double ljj = JdkMath.sqrt(d);
+                lj[j] = ljj;
+                for (int i = j + 1; i < n; i++) {
+                    final double[] li = l[i];
+                    double s = li[j];
+                    for (int k = 0; k < j; k++) {
+                        s -= li[k] * lj[k];
+                    }
+                    li[j] = s / ljj;
+                }
+            }
+            for (int k = j + 1; k < n; k++) {
+                lj[k] = 0;
+            }
+        }
+    }
+
+    /**
+     * Solves {@code X L L^T = B} for a matrix {@code X}, in place.
+     *
+     * @param l Lower triangular factor, with a non-zero diagonal.
+     * @param b Right-hand side ({@code r x m}), replaced by the solution.
+     */
+    static void solveRight(double[][] l,
+                           double[][] b) {
+        final int m = l.length;
+        for (final double[] row : b) {
+            // Solve y L^T = b, i.e. L y^T = b^T.
+            for (int i = 0; i < m; i++) {
+                double s = row[i];
+                for (int k = 0; k < i; k++) {
+                    s -= l[i][k] * row[k];
+                }
+                row[i] = s / l[i][i];
+            }
+            // Solve x L = y, i.e. L^T x^T = y^T.
+            for (int i = m - 1; i >= 0; i--) {
+                double s = row[i];
+                for (int k = i + 1; k < m; k++) {
+                    s -= l[k][i] * row[k];
+                }
+                row[i] = s / l[i][i];
+            }
+        }
+    }
+
+    /**
+     * Computes a lower triangular matrix {@code L} such that
+     * {@code L L^T = M M^T}, by applying Householder reflections to the
+     * right of {@code M} (LQ decomposition).
+     *
+     * @param m Matrix (destroyed), with at least as many columns as rows.
+     * @param columns Number of columns of {@code m} to use.
+     * @param v Work array (at least {@code columns} elements).
+     * @param l Factor (output), with non-negative diagonal.
+     */
+    static void triangularize(double[][] m,
+                              int columns,
+                              double[] v,
+                              double[][] l) {
+        final int n = l.length;
+        for (int k = 0; k < n; k++) {
+            final double[] mk = m[k];
+            double norm2 = 0;
+            for (int j = k; j < columns; j++) {
+                norm2 += mk[j] * mk[j];
+            }
+            if (norm2 == 0) {
+                continue;
+            }
+            final double norm = JdkMath.sqrt(norm2);
+            final double alpha = mk[k] > 0 ? -norm : norm;
+            v[k] = mk[k] - alpha;
+            double vv = v[k] * v[k];
+            for (int j = k + 1; j < columns; j++) {
+                v[j] = mk[j];
+                vv += v[j] * v[j];
+            }
+            for (int i = k; i < n; i++) {
+                final double[] mi = m[i];
+                double dot = 0;
+                for (int j = k; j < columns; j++) {
+                    dot += mi[j] * v[j];
+                }
+                final double beta = 2 * dot / vv;
+                for (int j = k; j < columns; j++) {
+                    mi[j] -= beta * v[j];
+                }
+            }
+        }
+
+        for (int j = 0; j < n; j++) {
+            // Flipping the sign of a column does not change "L L^T".
+            final double sign = m[j][j] < 0 ? -1 : 1;
+            for (int i = 0; i < n; i++) {
+                l[i][j] = i < j ? 0 : sign * m[i][j];
+            }
+        }
+    }
+}
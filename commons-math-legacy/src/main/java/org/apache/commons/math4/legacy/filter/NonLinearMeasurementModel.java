@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.filter;
+
+import org.apache.commons.math4.legacy.exception.MathUnsupportedOperationException;
+import org.apache.commons.math4.legacy.linear.RealMatrix;
+
+/**
+ * Defines the measurement model for the use with an
+ * {@link ExtendedKalmanFilter} or an {@link UnscentedKalmanFilter}:
+ *
+ * <pre>
+ * <i>z<sub>k</sub></i> = <i>h</i>(<i>x<sub>k</sub></i>) + <i>v<sub>k</sub></i>
+ * </pre>
+ *
+ * <p>The measurement function and its Jacobian write into arrays provided
+ * by the filter, so that no memory needs to be allocated at each step.</p>
+ *
+ * @see DefaultMeasurementModel
+ * @since 4.0
+ */
+public interface NonLinearMeasurementModel {
+    /**
+     * Computes the measurement function <i>h</i>.
+     *
+     * @param state the state (must not be modified)
+     * @param result array into which the predicted measurement must be stored
+     */
+    void measure(double[] state, double[] result);
+
+    /**
+     * Computes the Jacobian of the measurement function with respect to the state.
+     * It is required by the {@link ExtendedKalmanFilter}; the default
+     * implementation throws a {@link MathUnsupportedOperationException}.
+     *
+     * @param state the state (must not be modified)
+     * @param result array into which the Jacobian must be stored (one row
+     * per measurement component)
+     */
+    default void getJacobian(double[] state, double[][] result) {
+        throw new MathUnsupportedOperationException();
+    }
+
+    /**
+     * Returns the measurement noise matrix. This method is called by the filter every
+     * correction step, so implementations of this interface may return a modified measurement
+     * noise depending on the current iteration step.
+     * Its dimension defines the dimension of the measurement.
+     *
+     * @return the measurement noise matrix
+     */
+    RealMatrix getMeasurementNoise();
+}
@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.filter;
+
+import org.apache.commons.math4.legacy.exception.MathUnsupportedOperationException;
+import org.apache.commons.math4.legacy.linear.RealMatrix;
+import org.apache.commons.math4.legacy.linear.RealVector;
+
+/**
+ * Defines the process dynamics model for the use with an
+ * {@link ExtendedKalmanFilter} or an {@link UnscentedKalmanFilter}:
+ *
+ * <pre>
+ * <i>x<sub>k</sub></i> = <i>f</i>(<i>x<sub>k-1</sub></i>, <i>u<sub>k-1</sub></i>) + <i>w<sub>k-1</sub></i>
+ * </pre>
+ *
+ * <p>The state transition and its Jacobian write into arrays provided by
+ * the filter, so that no memory needs to be allocated at each step.</p>
+ *
+ * @see DefaultProcessModel
+ * @since 4.0
+ */
+public interface NonLinearProcessModel {
+    /**
+     * Computes the state transition <i>f</i>.
+     *
+     * @param state the state (must not be modified)
+     * @param control the control vector ({@code null} if there is no control input)
+     * @param result array into which the next state must be stored
+     */
+    void evolve(double[] state, double[] control, double[] result);
+
+    /**
+     * Computes the Jacobian of the state transition with respect to the state.
+     * It is required by the {@link ExtendedKalmanFilter}; the default
+     * implementation throws a {@link MathUnsupportedOperationException}.
+     *
+     * @param state the state (must not be modified)
+     * @param control the control vector ({@code null} if there is no control input)
+     * @param result array into which the (square) Jacobian must be stored
+     */
+    default void getJacobian(double[] state, double[] control, double[][] result) {
+        throw new MathUnsupportedOperationException();
+    }
+
+    /**
+     * Returns the process noise matrix. This method is called by the filter every
+     * prediction step, so implementations of this interface may return a modified process noise
+     * depending on the current iteration step.
+     * Its dimension defines the dimension of the state.
+     *
+     * @return the process noise matrix
+     */
+    RealMatrix getProcessNoise();
+
+    /**
+     * Returns the initial state estimation vector.
+     * <p>
+     * <b>Note:</b> if the return value is zero, the filter will initialize the
+     * state estimation with a zero vector.
+     *
+     * @return the initial state estimation vector
+     */
+    RealVector getInitialStateEstimate();
+
+    /**
+     * Returns the initial error covariance matrix.
+     * <p>
+     * <b>Note:</b> if the return value is zero, the filter will initialize the
+     * error covariance with the process noise matrix.
+     *
+     * @return the initial error covariance matrix
+     */
+    RealMatrix getInitialErrorCovariance();
+}
@@ -0,0 +1,481 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.filter;
+
+import java.util.Arrays;
+
+import org.apache.commons.math4.legacy.exception.DimensionMismatchException;
+import org.apache.commons.math4.legacy.exception.NullArgumentException;
+import org.apache.commons.math4.legacy.linear.Array2DRowRealMatrix;
+import org.apache.commons.math4.legacy.linear.MatrixDimensionMismatchException;
+import org.apache.commons.math4.legacy.linear.MatrixUtils;
+import org.apache.commons.math4.legacy.linear.NonPositiveDefiniteMatrixException;
+import org.apache.commons.math4.legacy.linear.NonSquareMatrixException;
+import org.apache.commons.math4.legacy.linear.RealMatrix;
+import org.apache.commons.math4.legacy.linear.RealVector;
+import org.apache.commons.math4.legacy.linear.SingularMatrixException;
+
+/**
+ * Square-root implementation of the {@link KalmanFilter Kalman filter}.
+ *
+ * <p>The error covariance <b>P</b> is represented by its lower triangular
+ * Cholesky factor <b>S</b> (<b>P</b> = <b>S S</b><sup>T</sup>), so that it
+ * remains symmetric and positive semi-definite whatever the rounding errors;
+ * the precision of the filter is that of a conventional filter using twice
+ * as many digits.</p>
+ *
+ * <ul>
+ *  <li>The prediction computes the factor of <b>A P A</b><sup>T</sup> + <b>Q</b>
+ *   by triangularization of [<b>A S</b> | <b>Q</b><sup>1/2</sup>].</li>
+ *  <li>The measurement is first "whitened" by the inverse Cholesky factor
+ *   of <b>R</b>, so that its components have independent, unit variance
+ *   noise; they are then processed one at a time (no matrix inversion is
+ *   needed). For each scalar measurement <i>h</i>, the factor of the
+ *   Joseph-form covariance (<b>I</b> - <i>k h</i>) <b>P</b>
+ *   (<b>I</b> - <i>k h</i>)<sup>T</sup> + <i>k k</i><sup>T</sup> is
+ *   obtained by triangularization of [(<b>I</b> - <i>k h</i>) <b>S</b> | <i>k</i>].
+ *   When <b>R</b> is diagonal, whitening is a mere scaling.</li>
+ * </ul>
+ *
+ * <p>All the work arrays are allocated by the constructor: the
+ * {@link #predict(double[]) predict} and {@link #correct(double[]) correct}
+ * methods do not allocate memory (as long as the {@link ProcessModel} and
+ * {@link MeasurementModel} do not).  The measurement noise <b>R</b> must be
+ * positive definite.  Filters that share the same models can be stepped
+ * together by a {@link KalmanFilterBank}.</p>
+ *
+ * <p>Reference: G. J. Bierman, <em>Factorization Methods for Discrete
+ * Sequential Estimation</em>, Academic Press, 1977.</p>
+ *
+ * @see KalmanFilter
+ * @since 4.0
+ */
+public class SquareRootKalmanFilter {
+    /** The process model used by this filter instance. */
+    private final ProcessModel processModel;
+    /** The measurement model used by this filter instance. */
+    private final MeasurementModel measurementModel;
+    /** The transition matrix, equivalent to A. */
+    private final double[][] transition;
+    /** The control matrix, equivalent to B (may be {@code null}). */
+    private final double[][] control;
+    /** Noise factors. */
+    private final NoiseFactors factors;
+    /** The internal state estimation vector, equivalent to x hat. */
+    private final double[] state;
+    /** The square root of the error covariance matrix, equivalent to S. */
+    private final double[][] sqrtCovariance;
+    /** Work matrix for the triangularizations. */
+    private final double[][] compound;
+    /** Work vector (Householder vectors). */
+    private final double[] work;
+    /** Work vector (projected state, then whitened measurement). */
+    private final double[] projected;
+    /** Work vector (S<sup>T</sup> h<sup>T</sup>). */
+    private final double[] f;
+    /** Work vector (gain). */
+    private final double[] gain;
+
+    /**
+     * Creates a new square-root Kalman filter with the given process and
+     * measurement models.
+     *
+     * @param process
+     *            the model defining the underlying process dynamics
+     * @param measurement
+     *            the model defining the given measurement characteristics
+     * @throws NullArgumentException
+     *             if any of the given inputs is null (except for the control matrix)
+     * @throws NonSquareMatrixException
+     *             if the transition matrix is non square
+     * @throws DimensionMismatchException
+     *             if the column dimension of the transition matrix does not match the dimension of the
+     *             initial state estimation vector
+     * @throws MatrixDimensionMismatchException
+     *             if the matrix dimensions do not fit together
+     * @throws NonPositiveDefiniteMatrixException
+     *             if the initial error covariance is not positive semi-definite
+     */
+    public SquareRootKalmanFilter(final ProcessModel process, final MeasurementModel measurement) {
+        this(process, measurement, null);
+    }
+
+    /**
+     * Creates a new square-root Kalman filter.
+     *
+     * @param process
+     *            the model defining the underlying process dynamics
+     * @param measurement
+     *            the model defining the given measurement characteristics
+     * @param sharedFactors
+     *            noise factors maintained by a {@link KalmanFilterBank}
+     *            ({@code null} if the filter maintains its own)
+     */
+    SquareRootKalmanFilter(final ProcessModel process,
+                           final MeasurementModel measurement,
+                           final NoiseFactors sharedFactors) {
+        NullArgumentException.check(process);
+        NullArgumentException.check(measurement);
+
+        this.processModel = process;
+        this.measurementModel = measurement;
+
+        final RealMatrix transitionMatrix = processModel.getStateTransitionMatrix();
+        NullArgumentException.check(transitionMatrix);
+        final RealMatrix controlMatrix = processModel.getControlMatrix();
+        final RealMatrix measurementMatrix = measurementModel.getMeasurementMatrix();
+        NullArgumentException.check(measurementMatrix);
+        final RealMatrix processNoise = processModel.getProcessNoise();
+        NullArgumentException.check(processNoise);
+        final RealMatrix measNoise = measurementModel.getMeasurementNoise();
+        NullArgumentException.check(measNoise);
+
+        // A must be a square matrix
+        if (!transitionMatrix.isSquare()) {
+            throw new NonSquareMatrixException(transitionMatrix.getRowDimension(),
+                                               transitionMatrix.getColumnDimension());
+        }
+        final int n = transitionMatrix.getRowDimension();
+
+        final RealVector initialState = processModel.getInitialStateEstimate();
+        if (initialState != null &&
+            initialState.getDimension() != n) {
+            throw new DimensionMismatchException(n, initialState.getDimension());
+        }
+
+        // row dimension of B must be equal to A
+        if (controlMatrix != null &&
+            controlMatrix.getRowDimension() > 0 &&
+            controlMatrix.getColumnDimension() > 0) {
+            if (controlMatrix.getRowDimension() != n) {
+                throw new MatrixDimensionMismatchException(controlMatrix.getRowDimension(),
+                                                           controlMatrix.getColumnDimension(),
+                                                           n,
+                                                           controlMatrix.getColumnDimension());
+            }
+            control = controlMatrix.getData();
+        } else {
+            control = null;
+        }
+
+        // Q must be equal to A
+        MatrixUtils.checkAdditionCompatible(transitionMatrix, processNoise);
+
+        // column dimension of H must be equal to row dimension of A
+        if (measurementMatrix.getColumnDimension() != n) {
+            throw new MatrixDimensionMismatchException(measurementMatrix.getRowDimension(),
+                                                       measurementMatrix.getColumnDimension(),
+                                                       measurementMatrix.getRowDimension(),
+                                                       n);
+        }
+        final int m = measurementMatrix.getRowDimension();
+
+        // R must be a square matrix whose dimension is the row dimension of H
+        if (measNoise.getRowDimension() != m ||
+            measNoise.getColumnDimension() != m) {
+            throw new MatrixDimensionMismatchException(measNoise.getRowDimension(),
+                                                       measNoise.getColumnDimension(),
+                                                       m,
+                                                       m);
+        }
+
+        transition = transitionMatrix.getData();
+        factors = sharedFactors == null ?
+            new NoiseFactors(measurementMatrix.getData(), n) :
+            sharedFactors;
+
+        state = new double[n];
+        sqrtCovariance = new double[n][n];
+        compound = new double[n][2 * n];
+        work = new double[2 * n];
+        projected = new double[Math.max(n, m)];
+        f = new double[n];
+        gain = new double[n];
+
+        // initialize the error covariance to the process noise if it is not
+        // available from the process model
+        final RealMatrix initialCovariance = processModel.getInitialErrorCovariance();
+        reset(initialState == null ? null : initialState.toArray(),
+              initialCovariance == null ? processNoise : initialCovariance);
+    }
+
+    /**
+     * Resets the state estimation and the error covariance.
+     *
+     * @param stateEstimate State estimation ({@code null} for a zero vector).
+     * @param errorCovariance Error covariance matrix.
+     * @throws DimensionMismatchException if the dimensions do not match the
+     * state dimension.
+     * @throws NonPositiveDefiniteMatrixException if {@code errorCovariance}
+     * is not positive semi-definite.
+     */
+    public void reset(final double[] stateEstimate,
+                      final RealMatrix errorCovariance) {
+        final int n = state.length;
+        if (errorCovariance.getRowDimension() != n ||
+            errorCovariance.getColumnDimension() != n) {
+            throw new MatrixDimensionMismatchException(errorCovariance.getRowDimension(),
+                                                       errorCovariance.getColumnDimension(),
+                                                       n, n);
+        }
+        if (stateEstimate == null) {
+            Arrays.fill(state, 0);
+        } else {
+            if (stateEstimate.length != n) {
+                throw new DimensionMismatchException(stateEstimate.length, n);
+            }
+            System.arraycopy(stateEstimate, 0, state, 0, n);
+        }
+        NoiseFactors.cholesky(errorCovariance, sqrtCovariance);
+    }
+
+    /**
+     * Returns the dimension of the state estimation vector.
+     *
+     * @return the state dimension
+     */
+    public int getStateDimension() {
+        return state.length;
+    }
+
+    /**
+     * Returns the dimension of the measurement vector.
+     *
+     * @return the measurement vector dimension
+     */
+    public int getMeasurementDimension() {
+        return factors.getWhitenedMeasurementMatrix().length;
+    }
+
+    /**
+     * Returns a copy of the current state estimation vector.
+     *
+     * @return the state estimation vector
+     */
+    public double[] getStateEstimation() {
+        return state.clone();
+    }
+
+    /**
+     * Returns the current error covariance matrix.
+     *
+     * @return the error covariance matrix (computed from its square root)
+     */
+    public double[][] getErrorCovariance() {
+        final int n = state.length;
+        final double[][] p = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j <= i; j++) {
+                double s = 0;
+                for (int k = 0; k <= j; k++) {
+                    s += sqrtCovariance[i][k] * sqrtCovariance[j][k];
+                }
+                p[i][j] = s;
+                p[j][i] = s;
+            }
+        }
+        return p;
+    }
+
+    /**
+     * Returns a copy of the current error covariance matrix.
+     *
+     * @return the error covariance matrix
+     */
+    public RealMatrix getErrorCovarianceMatrix() {
+        return new Array2DRowRealMatrix(getErrorCovariance(), false);
+    }
+
+    /**
+     * Returns the lower triangular square root of the error covariance.
+     *
+     * @return a copy of the lower triangular matrix S such that P = S S<sup>T</sup>
+     */
+    public double[][] getErrorCovarianceSquareRoot() {
+        final int n = state.length;
+        final double[][] s = new double[n][];
+        for (int i = 0; i < n; i++) {
+            s[i] = sqrtCovariance[i].clone();
+        }
+        return s;
+    }
+
+    /**
+     * Predict the internal state estimation one time step ahead.
+     */
+    public void predict() {
+        predict(null);
+    }
+
+    /**
+     * Predict the internal state estimation one time step ahead.
+     *
+     * @param u
+     *            the control vector ({@code null} if there is no control input)
+     * @throws DimensionMismatchException
+     *             if the dimension of the control vector does not fit
+     * @throws NonPositiveDefiniteMatrixException
+     *             if the process noise is not positive semi-definite
+     */
+    public void predict(final double[] u) {
+        checkControl(u);
+        factors.setProcessNoise(processModel.getProcessNoise());
+        doPredict(u);
+    }
+
+    /**
+     * Correct the current state estimate with an actual measurement.
+     *
+     * @param z
+     *            the measurement vector
+     * @throws NullArgumentException
+     *             if the measurement vector is {@code null}
+     * @throws DimensionMismatchException
+     *             if the dimension of the measurement vector does not fit
+     * @throws SingularMatrixException
+     *             if the measurement noise is singular
+     */
+    public void correct(final double[] z) {
+        checkMeasurement(z);
+        factors.setMeasurementNoise(measurementModel.getMeasurementNoise());
+        doCorrect(z);
+    }
+
+    /**
+     * @param u Control vector (may be {@code null}).
+     * @throws DimensionMismatchException if the dimension of the control
+     * vector does not fit.
+     */
+    void checkControl(final double[] u) {
+        if (u != null) {
+            final int c = control == null ? 0 : control[0].length;
+            if (u.length != c) {
+                throw new DimensionMismatchException(u.length, c);
+            }
+        }
+    }
+
+    /**
+     * @param z Measurement vector.
+     * @throws NullArgumentException if the measurement vector is {@code null}.
+     * @throws DimensionMismatchException if the dimension of the measurement
+     * vector does not fit.
+     */
+    void checkMeasurement(final double[] z) {
+        NullArgumentException.check(z);
+        if (z.length != getMeasurementDimension()) {
+            throw new DimensionMismatchException(z.length, getMeasurementDimension());
+        }
+    }
+
+    /**
+     * Prediction step, using the current process noise factor.
+     *
+     * @param u Control vector (may be {@code null}).
+     */
+    void doPredict(final double[] u) {
+        final int n = state.length;
+
+        // xHat(k)- = A * xHat(k-1) + B * u(k-1)
+        for (int i = 0; i < n; i++) {
+            final double[] ai = transition[i];
+            double s = 0;
+            for (int k = 0; k < n; k++) {
+                s += ai[k] * state[k];
+            }
+            if (u != null) {
+                final double[] bi = control[i];
+                for (int k = 0; k < u.length; k++) {
+                    s += bi[k] * u[k];
+                }
+            }
+            projected[i] = s;
+        }
+        System.arraycopy(projected, 0, state, 0, n);
+
+        // S(k)- = triangularization of [ A * S(k-1) | sqrt(Q) ]
+        final double[][] sqrtQ = factors.getSqrtProcessNoise();
+        for (int i = 0; i < n; i++) {
+            final double[] ai = transition[i];
+            final double[] ci = compound[i];
+            for (int j = 0; j < n; j++) {
+                double s = 0;
+                for (int k = j; k < n; k++) {
+                    s += ai[k] * sqrtCovariance[k][j];
+                }
+                ci[j] = s;
+            }
+            System.arraycopy(sqrtQ[i], 0, ci, n, n);
+        }
+        NoiseFactors.triangularize(compound, 2 * n, work, sqrtCovariance);
+    }
+
+    /**
+     * Correction step, using the current measurement noise factors.
+     *
+     * @param z Measurement vector.
+     */
+    void doCorrect(final double[] z) {
+        final int n = state.length;
+        final double[][] h = factors.getWhitenedMeasurementMatrix();
+        final double[] zw = projected;
+        factors.whiten(z, zw);
+
+        for (int r = 0; r < h.length; r++) {
+            final double[] hr = h[r];
+
+            // f = S' h', alpha = f' f + 1
+            double alpha = 1;
+            for (int j = 0; j < n; j++) {
+                double s = 0;
+                for (int i = j; i < n; i++) {
+                    s += sqrtCovariance[i][j] * hr[i];
+                }
+                f[j] = s;
+                alpha += s * s;
+            }
+
+            // k = S f / alpha, innovation = z - h x
+            double innovation = zw[r];
+            for (int i = 0; i < n; i++) {
+                double s = 0;
+                for (int j = 0; j <= i; j++) {
+                    s += sqrtCovariance[i][j] * f[j];
+                }
+                gain[i] = s / alpha;
+                innovation -= hr[i] * state[i];
+            }
+
+            // xHat(k) = xHat(k)- + k * innovation
+            for (int i = 0; i < n; i++) {
+                state[i] += gain[i] * innovation;
+            }
+
+            // Joseph form: S(k) = triangularization of [ (I - k h) S | k ]
+            for (int i = 0; i < n; i++) {
+                final double[] ci = compound[i];
+                final double[] si = sqrtCovariance[i];
+                final double gi = gain[i];
+                for (int j = 0; j < n; j++) {
+                    ci[j] = si[j] - gi * f[j];
+                }
+                ci[n] = gi;
+            }
+            NoiseFactors.triangularize(compound, n + 1, work, sqrtCovariance);
+        }
+    }
+}
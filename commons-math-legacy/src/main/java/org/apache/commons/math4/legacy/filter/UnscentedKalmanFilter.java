@@ -0,0 +1,345 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.filter;
+
+import org.apache.commons.math4.legacy.exception.DimensionMismatchException;
+import org.apache.commons.math4.legacy.exception.NotStrictlyPositiveException;
+import org.apache.commons.math4.legacy.exception.NullArgumentException;
+import org.apache.commons.math4.legacy.linear.NonPositiveDefiniteMatrixException;
+import org.apache.commons.math4.legacy.linear.NonSquareMatrixException;
+import org.apache.commons.math4.legacy.linear.RealMatrix;
+
+/**
+ * Unscented Kalman filter.
+ * <p>
+ * Rather than linearizing the models, the filter propagates a set of
+ * {@code 2n + 1} sigma points, drawn from the Cholesky factor of the
+ * scaled error covariance, through the nonlinear functions, and recovers
+ * the mean and covariance of the transformed points.
+ * The models need not provide their Jacobians.
+ * <p>
+ * The sigma points are spread according to the scaling parameters
+ * {@code alpha}, {@code beta} and {@code kappa}, with
+ * {@code lambda = alpha^2 (n + kappa) - n}:
+ * <pre>
+ * X(0) = x
+ * X(i) = x + (sqrt((n + lambda) P))_i,      i = 1..n
+ * X(n + i) = x - (sqrt((n + lambda) P))_i,  i = 1..n
+ * </pre>
+ * The noises are assumed to be additive, so that the state need not be
+ * augmented.
+ * <p>
+ * The Cholesky decomposition of the error covariance fails, with a
+ * {@link NonPositiveDefiniteMatrixException}, when the covariance has
+ * lost its positive semi-definiteness; this may happen with a negative
+ * weight of the central point (i.e. when {@code alpha} is small).
+ *
+ * @see ExtendedKalmanFilter
+ * @since 4.0
+ */
+public class UnscentedKalmanFilter extends AbstractNonLinearKalmanFilter {
+    /** Default value of alpha. */
+    private static final double DEFAULT_ALPHA = 1;
+    /** Default value of beta (optimal for Gaussian distributions). */
+    private static final double DEFAULT_BETA = 2;
+    /** Default value of kappa. */
+    private static final double DEFAULT_KAPPA = 0;
+    /** Scale of the covariance, {@code n + lambda}. */
+    private final double scale;
+    /** Weights of the sigma points for the mean. */
+    private final double[] meanWeights;
+    /** Weights of the sigma points for the covariance. */
+    private final double[] covarianceWeights;
+    /** Cholesky factor of the scaled error covariance. */
+    private final double[][] sqrt;
+    /** Sigma points. */
+    private final double[][] sigma;
+    /** Sigma points propagated through the state transition. */
+    private final double[][] propagated;
+    /** Sigma points propagated through the measurement function. */
+    private final double[][] measured;
+    /** Predicted measurement. */
+    private final double[] predictedMeasurement;
+    /** Covariance of the innovation, then its factor ({@code m x m}). */
+    private final double[][] innovationCovariance;
+    /** Cross-covariance of the state and the measurement ({@code n x m}). */
+    private final double[][] crossCovariance;
+    /** Gain ({@code n x m}). */
+    private final double[][] gain;
+
+    /**
+     * Creates a new unscented Kalman filter with the given process and
+     * measurement models, and the default scaling parameters
+     * ({@code alpha = 1}, {@code beta = 2}, {@code kappa = 0}).
+     *
+     * @param process
+     *            the model defining the underlying process dynamics
+     * @param measurement
+     *            the model defining the given measurement characteristics
+     * @throws NullArgumentException
+     *             if any of the given inputs is null (except for the initial
+     *             state estimate and error covariance)
+     * @throws NonSquareMatrixException
+     *             if the process or measurement noise, or the initial error
+     *             covariance, is not square
+     * @throws DimensionMismatchException
+     *             if the initial state estimate or error covariance does not
+     *             fit the process noise
+     */
+    public UnscentedKalmanFilter(final NonLinearProcessModel process,
+                                 final NonLinearMeasurementModel measurement) {
+        this(process, measurement, DEFAULT_ALPHA, DEFAULT_BETA, DEFAULT_KAPPA);
+    }
+
+    /**
+     * Creates a new unscented Kalman filter with the given process and
+     * measurement models.
+     *
+     * @param process
+     *            the model defining the underlying process dynamics
+     * @param measurement
+     *            the model defining the given measurement characteristics
+     * @param alpha
+     *            spread of the sigma points around the mean
+     * @param beta
+     *            prior knowledge of the distribution ({@code 2} is optimal
+     *            for Gaussian distributions)
+     * @param kappa
+     *            secondary scaling parameter
+     * @throws NullArgumentException
+     *             if any of the given models is null
+     * @throws NonSquareMatrixException
+     *             if the process or measurement noise, or the initial error
+     *             covariance, is not square
+     * @throws DimensionMismatchException
+     *             if the initial state estimate or error covariance does not
+     *             fit the process noise
+     * @throws NotStrictlyPositiveException
+     *             if {@code alpha <= 0} or {@code n + kappa <= 0}
+     */
+    public UnscentedKalmanFilter(final NonLinearProcessModel process,
+                                 final NonLinearMeasurementModel measurement,
+                                 final double alpha,
+                                 final double beta,
+                                 final double kappa) {
+        super(process, measurement);
+        final int n = getStateDimension();
+        final int m = getMeasurementDimension();
+        if (alpha <= 0) {
+            throw new NotStrictlyPositiveException(alpha);
+        }
+        if (n + kappa <= 0) {
+            throw new NotStrictlyPositiveException(n + kappa);
+        }
+
+        scale = alpha * alpha * (n + kappa);
+        final double lambda = scale - n;
+        final int points = 2 * n + 1;
+        meanWeights = new double[points];
+        covarianceWeights = new double[points];
+        meanWeights[0] = lambda / scale;
+        covarianceWeights[0] = meanWeights[0] + 1 - alpha * alpha + beta;
+        for (int i = 1; i < points; i++) {
+            meanWeights[i] = 0.5 / scale;
+            covarianceWeights[i] = meanWeights[i];
+        }
+
+        sqrt = new double[n][n];
+        sigma = new double[points][n];
+        propagated = new double[points][n];
+        measured = new double[points][m];
+        predictedMeasurement = new double[m];
+        innovationCovariance = new double[m][m];
+        crossCovariance = new double[n][m];
+        gain = new double[n][m];
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    void doPredict(final double[] u,
+                   final RealMatrix q) {
+        final NonLinearProcessModel model = getProcessModel();
+        final double[] x = state();
+        final double[][] p = covariance();
+        final int n = x.length;
+
+        drawSigmaPoints();
+        for (int j = 0; j < sigma.length; j++) {
+            model.evolve(sigma[j], u, propagated[j]);
+        }
+
+        // x(k)- = sum_j Wm_j Y_j
+        mean(propagated, x);
+
+        // P(k)- = sum_j Wc_j (Y_j - x) (Y_j - x)^T + Q
+        for (int i = 0; i < n; i++) {
+            for (int l = 0; l < n; l++) {
+                p[i][l] = q.getEntry(i, l);
+            }
+        }
+        for (int j = 0; j < propagated.length; j++) {
+            final double[] yj = propagated[j];
+            final double w = covarianceWeights[j];
+            for (int i = 0; i < n; i++) {
+                final double di = w * (yj[i] - x[i]);
+                final double[] pi = p[i];
+                for (int l = 0; l <= i; l++) {
+                    pi[l] += di * (yj[l] - x[l]);
+                }
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            for (int l = 0; l < i; l++) {
+                p[l][i] = p[i][l];
+            }
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    void doCorrect(final double[] z,
+                   final RealMatrix r) {
+        final NonLinearMeasurementModel model = getMeasurementModel();
+        final double[] x = state();
+        final double[][] p = covariance();
+        final double[] zHat = predictedMeasurement;
+        final double[][] s = innovationCovariance;
+        final double[][] k = gain;
+        final int n = x.length;
+        final int m = z.length;
+
+        drawSigmaPoints();
+        for (int j = 0; j < sigma.length; j++) {
+            model.measure(sigma[j], measured[j]);
+        }
+        mean(measured, zHat);
+
+        // S = sum_j Wc_j (Z_j - zHat) (Z_j - zHat)^T + R (lower triangle)
+        // Pxz = sum_j Wc_j (X_j - x) (Z_j - zHat)^T
+        for (int i = 0; i < m; i++) {
+            for (int l = 0; l <= i; l++) {
+                s[i][l] = r.getEntry(i, l);
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            for (int l = 0; l < m; l++) {
+                crossCovariance[i][l] = 0;
+            }
+        }
+        for (int j = 0; j < sigma.length; j++) {
+            final double[] xj = sigma[j];
+            final double[] zj = measured[j];
+            final double w = covarianceWeights[j];
+            for (int i = 0; i < m; i++) {
+                final double di = w * (zj[i] - zHat[i]);
+                final double[] si = s[i];
+                for (int l = 0; l <= i; l++) {
+                    si[l] += di * (zj[l] - zHat[l]);
+                }
+            }
+            for (int i = 0; i < n; i++) {
+                final double di = w * (xj[i] - x[i]);
+                final double[] ci = crossCovariance[i];
+                for (int l = 0; l < m; l++) {
+                    ci[l] += di * (zj[l] - zHat[l]);
+                }
+            }
+        }
+
+        // K = Pxz S^-1
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(crossCovariance[i], 0, k[i], 0, m);
+        }
+        gain(s, k);
+
+        // x(k) = x(k)- + K (z - zHat)
+        for (int i = 0; i < n; i++) {
+            final double[] ki = k[i];
+            double sum = 0;
+            for (int l = 0; l < m; l++) {
+                sum += ki[l] * (z[l] - zHat[l]);
+            }
+            x[i] += sum;
+        }
+
+        // P(k) = P(k)- - K S K^T = P(k)- - K Pxz^T
+        for (int i = 0; i < n; i++) {
+            final double[] ki = k[i];
+            final double[] pi = p[i];
+            for (int j = 0; j < n; j++) {
+                final double[] cj = crossCovariance[j];
+                double sum = 0;
+                for (int l = 0; l < m; l++) {
+                    sum += ki[l] * cj[l];
+                }
+                pi[j] -= sum;
+            }
+        }
+    }
+
+    /**
+     * Draws the sigma points from the current state estimation and error
+     * covariance.
+     *
+     * @throws NonPositiveDefiniteMatrixException if the error covariance
+     * is not positive semi-definite.
+     */
+    private void drawSigmaPoints() {
+        final double[] x = state();
+        final double[][] p = covariance();
+        final int n = x.length;
+
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j <= i; j++) {
+                sqrt[i][j] = scale * p[i][j];
+            }
+        }
+        NoiseFactors.cholesky(sqrt);
+
+        System.arraycopy(x, 0, sigma[0], 0, n);
+        for (int c = 0; c < n; c++) {
+            final double[] plus = sigma[c + 1];
+            final double[] minus = sigma[n + c + 1];
+            for (int i = 0; i < n; i++) {
+                final double d = sqrt[i][c];
+                plus[i] = x[i] + d;
+                minus[i] = x[i] - d;
+            }
+        }
+    }
+
+    /**
+     * Computes the weighted mean of transformed sigma points.
+     *
+     * @param points Transformed sigma points.
+     * @param mean Weighted mean (output).
+     */
+    private void mean(final double[][] points,
+                      final double[] mean) {
+        final int d = mean.length;
+        for (int i = 0; i < d; i++) {
+            mean[i] = 0;
+        }
+        for (int j = 0; j < points.length; j++) {
+            final double[] pj = points[j];
+            final double w = meanWeights[j];
+            for (int i = 0; i < d; i++) {
+                mean[i] += w * pj[i];
+            }
+        }
+    }
+}
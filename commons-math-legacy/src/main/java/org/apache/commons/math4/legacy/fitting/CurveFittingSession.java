@@ -0,0 +1,518 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.fitting;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.math4.legacy.analysis.ParametricUnivariateFunction;
+import org.apache.commons.math4.legacy.exception.DimensionMismatchException;
+import org.apache.commons.math4.legacy.exception.NullArgumentException;
+import org.apache.commons.math4.legacy.exception.TooManyIterationsException;
+import org.apache.commons.math4.core.jdkmath.JdkMath;
+
+/**
+ * Reusable context for fitting many curves of the same kind.
+ *
+ * <p>Whereas {@link AbstractCurveFitter#fit(java.util.Collection)} creates
+ * a {@link org.apache.commons.math4.legacy.fitting.leastsquares.LeastSquaresProblem
+ * least-squares problem} and an optimizer at each call, a session accepts
+ * the observations as arrays, and keeps its workspace (Jacobian, residuals,
+ * normal equations) from one fit to the next: once the buffers have grown
+ * to the largest number of observations, a fit does not allocate memory
+ * (apart from the arrays returned by
+ * {@link ParametricUnivariateFunction#gradient(double,double[])}).</p>
+ *
+ * <p>The fit is performed by a Levenberg-Marquardt algorithm on the normal
+ * equations, with the damping parameter update proposed by H. B. Nielsen
+ * (<em>Damping parameter in Marquardt's method</em>, IMM-REP-1999-05,
+ * Technical University of Denmark).  This is appropriate for the small
+ * number of parameters of a curve; the stopping criteria are those of
+ * the default {@link
+ * org.apache.commons.math4.legacy.fitting.leastsquares.LevenbergMarquardtOptimizer
+ * LevenbergMarquardtOptimizer}.</p>
+ *
+ * <p>When "warm start" is enabled, each fit starts from the solution of
+ * the previous one (rather than from the fitter's initial guess), which
+ * reduces the number of iterations when successive curves are similar.</p>
+ *
+ * <p>Instances are not thread-safe: concurrent fits require one session
+ * per thread; see {@link SimpleCurveFitter#fit(double[][],double[][],double[][],
+ * java.util.concurrent.ExecutorService)}.</p>
+ *
+ * @see SimpleCurveFitter#newSession(boolean)
+ * @since 4.0
+ */
+public final class CurveFittingSession {
+    /** Initial damping parameter (relative to the diagonal of the normal matrix). */
+    private static final double INITIAL_DAMPING = 1e-3;
+    /** Desired relative error in the sum of squares. */
+    private static final double COST_RELATIVE_TOLERANCE = 1e-10;
+    /** Desired relative error in the parameters. */
+    private static final double PAR_RELATIVE_TOLERANCE = 1e-10;
+    /** Desired max cosine between the residuals and the columns of the Jacobian. */
+    private static final double ORTHO_TOLERANCE = 1e-10;
+    /** Function to fit. */
+    private final ParametricUnivariateFunction function;
+    /** Initial guess (may be {@code null}). */
+    private final double[] initialGuess;
+    /** Parameter guesser (used when there is no initial guess). */
+    private final SimpleCurveFitter.ParameterGuesser guesser;
+    /** Maximum number of iterations. */
+    private final int maxIter;
+    /** Whether to start from the previous solution. */
+    private final boolean warmStart;
+    /** Number of parameters ({@code -1} until known). */
+    private int numParams;
+    /** Solution of the last fit. */
+    private double[] solution;
+    /** Whether {@link #solution} is available. */
+    private boolean hasSolution;
+    /** Current parameters. */
+    private double[] params;
+    /** Trial parameters. */
+    private double[] trial;
+    /** Step. */
+    private double[] step;
+    /** Gradient of the half sum of squares (with reversed sign). */
+    private double[] gradient;
+    /** Scaling of the parameters. */
+    private double[] diag;
+    /** Normal matrix (row-major). */
+    private double[] normal;
+    /** Damped normal matrix, then its Cholesky factor (row-major). */
+    private double[] factor;
+    /** Weighted residuals at the current parameters. */
+    private double[] residuals;
+    /** Weighted residuals at the trial parameters. */
+    private double[] trialResiduals;
+    /** Square root of the weights. */
+    private double[] weightSqrt;
+    /** Weighted Jacobian (row-major). */
+    private double[] jacobian;
+    /** Number of iterations of the last fit. */
+    private int iterations;
+    /** Number of evaluations of the last fit. */
+    private int evaluations;
+
+    /**
+     * @param function Function to fit.
+     * @param initialGuess Initial guess (may be {@code null}).
+     * @param guesser Method for providing an initial guess (if
+     * {@code initialGuess} is {@code null}).
+     * @param maxIter Maximum number of iterations of the optimization algorithm.
+     * @param warmStart Whether each fit starts from the previous solution.
+     */
+    CurveFittingSession(ParametricUnivariateFunction function,
+                        double[] initialGuess,
+                        SimpleCurveFitter.ParameterGuesser guesser,
+                        int maxIter,
+                        boolean warmStart) {
+        this.function = function;
+        this.initialGuess = initialGuess;
+        this.guesser = guesser;
+        this.maxIter = maxIter;
+        this.warmStart = warmStart;
+        numParams = -1;
+        residuals = new double[0];
+        trialResiduals = residuals;
+        weightSqrt = residuals;
+        jacobian = residuals;
+    }
+
+    /**
+     * Fits a curve to all the given observations.
+     *
+     * @param x Abscissae.
+     * @param y Observed values.
+     * @param weights Weights ({@code null} if all the weights are 1).
+     * @return the fitted parameters.  The array belongs to the session: its
+     * contents will be overwritten by the next fit.
+     * @throws DimensionMismatchException if the lengths of the arrays differ.
+     * @throws TooManyIterationsException if the maximum number of iterations
+     * is exceeded.
+     */
+    public double[] fit(double[] x,
+                        double[] y,
+                        double[] weights) {
+        return fit(x, y, weights, x.length);
+    }
+
+    /**
+     * Fits a curve to the first {@code n} observations (so that the
+     * caller's arrays can be reused for samples of different sizes).
+     *
+     * @param x Abscissae.
+     * @param y Observed values.
+     * @param weights Weights ({@code null} if all the weights are 1).
+     * @param n Number of observations.
+     * @return the fitted parameters.  The array belongs to the session: its
+     * contents will be overwritten by the next fit.
+     * @throws DimensionMismatchException if one of the arrays is shorter
+     * than {@code n}.
+     * @throws TooManyIterationsException if the maximum number of iterations
+     * is exceeded.
+     */
+    public double[] fit(double[] x,
+                        double[] y,
+                        double[] weights,
+                        int n) {
+        checkLength(x, n);
+        checkLength(y, n);
+        if (weights != null) {
+            checkLength(weights, n);
+        }
+
+        final double[] start = startPoint(x, y, weights, n);
+        allocate(start.length, n);
+        System.arraycopy(start, 0, params, 0, numParams);
+        for (int i = 0; i < n; i++) {
+            weightSqrt[i] = weights == null ? 1 : JdkMath.sqrt(weights[i]);
+        }
+
+        optimize(x, y, n);
+
+        System.arraycopy(params, 0, solution, 0, numParams);
+        hasSolution = true;
+        return solution;
+    }
+
+    /**
+     * Forgets the solution of the previous fit, so that the next fit
+     * starts from the fitter's initial guess, even if warm start is enabled.
+     */
+    public void reset() {
+        hasSolution = false;
+    }
+
+    /**
+     * @return the number of iterations performed by the last fit.
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * @return the number of evaluations of the model performed by the last fit.
+     */
+    public int getEvaluations() {
+        return evaluations;
+    }
+
+    /**
+     * Finds the parameters that minimize the weighted sum of squares.
+     *
+     * @param x Abscissae.
+     * @param y Observed values.
+     * @param n Number of observations.
+     * @throws TooManyIterationsException if the maximum number of iterations
+     * is exceeded.
+     */
+    private void optimize(double[] x,
+                          double[] y,
+                          int n) {
+        final int p = numParams;
+        iterations = 0;
+        evaluations = 0;
+
+        double cost = residuals(x, y, n, params, residuals);
+        double mu = INITIAL_DAMPING;
+        double nu = 2;
+        boolean firstIteration = true;
+
+        while (true) {
+            if (++iterations > maxIter) {
+                throw new TooManyIterationsException(maxIter);
+            }
+
+            jacobianAndNormalEquations(x, n);
+
+            // Scaling.
+            for (int j = 0; j < p; j++) {
+                final double hjj = normal[j * p + j];
+                if (firstIteration) {
+                    diag[j] = hjj == 0 ? 1 : hjj;
+                } else {
+                    diag[j] = JdkMath.max(diag[j], hjj);
+                }
+            }
+            firstIteration = false;
+
+            // Orthogonality between the residuals and the columns of the Jacobian.
+            if (cost == 0) {
+                return;
+            }
+            double maxCosine = 0;
+            for (int j = 0; j < p; j++) {
+                final double hjj = normal[j * p + j];
+                if (hjj != 0) {
+                    maxCosine = JdkMath.max(maxCosine,
+                                            JdkMath.abs(gradient[j]) / JdkMath.sqrt(hjj * cost));
+                }
+            }
+            if (maxCosine <= ORTHO_TOLERANCE) {
+                return;
+            }
+
+            double xNorm = 0;
+            for (int j = 0; j < p; j++) {
+                xNorm += diag[j] * params[j] * params[j];
+            }
+            xNorm = JdkMath.sqrt(xNorm);
+
+            // Increase the damping until the cost decreases.
+            while (true) {
+                final boolean solved = solveDamped(mu);
+                double stepNorm = 0;
+                double predicted = 0;
+                double ratio = 0;
+                double actual = 0;
+                double trialCost = Double.NaN;
+                if (solved) {
+                    for (int j = 0; j < p; j++) {
+                        trial[j] = params[j] + step[j];
+                        stepNorm += diag[j] * step[j] * step[j];
+                        predicted += step[j] * (gradient[j] + mu * diag[j] * step[j]);
+                    }
+                    stepNorm = JdkMath.sqrt(stepNorm);
+
+                    trialCost = residuals(x, y, n, trial, trialResiduals);
+                    actual = cost - trialCost;
+                    ratio = predicted > 0 ? actual / predicted : 0;
+                }
+
+                if (ratio > 0) {
+                    // Accept the step.
+                    final double t = 2 * ratio - 1;
+                    mu *= JdkMath.max(1d / 3, 1 - t * t * t);
+                    nu = 2;
+                    swapParameters();
+                    final double previousCost = cost;
+                    cost = trialCost;
+
+                    if ((JdkMath.abs(actual) <= COST_RELATIVE_TOLERANCE * previousCost &&
+                         predicted <= COST_RELATIVE_TOLERANCE * previousCost) ||
+                        stepNorm <= PAR_RELATIVE_TOLERANCE * xNorm) {
+                        return;
+                    }
+                    break;
+                }
+
+                mu *= nu;
+                nu *= 2;
+                if ((solved && stepNorm <= PAR_RELATIVE_TOLERANCE * xNorm) ||
+                    Double.isInfinite(mu)) {
+                    // No progress is possible: keep the current parameters.
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes the weighted residuals.
+     *
+     * @param x Abscissae.
+     * @param y Observed values.
+     * @param n Number of observations.
+     * @param p Parameters.
+     * @param r Residuals (output).
+     * @return the weighted sum of squares.
+     */
+    private double residuals(double[] x,
+                             double[] y,
+                             int n,
+                             double[] p,
+                             double[] r) {
+        ++evaluations;
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            final double ri = weightSqrt[i] * (y[i] - function.value(x[i], p));
+            r[i] = ri;
+            sum += ri * ri;
+        }
+        return sum;
+    }
+
+    /**
+     * Computes the weighted Jacobian at the current parameters, the normal
+     * matrix and the gradient.
+     *
+     * @param x Abscissae.
+     * @param n Number of observations.
+     */
+    private void jacobianAndNormalEquations(double[] x,
+                                            int n) {
+        final int p = numParams;
+        for (int i = 0; i < n; i++) {
+            final double[] g = function.gradient(x[i], params);
+            final double w = weightSqrt[i];
+            for (int j = 0; j < p; j++) {
+                jacobian[i * p + j] = w * g[j];
+            }
+        }
+
+        for (int j = 0; j < p; j++) {
+            double gj = 0;
+            for (int i = 0; i < n; i++) {
+                gj += jacobian[i * p + j] * residuals[i];
+            }
+            gradient[j] = gj;
+            for (int k = j; k < p; k++) {
+                double s = 0;
+                for (int i = 0; i < n; i++) {
+                    s += jacobian[i * p + j] * jacobian[i * p + k];
+                }
+                normal[j * p + k] = s;
+                normal[k * p + j] = s;
+            }
+        }
+    }
+
+    /**
+     * Solves {@code (H + mu D) step = g} by Cholesky decomposition.
+     *
+     * @param mu Damping parameter.
+     * @return {@code false} if the damped matrix is not (numerically)
+     * positive definite.
+     */
+    private boolean solveDamped(double mu) {
+        final int p = numParams;
+        System.arraycopy(normal, 0, factor, 0, p * p);
+        for (int j = 0; j < p; j++) {
+            factor[j * p + j] += mu * diag[j];
+        }
+
+        // Lower triangular factor, in place.
+        for (int j = 0; j < p; j++) {
+            double d = factor[j * p + j];
+            for (int k = 0; k < j; k++) {
+                d -= factor[j * p + k] * factor[j * p + k];
+            }
+            if (!(d > 0)) {
+                return false;
+            }
+            final double ljj = JdkMath.sqrt(d);
+            factor[j * p + j] = ljj;
+            for (int i = j + 1; i < p; i++) {
+                double s = factor[i * p + j];
+                for (int k = 0; k < j; k++) {
+                    s -= factor[i * p + k] * factor[j * p + k];
+                }
+                factor[i * p + j] = s / ljj;
+            }
+        }
+
+        // Forward and back substitutions.
+        for (int i = 0; i < p; i++) {
+            double s = gradient[i];
+            for (int k = 0; k < i; k++) {
+                s -= factor[i * p + k] * step[k];
+            }
+            step[i] = s / factor[i * p + i];
+        }
+        for (int i = p - 1; i >= 0; i--) {
+            double s = step[i];
+            for (int k = i + 1; k < p; k++) {
+                s -= factor[k * p + i] * step[k];
+            }
+            step[i] = s / factor[i * p + i];
+        }
+        return true;
+    }
+
+    /**
+     * Makes the trial point (and its residuals) the current one.
+     */
+    private void swapParameters() {
+        final double[] tp = params;
+        params = trial;
+        trial = tp;
+        final double[] tr = residuals;
+        residuals = trialResiduals;
+        trialResiduals = tr;
+    }
+
+    /**
+     * Selects the start point of a fit.
+     *
+     * @param x Abscissae.
+     * @param y Observed values.
+     * @param weights Weights (may be {@code null}).
+     * @param n Number of observations.
+     * @return the start point.
+     */
+    private double[] startPoint(double[] x,
+                                double[] y,
+                                double[] weights,
+                                int n) {
+        if (warmStart && hasSolution) {
+            return solution;
+        }
+        if (initialGuess != null) {
+            return initialGuess;
+        }
+        if (guesser == null) {
+            throw new NullArgumentException();
+        }
+        final List<WeightedObservedPoint> observations = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            observations.add(new WeightedObservedPoint(weights == null ? 1 : weights[i], x[i], y[i]));
+        }
+        return guesser.guess(observations);
+    }
+
+    /**
+     * Ensures that the workspace is large enough.
+     *
+     * @param p Number of parameters.
+     * @param n Number of observations.
+     */
+    private void allocate(int p,
+                          int n) {
+        if (p != numParams) {
+            numParams = p;
+            solution = new double[p];
+            params = new double[p];
+            trial = new double[p];
+            step = new double[p];
+            gradient = new double[p];
+            diag = new double[p];
+            normal = new double[p * p];
+            factor = new double[p * p];
+            jacobian = new double[residuals.length * p];
+        }
+        if (n > residuals.length) {
+            residuals = new double[n];
+            trialResiduals = new double[n];
+            weightSqrt = new double[n];
+            jacobian = new double[n * p];
+        }
+    }
+
+    /**
+     * @param a Array.
+     * @param n Required length.
+     * @throws DimensionMismatchException if {@code a.length < n}.
+     */
+    private static void checkLength(double[] a,
+                                    int n) {
+        if (a.length < n) {
+            throw new DimensionMismatchException(a.length, n);
+        }
+    }
+}
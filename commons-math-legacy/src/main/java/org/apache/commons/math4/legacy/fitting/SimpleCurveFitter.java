@@ -21,13 +21,16 @@ import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
 
+import org.apache.commons.math4.legacy.exception.DimensionMismatchException;
 import org.apache.commons.math4.legacy.exception.ZeroException;
 import org.apache.commons.math4.legacy.exception.OutOfRangeException;
 import org.apache.commons.math4.legacy.analysis.ParametricUnivariateFunction;
 import org.apache.commons.math4.legacy.fitting.leastsquares.LeastSquaresBuilder;
 import org.apache.commons.math4.legacy.fitting.leastsquares.LeastSquaresProblem;
 import org.apache.commons.math4.legacy.linear.DiagonalMatrix;
+import org.apache.commons.math4.legacy.util.ConcurrentTasks;
 
 /**
  * Fits points to a user-defined {@link ParametricUnivariateFunction function}.
@@ -35,6 +38,8 @@ import org.apache.commons.math4.legacy.linear.DiagonalMatrix;
  * @since 3.4
  */
 public class SimpleCurveFitter extends AbstractCurveFitter {
+    /** Number of curves fitted by the same session in {@link #fit(double[][],double[][],double[][],ExecutorService)}. */
+    private static final int BATCH_SIZE = 64;
     /** Function to fit. */
     private final ParametricUnivariateFunction function;
     /** Initial guess for the parameters. */
@@ -124,6 +129,75 @@ public class SimpleCurveFitter extends AbstractCurveFitter {
                                      newMaxIter);
     }
 
+    /**
+     * Creates a session for fitting many curves, with this fitter's function,
+     * initial guess (or guesser) and maximum number of iterations.
+     *
+     * @param warmStart Whether each fit should start from the solution of
+     * the previous one.
+     * @return a new session.
+     * @since 4.0
+     */
+    public CurveFittingSession newSession(boolean warmStart) {
+        return new CurveFittingSession(function,
+                                       initialGuess,
+                                       guesser,
+                                       maxIter,
+                                       warmStart);
+    }
+
+    /**
+     * Fits one curve to each of the given samples.
+     * The samples are processed in groups that share a {@link #newSession(boolean)
+     * session}; the groups do not depend on the executor, and each fit starts
+     * from the initial guess, so that the result does not depend on the number
+     * of threads.
+     *
+     * @param x Abscissae of each sample.
+     * @param y Observed values of each sample.
+     * @param weights Weights of each sample ({@code null} if all the
+     * weights are 1).
+     * @param executor Executor ({@code null} to perform all the fits in the
+     * calling thread).
+     * @return the fitted parameters of each curve.
+     * @throws DimensionMismatchException if the numbers of samples, or the
+     * lengths of the arrays of a sample, differ.
+     * @throws org.apache.commons.math4.legacy.exception.TooManyIterationsException
+     * if the maximum number of iterations is exceeded.
+     * @since 4.0
+     */
+    public double[][] fit(double[][] x,
+                          double[][] y,
+                          double[][] weights,
+                          ExecutorService executor) {
+        final int count = x.length;
+        if (y.length != count) {
+            throw new DimensionMismatchException(y.length, count);
+        }
+        if (weights != null &&
+            weights.length != count) {
+            throw new DimensionMismatchException(weights.length, count);
+        }
+        for (int k = 0; k < count; k++) {
+            if (y[k].length != x[k].length) {
+                throw new DimensionMismatchException(y[k].length, x[k].length);
+            }
+            if (weights != null &&
+                weights[k].length != x[k].length) {
+                throw new DimensionMismatchException(weights[k].length, x[k].length);
+            }
+        }
+
+        final double[][] result = new double[count][];
+        ConcurrentTasks.runRanges(executor, count, BATCH_SIZE, (from, to) -> {
+                final CurveFittingSession session = newSession(false);
+                for (int k = from; k < to; k++) {
+                    result[k] = session.fit(x[k], y[k], weights == null ? null : weights[k]).clone();
+                }
+            });
+        return result;
+    }
+
     /** {@inheritDoc} */
     @Override
     protected LeastSquaresProblem getProblem(Collection<WeightedObservedPoint> observations) {
@@ -25,14 +25,20 @@ import org.apache.commons.math4.legacy.linear.ArrayRealVector;
 import org.apache.commons.math4.legacy.linear.RealMatrix;
 import org.apache.commons.math4.legacy.linear.RealVector;
 import org.apache.commons.math4.legacy.core.Pair;
+import org.apache.commons.math4.legacy.util.ConcurrentTasks;
 
 import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
 
 /**
  * A MultivariateJacobianFunction (a thing that requires a derivative)
  * combined with the thing that can find derivatives.
  *
  * Can be used with a LeastSquaresProblem, a LeastSquaresFactory, or a LeastSquaresBuilder.
+ *
+ * When an executor is supplied, the columns of the Jacobian (one per
+ * parameter) are computed concurrently; the function and the differentiator
+ * must then be thread-safe.
  */
 public class DifferentiatorVectorMultivariateJacobianFunction implements MultivariateJacobianFunction {
     /**
@@ -43,6 +49,10 @@ public class DifferentiatorVectorMultivariateJacobianFunction implements Multiva
      * The differentiator to use to find the jacobian.
      */
     private final UnivariateVectorFunctionDifferentiator differentiator;
+    /**
+     * The executor that computes the columns of the jacobian (may be null).
+     */
+    private final ExecutorService executor;
 
     /**
      * Build the jacobian function using a differentiator.
@@ -51,33 +61,56 @@ public class DifferentiatorVectorMultivariateJacobianFunction implements Multiva
      * @param differentiator the differentiator to find the derivative
      */
     public DifferentiatorVectorMultivariateJacobianFunction(MultivariateVectorFunction function, UnivariateVectorFunctionDifferentiator differentiator) {
+        this(function, differentiator, null);
+    }
+
+    /**
+     * Build the jacobian function using a differentiator, and compute its
+     * columns concurrently.
+     *
+     * @param function the function to turn into a jacobian (must be thread-safe)
+     * @param differentiator the differentiator to find the derivative
+     * @param executor the executor that computes the columns ({@code null}
+     * to compute them in the calling thread)
+     * @since 4.0
+     */
+    public DifferentiatorVectorMultivariateJacobianFunction(MultivariateVectorFunction function,
+                                                            UnivariateVectorFunctionDifferentiator differentiator,
+                                                            ExecutorService executor) {
         this.function = function;
         this.differentiator = differentiator;
+        this.executor = executor;
     }
 
     /** {@inheritDoc} */
     @Override
     public Pair<RealVector, RealMatrix> value(RealVector point) {
-        double[] testArray = point.toArray();
-        RealVector value = new ArrayRealVector(function.value(testArray));
-        RealMatrix jacobian = new Array2DRowRealMatrix(value.getDimension(), point.getDimension());
+        final double[] pointArray = point.toArray();
+        final double[] value = function.value(pointArray);
+        final double[][] jacobian = new double[value.length][pointArray.length];
 
-        for(int column = 0; column < point.getDimension(); column++) {
-            final int columnFinal = column;
-            double originalPoint = point.getEntry(column);
-            double[] partialDerivatives = getPartialDerivative(testPoint -> {
+        // Each task perturbs its own copy of the point, and fills its own column.
+        ConcurrentTasks.run(executor, pointArray.length, column -> {
+                final double[] testArray = executor == null ?
+                    pointArray :
+                    pointArray.clone();
+                final double originalPoint = testArray[column];
+                final double[] partialDerivatives = getPartialDerivative(testPoint -> {
 
-                testArray[columnFinal] = testPoint;
+                    testArray[column] = testPoint;
 
-                return function.value(testArray);
-            }, originalPoint);
+                    return function.value(testArray);
+                }, originalPoint);
 
-            testArray[column] = originalPoint; //set it back
+                testArray[column] = originalPoint; //set it back
 
-            jacobian.setColumn(column, partialDerivatives);
-        }
+                for (int row = 0; row < partialDerivatives.length; row++) {
+                    jacobian[row][column] = partialDerivatives[row];
+                }
+            });
 
-        return new Pair<>(value, jacobian);
+        return new Pair<>(new ArrayRealVector(value, false),
+                          new Array2DRowRealMatrix(jacobian, false));
     }
 
     /**
@@ -0,0 +1,335 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.fitting.leastsquares;
+
+import java.util.Arrays;
+
+import org.apache.commons.math4.core.jdkmath.JdkMath;
+
+/**
+ * LSMR iterative solver for the damped linear least-squares problem
+ * <pre>
+ *  min || A x - b ||<sup>2</sup> + damp<sup>2</sup> || x ||<sup>2</sup>
+ * </pre>
+ * where {@code A = J S}, {@code J} is a {@link SparseJacobian} and {@code S}
+ * is a diagonal scaling of its columns.
+ * <p>
+ * The method is mathematically equivalent to MINRES applied to the normal
+ * equations, but only requires products with {@code J} and its transpose.
+ * When {@code S} normalizes the columns of {@code J}, it acts as a Jacobi
+ * preconditioner.
+ * <p>
+ * Reference: D. C.-L. Fong and M. A. Saunders, <em>LSMR: An iterative
+ * algorithm for sparse least-squares problems</em>, SIAM J. Sci. Comput.
+ * 33(5), 2011.
+ * <p>
+ * The work arrays are allocated once, so that an instance can be reused
+ * for solving several problems of the same size; it is not thread-safe.
+ */
+final class LSMR {
+    /** Inverse of the largest estimated condition number of {@code A}. */
+    private static final double CONDITION_TOLERANCE = 1e-8;
+    /** Left Lanczos vector. */
+    private final double[] u;
+    /** Work array (number of rows). */
+    private final double[] workRows;
+    /** Right Lanczos vector. */
+    private final double[] v;
+    /** Work array (number of columns). */
+    private final double[] workColumns;
+    /** Search direction. */
+    private final double[] h;
+    /** Search direction. */
+    private final double[] hBar;
+    /** Solution. */
+    private final double[] x;
+    /** Number of iterations of the last call. */
+    private int iterations;
+
+    /**
+     * @param rows Number of rows of the matrices.
+     * @param columns Number of columns of the matrices.
+     */
+    LSMR(int rows,
+         int columns) {
+        u = new double[rows];
+        workRows = new double[rows];
+        v = new double[columns];
+        workColumns = new double[columns];
+        h = new double[columns];
+        hBar = new double[columns];
+        x = new double[columns];
+    }
+
+    /**
+     * Solves the damped least-squares problem.
+     *
+     * @param j Matrix.
+     * @param scale Scaling of the columns of {@code j}.
+     * @param b Right-hand side (not modified).
+     * @param damp Damping parameter.
+     * @param tolerance Relative tolerance on the residual and on the
+     * residual of the normal equations.
+     * @param maxIterations Maximum number of iterations.
+     * @return the solution (the array is reused by the next call).
+     */
+    double[] solve(SparseJacobian j,
+                   double[] scale,
+                   double[] b,
+                   double damp,
+                   double tolerance,
+                   int maxIterations) {
+        Arrays.fill(x, 0);
+        iterations = 0;
+
+        System.arraycopy(b, 0, u, 0, u.length);
+        double beta = norm(u);
+        if (beta == 0) {
+            return x;
+        }
+        scale(u, 1 / beta);
+        multiplyTranspose(j, scale, u, v);
+        double alpha = norm(v);
+        if (alpha == 0) {
+            return x;
+        }
+        scale(v, 1 / alpha);
+
+        double zetaBar = alpha * beta;
+        double alphaBar = alpha;
+        double rho = 1;
+        double rhoBar = 1;
+        double cBar = 1;
+        double sBar = 0;
+        System.arraycopy(v, 0, h, 0, h.length);
+        Arrays.fill(hBar, 0);
+
+        // Variables for the estimation of ||r||.
+        double betaDD = beta;
+        double betaD = 0;
+        double rhoDOld = 1;
+        double tauTildeOld = 0;
+        double thetaTilde = 0;
+        double zeta = 0;
+        double d = 0;
+
+        // Variables for the estimation of ||A|| and cond(A).
+        double normA2 = alpha * alpha;
+        double maxRBar = 0;
+        double minRBar = Double.MAX_VALUE;
+        final double normB = beta;
+
+        final double[] rot = new double[3];
+        while (iterations < maxIterations) {
+            ++iterations;
+
+            // Bidiagonalization: u = A v - alpha u, v = A^T u - beta v.
+            multiply(j, scale, v, workRows);
+            for (int i = 0; i < u.length; i++) {
+                u[i] = workRows[i] - alpha * u[i];
+            }
+            beta = norm(u);
+            if (beta > 0) {
+                scale(u, 1 / beta);
+                multiplyTranspose(j, scale, u, workColumns);
+                for (int i = 0; i < v.length; i++) {
+                    v[i] = workColumns[i] - beta * v[i];
+                }
+                alpha = norm(v);
+                if (alpha > 0) {
+                    scale(v, 1 / alpha);
+                }
+            }
+
+            // Rotation that eliminates the damping parameter.
+            symOrtho(alphaBar, damp, rot);
+            final double cHat = rot[0];
+            final double sHat = rot[1];
+            final double alphaHat = rot[2];
+
+            // Rotation P_k.
+            final double rhoOld = rho;
+            symOrtho(alphaHat, beta, rot);
+            final double c = rot[0];
+            final double s = rot[1];
+            rho = rot[2];
+            final double thetaNew = s * alpha;
+            alphaBar = c * alpha;
+
+            // Rotation Pbar_k.
+            final double rhoBarOld = rhoBar;
+            final double zetaOld = zeta;
+            final double thetaBar = sBar * rho;
+            final double rhoTemp = cBar * rho;
+            symOrtho(rhoTemp, thetaNew, rot);
+            cBar = rot[0];
+            sBar = rot[1];
+            rhoBar = rot[2];
+            zeta = cBar * zetaBar;
+            zetaBar = -sBar * zetaBar;
+
+            // Update h, hBar and x.
+            final double fHBar = thetaBar * rho / (rhoOld * rhoBarOld);
+            final double fX = zeta / (rho * rhoBar);
+            final double fH = thetaNew / rho;
+            for (int i = 0; i < x.length; i++) {
+                hBar[i] = h[i] - fHBar * hBar[i];
+                x[i] += fX * hBar[i];
+                h[i] = v[i] - fH * h[i];
+            }
+
+            // Estimate of ||r||.
+            final double betaAcute = cHat * betaDD;
+            final double betaCheck = -sHat * betaDD;
+            final double betaHat = c * betaAcute;
+            betaDD = -s * betaAcute;
+            final double thetaTildeOld = thetaTilde;
+            symOrtho(rhoDOld, thetaBar, rot);
+            final double cTildeOld = rot[0];
+            final double sTildeOld = rot[1];
+            final double rhoTildeOld = rot[2];
+            thetaTilde = sTildeOld * rhoBar;
+            rhoDOld = cTildeOld * rhoBar;
+            betaD = -sTildeOld * betaD + cTildeOld * betaHat;
+            tauTildeOld = (zetaOld - thetaTildeOld * tauTildeOld) / rhoTildeOld;
+            final double tauD = (zeta - thetaTilde * tauTildeOld) / rhoDOld;
+            d += betaCheck * betaCheck;
+            final double normR = JdkMath.sqrt(d + (betaD - tauD) * (betaD - tauD) + betaDD * betaDD);
+
+            // Estimates of ||A|| and cond(A).
+            normA2 += beta * beta;
+            final double normA = JdkMath.sqrt(normA2);
+            normA2 += alpha * alpha;
+            maxRBar = JdkMath.max(maxRBar, rhoBarOld);
+            if (iterations > 1) {
+                minRBar = JdkMath.min(minRBar, rhoBarOld);
+            }
+            final double condA = JdkMath.max(maxRBar, rhoTemp) / JdkMath.min(minRBar, rhoTemp);
+
+            // Stopping criteria.
+            final double normAR = JdkMath.abs(zetaBar);
+            final double normX = norm(x);
+            if (normR <= tolerance * (normB + normA * normX) ||
+                normAR <= tolerance * normA * normR ||
+                1 / condA <= CONDITION_TOLERANCE) {
+                break;
+            }
+        }
+
+        return x;
+    }
+
+    /**
+     * @return the number of iterations performed by the last call to
+     * {@link #solve(SparseJacobian,double[],double[],double,double,int) solve}.
+     */
+    int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * Computes {@code y = J S x}.
+     *
+     * @param j Matrix.
+     * @param scale Diagonal of {@code S}.
+     * @param in Vector.
+     * @param out Result.
+     */
+    private void multiply(SparseJacobian j,
+                          double[] scale,
+                          double[] in,
+                          double[] out) {
+        for (int i = 0; i < in.length; i++) {
+            workColumns[i] = scale[i] * in[i];
+        }
+        j.multiply(workColumns, out);
+    }
+
+    /**
+     * Computes {@code y = S J<sup>T</sup> x}.
+     *
+     * @param j Matrix.
+     * @param scale Diagonal of {@code S}.
+     * @param in Vector.
+     * @param out Result.
+     */
+    private static void multiplyTranspose(SparseJacobian j,
+                                          double[] scale,
+                                          double[] in,
+                                          double[] out) {
+        j.multiplyTranspose(in, out);
+        for (int i = 0; i < out.length; i++) {
+            out[i] *= scale[i];
+        }
+    }
+
+    /**
+     * Computes a plane rotation that zeroes the second component of a vector.
+     *
+     * @param a First component.
+     * @param b Second component.
+     * @param out Cosine, sine and norm of {@code (a, b)}.
+     */
+    private static void symOrtho(double a,
+                                 double b,
+                                 double[] out) {
+        if (b == 0) {
+            out[0] = a == 0 ? 1 : JdkMath.signum(a);
+            out[1] = 0;
+            out[2] = JdkMath.abs(a);
+        } else if (a == 0) {
+            out[0] = 0;
+            out[1] = JdkMath.signum(b);
+            out[2] = JdkMath.abs(b);
+        } else if (JdkMath.abs(b) > JdkMath.abs(a)) {
+            final double tau = a / b;
+            final double s = JdkMath.signum(b) / JdkMath.sqrt(1 + tau * tau);
+            out[0] = s * tau;
+            out[1] = s;
+            out[2] = b / s;
+        } else {
+            final double tau = b / a;
+            final double c = JdkMath.signum(a) / JdkMath.sqrt(1 + tau * tau);
+            out[0] = c;
+            out[1] = c * tau;
+            out[2] = a / c;
+        }
+    }
+
+    /**
+     * @param a Vector.
+     * @return the Euclidean norm of {@code a}.
+     */
+    private static double norm(double[] a) {
+        double s = 0;
+        for (final double e : a) {
+            s += e * e;
+        }
+        return JdkMath.sqrt(s);
+    }
+
+    /**
+     * @param a Vector (modified in-place).
+     * @param f Factor.
+     */
+    private static void scale(double[] a,
+                              double f) {
+        for (int i = 0; i < a.length; i++) {
+            a[i] *= f;
+        }
+    }
+}
@@ -16,8 +16,11 @@
  */
 package org.apache.commons.math4.legacy.fitting.leastsquares;
 
+import java.util.concurrent.ExecutorService;
+
 import org.apache.commons.math4.legacy.analysis.MultivariateMatrixFunction;
 import org.apache.commons.math4.legacy.analysis.MultivariateVectorFunction;
+import org.apache.commons.math4.legacy.exception.DimensionMismatchException;
 import org.apache.commons.math4.legacy.exception.MathIllegalStateException;
 import org.apache.commons.math4.legacy.exception.util.LocalizedFormats;
 import org.apache.commons.math4.legacy.fitting.leastsquares.LeastSquaresProblem.Evaluation;
@@ -30,6 +33,7 @@ import org.apache.commons.math4.legacy.linear.RealVector;
 import org.apache.commons.math4.legacy.optim.AbstractOptimizationProblem;
 import org.apache.commons.math4.legacy.optim.ConvergenceChecker;
 import org.apache.commons.math4.legacy.optim.PointVectorValuePair;
+import org.apache.commons.math4.legacy.util.ConcurrentTasks;
 import org.apache.commons.math4.core.jdkmath.JdkMath;
 import org.apache.commons.math4.legacy.core.IntegerSequence;
 import org.apache.commons.math4.legacy.core.Pair;
@@ -180,6 +184,53 @@ public final class LeastSquaresFactory {
                       maxIterations);
     }
 
+    /**
+     * Create a {@link LeastSquaresProblem} whose Jacobian is sparse.
+     * <p>
+     * The evaluations of the returned problem keep the Jacobian in its
+     * compressed form, so that {@link SparseLevenbergMarquardtOptimizer}
+     * never creates a dense matrix; the other optimizers can be used too,
+     * but they will call {@link Evaluation#getJacobian()}, which converts it.
+     *
+     * @param model          the model function. Produces the computed values.
+     * @param observed       the observed (target) values
+     * @param start          the initial guess.
+     * @param weights        the diagonal of the weight matrix ({@code null}
+     *                       if all the weights are 1).
+     * @param checker        convergence checker
+     * @param maxEvaluations the maximum number of times to evaluate the model
+     * @param maxIterations  the maximum number to times to iterate in the algorithm
+     * @return the specified General Least Squares problem.
+     * @throws org.apache.commons.math4.legacy.exception.DimensionMismatchException
+     * if the lengths of {@code observed} and {@code weights} differ.
+     * @since 4.0
+     */
+    public static LeastSquaresProblem createSparse(final SparseJacobianFunction model,
+                                                   final RealVector observed,
+                                                   final RealVector start,
+                                                   final RealVector weights,
+                                                   final ConvergenceChecker<Evaluation> checker,
+                                                   final int maxEvaluations,
+                                                   final int maxIterations) {
+        double[] weightSqrt = null;
+        if (weights != null) {
+            if (weights.getDimension() != observed.getDimension()) {
+                throw new DimensionMismatchException(weights.getDimension(), observed.getDimension());
+            }
+            weightSqrt = new double[weights.getDimension()];
+            for (int i = 0; i < weightSqrt.length; i++) {
+                weightSqrt[i] = JdkMath.sqrt(weights.getEntry(i));
+            }
+        }
+        return new LocalSparseLeastSquaresProblem(model,
+                                                  observed,
+                                                  start,
+                                                  weightSqrt,
+                                                  checker,
+                                                  maxEvaluations,
+                                                  maxIterations);
+    }
+
     /**
      * Apply a dense weight matrix to the {@link LeastSquaresProblem}.
      *
@@ -300,6 +351,23 @@ public final class LeastSquaresFactory {
         return new LocalValueAndJacobianFunction(value, jacobian);
     }
 
+    /**
+     * Create a {@link MultivariateJacobianFunction} that evaluates the blocks
+     * of a {@link PartitionedJacobianFunction} concurrently.
+     * The blocks write into the arrays that back the returned value and
+     * Jacobian, so that no copy is needed to assemble them.
+     *
+     * @param model    the partitioned model function
+     * @param executor the executor that evaluates the blocks ({@code null}
+     *                 to evaluate them in the calling thread)
+     * @return a function that computes the values and Jacobian of all blocks
+     * @since 4.0
+     */
+    public static MultivariateJacobianFunction model(final PartitionedJacobianFunction model,
+                                                     final ExecutorService executor) {
+        return new LocalPartitionedJacobianFunction(model, executor);
+    }
+
     /**
      * Combine a {@link MultivariateVectorFunction} with a {@link
      * MultivariateMatrixFunction} to produce a {@link MultivariateJacobianFunction}.
@@ -344,6 +412,51 @@ public final class LeastSquaresFactory {
         }
     }
 
+    /**
+     * Evaluate the blocks of a {@link PartitionedJacobianFunction} to produce
+     * a {@link MultivariateJacobianFunction}.
+     */
+    private static final class LocalPartitionedJacobianFunction
+        implements MultivariateJacobianFunction {
+        /** Model. */
+        private final PartitionedJacobianFunction model;
+        /** Executor (may be {@code null}). */
+        private final ExecutorService executor;
+        /** Index of the first observation of each block, followed by the number of observations. */
+        private final int[] offset;
+
+        /**
+         * @param model Partitioned model function.
+         * @param executor Executor.
+         */
+        LocalPartitionedJacobianFunction(final PartitionedJacobianFunction model,
+                                         final ExecutorService executor) {
+            this.model = model;
+            this.executor = executor;
+            final int blocks = model.getBlockCount();
+            offset = new int[blocks + 1];
+            for (int k = 0; k < blocks; k++) {
+                offset[k + 1] = offset[k] + model.getBlockSize(k);
+            }
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public Pair<RealVector, RealMatrix> value(final RealVector point) {
+            final double[] p = point.toArray();
+            final int blocks = offset.length - 1;
+            final double[] values = new double[offset[blocks]];
+            final double[][] jacobian = new double[offset[blocks]][p.length];
+
+            // Blocks write to disjoint rows.
+            ConcurrentTasks.run(executor, blocks,
+                                k -> model.value(k, p, offset[k], values, jacobian));
+
+            return new Pair<>(new ArrayRealVector(values, false),
+                              new Array2DRowRealMatrix(jacobian, false));
+        }
+    }
+
 
     /**
      * A private, "field" immutable (not "real" immutable) implementation of {@link
@@ -537,5 +650,78 @@ public final class LeastSquaresFactory {
             }
         }
     }
-}
 
+    /**
+     * A private, "field" immutable (not "real" immutable) implementation of
+     * {@link LeastSquaresProblem} whose model has a sparse Jacobian.
+     */
+    private static final class LocalSparseLeastSquaresProblem
+            extends AbstractOptimizationProblem<Evaluation>
+            implements LeastSquaresProblem {
+
+        /** Target values for the model function at optimum. */
+        private final RealVector target;
+        /** Model function. */
+        private final SparseJacobianFunction model;
+        /** Initial guess. */
+        private final RealVector start;
+        /** Square root of the weights (may be {@code null}). */
+        private final double[] weightSqrt;
+
+        /**
+         * Create a {@link LeastSquaresProblem} from the given data.
+         *
+         * @param model          the model function
+         * @param target         the observed data
+         * @param start          the initial guess
+         * @param weightSqrt     the square root of the weights
+         * @param checker        the convergence checker
+         * @param maxEvaluations the allowed evaluations
+         * @param maxIterations  the allowed iterations
+         */
+        LocalSparseLeastSquaresProblem(final SparseJacobianFunction model,
+                                       final RealVector target,
+                                       final RealVector start,
+                                       final double[] weightSqrt,
+                                       final ConvergenceChecker<Evaluation> checker,
+                                       final int maxEvaluations,
+                                       final int maxIterations) {
+            super(maxEvaluations, maxIterations, checker);
+            this.target = target;
+            this.model = model;
+            this.start = start;
+            this.weightSqrt = weightSqrt;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int getObservationSize() {
+            return target.getDimension();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int getParameterSize() {
+            return start.getDimension();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public RealVector getStart() {
+            return start == null ? null : start.copy();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public Evaluation evaluate(final RealVector point) {
+            // Copy so optimizer can change point without changing our instance.
+            final RealVector p = point.copy();
+            final Pair<RealVector, SparseJacobian> value = model.value(p);
+            return new SparseEvaluation(value.getFirst(),
+                                        value.getSecond(),
+                                        target,
+                                        weightSqrt,
+                                        p);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.fitting.leastsquares;
+
+/**
+ * Model whose observations are partitioned into blocks that can be
+ * evaluated independently from each other (e.g. one block per sensor
+ * or per data file).
+ *
+ * <p>Each block computes its values and the corresponding rows of the
+ * Jacobian directly into the arrays that back the {@link
+ * LeastSquaresProblem.Evaluation evaluation}; the blocks are evaluated
+ * concurrently when the function is combined with an executor by {@link
+ * LeastSquaresFactory#model(PartitionedJacobianFunction,
+ * java.util.concurrent.ExecutorService)}.  Implementations must therefore
+ * be thread-safe: distinct blocks may be evaluated at the same time.</p>
+ *
+ * @since 4.0
+ */
+public interface PartitionedJacobianFunction {
+    /**
+     * @return the number of blocks.
+     */
+    int getBlockCount();
+
+    /**
+     * @param block Block index, in {@code [0, getBlockCount())}.
+     * @return the number of observations in the block.
+     */
+    int getBlockSize(int block);
+
+    /**
+     * Computes the values and the Jacobian of one block.
+     * The blocks are stored consecutively, in increasing order of their
+     * index: block {@code k} starts at the sum of the sizes of the blocks
+     * before it.
+     *
+     * @param block Block index, in {@code [0, getBlockCount())}.
+     * @param point Parameters (must not be modified).
+     * @param offset Index of the first observation of the block.
+     * @param values Array into which the values must be stored, at indices
+     * {@code offset} to {@code offset + getBlockSize(block) - 1}.
+     * @param jacobian Array into which the partial derivatives must be
+     * stored, in the rows {@code offset} to {@code offset + getBlockSize(block) - 1};
+     * the rows are already allocated (with one column per parameter).
+     */
+    void value(int block,
+               double[] point,
+               int offset,
+               double[] values,
+               double[][] jacobian);
+}
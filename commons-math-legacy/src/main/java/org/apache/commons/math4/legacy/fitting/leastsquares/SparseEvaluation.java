@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.fitting.leastsquares;
+
+import org.apache.commons.math4.legacy.linear.ArrayRealVector;
+import org.apache.commons.math4.legacy.linear.RealMatrix;
+import org.apache.commons.math4.legacy.linear.RealVector;
+
+/**
+ * Evaluation whose Jacobian is sparse.
+ * The {@link #getJacobian() general matrix} is only created on demand
+ * (e.g. for computing the covariances, whose cost is that of dense
+ * algebra).
+ */
+class SparseEvaluation extends AbstractEvaluation {
+    /** Point of evaluation. */
+    private final RealVector point;
+    /** Weighted derivative at point. */
+    private final SparseJacobian jacobian;
+    /** Weighted residuals. */
+    private final RealVector residuals;
+
+    /**
+     * @param values Computed function values.
+     * @param jacobian Computed function Jacobian.
+     * @param target Observed values.
+     * @param weightSqrt Square root of the (diagonal) weights, or
+     * {@code null} if all weights are 1.
+     * @param point Abscissa.
+     */
+    SparseEvaluation(RealVector values,
+                     SparseJacobian jacobian,
+                     RealVector target,
+                     double[] weightSqrt,
+                     RealVector point) {
+        super(target.getDimension());
+        this.point = point;
+        final double[] r = target.subtract(values).toArray();
+        if (weightSqrt == null) {
+            this.jacobian = jacobian;
+        } else {
+            for (int i = 0; i < r.length; i++) {
+                r[i] *= weightSqrt[i];
+            }
+            this.jacobian = jacobian.scaleRows(weightSqrt);
+        }
+        this.residuals = new ArrayRealVector(r, false);
+    }
+
+    /**
+     * @return the weighted Jacobian.
+     */
+    SparseJacobian getSparseJacobian() {
+        return jacobian;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public RealMatrix getJacobian() {
+        return jacobian.toRealMatrix();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public RealVector getResiduals() {
+        return residuals;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public RealVector getPoint() {
+        return point;
+    }
+}
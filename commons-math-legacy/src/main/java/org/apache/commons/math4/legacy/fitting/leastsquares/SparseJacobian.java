@@ -0,0 +1,378 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.fitting.leastsquares;
+
+import java.util.Arrays;
+
+import org.apache.commons.math4.legacy.exception.DimensionMismatchException;
+import org.apache.commons.math4.legacy.exception.NonMonotonicSequenceException;
+import org.apache.commons.math4.legacy.exception.NotStrictlyPositiveException;
+import org.apache.commons.math4.legacy.exception.NumberIsTooLargeException;
+import org.apache.commons.math4.legacy.exception.OutOfRangeException;
+import org.apache.commons.math4.legacy.exception.util.LocalizedFormats;
+import org.apache.commons.math4.legacy.linear.ArrayRealVector;
+import org.apache.commons.math4.legacy.linear.OpenMapRealMatrix;
+import org.apache.commons.math4.legacy.linear.RealLinearOperator;
+import org.apache.commons.math4.legacy.linear.RealMatrix;
+import org.apache.commons.math4.legacy.linear.RealVector;
+import org.apache.commons.math4.core.jdkmath.JdkMath;
+
+/**
+ * Jacobian matrix stored in compressed sparse row format.
+ * <p>
+ * The non-zero entries of row {@code i} are at positions
+ * {@code rowStart[i]} (inclusive) to {@code rowStart[i + 1]} (exclusive)
+ * of the {@code columnIndex} and {@code values} arrays.  Within a row, the
+ * entries need not be sorted, and entries with the same column index are
+ * summed.
+ * <p>
+ * Products with the matrix and its transpose only traverse the non-zero
+ * entries, so that problems with millions of observations can be solved
+ * by {@link SparseLevenbergMarquardtOptimizer} as long as the Jacobian
+ * itself fits in memory.
+ *
+ * @see SparseJacobianFunction
+ * @since 4.0
+ */
+public final class SparseJacobian extends RealLinearOperator {
+    /** Number of rows. */
+    private final int rows;
+    /** Number of columns. */
+    private final int columns;
+    /** Start of each row in {@link #columnIndex} and {@link #values}. */
+    private final int[] rowStart;
+    /** Column of each entry. */
+    private final int[] columnIndex;
+    /** Value of each entry. */
+    private final double[] values;
+
+    /**
+     * Creates a matrix from its compressed sparse row representation.
+     * The arrays are not copied.
+     *
+     * @param rows Number of rows.
+     * @param columns Number of columns.
+     * @param rowStart Start of each row in {@code columnIndex} and
+     * {@code values}, followed by the number of entries ({@code rows + 1}
+     * elements).
+     * @param columnIndex Column of each entry.
+     * @param values Value of each entry.
+     * @throws NotStrictlyPositiveException if {@code rows} or {@code columns}
+     * is not strictly positive.
+     * @throws DimensionMismatchException if the lengths of the arrays are
+     * inconsistent.
+     * @throws NonMonotonicSequenceException if {@code rowStart} is decreasing.
+     * @throws OutOfRangeException if a column index is out of range.
+     */
+    public SparseJacobian(int rows,
+                          int columns,
+                          int[] rowStart,
+                          int[] columnIndex,
+                          double[] values) {
+        if (rows <= 0) {
+            throw new NotStrictlyPositiveException(LocalizedFormats.DIMENSION, rows);
+        }
+        if (columns <= 0) {
+            throw new NotStrictlyPositiveException(LocalizedFormats.DIMENSION, columns);
+        }
+        if (rowStart.length != rows + 1) {
+            throw new DimensionMismatchException(rowStart.length, rows + 1);
+        }
+        if (values.length != columnIndex.length) {
+            throw new DimensionMismatchException(values.length, columnIndex.length);
+        }
+        if (rowStart[rows] != columnIndex.length) {
+            throw new DimensionMismatchException(rowStart[rows], columnIndex.length);
+        }
+        if (rowStart[0] != 0) {
+            throw new NonMonotonicSequenceException(rowStart[0], 0, 0);
+        }
+        for (int i = 0; i < rows; i++) {
+            if (rowStart[i + 1] < rowStart[i]) {
+                throw new NonMonotonicSequenceException(rowStart[i + 1], rowStart[i], i + 1);
+            }
+        }
+        for (final int c : columnIndex) {
+            if (c < 0 || c >= columns) {
+                throw new OutOfRangeException(LocalizedFormats.COLUMN_INDEX, c, 0, columns - 1);
+            }
+        }
+
+        this.rows = rows;
+        this.columns = columns;
+        this.rowStart = rowStart;
+        this.columnIndex = columnIndex;
+        this.values = values;
+    }
+
+    /**
+     * Creates a sparse copy of a matrix.
+     * Only the non-zero entries are retained.
+     *
+     * @param matrix Matrix.
+     * @return the sparse matrix.
+     */
+    public static SparseJacobian of(RealMatrix matrix) {
+        final Builder builder = new Builder(matrix.getRowDimension(),
+                                            matrix.getColumnDimension());
+        for (int i = 0; i < matrix.getRowDimension(); i++) {
+            final double[] row = matrix.getRow(i);
+            for (int j = 0; j < row.length; j++) {
+                if (row[j] != 0) {
+                    builder.add(i, j, row[j]);
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int getRowDimension() {
+        return rows;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int getColumnDimension() {
+        return columns;
+    }
+
+    /**
+     * @return the number of stored entries.
+     */
+    public int getEntryCount() {
+        return values.length;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public RealVector operate(RealVector x) {
+        if (x.getDimension() != columns) {
+            throw new DimensionMismatchException(x.getDimension(), columns);
+        }
+        final double[] y = new double[rows];
+        multiply(x.toArray(), y);
+        return new ArrayRealVector(y, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public RealVector operateTranspose(RealVector x) {
+        if (x.getDimension() != rows) {
+            throw new DimensionMismatchException(x.getDimension(), rows);
+        }
+        final double[] y = new double[columns];
+        multiplyTranspose(x.toArray(), y);
+        return new ArrayRealVector(y, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean isTransposable() {
+        return true;
+    }
+
+    /**
+     * Converts to a general matrix.
+     *
+     * @return a copy of this matrix.
+     * @throws NumberIsTooLargeException if the total number of entries
+     * (including the zeros) of the matrix is larger than
+     * {@code Integer.MAX_VALUE}.
+     */
+    public RealMatrix toRealMatrix() {
+        final RealMatrix m = new OpenMapRealMatrix(rows, columns);
+        for (int i = 0; i < rows; i++) {
+            for (int k = rowStart[i]; k < rowStart[i + 1]; k++) {
+                m.addToEntry(i, columnIndex[k], values[k]);
+            }
+        }
+        return m;
+    }
+
+    /**
+     * Multiplies each row by a factor.
+     *
+     * @param factors Factors (length must be the number of rows).
+     * @return a new matrix.
+     */
+    SparseJacobian scaleRows(double[] factors) {
+        final double[] scaled = new double[values.length];
+        for (int i = 0; i < rows; i++) {
+            for (int k = rowStart[i]; k < rowStart[i + 1]; k++) {
+                scaled[k] = values[k] * factors[i];
+            }
+        }
+        return new SparseJacobian(rows, columns, rowStart, columnIndex, scaled);
+    }
+
+    /**
+     * Computes {@code y = A x}.
+     *
+     * @param x Vector (length must be the number of columns).
+     * @param y Result (length must be the number of rows).
+     */
+    void multiply(double[] x,
+                  double[] y) {
+        for (int i = 0; i < rows; i++) {
+            double s = 0;
+            for (int k = rowStart[i]; k < rowStart[i + 1]; k++) {
+                s += values[k] * x[columnIndex[k]];
+            }
+            y[i] = s;
+        }
+    }
+
+    /**
+     * Computes {@code y = A<sup>T</sup> x}.
+     *
+     * @param x Vector (length must be the number of rows).
+     * @param y Result (length must be the number of columns).
+     */
+    void multiplyTranspose(double[] x,
+                           double[] y) {
+        Arrays.fill(y, 0);
+        for (int i = 0; i < rows; i++) {
+            final double xi = x[i];
+            if (xi != 0) {
+                for (int k = rowStart[i]; k < rowStart[i + 1]; k++) {
+                    y[columnIndex[k]] += values[k] * xi;
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes the Euclidean norms of the columns.
+     *
+     * @param norms Result (length must be the number of columns).
+     */
+    void columnNorms(double[] norms) {
+        Arrays.fill(norms, 0);
+        final double[] sum = new double[columns];
+        for (int i = 0; i < rows; i++) {
+            // Entries of the same row and column are summed before squaring.
+            for (int k = rowStart[i]; k < rowStart[i + 1]; k++) {
+                sum[columnIndex[k]] += values[k];
+            }
+            for (int k = rowStart[i]; k < rowStart[i + 1]; k++) {
+                final int c = columnIndex[k];
+                norms[c] += sum[c] * sum[c];
+                sum[c] = 0;
+            }
+        }
+        for (int j = 0; j < columns; j++) {
+            norms[j] = JdkMath.sqrt(norms[j]);
+        }
+    }
+
+    /**
+     * Accumulates entries in arbitrary order, and creates the compressed
+     * representation.
+     */
+    public static final class Builder {
+        /** Initial capacity. */
+        private static final int INITIAL_CAPACITY = 16;
+        /** Number of rows. */
+        private final int rows;
+        /** Number of columns. */
+        private final int columns;
+        /** Row of each entry. */
+        private int[] entryRow = new int[INITIAL_CAPACITY];
+        /** Column of each entry. */
+        private int[] entryColumn = new int[INITIAL_CAPACITY];
+        /** Value of each entry. */
+        private double[] entryValue = new double[INITIAL_CAPACITY];
+        /** Number of entries. */
+        private int size;
+
+        /**
+         * @param rows Number of rows.
+         * @param columns Number of columns.
+         * @throws NotStrictlyPositiveException if {@code rows} or {@code columns}
+         * is not strictly positive.
+         */
+        public Builder(int rows,
+                       int columns) {
+            if (rows <= 0) {
+                throw new NotStrictlyPositiveException(LocalizedFormats.DIMENSION, rows);
+            }
+            if (columns <= 0) {
+                throw new NotStrictlyPositiveException(LocalizedFormats.DIMENSION, columns);
+            }
+            this.rows = rows;
+            this.columns = columns;
+        }
+
+        /**
+         * Adds an entry (entries with the same indices are summed).
+         *
+         * @param row Row index.
+         * @param column Column index.
+         * @param value Value.
+         * @return this instance.
+         * @throws OutOfRangeException if an index is out of range.
+         */
+        public Builder add(int row,
+                           int column,
+                           double value) {
+            if (row < 0 || row >= rows) {
+                throw new OutOfRangeException(LocalizedFormats.ROW_INDEX, row, 0, rows - 1);
+            }
+            if (column < 0 || column >= columns) {
+                throw new OutOfRangeException(LocalizedFormats.COLUMN_INDEX, column, 0, columns - 1);
+            }
+            if (size == entryValue.length) {
+                final int capacity = 2 * size;
+                entryRow = Arrays.copyOf(entryRow, capacity);
+                entryColumn = Arrays.copyOf(entryColumn, capacity);
+                entryValue = Arrays.copyOf(entryValue, capacity);
+            }
+            entryRow[size] = row;
+            entryColumn[size] = column;
+            entryValue[size] = value;
+            ++size;
+            return this;
+        }
+
+        /**
+         * Creates the matrix; the builder can be reused afterwards.
+         *
+         * @return the matrix containing all the entries added so far.
+         */
+        public SparseJacobian build() {
+            // Counting sort of the entries by row.
+            final int[] rowStart = new int[rows + 1];
+            for (int k = 0; k < size; k++) {
+                ++rowStart[entryRow[k] + 1];
+            }
+            for (int i = 0; i < rows; i++) {
+                rowStart[i + 1] += rowStart[i];
+            }
+            final int[] next = Arrays.copyOf(rowStart, rows);
+            final int[] columnIndex = new int[size];
+            final double[] values = new double[size];
+            for (int k = 0; k < size; k++) {
+                final int pos = next[entryRow[k]]++;
+                columnIndex[pos] = entryColumn[k];
+                values[pos] = entryValue[k];
+            }
+            return new SparseJacobian(rows, columns, rowStart, columnIndex, values);
+        }
+    }
+}
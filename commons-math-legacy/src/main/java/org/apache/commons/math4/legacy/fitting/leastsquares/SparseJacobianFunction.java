@@ -0,0 +1,38 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.fitting.leastsquares;
+
+import org.apache.commons.math4.legacy.core.Pair;
+import org.apache.commons.math4.legacy.linear.RealVector;
+
+/**
+ * A interface for functions that compute a vector of values and can compute
+ * their sparse derivatives (Jacobian).
+ *
+ * @see LeastSquaresFactory#createSparse(SparseJacobianFunction,RealVector,RealVector,RealVector,org.apache.commons.math4.legacy.optim.ConvergenceChecker,int,int)
+ * @since 4.0
+ */
+@FunctionalInterface
+public interface SparseJacobianFunction {
+    /**
+     * Compute the function value and its Jacobian.
+     *
+     * @param point the abscissae
+     * @return the values and their Jacobian of this vector valued function.
+     */
+    Pair<RealVector, SparseJacobian> value(RealVector point);
+}
@@ -0,0 +1,424 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.fitting.leastsquares;
+
+import org.apache.commons.math4.legacy.exception.NotPositiveException;
+import org.apache.commons.math4.legacy.exception.NotStrictlyPositiveException;
+import org.apache.commons.math4.legacy.fitting.leastsquares.LeastSquaresProblem.Evaluation;
+import org.apache.commons.math4.legacy.linear.ArrayRealVector;
+import org.apache.commons.math4.legacy.optim.ConvergenceChecker;
+import org.apache.commons.math4.core.jdkmath.JdkMath;
+import org.apache.commons.math4.legacy.core.IntegerSequence;
+import org.apache.commons.numbers.core.Precision;
+
+/**
+ * Levenberg-Marquardt optimizer for large problems with a sparse Jacobian.
+ *
+ * <p>At each iteration, the step {@code p} solves the damped linear
+ * least-squares problem
+ * <pre>
+ *  min || J p - r ||<sup>2</sup> + &mu; || D p ||<sup>2</sup>
+ * </pre>
+ * where {@code r} are the residuals, {@code J} is the Jacobian and {@code D}
+ * is the diagonal matrix of the (largest so far) norms of the columns of
+ * {@code J}.  Instead of the dense QR decomposition performed by
+ * {@link LevenbergMarquardtOptimizer}, the subproblem is solved by the LSMR
+ * iterative method, in the variables {@code D p}; the scaling thus also serves
+ * as a Jacobi preconditioner.  Only products with the Jacobian and its transpose
+ * are needed, so that the memory footprint is that of the non-zero entries of
+ * the Jacobian plus a few vectors.</p>
+ *
+ * <p>The damping parameter {@code &mu;} is updated from the ratio between the
+ * actual and the predicted reductions of the cost, as proposed by H. B.
+ * Nielsen (<em>Damping parameter in Marquardt's method</em>, IMM-REP-1999-05,
+ * Technical University of Denmark).</p>
+ *
+ * <p>The Jacobian is accessed without conversion when the problem was
+ * created by {@link LeastSquaresFactory#createSparse(SparseJacobianFunction,
+ * org.apache.commons.math4.legacy.linear.RealVector,
+ * org.apache.commons.math4.legacy.linear.RealVector,
+ * org.apache.commons.math4.legacy.linear.RealVector, ConvergenceChecker, int, int)
+ * createSparse}; for other problems, the {@link Evaluation#getJacobian() dense
+ * Jacobian} is converted at each iteration.</p>
+ *
+ * @since 4.0
+ */
+public class SparseLevenbergMarquardtOptimizer implements LeastSquaresOptimizer {
+    /** Twice the "epsilon machine". */
+    private static final double TWO_EPS = 2 * Precision.EPSILON;
+    /** Smallest ratio between the actual and predicted reductions of a successful step. */
+    private static final double MIN_RATIO = 1e-4;
+
+    /* configuration parameters */
+    /** Initial damping parameter, relative to the scaled Jacobian. */
+    private final double initialDamping;
+    /** Desired relative error in the sum of squares. */
+    private final double costRelativeTolerance;
+    /** Desired relative error in the approximate solution parameters. */
+    private final double parRelativeTolerance;
+    /** Desired max cosine on the orthogonality between the function vector
+     * and the columns of the Jacobian. */
+    private final double orthoTolerance;
+    /** Relative tolerance of the linear solver. */
+    private final double innerTolerance;
+    /** Maximum number of iterations of the linear solver (0 for the number of parameters). */
+    private final int maxInnerIterations;
+
+    /** Default constructor.
+     * <p>
+     * The default values for the algorithm settings are:
+     * <ul>
+     *  <li>Initial damping: 1e-3</li>
+     *  <li>Cost relative tolerance: 1e-10</li>
+     *  <li>Parameters relative tolerance: 1e-10</li>
+     *  <li>Orthogonality tolerance: 1e-10</li>
+     *  <li>Linear solver tolerance: 1e-10</li>
+     *  <li>Linear solver iterations: number of parameters</li>
+     * </ul>
+     **/
+    public SparseLevenbergMarquardtOptimizer() {
+        this(1e-3, 1e-10, 1e-10, 1e-10, 1e-10, 0);
+    }
+
+    /**
+     * Construct an instance with all parameters specified.
+     *
+     * @param initialDamping         initial damping parameter
+     * @param costRelativeTolerance  cost relative tolerance
+     * @param parRelativeTolerance   parameters relative tolerance
+     * @param orthoTolerance         orthogonality tolerance
+     * @param innerTolerance         relative tolerance of the linear solver
+     * @param maxInnerIterations     maximum number of iterations of the linear
+     *                               solver ({@code 0} for the number of parameters)
+     * @throws NotStrictlyPositiveException if {@code initialDamping <= 0}.
+     * @throws NotPositiveException if {@code maxInnerIterations < 0}.
+     */
+    public SparseLevenbergMarquardtOptimizer(final double initialDamping,
+                                             final double costRelativeTolerance,
+                                             final double parRelativeTolerance,
+                                             final double orthoTolerance,
+                                             final double innerTolerance,
+                                             final int maxInnerIterations) {
+        if (!(initialDamping > 0)) {
+            throw new NotStrictlyPositiveException(initialDamping);
+        }
+        if (maxInnerIterations < 0) {
+            throw new NotPositiveException(maxInnerIterations);
+        }
+        this.initialDamping = initialDamping;
+        this.costRelativeTolerance = costRelativeTolerance;
+        this.parRelativeTolerance = parRelativeTolerance;
+        this.orthoTolerance = orthoTolerance;
+        this.innerTolerance = innerTolerance;
+        this.maxInnerIterations = maxInnerIterations;
+    }
+
+    /**
+     * @param newInitialDamping Initial damping parameter. Since the columns of
+     * the Jacobian are scaled to unit norm, values in the interval
+     * {@code (1e-6, 1)} are appropriate; a larger value yields shorter steps
+     * in the first iterations.
+     * @return a new instance.
+     */
+    public SparseLevenbergMarquardtOptimizer withInitialDamping(double newInitialDamping) {
+        return new SparseLevenbergMarquardtOptimizer(
+                newInitialDamping,
+                costRelativeTolerance,
+                parRelativeTolerance,
+                orthoTolerance,
+                innerTolerance,
+                maxInnerIterations);
+    }
+
+    /**
+     * @param newCostRelativeTolerance Desired relative error in the sum of squares.
+     * @return a new instance.
+     */
+    public SparseLevenbergMarquardtOptimizer withCostRelativeTolerance(double newCostRelativeTolerance) {
+        return new SparseLevenbergMarquardtOptimizer(
+                initialDamping,
+                newCostRelativeTolerance,
+                parRelativeTolerance,
+                orthoTolerance,
+                innerTolerance,
+                maxInnerIterations);
+    }
+
+    /**
+     * @param newParRelativeTolerance Desired relative error in the approximate solution
+     * parameters.
+     * @return a new instance.
+     */
+    public SparseLevenbergMarquardtOptimizer withParameterRelativeTolerance(double newParRelativeTolerance) {
+        return new SparseLevenbergMarquardtOptimizer(
+                initialDamping,
+                costRelativeTolerance,
+                newParRelativeTolerance,
+                orthoTolerance,
+                innerTolerance,
+                maxInnerIterations);
+    }
+
+    /**
+     * Modifies the given parameter.
+     *
+     * @param newOrthoTolerance Desired max cosine on the orthogonality between
+     * the function vector and the columns of the Jacobian.
+     * @return a new instance.
+     */
+    public SparseLevenbergMarquardtOptimizer withOrthoTolerance(double newOrthoTolerance) {
+        return new SparseLevenbergMarquardtOptimizer(
+                initialDamping,
+                costRelativeTolerance,
+                parRelativeTolerance,
+                newOrthoTolerance,
+                innerTolerance,
+                maxInnerIterations);
+    }
+
+    /**
+     * @param newInnerTolerance Relative tolerance of the iterative linear
+     * solver. Larger values yield cheaper, but less accurate, steps.
+     * @param newMaxInnerIterations Maximum number of iterations of the
+     * linear solver ({@code 0} for the number of parameters).
+     * @return a new instance.
+     */
+    public SparseLevenbergMarquardtOptimizer withLinearSolver(double newInnerTolerance,
+                                                              int newMaxInnerIterations) {
+        return new SparseLevenbergMarquardtOptimizer(
+                initialDamping,
+                costRelativeTolerance,
+                parRelativeTolerance,
+                orthoTolerance,
+                newInnerTolerance,
+                newMaxInnerIterations);
+    }
+
+    /**
+     * Gets the value of a tuning parameter.
+     * @see #withInitialDamping(double)
+     *
+     * @return the parameter's value.
+     */
+    public double getInitialDamping() {
+        return initialDamping;
+    }
+
+    /**
+     * Gets the value of a tuning parameter.
+     * @see #withCostRelativeTolerance(double)
+     *
+     * @return the parameter's value.
+     */
+    public double getCostRelativeTolerance() {
+        return costRelativeTolerance;
+    }
+
+    /**
+     * Gets the value of a tuning parameter.
+     * @see #withParameterRelativeTolerance(double)
+     *
+     * @return the parameter's value.
+     */
+    public double getParameterRelativeTolerance() {
+        return parRelativeTolerance;
+    }
+
+    /**
+     * Gets the value of a tuning parameter.
+     * @see #withOrthoTolerance(double)
+     *
+     * @return the parameter's value.
+     */
+    public double getOrthoTolerance() {
+        return orthoTolerance;
+    }
+
+    /**
+     * Gets the value of a tuning parameter.
+     * @see #withLinearSolver(double,int)
+     *
+     * @return the parameter's value.
+     */
+    public double getLinearSolverTolerance() {
+        return innerTolerance;
+    }
+
+    /**
+     * Gets the value of a tuning parameter.
+     * @see #withLinearSolver(double,int)
+     *
+     * @return the parameter's value.
+     */
+    public int getLinearSolverMaxIterations() {
+        return maxInnerIterations;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Optimum optimize(final LeastSquaresProblem problem) {
+        // Pull in relevant data from the problem as locals.
+        final int nR = problem.getObservationSize(); // Number of observed data.
+        final int nC = problem.getParameterSize(); // Number of parameters.
+        // Counters.
+        final IntegerSequence.Incrementor iterationCounter = problem.getIterationCounter();
+        final IntegerSequence.Incrementor evaluationCounter = problem.getEvaluationCounter();
+        // Convergence criterion.
+        final ConvergenceChecker<Evaluation> checker = problem.getConvergenceChecker();
+
+        final LSMR lsmr = new LSMR(nR, nC);
+        final int maxLinearIterations = maxInnerIterations == 0 ? nC : maxInnerIterations;
+        final double[] diag = new double[nC];
+        final double[] scale = new double[nC];
+        final double[] jacNorm = new double[nC];
+        final double[] gradient = new double[nC];
+        final double[] step = new double[nC];
+        final double[] newPoint = new double[nC];
+        final double[] jStep = new double[nR];
+
+        // Evaluate the function at the starting point.
+        evaluationCounter.increment();
+        Evaluation current = problem.evaluate(problem.getStart());
+        double[] currentResiduals = current.getResiduals().toArray();
+        double currentCost = current.getCost();
+
+        double mu = initialDamping;
+        double nu = 2;
+
+        // Outer loop.
+        while (true) {
+            iterationCounter.increment();
+
+            final Evaluation previous = current;
+            final double[] currentPoint = current.getPoint().toArray();
+            final SparseJacobian jacobian = sparseJacobian(current);
+
+            // Scaling, according to the norms of the columns of the Jacobian.
+            jacobian.columnNorms(jacNorm);
+            double xNorm = 0;
+            for (int k = 0; k < nC; ++k) {
+                diag[k] = JdkMath.max(diag[k], jacNorm[k]);
+                if (diag[k] == 0) {
+                    diag[k] = 1;
+                }
+                scale[k] = 1 / diag[k];
+                final double xk = diag[k] * currentPoint[k];
+                xNorm += xk * xk;
+            }
+            xNorm = JdkMath.sqrt(xNorm);
+
+            // Check orthogonality between function vector and Jacobian columns.
+            if (currentCost == 0) {
+                return new OptimumImpl(current, evaluationCounter.getCount(), iterationCounter.getCount());
+            }
+            jacobian.multiplyTranspose(currentResiduals, gradient);
+            double maxCosine = 0;
+            for (int j = 0; j < nC; ++j) {
+                if (jacNorm[j] != 0) {
+                    maxCosine = JdkMath.max(maxCosine,
+                                            JdkMath.abs(gradient[j]) / (jacNorm[j] * currentCost));
+                }
+            }
+            if (maxCosine <= orthoTolerance) {
+                // Convergence has been reached.
+                return new OptimumImpl(current, evaluationCounter.getCount(), iterationCounter.getCount());
+            }
+
+            // Inner loop: increase the damping until a step reduces the cost.
+            while (true) {
+                // Solve for the scaled step "D p".
+                final double[] scaledStep = lsmr.solve(jacobian, scale, currentResiduals,
+                                                       JdkMath.sqrt(mu), innerTolerance,
+                                                       maxLinearIterations);
+                double stepNorm = 0;
+                for (int k = 0; k < nC; ++k) {
+                    step[k] = scale[k] * scaledStep[k];
+                    newPoint[k] = currentPoint[k] + step[k];
+                    stepNorm += scaledStep[k] * scaledStep[k];
+                }
+                stepNorm = JdkMath.sqrt(stepNorm);
+
+                // Predicted reduction, relative to the current cost.
+                jacobian.multiply(step, jStep);
+                double predicted = 0;
+                for (int i = 0; i < nR; ++i) {
+                    final double d = currentResiduals[i] - jStep[i];
+                    predicted += d * d;
+                }
+                final double pc2 = currentCost * currentCost;
+                final double preRed = 1 - predicted / pc2;
+
+                // Evaluate the function at x + p.
+                evaluationCounter.increment();
+                final Evaluation trial = problem.evaluate(new ArrayRealVector(newPoint));
+                final double trialCost = trial.getCost();
+                final double r = trialCost / currentCost;
+                final double actRed = 1 - r * r;
+
+                // Ratio of the actual to the predicted reduction.
+                final double ratio = preRed <= 0 ? 0 : actRed / preRed;
+
+                final boolean success = ratio >= MIN_RATIO;
+                if (success) {
+                    final double t = 2 * ratio - 1;
+                    mu *= JdkMath.max(1d / 3, 1 - t * t * t);
+                    nu = 2;
+                    current = trial;
+                    currentResiduals = current.getResiduals().toArray();
+                    currentCost = trialCost;
+
+                    if (checker != null && checker.converged(iterationCounter.getCount(), previous, current)) {
+                        return new OptimumImpl(current, evaluationCounter.getCount(), iterationCounter.getCount());
+                    }
+                } else {
+                    mu *= nu;
+                    nu *= 2;
+                }
+
+                // Default convergence criteria.
+                if ((JdkMath.abs(actRed) <= costRelativeTolerance &&
+                     preRed <= costRelativeTolerance &&
+                     ratio <= 2) ||
+                    stepNorm <= parRelativeTolerance * xNorm ||
+                    (!success &&
+                     (preRed <= TWO_EPS ||
+                      stepNorm <= TWO_EPS * xNorm ||
+                      Double.isInfinite(mu)))) {
+                    // No significant progress is possible (if the last step
+                    // failed, "current" is still the best point).
+                    return new OptimumImpl(current, evaluationCounter.getCount(), iterationCounter.getCount());
+                }
+
+                if (success) {
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the Jacobian of an evaluation, in sparse form.
+     *
+     * @param evaluation Evaluation.
+     * @return the weighted Jacobian.
+     */
+    private static SparseJacobian sparseJacobian(Evaluation evaluation) {
+        return evaluation instanceof SparseEvaluation ?
+            ((SparseEvaluation) evaluation).getSparseJacobian() :
+            SparseJacobian.of(evaluation.getJacobian());
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.genetics;
+
+import java.util.Arrays;
+
+import org.apache.commons.math4.core.jdkmath.JdkMath;
+import org.apache.commons.rng.UniformRandomProvider;
+
+/**
+ * Selects the positions of a sequence where independent Bernoulli trials
+ * succeed, by drawing the geometrically distributed gaps between successes.
+ * The number of random numbers consumed is thus proportional to the number
+ * of successes rather than to the length of the sequence.
+ */
+final class BernoulliSampling {
+    /** Number of bits in a word. */
+    private static final int WORD_SIZE = Long.SIZE;
+
+    /** Utility class. */
+    private BernoulliSampling() {}
+
+    /**
+     * Finds the next success.
+     *
+     * @param index Position from which to start (inclusive).
+     * @param log1mp {@code log(1 - p)}, where {@code p} is the (strictly
+     * positive) probability of success.
+     * @param rng Generator.
+     * @return the position of the next success (may overflow to
+     * {@link Integer#MAX_VALUE}).
+     */
+    static int nextSuccess(int index,
+                           double log1mp,
+                           UniformRandomProvider rng) {
+        // Number of failures before the next success.
+        final double skip = JdkMath.floor(JdkMath.log(1 - rng.nextDouble()) / log1mp);
+        return skip >= Integer.MAX_VALUE - index ?
+            Integer.MAX_VALUE :
+            index + (int) skip;
+    }
+
+    /**
+     * Fills a bit mask whose bits are set with a given probability.
+     *
+     * @param mask Mask (overwritten); the bits beyond {@code length} are cleared.
+     * @param length Number of bits.
+     * @param p Probability that a bit is set.
+     * @param rng Generator.
+     */
+    static void fillMask(long[] mask,
+                         int length,
+                         double p,
+                         UniformRandomProvider rng) {
+        if (p > 0.5) {
+            // Draw the (fewer) unset bits.
+            fillMask(mask, length, 1 - p, rng);
+            for (int w = 0; w < mask.length; w++) {
+                mask[w] = ~mask[w];
+            }
+        } else if (p == 0.5) {
+            for (int w = 0; w < mask.length; w++) {
+                mask[w] = rng.nextLong();
+            }
+        } else {
+            Arrays.fill(mask, 0);
+            if (p > 0) {
+                final double log1mp = JdkMath.log1p(-p);
+                for (int i = nextSuccess(0, log1mp, rng); i < length; i = nextSuccess(i + 1, log1mp, rng)) {
+                    mask[i / WORD_SIZE] |= 1L << i;
+                }
+            }
+        }
+        clearTail(mask, length);
+    }
+
+    /**
+     * Clears the bits beyond the given length.
+     *
+     * @param words Bits.
+     * @param length Number of bits in use.
+     */
+    static void clearTail(long[] words,
+                          int length) {
+        if (length % WORD_SIZE != 0) {
+            words[words.length - 1] &= -1L >>> -length;
+        }
+    }
+}
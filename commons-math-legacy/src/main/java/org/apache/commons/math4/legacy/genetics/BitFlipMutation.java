@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.genetics;
+
+import org.apache.commons.math4.legacy.exception.MathIllegalArgumentException;
+import org.apache.commons.math4.legacy.exception.OutOfRangeException;
+import org.apache.commons.math4.legacy.exception.util.LocalizedFormats;
+
+/**
+ * Mutation for {@link BitStringChromosome}s: each bit is flipped,
+ * independently of the others, with a given probability.
+ * <p>
+ * Only the positions of the flipped bits are drawn, so that the cost of
+ * a mutation is proportional to the expected number of flips (plus a copy
+ * of the words).
+ *
+ * @since 4.0
+ */
+public class BitFlipMutation implements MutationPolicy {
+    /** Probability of flipping a bit. */
+    private final double bitMutationRate;
+
+    /**
+     * @param bitMutationRate probability that a given bit is flipped
+     * (a common choice is the inverse of the length of the chromosomes)
+     * @throws OutOfRangeException if the rate is outside the [0, 1] range
+     */
+    public BitFlipMutation(final double bitMutationRate) {
+        if (bitMutationRate < 0 || bitMutationRate > 1) {
+            throw new OutOfRangeException(LocalizedFormats.MUTATION_RATE, bitMutationRate, 0, 1);
+        }
+        this.bitMutationRate = bitMutationRate;
+    }
+
+    /**
+     * Returns the probability of flipping a bit.
+     * @return the bit mutation rate
+     */
+    public double getBitMutationRate() {
+        return bitMutationRate;
+    }
+
+    /**
+     * Mutate the given chromosome.
+     *
+     * @param original the original chromosome.
+     * @return the mutated chromosome.
+     * @throws MathIllegalArgumentException if <code>original</code> is not an instance of
+     * {@link BitStringChromosome}.
+     */
+    @Override
+    public Chromosome mutate(final Chromosome original) {
+        if (!(original instanceof BitStringChromosome)) {
+            throw new MathIllegalArgumentException(LocalizedFormats.INVALID_CHROMOSOME_TYPE,
+                                                   getClass().getSimpleName(),
+                                                   BitStringChromosome.class.getSimpleName());
+        }
+        final BitStringChromosome chromosome = (BitStringChromosome) original;
+        final long[] words = chromosome.getWords();
+        final long[] flips = new long[words.length];
+        BernoulliSampling.fillMask(flips, chromosome.getLength(), bitMutationRate,
+                                   GeneticAlgorithm.getRandomGenerator());
+        for (int w = 0; w < words.length; w++) {
+            flips[w] ^= words[w];
+        }
+        return chromosome.newBitStringChromosome(flips);
+    }
+}
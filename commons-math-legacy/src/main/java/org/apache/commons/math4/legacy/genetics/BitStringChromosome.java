@@ -0,0 +1,228 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.genetics;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import org.apache.commons.math4.legacy.exception.NotPositiveException;
+import org.apache.commons.math4.legacy.exception.util.LocalizedFormats;
+
+/**
+ * Chromosome represented by a string of bits, packed into an array of
+ * {@code long} words.
+ * <p>
+ * Bit {@code i} is stored in word {@code i / 64}, at position {@code i % 64}
+ * (i.e. the layout of {@link BitSet#toLongArray()}); the unused bits of the
+ * last word are always 0.  Unlike {@link BinaryChromosome}, whose genes are
+ * boxed in a list, the crossover and mutation policies for this class
+ * ({@link BitStringNPointCrossover}, {@link BitStringUniformCrossover} and
+ * {@link BitFlipMutation}) process whole words at once.
+ *
+ * @since 4.0
+ */
+public abstract class BitStringChromosome extends Chromosome {
+    /** Number of bits in a word. */
+    private static final int WORD_SIZE = Long.SIZE;
+
+    /** Bits. */
+    private final long[] words;
+
+    /** Number of bits. */
+    private final int length;
+
+    /**
+     * Constructor, copying the input representation.
+     * @param words bits of the chromosome
+     * @param length number of bits
+     * @throws NotPositiveException if {@code length < 0}
+     * @throws InvalidRepresentationException if the number of words does not
+     * match the length, or if a bit is set beyond the length
+     */
+    public BitStringChromosome(final long[] words, final int length) {
+        this(words, length, true);
+    }
+
+    /**
+     * Constructor, copying the input representation.
+     * @param bits bits of the chromosome
+     * @param length number of bits
+     * @throws NotPositiveException if {@code length < 0}
+     * @throws InvalidRepresentationException if a bit is set beyond the length
+     */
+    public BitStringChromosome(final BitSet bits, final int length) {
+        this(toWords(bits, length), length, false);
+    }
+
+    /**
+     * Constructor.
+     * @param words bits of the chromosome
+     * @param length number of bits
+     * @param copyArray if {@code true}, the words will be copied, otherwise they will be referenced
+     * (and must not be modified anymore)
+     * @throws NotPositiveException if {@code length < 0}
+     * @throws InvalidRepresentationException if the number of words does not
+     * match the length, or if a bit is set beyond the length
+     */
+    protected BitStringChromosome(final long[] words, final int length, final boolean copyArray) {
+        if (length < 0) {
+            throw new NotPositiveException(length);
+        }
+        final int numWords = numberOfWords(length);
+        if (words.length != numWords) {
+            throw new InvalidRepresentationException(LocalizedFormats.DIMENSIONS_MISMATCH_SIMPLE,
+                                                     words.length, numWords);
+        }
+        if (length % WORD_SIZE != 0 &&
+            (words[numWords - 1] & (-1L << length)) != 0) {
+            final int extra = (numWords - 1) * WORD_SIZE +
+                WORD_SIZE - 1 - Long.numberOfLeadingZeros(words[numWords - 1]);
+            throw new InvalidRepresentationException(LocalizedFormats.OUT_OF_RANGE_SIMPLE,
+                                                     extra, 0, length - 1);
+        }
+        this.words = copyArray ? words.clone() : words;
+        this.length = length;
+    }
+
+    /**
+     * Returns the length of the chromosome.
+     * @return the number of bits
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Returns the value of a bit.
+     * @param index index of the bit
+     * @return {@code true} if the bit is set
+     * @throws IndexOutOfBoundsException if {@code index} is not in {@code [0, length)}
+     */
+    public boolean getBit(final int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException(Integer.toString(index));
+        }
+        return (words[index / WORD_SIZE] & (1L << index)) != 0;
+    }
+
+    /**
+     * Returns the number of bits that are set.
+     * @return the number of 1s in the chromosome
+     */
+    public int cardinality() {
+        int count = 0;
+        for (final long w : words) {
+            count += Long.bitCount(w);
+        }
+        return count;
+    }
+
+    /**
+     * Returns a copy of the bits.
+     * @return the bits of the chromosome
+     */
+    public BitSet toBitSet() {
+        return BitSet.valueOf(words);
+    }
+
+    /**
+     * Returns the (immutable) inner representation of the chromosome;
+     * the array must not be modified.
+     * @return the words of the chromosome
+     */
+    protected long[] getWords() {
+        return words;
+    }
+
+    /**
+     * Creates a new instance of the same class as {@code this} is, with the
+     * given bits. This is needed in crossover and mutation operators.
+     * <p>
+     * The array is created by the caller for the new instance, which should
+     * therefore refer to it without copying it (see
+     * {@link #BitStringChromosome(long[], int, boolean)}).
+     *
+     * @param newWords the bits of the new chromosome (same length as {@code this})
+     * @return new instance extended from BitStringChromosome with the given bits
+     */
+    public abstract BitStringChromosome newBitStringChromosome(long[] newWords);
+
+    /**
+     * Returns a random string of bits.
+     * @param length number of bits
+     * @return random words that can be passed to the constructor, along with
+     * {@code length}
+     * @throws NotPositiveException if {@code length < 0}
+     */
+    public static long[] randomWords(final int length) {
+        if (length < 0) {
+            throw new NotPositiveException(length);
+        }
+        final long[] w = new long[numberOfWords(length)];
+        BernoulliSampling.fillMask(w, length, 0.5, GeneticAlgorithm.getRandomGenerator());
+        return w;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected boolean isSame(final Chromosome another) {
+        if (!(another instanceof BitStringChromosome)) {
+            return false;
+        }
+        final BitStringChromosome other = (BitStringChromosome) another;
+        return length == other.length &&
+            Arrays.equals(words, other.words);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append((words[i / WORD_SIZE] & (1L << i)) != 0 ? '1' : '0');
+        }
+        return String.format("(f=%s %s)", getFitness(), sb);
+    }
+
+    /**
+     * Computes the number of words needed for storing the given number of bits.
+     * @param length number of bits
+     * @return the number of words
+     */
+    static int numberOfWords(final int length) {
+        return (int) (((long) length + WORD_SIZE - 1) / WORD_SIZE);
+    }
+
+    /**
+     * Converts a bit set.
+     * @param bits bits
+     * @param length number of bits
+     * @return the words
+     * @throws NotPositiveException if {@code length < 0}
+     * @throws InvalidRepresentationException if a bit is set beyond the length
+     */
+    private static long[] toWords(final BitSet bits, final int length) {
+        if (length < 0) {
+            throw new NotPositiveException(length);
+        }
+        if (bits.length() > length) {
+            throw new InvalidRepresentationException(LocalizedFormats.OUT_OF_RANGE_SIMPLE,
+                                                     bits.length() - 1, 0, length - 1);
+        }
+        return Arrays.copyOf(bits.toLongArray(), numberOfWords(length));
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.genetics;
+
+import org.apache.commons.math4.legacy.exception.DimensionMismatchException;
+import org.apache.commons.math4.legacy.exception.MathIllegalArgumentException;
+import org.apache.commons.math4.legacy.exception.NotStrictlyPositiveException;
+import org.apache.commons.math4.legacy.exception.NumberIsTooLargeException;
+import org.apache.commons.math4.legacy.exception.util.LocalizedFormats;
+import org.apache.commons.rng.UniformRandomProvider;
+
+/**
+ * N-point crossover policy for {@link BitStringChromosome}s.
+ * The crossover points are drawn as in {@link NPointCrossover}, and the
+ * segments are exchanged a word at a time.
+ *
+ * @since 4.0
+ */
+public class BitStringNPointCrossover implements CrossoverPolicy {
+    /** Number of bits in a word. */
+    private static final int WORD_SIZE = Long.SIZE;
+
+    /** The number of crossover points. */
+    private final int crossoverPoints;
+
+    /**
+     * Creates a new policy using the given number of points.
+     * <p>
+     * <b>Note</b>: the number of crossover points must be &lt; <code>chromosome length</code>.
+     * This condition can only be checked at runtime, as the chromosome length is not known in advance.
+     *
+     * @param crossoverPoints the number of crossover points
+     * @throws NotStrictlyPositiveException if the number of {@code crossoverPoints} is not strictly positive
+     */
+    public BitStringNPointCrossover(final int crossoverPoints) {
+        if (crossoverPoints <= 0) {
+            throw new NotStrictlyPositiveException(crossoverPoints);
+        }
+        this.crossoverPoints = crossoverPoints;
+    }
+
+    /**
+     * Returns the number of crossover points used by this {@link CrossoverPolicy}.
+     *
+     * @return the number of crossover points
+     */
+    public int getCrossoverPoints() {
+        return crossoverPoints;
+    }
+
+    /**
+     * Performs a N-point crossover. N random crossover points are selected and are used
+     * to divide the parent chromosomes into segments. The segments are copied in alternate
+     * order from the two parents to the corresponding child chromosomes.
+     *
+     * @param first first parent
+     * @param second second parent
+     * @return pair of two children
+     * @throws MathIllegalArgumentException iff one of the chromosomes is
+     *   not an instance of {@link BitStringChromosome}
+     * @throws DimensionMismatchException if the length of the two chromosomes is different
+     * @throws NumberIsTooLargeException if the number of crossover points is too large for the chromosomes
+     */
+    @Override
+    public ChromosomePair crossover(final Chromosome first, final Chromosome second) {
+        if (!(first instanceof BitStringChromosome && second instanceof BitStringChromosome)) {
+            throw new MathIllegalArgumentException(LocalizedFormats.INVALID_CHROMOSOME_TYPE,
+                                                   getClass().getSimpleName(),
+                                                   BitStringChromosome.class.getSimpleName());
+        }
+        final BitStringChromosome p1 = (BitStringChromosome) first;
+        final BitStringChromosome p2 = (BitStringChromosome) second;
+        final int length = p1.getLength();
+        if (length != p2.getLength()) {
+            throw new DimensionMismatchException(p2.getLength(), length);
+        }
+        if (crossoverPoints >= length) {
+            throw new NumberIsTooLargeException(crossoverPoints, length, false);
+        }
+
+        final long[] c1 = p1.getWords().clone();
+        final long[] c2 = p2.getWords().clone();
+        final UniformRandomProvider random = GeneticAlgorithm.getRandomGenerator();
+
+        int remainingPoints = crossoverPoints;
+        int lastIndex = 0;
+        boolean swapped = false;
+        for (int i = 0; i < crossoverPoints; i++, remainingPoints--) {
+            // select the next crossover point at random
+            final int crossoverIndex = 1 + lastIndex + random.nextInt(length - lastIndex - remainingPoints);
+            if (swapped) {
+                swap(c1, c2, lastIndex, crossoverIndex);
+            }
+            swapped = !swapped;
+            lastIndex = crossoverIndex;
+        }
+        if (swapped) {
+            swap(c1, c2, lastIndex, length);
+        }
+
+        return new ChromosomePair(p1.newBitStringChromosome(c1),
+                                  p2.newBitStringChromosome(c2));
+    }
+
+    /**
+     * Exchanges a range of bits between two arrays.
+     *
+     * @param a First array.
+     * @param b Second array.
+     * @param from First bit (inclusive).
+     * @param to Last bit (exclusive).
+     */
+    static void swap(long[] a,
+                     long[] b,
+                     int from,
+                     int to) {
+        if (from >= to) {
+            return;
+        }
+        final int first = from / WORD_SIZE;
+        final int last = (to - 1) / WORD_SIZE;
+        final long firstMask = -1L << from;
+        final long lastMask = -1L >>> -to;
+        if (first == last) {
+            swap(a, b, first, firstMask & lastMask);
+        } else {
+            swap(a, b, first, firstMask);
+            for (int w = first + 1; w < last; w++) {
+                final long t = a[w];
+                a[w] = b[w];
+                b[w] = t;
+            }
+            swap(a, b, last, lastMask);
+        }
+    }
+
+    /**
+     * Exchanges the bits of a word selected by a mask.
+     *
+     * @param a First array.
+     * @param b Second array.
+     * @param w Index of the word.
+     * @param mask Bits to exchange.
+     */
+    static void swap(long[] a,
+                     long[] b,
+                     int w,
+                     long mask) {
+        final long diff = (a[w] ^ b[w]) & mask;
+        a[w] ^= diff;
+        b[w] ^= diff;
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.genetics;
+
+import org.apache.commons.math4.legacy.exception.DimensionMismatchException;
+import org.apache.commons.math4.legacy.exception.MathIllegalArgumentException;
+import org.apache.commons.math4.legacy.exception.OutOfRangeException;
+import org.apache.commons.math4.legacy.exception.util.LocalizedFormats;
+
+/**
+ * Uniform crossover policy for {@link BitStringChromosome}s: each bit is
+ * exchanged between the two children with probability {@code ratio}, as in
+ * {@link UniformCrossover}.
+ * <p>
+ * The bits to exchange are drawn into a mask, which is then applied a word
+ * at a time.  For {@code ratio = 0.5}, the mask consists of random words;
+ * otherwise, only the positions of the exchanged (or, if they are more
+ * numerous, of the kept) bits are drawn.
+ *
+ * @since 4.0
+ */
+public class BitStringUniformCrossover implements CrossoverPolicy {
+    /** The mixing ratio. */
+    private final double ratio;
+
+    /**
+     * Creates a new policy using the given mixing ratio.
+     *
+     * @param ratio the mixing ratio
+     * @throws OutOfRangeException if the mixing ratio is outside the [0, 1] range
+     */
+    public BitStringUniformCrossover(final double ratio) {
+        if (ratio < 0.0d || ratio > 1.0d) {
+            throw new OutOfRangeException(LocalizedFormats.CROSSOVER_RATE, ratio, 0.0d, 1.0d);
+        }
+        this.ratio = ratio;
+    }
+
+    /**
+     * Returns the mixing ratio used by this {@link CrossoverPolicy}.
+     *
+     * @return the mixing ratio
+     */
+    public double getRatio() {
+        return ratio;
+    }
+
+    /**
+     * Performs a uniform crossover.
+     *
+     * @param first first parent
+     * @param second second parent
+     * @return pair of two children
+     * @throws MathIllegalArgumentException iff one of the chromosomes is
+     *   not an instance of {@link BitStringChromosome}
+     * @throws DimensionMismatchException if the length of the two chromosomes is different
+     */
+    @Override
+    public ChromosomePair crossover(final Chromosome first, final Chromosome second) {
+        if (!(first instanceof BitStringChromosome && second instanceof BitStringChromosome)) {
+            throw new MathIllegalArgumentException(LocalizedFormats.INVALID_CHROMOSOME_TYPE,
+                                                   getClass().getSimpleName(),
+                                                   BitStringChromosome.class.getSimpleName());
+        }
+        final BitStringChromosome p1 = (BitStringChromosome) first;
+        final BitStringChromosome p2 = (BitStringChromosome) second;
+        final int length = p1.getLength();
+        if (length != p2.getLength()) {
+            throw new DimensionMismatchException(p2.getLength(), length);
+        }
+
+        final long[] c1 = p1.getWords().clone();
+        final long[] c2 = p2.getWords().clone();
+        final long[] mask = new long[c1.length];
+        BernoulliSampling.fillMask(mask, length, ratio, GeneticAlgorithm.getRandomGenerator());
+        for (int w = 0; w < mask.length; w++) {
+            BitStringNPointCrossover.swap(c1, c2, w, mask[w]);
+        }
+
+        return new ChromosomePair(p1.newBitStringChromosome(c1),
+                                  p2.newBitStringChromosome(c2));
+    }
+}
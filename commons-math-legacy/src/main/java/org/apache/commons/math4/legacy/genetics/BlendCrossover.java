@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.genetics;
+
+import org.apache.commons.math4.legacy.exception.DimensionMismatchException;
+import org.apache.commons.math4.legacy.exception.MathIllegalArgumentException;
+import org.apache.commons.math4.legacy.exception.NotPositiveException;
+import org.apache.commons.math4.legacy.exception.util.LocalizedFormats;
+import org.apache.commons.rng.UniformRandomProvider;
+
+/**
+ * Blend crossover (BLX-&alpha;) for {@link RealValuedChromosome}s.
+ * <p>
+ * For each gene, let {@code lo} and {@code hi} be the smallest and largest of
+ * the parents' values, and {@code d = hi - lo}; the genes of the two children
+ * are drawn independently and uniformly in
+ * {@code [lo - alpha * d, hi + alpha * d]}.
+ * With {@code alpha = 0}, the children lie in the box spanned by the parents.
+ *
+ * @since 4.0
+ */
+public class BlendCrossover implements CrossoverPolicy {
+    /** Extension of the interval spanned by the parents. */
+    private final double alpha;
+
+    /**
+     * @param alpha extension of the interval spanned by the parents, relative
+     * to its length (a common choice is 0.5)
+     * @throws NotPositiveException if {@code alpha < 0}
+     */
+    public BlendCrossover(final double alpha) {
+        if (!(alpha >= 0)) {
+            throw new NotPositiveException(alpha);
+        }
+        this.alpha = alpha;
+    }
+
+    /**
+     * Returns the extension of the interval spanned by the parents.
+     * @return alpha
+     */
+    public double getAlpha() {
+        return alpha;
+    }
+
+    /**
+     * Performs a blend crossover.
+     *
+     * @param first first parent
+     * @param second second parent
+     * @return pair of two children
+     * @throws MathIllegalArgumentException iff one of the chromosomes is
+     *   not an instance of {@link RealValuedChromosome}
+     * @throws DimensionMismatchException if the length of the two chromosomes is different
+     */
+    @Override
+    public ChromosomePair crossover(final Chromosome first, final Chromosome second) {
+        if (!(first instanceof RealValuedChromosome && second instanceof RealValuedChromosome)) {
+            throw new MathIllegalArgumentException(LocalizedFormats.INVALID_CHROMOSOME_TYPE,
+                                                   getClass().getSimpleName(),
+                                                   RealValuedChromosome.class.getSimpleName());
+        }
+        final RealValuedChromosome p1 = (RealValuedChromosome) first;
+        final RealValuedChromosome p2 = (RealValuedChromosome) second;
+        final int length = p1.getLength();
+        if (length != p2.getLength()) {
+            throw new DimensionMismatchException(p2.getLength(), length);
+        }
+
+        final double[] g1 = p1.getGenes();
+        final double[] g2 = p2.getGenes();
+        final double[] c1 = new double[length];
+        final double[] c2 = new double[length];
+        final UniformRandomProvider random = GeneticAlgorithm.getRandomGenerator();
+        final double width = 1 + 2 * alpha;
+        for (int i = 0; i < length; i++) {
+            final double lo = Math.min(g1[i], g2[i]);
+            final double d = Math.max(g1[i], g2[i]) - lo;
+            final double start = lo - alpha * d;
+            c1[i] = start + random.nextDouble() * width * d;
+            c2[i] = start + random.nextDouble() * width * d;
+        }
+
+        return new ChromosomePair(p1.newRealValuedChromosome(c1),
+                                  p2.newRealValuedChromosome(c2));
+    }
+}
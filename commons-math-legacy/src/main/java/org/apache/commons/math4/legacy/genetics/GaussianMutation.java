@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.genetics;
+
+import org.apache.commons.math4.core.jdkmath.JdkMath;
+import org.apache.commons.math4.legacy.exception.MathIllegalArgumentException;
+import org.apache.commons.math4.legacy.exception.NotStrictlyPositiveException;
+import org.apache.commons.math4.legacy.exception.OutOfRangeException;
+import org.apache.commons.math4.legacy.exception.util.LocalizedFormats;
+import org.apache.commons.rng.UniformRandomProvider;
+import org.apache.commons.rng.sampling.distribution.NormalizedGaussianSampler;
+import org.apache.commons.rng.sampling.distribution.ZigguratNormalizedGaussianSampler;
+
+/**
+ * Mutation for {@link RealValuedChromosome}s: each gene is perturbed,
+ * independently of the others and with a given probability, by adding
+ * a normally distributed value with zero mean.
+ * <p>
+ * Only the positions of the perturbed genes are drawn, so that the cost of
+ * a mutation is proportional to the expected number of perturbations (plus
+ * a copy of the genes).
+ *
+ * @since 4.0
+ */
+public class GaussianMutation implements MutationPolicy {
+    /** Standard deviation of the perturbation. */
+    private final double sigma;
+    /** Probability of perturbing a gene. */
+    private final double geneMutationRate;
+
+    /**
+     * @param sigma standard deviation of the perturbation
+     * @param geneMutationRate probability that a given gene is perturbed
+     * @throws NotStrictlyPositiveException if {@code sigma <= 0}
+     * @throws OutOfRangeException if the rate is outside the [0, 1] range
+     */
+    public GaussianMutation(final double sigma,
+                            final double geneMutationRate) {
+        if (!(sigma > 0)) {
+            throw new NotStrictlyPositiveException(sigma);
+        }
+        if (geneMutationRate < 0 || geneMutationRate > 1) {
+            throw new OutOfRangeException(LocalizedFormats.MUTATION_RATE, geneMutationRate, 0, 1);
+        }
+        this.sigma = sigma;
+        this.geneMutationRate = geneMutationRate;
+    }
+
+    /**
+     * Returns the standard deviation of the perturbation.
+     * @return sigma
+     */
+    public double getSigma() {
+        return sigma;
+    }
+
+    /**
+     * Returns the probability of perturbing a gene.
+     * @return the gene mutation rate
+     */
+    public double getGeneMutationRate() {
+        return geneMutationRate;
+    }
+
+    /**
+     * Mutate the given chromosome.
+     *
+     * @param original the original chromosome.
+     * @return the mutated chromosome.
+     * @throws MathIllegalArgumentException if <code>original</code> is not an instance of
+     * {@link RealValuedChromosome}.
+     */
+    @Override
+    public Chromosome mutate(final Chromosome original) {
+        if (!(original instanceof RealValuedChromosome)) {
+            throw new MathIllegalArgumentException(LocalizedFormats.INVALID_CHROMOSOME_TYPE,
+                                                   getClass().getSimpleName(),
+                                                   RealValuedChromosome.class.getSimpleName());
+        }
+        final RealValuedChromosome chromosome = (RealValuedChromosome) original;
+        final double[] genes = chromosome.getGenes().clone();
+        if (geneMutationRate > 0) {
+            final UniformRandomProvider random = GeneticAlgorithm.getRandomGenerator();
+            final NormalizedGaussianSampler gauss = new ZigguratNormalizedGaussianSampler(random);
+            final double log1mp = JdkMath.log1p(-geneMutationRate);
+            for (int i = BernoulliSampling.nextSuccess(0, log1mp, random);
+                 i < genes.length;
+                 i = BernoulliSampling.nextSuccess(i + 1, log1mp, random)) {
+                genes[i] += sigma * gauss.sample();
+            }
+        }
+        return chromosome.newRealValuedChromosome(genes);
+    }
+}
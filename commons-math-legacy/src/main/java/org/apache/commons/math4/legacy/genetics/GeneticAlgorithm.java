@@ -16,14 +16,29 @@
  */
 package org.apache.commons.math4.legacy.genetics;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+
 import org.apache.commons.math4.legacy.exception.OutOfRangeException;
 import org.apache.commons.math4.legacy.exception.util.LocalizedFormats;
+import org.apache.commons.math4.legacy.util.ConcurrentTasks;
 import org.apache.commons.rng.simple.RandomSource;
 import org.apache.commons.rng.UniformRandomProvider;
 
 /**
  * Implementation of a genetic algorithm. All factors that govern the operation
  * of the algorithm can be configured for a specific problem.
+ * <p>
+ * When an {@link ExecutorService} is supplied, the fitness of the chromosomes
+ * created for each generation is computed concurrently.  The offspring are still
+ * bred in the calling thread (hence in the same order as in the sequential mode),
+ * and every fitness evaluation gets its own generator, seeded from the
+ * {@link #getRandomGenerator() shared one}: the evolution thus does not depend on
+ * the number of threads.
  *
  * @since 2.0
  */
@@ -37,6 +52,9 @@ public class GeneticAlgorithm {
     //@GuardedBy("this")
     private static UniformRandomProvider randomGenerator = RandomSource.WELL_19937_C.create();
 
+    /** Generator bound to the current thread while it computes a fitness. */
+    private static final ThreadLocal<UniformRandomProvider> TASK_GENERATOR = new ThreadLocal<>();
+
     /** the crossover policy used by the algorithm. */
     private final CrossoverPolicy crossoverPolicy;
 
@@ -52,6 +70,9 @@ public class GeneticAlgorithm {
     /** the selection policy used by the algorithm. */
     private final SelectionPolicy selectionPolicy;
 
+    /** Executor used for computing the fitness ({@code null} for the calling thread). */
+    private final ExecutorService executor;
+
     /** the number of generations evolved to reach {@link StoppingCondition} in the last run. */
     private int generationsEvolved;
 
@@ -69,6 +90,28 @@ public class GeneticAlgorithm {
                             final MutationPolicy mutationPolicy,
                             final double mutationRate,
                             final SelectionPolicy selectionPolicy) throws OutOfRangeException {
+        this(crossoverPolicy, crossoverRate, mutationPolicy, mutationRate, selectionPolicy, null);
+    }
+
+    /**
+     * Create a new genetic algorithm that computes the fitness of the
+     * chromosomes of each new generation concurrently.
+     * @param crossoverPolicy The {@link CrossoverPolicy}
+     * @param crossoverRate The crossover rate as a percentage (0-1 inclusive)
+     * @param mutationPolicy The {@link MutationPolicy}
+     * @param mutationRate The mutation rate as a percentage (0-1 inclusive)
+     * @param selectionPolicy The {@link SelectionPolicy}
+     * @param executor Executor ({@code null} for computing the fitness lazily,
+     * in the calling thread)
+     * @throws OutOfRangeException if the crossover or mutation rate is outside the [0, 1] range
+     * @since 4.0
+     */
+    public GeneticAlgorithm(final CrossoverPolicy crossoverPolicy,
+                            final double crossoverRate,
+                            final MutationPolicy mutationPolicy,
+                            final double mutationRate,
+                            final SelectionPolicy selectionPolicy,
+                            final ExecutorService executor) throws OutOfRangeException {
 
         if (crossoverRate < 0 || crossoverRate > 1) {
             throw new OutOfRangeException(LocalizedFormats.CROSSOVER_RATE,
@@ -83,6 +126,7 @@ public class GeneticAlgorithm {
         this.mutationPolicy = mutationPolicy;
         this.mutationRate = mutationRate;
         this.selectionPolicy = selectionPolicy;
+        this.executor = executor;
     }
 
     /**
@@ -96,10 +140,21 @@ public class GeneticAlgorithm {
 
     /**
      * Returns the (static) random generator.
+     * <p>
+     * While a fitness is computed by a task of the concurrent mode, this method
+     * returns, in the thread running the task, the generator dedicated to that task.
      *
      * @return the static random generator shared by GA implementation classes
      */
-    public static synchronized UniformRandomProvider getRandomGenerator() {
+    public static UniformRandomProvider getRandomGenerator() {
+        final UniformRandomProvider local = TASK_GENERATOR.get();
+        return local != null ? local : getSharedRandomGenerator();
+    }
+
+    /**
+     * @return the static random generator.
+     */
+    private static synchronized UniformRandomProvider getSharedRandomGenerator() {
         return randomGenerator;
     }
 
@@ -116,6 +171,9 @@ public class GeneticAlgorithm {
     public Population evolve(final Population initial, final StoppingCondition condition) {
         Population current = initial;
         generationsEvolved = 0;
+        if (executor != null) {
+            computeFitness(current, executor);
+        }
         while (!condition.isSatisfied(current)) {
             current = nextGeneration(current);
             generationsEvolved++;
@@ -138,6 +196,8 @@ public class GeneticAlgorithm {
      *      <li>Add offspring individually to nextGeneration,
      *          space permitting</li>
      *  </ul></li>
+     *  <li>If an executor was supplied, compute the fitness of all the
+     *      chromosomes of nextGeneration concurrently</li>
      *  <li>Return nextGeneration</li>
      * </ol>
      *
@@ -150,22 +210,7 @@ public class GeneticAlgorithm {
         UniformRandomProvider randGen = getRandomGenerator();
 
         while (nextGeneration.getPopulationSize() < nextGeneration.getPopulationLimit()) {
-            // select parent chromosomes
-            ChromosomePair pair = getSelectionPolicy().select(current);
-
-            // crossover?
-            if (randGen.nextDouble() < getCrossoverRate()) {
-                // apply crossover policy to create two offspring
-                pair = getCrossoverPolicy().crossover(pair.getFirst(), pair.getSecond());
-            }
-
-            // mutation?
-            if (randGen.nextDouble() < getMutationRate()) {
-                // apply mutation policy to the chromosomes
-                pair = new ChromosomePair(
-                    getMutationPolicy().mutate(pair.getFirst()),
-                    getMutationPolicy().mutate(pair.getSecond()));
-            }
+            final ChromosomePair pair = breed(current, randGen);
 
             // add the first chromosome to the population
             nextGeneration.addChromosome(pair.getFirst());
@@ -176,9 +221,91 @@ public class GeneticAlgorithm {
             }
         }
 
+        if (executor != null) {
+            computeFitness(nextGeneration, executor);
+        }
+
         return nextGeneration;
     }
 
+    /**
+     * Creates two offspring: selects a pair of parents from {@code current},
+     * and applies the crossover and mutation policies with their respective
+     * probabilities.
+     *
+     * @param current Population from which the parents are selected.
+     * @param randGen Generator that decides whether to apply the policies.
+     * @return the offspring.
+     */
+    ChromosomePair breed(final Population current,
+                         final UniformRandomProvider randGen) {
+        // select parent chromosomes
+        ChromosomePair pair = getSelectionPolicy().select(current);
+
+        // crossover?
+        if (randGen.nextDouble() < getCrossoverRate()) {
+            // apply crossover policy to create two offspring
+            pair = getCrossoverPolicy().crossover(pair.getFirst(), pair.getSecond());
+        }
+
+        // mutation?
+        if (randGen.nextDouble() < getMutationRate()) {
+            // apply mutation policy to the chromosomes
+            pair = new ChromosomePair(
+                getMutationPolicy().mutate(pair.getFirst()),
+                getMutationPolicy().mutate(pair.getSecond()));
+        }
+
+        return pair;
+    }
+
+    /**
+     * Computes the fitness of all the chromosomes of a population.
+     * The seeds of the generators used by the tasks are drawn, in the
+     * calling thread, from the shared generator.
+     *
+     * @param population Population.
+     * @param exec Executor.
+     */
+    static void computeFitness(final Population population,
+                               final ExecutorService exec) {
+        // A chromosome can appear several times in a population (e.g. when
+        // it was neither recombined nor mutated): its fitness is computed once.
+        final Set<Chromosome> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        final List<Chromosome> chromosomes = new ArrayList<>();
+        for (final Chromosome c : population) {
+            if (seen.add(c)) {
+                chromosomes.add(c);
+            }
+        }
+
+        final UniformRandomProvider rng = getRandomGenerator();
+        final long[] seeds = new long[chromosomes.size()];
+        for (int i = 0; i < seeds.length; i++) {
+            seeds[i] = rng.nextLong();
+        }
+
+        ConcurrentTasks.run(exec, seeds.length,
+                            i -> computeFitness(chromosomes.get(i), seeds[i]));
+    }
+
+    /**
+     * Computes the fitness of a chromosome with a dedicated generator
+     * bound to the current thread.
+     *
+     * @param chromosome Chromosome.
+     * @param seed Seed of the generator used during the computation.
+     */
+    static void computeFitness(final Chromosome chromosome,
+                               final long seed) {
+        TASK_GENERATOR.set(RandomSource.XO_RO_SHI_RO_128_PP.create(seed));
+        try {
+            chromosome.getFitness();
+        } finally {
+            TASK_GENERATOR.remove();
+        }
+    }
+
     /**
      * Returns the crossover policy.
      * @return crossover policy
@@ -219,6 +346,14 @@ public class GeneticAlgorithm {
         return selectionPolicy;
     }
 
+    /**
+     * Returns the executor used for computing the fitness.
+     * @return the executor, or {@code null} if the fitness is computed in the calling thread
+     */
+    ExecutorService getExecutor() {
+        return executor;
+    }
+
     /**
      * Returns the number of generations evolved to reach {@link StoppingCondition} in the last run.
      *
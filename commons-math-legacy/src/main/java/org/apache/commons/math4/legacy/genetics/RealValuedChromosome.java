@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.genetics;
+
+import java.util.Arrays;
+
+import org.apache.commons.math4.legacy.exception.NotFiniteNumberException;
+import org.apache.commons.math4.legacy.exception.NotPositiveException;
+import org.apache.commons.math4.legacy.exception.NumberIsTooLargeException;
+import org.apache.commons.rng.UniformRandomProvider;
+
+/**
+ * Real-coded chromosome, whose genes are stored in a {@code double[]}.
+ * <p>
+ * The genes must be finite.  The crossover and mutation policies for this
+ * class ({@link BlendCrossover} and {@link GaussianMutation}) operate on the
+ * arrays directly.
+ *
+ * @since 4.0
+ */
+public abstract class RealValuedChromosome extends Chromosome {
+    /** Genes. */
+    private final double[] genes;
+
+    /**
+     * Constructor, copying the input representation.
+     * @param genes genes of the chromosome
+     * @throws NotFiniteNumberException if one of the genes is not finite
+     */
+    public RealValuedChromosome(final double[] genes) {
+        this(genes, true);
+    }
+
+    /**
+     * Constructor.
+     * @param genes genes of the chromosome
+     * @param copyArray if {@code true}, the genes will be copied, otherwise they will be referenced
+     * (and must not be modified anymore)
+     * @throws NotFiniteNumberException if one of the genes is not finite
+     */
+    protected RealValuedChromosome(final double[] genes, final boolean copyArray) {
+        for (final double g : genes) {
+            if (!Double.isFinite(g)) {
+                throw new NotFiniteNumberException(g);
+            }
+        }
+        this.genes = copyArray ? genes.clone() : genes;
+    }
+
+    /**
+     * Returns the length of the chromosome.
+     * @return the number of genes
+     */
+    public int getLength() {
+        return genes.length;
+    }
+
+    /**
+     * Returns a gene.
+     * @param index index of the gene
+     * @return the value of the gene
+     * @throws ArrayIndexOutOfBoundsException if {@code index} is not in {@code [0, length)}
+     */
+    public double getGene(final int index) {
+        return genes[index];
+    }
+
+    /**
+     * Returns a copy of the genes.
+     * @return the genes of the chromosome
+     */
+    public double[] toArray() {
+        return genes.clone();
+    }
+
+    /**
+     * Returns the (immutable) inner representation of the chromosome;
+     * the array must not be modified.
+     * @return the genes of the chromosome
+     */
+    protected double[] getGenes() {
+        return genes;
+    }
+
+    /**
+     * Creates a new instance of the same class as {@code this} is, with the
+     * given genes. This is needed in crossover and mutation operators.
+     * <p>
+     * The array is created by the caller for the new instance, which should
+     * therefore refer to it without copying it (see
+     * {@link #RealValuedChromosome(double[], boolean)}).
+     *
+     * @param newGenes the genes of the new chromosome (same length as {@code this})
+     * @return new instance extended from RealValuedChromosome with the given genes
+     */
+    public abstract RealValuedChromosome newRealValuedChromosome(double[] newGenes);
+
+    /**
+     * Returns genes drawn uniformly in a box.
+     * @param length number of genes
+     * @param lower lower bound of the genes
+     * @param upper upper bound of the genes
+     * @return random genes
+     * @throws NotPositiveException if {@code length < 0}
+     * @throws NumberIsTooLargeException if {@code lower > upper}
+     */
+    public static double[] randomGenes(final int length,
+                                       final double lower,
+                                       final double upper) {
+        if (length < 0) {
+            throw new NotPositiveException(length);
+        }
+        if (lower > upper) {
+            throw new NumberIsTooLargeException(lower, upper, true);
+        }
+        final UniformRandomProvider random = GeneticAlgorithm.getRandomGenerator();
+        final double[] g = new double[length];
+        for (int i = 0; i < length; i++) {
+            g[i] = lower + random.nextDouble() * (upper - lower);
+        }
+        return g;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected boolean isSame(final Chromosome another) {
+        return another instanceof RealValuedChromosome &&
+            Arrays.equals(genes, ((RealValuedChromosome) another).genes);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return String.format("(f=%s %s)", getFitness(), Arrays.toString(genes));
+    }
+}
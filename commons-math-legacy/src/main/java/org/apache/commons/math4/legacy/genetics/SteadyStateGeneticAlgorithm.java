@@ -0,0 +1,206 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.genetics;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.apache.commons.math4.legacy.exception.MathIllegalStateException;
+import org.apache.commons.math4.legacy.exception.MathUnsupportedOperationException;
+import org.apache.commons.math4.legacy.exception.NotStrictlyPositiveException;
+import org.apache.commons.math4.legacy.exception.OutOfRangeException;
+import org.apache.commons.math4.legacy.exception.util.LocalizedFormats;
+import org.apache.commons.rng.UniformRandomProvider;
+
+/**
+ * Steady-state genetic algorithm, whose fitness evaluations are asynchronous.
+ * <p>
+ * Instead of replacing the whole population at each generation, the algorithm
+ * keeps a fixed number of offspring under evaluation.  As soon as the fitness
+ * of one of them is known, the offspring replaces the worst chromosome of the
+ * population (if it is better), and a new offspring is bred from the updated
+ * population.  When the time needed to compute the fitness varies widely from
+ * one chromosome to another, the threads of the executor thus never wait for
+ * the slowest evaluation of a generation.
+ * <p>
+ * The population is updated in-place; the {@link StoppingCondition} is checked
+ * after each replacement, which counts as one generation (e.g. for
+ * {@link FixedGenerationCount}).
+ * <p>
+ * Since the offspring are inserted in the order in which their evaluation
+ * completes, the evolution is reproducible only if no executor is used.
+ *
+ * @since 4.0
+ */
+public class SteadyStateGeneticAlgorithm extends GeneticAlgorithm {
+    /** Maximum number of offspring under evaluation. */
+    private final int maxPending;
+    /** Number of offspring inserted in the last run. */
+    private int generationsEvolved;
+
+    /**
+     * Create a new steady-state genetic algorithm.
+     * @param crossoverPolicy The {@link CrossoverPolicy}
+     * @param crossoverRate The crossover rate as a percentage (0-1 inclusive)
+     * @param mutationPolicy The {@link MutationPolicy}
+     * @param mutationRate The mutation rate as a percentage (0-1 inclusive)
+     * @param selectionPolicy The {@link SelectionPolicy}
+     * @param executor Executor ({@code null} for computing the fitness in the
+     * calling thread)
+     * @param maxPending Maximum number of offspring under evaluation (should
+     * be at least the number of threads of the executor)
+     * @throws OutOfRangeException if the crossover or mutation rate is outside the [0, 1] range
+     * @throws NotStrictlyPositiveException if {@code maxPending <= 0}
+     */
+    public SteadyStateGeneticAlgorithm(final CrossoverPolicy crossoverPolicy,
+                                       final double crossoverRate,
+                                       final MutationPolicy mutationPolicy,
+                                       final double mutationRate,
+                                       final SelectionPolicy selectionPolicy,
+                                       final ExecutorService executor,
+                                       final int maxPending) {
+        super(crossoverPolicy, crossoverRate, mutationPolicy, mutationRate, selectionPolicy, executor);
+        if (maxPending <= 0) {
+            throw new NotStrictlyPositiveException(maxPending);
+        }
+        this.maxPending = maxPending;
+    }
+
+    /**
+     * Evolve the given population in-place. Evolution stops when the stopping
+     * condition is satisfied; the offspring whose evaluation is still pending
+     * are then discarded.
+     *
+     * @param initial the initial, seed population (must be a non-empty
+     * {@link ListPopulation}).
+     * @param condition the stopping condition used to stop evolution.
+     * @return {@code initial}, updated.
+     * @throws MathUnsupportedOperationException if {@code initial} is not a
+     * {@link ListPopulation}.
+     * @throws MathIllegalStateException if the calling thread is interrupted
+     * while waiting for an evaluation.
+     */
+    @Override
+    public Population evolve(final Population initial, final StoppingCondition condition) {
+        if (!(initial instanceof ListPopulation)) {
+            throw new MathUnsupportedOperationException();
+        }
+        final List<Chromosome> chromosomes = ((ListPopulation) initial).getChromosomeList();
+        generationsEvolved = 0;
+
+        final ExecutorService executor = getExecutor();
+        computeFitness(initial, executor);
+
+        final Executor exec = executor == null ? Runnable::run : executor;
+        final CompletionService<Chromosome> service = new ExecutorCompletionService<>(exec);
+        final Set<Future<Chromosome>> pending = Collections.newSetFromMap(new IdentityHashMap<>());
+        // Second offspring of the last breeding, not submitted yet.
+        final Deque<Chromosome> bred = new ArrayDeque<>(2);
+        final UniformRandomProvider randGen = getRandomGenerator();
+
+        try {
+            while (!condition.isSatisfied(initial)) {
+                while (pending.size() < maxPending) {
+                    if (bred.isEmpty()) {
+                        final ChromosomePair pair = breed(initial, randGen);
+                        bred.add(pair.getFirst());
+                        bred.add(pair.getSecond());
+                    }
+                    final Chromosome offspring = bred.poll();
+                    final long seed = randGen.nextLong();
+                    pending.add(service.submit(() -> {
+                                computeFitness(offspring, seed);
+                                return offspring;
+                            }));
+                }
+
+                final Future<Chromosome> done = service.take();
+                pending.remove(done);
+                replaceWorst(chromosomes, done.get());
+                ++generationsEvolved;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MathIllegalStateException(e, LocalizedFormats.INTERRUPTED);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            // Cannot happen: the tasks do not throw checked exceptions.
+            throw new MathIllegalStateException(cause, LocalizedFormats.SIMPLE_MESSAGE, cause);
+        } finally {
+            for (final Future<Chromosome> f : pending) {
+                f.cancel(true);
+            }
+        }
+
+        return initial;
+    }
+
+    /**
+     * Returns the number of offspring inserted in the population during
+     * the last run.
+     *
+     * @return number of offspring inserted
+     */
+    @Override
+    public int getGenerationsEvolved() {
+        return generationsEvolved;
+    }
+
+    /**
+     * Returns the maximum number of offspring under evaluation.
+     * @return the maximum number of pending evaluations
+     */
+    public int getMaxPending() {
+        return maxPending;
+    }
+
+    /**
+     * Replaces the worst chromosome of the population by the given one,
+     * unless the latter is not better.
+     *
+     * @param chromosomes Chromosomes of the population.
+     * @param offspring Evaluated offspring.
+     */
+    private static void replaceWorst(final List<Chromosome> chromosomes,
+                                     final Chromosome offspring) {
+        int worst = 0;
+        for (int i = 1; i < chromosomes.size(); i++) {
+            if (chromosomes.get(i).compareTo(chromosomes.get(worst)) < 0) {
+                worst = i;
+            }
+        }
+        if (offspring.compareTo(chromosomes.get(worst)) > 0) {
+            chromosomes.set(worst, offspring);
+        }
+    }
+}
@@ -18,17 +18,14 @@ package org.apache.commons.math4.legacy.ml.clustering;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.ExecutorService;
 
 import org.apache.commons.math4.legacy.exception.NullArgumentException;
 import org.apache.commons.math4.legacy.exception.NotPositiveException;
 import org.apache.commons.math4.legacy.ml.distance.DistanceMeasure;
 import org.apache.commons.math4.legacy.ml.distance.EuclideanDistance;
+import org.apache.commons.math4.legacy.util.ConcurrentTasks;
 
 /**
  * DBSCAN (density-based spatial clustering of applications with noise) algorithm.
@@ -48,6 +45,17 @@ import org.apache.commons.math4.legacy.ml.distance.EuclideanDistance;
  *   <li>eps: the distance that defines the &epsilon;-neighborhood of a point
  *   <li>minPoints: the minimum number of density-connected points required to form a cluster
  * </ul>
+ * <p>
+ * With the {@link EuclideanDistance euclidean}, {@link
+ * org.apache.commons.math4.legacy.ml.distance.ManhattanDistance Manhattan} and {@link
+ * org.apache.commons.math4.legacy.ml.distance.ChebyshevDistance Chebyshev} distances,
+ * the neighborhoods are found with a k-d tree, hence in O(log n) expected time for
+ * low-dimensional data; with other distances, all the points are scanned.
+ * If an {@link ExecutorService} is passed to the constructor, the neighborhoods of
+ * all the points are computed beforehand, in parallel (this requires storing them).
+ * <p>
+ * Every element of the input collection is a separate point: duplicates are
+ * assigned to the same cluster (or are all considered as noise).
  *
  * @param <T> type of the points to cluster
  * @see <a href="https://en.wikipedia.org/wiki/DBSCAN">DBSCAN (wikipedia)</a>
@@ -57,19 +65,26 @@ import org.apache.commons.math4.legacy.ml.distance.EuclideanDistance;
  */
 public class DBSCANClusterer<T extends Clusterable> extends Clusterer<T> {
 
+    /** Number of points whose neighborhoods are computed by a single task. */
+    private static final int TASK_SIZE = 1024;
+
+    /** Status of a point that has not yet been visited. */
+    private static final byte UNVISITED = 0;
+
+    /** Status of a point that is considered to be noise. */
+    private static final byte NOISE = 1;
+
+    /** Status of a point that is already part of a cluster. */
+    private static final byte PART_OF_CLUSTER = 2;
+
     /** Maximum radius of the neighborhood to be considered. */
     private final double              eps;
 
     /** Minimum number of points needed for a cluster. */
     private final int                 minPts;
 
-    /** Status of a point during the clustering process. */
-    private enum PointStatus {
-        /** The point has is considered to be noise. */
-        NOISE,
-        /** The point is already part of a cluster. */
-        PART_OF_CLUSTER
-    }
+    /** Executor for computing the neighborhoods (may be {@code null}). */
+    private final ExecutorService     executor;
 
     /**
      * Creates a new instance of a DBSCANClusterer.
@@ -93,6 +108,25 @@ public class DBSCANClusterer<T extends Clusterable> extends Clusterer<T> {
      * @throws NotPositiveException if {@code eps < 0.0} or {@code minPts < 0}
      */
     public DBSCANClusterer(final double eps, final int minPts, final DistanceMeasure measure) {
+        this(eps, minPts, measure, null);
+    }
+
+    /**
+     * Creates a new instance of a DBSCANClusterer.
+     *
+     * @param eps maximum radius of the neighborhood to be considered
+     * @param minPts minimum number of points needed for a cluster
+     * @param measure the distance measure to use
+     * @param executor executor used for computing the neighborhoods of all
+     * the points before forming the clusters ({@code null} for computing
+     * each neighborhood when needed, in the calling thread)
+     * @throws NotPositiveException if {@code eps < 0.0} or {@code minPts < 0}
+     * @since 4.0
+     */
+    public DBSCANClusterer(final double eps,
+                           final int minPts,
+                           final DistanceMeasure measure,
+                           final ExecutorService executor) {
         super(measure);
 
         if (eps < 0.0d) {
@@ -103,6 +137,7 @@ public class DBSCANClusterer<T extends Clusterable> extends Clusterer<T> {
         }
         this.eps = eps;
         this.minPts = minPts;
+        this.executor = executor;
     }
 
     /**
@@ -132,20 +167,32 @@ public class DBSCANClusterer<T extends Clusterable> extends Clusterer<T> {
         // sanity checks
         NullArgumentException.check(points);
 
+        final List<T> list = new ArrayList<>(points);
+        final int n = list.size();
+        final double[][] coordinates = new double[n][];
+        for (int i = 0; i < n; i++) {
+            coordinates[i] = list.get(i).getPoint();
+        }
+        final Neighborhoods neighborhoods = createNeighborhoods(coordinates);
+
         final List<Cluster<T>> clusters = new ArrayList<>();
-        final Map<Clusterable, PointStatus> visited = new HashMap<>();
+        final byte[] status = new byte[n];
+        // Index (plus one) of the cluster whose seeds contain a given point.
+        final int[] seeded = new int[n];
 
-        for (final T point : points) {
-            if (visited.get(point) != null) {
+        for (int i = 0; i < n; i++) {
+            if (status[i] != UNVISITED) {
                 continue;
             }
-            final List<T> neighbors = getNeighbors(point, points);
-            if (neighbors.size() >= minPts) {
+            final int[] neighbors = neighborhoods.get(i);
+            if (neighbors.length >= minPts) {
                 // DBSCAN does not care about center points
                 final Cluster<T> cluster = new Cluster<>();
-                clusters.add(expandCluster(cluster, point, neighbors, points, visited));
+                clusters.add(cluster);
+                expandCluster(cluster, clusters.size(), i, neighbors,
+                              list, neighborhoods, status, seeded);
             } else {
-                visited.put(point, PointStatus.NOISE);
+                status[i] = NOISE;
             }
         }
 
@@ -156,65 +203,123 @@ public class DBSCANClusterer<T extends Clusterable> extends Clusterer<T> {
      * Expands the cluster to include density-reachable items.
      *
      * @param cluster Cluster to expand
-     * @param point Point to add to cluster
-     * @param neighbors List of neighbors
+     * @param id Identifier of the cluster (strictly positive)
+     * @param point Index of the point to add to cluster
+     * @param neighbors Indices of the neighbors of the point
      * @param points the data set
-     * @param visited the set of already visited points
-     * @return the expanded cluster
+     * @param neighborhoods the neighborhoods of the points
+     * @param status status of the points
+     * @param seeded identifier of the last cluster whose seeds contained each point
      */
-    private Cluster<T> expandCluster(final Cluster<T> cluster,
-                                     final T point,
-                                     final List<T> neighbors,
-                                     final Collection<T> points,
-                                     final Map<Clusterable, PointStatus> visited) {
-        cluster.addPoint(point);
-        visited.put(point, PointStatus.PART_OF_CLUSTER);
-
-        List<T> seeds = new ArrayList<>(neighbors);
-        int index = 0;
-        while (index < seeds.size()) {
-            final T current = seeds.get(index);
-            PointStatus pStatus = visited.get(current);
+    private void expandCluster(final Cluster<T> cluster,
+                               final int id,
+                               final int point,
+                               final int[] neighbors,
+                               final List<T> points,
+                               final Neighborhoods neighborhoods,
+                               final byte[] status,
+                               final int[] seeded) {
+        cluster.addPoint(points.get(point));
+        status[point] = PART_OF_CLUSTER;
+        seeded[point] = id;
+
+        final IntList seeds = new IntList();
+        addSeeds(seeds, neighbors, id, seeded);
+        for (int index = 0; index < seeds.size(); index++) {
+            final int current = seeds.get(index);
+            final byte pStatus = status[current];
             // only check non-visited points
-            if (pStatus == null) {
-                final List<T> currentNeighbors = getNeighbors(current, points);
-                if (currentNeighbors.size() >= minPts) {
-                    seeds = merge(seeds, currentNeighbors);
+            if (pStatus == UNVISITED) {
+                final int[] currentNeighbors = neighborhoods.get(current);
+                if (currentNeighbors.length >= minPts) {
+                    addSeeds(seeds, currentNeighbors, id, seeded);
                 }
             }
 
-            if (pStatus != PointStatus.PART_OF_CLUSTER) {
-                visited.put(current, PointStatus.PART_OF_CLUSTER);
-                cluster.addPoint(current);
+            if (pStatus != PART_OF_CLUSTER) {
+                status[current] = PART_OF_CLUSTER;
+                cluster.addPoint(points.get(current));
             }
-
-            index++;
         }
-        return cluster;
     }
 
     /**
-     * Returns a list of density-reachable neighbors of a {@code point}.
+     * Appends the points that are not already in the seeds of a cluster.
      *
-     * @param point the point to look for
-     * @param points possible neighbors
-     * @return the List of neighbors
+     * @param seeds Seeds of the cluster.
+     * @param candidates Indices of the points to add.
+     * @param id Identifier of the cluster.
+     * @param seeded identifier of the last cluster whose seeds contained each point
      */
-    private List<T> getNeighbors(final T point, final Collection<T> points) {
-        return points.stream().filter(neighbor -> point != neighbor && distance(neighbor, point) <= eps)
-                              .collect(Collectors.toList());
+    private static void addSeeds(final IntList seeds,
+                                 final int[] candidates,
+                                 final int id,
+                                 final int[] seeded) {
+        for (final int c : candidates) {
+            if (seeded[c] != id) {
+                seeded[c] = id;
+                seeds.add(c);
+            }
+        }
     }
 
     /**
-     * Merges two lists together.
+     * Creates the neighborhood search structure.
      *
-     * @param one first list
-     * @param two second list
-     * @return merged lists
+     * @param coordinates Coordinates of the points.
+     * @return the neighborhoods of the points.
      */
-    private List<T> merge(final List<T> one, final List<T> two) {
-        final Set<T> oneSet = new HashSet<>(one);
-        two.stream().filter(item -> !oneSet.contains(item)).forEach(one::add);
-        return one;
+    private Neighborhoods createNeighborhoods(final double[][] coordinates) {
+        final DistanceMeasure measure = getDistanceMeasure();
+        final int n = coordinates.length;
+
+        boolean sameDimension = true;
+        for (int i = 1; i < n; i++) {
+            if (coordinates[i].length != coordinates[0].length) {
+                sameDimension = false;
+                break;
+            }
+        }
+
+        final Neighborhoods search;
+        if (sameDimension &&
+            KDTree.supports(measure)) {
+            final KDTree tree = new KDTree(coordinates, measure);
+            search = i -> tree.neighbors(i, eps);
+        } else {
+            search = i -> {
+                final IntList out = new IntList();
+                for (int j = 0; j < n; j++) {
+                    if (j != i &&
+                        measure.compute(coordinates[j], coordinates[i]) <= eps) {
+                        out.add(j);
+                    }
+                }
+                return out.toArray();
+            };
+        }
+
+        if (executor == null) {
+            return search;
+        }
+
+        final int[][] all = new int[n][];
+        ConcurrentTasks.runRanges(executor, n, TASK_SIZE, (from, to) -> {
+                for (int i = from; i < to; i++) {
+                    all[i] = search.get(i);
+                }
+            });
+        return i -> all[i];
+    }
+
+    /** Neighborhoods of the points. */
+    @FunctionalInterface
+    private interface Neighborhoods {
+        /**
+         * @param i Index of a point.
+         * @return the indices of the other points within distance {@code eps}
+         * of point {@code i}, in increasing order.
+         */
+        int[] get(int i);
     }
 }
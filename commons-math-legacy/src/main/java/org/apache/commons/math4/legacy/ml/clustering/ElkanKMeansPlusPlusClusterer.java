@@ -17,15 +17,14 @@
 
 package org.apache.commons.math4.legacy.ml.clustering;
 
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
-import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 import org.apache.commons.rng.UniformRandomProvider;
 import org.apache.commons.math4.legacy.exception.NumberIsTooSmallException;
 import org.apache.commons.math4.legacy.ml.distance.DistanceMeasure;
 import org.apache.commons.math4.legacy.stat.descriptive.moment.VectorialMean;
+import org.apache.commons.math4.legacy.util.ConcurrentTasks;
 
 /**
  * Implementation of k-means++ algorithm.
@@ -55,6 +54,12 @@ import org.apache.commons.math4.legacy.stat.descriptive.moment.VectorialMean;
  *  Society for Industrial and Applied Mathematics, 2007.
  * </blockquote>
  *
+ * <p>
+ * When an {@link ExecutorService} is provided, the points are processed
+ * by blocks in parallel (bounds update and assignment), and the new centers
+ * are computed in parallel (one task per cluster); the result is identical
+ * to that of the single-threaded computation.
+ *
  * @param <T> Type of the points to cluster.
  */
 public class ElkanKMeansPlusPlusClusterer<T extends Clusterable>
@@ -96,9 +101,30 @@ public class ElkanKMeansPlusPlusClusterer<T extends Clusterable>
         super(k, maxIterations, measure, random, emptyStrategy);
     }
 
+    /**
+     * @param k Clustering parameter.
+     * @param maxIterations Allowed number of iterations.
+     * @param measure Distance measure (must be thread-safe if
+     * {@code executor} is not {@code null}).
+     * @param random Random generator.
+     * @param emptyStrategy Strategy for handling empty clusters that
+     * may appear during algorithm progress.
+     * @param executor Executor ({@code null} for performing all the
+     * computations in the calling thread).
+     * @since 4.0
+     */
+    public ElkanKMeansPlusPlusClusterer(int k,
+                                        int maxIterations,
+                                        DistanceMeasure measure,
+                                        UniformRandomProvider random,
+                                        EmptyClusterStrategy emptyStrategy,
+                                        ExecutorService executor) {
+        super(k, maxIterations, measure, random, emptyStrategy, executor);
+    }
+
     /** {@inheritDoc} */
     @Override
-    public List<CentroidCluster<T>> cluster(final Collection<T> points) {
+    FlatClustering clusterPoints(final FlatPoints points) {
         final int k = getNumberOfClusters();
 
         // Number of clusters has to be smaller or equal the number of data points.
@@ -106,9 +132,8 @@ public class ElkanKMeansPlusPlusClusterer<T extends Clusterable>
             throw new NumberIsTooSmallException(points.size(), k, false);
         }
 
-        final List<T> pointsList = new ArrayList<>(points);
         final int n = points.size();
-        final int dim = pointsList.get(0).getPoint().length;
+        final int dim = points.getDimension();
 
         // Keep minimum intra cluster distance, e.g. for given cluster c s[c] is
         // the distance to the closest cluster c' or s[c] = 1/2 * min_{c'!=c} dist(c', c)
@@ -125,54 +150,66 @@ public class ElkanKMeansPlusPlusClusterer<T extends Clusterable>
         final double[][] l = new double[n][k];
 
         // Seed initial set of cluster centers.
-        final double[][] centers = seed(pointsList);
+        final double[][] centers = seed(points);
 
         // Points partitioning induced by cluster centers, e.g. for point xi the value of partitions[xi] indicates
         // the cluster or index of the cluster center which is closest to xi. partitions[xi] = min_{c} distance(xi, c).
-        final int[] partitions = partitionPoints(pointsList, centers, u, l);
+        final int[] partitions = partitionPoints(points, centers, u, l);
 
+        final ExecutorService executor = getExecutor();
         final double[] deltas = new double[k];
-        VectorialMean[] means = new VectorialMean[k];
+        final VectorialMean[] means = new VectorialMean[k];
+        // Number of reassignments, per block of points.
+        final int[] blockChanges = new int[(n + BLOCK_SIZE - 1) / BLOCK_SIZE];
         for (int it = 0, max = getMaxIterations();
              it < max;
              it++) {
-            int changes = 0;
             // Step I.
             // Compute inter-cluster distances.
             updateIntraCentersDistances(centers, dcc, s);
 
-            for (int xi = 0; xi < n; xi++) {
-                boolean r = true;
-
-                // Step II.
-                if (u[xi] <= s[partitions[xi]]) {
-                    continue;
-                }
+            // Points are independent from each other.
+            ConcurrentTasks.runRanges(executor, n, BLOCK_SIZE, (from, to) -> {
+                    final double[] x = new double[dim];
+                    int blockChange = 0;
+                    for (int xi = from; xi < to; xi++) {
+                        boolean r = true;
 
-                for (int c = 0; c < k; c++) {
-                    // Check condition III.
-                    if (isSkipNext(partitions, u, l, dcc, xi, c)) {
-                        continue;
-                    }
-
-                    final double[] x = pointsList.get(xi).getPoint();
+                        // Step II.
+                        if (u[xi] <= s[partitions[xi]]) {
+                            continue;
+                        }
 
-                    // III(a)
-                    if (r) {
-                        u[xi] = distance(x, centers[partitions[xi]]);
-                        l[xi][partitions[xi]] = u[xi];
-                        r = false;
-                    }
-                    // III(b)
-                    if (u[xi] > l[xi][c] || u[xi] > dcc[partitions[xi]][c]) {
-                        l[xi][c] = distance(x, centers[c]);
-                        if (l[xi][c] < u[xi]) {
-                            partitions[xi] = c;
-                            u[xi] = l[xi][c];
-                            ++changes;
+                        for (int c = 0; c < k; c++) {
+                            // Check condition III.
+                            if (isSkipNext(partitions, u, l, dcc, xi, c)) {
+                                continue;
+                            }
+
+                            // III(a)
+                            if (r) {
+                                points.copy(xi, x);
+                                u[xi] = distance(x, centers[partitions[xi]]);
+                                l[xi][partitions[xi]] = u[xi];
+                                r = false;
+                            }
+                            // III(b)
+                            if (u[xi] > l[xi][c] || u[xi] > dcc[partitions[xi]][c]) {
+                                l[xi][c] = distance(x, centers[c]);
+                                if (l[xi][c] < u[xi]) {
+                                    partitions[xi] = c;
+                                    u[xi] = l[xi][c];
+                                    ++blockChange;
+                                }
+                            }
                         }
                     }
-                }
+                    blockChanges[from / BLOCK_SIZE] = blockChange;
+                });
+
+            int changes = 0;
+            for (final int c : blockChanges) {
+                changes += c;
             }
 
             // Stopping criterion.
@@ -182,13 +219,20 @@ public class ElkanKMeansPlusPlusClusterer<T extends Clusterable>
             }
 
             // Step IV.
+            // Each mean accumulates the points of its cluster in increasing
+            // order of their index, whatever the executor.
+            final int[][] members = members(partitions);
             Arrays.fill(means, null);
-            for (int i = 0; i < n; i++) {
-                if (means[partitions[i]] == null) {
-                    means[partitions[i]] = new VectorialMean(dim);
-                }
-                means[partitions[i]].increment(pointsList.get(i).getPoint());
-            }
+            ConcurrentTasks.run(executor, k, c -> {
+                    if (members[c].length != 0) {
+                        final VectorialMean mean = new VectorialMean(dim);
+                        final double[] x = new double[dim];
+                        for (final int i : members[c]) {
+                            mean.increment(points.copy(i, x));
+                        }
+                        means[c] = mean;
+                    }
+                });
 
             for (int i = 0; i < k; i++) {
                 deltas[i] = distance(centers[i], means[i].getResult());
@@ -198,7 +242,7 @@ public class ElkanKMeansPlusPlusClusterer<T extends Clusterable>
             updateBounds(partitions, u, l, deltas);
         }
 
-        return buildResults(pointsList, partitions, centers);
+        return new FlatClustering(partitions, centers);
     }
 
     /**
@@ -213,7 +257,7 @@ public class ElkanKMeansPlusPlusClusterer<T extends Clusterable>
      * @return an array of initial clusters centers
      *
      */
-    private double[][] seed(final List<T> points) {
+    private double[][] seed(final FlatPoints points) {
         final int k = getNumberOfClusters();
         final UniformRandomProvider random = getRandomGenerator();
 
@@ -224,13 +268,16 @@ public class ElkanKMeansPlusPlusClusterer<T extends Clusterable>
         final double[] minDistances = new double[n];
 
         int idx = 0;
-        result[idx] = points.get(pointIndex).getPoint();
+        result[idx] = points.get(pointIndex);
+
+        // Squared distances to the latest center.
+        final double[] sqDistances = new double[n];
+        sqDistancesTo(result[idx], points, sqDistances);
 
         double sumSqDist = 0;
 
         for (int i = 0; i < n; i++) {
-            final double d = distance(result[idx], points.get(i).getPoint());
-            minDistances[i] = d * d;
+            minDistances[i] = sqDistances[i];
             sumSqDist += minDistances[i];
         }
 
@@ -245,11 +292,11 @@ public class ElkanKMeansPlusPlusClusterer<T extends Clusterable>
                 cdf += minDistances[next];
             }
 
-            result[idx] = points.get(next - 1).getPoint();
+            result[idx] = points.get(next - 1);
+            sqDistancesTo(result[idx], points, sqDistances);
             for (int i = 0; i < n; i++) {
-                final double d = distance(result[idx], points.get(i).getPoint());
                 sumSqDist -= minDistances[i];
-                minDistances[i] = Math.min(minDistances[i], d * d);
+                minDistances[i] = Math.min(minDistances[i], sqDistances[i]);
                 sumSqDist += minDistances[i];
             }
         }
@@ -257,37 +304,83 @@ public class ElkanKMeansPlusPlusClusterer<T extends Clusterable>
         return result;
     }
 
+    /**
+     * Computes the squared distances between a center and all the points.
+     *
+     * @param center Center.
+     * @param points Points.
+     * @param out Squared distances (output).
+     */
+    private void sqDistancesTo(final double[] center,
+                               final FlatPoints points,
+                               final double[] out) {
+        ConcurrentTasks.runRanges(getExecutor(), out.length, BLOCK_SIZE, (from, to) -> {
+                final double[] x = new double[points.getDimension()];
+                for (int i = from; i < to; i++) {
+                    final double d = distance(center, points.copy(i, x));
+                    out[i] = d * d;
+                }
+            });
+    }
+
+    /**
+     * Groups the indices of the points by cluster.
+     *
+     * @param partitions Cluster of each point.
+     * @return for each cluster, the indices of its points, in increasing order.
+     */
+    private int[][] members(int[] partitions) {
+        final int k = getNumberOfClusters();
+        final int[] sizes = new int[k];
+        for (final int c : partitions) {
+            ++sizes[c];
+        }
+        final int[][] members = new int[k][];
+        for (int c = 0; c < k; c++) {
+            members[c] = new int[sizes[c]];
+        }
+        Arrays.fill(sizes, 0);
+        for (int i = 0; i < partitions.length; i++) {
+            final int c = partitions[i];
+            members[c][sizes[c]++] = i;
+        }
+        return members;
+    }
+
     /**
      * Once initial centers are chosen, we can actually go through data points and assign points to the
      * cluster based on the distance between initial centers and points.
      *
-     * @param pointsList data points list
+     * @param points data points
      * @param centers current clusters centers
      * @param u points upper bounds
      * @param l lower bounds for points to clusters centers
      *
      * @return initial assignment of points into clusters
      */
-    private int[] partitionPoints(List<T> pointsList,
+    private int[] partitionPoints(FlatPoints points,
                                   double[][] centers,
                                   double[] u,
                                   double[][] l) {
         final int k = getNumberOfClusters();
-        final int n = pointsList.size();
+        final int n = points.size();
         // Points assignments vector.
         final int[] assignments = new int[n];
         Arrays.fill(assignments, -1);
         // Need to assign points to the clusters for the first time and intitialize the lower bound l(x, c)
-        for (int i = 0; i < n; i++) {
-            final double[] x = pointsList.get(i).getPoint();
-            for (int j = 0; j < k; j++) {
-                l[i][j] = distance(x, centers[j]); // l(x, c) = d(x, c)
-                if (u[i] > l[i][j]) {
-                    u[i] = l[i][j]; // u(x) = min_c d(x, c)
-                    assignments[i] = j; // c(x) = argmin_c d(x, c)
+        ConcurrentTasks.runRanges(getExecutor(), n, BLOCK_SIZE, (from, to) -> {
+                final double[] x = new double[points.getDimension()];
+                for (int i = from; i < to; i++) {
+                    points.copy(i, x);
+                    for (int j = 0; j < k; j++) {
+                        l[i][j] = distance(x, centers[j]); // l(x, c) = d(x, c)
+                        if (u[i] > l[i][j]) {
+                            u[i] = l[i][j]; // u(x) = min_c d(x, c)
+                            assignments[i] = j; // c(x) = argmin_c d(x, c)
+                        }
+                    }
                 }
-            }
-        }
+            });
         return assignments;
     }
 
@@ -353,31 +446,6 @@ public class ElkanKMeansPlusPlusClusterer<T extends Clusterable>
                u[xi] <= dcc[partitions[xi]][c];
     }
 
-    /**
-     * Once kmeans iterations have been converged and no more movements, we can build up the final
-     * resulted list of cluster centroids ({@link CentroidCluster}) and assign input points based
-     * on the converged partitioning.
-     *
-     * @param pointsList list of data points
-     * @param partitions current partition of points into clusters
-     * @param centers cluster centers
-     * @return cluster partitioning
-     */
-    private List<CentroidCluster<T>> buildResults(List<T> pointsList,
-                                                  int[] partitions,
-                                                  double[][] centers) {
-        final int k = getNumberOfClusters();
-        final List<CentroidCluster<T>> result = new ArrayList<>();
-        for (int i = 0; i < k; i++) {
-            final CentroidCluster<T> cluster = new CentroidCluster<>(new DoublePoint(centers[i]));
-            result.add(cluster);
-        }
-        for (int i = 0; i < pointsList.size(); i++) {
-            result.get(partitions[i]).addPoint(pointsList.get(i));
-        }
-        return result;
-    }
-
     /**
      * Based on the distance that cluster center has moved we need to update our upper and lower bound.
      * Worst case assumption, the center of the assigned to given cluster moves away from the point, while
@@ -393,21 +461,13 @@ public class ElkanKMeansPlusPlusClusterer<T extends Clusterable>
                               double[][] l,
                               double[] deltas) {
         final int k = getNumberOfClusters();
-        for (int i = 0; i < partitions.length; i++) {
-            u[i] += deltas[partitions[i]];
-            for (int j = 0; j < k; j++) {
-                l[i][j] = Math.max(0, l[i][j] - deltas[j]);
-            }
-        }
-    }
-
-    /**
-     * @param a Coordinates.
-     * @param b Coordinates.
-     * @return the distance between {@code a} and {@code b}.
-     */
-    private double distance(final double[] a,
-                            final double[] b) {
-        return getDistanceMeasure().compute(a, b);
+        ConcurrentTasks.runRanges(getExecutor(), partitions.length, BLOCK_SIZE, (from, to) -> {
+                for (int i = from; i < to; i++) {
+                    u[i] += deltas[partitions[i]];
+                    for (int j = 0; j < k; j++) {
+                        l[i][j] = Math.max(0, l[i][j] - deltas[j]);
+                    }
+                }
+            });
     }
 }
@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.ml.clustering;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result of a centroid-based clustering of points stored in a flat array
+ * (or buffer): the cluster of each point, and the centers of the clusters.
+ *
+ * <p>Contrary to a list of {@link CentroidCluster}, no object is created
+ * per data point.</p>
+ *
+ * @since 4.0
+ */
+public final class FlatClustering {
+    /** Index of the cluster of each point. */
+    private final int[] labels;
+    /** Centers of the clusters. */
+    private final double[][] centroids;
+
+    /**
+     * @param labels Index of the cluster of each point (not copied).
+     * @param centroids Centers of the clusters (not copied).
+     */
+    FlatClustering(int[] labels,
+                   double[][] centroids) {
+        this.labels = labels;
+        this.centroids = centroids;
+    }
+
+    /**
+     * Gets the cluster of each point.
+     * Element {@code i} of the returned array is the index, in the
+     * {@link #getCentroids() centroids} matrix, of the cluster which
+     * point {@code i} belongs to.
+     * The array is not copied.
+     *
+     * @return the labels of the points.
+     */
+    public int[] getLabels() {
+        return labels;
+    }
+
+    /**
+     * @return the number of clusters.
+     */
+    public int getNumberOfClusters() {
+        return centroids.length;
+    }
+
+    /**
+     * Gets the centers of the clusters.
+     *
+     * @return a matrix whose row {@code c} contains the coordinates of
+     * the center of cluster {@code c}.
+     */
+    public double[][] getCentroids() {
+        final double[][] copy = new double[centroids.length][];
+        for (int c = 0; c < copy.length; c++) {
+            copy[c] = centroids[c].clone();
+        }
+        return copy;
+    }
+
+    /**
+     * Creates the clusters of the given points.
+     *
+     * @param <T> Type of the points.
+     * @param points Points, in the same order as the labels.
+     * @return the clusters, in the same order as the centroids.
+     */
+    <T extends Clusterable> List<CentroidCluster<T>> toClusters(List<T> points) {
+        final List<CentroidCluster<T>> clusters = new ArrayList<>(centroids.length);
+        for (final double[] c : centroids) {
+            clusters.add(new CentroidCluster<>(new DoublePoint(c)));
+        }
+        for (int i = 0; i < labels.length; i++) {
+            clusters.get(labels[i]).addPoint(points.get(i));
+        }
+        return clusters;
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.ml.clustering;
+
+import java.nio.DoubleBuffer;
+import java.util.Collection;
+
+import org.apache.commons.math4.legacy.exception.DimensionMismatchException;
+import org.apache.commons.math4.legacy.exception.MathIllegalArgumentException;
+import org.apache.commons.math4.legacy.exception.NotStrictlyPositiveException;
+import org.apache.commons.math4.legacy.exception.NullArgumentException;
+import org.apache.commons.math4.legacy.exception.util.LocalizedFormats;
+
+/**
+ * Read-only view of a set of points whose coordinates are stored
+ * contiguously, in row-major order: coordinate {@code j} of point
+ * {@code i} is at index {@code offset + i * dimension + j}.
+ *
+ * <p>Algorithms access a point by copying its coordinates into a
+ * work array owned by the caller, so that instances can be shared
+ * between threads.</p>
+ */
+final class FlatPoints {
+    /** Coordinates (if stored in an array). */
+    private final double[] array;
+    /** Coordinates (if not stored in an array). */
+    private final DoubleBuffer buffer;
+    /** Index of the first coordinate of the first point. */
+    private final int offset;
+    /** Number of points. */
+    private final int size;
+    /** Dimension of the points. */
+    private final int dimension;
+
+    /**
+     * @param array Coordinates (if stored in an array).
+     * @param buffer Coordinates (if not stored in an array).
+     * @param offset Index of the first coordinate of the first point.
+     * @param size Number of points.
+     * @param dimension Dimension of the points.
+     */
+    private FlatPoints(double[] array,
+                       DoubleBuffer buffer,
+                       int offset,
+                       int size,
+                       int dimension) {
+        this.array = array;
+        this.buffer = buffer;
+        this.offset = offset;
+        this.size = size;
+        this.dimension = dimension;
+    }
+
+    /**
+     * Wraps an array (not copied).
+     *
+     * @param data Coordinates, in row-major order.
+     * @param dimension Dimension of the points.
+     * @return a new instance.
+     * @throws NotStrictlyPositiveException if {@code dimension <= 0}.
+     * @throws MathIllegalArgumentException if the length of {@code data}
+     * is not a multiple of {@code dimension}.
+     */
+    static FlatPoints of(double[] data,
+                         int dimension) {
+        NullArgumentException.check(data);
+        return new FlatPoints(data, null, 0, checkShape(data.length, dimension), dimension);
+    }
+
+    /**
+     * Wraps the remaining elements of a buffer (not copied).
+     * The position of the buffer is not modified; it must not change
+     * while the instance is in use.
+     *
+     * @param data Coordinates, in row-major order, starting at the current
+     * position of the buffer.
+     * @param dimension Dimension of the points.
+     * @return a new instance.
+     * @throws NotStrictlyPositiveException if {@code dimension <= 0}.
+     * @throws MathIllegalArgumentException if the number of remaining
+     * elements is not a multiple of {@code dimension}.
+     */
+    static FlatPoints of(DoubleBuffer data,
+                         int dimension) {
+        NullArgumentException.check(data);
+        final int n = checkShape(data.remaining(), dimension);
+        return data.hasArray() ?
+            new FlatPoints(data.array(), null, data.arrayOffset() + data.position(), n, dimension) :
+            new FlatPoints(null, data, data.position(), n, dimension);
+    }
+
+    /**
+     * Copies the coordinates of a collection of points.
+     *
+     * @param <T> Type of the points.
+     * @param points Points.
+     * @return a new instance (whose dimension is 0 if {@code points}
+     * is empty).
+     * @throws DimensionMismatchException if the points do not all have
+     * the same dimension.
+     */
+    static <T extends Clusterable> FlatPoints of(Collection<T> points) {
+        final int n = points.size();
+        if (n == 0) {
+            return new FlatPoints(new double[0], null, 0, 0, 0);
+        }
+
+        double[] data = null;
+        int dimension = 0;
+        int i = 0;
+        for (final T p : points) {
+            final double[] x = p.getPoint();
+            if (data == null) {
+                dimension = x.length;
+                data = new double[n * dimension];
+            } else if (x.length != dimension) {
+                throw new DimensionMismatchException(x.length, dimension);
+            }
+            System.arraycopy(x, 0, data, i, dimension);
+            i += dimension;
+        }
+        return new FlatPoints(data, null, 0, n, dimension);
+    }
+
+    /**
+     * @param length Number of coordinates.
+     * @param dimension Dimension of the points.
+     * @return the number of points.
+     * @throws NotStrictlyPositiveException if {@code dimension <= 0}.
+     * @throws MathIllegalArgumentException if {@code length} is not a
+     * multiple of {@code dimension}.
+     */
+    private static int checkShape(int length,
+                                  int dimension) {
+        if (dimension <= 0) {
+            throw new NotStrictlyPositiveException(LocalizedFormats.DIMENSION, dimension);
+        }
+        if (length % dimension != 0) {
+            throw new MathIllegalArgumentException(LocalizedFormats.WRONG_BLOCK_LENGTH,
+                                                   length, length - length % dimension);
+        }
+        return length / dimension;
+    }
+
+    /**
+     * @return the number of points.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return the dimension of the points.
+     */
+    int getDimension() {
+        return dimension;
+    }
+
+    /**
+     * Copies the coordinates of a point.
+     *
+     * @param i Index of the point.
+     * @param dest Array into which the coordinates are copied (its length
+     * must be at least the dimension).
+     * @return {@code dest}.
+     */
+    double[] copy(int i,
+                  double[] dest) {
+        final int start = offset + i * dimension;
+        if (array != null) {
+            System.arraycopy(array, start, dest, 0, dimension);
+        } else {
+            for (int j = 0; j < dimension; j++) {
+                dest[j] = buffer.get(start + j);
+            }
+        }
+        return dest;
+    }
+
+    /**
+     * @param i Index of the point.
+     * @return a copy of the coordinates of the point.
+     */
+    double[] get(int i) {
+        return copy(i, new double[dimension]);
+    }
+}
@@ -16,6 +16,7 @@
  */
 package org.apache.commons.math4.legacy.ml.clustering;
 
+import java.nio.DoubleBuffer;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -266,6 +267,83 @@ public class FuzzyKMeansClusterer<T extends Clusterable> extends Clusterer<T> {
         // sanity checks
         NullArgumentException.check(dataPoints);
 
+        // copy the input collection to an unmodifiable list with indexed access
+        final List<T> pointList = Collections.unmodifiableList(new ArrayList<>(dataPoints));
+        final List<CentroidCluster<T>> result = clusterPoints(FlatPoints.of(pointList)).toClusters(pointList);
+
+        points = pointList;
+        clusters = result;
+        return clusters;
+    }
+
+    /**
+     * Performs Fuzzy K-Means cluster analysis of points whose coordinates
+     * are stored in a single array.
+     * After this call, the {@link #getMembershipMatrix() membership matrix}
+     * is available, but {@link #getDataPoints()} and {@link #getClusters()}
+     * return {@code null}.
+     *
+     * @param dataPoints Coordinates of the points, in row-major order:
+     * coordinate {@code j} of point {@code i} is at index
+     * {@code i * dimension + j}.
+     * @param dimension Dimension of the points.
+     * @return the index of the cluster with the highest membership for each
+     * point, and the centers of the clusters.
+     * @throws org.apache.commons.math4.legacy.exception.MathIllegalArgumentException
+     * if {@code dimension} is not strictly positive, the length of {@code dataPoints}
+     * is not a multiple of {@code dimension}, or the number of clusters is larger
+     * than the number of data points.
+     * @since 4.0
+     */
+    public FlatClustering cluster(final double[] dataPoints,
+                                  final int dimension) {
+        return clusterFlat(FlatPoints.of(dataPoints, dimension));
+    }
+
+    /**
+     * Performs Fuzzy K-Means cluster analysis of points whose coordinates
+     * are stored in a buffer.
+     * After this call, the {@link #getMembershipMatrix() membership matrix}
+     * is available, but {@link #getDataPoints()} and {@link #getClusters()}
+     * return {@code null}.
+     *
+     * @param dataPoints Coordinates of the points, in row-major order, from the
+     * current position of the buffer to its limit.  The position of the buffer
+     * is not modified.
+     * @param dimension Dimension of the points.
+     * @return the index of the cluster with the highest membership for each
+     * point, and the centers of the clusters.
+     * @throws org.apache.commons.math4.legacy.exception.MathIllegalArgumentException
+     * if {@code dimension} is not strictly positive, the number of remaining
+     * elements is not a multiple of {@code dimension}, or the number of clusters
+     * is larger than the number of data points.
+     * @since 4.0
+     */
+    public FlatClustering cluster(final DoubleBuffer dataPoints,
+                                  final int dimension) {
+        return clusterFlat(FlatPoints.of(dataPoints, dimension));
+    }
+
+    /**
+     * @param dataPoints the points to cluster
+     * @return the clustering
+     */
+    private FlatClustering clusterFlat(final FlatPoints dataPoints) {
+        final FlatClustering result = clusterPoints(dataPoints);
+        points = null;
+        clusters = null;
+        return result;
+    }
+
+    /**
+     * Performs Fuzzy K-Means cluster analysis.
+     *
+     * @param dataPoints the points to cluster
+     * @return the clustering
+     * @throws NumberIsTooSmallException if the number of clusters is larger
+     * than the number of data points
+     */
+    private FlatClustering clusterPoints(final FlatPoints dataPoints) {
         final int size = dataPoints.size();
 
         // number of clusters has to be smaller or equal the number of data points
@@ -273,83 +351,87 @@ public class FuzzyKMeansClusterer<T extends Clusterable> extends Clusterer<T> {
             throw new NumberIsTooSmallException(size, k, false);
         }
 
-        // copy the input collection to an unmodifiable list with indexed access
-        points = Collections.unmodifiableList(new ArrayList<>(dataPoints));
-        clusters = new ArrayList<>();
         membershipMatrix = new double[size][k];
         final double[][] oldMatrix = new double[size][k];
 
-        // if no points are provided, return an empty list of clusters
+        // if no points are provided, there is no cluster
         if (size == 0) {
-            return clusters;
+            return new FlatClustering(new int[0], new double[0][]);
         }
 
         initializeMembershipMatrix();
 
-        // there is at least one point
-        final int pointDimension = points.get(0).getPoint().length;
-        for (int i = 0; i < k; i++) {
-            clusters.add(new CentroidCluster<>(new DoublePoint(new double[pointDimension])));
-        }
-
+        final int[] labels = new int[size];
+        double[][] centers = null;
         int iteration = 0;
         final int max = (maxIterations < 0) ? Integer.MAX_VALUE : maxIterations;
         double difference = 0.0;
 
         do {
             saveMembershipMatrix(oldMatrix);
-            updateClusterCenters();
-            updateMembershipMatrix();
+            centers = updateClusterCenters(dataPoints);
+            updateMembershipMatrix(dataPoints, centers, labels);
             difference = calculateMaxMembershipChange(oldMatrix);
         } while (difference > epsilon && ++iteration < max);
 
-        return clusters;
+        return new FlatClustering(labels, centers);
     }
 
     /**
-     * Update the cluster centers.
+     * Computes the cluster centers from the membership matrix.
+     *
+     * @param dataPoints the points
+     * @return the centers
      */
-    private void updateClusterCenters() {
-        int j = 0;
-        final List<CentroidCluster<T>> newClusters = new ArrayList<>(k);
-        for (final CentroidCluster<T> cluster : clusters) {
-            final Clusterable center = cluster.getCenter();
-            int i = 0;
-            double[] arr = new double[center.getPoint().length];
-            double sum = 0.0;
-            for (final T point : points) {
+    private double[][] updateClusterCenters(final FlatPoints dataPoints) {
+        final int dimension = dataPoints.getDimension();
+        final double[][] centers = new double[k][dimension];
+        final double[] sums = new double[k];
+        final double[] x = new double[dimension];
+        for (int i = 0; i < dataPoints.size(); i++) {
+            dataPoints.copy(i, x);
+            for (int j = 0; j < k; j++) {
                 final double u = JdkMath.pow(membershipMatrix[i][j], fuzziness);
-                final double[] pointArr = point.getPoint();
-                for (int idx = 0; idx < arr.length; idx++) {
-                    arr[idx] += u * pointArr[idx];
+                final double[] arr = centers[j];
+                for (int idx = 0; idx < dimension; idx++) {
+                    arr[idx] += u * x[idx];
                 }
-                sum += u;
-                i++;
+                sums[j] += u;
             }
-            MathArrays.scaleInPlace(1.0 / sum, arr);
-            newClusters.add(new CentroidCluster<>(new DoublePoint(arr)));
-            j++;
         }
-        clusters.clear();
-        clusters = newClusters;
+        for (int j = 0; j < k; j++) {
+            MathArrays.scaleInPlace(1.0 / sums[j], centers[j]);
+        }
+        return centers;
     }
 
     /**
-     * Updates the membership matrix and assigns the points to the cluster with
-     * the highest membership.
+     * Updates the membership matrix and assigns the data points to the cluster
+     * centers.
+     *
+     * @param dataPoints the points
+     * @param centers the centers of the clusters
+     * @param labels the cluster with the highest membership for each point (output)
      */
-    private void updateMembershipMatrix() {
-        for (int i = 0; i < points.size(); i++) {
-            final T point = points.get(i);
+    private void updateMembershipMatrix(final FlatPoints dataPoints,
+                                        final double[][] centers,
+                                        final int[] labels) {
+        final double[] x = new double[dataPoints.getDimension()];
+        final double[] distances = new double[k];
+        for (int i = 0; i < dataPoints.size(); i++) {
+            dataPoints.copy(i, x);
+            for (int j = 0; j < k; j++) {
+                distances[j] = JdkMath.abs(getDistanceMeasure().compute(x, centers[j]));
+            }
+
             double maxMembership = Double.MIN_VALUE;
             int newCluster = -1;
-            for (int j = 0; j < clusters.size(); j++) {
+            for (int j = 0; j < k; j++) {
                 double sum = 0.0;
-                final double distA = JdkMath.abs(distance(point, clusters.get(j).getCenter()));
+                final double distA = distances[j];
 
                 if (distA != 0.0) {
-                    for (final CentroidCluster<T> c : clusters) {
-                        final double distB = JdkMath.abs(distance(point, c.getCenter()));
+                    for (final double distB : distances) {
                         if (distB == 0.0) {
                             sum = Double.POSITIVE_INFINITY;
                             break;
@@ -373,7 +455,7 @@ public class FuzzyKMeansClusterer<T extends Clusterable> extends Clusterer<T> {
                     newCluster = j;
                 }
             }
-            clusters.get(newCluster).addPoint(point);
+            labels[i] = newCluster;
         }
     }
 
@@ -381,7 +463,7 @@ public class FuzzyKMeansClusterer<T extends Clusterable> extends Clusterer<T> {
      * Initialize the membership matrix with random values.
      */
     private void initializeMembershipMatrix() {
-        for (int i = 0; i < points.size(); i++) {
+        for (int i = 0; i < membershipMatrix.length; i++) {
             for (int j = 0; j < k; j++) {
                 membershipMatrix[i][j] = random.nextDouble();
             }
@@ -398,8 +480,8 @@ public class FuzzyKMeansClusterer<T extends Clusterable> extends Clusterer<T> {
      */
     private double calculateMaxMembershipChange(final double[][] matrix) {
         double maxMembership = 0.0;
-        for (int i = 0; i < points.size(); i++) {
-            for (int j = 0; j < clusters.size(); j++) {
+        for (int i = 0; i < membershipMatrix.length; i++) {
+            for (int j = 0; j < k; j++) {
                 double v = JdkMath.abs(membershipMatrix[i][j] - matrix[i][j]);
                 maxMembership = JdkMath.max(v, maxMembership);
             }
@@ -413,8 +495,8 @@ public class FuzzyKMeansClusterer<T extends Clusterable> extends Clusterer<T> {
      * @param matrix the place to store the membership matrix
      */
     private void saveMembershipMatrix(final double[][] matrix) {
-        for (int i = 0; i < points.size(); i++) {
-            System.arraycopy(membershipMatrix[i], 0, matrix[i], 0, clusters.size());
+        for (int i = 0; i < membershipMatrix.length; i++) {
+            System.arraycopy(membershipMatrix[i], 0, matrix[i], 0, k);
         }
     }
 }
@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.ml.clustering;
+
+import java.util.Arrays;
+
+/**
+ * Growable array of indices.
+ */
+final class IntList {
+    /** Elements. */
+    private int[] data = new int[16];
+    /** Number of elements. */
+    private int size;
+
+    /**
+     * @param i Element to append.
+     */
+    void add(int i) {
+        if (size == data.length) {
+            data = Arrays.copyOf(data, 2 * size);
+        }
+        data[size++] = i;
+    }
+
+    /**
+     * @param i Position.
+     * @return the element at position {@code i}.
+     */
+    int get(int i) {
+        return data[i];
+    }
+
+    /**
+     * Removes an element, shifting the subsequent ones to the left.
+     *
+     * @param i Position.
+     * @return the element that was at position {@code i}.
+     */
+    int remove(int i) {
+        final int e = data[i];
+        System.arraycopy(data, i + 1, data, i, size - i - 1);
+        --size;
+        return e;
+    }
+
+    /**
+     * @return the number of elements.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return {@code true} if the list is empty.
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all the elements.
+     */
+    void clear() {
+        size = 0;
+    }
+
+    /**
+     * @return a copy of the elements.
+     */
+    int[] toArray() {
+        return Arrays.copyOf(data, size);
+    }
+}
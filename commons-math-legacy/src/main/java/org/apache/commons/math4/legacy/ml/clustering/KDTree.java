@@ -0,0 +1,234 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.ml.clustering;
+
+import java.util.Arrays;
+
+import org.apache.commons.math4.legacy.ml.distance.ChebyshevDistance;
+import org.apache.commons.math4.legacy.ml.distance.DistanceMeasure;
+import org.apache.commons.math4.legacy.ml.distance.EuclideanDistance;
+import org.apache.commons.math4.legacy.ml.distance.ManhattanDistance;
+
+/**
+ * Static k-d tree over a set of points, for range queries.
+ *
+ * <p>The tree is implicit: the points are referred to by their index, and
+ * each node is a range of a permutation of the indices, whose middle
+ * element is the pivot.  The left (resp. right) part of the range contains
+ * the points whose coordinate along the split axis is lower (resp. higher)
+ * than or equal to that of the pivot.</p>
+ *
+ * <p>Pruning a subtree is only valid when the distance between two points
+ * is not smaller than the difference between any of their coordinates;
+ * see {@link #supports(DistanceMeasure)}.</p>
+ */
+final class KDTree {
+    /** Maximum number of points in a leaf. */
+    private static final int LEAF_SIZE = 8;
+    /** Points. */
+    private final double[][] points;
+    /** Distance. */
+    private final DistanceMeasure measure;
+    /** Permutation of the indices of the points. */
+    private final int[] index;
+    /** Split axis of the node whose pivot is at a given position. */
+    private final int[] axis;
+
+    /**
+     * @param points Points (not copied); they must all have the same dimension.
+     * @param measure Distance (must be {@link #supports(DistanceMeasure) supported}).
+     */
+    KDTree(double[][] points,
+           DistanceMeasure measure) {
+        this.points = points;
+        this.measure = measure;
+        final int n = points.length;
+        index = new int[n];
+        for (int i = 0; i < n; i++) {
+            index[i] = i;
+        }
+        axis = new int[n];
+        build(0, n);
+    }
+
+    /**
+     * Checks whether a distance can be used with the tree.
+     *
+     * @param measure Distance.
+     * @return {@code true} if the distance is bounded below by the absolute
+     * difference of the coordinates.
+     */
+    static boolean supports(DistanceMeasure measure) {
+        final Class<?> c = measure.getClass();
+        return c == EuclideanDistance.class ||
+            c == ManhattanDistance.class ||
+            c == ChebyshevDistance.class;
+    }
+
+    /**
+     * Finds the points within a given distance of one of the points.
+     *
+     * @param center Index of the point around which to search.
+     * @param radius Radius.
+     * @return the indices of the points (other than {@code center}) whose
+     * distance to the center is smaller than or equal to {@code radius},
+     * in increasing order.
+     */
+    int[] neighbors(int center,
+                    double radius) {
+        final IntList out = new IntList();
+        search(0, index.length, center, radius, out);
+        final int[] result = out.toArray();
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * Builds the subtree of a range.
+     *
+     * @param lo Start of the range (inclusive).
+     * @param hi End of the range (exclusive).
+     */
+    private void build(int lo,
+                       int hi) {
+        if (hi - lo <= LEAF_SIZE) {
+            return;
+        }
+
+        // Split along the axis with the largest spread.
+        final int dim = points[index[lo]].length;
+        int best = 0;
+        double bestSpread = -1;
+        for (int a = 0; a < dim; a++) {
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (int i = lo; i < hi; i++) {
+                final double v = points[index[i]][a];
+                min = Math.min(min, v);
+                max = Math.max(max, v);
+            }
+            if (max - min > bestSpread) {
+                bestSpread = max - min;
+                best = a;
+            }
+        }
+
+        final int mid = (lo + hi) >>> 1;
+        select(lo, hi, mid, best);
+        axis[mid] = best;
+        build(lo, mid);
+        build(mid + 1, hi);
+    }
+
+    /**
+     * Partially sorts a range of the permutation so that the element at
+     * position {@code k} is the one that would be there if the range were
+     * sorted along the given axis.
+     *
+     * @param from Start of the range (inclusive).
+     * @param to End of the range (exclusive).
+     * @param k Position.
+     * @param a Axis.
+     */
+    private void select(int from,
+                        int to,
+                        int k,
+                        int a) {
+        int lo = from;
+        int hi = to - 1;
+        while (lo < hi) {
+            final double pivot = points[index[(lo + hi) >>> 1]][a];
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (points[index[i]][a] < pivot) {
+                    ++i;
+                }
+                while (points[index[j]][a] > pivot) {
+                    --j;
+                }
+                if (i <= j) {
+                    final int tmp = index[i];
+                    index[i] = index[j];
+                    index[j] = tmp;
+                    ++i;
+                    --j;
+                }
+            }
+            if (k <= j) {
+                hi = j;
+            } else if (k >= i) {
+                lo = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Searches a subtree.
+     *
+     * @param lo Start of the range (inclusive).
+     * @param hi End of the range (exclusive).
+     * @param center Index of the point around which to search.
+     * @param radius Radius.
+     * @param out Indices of the points found.
+     */
+    private void search(int lo,
+                        int hi,
+                        int center,
+                        double radius,
+                        IntList out) {
+        final double[] c = points[center];
+        if (hi - lo <= LEAF_SIZE) {
+            for (int i = lo; i < hi; i++) {
+                check(index[i], center, radius, out);
+            }
+            return;
+        }
+
+        final int mid = (lo + hi) >>> 1;
+        final int pivot = index[mid];
+        final int a = axis[mid];
+        final double split = points[pivot][a];
+        check(pivot, center, radius, out);
+        if (c[a] - radius <= split) {
+            search(lo, mid, center, radius, out);
+        }
+        if (c[a] + radius >= split) {
+            search(mid + 1, hi, center, radius, out);
+        }
+    }
+
+    /**
+     * Adds a point to the result if it is within range.
+     *
+     * @param i Index of the point.
+     * @param center Index of the center.
+     * @param radius Radius.
+     * @param out Indices of the points found.
+     */
+    private void check(int i,
+                       int center,
+                       double radius,
+                       IntList out) {
+        if (i != center &&
+            measure.compute(points[i], points[center]) <= radius) {
+            out.add(i);
+        }
+    }
+}
@@ -24,22 +24,39 @@ import org.apache.commons.math4.legacy.exception.NumberIsTooSmallException;
 import org.apache.commons.math4.legacy.exception.util.LocalizedFormats;
 import org.apache.commons.math4.legacy.ml.distance.DistanceMeasure;
 import org.apache.commons.math4.legacy.ml.distance.EuclideanDistance;
+import org.apache.commons.math4.legacy.util.ConcurrentTasks;
 import org.apache.commons.rng.UniformRandomProvider;
 import org.apache.commons.rng.simple.RandomSource;
 import org.apache.commons.statistics.descriptive.Variance;
+import java.nio.DoubleBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 /**
  * Clustering algorithm based on David Arthur and Sergei Vassilvitski k-means++ algorithm.
+ * <p>
+ * If an {@link ExecutorService} is passed to the constructor, the distances
+ * computed during the seeding, the assignment of the points to the clusters
+ * and the computation of the centroids are performed by several threads
+ * (the {@link DistanceMeasure} must then be thread-safe).  The results are
+ * the same as those of a single-threaded computation.
+ * <p>
+ * Points whose coordinates are stored in a single array (or buffer) can be
+ * clustered with {@link #cluster(double[],int)}, which returns the label of
+ * each point instead of lists of objects.  The algorithms always work on such
+ * a flat copy of the coordinates.
  * @param <T> type of the points to cluster
  * @see <a href="https://en.wikipedia.org/wiki/K-means%2B%2B">K-means++ (wikipedia)</a>
  * @since 3.2
  */
 public class KMeansPlusPlusClusterer<T extends Clusterable> extends Clusterer<T> {
 
+    /** Number of points processed by a single task. */
+    static final int BLOCK_SIZE = 4096;
+
     /** Enumerates strategies to use for replacing an empty cluster. */
     public enum EmptyClusterStrategy {
 
@@ -68,6 +85,9 @@ public class KMeansPlusPlusClusterer<T extends Clusterable> extends Clusterer<T>
     /** Selected strategy for empty clusters. */
     private final EmptyClusterStrategy emptyStrategy;
 
+    /** Executor (may be {@code null}). */
+    private final ExecutorService executor;
+
     /** Build a clusterer.
      * <p>
      * The default strategy for handling empty clusters that may appear during
@@ -143,6 +163,29 @@ public class KMeansPlusPlusClusterer<T extends Clusterable> extends Clusterer<T>
                                    final DistanceMeasure measure,
                                    final UniformRandomProvider random,
                                    final EmptyClusterStrategy emptyStrategy) {
+        this(k, maxIterations, measure, random, emptyStrategy, null);
+    }
+
+    /** Build a clusterer.
+     *
+     * @param k the number of clusters to split the data into
+     * @param maxIterations the maximum number of iterations to run the algorithm for.
+     * @param measure the distance measure to use
+     * @param random random generator to use for choosing initial centers
+     * @param emptyStrategy strategy to use for handling empty clusters that
+     * may appear during algorithm iterations
+     * @param executor executor used for computing the distances between the
+     * points and the centers ({@code null} for computing them in the calling thread)
+     * @throws NotStrictlyPositiveException if {@code k <= 0} or
+     * {@code maxIterations <= 0}.
+     * @since 4.0
+     */
+    public KMeansPlusPlusClusterer(final int k,
+                                   final int maxIterations,
+                                   final DistanceMeasure measure,
+                                   final UniformRandomProvider random,
+                                   final EmptyClusterStrategy emptyStrategy,
+                                   final ExecutorService executor) {
         super(measure);
 
         if (k <= 0) {
@@ -156,6 +199,7 @@ public class KMeansPlusPlusClusterer<T extends Clusterable> extends Clusterer<T>
         this.maxIterations = maxIterations;
         this.random = random;
         this.emptyStrategy = emptyStrategy;
+        this.executor = executor;
     }
 
     /**
@@ -176,6 +220,8 @@ public class KMeansPlusPlusClusterer<T extends Clusterable> extends Clusterer<T>
 
     /**
      * Runs the K-means++ clustering algorithm.
+     * The coordinates of the points are copied into a contiguous array,
+     * and clustered by {@link #cluster(double[],int)}.
      *
      * @param points the points to cluster
      * @return a list of clusters containing the points
@@ -195,28 +241,103 @@ public class KMeansPlusPlusClusterer<T extends Clusterable> extends Clusterer<T>
             throw new NumberIsTooSmallException(points.size(), numberOfClusters, false);
         }
 
+        // indexed access to the points
+        final List<T> pointList = new ArrayList<>(points);
+        return clusterPoints(FlatPoints.of(pointList)).toClusters(pointList);
+    }
+
+    /**
+     * Runs the clustering algorithm on points whose coordinates are stored
+     * in a single array.
+     * No object is created per data point.
+     *
+     * @param points Coordinates of the points, in row-major order:
+     * coordinate {@code j} of point {@code i} is at index
+     * {@code i * dimension + j}.
+     * @param dimension Dimension of the points.
+     * @return the index of the cluster of each point, and the centers
+     * of the clusters.
+     * @throws org.apache.commons.math4.legacy.exception.MathIllegalArgumentException
+     * if {@code dimension} is not strictly positive, the length of {@code points}
+     * is not a multiple of {@code dimension}, or the number of clusters is larger
+     * than the number of data points.
+     * @throws ConvergenceException if an empty cluster is encountered and the
+     * empty cluster strategy is set to {@link EmptyClusterStrategy#ERROR}
+     * @since 4.0
+     */
+    public FlatClustering cluster(final double[] points,
+                                  final int dimension) {
+        return clusterPoints(FlatPoints.of(points, dimension));
+    }
+
+    /**
+     * Runs the clustering algorithm on points whose coordinates are stored
+     * in a buffer (e.g. a memory-mapped file).
+     * No object is created per data point.
+     *
+     * @param points Coordinates of the points, in row-major order, from the
+     * current position of the buffer to its limit.  The position of the buffer
+     * is not modified.
+     * @param dimension Dimension of the points.
+     * @return the index of the cluster of each point, and the centers
+     * of the clusters.
+     * @throws org.apache.commons.math4.legacy.exception.MathIllegalArgumentException
+     * if {@code dimension} is not strictly positive, the number of remaining
+     * elements is not a multiple of {@code dimension}, or the number of clusters
+     * is larger than the number of data points.
+     * @throws ConvergenceException if an empty cluster is encountered and the
+     * empty cluster strategy is set to {@link EmptyClusterStrategy#ERROR}
+     * @since 4.0
+     */
+    public FlatClustering cluster(final DoubleBuffer points,
+                                  final int dimension) {
+        return clusterPoints(FlatPoints.of(points, dimension));
+    }
+
+    /**
+     * Runs the clustering algorithm.
+     *
+     * @param points the points to cluster
+     * @return the clustering
+     * @throws NumberIsTooSmallException if the number of clusters is larger
+     * than the number of data points
+     * @throws ConvergenceException if an empty cluster is encountered and the
+     * empty cluster strategy is set to {@link EmptyClusterStrategy#ERROR}
+     */
+    FlatClustering clusterPoints(final FlatPoints points) {
+        final int n = points.size();
+        if (n < numberOfClusters) {
+            throw new NumberIsTooSmallException(n, numberOfClusters, false);
+        }
+
         // create the initial clusters
-        List<CentroidCluster<T>> clusters = chooseInitialCenters(points);
+        double[][] centers = chooseInitialCenters(points, null);
+        final IntList[] members = newMembers(centers.length);
 
         // create an array containing the latest assignment of a point to a cluster
         // no need to initialize the array, as it will be filled with the first assignment
-        int[] assignments = new int[points.size()];
-        assignPointsToClusters(clusters, points, assignments);
+        final int[] assignments = new int[n];
+        assignPointsToClusters(points, centers, assignments, members);
 
         // iterate through updating the centers until we're done
         for (int count = 0; count < maxIterations; count++) {
-            boolean hasEmptyCluster = clusters.stream().anyMatch(cluster->cluster.getPoints().isEmpty());
-            List<CentroidCluster<T>> newClusters = adjustClustersCenters(clusters);
-            int changes = assignPointsToClusters(newClusters, points, assignments);
-            clusters = newClusters;
+            boolean hasEmptyCluster = false;
+            for (final IntList m : members) {
+                hasEmptyCluster |= m.isEmpty();
+            }
+            final double[][] newCenters = hasEmptyCluster ?
+                adjustClustersCenters(points, centers, members) :
+                computeCentroids(points, members);
+            final int changes = assignPointsToClusters(points, newCenters, assignments, members);
+            centers = newCenters;
 
             // if there were no more changes in the point-to-cluster assignment
             // and there are no empty clusters left, return the current clusters
             if (changes == 0 && !hasEmptyCluster) {
-                return clusters;
+                break;
             }
         }
-        return clusters;
+        return new FlatClustering(assignments, centers);
     }
 
     /**
@@ -234,112 +355,210 @@ public class KMeansPlusPlusClusterer<T extends Clusterable> extends Clusterer<T>
     }
 
     /**
-     * Adjust the clusters's centers with means of points.
-     * @param clusters the origin clusters
-     * @return adjusted clusters with center points
+     * @return the executor (may be {@code null})
      */
-    List<CentroidCluster<T>> adjustClustersCenters(List<CentroidCluster<T>> clusters) {
-        List<CentroidCluster<T>> newClusters = new ArrayList<>();
-        for (final CentroidCluster<T> cluster : clusters) {
-            final Clusterable newCenter;
-            if (cluster.getPoints().isEmpty()) {
+    ExecutorService getExecutor() {
+        return executor;
+    }
+
+    /**
+     * @param a Coordinates.
+     * @param b Coordinates.
+     * @return the distance between {@code a} and {@code b}.
+     */
+    final double distance(final double[] a,
+                          final double[] b) {
+        return getDistanceMeasure().compute(a, b);
+    }
+
+    /**
+     * @param k Number of clusters.
+     * @return an empty list of members for each cluster.
+     */
+    static IntList[] newMembers(int k) {
+        final IntList[] members = new IntList[k];
+        for (int c = 0; c < k; c++) {
+            members[c] = new IntList();
+        }
+        return members;
+    }
+
+    /**
+     * Computes the centroids of non-empty clusters.
+     * The centroids are computed in parallel (one task per cluster).
+     *
+     * @param points the points
+     * @param members the indices of the points of each cluster (none of
+     * the clusters may be empty)
+     * @return the centroids
+     */
+    double[][] computeCentroids(final FlatPoints points,
+                                final IntList[] members) {
+        final double[][] centers = new double[members.length][];
+        ConcurrentTasks.run(executor, centers.length,
+                            c -> centers[c] = centroid(points, members[c]));
+        return centers;
+    }
+
+    /**
+     * Computes the centroid of a non-empty cluster.
+     *
+     * @param points the points
+     * @param members the indices of the points of the cluster
+     * @return the mean of the points
+     */
+    private static double[] centroid(final FlatPoints points,
+                                     final IntList members) {
+        final int dimension = points.getDimension();
+        final double[] centroid = new double[dimension];
+        final double[] x = new double[dimension];
+        for (int m = 0; m < members.size(); m++) {
+            points.copy(members.get(m), x);
+            for (int i = 0; i < dimension; i++) {
+                centroid[i] += x[i];
+            }
+        }
+        for (int i = 0; i < dimension; i++) {
+            centroid[i] /= members.size();
+        }
+        return centroid;
+    }
+
+    /**
+     * Computes the new centers of the clusters, handling empty clusters
+     * according to the {@link EmptyClusterStrategy}.
+     * The points used as new centers of empty clusters are removed from
+     * the clusters which they belonged to.
+     *
+     * @param points the points
+     * @param centers the current centers
+     * @param members the indices of the points of each cluster (modified)
+     * @return the new centers
+     * @throws ConvergenceException if an empty cluster is encountered and the
+     * empty cluster strategy is set to {@link EmptyClusterStrategy#ERROR}
+     */
+    double[][] adjustClustersCenters(final FlatPoints points,
+                                     final double[][] centers,
+                                     final IntList[] members) {
+        final double[][] newCenters = new double[members.length][];
+        for (int c = 0; c < members.length; c++) {
+            if (members[c].isEmpty()) {
+                final int newCenter;
                 switch (emptyStrategy) {
                     case LARGEST_VARIANCE :
-                        newCenter = getPointFromLargestVarianceCluster(clusters);
+                        newCenter = getPointFromLargestVarianceCluster(points, centers, members);
                         break;
                     case LARGEST_POINTS_NUMBER :
-                        newCenter = getPointFromLargestNumberCluster(clusters);
+                        newCenter = getPointFromLargestNumberCluster(members);
                         break;
                     case FARTHEST_POINT :
-                        newCenter = getFarthestPoint(clusters);
+                        newCenter = getFarthestPoint(points, centers, members);
                         break;
                     default :
                         throw new ConvergenceException(LocalizedFormats.EMPTY_CLUSTER_IN_K_MEANS);
                 }
+                newCenters[c] = points.get(newCenter);
             } else {
-                newCenter = cluster.centroid();
+                newCenters[c] = centroid(points, members[c]);
             }
-            newClusters.add(new CentroidCluster<>(newCenter));
         }
-        return newClusters;
+        return newCenters;
     }
 
     /**
-     * Adds the given points to the closest {@link Cluster}.
+     * Assigns each point to the nearest cluster.
      *
-     * @param clusters the {@link Cluster}s to add the points to
-     * @param points the points to add to the given {@link Cluster}s
-     * @param assignments points assignments to clusters
+     * @param points the points
+     * @param centers the centers of the clusters
+     * @param assignments points assignments to clusters (updated)
+     * @param members the indices of the points of each cluster (output)
      * @return the number of points assigned to different clusters as the iteration before
      */
-    private int assignPointsToClusters(final List<CentroidCluster<T>> clusters,
-                                       final Collection<T> points,
-                                       final int[] assignments) {
-        int assignedDifferently = 0;
-        int pointIndex = 0;
-        for (final T p : points) {
-            int clusterIndex = getNearestCluster(clusters, p);
-            if (clusterIndex != assignments[pointIndex]) {
-                assignedDifferently++;
-            }
+    private int assignPointsToClusters(final FlatPoints points,
+                                       final double[][] centers,
+                                       final int[] assignments,
+                                       final IntList[] members) {
+        final int n = points.size();
+        final int[] blockChanges = new int[(n + BLOCK_SIZE - 1) / BLOCK_SIZE];
+        ConcurrentTasks.runRanges(executor, n, BLOCK_SIZE, (from, to) -> {
+                final double[] x = new double[points.getDimension()];
+                int changes = 0;
+                for (int i = from; i < to; i++) {
+                    final int clusterIndex = getNearestCluster(centers, points.copy(i, x));
+                    if (clusterIndex != assignments[i]) {
+                        ++changes;
+                        assignments[i] = clusterIndex;
+                    }
+                }
+                blockChanges[from / BLOCK_SIZE] = changes;
+            });
 
-            CentroidCluster<T> cluster = clusters.get(clusterIndex);
-            cluster.addPoint(p);
-            assignments[pointIndex++] = clusterIndex;
+        // Clusters are filled in the order of the points.
+        for (final IntList m : members) {
+            m.clear();
+        }
+        for (int i = 0; i < n; i++) {
+            members[assignments[i]].add(i);
         }
 
+        int assignedDifferently = 0;
+        for (final int c : blockChanges) {
+            assignedDifferently += c;
+        }
         return assignedDifferently;
     }
 
     /**
      * Use K-means++ to choose the initial centers.
      *
-     * @param points the points to choose the initial centers from
+     * @param points the points
+     * @param subset the indices of the points to choose the initial centers
+     * from ({@code null} to choose among all the points)
      * @return the initial centers
      */
-    List<CentroidCluster<T>> chooseInitialCenters(final Collection<T> points) {
-
-        // Convert to list for indexed access. Make it unmodifiable, since removal of items
-        // would screw up the logic of this method.
-        final List<T> pointList = Collections.unmodifiableList(new ArrayList<>(points));
+    double[][] chooseInitialCenters(final FlatPoints points,
+                                    final int[] subset) {
 
-        // The number of points in the list.
-        final int numPoints = pointList.size();
+        // The number of candidate points.
+        final int numPoints = subset == null ? points.size() : subset.length;
 
         // Set the corresponding element in this array to indicate when
-        // elements of pointList are no longer available.
+        // candidates are no longer available.
         final boolean[] taken = new boolean[numPoints];
 
         // The resulting list of initial centers.
-        final List<CentroidCluster<T>> resultSet = new ArrayList<>();
+        final double[][] resultSet = new double[numberOfClusters][];
+        int numCenters = 0;
 
         // Choose one center uniformly at random from among the data points.
         final int firstPointIndex = random.nextInt(numPoints);
 
-        final T firstPoint = pointList.get(firstPointIndex);
+        final double[] firstPoint = points.get(index(subset, firstPointIndex));
 
-        resultSet.add(new CentroidCluster<>(firstPoint));
+        resultSet[numCenters++] = firstPoint;
 
         // Must mark it as taken
         taken[firstPointIndex] = true;
 
-        // To keep track of the minimum distance squared of elements of
-        // pointList to elements of resultSet.
+        // To keep track of the minimum distance squared of the candidates
+        // to elements of resultSet.
         final double[] minDistSquared = new double[numPoints];
 
         // Initialize the elements.  Since the only point in resultSet is firstPoint,
         // this is very easy.
-        for (int i = 0; i < numPoints; i++) {
-            if (i != firstPointIndex) { // That point isn't considered
-                double d = distance(firstPoint, pointList.get(i));
-                minDistSquared[i] = d*d;
-            }
-        }
+        ConcurrentTasks.runRanges(executor, numPoints, BLOCK_SIZE, (from, to) -> {
+                final double[] x = new double[points.getDimension()];
+                for (int i = from; i < to; i++) {
+                    if (i != firstPointIndex) { // That point isn't considered
+                        double d = distance(firstPoint, points.copy(index(subset, i), x));
+                        minDistSquared[i] = d*d;
+                    }
+                }
+            });
 
-        while (resultSet.size() < numberOfClusters) {
+        while (numCenters < numberOfClusters) {
 
-            // Sum up the squared distances for the points in pointList not
-            // already taken.
+            // Sum up the squared distances for the points not already taken.
             double distSqSum = 0.0;
 
             for (int i = 0; i < numPoints; i++) {
@@ -383,26 +602,29 @@ public class KMeansPlusPlusClusterer<T extends Clusterable> extends Clusterer<T>
             // We found one.
             if (nextPointIndex >= 0) {
 
-                final T p = pointList.get(nextPointIndex);
+                final double[] p = points.get(index(subset, nextPointIndex));
 
-                resultSet.add(new CentroidCluster<>(p));
+                resultSet[numCenters++] = p;
 
                 // Mark it as taken.
                 taken[nextPointIndex] = true;
 
-                if (resultSet.size() < numberOfClusters) {
+                if (numCenters < numberOfClusters) {
                     // Now update elements of minDistSquared.  We only have to compute
                     // the distance to the new center to do this.
-                    for (int j = 0; j < numPoints; j++) {
-                        // Only have to worry about the points still not taken.
-                        if (!taken[j]) {
-                            double d = distance(p, pointList.get(j));
-                            double d2 = d * d;
-                            if (d2 < minDistSquared[j]) {
-                                minDistSquared[j] = d2;
+                    ConcurrentTasks.runRanges(executor, numPoints, BLOCK_SIZE, (from, to) -> {
+                            final double[] x = new double[points.getDimension()];
+                            for (int j = from; j < to; j++) {
+                                // Only have to worry about the points still not taken.
+                                if (!taken[j]) {
+                                    double d = distance(p, points.copy(index(subset, j), x));
+                                    double d2 = d * d;
+                                    if (d2 < minDistSquared[j]) {
+                                        minDistSquared[j] = d2;
+                                    }
+                                }
                             }
-                        }
-                    }
+                        });
                 }
             } else {
                 // None found --
@@ -412,27 +634,44 @@ public class KMeansPlusPlusClusterer<T extends Clusterable> extends Clusterer<T>
             }
         }
 
-        return resultSet;
+        return Arrays.copyOf(resultSet, numCenters);
+    }
+
+    /**
+     * @param subset the indices of a subset of the points ({@code null}
+     * for all the points)
+     * @param i position in the subset
+     * @return the index of the point
+     */
+    private static int index(final int[] subset,
+                             final int i) {
+        return subset == null ? i : subset[i];
     }
 
     /**
-     * Get a random point from the {@link Cluster} with the largest distance variance.
+     * Get a random point from the cluster with the largest distance variance.
      *
-     * @param clusters the {@link Cluster}s to search
-     * @return a random point from the selected cluster
+     * @param points the points
+     * @param centers the centers of the clusters
+     * @param members the indices of the points of each cluster (the selected
+     * point is removed from its cluster)
+     * @return the index of a random point from the selected cluster
      * @throws ConvergenceException if clusters are all empty
      */
-    private T getPointFromLargestVarianceCluster(final Collection<CentroidCluster<T>> clusters) {
+    private int getPointFromLargestVarianceCluster(final FlatPoints points,
+                                                   final double[][] centers,
+                                                   final IntList[] members) {
+        final double[] x = new double[points.getDimension()];
         double maxVariance = Double.NEGATIVE_INFINITY;
-        Cluster<T> selected = null;
-        for (final CentroidCluster<T> cluster : clusters) {
-            if (!cluster.getPoints().isEmpty()) {
+        IntList selected = null;
+        for (int c = 0; c < members.length; c++) {
+            final IntList cluster = members[c];
+            if (!cluster.isEmpty()) {
 
                 // compute the distance variance of the current cluster
-                final Clusterable center = cluster.getCenter();
                 final Variance stat = Variance.create();
-                for (final T point : cluster.getPoints()) {
-                    stat.accept(distance(point, center));
+                for (int m = 0; m < cluster.size(); m++) {
+                    stat.accept(distance(points.copy(cluster.get(m), x), centers[c]));
                 }
                 final double variance = stat.getAsDouble();
 
@@ -450,24 +689,24 @@ public class KMeansPlusPlusClusterer<T extends Clusterable> extends Clusterer<T>
         }
 
         // extract a random point from the cluster
-        final List<T> selectedPoints = selected.getPoints();
-        return selectedPoints.remove(random.nextInt(selectedPoints.size()));
+        return selected.remove(random.nextInt(selected.size()));
     }
 
     /**
-     * Get a random point from the {@link Cluster} with the largest number of points.
+     * Get a random point from the cluster with the largest number of points.
      *
-     * @param clusters the {@link Cluster}s to search
-     * @return a random point from the selected cluster
+     * @param members the indices of the points of each cluster (the selected
+     * point is removed from its cluster)
+     * @return the index of a random point from the selected cluster
      * @throws ConvergenceException if clusters are all empty
      */
-    private T getPointFromLargestNumberCluster(final Collection<? extends Cluster<T>> clusters) {
+    private int getPointFromLargestNumberCluster(final IntList[] members) {
         int maxNumber = 0;
-        Cluster<T> selected = null;
-        for (final Cluster<T> cluster : clusters) {
+        IntList selected = null;
+        for (final IntList cluster : members) {
 
             // get the number of points of the current cluster
-            final int number = cluster.getPoints().size();
+            final int number = cluster.size();
 
             // select the cluster with the largest number of points
             if (number > maxNumber) {
@@ -482,28 +721,32 @@ public class KMeansPlusPlusClusterer<T extends Clusterable> extends Clusterer<T>
         }
 
         // extract a random point from the cluster
-        final List<T> selectedPoints = selected.getPoints();
-        return selectedPoints.remove(random.nextInt(selectedPoints.size()));
+        return selected.remove(random.nextInt(selected.size()));
     }
 
     /**
      * Get the point farthest to its cluster center.
      *
-     * @param clusters the {@link Cluster}s to search
-     * @return point farthest to its cluster center
+     * @param points the points
+     * @param centers the centers of the clusters
+     * @param members the indices of the points of each cluster (the selected
+     * point is removed from its cluster)
+     * @return the index of the point farthest to its cluster center
      * @throws ConvergenceException if clusters are all empty
      */
-    private T getFarthestPoint(final Collection<CentroidCluster<T>> clusters) {
+    private int getFarthestPoint(final FlatPoints points,
+                                 final double[][] centers,
+                                 final IntList[] members) {
+        final double[] x = new double[points.getDimension()];
         double maxDistance = Double.NEGATIVE_INFINITY;
-        Cluster<T> selectedCluster = null;
+        IntList selectedCluster = null;
         int selectedPoint = -1;
-        for (final CentroidCluster<T> cluster : clusters) {
+        for (int c = 0; c < members.length; c++) {
 
             // get the farthest point
-            final Clusterable center = cluster.getCenter();
-            final List<T> points = cluster.getPoints();
-            for (int i = 0; i < points.size(); ++i) {
-                final double distance = distance(points.get(i), center);
+            final IntList cluster = members[c];
+            for (int i = 0; i < cluster.size(); ++i) {
+                final double distance = distance(points.copy(cluster.get(i), x), centers[c]);
                 if (distance > maxDistance) {
                     maxDistance     = distance;
                     selectedCluster = cluster;
@@ -517,27 +760,26 @@ public class KMeansPlusPlusClusterer<T extends Clusterable> extends Clusterer<T>
             throw new ConvergenceException(LocalizedFormats.EMPTY_CLUSTER_IN_K_MEANS);
         }
 
-        return selectedCluster.getPoints().remove(selectedPoint);
+        return selectedCluster.remove(selectedPoint);
     }
 
     /**
-     * Returns the nearest {@link Cluster} to the given point.
+     * Returns the nearest cluster to the given point.
      *
-     * @param clusters the {@link Cluster}s to search
-     * @param point the point to find the nearest {@link Cluster} for
-     * @return the index of the nearest {@link Cluster} to the given point
+     * @param centers the centers of the clusters
+     * @param point the point to find the nearest cluster for
+     * @return the index of the nearest cluster to the given point
      */
-    private int getNearestCluster(final Collection<CentroidCluster<T>> clusters, final T point) {
+    private int getNearestCluster(final double[][] centers,
+                                  final double[] point) {
         double minDistance = Double.MAX_VALUE;
-        int clusterIndex = 0;
         int minCluster = 0;
-        for (final CentroidCluster<T> c : clusters) {
-            final double distance = distance(point, c.getCenter());
+        for (int c = 0; c < centers.length; c++) {
+            final double distance = distance(point, centers[c]);
             if (distance < minDistance) {
                 minDistance = distance;
-                minCluster = clusterIndex;
+                minCluster = c;
             }
-            clusterIndex++;
         }
         return minCluster;
     }
@@ -21,12 +21,9 @@ import org.apache.commons.math4.legacy.exception.NullArgumentException;
 import org.apache.commons.math4.legacy.exception.NumberIsTooSmallException;
 import org.apache.commons.math4.legacy.ml.distance.DistanceMeasure;
 import org.apache.commons.math4.legacy.core.Pair;
+import org.apache.commons.math4.legacy.util.ConcurrentTasks;
 import org.apache.commons.rng.UniformRandomProvider;
-import org.apache.commons.rng.sampling.ListSampler;
-
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
+import org.apache.commons.rng.sampling.PermutationSampler;
 
 /**
  * Clustering algorithm <a href="https://www.eecs.tufts.edu/~dsculley/papers/fastkmeans.pdf">
@@ -97,15 +94,14 @@ public class MiniBatchKMeansClusterer<T extends Clusterable>
     /**
      * Runs the MiniBatch K-means clustering algorithm.
      *
-     * @param points Points to cluster (cannot be {@code null}).
-     * @return the clusters.
+     * @param points Points to cluster.
+     * @return the clustering.
      * @throws org.apache.commons.math4.legacy.exception.MathIllegalArgumentException
      * if the number of points is smaller than the number of clusters.
      */
     @Override
-    public List<CentroidCluster<T>> cluster(final Collection<T> points) {
+    FlatClustering clusterPoints(final FlatPoints points) {
         // Sanity check.
-        NullArgumentException.check(points);
         if (points.size() < getNumberOfClusters()) {
             throw new NumberIsTooSmallException(points.size(), getNumberOfClusters(), false);
         }
@@ -116,122 +112,146 @@ public class MiniBatchKMeansClusterer<T extends Clusterable>
             Integer.MAX_VALUE :
             getMaxIterations() * batchCount;
 
-        final List<T> pointList = new ArrayList<>(points);
-        List<CentroidCluster<T>> clusters = initialCenters(pointList);
+        double[][] centers = initialCenters(points);
 
         final ImprovementEvaluator evaluator = new ImprovementEvaluator(batchSize,
                                                                         maxNoImprovementTimes);
         for (int i = 0; i < max; i++) {
-            clearClustersPoints(clusters);
-            final List<T> batchPoints = ListSampler.sample(getRandomGenerator(), pointList, batchSize);
+            final int[] batchPoints = sample(points.size(), batchSize);
             // Training step.
-            final Pair<Double, List<CentroidCluster<T>>> pair = step(batchPoints, clusters);
+            final Pair<Double, double[][]> pair = step(points, batchPoints, centers);
             final double squareDistance = pair.getFirst();
-            clusters = pair.getSecond();
+            centers = pair.getSecond();
             // Check whether the training can finished early.
             if (evaluator.converge(squareDistance, pointSize)) {
                 break;
             }
         }
 
-        // Add every mini batch points to their nearest cluster.
-        clearClustersPoints(clusters);
-        for (final T point : points) {
-            addToNearestCentroidCluster(point, clusters);
-        }
+        // Add every point to its nearest cluster.
+        final int[] labels = new int[pointSize];
+        final double[][] finalCenters = centers;
+        ConcurrentTasks.runRanges(getExecutor(), pointSize, BLOCK_SIZE, (from, to) -> {
+                final double[] x = new double[points.getDimension()];
+                for (int i = from; i < to; i++) {
+                    labels[i] = nearestCentroid(points.copy(i, x), finalCenters);
+                }
+            });
 
-        return clusters;
+        return new FlatClustering(labels, centers);
     }
 
     /**
-     * Helper method.
+     * Selects a random sample of the points.
      *
-     * @param clusters Clusters to clear.
+     * @param n Number of points.
+     * @param size Size of the sample.
+     * @return the indices of the selected points.
      */
-    private void clearClustersPoints(final List<CentroidCluster<T>> clusters) {
-        for (CentroidCluster<T> cluster : clusters) {
-            cluster.getPoints().clear();
-        }
+    private int[] sample(final int n,
+                         final int size) {
+        return new PermutationSampler(getRandomGenerator(), n, size).sample();
     }
 
     /**
      * Mini batch iteration step.
      *
-     * @param batchPoints Points selected for this batch.
-     * @param clusters Centers of the clusters.
-     * @return the squared distance of all the batch points to the nearest center.
+     * @param points Points.
+     * @param batchPoints Indices of the points selected for this batch.
+     * @param centers Centers of the clusters.
+     * @return the squared distance of all the batch points to the nearest center,
+     * and the new centers.
      */
-    private Pair<Double, List<CentroidCluster<T>>> step(final List<T> batchPoints,
-                                                        final List<CentroidCluster<T>> clusters) {
+    private Pair<Double, double[][]> step(final FlatPoints points,
+                                          final int[] batchPoints,
+                                          final double[][] centers) {
         // Add every mini batch points to their nearest cluster.
-        for (final T point : batchPoints) {
-            addToNearestCentroidCluster(point, clusters);
+        final double[] x = new double[points.getDimension()];
+        final IntList[] members = newMembers(centers.length);
+        for (final int i : batchPoints) {
+            members[nearestCentroid(points.copy(i, x), centers)].add(i);
         }
-        final List<CentroidCluster<T>> newClusters = adjustClustersCenters(clusters);
+        final double[][] newCenters = adjustClustersCenters(points, centers, members);
         // Add every mini batch points to their nearest cluster again.
         double squareDistance = 0.0;
-        for (T point : batchPoints) {
-            final double d = addToNearestCentroidCluster(point, newClusters);
+        for (final int i : batchPoints) {
+            points.copy(i, x);
+            final double d = distance(x, newCenters[nearestCentroid(x, newCenters)]);
             squareDistance += d * d;
         }
 
-        return new Pair<>(squareDistance, newClusters);
+        return new Pair<>(squareDistance, newCenters);
     }
 
     /**
      * Initializes the clusters centers.
      *
      * @param points Points used to initialize the centers.
-     * @return clusters with their center initialized.
+     * @return the centers.
      */
-    private List<CentroidCluster<T>> initialCenters(final List<T> points) {
-        final List<T> validPoints = initBatchSize < points.size() ?
-            ListSampler.sample(getRandomGenerator(), points, initBatchSize) :
-            new ArrayList<>(points);
+    private double[][] initialCenters(final FlatPoints points) {
+        final int n = points.size();
+        final int[] validPoints = initBatchSize < n ?
+            sample(n, initBatchSize) :
+            all(n);
         double nearestSquareDistance = Double.POSITIVE_INFINITY;
-        List<CentroidCluster<T>> bestCenters = null;
+        double[][] bestCenters = null;
 
         for (int i = 0; i < initIterations; i++) {
-            final List<T> initialPoints = (initBatchSize < points.size()) ?
-                ListSampler.sample(getRandomGenerator(), points, initBatchSize) :
-                new ArrayList<>(points);
-            final List<CentroidCluster<T>> clusters = chooseInitialCenters(initialPoints);
-            final Pair<Double, List<CentroidCluster<T>>> pair = step(validPoints, clusters);
+            final int[] initialPoints = (initBatchSize < n) ?
+                sample(n, initBatchSize) :
+                all(n);
+            final double[][] centers = chooseInitialCenters(points, initialPoints);
+            final Pair<Double, double[][]> pair = step(points, validPoints, centers);
             final double squareDistance = pair.getFirst();
-            final List<CentroidCluster<T>> newClusters = pair.getSecond();
+            final double[][] newCenters = pair.getSecond();
             //Find out a best centers that has the nearest total square distance.
             if (squareDistance < nearestSquareDistance) {
                 nearestSquareDistance = squareDistance;
-                bestCenters = newClusters;
+                bestCenters = newCenters;
             }
         }
         return bestCenters;
     }
 
     /**
-     * Adds a point to the cluster whose center is closest.
+     * @param n Number of points.
+     * @return the indices of all the points.
+     */
+    private static int[] all(final int n) {
+        final int[] indices = new int[n];
+        for (int i = 0; i < n; i++) {
+            indices[i] = i;
+        }
+        return indices;
+    }
+
+    /**
+     * Finds the center which is closest to a point.
      *
-     * @param point Point to add.
-     * @param clusters Clusters.
-     * @return the distance between point and the closest center.
+     * @param point Point.
+     * @param centers Centers of the clusters.
+     * @return the index of the closest center.
+     * @throws NullArgumentException if no distance is smaller than infinity.
      */
-    private double addToNearestCentroidCluster(final T point,
-                                               final List<CentroidCluster<T>> clusters) {
+    private int nearestCentroid(final double[] point,
+                                final double[][] centers) {
         double minDistance = Double.POSITIVE_INFINITY;
-        CentroidCluster<T> closestCentroidCluster = null;
+        int closest = -1;
 
         // Find cluster closest to the point.
-        for (CentroidCluster<T> centroidCluster : clusters) {
-            final double distance = distance(point, centroidCluster.getCenter());
+        for (int c = 0; c < centers.length; c++) {
+            final double distance = distance(point, centers[c]);
             if (distance < minDistance) {
                 minDistance = distance;
-                closestCentroidCluster = centroidCluster;
+                closest = c;
             }
         }
-        NullArgumentException.check(closestCentroidCluster);
-        closestCentroidCluster.addPoint(point);
+        if (closest < 0) {
+            throw new NullArgumentException();
+        }
 
-        return minDistance;
+        return closest;
     }
 
     /**
@@ -239,7 +259,7 @@ public class MiniBatchKMeansClusterer<T extends Clusterable>
      * The evaluator checks whether improvement occurred during the
      * {@link #maxNoImprovementTimes allowed number of successive iterations}.
      */
-    private static final class ImprovementEvaluator {
+    static final class ImprovementEvaluator {
         /** Batch size. */
         private final int batchSize;
         /** Maximum number of iterations during which no improvement is occuring. */
@@ -261,12 +281,54 @@ public class MiniBatchKMeansClusterer<T extends Clusterable>
          * @param maxNoImprovementTimes Maximum number of iterations during
          * which no improvement is occuring.
          */
-        private ImprovementEvaluator(int batchSize,
-                                     int maxNoImprovementTimes) {
+        ImprovementEvaluator(int batchSize,
+                             int maxNoImprovementTimes) {
             this.batchSize = batchSize;
             this.maxNoImprovementTimes = maxNoImprovementTimes;
         }
 
+        /**
+         * Restores the state of an evaluator.
+         *
+         * @param batchSize Number of elements for each batch iteration.
+         * @param maxNoImprovementTimes Maximum number of iterations during
+         * which no improvement is occuring.
+         * @param ewaInertia Current average inertia.
+         * @param ewaInertiaMin Minimum average inertia.
+         * @param noImprovementTimes Number of iterations without improvement.
+         */
+        ImprovementEvaluator(int batchSize,
+                             int maxNoImprovementTimes,
+                             double ewaInertia,
+                             double ewaInertiaMin,
+                             int noImprovementTimes) {
+            this(batchSize, maxNoImprovementTimes);
+            this.ewaInertia = ewaInertia;
+            this.ewaInertiaMin = ewaInertiaMin;
+            this.noImprovementTimes = noImprovementTimes;
+        }
+
+        /**
+         * @return the current average inertia.
+         */
+        double getEwaInertia() {
+            return ewaInertia;
+        }
+
+        /**
+         * @return the minimum of the average inertia.
+         */
+        double getEwaInertiaMin() {
+            return ewaInertiaMin;
+        }
+
+        /**
+         * @return the number of successive iterations without improvement.
+         */
+        int getNoImprovementTimes() {
+            return noImprovementTimes;
+        }
+
         /**
          * Stopping criterion.
          *
@@ -278,11 +340,27 @@ public class MiniBatchKMeansClusterer<T extends Clusterable>
          */
         public boolean converge(final double squareDistance,
                                 final int pointSize) {
-            final double batchInertia = squareDistance / batchSize;
+            return converge(squareDistance, batchSize, pointSize);
+        }
+
+        /**
+         * Stopping criterion.
+         *
+         * @param squareDistance Total square distance from the batch points
+         * to their nearest center.
+         * @param size Number of points in the batch.
+         * @param pointSize Number of data points.
+         * @return {@code true} if no improvement was made after the allowed
+         * number of iterations, {@code false} otherwise.
+         */
+        boolean converge(final double squareDistance,
+                         final int size,
+                         final double pointSize) {
+            final double batchInertia = squareDistance / size;
             if (Double.isNaN(ewaInertia)) {
                 ewaInertia = batchInertia;
             } else {
-                final double alpha = Math.min(batchSize * 2 / (pointSize + 1), 1);
+                final double alpha = Math.min(size * 2d / (pointSize + 1), 1);
                 ewaInertia = ewaInertia * (1 - alpha) + batchInertia * alpha;
             }
 
@@ -0,0 +1,426 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.ml.clustering;
+
+import java.io.Serializable;
+import java.nio.DoubleBuffer;
+import java.util.Collection;
+
+import org.apache.commons.math4.legacy.exception.DimensionMismatchException;
+import org.apache.commons.math4.legacy.exception.MathIllegalStateException;
+import org.apache.commons.math4.legacy.exception.NullArgumentException;
+import org.apache.commons.math4.legacy.exception.NumberIsTooSmallException;
+import org.apache.commons.math4.legacy.ml.distance.DistanceMeasure;
+import org.apache.commons.rng.UniformRandomProvider;
+
+/**
+ * Online version of the <a href="https://www.eecs.tufts.edu/~dsculley/papers/fastkmeans.pdf">
+ * mini-batch k-means</a> algorithm, for data that arrives in batches (e.g.
+ * an unbounded stream) and is not kept in memory.
+ *
+ * <p>The centers are initialized with the k-means++ seeding applied to the
+ * first batch.  Each subsequent point {@code x} of a batch is assigned to its
+ * nearest center {@code c} (as computed before the batch is processed), and
+ * the center is moved towards the point:
+ * <pre>
+ *   n<sub>c</sub> = n<sub>c</sub> + 1
+ *   c = (1 - 1 / n<sub>c</sub>) c + x / n<sub>c</sub>
+ * </pre>
+ * where n<sub>c</sub> is the number of points assigned so far to {@code c}
+ * (i.e. each center has its own learning rate 1 / n<sub>c</sub>, and is the
+ * running mean of the points assigned to it).</p>
+ *
+ * <p>Convergence is monitored as in {@link MiniBatchKMeansClusterer}: an
+ * exponentially weighted average of the inertia of the batches (mean squared
+ * distance of the points to their nearest center) is tracked, and the model
+ * is considered to have converged when it did not improve during a given
+ * number of successive batches.  Updates are still allowed afterwards.</p>
+ *
+ * <p>The state of the model can be {@link #getState() saved} and
+ * {@link #OnlineMiniBatchKMeans(State,DistanceMeasure,UniformRandomProvider)
+ * restored}.</p>
+ *
+ * <p>This class is not thread-safe.</p>
+ *
+ * @since 4.0
+ */
+public class OnlineMiniBatchKMeans {
+    /** Number of clusters. */
+    private final int k;
+    /** Maximum number of batches during which no improvement is occurring. */
+    private final int maxNoImprovementTimes;
+    /** Distance. */
+    private final DistanceMeasure measure;
+    /** Random generator (for the seeding). */
+    private final UniformRandomProvider random;
+    /** Centers ({@code null} until the first batch is processed). */
+    private double[][] centroids;
+    /** Number of points assigned to each center. */
+    private final long[] counts;
+    /** Number of points processed. */
+    private long pointCount;
+    /** Convergence checker. */
+    private MiniBatchKMeansClusterer.ImprovementEvaluator evaluator;
+
+    /**
+     * @param k Number of clusters.
+     * @param maxNoImprovementTimes Maximum number of successive batches during
+     * which no improvement is occurring, before the model is considered to have
+     * converged.  A value of 10 is suitable in most cases.
+     * @param measure Distance measure.
+     * @param random Random generator used for choosing the initial centers.
+     * @throws NumberIsTooSmallException if {@code k < 1} or
+     * {@code maxNoImprovementTimes < 1}.
+     */
+    public OnlineMiniBatchKMeans(int k,
+                                 int maxNoImprovementTimes,
+                                 DistanceMeasure measure,
+                                 UniformRandomProvider random) {
+        if (k < 1) {
+            throw new NumberIsTooSmallException(k, 1, true);
+        }
+        if (maxNoImprovementTimes < 1) {
+            throw new NumberIsTooSmallException(maxNoImprovementTimes, 1, true);
+        }
+
+        this.k = k;
+        this.maxNoImprovementTimes = maxNoImprovementTimes;
+        this.measure = measure;
+        this.random = random;
+        counts = new long[k];
+        evaluator = new MiniBatchKMeansClusterer.ImprovementEvaluator(1, maxNoImprovementTimes);
+    }
+
+    /**
+     * Restores a model.
+     *
+     * @param state State of the model, as returned by {@link #getState()}.
+     * @param measure Distance measure.
+     * @param random Random generator used for choosing the initial centers
+     * (only used if the state was saved before the first update).
+     */
+    public OnlineMiniBatchKMeans(State state,
+                                 DistanceMeasure measure,
+                                 UniformRandomProvider random) {
+        this(state.k, state.maxNoImprovementTimes, measure, random);
+        centroids = copy(state.centroids);
+        System.arraycopy(state.counts, 0, counts, 0, k);
+        pointCount = state.pointCount;
+        evaluator = new MiniBatchKMeansClusterer.ImprovementEvaluator(1,
+                                                                      maxNoImprovementTimes,
+                                                                      state.ewaInertia,
+                                                                      state.ewaInertiaMin,
+                                                                      state.noImprovementTimes);
+    }
+
+    /**
+     * Updates the model with a batch of points.
+     *
+     * @param <T> Type of the points.
+     * @param batch Points.
+     * @return {@code true} if the model has converged.
+     * @throws NumberIsTooSmallException if this is the first batch and it
+     * contains fewer points than the number of clusters.
+     * @throws DimensionMismatchException if the points do not have the
+     * same dimension as the points of the previous batches.
+     */
+    public <T extends Clusterable> boolean update(Collection<T> batch) {
+        NullArgumentException.check(batch);
+        return update(FlatPoints.of(batch));
+    }
+
+    /**
+     * Updates the model with a batch of points whose coordinates are stored
+     * in a single array.
+     *
+     * @param batch Coordinates of the points, in row-major order.
+     * @param dimension Dimension of the points.
+     * @return {@code true} if the model has converged.
+     * @throws NumberIsTooSmallException if this is the first batch and it
+     * contains fewer points than the number of clusters.
+     * @throws DimensionMismatchException if the points do not have the
+     * same dimension as the points of the previous batches.
+     * @throws org.apache.commons.math4.legacy.exception.MathIllegalArgumentException
+     * if the length of {@code batch} is not a multiple of {@code dimension}.
+     */
+    public boolean update(double[] batch,
+                          int dimension) {
+        return update(FlatPoints.of(batch, dimension));
+    }
+
+    /**
+     * Updates the model with a batch of points whose coordinates are stored
+     * in a buffer (from its current position to its limit).
+     *
+     * @param batch Coordinates of the points, in row-major order.
+     * @param dimension Dimension of the points.
+     * @return {@code true} if the model has converged.
+     * @throws NumberIsTooSmallException if this is the first batch and it
+     * contains fewer points than the number of clusters.
+     * @throws DimensionMismatchException if the points do not have the
+     * same dimension as the points of the previous batches.
+     * @throws org.apache.commons.math4.legacy.exception.MathIllegalArgumentException
+     * if the number of remaining elements is not a multiple of {@code dimension}.
+     */
+    public boolean update(DoubleBuffer batch,
+                          int dimension) {
+        return update(FlatPoints.of(batch, dimension));
+    }
+
+    /**
+     * Indicates whether the inertia did not improve during the allowed number
+     * of successive batches.
+     *
+     * @return {@code true} if the model has converged.
+     */
+    public boolean hasConverged() {
+        return evaluator.getNoImprovementTimes() >= maxNoImprovementTimes;
+    }
+
+    /**
+     * @return the number of points processed so far.
+     */
+    public long getPointCount() {
+        return pointCount;
+    }
+
+    /**
+     * Gets the centers of the clusters.
+     *
+     * @return a matrix whose row {@code c} contains the coordinates of
+     * the center of cluster {@code c}.
+     * @throws MathIllegalStateException if no batch has been processed.
+     */
+    public double[][] getCentroids() {
+        checkInitialized();
+        return copy(centroids);
+    }
+
+    /**
+     * Gets the number of points assigned to each cluster.
+     * The learning rate of a center is the inverse of its count.
+     *
+     * @return the number of points assigned to each cluster.
+     */
+    public long[] getCounts() {
+        return counts.clone();
+    }
+
+    /**
+     * Finds the cluster of a point.
+     *
+     * @param point Point.
+     * @return the index of the closest center.
+     * @throws MathIllegalStateException if no batch has been processed.
+     * @throws DimensionMismatchException if the point does not have the
+     * same dimension as the centers.
+     */
+    public int predict(double[] point) {
+        checkInitialized();
+        if (point.length != centroids[0].length) {
+            throw new DimensionMismatchException(point.length, centroids[0].length);
+        }
+        return nearest(point);
+    }
+
+    /**
+     * Finds the cluster of points whose coordinates are stored in a single
+     * array.
+     *
+     * @param points Coordinates of the points, in row-major order.
+     * @param dimension Dimension of the points.
+     * @return the index of the closest center of each point.
+     * @throws MathIllegalStateException if no batch has been processed.
+     * @throws DimensionMismatchException if the points do not have the
+     * same dimension as the centers.
+     * @throws org.apache.commons.math4.legacy.exception.MathIllegalArgumentException
+     * if the length of {@code points} is not a multiple of {@code dimension}.
+     */
+    public int[] predict(double[] points,
+                         int dimension) {
+        checkInitialized();
+        final FlatPoints p = FlatPoints.of(points, dimension);
+        checkDimension(p);
+        final int[] labels = new int[p.size()];
+        final double[] x = new double[dimension];
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = nearest(p.copy(i, x));
+        }
+        return labels;
+    }
+
+    /**
+     * Saves the state of the model.
+     *
+     * @return a snapshot of the model.
+     */
+    public State getState() {
+        return new State(this);
+    }
+
+    /**
+     * @param batch Points.
+     * @return {@code true} if the model has converged.
+     */
+    private boolean update(FlatPoints batch) {
+        final int n = batch.size();
+        if (centroids == null) {
+            if (n < k) {
+                throw new NumberIsTooSmallException(n, k, false);
+            }
+            final KMeansPlusPlusClusterer<DoublePoint> seeder =
+                new KMeansPlusPlusClusterer<>(k, 1, measure, random);
+            centroids = seeder.chooseInitialCenters(batch, null);
+        } else {
+            checkDimension(batch);
+        }
+        if (n == 0) {
+            return hasConverged();
+        }
+
+        // Assignments use the centers as they were before the batch.
+        final int[] labels = new int[n];
+        final double[] x = new double[batch.getDimension()];
+        final double[] distance = new double[1];
+        double squareDistance = 0;
+        for (int i = 0; i < n; i++) {
+            batch.copy(i, x);
+            final int c = nearest(x, distance);
+            final double d = distance[0];
+            squareDistance += d * d;
+            labels[i] = c;
+        }
+
+        for (int i = 0; i < n; i++) {
+            final int c = labels[i];
+            final double eta = 1d / ++counts[c];
+            final double[] center = centroids[c];
+            batch.copy(i, x);
+            for (int j = 0; j < x.length; j++) {
+                center[j] += eta * (x[j] - center[j]);
+            }
+        }
+
+        pointCount += n;
+        return evaluator.converge(squareDistance, n, pointCount);
+    }
+
+    /**
+     * @param point Point.
+     * @return the index of the closest center.
+     */
+    private int nearest(double[] point) {
+        return nearest(point, null);
+    }
+
+    /**
+     * @param point Point.
+     * @param distance If not {@code null}, its first element is set to the
+     * distance between the point and the closest center.
+     * @return the index of the closest center.
+     */
+    private int nearest(double[] point,
+                        double[] distance) {
+        double minDistance = Double.POSITIVE_INFINITY;
+        int closest = 0;
+        for (int c = 0; c < k; c++) {
+            final double d = measure.compute(point, centroids[c]);
+            if (d < minDistance) {
+                minDistance = d;
+                closest = c;
+            }
+        }
+        if (distance != null) {
+            distance[0] = minDistance;
+        }
+        return closest;
+    }
+
+    /**
+     * @param points Points.
+     * @throws DimensionMismatchException if the points do not have the
+     * same dimension as the centers.
+     */
+    private void checkDimension(FlatPoints points) {
+        if (points.size() != 0 &&
+            points.getDimension() != centroids[0].length) {
+            throw new DimensionMismatchException(points.getDimension(), centroids[0].length);
+        }
+    }
+
+    /**
+     * @throws MathIllegalStateException if no batch has been processed.
+     */
+    private void checkInitialized() {
+        if (centroids == null) {
+            throw new MathIllegalStateException();
+        }
+    }
+
+    /**
+     * @param m Matrix (may be {@code null}).
+     * @return a deep copy of {@code m}.
+     */
+    private static double[][] copy(double[][] m) {
+        if (m == null) {
+            return null;
+        }
+        final double[][] c = new double[m.length][];
+        for (int i = 0; i < m.length; i++) {
+            c[i] = m[i].clone();
+        }
+        return c;
+    }
+
+    /**
+     * Snapshot of the state of a model.
+     */
+    public static final class State implements Serializable {
+        /** Serializable version identifier. */
+        private static final long serialVersionUID = 20261018L;
+        /** Number of clusters. */
+        private final int k;
+        /** Maximum number of batches during which no improvement is occurring. */
+        private final int maxNoImprovementTimes;
+        /** Centers (may be {@code null}). */
+        private final double[][] centroids;
+        /** Number of points assigned to each center. */
+        private final long[] counts;
+        /** Number of points processed. */
+        private final long pointCount;
+        /** Average inertia. */
+        private final double ewaInertia;
+        /** Minimum average inertia. */
+        private final double ewaInertiaMin;
+        /** Number of batches without improvement. */
+        private final int noImprovementTimes;
+
+        /**
+         * @param model Model.
+         */
+        State(OnlineMiniBatchKMeans model) {
+            k = model.k;
+            maxNoImprovementTimes = model.maxNoImprovementTimes;
+            centroids = copy(model.centroids);
+            counts = model.counts.clone();
+            pointCount = model.pointCount;
+            ewaInertia = model.evaluator.getEwaInertia();
+            ewaInertiaMin = model.evaluator.getEwaInertiaMin();
+            noImprovementTimes = model.evaluator.getNoImprovementTimes();
+        }
+    }
+}
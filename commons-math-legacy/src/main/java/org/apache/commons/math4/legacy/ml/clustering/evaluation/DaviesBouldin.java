@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.ml.clustering.evaluation;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+import org.apache.commons.math4.legacy.exception.InsufficientDataException;
+import org.apache.commons.math4.legacy.ml.clustering.Cluster;
+import org.apache.commons.math4.legacy.ml.clustering.ClusterEvaluator;
+import org.apache.commons.math4.legacy.ml.clustering.Clusterable;
+import org.apache.commons.math4.legacy.ml.distance.DistanceMeasure;
+import org.apache.commons.math4.legacy.util.ConcurrentTasks;
+
+/**
+ * Computes the Davies-Bouldin index.
+ * <p>
+ * The score is defined as
+ * <pre>
+ *   DB = 1/k \sum_i max_{j != i} (s_i + s_j) / d(c_i, c_j)
+ * </pre>
+ * where {@code k} is the number of clusters, {@code c_i} is the centroid of
+ * cluster {@code i} and {@code s_i} is the mean distance between the points
+ * of cluster {@code i} and its centroid.  Lower is better; empty clusters
+ * are ignored.
+ * <p>
+ * The computation is linear in the number of points; the distances to the
+ * centroids can be computed concurrently (the result does not depend on the
+ * number of threads).
+ *
+ * @see <a href="https://doi.org/10.1109/TPAMI.1979.4766909">A Cluster
+ * Separation Measure</a>
+ * @since 4.0
+ */
+public class DaviesBouldin implements ClusterEvaluator {
+    /** Number of points processed by a task. */
+    private static final int BLOCK_SIZE = 4096;
+    /** Distance. */
+    private final DistanceMeasure measure;
+    /** Executor. */
+    private final ExecutorService executor;
+
+    /**
+     * @param measure Distance measure.
+     */
+    public DaviesBouldin(DistanceMeasure measure) {
+        this(measure, null);
+    }
+
+    /**
+     * @param measure Distance measure.
+     * @param executor Executor ({@code null} for computing in the calling thread).
+     */
+    public DaviesBouldin(DistanceMeasure measure,
+                         ExecutorService executor) {
+        this.measure = measure;
+        this.executor = executor;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws InsufficientDataException if fewer than two clusters
+     * contain points.
+     */
+    @Override
+    public double score(List<? extends Cluster<? extends Clusterable>> clusters) {
+        final LabeledPoints data = LabeledPoints.of(clusters);
+        if (data.getNumberOfNonEmptyClusters() < 2) {
+            throw new InsufficientDataException();
+        }
+
+        final int n = data.size();
+        final int k = data.getNumberOfClusters();
+        final double[][] centroids = data.centroids();
+
+        final double[] distances = new double[n];
+        ConcurrentTasks.runRanges(executor, n, BLOCK_SIZE, (from, to) -> {
+                for (int i = from; i < to; i++) {
+                    distances[i] = measure.compute(data.get(i), centroids[data.label(i)]);
+                }
+            });
+        final double[] scatter = new double[k];
+        for (int i = 0; i < n; i++) {
+            scatter[data.label(i)] += distances[i];
+        }
+        for (int c = 0; c < k; c++) {
+            if (centroids[c] != null) {
+                scatter[c] /= data.clusterSize(c);
+            }
+        }
+
+        final double[] worst = new double[k];
+        ConcurrentTasks.run(executor, k, i -> {
+                if (centroids[i] == null) {
+                    return;
+                }
+                double max = 0;
+                for (int j = 0; j < k; j++) {
+                    if (j != i &&
+                        centroids[j] != null) {
+                        final double r = (scatter[i] + scatter[j]) /
+                            measure.compute(centroids[i], centroids[j]);
+                        max = Math.max(max, r);
+                    }
+                }
+                worst[i] = max;
+            });
+
+        double sum = 0;
+        for (final double w : worst) {
+            sum += w;
+        }
+        return sum / data.getNumberOfNonEmptyClusters();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean isBetterScore(double a,
+                                 double b) {
+        return a < b;
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.ml.clustering.evaluation;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+import org.apache.commons.math4.legacy.exception.NotPositiveException;
+import org.apache.commons.math4.legacy.exception.NotStrictlyPositiveException;
+import org.apache.commons.math4.legacy.ml.clustering.Cluster;
+import org.apache.commons.math4.legacy.ml.clustering.ClusterEvaluator;
+import org.apache.commons.math4.legacy.ml.clustering.Clusterable;
+import org.apache.commons.math4.legacy.ml.clustering.DoublePoint;
+import org.apache.commons.math4.legacy.ml.clustering.FlatClustering;
+import org.apache.commons.math4.legacy.ml.clustering.KMeansPlusPlusClusterer;
+import org.apache.commons.math4.legacy.ml.distance.DistanceMeasure;
+import org.apache.commons.math4.legacy.util.ConcurrentTasks;
+import org.apache.commons.math4.core.jdkmath.JdkMath;
+import org.apache.commons.rng.UniformRandomProvider;
+import org.apache.commons.rng.simple.RandomSource;
+
+/**
+ * Computes the gap statistic.
+ * <p>
+ * The within-cluster dispersion of a clustering into {@code k} clusters is
+ * <pre>
+ *   W_k = \sum_i d(x_i, c(x_i))<sup>2</sup>
+ * </pre>
+ * where {@code c(x)} is the centroid of the cluster of {@code x}.  The gap is
+ * the difference between the mean of {@code log(W_k)} over reference data
+ * sets (drawn uniformly within the bounding box of the points, and clustered
+ * with {@link KMeansPlusPlusClusterer k-means++} into the same number of
+ * clusters) and {@code log(W_k)} for the actual clustering.  Higher is better.
+ * Empty clusters are ignored.
+ * <p>
+ * Each reference data set is generated and clustered by a separate task,
+ * with its own generator seeded from the generator passed to the
+ * constructor, so that the result does not depend on the number of threads.
+ * The cost can be reduced by using reference data sets that contain fewer
+ * points than the clustered data; the reference dispersion is then scaled
+ * by the ratio of the number of points.
+ * <p>
+ * A dispersion may be zero (e.g. when the points of each cluster are
+ * identical, or when there are as many clusters as points), in which case
+ * its logarithm is {@code -infinity}.  The score is then
+ * <ul>
+ *  <li>0 if both the dispersion of the clustering and that of some
+ *   reference data set are zero (the clustering is not distinguishable
+ *   from the reference),</li>
+ *  <li>{@code +infinity} if only the dispersion of the clustering is zero,</li>
+ *  <li>{@code -infinity} if only the dispersion of some reference data
+ *   set is zero.</li>
+ * </ul>
+ * <p>
+ * The seeds of the reference data sets are drawn once, when the instance
+ * is created, so that all the clusterings scored by the same instance are
+ * compared against the same reference dispersions (for a given number of
+ * points, number of clusters and bounding box): their ranking is thus not
+ * affected by the sampling noise of the references.
+ *
+ * @see <a href="https://doi.org/10.1111/1467-9868.00293">Estimating the
+ * number of clusters in a data set via the gap statistic</a>
+ * @since 4.0
+ */
+public class GapStatistic implements ClusterEvaluator {
+    /** Default maximum number of iterations for clustering the reference data. */
+    private static final int DEFAULT_MAX_ITERATIONS = 100;
+    /** Distance. */
+    private final DistanceMeasure measure;
+    /** Number of reference data sets. */
+    private final int references;
+    /** Number of points in a reference data set (0 to use the number of points). */
+    private final int referenceSize;
+    /** Maximum number of iterations for clustering the reference data. */
+    private final int maxIterations;
+    /** Seeds of the generators of the reference data sets. */
+    private final long[] seeds;
+    /** Executor. */
+    private final ExecutorService executor;
+
+    /**
+     * Reference data sets have the same size as the clustered data, and are
+     * processed in the calling thread.
+     *
+     * @param measure Distance measure.
+     * @param references Number of reference data sets.
+     * @param random Random generator (used by the constructor only).
+     * @throws NotStrictlyPositiveException if {@code references <= 0}.
+     */
+    public GapStatistic(DistanceMeasure measure,
+                        int references,
+                        UniformRandomProvider random) {
+        this(measure, references, 0, DEFAULT_MAX_ITERATIONS, random, null);
+    }
+
+    /**
+     * @param measure Distance measure.
+     * @param references Number of reference data sets.
+     * @param referenceSize Number of points in a reference data set; if it is 0
+     * or larger than the number of clustered points, the number of clustered
+     * points is used.
+     * @param maxIterations Maximum number of iterations for clustering the
+     * reference data sets.
+     * @param random Random generator (used by the constructor only).
+     * @param executor Executor ({@code null} for computing in the calling thread).
+     * @throws NotStrictlyPositiveException if {@code references <= 0} or
+     * {@code maxIterations <= 0}.
+     * @throws NotPositiveException if {@code referenceSize < 0}.
+     */
+    public GapStatistic(DistanceMeasure measure,
+                        int references,
+                        int referenceSize,
+                        int maxIterations,
+                        UniformRandomProvider random,
+                        ExecutorService executor) {
+        if (references <= 0) {
+            throw new NotStrictlyPositiveException(references);
+        }
+        if (referenceSize < 0) {
+            throw new NotPositiveException(referenceSize);
+        }
+        if (maxIterations <= 0) {
+            throw new NotStrictlyPositiveException(maxIterations);
+        }
+        this.measure = measure;
+        this.references = references;
+        this.referenceSize = referenceSize;
+        this.maxIterations = maxIterations;
+        seeds = new long[references];
+        for (int b = 0; b < references; b++) {
+            seeds[b] = random.nextLong();
+        }
+        this.executor = executor;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double score(List<? extends Cluster<? extends Clusterable>> clusters) {
+        final LabeledPoints data = LabeledPoints.of(clusters);
+        final int n = data.size();
+        final int dim = data.getDimension();
+        final int k = data.getNumberOfNonEmptyClusters();
+
+        final double[][] centroids = data.centroids();
+        double dispersion = 0;
+        for (int i = 0; i < n; i++) {
+            final double d = measure.compute(data.get(i), centroids[data.label(i)]);
+            dispersion += d * d;
+        }
+
+        // Bounding box.
+        final double[] min = data.get(0).clone();
+        final double[] max = data.get(0).clone();
+        for (int i = 1; i < n; i++) {
+            final double[] p = data.get(i);
+            for (int j = 0; j < dim; j++) {
+                min[j] = Math.min(min[j], p[j]);
+                max[j] = Math.max(max[j], p[j]);
+            }
+        }
+
+        final int m = Math.max(referenceSize == 0 ? n : Math.min(referenceSize, n), k);
+        final double logScale = JdkMath.log((double) n / m);
+
+        final double[] logDispersions = new double[references];
+        ConcurrentTasks.run(executor, references, b -> {
+                final UniformRandomProvider rng = RandomSource.MT_64.create(seeds[b]);
+                final double[] reference = new double[m * dim];
+                for (int i = 0; i < m; i++) {
+                    for (int j = 0; j < dim; j++) {
+                        reference[i * dim + j] = min[j] + rng.nextDouble() * (max[j] - min[j]);
+                    }
+                }
+                final FlatClustering result =
+                    new KMeansPlusPlusClusterer<DoublePoint>(k, maxIterations, measure, rng).cluster(reference, dim);
+                logDispersions[b] = JdkMath.log(dispersion(reference, dim, result)) + logScale;
+            });
+
+        double sum = 0;
+        for (final double l : logDispersions) {
+            sum += l;
+        }
+        if (dispersion == 0) {
+            // Avoid "-inf - (-inf)".
+            return sum == Double.NEGATIVE_INFINITY ? 0 : Double.POSITIVE_INFINITY;
+        }
+        return sum / references - JdkMath.log(dispersion);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean isBetterScore(double a,
+                                 double b) {
+        return a > b;
+    }
+
+    /**
+     * @param points Coordinates of the points.
+     * @param dim Dimension of the points.
+     * @param clustering Clustering of the points.
+     * @return the sum of the squared distances between the points and
+     * the centroid of their cluster.
+     */
+    private double dispersion(double[] points,
+                              int dim,
+                              FlatClustering clustering) {
+        final int[] labels = clustering.getLabels();
+        final double[][] centroids = clustering.getCentroids();
+        final double[] p = new double[dim];
+        double sum = 0;
+        for (int i = 0; i < labels.length; i++) {
+            System.arraycopy(points, i * dim, p, 0, dim);
+            final double d = measure.compute(p, centroids[labels[i]]);
+            sum += d * d;
+        }
+        return sum;
+    }
+}
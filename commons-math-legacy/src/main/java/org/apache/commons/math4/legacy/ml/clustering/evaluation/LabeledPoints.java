@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.ml.clustering.evaluation;
+
+import java.util.List;
+
+import org.apache.commons.math4.legacy.exception.DimensionMismatchException;
+import org.apache.commons.math4.legacy.exception.InsufficientDataException;
+import org.apache.commons.math4.legacy.ml.clustering.Cluster;
+import org.apache.commons.math4.legacy.ml.clustering.Clusterable;
+
+/**
+ * Points of a list of clusters, with the index of the cluster to which
+ * each of them belongs.
+ */
+final class LabeledPoints {
+    /** Coordinates of the points (not copied). */
+    private final double[][] points;
+    /** Index of the cluster of each point. */
+    private final int[] labels;
+    /** Number of points in each cluster. */
+    private final int[] sizes;
+
+    /**
+     * @param points Coordinates of the points.
+     * @param labels Index of the cluster of each point.
+     * @param sizes Number of points in each cluster.
+     */
+    private LabeledPoints(double[][] points,
+                          int[] labels,
+                          int[] sizes) {
+        this.points = points;
+        this.labels = labels;
+        this.sizes = sizes;
+    }
+
+    /**
+     * @param clusters Clusters (some of which may be empty).
+     * @return the points of the clusters.
+     * @throws InsufficientDataException if there are no points.
+     * @throws DimensionMismatchException if the points do not all have
+     * the same dimension.
+     */
+    static LabeledPoints of(List<? extends Cluster<? extends Clusterable>> clusters) {
+        final int k = clusters.size();
+        final int[] sizes = new int[k];
+        int n = 0;
+        for (int c = 0; c < k; c++) {
+            sizes[c] = clusters.get(c).getPoints().size();
+            n += sizes[c];
+        }
+        if (n == 0) {
+            throw new InsufficientDataException();
+        }
+
+        final double[][] points = new double[n][];
+        final int[] labels = new int[n];
+        int i = 0;
+        for (int c = 0; c < k; c++) {
+            for (final Clusterable p : clusters.get(c).getPoints()) {
+                points[i] = p.getPoint();
+                if (points[i].length != points[0].length) {
+                    throw new DimensionMismatchException(points[i].length, points[0].length);
+                }
+                labels[i] = c;
+                ++i;
+            }
+        }
+        return new LabeledPoints(points, labels, sizes);
+    }
+
+    /**
+     * @return the number of points.
+     */
+    int size() {
+        return points.length;
+    }
+
+    /**
+     * @return the dimension of the points.
+     */
+    int getDimension() {
+        return points[0].length;
+    }
+
+    /**
+     * @return the number of clusters (including the empty ones).
+     */
+    int getNumberOfClusters() {
+        return sizes.length;
+    }
+
+    /**
+     * @return the number of clusters that contain at least one point.
+     */
+    int getNumberOfNonEmptyClusters() {
+        int count = 0;
+        for (final int s : sizes) {
+            if (s != 0) {
+                ++count;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @param i Index of a point.
+     * @return the coordinates of the point (not copied).
+     */
+    double[] get(int i) {
+        return points[i];
+    }
+
+    /**
+     * @param i Index of a point.
+     * @return the index of the cluster of the point.
+     */
+    int label(int i) {
+        return labels[i];
+    }
+
+    /**
+     * @param c Index of a cluster.
+     * @return the number of points in the cluster.
+     */
+    int clusterSize(int c) {
+        return sizes[c];
+    }
+
+    /**
+     * Computes the mean of the points of each cluster.
+     *
+     * @return the centroids (the row of an empty cluster is {@code null}).
+     */
+    double[][] centroids() {
+        final int dim = getDimension();
+        final double[][] centroids = new double[sizes.length][];
+        for (int c = 0; c < sizes.length; c++) {
+            if (sizes[c] != 0) {
+                centroids[c] = new double[dim];
+            }
+        }
+        for (int i = 0; i < points.length; i++) {
+            final double[] centroid = centroids[labels[i]];
+            final double[] p = points[i];
+            for (int j = 0; j < dim; j++) {
+                centroid[j] += p[j];
+            }
+        }
+        for (int c = 0; c < sizes.length; c++) {
+            if (sizes[c] != 0) {
+                final double[] centroid = centroids[c];
+                for (int j = 0; j < dim; j++) {
+                    centroid[j] /= sizes[c];
+                }
+            }
+        }
+        return centroids;
+    }
+}
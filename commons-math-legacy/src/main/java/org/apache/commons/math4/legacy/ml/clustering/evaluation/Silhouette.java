@@ -0,0 +1,194 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.ml.clustering.evaluation;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+import org.apache.commons.math4.legacy.exception.InsufficientDataException;
+import org.apache.commons.math4.legacy.exception.NotStrictlyPositiveException;
+import org.apache.commons.math4.legacy.ml.clustering.Cluster;
+import org.apache.commons.math4.legacy.ml.clustering.ClusterEvaluator;
+import org.apache.commons.math4.legacy.ml.clustering.Clusterable;
+import org.apache.commons.math4.legacy.ml.distance.DistanceMeasure;
+import org.apache.commons.math4.legacy.util.ConcurrentTasks;
+import org.apache.commons.rng.UniformRandomProvider;
+import org.apache.commons.rng.sampling.PermutationSampler;
+
+/**
+ * Computes the mean silhouette coefficient of the points.
+ * <p>
+ * The silhouette of a point {@code i} is
+ * <pre>
+ *   s(i) = (b(i) - a(i)) / max(a(i), b(i))
+ * </pre>
+ * where {@code a(i)} is the mean distance between {@code i} and the other
+ * points of its cluster, and {@code b(i)} is the smallest mean distance
+ * between {@code i} and the points of another cluster.  It is 0 for points
+ * that are alone in their cluster.  The score lies in {@code [-1, 1]}; higher
+ * is better.
+ * <p>
+ * The exact computation requires the distances between all pairs of points;
+ * the points are processed in blocks that can be run concurrently (the result
+ * does not depend on the number of threads).  In the approximate mode, the
+ * score is the mean silhouette of a random sample of the points (each of them
+ * still being compared to all the points), which reduces the cost from
+ * O(n<sup>2</sup>) to O(n m), for a sample of size m.
+ * <p>
+ * Instances that sample the points are not thread-safe (they use the
+ * random generator).
+ *
+ * @see <a href="https://doi.org/10.1016/0377-0427(87)90125-7">Silhouettes:
+ * A graphical aid to the interpretation and validation of cluster analysis</a>
+ * @since 4.0
+ */
+public class Silhouette implements ClusterEvaluator {
+    /** Number of points processed by a task. */
+    private static final int BLOCK_SIZE = 64;
+    /** Distance. */
+    private final DistanceMeasure measure;
+    /** Number of sampled points (0 to use all the points). */
+    private final int sampleSize;
+    /** Random generator (for sampling). */
+    private final UniformRandomProvider random;
+    /** Executor. */
+    private final ExecutorService executor;
+
+    /**
+     * Exact computation, in the calling thread.
+     *
+     * @param measure Distance measure.
+     */
+    public Silhouette(DistanceMeasure measure) {
+        this(measure, null);
+    }
+
+    /**
+     * Exact computation.
+     *
+     * @param measure Distance measure.
+     * @param executor Executor ({@code null} for computing in the calling thread).
+     */
+    public Silhouette(DistanceMeasure measure,
+                      ExecutorService executor) {
+        this.measure = measure;
+        this.sampleSize = 0;
+        this.random = null;
+        this.executor = executor;
+    }
+
+    /**
+     * Approximate computation, from a sample of the points.
+     * If there are fewer points than {@code sampleSize}, all of them are used.
+     *
+     * @param measure Distance measure.
+     * @param sampleSize Number of points whose silhouette is computed.
+     * @param random Random generator for selecting the points.
+     * @param executor Executor ({@code null} for computing in the calling thread).
+     * @throws NotStrictlyPositiveException if {@code sampleSize <= 0}.
+     */
+    public Silhouette(DistanceMeasure measure,
+                      int sampleSize,
+                      UniformRandomProvider random,
+                      ExecutorService executor) {
+        if (sampleSize <= 0) {
+            throw new NotStrictlyPositiveException(sampleSize);
+        }
+        this.measure = measure;
+        this.sampleSize = sampleSize;
+        this.random = random;
+        this.executor = executor;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws InsufficientDataException if fewer than two clusters
+     * contain points.
+     */
+    @Override
+    public double score(List<? extends Cluster<? extends Clusterable>> clusters) {
+        final LabeledPoints data = LabeledPoints.of(clusters);
+        if (data.getNumberOfNonEmptyClusters() < 2) {
+            throw new InsufficientDataException();
+        }
+
+        final int n = data.size();
+        final int[] subjects = sampleSize == 0 || sampleSize >= n ?
+            null :
+            new PermutationSampler(random, n, sampleSize).sample();
+        final int m = subjects == null ? n : subjects.length;
+
+        final double[] values = new double[m];
+        ConcurrentTasks.runRanges(executor, m, BLOCK_SIZE, (from, to) -> {
+                final double[] sums = new double[data.getNumberOfClusters()];
+                for (int s = from; s < to; s++) {
+                    values[s] = silhouette(data, subjects == null ? s : subjects[s], sums);
+                }
+            });
+
+        double sum = 0;
+        for (final double v : values) {
+            sum += v;
+        }
+        return sum / m;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean isBetterScore(double a,
+                                 double b) {
+        return a > b;
+    }
+
+    /**
+     * @param data Points.
+     * @param i Index of a point.
+     * @param sums Workspace (one element per cluster).
+     * @return the silhouette of point {@code i}.
+     */
+    private double silhouette(LabeledPoints data,
+                              int i,
+                              double[] sums) {
+        final int own = data.label(i);
+        if (data.clusterSize(own) == 1) {
+            return 0;
+        }
+
+        Arrays.fill(sums, 0);
+        final double[] p = data.get(i);
+        for (int j = 0; j < data.size(); j++) {
+            if (j != i) {
+                sums[data.label(j)] += measure.compute(p, data.get(j));
+            }
+        }
+
+        final double a = sums[own] / (data.clusterSize(own) - 1);
+        double b = Double.POSITIVE_INFINITY;
+        for (int c = 0; c < sums.length; c++) {
+            final int size = data.clusterSize(c);
+            if (c != own &&
+                size != 0) {
+                b = Math.min(b, sums[c] / size);
+            }
+        }
+
+        final double max = Math.max(a, b);
+        return max == 0 ? 0 : (b - a) / max;
+    }
+}
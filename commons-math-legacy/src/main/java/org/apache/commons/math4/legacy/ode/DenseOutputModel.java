@@ -0,0 +1,455 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.ode;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.math4.legacy.exception.MathIllegalStateException;
+import org.apache.commons.math4.legacy.exception.MaxCountExceededException;
+import org.apache.commons.math4.legacy.exception.OutOfRangeException;
+import org.apache.commons.math4.legacy.exception.util.LocalizedFormats;
+import org.apache.commons.math4.legacy.linear.Array2DRowRealMatrix;
+import org.apache.commons.math4.legacy.linear.LUDecomposition;
+import org.apache.commons.math4.legacy.ode.sampling.StepHandler;
+import org.apache.commons.math4.legacy.ode.sampling.StepInterpolator;
+import org.apache.commons.math4.core.jdkmath.JdkMath;
+
+/**
+ * This class stores a compact representation of the solution
+ * provided by an ODE integrator, for later use as a continuous model.
+ *
+ * <p>This class is an alternative to {@link ContinuousOutputModel} for
+ * long integrations.  Instead of keeping a copy of the step interpolator
+ * of each step (with all its internal arrays), each step is reduced to
+ * the coefficients of one Hermite polynomial per component of the primary
+ * state, matching the values and the derivatives of the integrator
+ * interpolator at the step boundaries and at {@code m} interior nodes.
+ * The polynomials have degree {@code 2m + 3}; with the default single
+ * interior node, they are quintic, which reproduces exactly the dense
+ * output of all the integrators whose interpolators have degree at
+ * most 5, and approximates the others with an error of order
+ * h<sup>6</sup>.</p>
+ *
+ * <p>The coefficients of all the steps are packed in primitive buffers
+ * and the step boundaries in a single array, which is searched by
+ * bisection.  For very long runs, the coefficients can be stored in a
+ * memory-mapped file rather than in the heap, in which case the model
+ * should be {@link #close() closed} when it is not needed anymore.</p>
+ *
+ * <p>Only the primary state is stored, the secondary equations are
+ * ignored.</p>
+ *
+ * @see ContinuousOutputModel
+ * @since 4.0
+ */
+public class DenseOutputModel implements StepHandler, Closeable {
+
+    /** Maximal number of interior nodes. */
+    private static final int MAX_INTERIOR_NODES = 3;
+
+    /** Minimal number of coefficients in a storage block. */
+    private static final int BLOCK_SIZE = 1 << 20;
+
+    /** Interpolation nodes, as fractions of the step. */
+    private final double[] nodes;
+
+    /** Number of coefficients per component and per step. */
+    private final int order;
+
+    /** Matrix converting Hermite data to monomial coefficients. */
+    private final double[][] toMonomial;
+
+    /** Channel of the spill file (null if the coefficients are stored in the heap). */
+    private final FileChannel channel;
+
+    /** Storage blocks for the coefficients. */
+    private final List<DoubleBuffer> blocks;
+
+    /** State dimension. */
+    private int dimension;
+
+    /** Number of coefficients per step. */
+    private int stride;
+
+    /** Number of steps per block. */
+    private int stepsPerBlock;
+
+    /** Integration direction indicator. */
+    private boolean forward;
+
+    /** Steps boundaries (the step k spans from {@code times[k]} to {@code times[k + 1]}). */
+    private double[] times;
+
+    /** Number of stored steps. */
+    private int steps;
+
+    /** Final integration time. */
+    private double finalTime;
+
+    /** Hermite data of one component. */
+    private double[] data;
+
+    /** Values at the interpolation nodes. */
+    private double[][] nodeValues;
+
+    /** Scaled derivatives at the interpolation nodes. */
+    private double[][] nodeDerivatives;
+
+    /** Time of the interpolated point. */
+    private double interpolatedTime;
+
+    /** Interpolated state. */
+    private double[] interpolatedState;
+
+    /** Interpolated derivatives. */
+    private double[] interpolatedDerivatives;
+
+    /** Simple constructor.
+     * Build an empty model storing quintic polynomials in the heap.
+     */
+    public DenseOutputModel() {
+        this(1);
+    }
+
+    /** Build an empty model storing its coefficients in the heap.
+     * @param interiorNodes number of interior interpolation nodes in each
+     * step (between 0 and 3)
+     * @exception OutOfRangeException if {@code interiorNodes} is out of range
+     */
+    public DenseOutputModel(final int interiorNodes) throws OutOfRangeException {
+        this(interiorNodes, (FileChannel) null);
+    }
+
+    /** Build an empty model storing its coefficients in a memory-mapped file.
+     * <p>The file is created if needed, and truncated if it already exists.
+     * It is neither deleted nor truncated when the model is closed.</p>
+     * @param interiorNodes number of interior interpolation nodes in each
+     * step (between 0 and 3)
+     * @param spillFile file where to store the coefficients (if null, the
+     * coefficients are stored in the heap)
+     * @exception OutOfRangeException if {@code interiorNodes} is out of range
+     * @exception IOException if the file cannot be opened
+     */
+    public DenseOutputModel(final int interiorNodes, final Path spillFile)
+        throws OutOfRangeException, IOException {
+        this(interiorNodes,
+             spillFile == null ?
+             null :
+             FileChannel.open(spillFile,
+                              StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                              StandardOpenOption.READ, StandardOpenOption.WRITE));
+    }
+
+    /** Build an empty model.
+     * @param interiorNodes number of interior interpolation nodes in each step
+     * @param channel channel of the spill file (null if the coefficients
+     * are stored in the heap)
+     * @exception OutOfRangeException if {@code interiorNodes} is out of range
+     */
+    private DenseOutputModel(final int interiorNodes, final FileChannel channel)
+        throws OutOfRangeException {
+        if (interiorNodes < 0 || interiorNodes > MAX_INTERIOR_NODES) {
+            throw new OutOfRangeException(interiorNodes, 0, MAX_INTERIOR_NODES);
+        }
+
+        // Chebyshev-Lobatto nodes on [0, 1]
+        nodes = new double[interiorNodes + 2];
+        for (int i = 0; i < nodes.length; ++i) {
+            nodes[i] = 0.5 * (1 - JdkMath.cos(JdkMath.PI * i / (nodes.length - 1)));
+        }
+        order = 2 * nodes.length;
+
+        // confluent Vandermonde matrix: values and derivatives of the monomials at the nodes
+        final double[][] v = new double[order][order];
+        for (int i = 0; i < nodes.length; ++i) {
+            double power = 1;
+            for (int k = 0; k < order; ++k) {
+                v[2 * i][k] = power;
+                if (k + 1 < order) {
+                    v[2 * i + 1][k + 1] = (k + 1) * power;
+                }
+                power *= nodes[i];
+            }
+        }
+        toMonomial = new LUDecomposition(new Array2DRowRealMatrix(v, false)).getSolver().getInverse().getData();
+
+        this.channel = channel;
+        blocks       = new ArrayList<>();
+        times        = new double[0];
+        reset();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void init(final double t0, final double[] y0, final double t) {
+        reset();
+    }
+
+    /** Reset the model to an empty state. */
+    private void reset() {
+        dimension        = 0;
+        steps            = 0;
+        forward          = true;
+        finalTime        = Double.NaN;
+        interpolatedTime = Double.NaN;
+    }
+
+    /** Handle the last accepted step.
+     * The interpolation polynomials of the step are computed and stored.
+     * @param interpolator interpolator for the last accepted step
+     * @param isLast true if the step is the last one
+     * @exception MaxCountExceededException if the number of functions evaluations is exceeded
+     * during step finalization
+     * @exception UncheckedIOException if the spill file cannot be extended
+     */
+    @Override
+    public void handleStep(final StepInterpolator interpolator, final boolean isLast)
+        throws MaxCountExceededException {
+
+        final double previous = interpolator.getPreviousTime();
+        final double current  = interpolator.getCurrentTime();
+        if (steps == 0) {
+            setUp(interpolator.getInterpolatedState().length);
+            forward  = interpolator.isForward();
+            times[0] = previous;
+        }
+
+        // Hermite data at the nodes
+        final double h = current - previous;
+        for (int i = 0; i < nodes.length; ++i) {
+            interpolator.setInterpolatedTime(i == nodes.length - 1 ? current : previous + nodes[i] * h);
+            final double[] y    = interpolator.getInterpolatedState();
+            final double[] yDot = interpolator.getInterpolatedDerivatives();
+            for (int j = 0; j < dimension; ++j) {
+                nodeValues[i][j]      = y[j];
+                nodeDerivatives[i][j] = h * yDot[j];
+            }
+        }
+
+        // convert to monomial coefficients and store them
+        final DoubleBuffer block = block(steps);
+        int offset = (steps % stepsPerBlock) * stride;
+        for (int j = 0; j < dimension; ++j) {
+            for (int i = 0; i < nodes.length; ++i) {
+                data[2 * i]     = nodeValues[i][j];
+                data[2 * i + 1] = nodeDerivatives[i][j];
+            }
+            for (int k = 0; k < order; ++k) {
+                final double[] row = toMonomial[k];
+                double c = 0;
+                for (int l = 0; l < order; ++l) {
+                    c += row[l] * data[l];
+                }
+                block.put(offset++, c);
+            }
+        }
+
+        ++steps;
+        if (steps == times.length) {
+            times = Arrays.copyOf(times, 2 * times.length);
+        }
+        times[steps] = current;
+
+        if (isLast) {
+            finalTime = current;
+        }
+    }
+
+    /** Set up the storage for a given dimension.
+     * @param n state dimension
+     */
+    private void setUp(final int n) {
+        if (n * order != stride) {
+            // the block layout depends on the dimension, existing blocks cannot be reused
+            blocks.clear();
+        }
+        dimension               = n;
+        stride                  = n * order;
+        stepsPerBlock           = JdkMath.max(1, BLOCK_SIZE / stride);
+        data                    = new double[order];
+        nodeValues              = new double[nodes.length][n];
+        nodeDerivatives         = new double[nodes.length][n];
+        interpolatedState       = new double[n];
+        interpolatedDerivatives = new double[n];
+        if (times.length < 2) {
+            times = new double[16];
+        }
+    }
+
+    /** Get the storage block of a step, allocating it if needed.
+     * @param step index of the step
+     * @return block containing the coefficients of the step
+     * @exception UncheckedIOException if the spill file cannot be extended
+     */
+    private DoubleBuffer block(final int step) {
+        final int b = step / stepsPerBlock;
+        while (blocks.size() <= b) {
+            final int size = stepsPerBlock * stride;
+            if (channel == null) {
+                blocks.add(DoubleBuffer.allocate(size));
+            } else {
+                try {
+                    final long bytes = (long) size * Double.BYTES;
+                    blocks.add(channel.map(FileChannel.MapMode.READ_WRITE, blocks.size() * bytes, bytes).
+                               order(ByteOrder.nativeOrder()).
+                               asDoubleBuffer());
+                } catch (IOException ioe) {
+                    throw new UncheckedIOException(ioe);
+                }
+            }
+        }
+        return blocks.get(b);
+    }
+
+    /** Get the initial integration time.
+     * @return initial integration time
+     */
+    public double getInitialTime() {
+        return steps == 0 ? Double.NaN : times[0];
+    }
+
+    /** Get the final integration time.
+     * @return final integration time
+     */
+    public double getFinalTime() {
+        return finalTime;
+    }
+
+    /** Get the number of stored steps.
+     * @return number of stored steps
+     */
+    public int getNumberOfSteps() {
+        return steps;
+    }
+
+    /** Get the dimension of the stored state.
+     * @return dimension of the primary state (0 if no step has been stored)
+     */
+    public int getDimension() {
+        return dimension;
+    }
+
+    /** Get the time of the interpolated point.
+     * @return interpolation point time ({@code NaN} if {@link
+     * #setInterpolatedTime(double)} has not been called yet)
+     */
+    public double getInterpolatedTime() {
+        return interpolatedTime;
+    }
+
+    /** Set the time of the interpolated point.
+     * <p>Setting the time outside of the integration interval is allowed,
+     * the first or last step polynomials are then extrapolated.</p>
+     * <p>Note that each time this method is called, the internal arrays
+     * returned in {@link #getInterpolatedState()} and {@link
+     * #getInterpolatedDerivatives()} <em>will</em> be overwritten.</p>
+     * @param time time of the interpolated point
+     * @exception MathIllegalStateException if no step has been stored
+     */
+    public void setInterpolatedTime(final double time) throws MathIllegalStateException {
+        if (steps == 0) {
+            throw new MathIllegalStateException(LocalizedFormats.NO_DATA);
+        }
+
+        final int k = locate(time);
+        final double start = times[k];
+        final double h     = times[k + 1] - start;
+        final double theta = (time - start) / h;
+
+        final DoubleBuffer block = blocks.get(k / stepsPerBlock);
+        int offset = (k % stepsPerBlock) * stride;
+        for (int j = 0; j < dimension; ++j) {
+            // Horner scheme for the polynomial and its derivative
+            double p  = block.get(offset + order - 1);
+            double dp = 0;
+            for (int l = order - 2; l >= 0; --l) {
+                dp = dp * theta + p;
+                p  = p * theta + block.get(offset + l);
+            }
+            interpolatedState[j]       = p;
+            interpolatedDerivatives[j] = dp / h;
+            offset += order;
+        }
+        interpolatedTime = time;
+    }
+
+    /** Find the step containing a time.
+     * @param time time to locate
+     * @return index of the step containing the time (or of the first or
+     * last step if the time is outside of the integration interval)
+     */
+    private int locate(final double time) {
+        int low  = 0;
+        int high = steps - 1;
+        while (low < high) {
+            // invariant: the step is in [low, high]
+            final int mid = (low + high + 1) >>> 1;
+            if (forward ? time >= times[mid] : time <= times[mid]) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    /** Get the state vector of the interpolated point.
+     * <p>The returned vector is a reference to a reused array, so
+     * it should not be modified and it should be copied if it needs
+     * to be preserved across several calls to the associated
+     * {@link #setInterpolatedTime(double)} method.</p>
+     * @return state vector at time {@link #getInterpolatedTime}
+     * @see #setInterpolatedTime(double)
+     */
+    public double[] getInterpolatedState() {
+        return interpolatedState;
+    }
+
+    /** Get the derivatives of the state vector of the interpolated point.
+     * <p>The returned vector is a reference to a reused array, so
+     * it should not be modified and it should be copied if it needs
+     * to be preserved across several calls to the associated
+     * {@link #setInterpolatedTime(double)} method.</p>
+     * @return derivatives of the state vector at time {@link #getInterpolatedTime}
+     * @see #setInterpolatedTime(double)
+     */
+    public double[] getInterpolatedDerivatives() {
+        return interpolatedDerivatives;
+    }
+
+    /** Release the spill file, if any.
+     * <p>The model cannot store new steps once closed, but the
+     * coefficients already stored remain available.</p>
+     * @exception IOException if the spill file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+}
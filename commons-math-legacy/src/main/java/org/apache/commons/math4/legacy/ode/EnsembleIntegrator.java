@@ -0,0 +1,357 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.ode;
+
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+
+import org.apache.commons.math4.legacy.core.MathArrays;
+import org.apache.commons.math4.legacy.exception.DimensionMismatchException;
+import org.apache.commons.math4.legacy.exception.MaxCountExceededException;
+import org.apache.commons.math4.legacy.exception.NoDataException;
+import org.apache.commons.math4.legacy.exception.NumberIsTooLargeException;
+import org.apache.commons.math4.legacy.exception.NumberIsTooSmallException;
+import org.apache.commons.math4.legacy.ode.sampling.StepHandler;
+import org.apache.commons.math4.legacy.ode.sampling.StepInterpolator;
+import org.apache.commons.math4.legacy.util.ConcurrentTasks;
+
+/**
+ * This class integrates the same differential equations from many
+ * initial states.
+ *
+ * <p>Integrators are stateful (step handlers, events states, evaluations
+ * counter), so they cannot be shared between threads.  This class is
+ * therefore built from a factory: the trajectories are split into
+ * consecutive chunks, and each chunk is processed by its own integrator
+ * instance, either in the calling thread or as a task of a user-supplied
+ * {@link ExecutorService}.  As the trajectories are independent, the
+ * results do not depend on the number of threads.</p>
+ *
+ * <p>The results (final states and, optionally, states sampled at
+ * user-specified times) are stored in flat arrays, with the components
+ * of each state stored contiguously.</p>
+ *
+ * <p>The differential equations are shared by all the tasks; when an
+ * executor is used, their {@link
+ * FirstOrderDifferentialEquations#computeDerivatives(double, double[], double[])
+ * computeDerivatives} method must be thread-safe.</p>
+ *
+ * @since 4.0
+ */
+public class EnsembleIntegrator {
+
+    /** Number of trajectories processed by one integrator instance. */
+    private static final int CHUNK = 16;
+
+    /** Factory for the integrators. */
+    private final Supplier<? extends FirstOrderIntegrator> factory;
+
+    /** Executor (null for computing in the calling thread). */
+    private final ExecutorService executor;
+
+    /** Simple constructor.
+     * @param factory factory for the integrators; each call must return
+     * a new instance, configured with its own event handlers if needed
+     * @param executor executor ({@code null} for computing in the calling thread)
+     */
+    public EnsembleIntegrator(final Supplier<? extends FirstOrderIntegrator> factory,
+                              final ExecutorService executor) {
+        this.factory  = factory;
+        this.executor = executor;
+    }
+
+    /** Integrate the equations from several initial states up to a target time.
+     * @param equations differential equations to integrate
+     * @param t0 initial time
+     * @param y0 initial states, one array per trajectory
+     * @param t target time for the integration
+     * @return the final states
+     * @exception DimensionMismatchException if the dimension of an initial
+     * state is not the dimension of the equations
+     * @exception NumberIsTooSmallException if integration step is too small
+     * @exception MaxCountExceededException if the number of functions evaluations is exceeded
+     * @exception org.apache.commons.math4.legacy.exception.NoBracketingException
+     * if the location of an event cannot be bracketed
+     */
+    public Result integrate(final FirstOrderDifferentialEquations equations,
+                            final double t0, final double[][] y0, final double t)
+        throws DimensionMismatchException, NumberIsTooSmallException, MaxCountExceededException {
+        return doIntegrate(equations, t0, y0, t, null);
+    }
+
+    /** Integrate the equations from several initial states, and sample the trajectories.
+     * <p>The integration is performed up to the last sample time.  If an
+     * event stops a trajectory before some of the sample times, the
+     * corresponding samples are set to {@code NaN}.</p>
+     * @param equations differential equations to integrate
+     * @param t0 initial time
+     * @param y0 initial states, one array per trajectory
+     * @param times sample times, strictly monotonic in the integration
+     * direction, and not before {@code t0}
+     * @return the final states and the samples
+     * @exception NoDataException if {@code times} is empty
+     * @exception org.apache.commons.math4.legacy.exception.NonMonotonicSequenceException
+     * if {@code times} is not strictly monotonic
+     * @exception NumberIsTooSmallException if the first sample time is before
+     * {@code t0} (in the integration direction), or if integration step is too small
+     * @exception NumberIsTooLargeException if the first sample time is before
+     * {@code t0} in a backward integration
+     * @exception DimensionMismatchException if the dimension of an initial
+     * state is not the dimension of the equations
+     * @exception MaxCountExceededException if the number of functions evaluations is exceeded
+     * @exception org.apache.commons.math4.legacy.exception.NoBracketingException
+     * if the location of an event cannot be bracketed
+     */
+    public Result integrate(final FirstOrderDifferentialEquations equations,
+                            final double t0, final double[][] y0, final double[] times)
+        throws NoDataException, NumberIsTooSmallException, NumberIsTooLargeException,
+               DimensionMismatchException, MaxCountExceededException {
+        if (times.length == 0) {
+            throw new NoDataException();
+        }
+        final double t = times[times.length - 1];
+        if (t >= t0) {
+            MathArrays.checkOrder(times, MathArrays.OrderDirection.INCREASING, true);
+            if (times[0] < t0) {
+                throw new NumberIsTooSmallException(times[0], t0, true);
+            }
+        } else {
+            MathArrays.checkOrder(times, MathArrays.OrderDirection.DECREASING, true);
+            if (times[0] > t0) {
+                throw new NumberIsTooLargeException(times[0], t0, true);
+            }
+        }
+        return doIntegrate(equations, t0, y0, t, times.clone());
+    }
+
+    /** Integrate the equations from several initial states.
+     * @param equations differential equations to integrate
+     * @param t0 initial time
+     * @param y0 initial states, one array per trajectory
+     * @param t target time for the integration
+     * @param times sample times (null if the trajectories are not sampled)
+     * @return the results
+     */
+    private Result doIntegrate(final FirstOrderDifferentialEquations equations,
+                               final double t0, final double[][] y0, final double t,
+                               final double[] times) {
+
+        final int dimension = equations.getDimension();
+        for (final double[] y : y0) {
+            if (y.length != dimension) {
+                throw new DimensionMismatchException(y.length, dimension);
+            }
+        }
+
+        final Result result = new Result(y0.length, dimension, times);
+        ConcurrentTasks.runRanges(executor, y0.length, CHUNK, (from, to) -> {
+            final FirstOrderIntegrator integrator = factory.get();
+            final Sampler sampler = times == null ? null : new Sampler(result);
+            if (sampler != null) {
+                integrator.addStepHandler(sampler);
+            }
+            final double[] y = new double[dimension];
+            for (int i = from; i < to; i++) {
+                if (sampler != null) {
+                    sampler.setTrajectory(i);
+                }
+                result.finalTimes[i] = integrator.integrate(equations, t0, y0[i], t, y);
+                result.evaluations[i] = integrator.getEvaluations();
+                System.arraycopy(y, 0, result.finalStates, i * dimension, dimension);
+            }
+        });
+
+        return result;
+    }
+
+    /** Step handler storing the states at the sample times. */
+    private static class Sampler implements StepHandler {
+
+        /** Results. */
+        private final Result result;
+
+        /** Offset of the samples of the current trajectory. */
+        private int offset;
+
+        /** Index of the next sample. */
+        private int next;
+
+        /** Simple constructor.
+         * @param result results
+         */
+        Sampler(final Result result) {
+            this.result = result;
+        }
+
+        /** Set the trajectory to sample.
+         * @param index index of the trajectory
+         */
+        void setTrajectory(final int index) {
+            offset = index * result.times.length * result.dimension;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void init(final double t0, final double[] y0, final double t) {
+            next = 0;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void handleStep(final StepInterpolator interpolator, final boolean isLast)
+            throws MaxCountExceededException {
+            final double[] times = result.times;
+            final double end = interpolator.getCurrentTime();
+            final boolean forward = interpolator.isForward();
+            while (next < times.length &&
+                   (forward ? times[next] <= end : times[next] >= end)) {
+                interpolator.setInterpolatedTime(times[next]);
+                System.arraycopy(interpolator.getInterpolatedState(), 0,
+                                 result.samples, offset + next * result.dimension,
+                                 result.dimension);
+                ++next;
+            }
+            if (isLast) {
+                // the trajectory has been stopped before the remaining sample times
+                for (; next < times.length; ++next) {
+                    final int start = offset + next * result.dimension;
+                    for (int j = 0; j < result.dimension; ++j) {
+                        result.samples[start + j] = Double.NaN;
+                    }
+                }
+            }
+        }
+    }
+
+    /** Results of an ensemble integration.
+     * <p>All the arrays returned by the getters are the internal arrays,
+     * they are not copied.</p>
+     */
+    public static class Result {
+
+        /** Number of trajectories. */
+        private final int size;
+
+        /** State dimension. */
+        private final int dimension;
+
+        /** Sample times (null if the trajectories are not sampled). */
+        private final double[] times;
+
+        /** Final times. */
+        private final double[] finalTimes;
+
+        /** Final states. */
+        private final double[] finalStates;
+
+        /** Samples (null if the trajectories are not sampled). */
+        private final double[] samples;
+
+        /** Number of evaluations of the derivatives for each trajectory. */
+        private final int[] evaluations;
+
+        /** Simple constructor.
+         * @param size number of trajectories
+         * @param dimension state dimension
+         * @param times sample times (null if the trajectories are not sampled)
+         */
+        Result(final int size, final int dimension, final double[] times) {
+            this.size        = size;
+            this.dimension   = dimension;
+            this.times       = times;
+            this.finalTimes  = new double[size];
+            this.finalStates = new double[size * dimension];
+            this.samples     = times == null ? null : new double[size * times.length * dimension];
+            this.evaluations = new int[size];
+        }
+
+        /** Get the number of trajectories.
+         * @return number of trajectories
+         */
+        public int getSize() {
+            return size;
+        }
+
+        /** Get the state dimension.
+         * @return state dimension
+         */
+        public int getDimension() {
+            return dimension;
+        }
+
+        /** Get the sample times.
+         * @return sample times (null if the trajectories were not sampled)
+         */
+        public double[] getTimes() {
+            return times;
+        }
+
+        /** Get the final times.
+         * <p>The final time of a trajectory is the target time, unless
+         * the integration was stopped earlier by an event.</p>
+         * @return final times, indexed by trajectory
+         */
+        public double[] getFinalTimes() {
+            return finalTimes;
+        }
+
+        /** Get the final states.
+         * @return final states; component {@code j} of trajectory {@code i}
+         * is at index {@code i * dimension + j}
+         */
+        public double[] getFinalStates() {
+            return finalStates;
+        }
+
+        /** Get the final state of one trajectory.
+         * @param i index of the trajectory
+         * @return a copy of the final state of the trajectory
+         */
+        public double[] getFinalState(final int i) {
+            final double[] y = new double[dimension];
+            System.arraycopy(finalStates, i * dimension, y, 0, dimension);
+            return y;
+        }
+
+        /** Get the samples.
+         * @return samples (null if the trajectories were not sampled);
+         * component {@code j} of trajectory {@code i} at time {@code times[k]}
+         * is at index {@code (i * times.length + k) * dimension + j}
+         */
+        public double[] getSamples() {
+            return samples;
+        }
+
+        /** Get one sample.
+         * @param i index of the trajectory
+         * @param k index of the sample time
+         * @return a copy of the state of trajectory {@code i} at time {@code times[k]}
+         */
+        public double[] getSample(final int i, final int k) {
+            final double[] y = new double[dimension];
+            System.arraycopy(samples, (i * times.length + k) * dimension, y, 0, dimension);
+            return y;
+        }
+
+        /** Get the number of evaluations of the derivatives.
+         * @return number of evaluations, indexed by trajectory
+         */
+        public int[] getEvaluations() {
+            return evaluations;
+        }
+    }
+}
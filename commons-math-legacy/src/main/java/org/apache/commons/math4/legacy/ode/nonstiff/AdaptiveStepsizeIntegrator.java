@@ -24,6 +24,7 @@ import org.apache.commons.math4.legacy.exception.NumberIsTooSmallException;
 import org.apache.commons.math4.legacy.exception.util.LocalizedFormats;
 import org.apache.commons.math4.legacy.ode.AbstractIntegrator;
 import org.apache.commons.math4.legacy.ode.ExpandableStatefulODE;
+import org.apache.commons.math4.legacy.ode.FirstOrderDifferentialEquations;
 import org.apache.commons.math4.core.jdkmath.JdkMath;
 
 /**
@@ -208,6 +209,15 @@ public abstract class AdaptiveStepsizeIntegrator
     }
   }
 
+  /** Check whether a user-specified initial step size is in use.
+   * @return true if the initial step size is set by the user rather than
+   * estimated by the integrator
+   * @see #setInitialStepSize(double)
+   */
+  boolean hasInitialStepSize() {
+    return initialStep > 0;
+  }
+
   /** {@inheritDoc} */
   @Override
   protected void sanityChecks(final ExpandableStatefulODE equations, final double t)
@@ -215,7 +225,16 @@ public abstract class AdaptiveStepsizeIntegrator
 
       super.sanityChecks(equations, t);
 
-      mainSetDimension = equations.getPrimaryMapper().getDimension();
+      setMainSetDimension(equations.getPrimaryMapper().getDimension());
+  }
+
+  /** Set the dimension of the main state, checking the tolerances.
+   * @param dimension dimension of the main state
+   * @exception DimensionMismatchException if the tolerances dimensions are inconsistent
+   */
+  void setMainSetDimension(final int dimension) throws DimensionMismatchException {
+
+      mainSetDimension = dimension;
 
       if (vecAbsoluteTolerance != null && vecAbsoluteTolerance.length != mainSetDimension) {
           throw new DimensionMismatchException(mainSetDimension, vecAbsoluteTolerance.length);
@@ -243,6 +262,40 @@ public abstract class AdaptiveStepsizeIntegrator
                                final double t0, final double[] y0, final double[] yDot0,
                                final double[] y1, final double[] yDot1)
       throws MaxCountExceededException, DimensionMismatchException {
+    return initializeStep(forward, order, scale, t0, y0, yDot0, y1, yDot1,
+                          new FirstOrderDifferentialEquations() {
+
+        /** {@inheritDoc} */
+        @Override
+        public int getDimension() {
+            return y0.length;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void computeDerivatives(final double t, final double[] y, final double[] yDot) {
+            AdaptiveStepsizeIntegrator.this.computeDerivatives(t, y, yDot);
+        }
+
+    });
+  }
+
+  /** Initialize the integration step, with a specific derivatives evaluator.
+   * @param forward forward integration indicator
+   * @param order order of the method
+   * @param scale scaling vector for the state vector (can be shorter than state vector)
+   * @param t0 start time
+   * @param y0 state vector at t0
+   * @param yDot0 first time derivative of y0
+   * @param y1 work array for a state vector
+   * @param yDot1 work array for the first time derivative of y1
+   * @param derivatives evaluator for the derivatives
+   * @return first integration step
+   */
+  double initializeStep(final boolean forward, final int order, final double[] scale,
+                        final double t0, final double[] y0, final double[] yDot0,
+                        final double[] y1, final double[] yDot1,
+                        final FirstOrderDifferentialEquations derivatives) {
 
     if (initialStep > 0) {
       // use the user provided value
@@ -271,7 +324,7 @@ public abstract class AdaptiveStepsizeIntegrator
     for (int j = 0; j < y0.length; ++j) {
       y1[j] = y0[j] + h * yDot0[j];
     }
-    computeDerivatives(t0 + h, y1, yDot1);
+    derivatives.computeDerivatives(t0 + h, y1, yDot1);
 
     // estimate the second derivative of the solution
     double yDDotOnScale = 0;
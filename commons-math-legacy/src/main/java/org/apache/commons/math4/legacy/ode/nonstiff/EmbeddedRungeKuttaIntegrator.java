@@ -22,6 +22,7 @@ import org.apache.commons.math4.legacy.exception.MaxCountExceededException;
 import org.apache.commons.math4.legacy.exception.NoBracketingException;
 import org.apache.commons.math4.legacy.exception.NumberIsTooSmallException;
 import org.apache.commons.math4.legacy.ode.ExpandableStatefulODE;
+import org.apache.commons.math4.legacy.ode.FirstOrderDifferentialEquations;
 import org.apache.commons.math4.core.jdkmath.JdkMath;
 
 /**
@@ -170,6 +171,28 @@ public abstract class EmbeddedRungeKuttaIntegrator
    */
   public abstract int getOrder();
 
+  /** Check if the method is an <i>fsal</i> one.
+   * @return true if the last stage of a step is the first stage of the next one
+   */
+  boolean isFsal() {
+    return fsal;
+  }
+
+  /** Create a session for integrating repeatedly the same equations.
+   * <p>The session uses the Butcher array and the current settings of the
+   * instance, but it ignores its step handlers, events handlers and does
+   * not support secondary equations.</p>
+   * @param equations differential equations to integrate
+   * @return a new session, with preallocated working arrays
+   * @exception DimensionMismatchException if the tolerances do not match
+   * the dimension of the equations
+   * @since 4.0
+   */
+  public RungeKuttaSession newSession(final FirstOrderDifferentialEquations equations)
+      throws DimensionMismatchException {
+    return new RungeKuttaSession(equations, c, a, b, Double.NaN, this, getMaxEvaluations());
+  }
+
   /** Get the safety factor for stepsize control.
    * @return safety factor
    */
@@ -193,6 +193,18 @@ public abstract class RungeKuttaIntegrator extends AbstractIntegrator {
     stepSize  = Double.NaN;
   }
 
+  /** Create a session for integrating repeatedly the same equations.
+   * <p>The session uses the Butcher array and the step of the instance,
+   * but it ignores its step handlers, events handlers and does not
+   * support secondary equations.</p>
+   * @param equations differential equations to integrate
+   * @return a new session, with preallocated working arrays
+   * @since 4.0
+   */
+  public RungeKuttaSession newSession(final FirstOrderDifferentialEquations equations) {
+    return new RungeKuttaSession(equations, c, a, b, step, null, getMaxEvaluations());
+  }
+
   /** Fast computation of a single step of ODE integration.
    * <p>This method is intended for the limited use case of
    * very fast computation of only one step without using any of the
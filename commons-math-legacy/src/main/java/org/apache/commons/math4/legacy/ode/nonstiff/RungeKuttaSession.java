@@ -0,0 +1,344 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.ode.nonstiff;
+
+import org.apache.commons.math4.legacy.exception.DimensionMismatchException;
+import org.apache.commons.math4.legacy.exception.MaxCountExceededException;
+import org.apache.commons.math4.legacy.exception.NumberIsTooSmallException;
+import org.apache.commons.math4.legacy.ode.FirstOrderDifferentialEquations;
+import org.apache.commons.math4.core.jdkmath.JdkMath;
+
+/**
+ * This class integrates repeatedly the same differential equations
+ * with a Runge-Kutta method, without allocating memory.
+ *
+ * <p>Sessions are intended for the use case of many short integrations
+ * of a small system, for example in a control loop.  All the working
+ * arrays are allocated once, when the session is created, and the
+ * derivatives are computed by calling directly the {@link
+ * FirstOrderDifferentialEquations} instance, without going through
+ * an {@link org.apache.commons.math4.legacy.ode.ExpandableStatefulODE
+ * expandable} set of equations and its mappers.  As a counterpart, none
+ * of the rich features of the integrators are available: the step
+ * handlers, events handlers and secondary equations registered in the
+ * integrator are ignored.</p>
+ *
+ * <p>The session uses the Butcher array and the settings of the
+ * integrator it has been created from (step size for fixed step
+ * integrators, tolerances, step bounds and step size control parameters
+ * for adaptive integrators, maximal number of evaluations).  For
+ * adaptive integrators, the last step size of an integration is used
+ * as the first step size of the next one, unless {@link #reset()} is
+ * called in between or a user-specified initial step size has been set
+ * in the integrator.</p>
+ *
+ * <p>A session is not thread-safe, and the integrator it has been created
+ * from must not be used in another thread while the session is in use.</p>
+ *
+ * @see RungeKuttaIntegrator#newSession(FirstOrderDifferentialEquations)
+ * @see EmbeddedRungeKuttaIntegrator#newSession(FirstOrderDifferentialEquations)
+ * @since 4.0
+ */
+public class RungeKuttaSession {
+
+    /** Differential equations to integrate. */
+    private final FirstOrderDifferentialEquations equations;
+
+    /** Time steps from Butcher array (without the first zero). */
+    private final double[] c;
+
+    /** Internal weights from Butcher array (without the first empty row). */
+    private final double[][] a;
+
+    /** External weights for the high order method from Butcher array. */
+    private final double[] b;
+
+    /** Fixed integration step (NaN for adaptive integrators). */
+    private final double step;
+
+    /** Adaptive integrator (null for fixed step integrators). */
+    private final EmbeddedRungeKuttaIntegrator adaptive;
+
+    /** Maximal number of evaluations of the derivatives. */
+    private final int maxEvaluations;
+
+    /** Work array for the current state. */
+    private final double[] y;
+
+    /** Work array for the intermediate and candidate states. */
+    private final double[] yTmp;
+
+    /** Work arrays for the stages derivatives. */
+    private final double[][] yDotK;
+
+    /** Work array for the tolerance scale. */
+    private final double[] scale;
+
+    /** Evaluator counting the derivatives evaluations. */
+    private final FirstOrderDifferentialEquations counter;
+
+    /** Number of evaluations of the derivatives during the last integration. */
+    private int evaluations;
+
+    /** Last accepted step size (absolute value, 0 if unknown). */
+    private double lastStep;
+
+    /** Simple constructor.
+     * @param equations differential equations to integrate
+     * @param c time steps from Butcher array (without the first zero)
+     * @param a internal weights from Butcher array (without the first empty row)
+     * @param b propagation weights for the high order method from Butcher array
+     * @param step fixed integration step (ignored for adaptive integrators)
+     * @param adaptive adaptive integrator (null for fixed step integrators)
+     * @param maxEvaluations maximal number of evaluations of the derivatives
+     * for one integration
+     * @exception DimensionMismatchException if the tolerances of an adaptive
+     * integrator do not match the dimension of the equations
+     */
+    RungeKuttaSession(final FirstOrderDifferentialEquations equations,
+                      final double[] c, final double[][] a, final double[] b,
+                      final double step, final EmbeddedRungeKuttaIntegrator adaptive,
+                      final int maxEvaluations)
+        throws DimensionMismatchException {
+        this.equations      = equations;
+        this.c              = c;
+        this.a              = a;
+        this.b              = b;
+        this.step           = step;
+        this.adaptive       = adaptive;
+        this.maxEvaluations = maxEvaluations;
+
+        final int n = equations.getDimension();
+        if (adaptive != null) {
+            adaptive.setMainSetDimension(n);
+        }
+        y     = new double[n];
+        yTmp  = new double[n];
+        yDotK = new double[c.length + 1][n];
+        scale = new double[n];
+
+        counter = new FirstOrderDifferentialEquations() {
+
+            /** {@inheritDoc} */
+            @Override
+            public int getDimension() {
+                return n;
+            }
+
+            /** {@inheritDoc} */
+            @Override
+            public void computeDerivatives(final double t, final double[] state, final double[] yDot)
+                throws MaxCountExceededException {
+                if (evaluations >= maxEvaluations) {
+                    throw new MaxCountExceededException(maxEvaluations);
+                }
+                ++evaluations;
+                equations.computeDerivatives(t, state, yDot);
+            }
+
+        };
+    }
+
+    /** Get the number of evaluations of the derivatives during the last integration.
+     * @return number of evaluations
+     */
+    public int getEvaluations() {
+        return evaluations;
+    }
+
+    /** Forget the step size of the previous integration.
+     * <p>This method should be called when the next integration is not
+     * a continuation of the previous one (for example when the initial
+     * state changes abruptly).</p>
+     */
+    public void reset() {
+        lastStep = 0;
+    }
+
+    /** Integrate the equations.
+     * @param t0 initial time
+     * @param y0 initial value of the state vector at t0
+     * @param t target time for the integration
+     * (can be set to a value smaller than {@code t0} for backward integration)
+     * @param yEnd placeholder where to put the state vector at each successful
+     * step (and hence at the end of integration), can be the same object as y0
+     * @exception DimensionMismatchException if arrays dimension do not match equations settings
+     * @exception NumberIsTooSmallException if integration step is too small
+     * @exception MaxCountExceededException if the number of functions evaluations is exceeded
+     */
+    public void integrate(final double t0, final double[] y0, final double t, final double[] yEnd)
+        throws DimensionMismatchException, NumberIsTooSmallException, MaxCountExceededException {
+
+        if (y0.length != y.length) {
+            throw new DimensionMismatchException(y0.length, y.length);
+        }
+        if (yEnd.length != y.length) {
+            throw new DimensionMismatchException(yEnd.length, y.length);
+        }
+
+        evaluations = 0;
+        System.arraycopy(y0, 0, y, 0, y.length);
+        if (t != t0) {
+            if (adaptive == null) {
+                integrateFixed(t0, t);
+            } else {
+                integrateAdaptive(t0, t);
+            }
+        }
+        System.arraycopy(y, 0, yEnd, 0, y.length);
+    }
+
+    /** Integrate the equations with a fixed step.
+     * @param t0 initial time
+     * @param t target time for the integration
+     * @exception MaxCountExceededException if the number of functions evaluations is exceeded
+     */
+    private void integrateFixed(final double t0, final double t)
+        throws MaxCountExceededException {
+        final boolean forward = t > t0;
+        final double h = forward ? step : -step;
+        double stepStart = t0;
+        boolean last = false;
+        while (!last) {
+            double stepSize = h;
+            if (forward ? stepStart + h >= t : stepStart + h <= t) {
+                stepSize = t - stepStart;
+                last     = true;
+            }
+            counter.computeDerivatives(stepStart, y, yDotK[0]);
+            computeStages(stepStart, stepSize);
+            computeState(b, stepSize, yTmp);
+            System.arraycopy(yTmp, 0, y, 0, y.length);
+            stepStart = last ? t : stepStart + stepSize;
+        }
+    }
+
+    /** Integrate the equations with an adaptive step.
+     * @param t0 initial time
+     * @param t target time for the integration
+     * @exception NumberIsTooSmallException if integration step is too small
+     * @exception MaxCountExceededException if the number of functions evaluations is exceeded
+     */
+    private void integrateAdaptive(final double t0, final double t)
+        throws NumberIsTooSmallException, MaxCountExceededException {
+
+        final boolean forward = t > t0;
+        final int stages      = c.length + 1;
+        final boolean fsal    = adaptive.isFsal();
+        final double exp      = -1.0 / adaptive.getOrder();
+        final double safety       = adaptive.getSafety();
+        final double minReduction = adaptive.getMinReduction();
+        final double maxGrowth    = adaptive.getMaxGrowth();
+        adaptive.setMainSetDimension(y.length);
+
+        // first step
+        counter.computeDerivatives(t0, y, yDotK[0]);
+        double hNew;
+        if (lastStep > 0 && !adaptive.hasInitialStepSize()) {
+            hNew = adaptive.filterStep(forward ? lastStep : -lastStep, forward, true);
+        } else {
+            for (int i = 0; i < scale.length; ++i) {
+                scale[i] = adaptive.vecAbsoluteTolerance == null ?
+                           adaptive.scalAbsoluteTolerance + adaptive.scalRelativeTolerance * JdkMath.abs(y[i]) :
+                           adaptive.vecAbsoluteTolerance[i] + adaptive.vecRelativeTolerance[i] * JdkMath.abs(y[i]);
+            }
+            hNew = adaptive.initializeStep(forward, adaptive.getOrder(), scale,
+                                           t0, y, yDotK[0], yTmp, yDotK[1], counter);
+        }
+
+        double stepStart = t0;
+        boolean last = false;
+        boolean truncated = false;
+        double untruncated = hNew;
+        while (!last) {
+
+            // iterate over step size, ensuring local normalized error is smaller than 1
+            double stepSize;
+            double error;
+            do {
+                stepSize    = hNew;
+                untruncated = hNew;
+                last        = false;
+                truncated   = false;
+                if (forward ? stepStart + stepSize >= t : stepStart + stepSize <= t) {
+                    truncated = stepSize != t - stepStart;
+                    stepSize  = t - stepStart;
+                    last      = true;
+                }
+                computeStages(stepStart, stepSize);
+                computeState(b, stepSize, yTmp);
+                error = adaptive.estimateError(yDotK, y, yTmp, stepSize);
+                if (error >= 1.0) {
+                    // reject the step and attempt to reduce error by stepsize control
+                    final double factor =
+                        JdkMath.min(maxGrowth, JdkMath.max(minReduction, safety * JdkMath.pow(error, exp)));
+                    hNew = adaptive.filterStep(stepSize * factor, forward, false);
+                }
+            } while (error >= 1.0);
+
+            // accept the step
+            System.arraycopy(yTmp, 0, y, 0, y.length);
+            stepStart = last ? t : stepStart + stepSize;
+
+            // step size control for next step
+            final double factor =
+                JdkMath.min(maxGrowth, JdkMath.max(minReduction, safety * JdkMath.pow(error, exp)));
+            hNew = adaptive.filterStep(stepSize * factor, forward, true);
+            if (!last) {
+                if (fsal) {
+                    // reuse the last evaluation for the next step
+                    System.arraycopy(yDotK[stages - 1], 0, yDotK[0], 0, y.length);
+                } else {
+                    counter.computeDerivatives(stepStart, y, yDotK[0]);
+                }
+            }
+        }
+
+        // a last step shortened to reach the target time is a poor guess
+        // for the first step of the next call, use the step it replaced
+        lastStep = JdkMath.abs(truncated ? untruncated : hNew);
+    }
+
+    /** Compute the stages derivatives, the first one being already known.
+     * @param stepStart time at step start
+     * @param stepSize step size
+     * @exception MaxCountExceededException if the number of functions evaluations is exceeded
+     */
+    private void computeStages(final double stepStart, final double stepSize)
+        throws MaxCountExceededException {
+        for (int k = 1; k < yDotK.length; ++k) {
+            computeState(a[k - 1], stepSize, yTmp);
+            counter.computeDerivatives(stepStart + c[k - 1] * stepSize, yTmp, yDotK[k]);
+        }
+    }
+
+    /** Compute a state from the current state and the stages derivatives.
+     * @param weights weights of the stages (only the first {@code weights.length}
+     * stages are used)
+     * @param stepSize step size
+     * @param out placeholder for the state
+     */
+    private void computeState(final double[] weights, final double stepSize, final double[] out) {
+        for (int j = 0; j < y.length; ++j) {
+            double sum = weights[0] * yDotK[0][j];
+            for (int l = 1; l < weights.length; ++l) {
+                sum += weights[l] * yDotK[l][j];
+            }
+            out[j] = y[j] + stepSize * sum;
+        }
+    }
+}
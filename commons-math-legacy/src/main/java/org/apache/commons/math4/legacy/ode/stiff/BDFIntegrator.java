@@ -0,0 +1,527 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.ode.stiff;
+
+import java.util.Arrays;
+
+import org.apache.commons.math4.legacy.exception.DimensionMismatchException;
+import org.apache.commons.math4.legacy.exception.MaxCountExceededException;
+import org.apache.commons.math4.legacy.exception.NoBracketingException;
+import org.apache.commons.math4.legacy.exception.NumberIsTooSmallException;
+import org.apache.commons.math4.legacy.exception.OutOfRangeException;
+import org.apache.commons.math4.legacy.ode.ExpandableStatefulODE;
+import org.apache.commons.math4.legacy.ode.nonstiff.AdaptiveStepsizeIntegrator;
+import org.apache.commons.math4.core.jdkmath.JdkMath;
+
+/**
+ * This class implements a variable order, variable step size Backward
+ * Differentiation Formula integrator for stiff Ordinary Differential
+ * Equations.
+ *
+ * <p>The method of order q (1 &le; q &le; 5) solves, at each step,
+ * <pre>
+ *   &sum;<sub>k=1..q</sub> (1/k) &nabla;<sup>k</sup>y<sub>n+1</sub> = h f(t<sub>n+1</sub>, y<sub>n+1</sub>)
+ * </pre>
+ * by a simplified Newton iteration, starting from the value predicted
+ * by extrapolating the backward differences of the previous steps.  The
+ * implementation follows the quasi-constant step size approach of
+ * L.F. Shampine and M.W. Reichelt (<a
+ * href="https://doi.org/10.1137/S1064827594276424">The MATLAB ODE
+ * Suite</a>, SIAM J. Sci. Comput. 18 (1997)): the backward differences
+ * are interpolated when the step size changes, and the order is chosen
+ * after q + 1 steps of constant size, among q - 1, q and q + 1, as the
+ * one that allows the largest step.</p>
+ *
+ * <p>The Newton iteration matrix {@code I - h / &alpha;<sub>q</sub> J} is
+ * factored only when the step size or the order change, and the Jacobian
+ * matrix {@code J} is only evaluated again when the iteration fails to
+ * converge.  Only the primary equations are treated implicitly: the
+ * Jacobian of the secondary equations is taken to be zero (i.e. they
+ * are solved by fixed point iteration, and must not be stiff).  As for
+ * the other {@link AdaptiveStepsizeIntegrator adaptive step size
+ * integrators}, only the primary state is used for step size control.</p>
+ *
+ * <p>Dense output is provided by the interpolation polynomial underlying
+ * the formula.</p>
+ *
+ * @see IterationMatrix
+ * @since 4.0
+ */
+public class BDFIntegrator extends AdaptiveStepsizeIntegrator {
+    /** Integrator method name. */
+    private static final String METHOD_NAME = "BDF";
+    /** Maximal order. */
+    private static final int MAX_ORDER = 5;
+    /** Maximal number of Newton iterations. */
+    private static final int NEWTON_MAX_ITERATIONS = 4;
+    /** Minimal reduction factor for stepsize control. */
+    private static final double MIN_FACTOR = 0.2;
+    /** Maximal growth factor for stepsize control. */
+    private static final double MAX_FACTOR = 10;
+    /** Machine epsilon. */
+    private static final double EPSILON = JdkMath.ulp(1d);
+    /** Coefficients &gamma;<sub>q</sub> = &sum;<sub>k=1..q</sub> 1/k (also &alpha;<sub>q</sub> for BDF). */
+    private static final double[] GAMMA = new double[MAX_ORDER + 2];
+    /** Error constants. */
+    private static final double[] ERROR_CONSTANT = new double[MAX_ORDER + 2];
+
+    static {
+        for (int k = 1; k < GAMMA.length; ++k) {
+            GAMMA[k] = GAMMA[k - 1] + 1.0 / k;
+        }
+        for (int k = 0; k < ERROR_CONSTANT.length; ++k) {
+            ERROR_CONSTANT[k] = 1.0 / (k + 1);
+        }
+    }
+
+    /** Maximal order used. */
+    private int maxOrder;
+    /** Iteration matrix of the last integration. */
+    private IterationMatrix matrix;
+
+    /** Build a BDF integrator with the given step bounds.
+     * @param minStep minimal step (sign is irrelevant, regardless of
+     * integration direction, forward or backward), the last step can
+     * be smaller than this
+     * @param maxStep maximal step (sign is irrelevant, regardless of
+     * integration direction, forward or backward), the last step can
+     * be smaller than this
+     * @param scalAbsoluteTolerance allowed absolute error
+     * @param scalRelativeTolerance allowed relative error
+     */
+    public BDFIntegrator(final double minStep, final double maxStep,
+                         final double scalAbsoluteTolerance,
+                         final double scalRelativeTolerance) {
+        super(METHOD_NAME, minStep, maxStep, scalAbsoluteTolerance, scalRelativeTolerance);
+        maxOrder = MAX_ORDER;
+    }
+
+    /** Build a BDF integrator with the given step bounds.
+     * @param minStep minimal step (sign is irrelevant, regardless of
+     * integration direction, forward or backward), the last step can
+     * be smaller than this
+     * @param maxStep maximal step (sign is irrelevant, regardless of
+     * integration direction, forward or backward), the last step can
+     * be smaller than this
+     * @param vecAbsoluteTolerance allowed absolute error
+     * @param vecRelativeTolerance allowed relative error
+     */
+    public BDFIntegrator(final double minStep, final double maxStep,
+                         final double[] vecAbsoluteTolerance,
+                         final double[] vecRelativeTolerance) {
+        super(METHOD_NAME, minStep, maxStep, vecAbsoluteTolerance, vecRelativeTolerance);
+        maxOrder = MAX_ORDER;
+    }
+
+    /** Get the maximal order.
+     * @return maximal order of the formulas
+     */
+    public int getMaxOrder() {
+        return maxOrder;
+    }
+
+    /** Set the maximal order.
+     * <p>The BDF formulas of order 1 and 2 are A-stable; higher orders
+     * are only A(&alpha;)-stable, so that limiting the order may help for
+     * problems with eigenvalues close to the imaginary axis.</p>
+     * @param maxOrder maximal order of the formulas
+     * @exception OutOfRangeException if {@code maxOrder} is not in [1, 5]
+     */
+    public void setMaxOrder(final int maxOrder) {
+        if (maxOrder < 1 || maxOrder > MAX_ORDER) {
+            throw new OutOfRangeException(maxOrder, 1, MAX_ORDER);
+        }
+        this.maxOrder = maxOrder;
+    }
+
+    /** Get the number of Jacobian evaluations during the last integration.
+     * @return number of Jacobian evaluations
+     */
+    public int getJacobianEvaluations() {
+        return matrix == null ? 0 : matrix.getJacobianEvaluations();
+    }
+
+    /** Get the number of LU factorizations during the last integration.
+     * @return number of factorizations of the iteration matrix
+     */
+    public int getFactorizations() {
+        return matrix == null ? 0 : matrix.getFactorizations();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void integrate(final ExpandableStatefulODE equations, final double t)
+        throws NumberIsTooSmallException, DimensionMismatchException,
+               MaxCountExceededException, NoBracketingException {
+
+        sanityChecks(equations, t);
+        setEquations(equations);
+        final boolean forward = t > equations.getTime();
+
+        // create some internal working arrays
+        final double[] y0 = equations.getCompleteState();
+        final int n = y0.length;
+        final double[] y = y0.clone();
+        final double[] yDot = new double[n];
+        final double[] yPredict = new double[n];
+        final double[] yTmp = new double[n];
+        final double[] fTmp = new double[n];
+        final double[] psi = new double[n];
+        final double[] correction = new double[n];
+        final double[] dy = new double[n];
+        final double[] scale = new double[mainSetDimension];
+        final double[][] d = new double[MAX_ORDER + 3][n];
+        final double[][] dTmp = new double[MAX_ORDER + 1][n];
+        matrix = new IterationMatrix(this, equations.getPrimary(), n);
+        final double newtonTolerance = newtonTolerance();
+
+        // set up an interpolator sharing the integrator arrays
+        final BDFStepInterpolator interpolator = new BDFStepInterpolator();
+        interpolator.reinitialize(y, maxOrder, forward,
+                                  equations.getPrimaryMapper(), equations.getSecondaryMappers());
+        interpolator.storeTime(equations.getTime());
+
+        // set up integration control objects
+        stepStart = equations.getTime();
+        initIntegration(equations.getTime(), y0, t);
+        computeDerivatives(stepStart, y, yDot);
+        computeScale(y, scale);
+        double h = initializeStep(forward, 1, scale, stepStart, y, yDot, yTmp, fTmp);
+        int order = 1;
+        int equalSteps = restart(d, y, yDot, h, scale);
+
+        // main integration loop
+        isLastStep = false;
+        do {
+
+            interpolator.shift();
+            boolean jacobianCurrent = false;
+            double errorNorm = Double.NaN;
+            double safety = Double.NaN;
+
+            boolean accepted = false;
+            while (!accepted) {
+
+                // adjust the last step
+                if (forward ? stepStart + h >= t : stepStart + h <= t) {
+                    final double hLast = t - stepStart;
+                    changeDifferences(d, dTmp, order, hLast / h);
+                    h = hLast;
+                }
+                final double tNew = stepStart + h;
+
+                // predictor
+                for (int i = 0; i < n; ++i) {
+                    double sum = d[0][i];
+                    double p = 0;
+                    for (int k = 1; k <= order; ++k) {
+                        sum += d[k][i];
+                        p += GAMMA[k] * d[k][i];
+                    }
+                    yPredict[i] = sum;
+                    psi[i] = p / GAMMA[order];
+                }
+                computeScale(yPredict, scale);
+
+                // corrector
+                final double c = h / GAMMA[order];
+                int iterations = -1;
+                while (true) {
+                    if (matrix.factor(c)) {
+                        iterations = newton(tNew, yPredict, c, psi, scale, newtonTolerance,
+                                            yTmp, fTmp, dy, correction);
+                    }
+                    if (iterations > 0 || jacobianCurrent) {
+                        break;
+                    }
+                    // the Jacobian may be outdated
+                    computeDerivatives(tNew, yPredict, fTmp);
+                    matrix.updateJacobian(tNew, yPredict, fTmp, scale);
+                    jacobianCurrent = true;
+                }
+
+                if (iterations < 0) {
+                    // the iteration did not converge, reduce the step
+                    final double hNew = filterStep(0.5 * h, forward, false);
+                    changeDifferences(d, dTmp, order, hNew / h);
+                    h = hNew;
+                    equalSteps = 0;
+                    continue;
+                }
+
+                safety = 0.9 * (2 * NEWTON_MAX_ITERATIONS + 1) / (2 * NEWTON_MAX_ITERATIONS + iterations);
+                computeScale(yTmp, scale);
+                errorNorm = ERROR_CONSTANT[order] * norm(correction, scale);
+                if (errorNorm > 1) {
+                    // reject the step and attempt to reduce error by stepsize control
+                    final double factor = JdkMath.max(MIN_FACTOR,
+                                                      safety * JdkMath.pow(errorNorm, -1.0 / (order + 1)));
+                    final double hNew = filterStep(factor * h, forward, false);
+                    changeDifferences(d, dTmp, order, hNew / h);
+                    h = hNew;
+                    equalSteps = 0;
+                } else {
+                    accepted = true;
+                }
+            }
+
+            // update the backward differences
+            ++equalSteps;
+            stepSize = h;
+            for (int i = 0; i < n; ++i) {
+                d[order + 2][i] = correction[i] - d[order + 1][i];
+                d[order + 1][i] = correction[i];
+            }
+            for (int k = order; k >= 0; --k) {
+                final double[] dk = d[k];
+                final double[] dk1 = d[k + 1];
+                for (int i = 0; i < n; ++i) {
+                    dk[i] += dk1[i];
+                }
+            }
+
+            // accept the step, trigger events and step handlers
+            System.arraycopy(d[0], 0, y, 0, n);
+            interpolator.storeDifferences(d, order);
+            interpolator.storeTime(stepStart + h);
+            resetOccurred = false;
+            stepStart = acceptStep(interpolator, y, yDot, t);
+
+            if (!isLastStep) {
+
+                // prepare next step
+                interpolator.storeTime(stepStart);
+
+                if (resetOccurred) {
+                    // the state has been changed by an event, start again at order 1
+                    order = 1;
+                    h = filterStep(h, forward, true);
+                    computeScale(y, scale);
+                    equalSteps = restart(d, y, yDot, h, scale);
+                    continue;
+                }
+
+                if (equalSteps < order + 1) {
+                    continue;
+                }
+
+                // choose the order and step size of the next step
+                final double errorMinus = order > 1 ?
+                    ERROR_CONSTANT[order - 1] * norm(d[order], scale) :
+                    Double.POSITIVE_INFINITY;
+                final double errorPlus = order < maxOrder ?
+                    ERROR_CONSTANT[order + 1] * norm(d[order + 2], scale) :
+                    Double.POSITIVE_INFINITY;
+                final double factorMinus = JdkMath.pow(errorMinus, -1.0 / order);
+                final double factorSame = JdkMath.pow(errorNorm, -1.0 / (order + 1));
+                final double factorPlus = JdkMath.pow(errorPlus, -1.0 / (order + 2));
+                double factor = factorSame;
+                int newOrder = order;
+                if (factorMinus > factor) {
+                    factor = factorMinus;
+                    newOrder = order - 1;
+                }
+                if (factorPlus > factor) {
+                    factor = factorPlus;
+                    newOrder = order + 1;
+                }
+                order = newOrder;
+                factor = JdkMath.min(MAX_FACTOR, safety * factor);
+                final double hNew = filterStep(factor * h, forward, true);
+                changeDifferences(d, dTmp, order, hNew / h);
+                h = hNew;
+                equalSteps = 0;
+            }
+
+        } while (!isLastStep);
+
+        // dispatch results
+        equations.setTime(stepStart);
+        equations.setCompleteState(y);
+
+        resetInternalState();
+    }
+
+    /** Start (or restart) the method at order 1.
+     * @param d backward differences (updated)
+     * @param y current state
+     * @param yDot current derivatives
+     * @param h next step
+     * @param scale tolerance scale of the current state
+     * @return the number of steps performed with constant step size (i.e. 0)
+     */
+    private int restart(final double[][] d, final double[] y, final double[] yDot,
+                        final double h, final double[] scale) {
+        for (final double[] row : d) {
+            Arrays.fill(row, 0);
+        }
+        for (int i = 0; i < y.length; ++i) {
+            d[0][i] = y[i];
+            d[1][i] = h * yDot[i];
+        }
+        matrix.updateJacobian(stepStart, y, yDot, scale);
+        return 0;
+    }
+
+    /** Solve the implicit equation by simplified Newton iteration.
+     * @param tNew time at the end of the step
+     * @param yPredict predicted state
+     * @param c coefficient of the iteration matrix
+     * @param psi weighted sum of the backward differences
+     * @param scale tolerance scale
+     * @param tolerance convergence threshold
+     * @param y placeholder for the solution
+     * @param f work array
+     * @param dy work array
+     * @param d placeholder for the correction {@code y - yPredict}
+     * @return the number of iterations, or -1 if the iteration did not converge
+     * @exception MaxCountExceededException if the number of functions evaluations is exceeded
+     */
+    private int newton(final double tNew, final double[] yPredict, final double c,
+                       final double[] psi, final double[] scale, final double tolerance,
+                       final double[] y, final double[] f, final double[] dy, final double[] d)
+        throws MaxCountExceededException {
+        System.arraycopy(yPredict, 0, y, 0, y.length);
+        Arrays.fill(d, 0);
+        double dyNormOld = Double.NaN;
+        for (int k = 0; k < NEWTON_MAX_ITERATIONS; ++k) {
+            computeDerivatives(tNew, y, f);
+            for (int i = 0; i < y.length; ++i) {
+                if (!Double.isFinite(f[i])) {
+                    return -1;
+                }
+                dy[i] = c * f[i] - psi[i] - d[i];
+            }
+            matrix.solve(dy);
+
+            final double dyNorm = norm(dy, scale);
+            final double rate = dyNorm / dyNormOld;
+            if (k > 0 &&
+                (!(rate < 1) ||
+                 JdkMath.pow(rate, NEWTON_MAX_ITERATIONS - k) / (1 - rate) * dyNorm > tolerance)) {
+                return -1;
+            }
+
+            for (int i = 0; i < y.length; ++i) {
+                y[i] += dy[i];
+                d[i] += dy[i];
+            }
+
+            if (dyNorm == 0 ||
+                (k > 0 && rate / (1 - rate) * dyNorm < tolerance)) {
+                return k + 1;
+            }
+            dyNormOld = dyNorm;
+        }
+        return -1;
+    }
+
+    /** Interpolate the backward differences for a new step size.
+     * @param d backward differences (rows 0 to {@code order} are updated)
+     * @param dTmp work array
+     * @param order current order
+     * @param factor ratio of the new step size to the current one
+     */
+    private static void changeDifferences(final double[][] d, final double[][] dTmp,
+                                          final int order, final double factor) {
+        if (factor == 1) {
+            return;
+        }
+        final double[][] r = differencesTransform(order, factor);
+        final double[][] u = differencesTransform(order, 1);
+        final int n = d[0].length;
+        for (int k = 0; k <= order; ++k) {
+            // row k of (R U)^T D
+            final double[] row = dTmp[k];
+            Arrays.fill(row, 0);
+            for (int l = 0; l <= order; ++l) {
+                double ru = 0;
+                for (int j = 0; j <= order; ++j) {
+                    ru += r[l][j] * u[j][k];
+                }
+                if (ru != 0) {
+                    final double[] dl = d[l];
+                    for (int i = 0; i < n; ++i) {
+                        row[i] += ru * dl[i];
+                    }
+                }
+            }
+        }
+        for (int k = 0; k <= order; ++k) {
+            System.arraycopy(dTmp[k], 0, d[k], 0, n);
+        }
+    }
+
+    /** Compute the matrix that maps the backward differences for a step size
+     * to the differences of the same polynomial for a scaled step size.
+     * @param order order
+     * @param factor ratio of the step sizes
+     * @return the transform matrix
+     */
+    private static double[][] differencesTransform(final int order, final double factor) {
+        final double[][] r = new double[order + 1][order + 1];
+        Arrays.fill(r[0], 1);
+        for (int i = 1; i <= order; ++i) {
+            for (int j = 1; j <= order; ++j) {
+                r[i][j] = r[i - 1][j] * (i - 1 - factor * j) / i;
+            }
+        }
+        return r;
+    }
+
+    /** Compute the tolerance scale of the primary state.
+     * @param y state
+     * @param scale placeholder for the scale
+     */
+    private void computeScale(final double[] y, final double[] scale) {
+        for (int i = 0; i < scale.length; ++i) {
+            final double yAbs = JdkMath.abs(y[i]);
+            scale[i] = vecAbsoluteTolerance == null ?
+                scalAbsoluteTolerance + scalRelativeTolerance * yAbs :
+                vecAbsoluteTolerance[i] + vecRelativeTolerance[i] * yAbs;
+        }
+    }
+
+    /** Compute the scaled root mean square norm of the primary part of a vector.
+     * @param v vector
+     * @param scale tolerance scale
+     * @return the norm
+     */
+    private double norm(final double[] v, final double[] scale) {
+        double sum = 0;
+        for (int i = 0; i < scale.length; ++i) {
+            final double ratio = v[i] / scale[i];
+            sum += ratio * ratio;
+        }
+        return JdkMath.sqrt(sum / scale.length);
+    }
+
+    /** Compute the convergence threshold of the Newton iteration.
+     * @return the threshold
+     */
+    private double newtonTolerance() {
+        double rtol = scalRelativeTolerance;
+        if (vecRelativeTolerance != null) {
+            rtol = 0;
+            for (final double r : vecRelativeTolerance) {
+                rtol = JdkMath.max(rtol, r);
+            }
+        }
+        rtol = JdkMath.max(rtol, 100 * EPSILON);
+        return JdkMath.max(10 * EPSILON / rtol, JdkMath.min(0.03, JdkMath.sqrt(rtol)));
+    }
+}
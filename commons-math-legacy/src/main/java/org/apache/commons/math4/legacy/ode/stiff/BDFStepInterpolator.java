@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.ode.stiff;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.Arrays;
+
+import org.apache.commons.math4.legacy.ode.EquationsMapper;
+import org.apache.commons.math4.legacy.ode.sampling.AbstractStepInterpolator;
+import org.apache.commons.math4.legacy.ode.sampling.StepInterpolator;
+
+/**
+ * This class implements an interpolator for the steps of the
+ * {@link BDFIntegrator BDF} integrator.
+ *
+ * <p>The interpolating polynomial is the one underlying the backward
+ * differentiation formula, i.e. the polynomial of degree q (the order
+ * of the step) that passes through the state at the end of the step and
+ * at the q previous (equally spaced) points.  It is expressed with the
+ * backward differences &nabla;<sup>k</sup>y<sub>n+1</sub>:
+ * <pre>
+ *   y(t) = &sum;<sub>k=0..q</sub> &nabla;<sup>k</sup>y<sub>n+1</sub> &prod;<sub>j=0..k-1</sub> (t - t<sub>n+1</sub> + j h) / ((j + 1) h)
+ * </pre></p>
+ *
+ * @see BDFIntegrator
+ * @since 4.0
+ */
+class BDFStepInterpolator extends AbstractStepInterpolator {
+    /** Serializable version identifier. */
+    private static final long serialVersionUID = 20261018L;
+
+    /** Order of the step. */
+    private int order;
+    /** Backward differences at the end of the step (rows 0 to order are used). */
+    private double[][] differences;
+
+    /** Simple constructor.
+     * This constructor builds an instance that is not usable yet, the
+     * {@link #reinitialize} method should be called before using the
+     * instance in order to initialize the internal arrays.  This
+     * constructor is used only for deserialization.
+     */
+    // CHECKSTYLE: stop RedundantModifier
+    // the public modifier here is needed for serialization
+    public BDFStepInterpolator() {
+        order = 0;
+        differences = null;
+    }
+    // CHECKSTYLE: resume RedundantModifier
+
+    /** Copy constructor.
+     * @param interpolator interpolator to copy from. The copy is a deep
+     * copy: its arrays are separated from the original arrays of the
+     * instance
+     */
+    BDFStepInterpolator(final BDFStepInterpolator interpolator) {
+        super(interpolator);
+        order = interpolator.order;
+        if (interpolator.differences == null) {
+            differences = null;
+        } else {
+            differences = new double[order + 1][];
+            for (int k = 0; k <= order; ++k) {
+                differences[k] = interpolator.differences[k].clone();
+            }
+        }
+    }
+
+    /** Reinitialize the instance.
+     * @param y reference to the integrator array holding the state at the end of the step
+     * @param maxOrder maximal order of the steps
+     * @param forward integration direction indicator
+     * @param primaryMapper equations mapper for the primary equations set
+     * @param secondaryMappers equations mappers for the secondary equations sets
+     */
+    void reinitialize(final double[] y, final int maxOrder, final boolean forward,
+                      final EquationsMapper primaryMapper,
+                      final EquationsMapper[] secondaryMappers) {
+        reinitialize(y, forward, primaryMapper, secondaryMappers);
+        differences = new double[maxOrder + 1][y.length];
+        order = 0;
+    }
+
+    /** Store the backward differences of the current step.
+     * @param d backward differences (rows 0 to {@code q} are copied)
+     * @param q order of the step
+     */
+    void storeDifferences(final double[][] d, final int q) {
+        order = q;
+        for (int k = 0; k <= q; ++k) {
+            System.arraycopy(d[k], 0, differences[k], 0, differences[k].length);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected StepInterpolator doCopy() {
+        return new BDFStepInterpolator(this);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected void computeInterpolatedStateAndDerivatives(final double theta,
+                                                          final double oneMinusThetaH) {
+        final double[] d0 = differences[0];
+        System.arraycopy(d0, 0, interpolatedState, 0, d0.length);
+        Arrays.fill(interpolatedDerivatives, 0);
+        if (h == 0) {
+            return;
+        }
+
+        // product of the factors and its derivative with respect to time
+        double p = 1;
+        double pDot = 0;
+        for (int k = 1; k <= order; ++k) {
+            final double denominator = k * h;
+            final double x = ((k - 1) * h - oneMinusThetaH) / denominator;
+            pDot = pDot * x + p / denominator;
+            p *= x;
+            final double[] dk = differences[k];
+            for (int i = 0; i < dk.length; ++i) {
+                interpolatedState[i] += p * dk[i];
+                interpolatedDerivatives[i] += pDot * dk[i];
+            }
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void writeExternal(final ObjectOutput out)
+        throws IOException {
+
+        // save the state of the base class
+        writeBaseExternal(out);
+
+        // save the local attributes
+        out.writeInt(order);
+        final int n = (currentState == null) ? -1 : currentState.length;
+        for (int k = 0; k <= order && n >= 0; ++k) {
+            for (int i = 0; i < n; ++i) {
+                out.writeDouble(differences[k][i]);
+            }
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void readExternal(final ObjectInput in)
+        throws IOException, ClassNotFoundException {
+
+        // read the base class
+        final double t = readBaseExternal(in);
+
+        // read the local attributes
+        order = in.readInt();
+        final int n = (currentState == null) ? -1 : currentState.length;
+        if (n < 0) {
+            differences = null;
+        } else {
+            differences = new double[order + 1][n];
+            for (int k = 0; k <= order; ++k) {
+                for (int i = 0; i < n; ++i) {
+                    differences[k][i] = in.readDouble();
+                }
+            }
+        }
+
+        if (currentState != null) {
+            // we can now set the interpolated time and state
+            setInterpolatedTime(t);
+        } else {
+            interpolatedTime = t;
+        }
+    }
+}
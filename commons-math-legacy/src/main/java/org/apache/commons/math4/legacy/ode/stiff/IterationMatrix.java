@@ -0,0 +1,301 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.ode.stiff;
+
+import org.apache.commons.math4.legacy.exception.DimensionMismatchException;
+import org.apache.commons.math4.legacy.exception.MaxCountExceededException;
+import org.apache.commons.math4.legacy.ode.AbstractIntegrator;
+import org.apache.commons.math4.legacy.ode.FirstOrderDifferentialEquations;
+import org.apache.commons.math4.legacy.ode.MainStateJacobianProvider;
+import org.apache.commons.math4.core.jdkmath.JdkMath;
+
+/**
+ * Iteration matrix {@code I - c J} of the implicit integrators, where
+ * {@code J} is the Jacobian of the primary equations with respect to the
+ * primary state.
+ *
+ * <p>The secondary part of the state is not coupled: its block of the
+ * matrix is the identity (i.e. its Jacobian is taken to be zero).</p>
+ *
+ * <p>The Jacobian is computed analytically if the primary equations
+ * implement {@link MainStateJacobianProvider}, and by forward finite
+ * differences otherwise.  The LU factorization of the matrix is kept
+ * (and reused by {@link #factor(double)}) until either the Jacobian or
+ * the coefficient {@code c} changes.  All the work arrays are allocated
+ * once.</p>
+ */
+final class IterationMatrix {
+    /** Square root of the machine epsilon. */
+    private static final double SQRT_EPSILON = JdkMath.sqrt(JdkMath.ulp(1d));
+    /** Integrator (for counting the evaluations). */
+    private final AbstractIntegrator integrator;
+    /** Primary equations. */
+    private final FirstOrderDifferentialEquations primary;
+    /** Dimension of the primary state. */
+    private final int n;
+    /** Jacobian of the primary equations. */
+    private final double[][] jacobian;
+    /** Time derivative of the complete equations. */
+    private final double[] timeDerivative;
+    /** LU factors of the matrix (unit lower part is implicit). */
+    private final double[][] lu;
+    /** Row permutation. */
+    private final int[] pivot;
+    /** Work array (complete state). */
+    private final double[] yTmp;
+    /** Work array (complete derivatives). */
+    private final double[] yDotTmp;
+    /** Work array (primary state). */
+    private final double[] yPrimary;
+    /** Work array (primary derivatives). */
+    private final double[] yDotPrimary;
+    /** Work array for the solver. */
+    private final double[] work;
+    /** Coefficient of the factored matrix ({@code NaN} if not factored). */
+    private double coefficient;
+    /** Number of Jacobian evaluations. */
+    private int jacobianEvaluations;
+    /** Number of LU factorizations. */
+    private int factorizations;
+
+    /**
+     * @param integrator Integrator.
+     * @param primary Primary equations.
+     * @param dimension Dimension of the complete state.
+     */
+    IterationMatrix(AbstractIntegrator integrator,
+                    FirstOrderDifferentialEquations primary,
+                    int dimension) {
+        this.integrator = integrator;
+        this.primary = primary;
+        n = primary.getDimension();
+        jacobian = new double[n][n];
+        timeDerivative = new double[dimension];
+        lu = new double[n][n];
+        pivot = new int[n];
+        yTmp = new double[dimension];
+        yDotTmp = new double[dimension];
+        yPrimary = new double[n];
+        yDotPrimary = new double[n];
+        work = new double[n];
+        coefficient = Double.NaN;
+    }
+
+    /**
+     * Evaluates the Jacobian (and discards the factorization).
+     *
+     * @param t Time.
+     * @param y Complete state.
+     * @param yDot Complete derivatives at {@code (t, y)}.
+     * @param scale Typical magnitude of the primary state components
+     * (used for the finite differences increments).
+     * @throws MaxCountExceededException if the number of evaluations is exceeded.
+     * @throws DimensionMismatchException if arrays dimensions do not match.
+     */
+    void updateJacobian(double t,
+                        double[] y,
+                        double[] yDot,
+                        double[] scale) {
+        ++jacobianEvaluations;
+        coefficient = Double.NaN;
+
+        if (primary instanceof MainStateJacobianProvider) {
+            System.arraycopy(y, 0, yPrimary, 0, n);
+            System.arraycopy(yDot, 0, yDotPrimary, 0, n);
+            ((MainStateJacobianProvider) primary).computeMainStateJacobian(t, yPrimary, yDotPrimary, jacobian);
+        } else {
+            System.arraycopy(y, 0, yTmp, 0, y.length);
+            for (int j = 0; j < n; j++) {
+                final double saved = y[j];
+                final double increment = increment(saved, scale[j]);
+                yTmp[j] = saved + increment;
+                integrator.computeDerivatives(t, yTmp, yDotTmp);
+                for (int i = 0; i < n; i++) {
+                    jacobian[i][j] = (yDotTmp[i] - yDot[i]) / increment;
+                }
+                yTmp[j] = saved;
+            }
+        }
+    }
+
+    /**
+     * Evaluates the partial derivative of the equations with respect to
+     * time, by forward finite differences.
+     *
+     * @param t Time.
+     * @param y Complete state.
+     * @param yDot Complete derivatives at {@code (t, y)}.
+     * @param timeScale Typical time scale (e.g. the step size).
+     * @throws MaxCountExceededException if the number of evaluations is exceeded.
+     * @throws DimensionMismatchException if arrays dimensions do not match.
+     */
+    void updateTimeDerivative(double t,
+                              double[] y,
+                              double[] yDot,
+                              double timeScale) {
+        final double increment = increment(t, JdkMath.abs(timeScale));
+        integrator.computeDerivatives(t + increment, y, yDotTmp);
+        for (int i = 0; i < yDot.length; i++) {
+            timeDerivative[i] = (yDotTmp[i] - yDot[i]) / increment;
+        }
+    }
+
+    /**
+     * Gets the partial derivative of the equations with respect to time,
+     * as computed by the last call to {@link #updateTimeDerivative}.
+     *
+     * @return the time derivative (not copied).
+     */
+    double[] getTimeDerivative() {
+        return timeDerivative;
+    }
+
+    /**
+     * Checks whether the matrix is factored for a coefficient.
+     *
+     * @param c Coefficient.
+     * @return {@code true} if {@code I - c J} is factored.
+     */
+    boolean isFactored(double c) {
+        return coefficient == c;
+    }
+
+    /**
+     * Factors the matrix {@code I - c J}, unless it is already factored.
+     *
+     * @param c Coefficient.
+     * @return {@code false} if the matrix is singular.
+     */
+    boolean factor(double c) {
+        if (isFactored(c)) {
+            return true;
+        }
+        ++factorizations;
+        coefficient = Double.NaN;
+
+        for (int i = 0; i < n; i++) {
+            final double[] row = lu[i];
+            final double[] jRow = jacobian[i];
+            for (int j = 0; j < n; j++) {
+                row[j] = -c * jRow[j];
+            }
+            row[i] += 1;
+            pivot[i] = i;
+        }
+
+        // Gaussian elimination with partial pivoting.
+        for (int k = 0; k < n; k++) {
+            int p = k;
+            double max = JdkMath.abs(lu[k][k]);
+            for (int i = k + 1; i < n; i++) {
+                final double v = JdkMath.abs(lu[i][k]);
+                if (v > max) {
+                    max = v;
+                    p = i;
+                }
+            }
+            if (max == 0 || Double.isNaN(max)) {
+                return false;
+            }
+            if (p != k) {
+                final double[] tmp = lu[p];
+                lu[p] = lu[k];
+                lu[k] = tmp;
+                final int tp = pivot[p];
+                pivot[p] = pivot[k];
+                pivot[k] = tp;
+            }
+            final double[] rowK = lu[k];
+            final double inv = 1 / rowK[k];
+            for (int i = k + 1; i < n; i++) {
+                final double[] rowI = lu[i];
+                final double f = rowI[k] * inv;
+                rowI[k] = f;
+                if (f != 0) {
+                    for (int j = k + 1; j < n; j++) {
+                        rowI[j] -= f * rowK[j];
+                    }
+                }
+            }
+        }
+
+        coefficient = c;
+        return true;
+    }
+
+    /**
+     * Solves {@code (I - c J) x = b}, using the last factorization.
+     *
+     * @param b Complete right-hand side; replaced by the solution (only
+     * its primary part is modified).
+     */
+    void solve(double[] b) {
+        for (int i = 0; i < n; i++) {
+            work[i] = b[pivot[i]];
+        }
+        // Forward substitution (unit lower triangle).
+        for (int i = 1; i < n; i++) {
+            final double[] row = lu[i];
+            double sum = work[i];
+            for (int j = 0; j < i; j++) {
+                sum -= row[j] * work[j];
+            }
+            work[i] = sum;
+        }
+        // Back substitution.
+        for (int i = n - 1; i >= 0; i--) {
+            final double[] row = lu[i];
+            double sum = work[i];
+            for (int j = i + 1; j < n; j++) {
+                sum -= row[j] * work[j];
+            }
+            work[i] = sum / row[i];
+        }
+        System.arraycopy(work, 0, b, 0, n);
+    }
+
+    /**
+     * @return the number of Jacobian evaluations.
+     */
+    int getJacobianEvaluations() {
+        return jacobianEvaluations;
+    }
+
+    /**
+     * @return the number of LU factorizations.
+     */
+    int getFactorizations() {
+        return factorizations;
+    }
+
+    /**
+     * Computes a finite differences increment, such that {@code x + h}
+     * is exactly representable.
+     *
+     * @param x Variable.
+     * @param scale Typical magnitude of the variable.
+     * @return the increment.
+     */
+    private static double increment(double x,
+                                    double scale) {
+        double h = SQRT_EPSILON * JdkMath.max(JdkMath.abs(x), scale);
+        if (h == 0) {
+            h = SQRT_EPSILON;
+        }
+        return (x + h) - x;
+    }
+}
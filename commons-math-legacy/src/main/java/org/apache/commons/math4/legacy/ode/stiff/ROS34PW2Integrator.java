@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.ode.stiff;
+
+/**
+ * This class implements the ROS34PW2 Rosenbrock-W method for stiff
+ * Ordinary Differential Equations.
+ *
+ * <p>This four stages method is third order (with an embedded second
+ * order method for step size control), stiffly accurate and L-stable.
+ * Being a W-method, its order is preserved when the Jacobian matrix is
+ * only approximate, which allows to reuse it across steps.</p>
+ *
+ * <p>The coefficients are those given by J. Rang and L. Angermann in <a
+ * href="https://doi.org/10.1007/s10543-005-0035-y">New Rosenbrock
+ * W-methods of order 3 for partial differential algebraic equations of
+ * index 1</a>, BIT Numerical Mathematics 45 (2005).</p>
+ *
+ * @see RosenbrockIntegrator
+ * @since 4.0
+ */
+public class ROS34PW2Integrator extends RosenbrockIntegrator {
+
+    /** Integrator method name. */
+    private static final String METHOD_NAME = "ROS34PW2";
+
+    /** Diagonal coefficient. */
+    private static final double GAMMA = 0.435866521508459;
+
+    /** State coefficients. */
+    private static final double[][] STATIC_ALPHA = {
+        {},
+        {0.87173304301691801},
+        {0.84457060015369423, -0.11299064236484185},
+        {0.0, 0.0, 1.0}
+    };
+
+    /** Coupling coefficients. */
+    private static final double[][] STATIC_GAMMA = {
+        {},
+        {-0.87173304301691801},
+        {-0.90338057013044082, 0.054180672388095326},
+        {0.24212380706095346, -1.2232505839045147, 0.54526025533510214}
+    };
+
+    /** Weights of the third order solution. */
+    private static final double[] STATIC_B = {
+        0.24212380706095346, -1.2232505839045147, 1.5452602553351020, 0.435866521508459
+    };
+
+    /** Weights of the embedded second order solution. */
+    private static final double[] STATIC_B_HAT = {
+        0.37810903145819369, -0.096042292212423178, 0.5, 0.2179332607542295
+    };
+
+    /** Simple constructor.
+     * Build a ROS34PW2 integrator with the given step bounds
+     * @param minStep minimal step (sign is irrelevant, regardless of
+     * integration direction, forward or backward), the last step can
+     * be smaller than this
+     * @param maxStep maximal step (sign is irrelevant, regardless of
+     * integration direction, forward or backward), the last step can
+     * be smaller than this
+     * @param scalAbsoluteTolerance allowed absolute error
+     * @param scalRelativeTolerance allowed relative error
+     */
+    public ROS34PW2Integrator(final double minStep, final double maxStep,
+                              final double scalAbsoluteTolerance,
+                              final double scalRelativeTolerance) {
+        super(METHOD_NAME, GAMMA, STATIC_ALPHA, STATIC_GAMMA, STATIC_B, STATIC_B_HAT,
+              minStep, maxStep, scalAbsoluteTolerance, scalRelativeTolerance);
+    }
+
+    /** Simple constructor.
+     * Build a ROS34PW2 integrator with the given step bounds
+     * @param minStep minimal step (sign is irrelevant, regardless of
+     * integration direction, forward or backward), the last step can
+     * be smaller than this
+     * @param maxStep maximal step (sign is irrelevant, regardless of
+     * integration direction, forward or backward), the last step can
+     * be smaller than this
+     * @param vecAbsoluteTolerance allowed absolute error
+     * @param vecRelativeTolerance allowed relative error
+     */
+    public ROS34PW2Integrator(final double minStep, final double maxStep,
+                              final double[] vecAbsoluteTolerance,
+                              final double[] vecRelativeTolerance) {
+        super(METHOD_NAME, GAMMA, STATIC_ALPHA, STATIC_GAMMA, STATIC_B, STATIC_B_HAT,
+              minStep, maxStep, vecAbsoluteTolerance, vecRelativeTolerance);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int getOrder() {
+        return 3;
+    }
+}
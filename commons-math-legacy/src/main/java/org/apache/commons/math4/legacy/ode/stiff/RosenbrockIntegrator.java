@@ -0,0 +1,481 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.ode.stiff;
+
+import org.apache.commons.math4.legacy.exception.DimensionMismatchException;
+import org.apache.commons.math4.legacy.exception.MaxCountExceededException;
+import org.apache.commons.math4.legacy.exception.NoBracketingException;
+import org.apache.commons.math4.legacy.exception.NumberIsTooSmallException;
+import org.apache.commons.math4.legacy.ode.ExpandableStatefulODE;
+import org.apache.commons.math4.legacy.ode.nonstiff.AdaptiveStepsizeIntegrator;
+import org.apache.commons.math4.core.jdkmath.JdkMath;
+
+/**
+ * This class implements the common part of the embedded Rosenbrock-W
+ * integrators for stiff Ordinary Differential Equations.
+ *
+ * <p>An s-stages method computes
+ * <pre>
+ *   (I - h &gamma; W) k<sub>i</sub> = h f(t<sub>n</sub> + &alpha;<sub>i</sub> h, y<sub>n</sub> + &sum;<sub>j&lt;i</sub> &alpha;<sub>ij</sub> k<sub>j</sub>)
+ *                     + h W &sum;<sub>j&lt;i</sub> &gamma;<sub>ij</sub> k<sub>j</sub> + &gamma;<sub>i</sub> h<sup>2</sup> f<sub>t</sub>
+ *   y<sub>n+1</sub> = y<sub>n</sub> + &sum; b<sub>i</sub> k<sub>i</sub>
+ * </pre>
+ * where {@code W} approximates the Jacobian matrix of {@code f}; a second
+ * set of weights gives an embedded solution of lower order, used for step
+ * size control.  The stages are computed in the transformed variables
+ * u<sub>i</sub> = &sum;<sub>j&le;i</sub> &gamma;<sub>ij</sub> k<sub>j</sub>, so
+ * that only the matrix {@code I - h &gamma; W} is involved.</p>
+ *
+ * <p>For W-methods, the order does not depend on the accuracy of
+ * {@code W}: the Jacobian (and the partial derivative with respect to
+ * time) is only evaluated when the iteration matrix must be factored
+ * again, i.e. when the step size changes or after a rejected step.  In
+ * order to benefit from this, step size increases smaller than 20% are
+ * not performed, so that the LU factorization is reused.</p>
+ *
+ * <p>Only the primary equations are treated implicitly: the Jacobian of
+ * the secondary equations is taken to be zero.  As for the other
+ * {@link AdaptiveStepsizeIntegrator adaptive step size integrators},
+ * only the primary state is used for step size control.</p>
+ *
+ * <p>Dense output is provided by cubic Hermite interpolation.</p>
+ *
+ * @see IterationMatrix
+ * @since 4.0
+ */
+public abstract class RosenbrockIntegrator extends AdaptiveStepsizeIntegrator {
+    /** Largest step size growth that is ignored (to keep the factorization). */
+    private static final double HYSTERESIS = 1.2;
+
+    /** Diagonal coefficient. */
+    private final double gamma;
+    /** Time steps of the stages (&alpha;<sub>i</sub>). */
+    private final double[] alpha;
+    /** Time derivative coefficients of the stages (&gamma;<sub>i</sub>). */
+    private final double[] gammaSum;
+    /** Transformed state coefficients. */
+    private final double[][] a;
+    /** Transformed coupling coefficients (to be divided by the step size). */
+    private final double[][] c;
+    /** Transformed weights of the solution. */
+    private final double[] m;
+    /** Transformed weights of the error estimate. */
+    private final double[] e;
+    /** Stepsize control exponent. */
+    private final double exp;
+
+    /** Safety factor for stepsize control. */
+    private double safety;
+    /** Minimal reduction factor for stepsize control. */
+    private double minReduction;
+    /** Maximal growth factor for stepsize control. */
+    private double maxGrowth;
+    /** Iteration matrix of the last integration. */
+    private IterationMatrix matrix;
+
+    /** Build a Rosenbrock integrator.
+     * @param name name of the method
+     * @param gamma diagonal coefficient &gamma;
+     * @param alphaIJ state coefficients &alpha;<sub>ij</sub> (strictly lower triangular, s &times; s)
+     * @param gammaIJ coupling coefficients &gamma;<sub>ij</sub> (strictly lower triangular, s &times; s)
+     * @param b weights of the solution
+     * @param bHat weights of the embedded solution
+     * @param minStep minimal step (sign is irrelevant, regardless of
+     * integration direction, forward or backward), the last step can
+     * be smaller than this
+     * @param maxStep maximal step (sign is irrelevant, regardless of
+     * integration direction, forward or backward), the last step can
+     * be smaller than this
+     * @param scalAbsoluteTolerance allowed absolute error
+     * @param scalRelativeTolerance allowed relative error
+     */
+    protected RosenbrockIntegrator(final String name, final double gamma,
+                                   final double[][] alphaIJ, final double[][] gammaIJ,
+                                   final double[] b, final double[] bHat,
+                                   final double minStep, final double maxStep,
+                                   final double scalAbsoluteTolerance,
+                                   final double scalRelativeTolerance) {
+        super(name, minStep, maxStep, scalAbsoluteTolerance, scalRelativeTolerance);
+        this.gamma = gamma;
+        alpha = new double[b.length];
+        gammaSum = new double[b.length];
+        a = new double[b.length][b.length];
+        c = new double[b.length][b.length];
+        m = new double[b.length];
+        e = new double[b.length];
+        exp = -1.0 / getOrder();
+        transform(alphaIJ, gammaIJ, b, bHat);
+        setDefaultControls();
+    }
+
+    /** Build a Rosenbrock integrator.
+     * @param name name of the method
+     * @param gamma diagonal coefficient &gamma;
+     * @param alphaIJ state coefficients &alpha;<sub>ij</sub> (strictly lower triangular, s &times; s)
+     * @param gammaIJ coupling coefficients &gamma;<sub>ij</sub> (strictly lower triangular, s &times; s)
+     * @param b weights of the solution
+     * @param bHat weights of the embedded solution
+     * @param minStep minimal step (must be positive even for backward
+     * integration), the last step can be smaller than this
+     * @param maxStep maximal step (must be positive even for backward
+     * integration)
+     * @param vecAbsoluteTolerance allowed absolute error
+     * @param vecRelativeTolerance allowed relative error
+     */
+    protected RosenbrockIntegrator(final String name, final double gamma,
+                                   final double[][] alphaIJ, final double[][] gammaIJ,
+                                   final double[] b, final double[] bHat,
+                                   final double minStep, final double maxStep,
+                                   final double[] vecAbsoluteTolerance,
+                                   final double[] vecRelativeTolerance) {
+        super(name, minStep, maxStep, vecAbsoluteTolerance, vecRelativeTolerance);
+        this.gamma = gamma;
+        alpha = new double[b.length];
+        gammaSum = new double[b.length];
+        a = new double[b.length][b.length];
+        c = new double[b.length][b.length];
+        m = new double[b.length];
+        e = new double[b.length];
+        exp = -1.0 / getOrder();
+        transform(alphaIJ, gammaIJ, b, bHat);
+        setDefaultControls();
+    }
+
+    /** Get the order of the method.
+     * @return order of the method
+     */
+    public abstract int getOrder();
+
+    /** Get the safety factor for stepsize control.
+     * @return safety factor
+     */
+    public double getSafety() {
+        return safety;
+    }
+
+    /** Set the safety factor for stepsize control.
+     * @param safety safety factor
+     */
+    public void setSafety(final double safety) {
+        this.safety = safety;
+    }
+
+    /** Get the minimal reduction factor for stepsize control.
+     * @return minimal reduction factor
+     */
+    public double getMinReduction() {
+        return minReduction;
+    }
+
+    /** Set the minimal reduction factor for stepsize control.
+     * @param minReduction minimal reduction factor
+     */
+    public void setMinReduction(final double minReduction) {
+        this.minReduction = minReduction;
+    }
+
+    /** Get the maximal growth factor for stepsize control.
+     * @return maximal growth factor
+     */
+    public double getMaxGrowth() {
+        return maxGrowth;
+    }
+
+    /** Set the maximal growth factor for stepsize control.
+     * @param maxGrowth maximal growth factor
+     */
+    public void setMaxGrowth(final double maxGrowth) {
+        this.maxGrowth = maxGrowth;
+    }
+
+    /** Get the number of Jacobian evaluations during the last integration.
+     * @return number of Jacobian evaluations
+     */
+    public int getJacobianEvaluations() {
+        return matrix == null ? 0 : matrix.getJacobianEvaluations();
+    }
+
+    /** Get the number of LU factorizations during the last integration.
+     * @return number of factorizations of the iteration matrix
+     */
+    public int getFactorizations() {
+        return matrix == null ? 0 : matrix.getFactorizations();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void integrate(final ExpandableStatefulODE equations, final double t)
+        throws NumberIsTooSmallException, DimensionMismatchException,
+               MaxCountExceededException, NoBracketingException {
+
+        sanityChecks(equations, t);
+        setEquations(equations);
+        final boolean forward = t > equations.getTime();
+
+        // create some internal working arrays
+        final double[] y0 = equations.getCompleteState();
+        final int n = y0.length;
+        final int stages = m.length;
+        final double[] y = y0.clone();
+        final double[] yDot = new double[n];
+        final double[] yNew = new double[n];
+        final double[] yDotNew = new double[n];
+        final double[] yTmp = new double[n];
+        final double[] fTmp = new double[n];
+        final double[][] u = new double[stages][n];
+        final double[] cOverH = new double[stages];
+        final double[] scale = new double[mainSetDimension];
+        matrix = new IterationMatrix(this, equations.getPrimary(), n);
+        boolean jacobianCurrent = false;
+
+        // set up an interpolator sharing the integrator arrays
+        final RosenbrockStepInterpolator interpolator = new RosenbrockStepInterpolator();
+        interpolator.reinitialize(yNew, y, yDot, yDotNew, forward,
+                                  equations.getPrimaryMapper(), equations.getSecondaryMappers());
+        interpolator.storeTime(equations.getTime());
+
+        // set up integration control objects
+        stepStart = equations.getTime();
+        initIntegration(equations.getTime(), y0, t);
+        computeDerivatives(stepStart, y, yDot);
+        computeScale(y, y, scale);
+        double hNew = initializeStep(forward, getOrder(), scale,
+                                     stepStart, y, yDot, yTmp, fTmp);
+
+        // main integration loop
+        isLastStep = false;
+        do {
+
+            interpolator.shift();
+
+            // iterate over step size, ensuring local normalized error is smaller than 1
+            double error = 10;
+            while (!(error < 1.0)) {
+
+                stepSize = hNew;
+                if (forward) {
+                    if (stepStart + stepSize >= t) {
+                        stepSize = t - stepStart;
+                    }
+                } else {
+                    if (stepStart + stepSize <= t) {
+                        stepSize = t - stepStart;
+                    }
+                }
+
+                final double hGamma = stepSize * gamma;
+                if (!matrix.isFactored(hGamma)) {
+                    if (!jacobianCurrent) {
+                        computeScale(y, y, scale);
+                        matrix.updateJacobian(stepStart, y, yDot, scale);
+                        matrix.updateTimeDerivative(stepStart, y, yDot, stepSize);
+                        jacobianCurrent = true;
+                    }
+                    if (!matrix.factor(hGamma)) {
+                        // singular iteration matrix: try a smaller step
+                        hNew = filterStep(stepSize * minReduction, forward, false);
+                        continue;
+                    }
+                }
+
+                final double[] ft = matrix.getTimeDerivative();
+                for (int i = 0; i < stages; ++i) {
+                    final double[] f;
+                    if (i == 0) {
+                        f = yDot;
+                    } else {
+                        for (int k = 0; k < n; ++k) {
+                            double sum = a[i][0] * u[0][k];
+                            for (int j = 1; j < i; ++j) {
+                                sum += a[i][j] * u[j][k];
+                            }
+                            yTmp[k] = y[k] + sum;
+                        }
+                        computeDerivatives(stepStart + alpha[i] * stepSize, yTmp, fTmp);
+                        f = fTmp;
+                    }
+
+                    // right-hand side, scaled by h gamma
+                    final double[] ui = u[i];
+                    final double timeCoefficient = gammaSum[i] * stepSize;
+                    for (int j = 0; j < i; ++j) {
+                        cOverH[j] = c[i][j] / stepSize;
+                    }
+                    for (int k = 0; k < n; ++k) {
+                        double sum = f[k] + timeCoefficient * ft[k];
+                        for (int j = 0; j < i; ++j) {
+                            sum += cOverH[j] * u[j][k];
+                        }
+                        ui[k] = hGamma * sum;
+                    }
+                    matrix.solve(ui);
+                }
+
+                // estimate the state at the end of the step, and the error
+                double errSum = 0;
+                for (int k = 0; k < n; ++k) {
+                    double sum = m[0] * u[0][k];
+                    double err = e[0] * u[0][k];
+                    for (int j = 1; j < stages; ++j) {
+                        sum += m[j] * u[j][k];
+                        err += e[j] * u[j][k];
+                    }
+                    yNew[k] = y[k] + sum;
+                    if (k < mainSetDimension) {
+                        final double tol = vecAbsoluteTolerance == null ?
+                            scalAbsoluteTolerance + scalRelativeTolerance *
+                                JdkMath.max(JdkMath.abs(y[k]), JdkMath.abs(yNew[k])) :
+                            vecAbsoluteTolerance[k] + vecRelativeTolerance[k] *
+                                JdkMath.max(JdkMath.abs(y[k]), JdkMath.abs(yNew[k]));
+                        final double ratio = err / tol;
+                        errSum += ratio * ratio;
+                    }
+                }
+                error = JdkMath.sqrt(errSum / mainSetDimension);
+
+                if (!(error < 1.0)) {
+                    // reject the step and attempt to reduce error by stepsize control
+                    final double factor = Double.isNaN(error) ?
+                        minReduction :
+                        JdkMath.min(maxGrowth,
+                                    JdkMath.max(minReduction, safety * JdkMath.pow(error, exp)));
+                    hNew = filterStep(stepSize * factor, forward, false);
+                }
+            }
+
+            // local error is small enough: accept the step, trigger events and step handlers
+            computeDerivatives(stepStart + stepSize, yNew, yDotNew);
+            interpolator.storeTime(stepStart + stepSize);
+            resetOccurred = false;
+            stepStart = acceptStep(interpolator, yNew, yDotNew, t);
+            System.arraycopy(yNew, 0, y, 0, n);
+            System.arraycopy(yDotNew, 0, yDot, 0, n);
+            jacobianCurrent = false;
+
+            if (!isLastStep) {
+
+                // prepare next step
+                interpolator.storeTime(stepStart);
+
+                // stepsize control for next step
+                double factor =
+                    JdkMath.min(maxGrowth, JdkMath.max(minReduction, safety * JdkMath.pow(error, exp)));
+                if (factor >= 1 && factor <= HYSTERESIS && !resetOccurred) {
+                    // keep the step size, hence the factorization
+                    factor = 1;
+                }
+                final double  scaledH    = stepSize * factor;
+                final double  nextT      = stepStart + scaledH;
+                final boolean nextIsLast = forward ? (nextT >= t) : (nextT <= t);
+                hNew = filterStep(scaledH, forward, nextIsLast);
+
+                final double  filteredNextT      = stepStart + hNew;
+                final boolean filteredNextIsLast = forward ? (filteredNextT >= t) : (filteredNextT <= t);
+                if (filteredNextIsLast) {
+                    hNew = t - stepStart;
+                }
+            }
+
+        } while (!isLastStep);
+
+        // dispatch results
+        equations.setTime(stepStart);
+        equations.setCompleteState(y);
+
+        resetInternalState();
+    }
+
+    /** Set the default values of the algorithm control parameters. */
+    private void setDefaultControls() {
+        setSafety(0.9);
+        setMinReduction(0.2);
+        setMaxGrowth(5.0);
+    }
+
+    /** Compute the tolerance scale of the primary state.
+     * @param y0 state at the start of the step
+     * @param y1 state at the end of the step
+     * @param scale placeholder for the scale
+     */
+    private void computeScale(final double[] y0, final double[] y1, final double[] scale) {
+        for (int i = 0; i < scale.length; ++i) {
+            final double yMax = JdkMath.max(JdkMath.abs(y0[i]), JdkMath.abs(y1[i]));
+            scale[i] = vecAbsoluteTolerance == null ?
+                scalAbsoluteTolerance + scalRelativeTolerance * yMax :
+                vecAbsoluteTolerance[i] + vecRelativeTolerance[i] * yMax;
+        }
+    }
+
+    /** Compute the coefficients of the transformed stages.
+     * <p>With &Gamma; the lower triangular matrix of the &gamma;<sub>ij</sub>
+     * (whose diagonal is &gamma;), the transformed coefficients are
+     * A = &alpha; &Gamma;<sup>-1</sup>, C = I / &gamma; - &Gamma;<sup>-1</sup>,
+     * m = b &Gamma;<sup>-1</sup> and m&#770; = b&#770; &Gamma;<sup>-1</sup>.</p>
+     * @param alphaIJ state coefficients
+     * @param gammaIJ coupling coefficients
+     * @param b weights of the solution
+     * @param bHat weights of the embedded solution
+     */
+    private void transform(final double[][] alphaIJ, final double[][] gammaIJ,
+                           final double[] b, final double[] bHat) {
+        final int s = b.length;
+
+        // inverse of the lower triangular matrix Gamma
+        final double[][] inv = new double[s][s];
+        for (int j = 0; j < s; ++j) {
+            inv[j][j] = 1 / gamma;
+            for (int i = j + 1; i < s; ++i) {
+                double sum = 0;
+                for (int k = j; k < i; ++k) {
+                    sum += gammaIJ[i][k] * inv[k][j];
+                }
+                inv[i][j] = -sum / gamma;
+            }
+        }
+
+        for (int i = 0; i < s; ++i) {
+            double alphaI = 0;
+            double gammaI = gamma;
+            for (int j = 0; j < i; ++j) {
+                alphaI += alphaIJ[i][j];
+                gammaI += gammaIJ[i][j];
+            }
+            alpha[i] = alphaI;
+            gammaSum[i] = gammaI;
+
+            for (int j = 0; j < i; ++j) {
+                double sum = 0;
+                for (int k = j; k < i; ++k) {
+                    sum += alphaIJ[i][k] * inv[k][j];
+                }
+                a[i][j] = sum;
+                c[i][j] = -inv[i][j];
+            }
+        }
+
+        for (int j = 0; j < s; ++j) {
+            double sumB = 0;
+            double sumBHat = 0;
+            for (int i = j; i < s; ++i) {
+                sumB += b[i] * inv[i][j];
+                sumBHat += bHat[i] * inv[i][j];
+            }
+            m[j] = sumB;
+            e[j] = sumB - sumBHat;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.ode.stiff;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
+import org.apache.commons.math4.legacy.ode.EquationsMapper;
+import org.apache.commons.math4.legacy.ode.sampling.AbstractStepInterpolator;
+import org.apache.commons.math4.legacy.ode.sampling.StepInterpolator;
+
+/**
+ * This class implements a cubic Hermite interpolator for the steps of
+ * the {@link RosenbrockIntegrator Rosenbrock} integrators.
+ *
+ * <p>The interpolating polynomial matches the states and derivatives at
+ * both ends of the step:
+ * <pre>
+ *   y(t<sub>n</sub> + &theta; h) = (1 - &theta;)<sup>2</sup> (1 + 2 &theta;) y<sub>n</sub>
+ *                     + &theta; (1 - &theta;)<sup>2</sup> h y'<sub>n</sub>
+ *                     + &theta;<sup>2</sup> (3 - 2 &theta;) y<sub>n+1</sub>
+ *                     - &theta;<sup>2</sup> (1 - &theta;) h y'<sub>n+1</sub>
+ * </pre>
+ * It is third order accurate, as the integrators.</p>
+ *
+ * @see RosenbrockIntegrator
+ * @since 4.0
+ */
+class RosenbrockStepInterpolator extends AbstractStepInterpolator {
+    /** Serializable version identifier. */
+    private static final long serialVersionUID = 20261018L;
+
+    /** State at the start of the step. */
+    private double[] previousState;
+    /** Derivatives at the start of the step. */
+    private double[] yDotStart;
+    /** Derivatives at the end of the step. */
+    private double[] yDotEnd;
+
+    /** Simple constructor.
+     * This constructor builds an instance that is not usable yet, the
+     * {@link #reinitialize(double[], double[], double[], double[], boolean,
+     * EquationsMapper, EquationsMapper[]) reinitialize} method should be
+     * called before using the instance in order to initialize the internal
+     * arrays.  This constructor is used only for deserialization.
+     */
+    // CHECKSTYLE: stop RedundantModifier
+    // the public modifier here is needed for serialization
+    public RosenbrockStepInterpolator() {
+        previousState = null;
+        yDotStart = null;
+        yDotEnd = null;
+    }
+    // CHECKSTYLE: resume RedundantModifier
+
+    /** Copy constructor.
+     * @param interpolator interpolator to copy from. The copy is a deep
+     * copy: its arrays are separated from the original arrays of the
+     * instance
+     */
+    RosenbrockStepInterpolator(final RosenbrockStepInterpolator interpolator) {
+        super(interpolator);
+        if (interpolator.currentState == null) {
+            previousState = null;
+            yDotStart = null;
+            yDotEnd = null;
+        } else {
+            previousState = interpolator.previousState.clone();
+            yDotStart = interpolator.yDotStart.clone();
+            yDotEnd = interpolator.yDotEnd.clone();
+        }
+    }
+
+    /** Reinitialize the instance.
+     * The arrays are shared with the integrator, which updates them
+     * before each call to the step handlers.
+     * @param y reference to the integrator array holding the state at the end of the step
+     * @param y0 reference to the integrator array holding the state at the start of the step
+     * @param yDot0 reference to the integrator array holding the derivatives at the start of the step
+     * @param yDot1 reference to the integrator array holding the derivatives at the end of the step
+     * @param forward integration direction indicator
+     * @param primaryMapper equations mapper for the primary equations set
+     * @param secondaryMappers equations mappers for the secondary equations sets
+     */
+    void reinitialize(final double[] y, final double[] y0,
+                      final double[] yDot0, final double[] yDot1,
+                      final boolean forward,
+                      final EquationsMapper primaryMapper,
+                      final EquationsMapper[] secondaryMappers) {
+        reinitialize(y, forward, primaryMapper, secondaryMappers);
+        this.previousState = y0;
+        this.yDotStart = yDot0;
+        this.yDotEnd = yDot1;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected StepInterpolator doCopy() {
+        return new RosenbrockStepInterpolator(this);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected void computeInterpolatedStateAndDerivatives(final double theta,
+                                                          final double oneMinusThetaH) {
+        final double oneMinusTheta = 1 - theta;
+        final double h00 = oneMinusTheta * oneMinusTheta * (1 + 2 * theta);
+        final double h10 = theta * oneMinusTheta * oneMinusTheta;
+        final double h01 = theta * theta * (3 - 2 * theta);
+        final double h11 = -theta * theta * oneMinusTheta;
+        // derivatives of the basis functions with respect to theta
+        final double d00 = -6 * theta * oneMinusTheta;
+        final double d10 = oneMinusTheta * (1 - 3 * theta);
+        final double d11 = theta * (3 * theta - 2);
+
+        for (int i = 0; i < interpolatedState.length; ++i) {
+            final double y0 = previousState[i];
+            final double y1 = currentState[i];
+            final double f0 = yDotStart[i];
+            final double f1 = yDotEnd[i];
+            interpolatedState[i] = h00 * y0 + h01 * y1 + h * (h10 * f0 + h11 * f1);
+            interpolatedDerivatives[i] = h == 0 ?
+                f1 :
+                d00 * (y0 - y1) / h + d10 * f0 + d11 * f1;
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void writeExternal(final ObjectOutput out)
+        throws IOException {
+
+        // save the state of the base class
+        writeBaseExternal(out);
+
+        // save the local attributes
+        final int n = (currentState == null) ? -1 : currentState.length;
+        for (int i = 0; i < n; ++i) {
+            out.writeDouble(previousState[i]);
+            out.writeDouble(yDotStart[i]);
+            out.writeDouble(yDotEnd[i]);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void readExternal(final ObjectInput in)
+        throws IOException, ClassNotFoundException {
+
+        // read the base class
+        final double t = readBaseExternal(in);
+
+        // read the local attributes
+        final int n = (currentState == null) ? -1 : currentState.length;
+        if (n < 0) {
+            previousState = null;
+            yDotStart = null;
+            yDotEnd = null;
+        } else {
+            previousState = new double[n];
+            yDotStart = new double[n];
+            yDotEnd = new double[n];
+            for (int i = 0; i < n; ++i) {
+                previousState[i] = in.readDouble();
+                yDotStart[i] = in.readDouble();
+                yDotEnd[i] = in.readDouble();
+            }
+        }
+
+        if (currentState != null) {
+            // we can now set the interpolated time and state
+            setInterpolatedTime(t);
+        } else {
+            interpolatedTime = t;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/**
+ *
+ * <p>
+ * This package provides classes to solve stiff Ordinary Differential Equations problems.
+ * </p>
+ *
+ * <p>
+ * The integrators are linearly implicit ({@link
+ * org.apache.commons.math4.legacy.ode.stiff.RosenbrockIntegrator Rosenbrock-W})
+ * or implicit ({@link org.apache.commons.math4.legacy.ode.stiff.BDFIntegrator BDF}),
+ * and require the Jacobian matrix of the primary equations with respect to the
+ * primary state.  It is computed analytically when the primary equations implement
+ * {@link org.apache.commons.math4.legacy.ode.MainStateJacobianProvider
+ * MainStateJacobianProvider}, and by finite differences otherwise.  The LU
+ * factorization of the iteration matrix is kept as long as neither the Jacobian
+ * nor the step size change.
+ * </p>
+ *
+ *
+ */
+package org.apache.commons.math4.legacy.ode.stiff;
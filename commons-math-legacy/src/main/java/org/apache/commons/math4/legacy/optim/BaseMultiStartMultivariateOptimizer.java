@@ -16,10 +16,13 @@
  */
 package org.apache.commons.math4.legacy.optim;
 
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
 import java.util.function.Supplier;
 import org.apache.commons.math4.legacy.exception.MathIllegalStateException;
 import org.apache.commons.math4.legacy.exception.NotStrictlyPositiveException;
 import org.apache.commons.math4.legacy.exception.TooManyEvaluationsException;
+import org.apache.commons.math4.legacy.util.ConcurrentTasks;
 
 /**
  * Base class multi-start optimizer for a multivariate function.
@@ -27,6 +30,10 @@ import org.apache.commons.math4.legacy.exception.TooManyEvaluationsException;
  * This class wraps an optimizer in order to use it several times in
  * turn with different starting points (trying to avoid being trapped
  * in a local extremum when looking for a global one).
+ * <br>
+ * When built from a factory of optimizers, the starts can be run
+ * concurrently: each start then uses its own optimizer instance, and
+ * the evaluation budget ({@link MaxEval}) is shared by all of them.
  * <em>It is not a "user" class.</em>
  *
  * @param <PAIR> Type of the point/value pair returned by the optimization
@@ -38,6 +45,10 @@ public abstract class BaseMultiStartMultivariateOptimizer<PAIR>
     extends BaseMultivariateOptimizer<PAIR> {
     /** Underlying classical optimizer. */
     private final BaseMultivariateOptimizer<PAIR> optimizer;
+    /** Factory for per-start optimizers (null for running the starts in turn). */
+    private final Supplier<? extends BaseMultivariateOptimizer<PAIR>> factory;
+    /** Executor (null for running the starts in the calling thread). */
+    private final ExecutorService executor;
     /** Number of evaluations already performed for all starts. */
     private int totalEvaluations;
     /** Number of starts to go. */
@@ -85,6 +96,64 @@ public abstract class BaseMultiStartMultivariateOptimizer<PAIR>
         }
 
         this.optimizer = optimizer;
+        this.factory = null;
+        this.executor = null;
+        this.starts = starts;
+        this.generator = generator;
+    }
+
+    /**
+     * Create a multi-start optimizer that runs its starts concurrently.
+     * <p>
+     * Each start is performed by a new optimizer instance, obtained from
+     * the factory.  The objective function is shared by all the starts,
+     * hence it must be thread-safe when an executor is used.
+     * The maximal number of evaluations is a global budget for all the
+     * starts; when it is exhausted, the starts still running fail.
+     * The start points are generated in the calling thread, in the same
+     * order as in a sequential run; the optima do not depend on the
+     * executor, unless the evaluation budget is exhausted or a
+     * {@link TargetValue target value} is reached (in which case the
+     * starts that were running fail).
+     * </p>
+     * @param factory Factory of single-start optimizers.
+     * @param starts Number of starts to perform.
+     * @param generator Generator to use for restarts.
+     * @param executor Executor ({@code null} for running the starts in
+     * turn in the calling thread).
+     * @throws NotStrictlyPositiveException if {@code starts < 1}.
+     *
+     * @since 4.0
+     */
+    protected BaseMultiStartMultivariateOptimizer(final Supplier<? extends BaseMultivariateOptimizer<PAIR>> factory,
+                                                  final int starts,
+                                                  final Supplier<double[]> generator,
+                                                  final ExecutorService executor) {
+        this(factory.get(), starts, generator, factory, executor);
+    }
+
+    /**
+     * @param optimizer Template optimizer.
+     * @param starts Number of starts to perform.
+     * @param generator Generator to use for restarts.
+     * @param factory Factory of single-start optimizers.
+     * @param executor Executor.
+     * @throws NotStrictlyPositiveException if {@code starts < 1}.
+     */
+    private BaseMultiStartMultivariateOptimizer(final BaseMultivariateOptimizer<PAIR> optimizer,
+                                                final int starts,
+                                                final Supplier<double[]> generator,
+                                                final Supplier<? extends BaseMultivariateOptimizer<PAIR>> factory,
+                                                final ExecutorService executor) {
+        super(optimizer.getConvergenceChecker());
+
+        if (starts < 1) {
+            throw new NotStrictlyPositiveException(starts);
+        }
+
+        this.optimizer = optimizer;
+        this.factory = factory;
+        this.executor = executor;
         this.starts = starts;
         this.generator = generator;
     }
@@ -160,14 +229,34 @@ public abstract class BaseMultiStartMultivariateOptimizer<PAIR>
             throw new MathIllegalStateException();
         }
 
-        RuntimeException lastException = null;
         totalEvaluations = 0;
         clear();
 
+        final RuntimeException lastException = factory == null ?
+            optimizeInTurn() :
+            optimizeConcurrently();
+
+        final PAIR[] optima = getOptima();
+        if (optima.length == 0) {
+            // All runs failed.
+            throw lastException; // Cannot be null if starts >= 1.
+        }
+
+        // Return the best optimum.
+        return optima[0];
+    }
+
+    /**
+     * Runs the starts in turn, with the same optimizer.
+     *
+     * @return the exception thrown by the last failed start (or
+     * {@code null} if no start failed).
+     */
+    private RuntimeException optimizeInTurn() {
+        RuntimeException lastException = null;
         final int maxEval = getMaxEvaluations();
         final double[] min = getLowerBound();
         final double[] max = getUpperBound();
-        final double[] startPoint = getStartPoint();
 
         // Multi-start loop.
         for (int i = 0; i < starts; i++) {
@@ -176,29 +265,14 @@ public abstract class BaseMultiStartMultivariateOptimizer<PAIR>
                 // Decrease number of allowed evaluations.
                 optimData[maxEvalIndex] = new MaxEval(maxEval - totalEvaluations);
                 // New start value.
-                double[] s = null;
-                if (i == 0) {
-                    s = startPoint;
-                } else {
-                    int attempts = 0;
-                    while (s == null) {
-                        if (attempts++ >= getMaxEvaluations()) {
-                            throw new TooManyEvaluationsException(getMaxEvaluations());
-                        }
-                        s = generator.get();
-                        for (int k = 0; s != null && k < s.length; ++k) {
-                            if ((min != null && s[k] < min[k]) || (max != null && s[k] > max[k])) {
-                                // reject the vector
-                                s = null;
-                                break;
-                            }
-                        }
-                    }
-                }
-                optimData[initialGuessIndex] = new InitialGuess(s);
+                optimData[initialGuessIndex] = new InitialGuess(startPoint(i, min, max));
                 // Optimize.
                 final PAIR result = optimizer.optimize(optimData);
                 store(result);
+                if (isTargetReached(result)) {
+                    totalEvaluations += optimizer.getEvaluations();
+                    break;
+                }
             } catch (RuntimeException mue) {
                 lastException = mue;
             }
@@ -207,14 +281,133 @@ public abstract class BaseMultiStartMultivariateOptimizer<PAIR>
             totalEvaluations += optimizer.getEvaluations();
         }
 
-        final PAIR[] optima = getOptima();
-        if (optima.length == 0) {
-            // All runs failed.
-            throw lastException; // Cannot be null if starts >= 1.
+        return lastException;
+    }
+
+    /**
+     * Runs the starts concurrently, with one optimizer per start.
+     *
+     * @return the exception thrown by the last failed start (or
+     * {@code null} if no start failed).
+     */
+    private RuntimeException optimizeConcurrently() {
+        final int maxEval = getMaxEvaluations();
+        final double[] min = getLowerBound();
+        final double[] max = getUpperBound();
+
+        // Start points are generated in turn, as the generator may not be thread-safe.
+        final double[][] startPoints = new double[starts][];
+        for (int i = 0; i < starts; i++) {
+            startPoints[i] = startPoint(i, min, max);
         }
 
-        // Return the best optimum.
-        return optima[0];
+        final ConcurrentEvaluationCounter counter = new ConcurrentEvaluationCounter(maxEval);
+        final OptimizationData[] template = optimData.clone();
+        template[maxEvalIndex] = new MaxEval(maxEval);
+        for (int k = 0; k < template.length; k++) {
+            template[k] = countEvaluations(template[k], counter);
+        }
+
+        final Object[] results = new Object[starts];
+        final RuntimeException[] exceptions = new RuntimeException[starts];
+        ConcurrentTasks.run(executor, starts, i -> {
+                if (counter.isCancelled()) {
+                    return;
+                }
+                final OptimizationData[] data = template.clone();
+                data[initialGuessIndex] = new InitialGuess(startPoints[i]);
+                // CHECKSTYLE: stop IllegalCatch
+                try {
+                    final PAIR result = factory.get().optimize(data);
+                    results[i] = result;
+                    if (isTargetReached(result)) {
+                        counter.cancel();
+                    }
+                } catch (RuntimeException e) {
+                    exceptions[i] = e;
+                }
+                // CHECKSTYLE: resume IllegalCatch
+            });
+
+        // Results are stored in the same order as in a sequential run.
+        RuntimeException lastException = null;
+        for (int i = 0; i < starts; i++) {
+            if (results[i] != null) {
+                @SuppressWarnings("unchecked")
+                final PAIR result = (PAIR) results[i];
+                store(result);
+            } else if (exceptions[i] != null &&
+                       !(exceptions[i] instanceof CancellationException)) {
+                lastException = exceptions[i];
+            }
+        }
+        totalEvaluations = counter.getCount();
+
+        return lastException;
+    }
+
+    /**
+     * Gets the start point of a run.
+     *
+     * @param i Index of the run.
+     * @param min Lower bounds (may be {@code null}).
+     * @param max Upper bounds (may be {@code null}).
+     * @return the start point.
+     * @throws TooManyEvaluationsException if no point within the bounds
+     * could be generated.
+     */
+    private double[] startPoint(int i,
+                                double[] min,
+                                double[] max) {
+        if (i == 0) {
+            return getStartPoint();
+        }
+        double[] s = null;
+        int attempts = 0;
+        while (s == null) {
+            if (attempts++ >= getMaxEvaluations()) {
+                throw new TooManyEvaluationsException(getMaxEvaluations());
+            }
+            s = generator.get();
+            for (int k = 0; s != null && k < s.length; ++k) {
+                if ((min != null && s[k] < min[k]) || (max != null && s[k] > max[k])) {
+                    // reject the vector
+                    s = null;
+                    break;
+                }
+            }
+        }
+        return s;
+    }
+
+    /**
+     * Wraps the objective function, so that its evaluations are counted
+     * by the budget shared by concurrent starts.
+     * The default implementation returns its argument unchanged (i.e. the
+     * budget is only enforced by each start separately).
+     *
+     * @param data Optimization data.
+     * @param counter Shared evaluation counter.
+     * @return the optimization data to pass to the optimizers.
+     *
+     * @since 4.0
+     */
+    protected OptimizationData countEvaluations(OptimizationData data,
+                                                ConcurrentEvaluationCounter counter) {
+        return data;
+    }
+
+    /**
+     * Checks whether an optimum is good enough for stopping the remaining starts.
+     * The default implementation returns {@code false}.
+     *
+     * @param optimum Result of an optimization run.
+     * @return {@code true} if the remaining starts can be cancelled.
+     *
+     * @since 4.0
+     */
+    protected boolean isTargetReached(PAIR optimum) {
+        return false;
     }
 
     /**
@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.optim;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.math4.legacy.exception.TooManyEvaluationsException;
+
+/**
+ * Evaluation budget shared by optimizations running concurrently.
+ * <br>
+ * The objective function of each optimization is wrapped so that every
+ * evaluation is counted with {@link #increment()}, which fails when the
+ * budget is exhausted, or when the whole set of optimizations has been
+ * {@link #cancel() cancelled}.
+ * <em>It is not a "user" class.</em>
+ *
+ * @since 4.0
+ */
+public class ConcurrentEvaluationCounter {
+    /** Allowed number of evaluations. */
+    private final int maxEval;
+    /** Number of evaluations. */
+    private final AtomicInteger count = new AtomicInteger();
+    /** Cancellation indicator. */
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+
+    /**
+     * @param maxEval Allowed number of evaluations (shared by all the
+     * optimizations).
+     */
+    public ConcurrentEvaluationCounter(int maxEval) {
+        this.maxEval = maxEval;
+    }
+
+    /**
+     * Counts one evaluation.
+     *
+     * @throws TooManyEvaluationsException if the budget is exhausted.
+     * @throws CancellationException if the optimizations have been cancelled.
+     */
+    public void increment() {
+        if (cancelled.get()) {
+            throw new CancellationException();
+        }
+        if (count.incrementAndGet() > maxEval) {
+            throw new TooManyEvaluationsException(maxEval);
+        }
+    }
+
+    /**
+     * Gets the number of evaluations performed so far.
+     *
+     * @return the number of evaluations (bounded by the budget).
+     */
+    public int getCount() {
+        return Math.min(count.get(), maxEval);
+    }
+
+    /**
+     * Cancels all the optimizations: their next evaluation will fail.
+     */
+    public void cancel() {
+        cancelled.set(true);
+    }
+
+    /**
+     * Checks whether the optimizations have been cancelled.
+     *
+     * @return {@code true} if {@link #cancel()} has been called.
+     */
+    public boolean isCancelled() {
+        return cancelled.get();
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.optim;
+
+/**
+ * Objective value that is good enough for a multi-start optimization
+ * to stop: once a start has found an optimum that reaches it (i.e. whose
+ * value is smaller than or equal to the target when minimizing, or larger
+ * than or equal to it when maximizing), the remaining starts are cancelled.
+ *
+ * @since 4.0
+ */
+public class TargetValue implements OptimizationData {
+    /** Target value. */
+    private final double target;
+
+    /**
+     * @param target Target value of the objective function.
+     */
+    public TargetValue(double target) {
+        this.target = target;
+    }
+
+    /**
+     * Gets the target value.
+     *
+     * @return the target value of the objective function.
+     */
+    public double getTargetValue() {
+        return target;
+    }
+}
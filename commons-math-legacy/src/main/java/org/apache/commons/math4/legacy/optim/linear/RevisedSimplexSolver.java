@@ -0,0 +1,597 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.optim.linear;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.apache.commons.math4.legacy.exception.DimensionMismatchException;
+import org.apache.commons.math4.legacy.exception.TooManyIterationsException;
+import org.apache.commons.math4.legacy.linear.RealVector;
+import org.apache.commons.math4.legacy.optim.OptimizationData;
+import org.apache.commons.math4.legacy.optim.PointValuePair;
+import org.apache.commons.math4.legacy.optim.nonlinear.scalar.GoalType;
+
+/**
+ * Solves a linear problem using the revised simplex method with bounded
+ * variables.
+ * <p>
+ * Whereas {@link SimplexSolver} updates a dense tableau whose size is the
+ * number of constraints times the number of variables (plus one slack per
+ * inequality), this solver only stores the (sparse) constraint matrix and
+ * a sparse LU factorization of the current basis, which is updated with
+ * the Forrest-Tomlin method and periodically recomputed.  The cost of an
+ * iteration thus depends on the number of non-zero coefficients rather
+ * than on the dimensions of the problem.
+ * <p>
+ * Bounds on the variables are handled by the algorithm itself (a variable
+ * that is not in the basis sits at one of its bounds), rather than being
+ * converted to additional constraints.  They are passed as a
+ * {@link org.apache.commons.math4.legacy.optim.SimpleBounds SimpleBounds}
+ * instance whose entries may be infinite.
+ * <p>
+ * The {@link RevisedSimplexSolver} supports the following {@link OptimizationData} data provided
+ * as arguments to {@link #optimize(OptimizationData...)}:
+ * <ul>
+ *   <li>objective function: {@link LinearObjectiveFunction} - mandatory</li>
+ *   <li>linear constraints {@link LinearConstraintSet} - mandatory</li>
+ *   <li>type of optimization: {@link GoalType} - optional, default: {@link GoalType#MINIMIZE MINIMIZE}</li>
+ *   <li>whether to allow negative values as solution: {@link NonNegativeConstraint} - optional, default: false</li>
+ *   <li>bounds on the variables: {@link org.apache.commons.math4.legacy.optim.SimpleBounds SimpleBounds}
+ *    - optional, default: no bounds</li>
+ *   <li>pivot selection rule: {@link PivotSelectionRule} - optional, default {@link PivotSelectionRule#DANTZIG}</li>
+ *   <li>maximum number of iterations: {@link org.apache.commons.math4.legacy.optim.MaxIter} - optional, default: {@link Integer#MAX_VALUE}</li>
+ * </ul>
+ * <p>
+ * Whatever the pivot selection rule, the solver switches to Bland's rule
+ * after a number of consecutive degenerate iterations, so as to prevent
+ * cycling.
+ * <p>
+ * Default convergence criteria:
+ * <ul>
+ *   <li>Feasibility: 1e-6</li>
+ *   <li>Cut-Off value: 1e-10</li>
+ * </ul>
+ *
+ * @since 4.0
+ */
+public class RevisedSimplexSolver extends LinearOptimizer {
+    /** Default amount of infeasibility to accept. */
+    private static final double DEFAULT_EPSILON = 1.0e-6;
+    /** Tolerance on the reduced costs. */
+    private static final double OPTIMALITY_TOLERANCE = 1e-9;
+    /** Minimum pivot for removing an artificial variable from the basis. */
+    private static final double DRIVE_OUT_THRESHOLD = 1e-7;
+    /** Number of updates after which the basis is factorized again. */
+    private static final int REFACTORIZATION_INTERVAL = 100;
+    /** Number of consecutive degenerate iterations before switching to Bland's rule. */
+    private static final int DEGENERATE_LIMIT = 50;
+
+    /** Amount of infeasibility to accept at the end of the first phase. */
+    private final double epsilon;
+    /** Pivots smaller than the cut-off are treated as zero. */
+    private final double cutOff;
+    /** The pivot selection method to use. */
+    private PivotSelectionRule pivotSelection;
+
+    /** Number of variables. */
+    private int n;
+    /** Number of constraints. */
+    private int m;
+    /** Number of columns (variables, then slacks, then artificials). */
+    private int columns;
+    /** Start of each column in {@link #rowIndex} and {@link #values}. */
+    private int[] colStart;
+    /** Row indices of the entries of the constraint matrix. */
+    private int[] rowIndex;
+    /** Values of the entries of the constraint matrix. */
+    private double[] values;
+    /** Right-hand side of the constraints. */
+    private double[] rhs;
+    /** Lower bound of each column. */
+    private double[] lower;
+    /** Upper bound of each column. */
+    private double[] upper;
+    /** Current value of each column. */
+    private double[] x;
+    /** Column at each position of the basis. */
+    private int[] basis;
+    /** Position in the basis of each column (-1 if not basic). */
+    private int[] basisPosition;
+    /** Factorization of the basis. */
+    private SparseLUBasis lu;
+
+    /**
+     * Builds a solver with default settings.
+     */
+    public RevisedSimplexSolver() {
+        this(DEFAULT_EPSILON, SimplexSolver.DEFAULT_CUT_OFF);
+    }
+
+    /**
+     * Builds a solver with a specified accepted amount of infeasibility.
+     *
+     * @param epsilon Amount of infeasibility to accept.
+     */
+    public RevisedSimplexSolver(final double epsilon) {
+        this(epsilon, SimplexSolver.DEFAULT_CUT_OFF);
+    }
+
+    /**
+     * Builds a solver with a specified accepted amount of infeasibility.
+     *
+     * @param epsilon Amount of infeasibility to accept.
+     * @param cutOff Pivots smaller than the cutOff are treated as zero.
+     */
+    public RevisedSimplexSolver(final double epsilon,
+                                final double cutOff) {
+        this.epsilon = epsilon;
+        this.cutOff = cutOff;
+        this.pivotSelection = PivotSelectionRule.DANTZIG;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param optData Optimization data. In addition to those documented in
+     * {@link LinearOptimizer#optimize(OptimizationData...)
+     * LinearOptimizer}, this method will register the following data:
+     * <ul>
+     *  <li>{@link org.apache.commons.math4.legacy.optim.SimpleBounds SimpleBounds}</li>
+     *  <li>{@link PivotSelectionRule}</li>
+     * </ul>
+     *
+     * @return {@inheritDoc}
+     * @throws TooManyIterationsException if the maximal number of iterations is exceeded.
+     * @throws DimensionMismatchException if the dimension of the constraints
+     * or of the bounds does not match the dimension of the objective function.
+     * @throws NoFeasibleSolutionException if there is no feasible solution.
+     * @throws UnboundedSolutionException if the objective is unbounded.
+     */
+    @Override
+    public PointValuePair optimize(OptimizationData... optData)
+        throws TooManyIterationsException {
+        // Set up base class and perform computation.
+        return super.optimize(optData);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param optData Optimization data.
+     * In addition to those documented in
+     * {@link LinearOptimizer#parseOptimizationData(OptimizationData[])
+     * LinearOptimizer}, this method will register the following data:
+     * <ul>
+     *  <li>{@link PivotSelectionRule}</li>
+     * </ul>
+     */
+    @Override
+    protected void parseOptimizationData(OptimizationData... optData) {
+        // Allow base class to register its own data.
+        super.parseOptimizationData(optData);
+
+        for (OptimizationData data : optData) {
+            if (data instanceof PivotSelectionRule) {
+                pivotSelection = (PivotSelectionRule) data;
+                continue;
+            }
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected PointValuePair doOptimize()
+        throws TooManyIterationsException,
+               UnboundedSolutionException,
+               NoFeasibleSolutionException {
+        final LinearObjectiveFunction function = getFunction();
+        setUp(function, getConstraints());
+
+        // Phase 1: minimize the sum of the artificial variables.
+        final double[] cost = new double[columns];
+        Arrays.fill(cost, n + m, columns, 1);
+        iterate(cost);
+        double infeasibility = 0;
+        for (int j = n + m; j < columns; j++) {
+            infeasibility += x[j];
+        }
+        if (infeasibility > epsilon) {
+            throw new NoFeasibleSolutionException();
+        }
+        removeArtificialVariables();
+
+        // Phase 2.
+        Arrays.fill(cost, 0);
+        final RealVector c = function.getCoefficients();
+        final double sign = getGoalType() == GoalType.MAXIMIZE ? -1 : 1;
+        for (int j = 0; j < n; j++) {
+            cost[j] = sign * c.getEntry(j);
+        }
+        iterate(cost);
+
+        final double[] point = Arrays.copyOf(x, n);
+        return new PointValuePair(point, function.value(point));
+    }
+
+    /**
+     * Builds the sparse representation of the problem, and a starting basis
+     * made of slack and artificial variables.
+     *
+     * @param function Objective function.
+     * @param constraints Constraints.
+     * @throws DimensionMismatchException if the dimensions are inconsistent.
+     * @throws NoFeasibleSolutionException if a lower bound is larger than
+     * the corresponding upper bound.
+     */
+    private void setUp(LinearObjectiveFunction function,
+                       Collection<LinearConstraint> constraints) {
+        n = function.getCoefficients().getDimension();
+        m = constraints.size();
+        columns = n + 2 * m;
+
+        // Bounds.
+        lower = new double[columns];
+        upper = new double[columns];
+        final double[] lb = getLowerBound();
+        final double[] ub = getUpperBound();
+        if (lb != null && lb.length != n) {
+            throw new DimensionMismatchException(lb.length, n);
+        }
+        if (ub != null && ub.length != n) {
+            throw new DimensionMismatchException(ub.length, n);
+        }
+        for (int j = 0; j < n; j++) {
+            lower[j] = lb == null ? Double.NEGATIVE_INFINITY : lb[j];
+            upper[j] = ub == null ? Double.POSITIVE_INFINITY : ub[j];
+            if (isRestrictedToNonNegative()) {
+                lower[j] = Math.max(lower[j], 0);
+            }
+            if (lower[j] > upper[j]) {
+                throw new NoFeasibleSolutionException();
+            }
+        }
+
+        // Rows of the structural part (non-zero entries only).
+        final int[] count = new int[n];
+        rhs = new double[m];
+        final int[][] rowColumns = new int[m][];
+        final double[][] rowValues = new double[m][];
+        final Relationship[] relationships = new Relationship[m];
+        int i = 0;
+        for (LinearConstraint constraint : constraints) {
+            final RealVector coefficients = constraint.getCoefficients();
+            if (coefficients.getDimension() != n) {
+                throw new DimensionMismatchException(coefficients.getDimension(), n);
+            }
+            final double[] a = coefficients.toArray();
+            int nnz = 0;
+            for (final double v : a) {
+                if (v != 0) {
+                    ++nnz;
+                }
+            }
+            rowColumns[i] = new int[nnz];
+            rowValues[i] = new double[nnz];
+            nnz = 0;
+            for (int j = 0; j < n; j++) {
+                if (a[j] != 0) {
+                    rowColumns[i][nnz] = j;
+                    rowValues[i][nnz] = a[j];
+                    ++count[j];
+                    ++nnz;
+                }
+            }
+            relationships[i] = constraint.getRelationship();
+            rhs[i] = constraint.getValue();
+            ++i;
+        }
+
+        // Initial point: variables at a finite bound (or zero).
+        x = new double[columns];
+        for (int j = 0; j < n; j++) {
+            x[j] = Double.isInfinite(lower[j]) ?
+                (Double.isInfinite(upper[j]) ? 0 : upper[j]) :
+                lower[j];
+        }
+
+        // Compressed columns: variables, slacks and artificials.
+        colStart = new int[columns + 1];
+        for (int j = 0; j < n; j++) {
+            colStart[j + 1] = colStart[j] + count[j];
+        }
+        for (int j = n; j < columns; j++) {
+            colStart[j + 1] = colStart[j] + 1;
+        }
+        rowIndex = new int[colStart[columns]];
+        values = new double[rowIndex.length];
+        final int[] fill = Arrays.copyOf(colStart, n);
+        final double[] residual = rhs.clone();
+        for (i = 0; i < m; i++) {
+            for (int k = 0; k < rowColumns[i].length; k++) {
+                final int j = rowColumns[i][k];
+                final double v = rowValues[i][k];
+                rowIndex[fill[j]] = i;
+                values[fill[j]] = v;
+                ++fill[j];
+                residual[i] -= v * x[j];
+            }
+        }
+
+        // Slack s of row i: a x + s = b, with s >= 0 for "<=" constraints,
+        // s <= 0 for ">=" constraints, and s = 0 for equalities.
+        // An artificial variable is needed when the residual does not fit.
+        basis = new int[m];
+        basisPosition = new int[columns];
+        Arrays.fill(basisPosition, -1);
+        for (i = 0; i < m; i++) {
+            final int s = n + i;
+            final int t = n + m + i;
+            switch (relationships[i]) {
+            case LEQ:
+                upper[s] = Double.POSITIVE_INFINITY;
+                break;
+            case GEQ:
+                lower[s] = Double.NEGATIVE_INFINITY;
+                break;
+            default:
+                break;
+            }
+            rowIndex[colStart[s]] = i;
+            values[colStart[s]] = 1;
+            rowIndex[colStart[t]] = i;
+
+            final double r = residual[i];
+            final double clamped = Math.min(Math.max(r, lower[s]), upper[s]);
+            if (clamped == r) {
+                x[s] = r;
+                values[colStart[t]] = 1;
+                setBasic(i, s);
+            } else {
+                x[s] = clamped;
+                values[colStart[t]] = r > clamped ? 1 : -1;
+                upper[t] = Double.POSITIVE_INFINITY;
+                x[t] = Math.abs(r - clamped);
+                setBasic(i, t);
+            }
+        }
+
+        lu = new SparseLUBasis(m, colStart, rowIndex, values);
+        refactorize();
+    }
+
+    /**
+     * Puts a column in the basis.
+     *
+     * @param position Position in the basis.
+     * @param column Column.
+     */
+    private void setBasic(int position,
+                          int column) {
+        basis[position] = column;
+        basisPosition[column] = position;
+    }
+
+    /**
+     * Factorizes the basis (replacing the columns that make it singular
+     * by slack columns), and recomputes the values of the basic variables.
+     */
+    private void refactorize() {
+        final int[] replacement = lu.factorize(basis);
+        if (replacement != null) {
+            for (int p = 0; p < m; p++) {
+                if (replacement[p] >= 0) {
+                    // The column that leaves the basis keeps its value.
+                    basisPosition[basis[p]] = -1;
+                    setBasic(p, n + replacement[p]);
+                }
+            }
+        }
+
+        final double[] r = rhs.clone();
+        for (int j = 0; j < columns; j++) {
+            final double v = x[j];
+            if (basisPosition[j] < 0 && v != 0) {
+                for (int k = colStart[j]; k < colStart[j + 1]; k++) {
+                    r[rowIndex[k]] -= values[k] * v;
+                }
+            }
+        }
+        final double[] xB = new double[m];
+        lu.ftran(r, xB, false);
+        for (int p = 0; p < m; p++) {
+            x[basis[p]] = xB[p];
+        }
+    }
+
+    /**
+     * Performs simplex iterations until the current basis is optimal.
+     *
+     * @param cost Cost of each column.
+     * @throws UnboundedSolutionException if the objective is unbounded.
+     * @throws TooManyIterationsException if the maximal number of iterations
+     * is exceeded.
+     */
+    private void iterate(double[] cost) {
+        final double[] cB = new double[m];
+        final double[] y = new double[m];
+        final double[] a = new double[m];
+        final double[] alpha = new double[m];
+        int degenerate = 0;
+
+        while (true) {
+            // Pricing.
+            for (int p = 0; p < m; p++) {
+                cB[p] = cost[basis[p]];
+            }
+            lu.btran(cB, y);
+            final boolean bland = pivotSelection == PivotSelectionRule.BLAND ||
+                degenerate > DEGENERATE_LIMIT;
+            int q = -1;
+            double dq = 0;
+            for (int j = 0; j < columns; j++) {
+                if (basisPosition[j] >= 0 || lower[j] == upper[j]) {
+                    continue;
+                }
+                double d = cost[j];
+                for (int k = colStart[j]; k < colStart[j + 1]; k++) {
+                    d -= y[rowIndex[k]] * values[k];
+                }
+                if ((d < -OPTIMALITY_TOLERANCE && x[j] < upper[j]) ||
+                    (d > OPTIMALITY_TOLERANCE && x[j] > lower[j])) {
+                    if (Math.abs(d) > Math.abs(dq)) {
+                        q = j;
+                        dq = d;
+                    }
+                    if (bland) {
+                        break;
+                    }
+                }
+            }
+            if (q < 0) {
+                return;
+            }
+            incrementIterationCount();
+
+            // Direction of the entering column.
+            for (int k = colStart[q]; k < colStart[q + 1]; k++) {
+                a[rowIndex[k]] = values[k];
+            }
+            lu.ftran(a, alpha, true);
+            for (int k = colStart[q]; k < colStart[q + 1]; k++) {
+                a[rowIndex[k]] = 0;
+            }
+
+            // Ratio test: the entering variable moves in direction "dir",
+            // and the basic variables move by "-dir * alpha".
+            final double dir = dq < 0 ? 1 : -1;
+            double theta = dir > 0 ? upper[q] - x[q] : x[q] - lower[q];
+            int leave = -1;
+            for (int p = 0; p < m; p++) {
+                final double ap = alpha[p];
+                if (Math.abs(ap) <= cutOff) {
+                    continue;
+                }
+                final int v = basis[p];
+                final double da = dir * ap;
+                final double bound = da > 0 ? lower[v] : upper[v];
+                if (Double.isInfinite(bound)) {
+                    continue;
+                }
+                final double ratio = Math.max(0, (x[v] - bound) / da);
+                if (ratio < theta ||
+                    (ratio == theta &&
+                     leave >= 0 &&
+                     (bland ?
+                      v < basis[leave] :
+                      Math.abs(ap) > Math.abs(alpha[leave])))) {
+                    theta = ratio;
+                    leave = p;
+                }
+            }
+            if (Double.isInfinite(theta)) {
+                throw new UnboundedSolutionException();
+            }
+            degenerate = theta == 0 ? degenerate + 1 : 0;
+
+            // Update of the point.
+            if (theta != 0) {
+                final double step = dir * theta;
+                x[q] += step;
+                for (int p = 0; p < m; p++) {
+                    x[basis[p]] -= step * alpha[p];
+                }
+            }
+            if (leave < 0) {
+                // Bound flip.
+                x[q] = dir > 0 ? upper[q] : lower[q];
+                continue;
+            }
+            final int v = basis[leave];
+            x[v] = dir * alpha[leave] > 0 ? lower[v] : upper[v];
+            basisPosition[v] = -1;
+            setBasic(leave, q);
+            if (!lu.update(leave) ||
+                lu.getUpdateCount() >= REFACTORIZATION_INTERVAL) {
+                refactorize();
+            }
+        }
+    }
+
+    /**
+     * Fixes the artificial variables to zero, and removes them from the
+     * basis whenever possible (those that remain correspond to redundant
+     * constraints).
+     */
+    private void removeArtificialVariables() {
+        for (int j = n + m; j < columns; j++) {
+            upper[j] = 0;
+            if (basisPosition[j] < 0) {
+                x[j] = 0;
+            }
+        }
+
+        final double[] e = new double[m];
+        final double[] rho = new double[m];
+        final double[] a = new double[m];
+        final double[] alpha = new double[m];
+        for (int p = 0; p < m; p++) {
+            final int t = basis[p];
+            if (t < n + m) {
+                continue;
+            }
+            // Row p of the inverse of the basis.
+            e[p] = 1;
+            lu.btran(e, rho);
+            e[p] = 0;
+            int q = -1;
+            double best = DRIVE_OUT_THRESHOLD;
+            for (int j = 0; j < n + m; j++) {
+                if (basisPosition[j] >= 0) {
+                    continue;
+                }
+                double pivot = 0;
+                for (int k = colStart[j]; k < colStart[j + 1]; k++) {
+                    pivot += rho[rowIndex[k]] * values[k];
+                }
+                if (Math.abs(pivot) > best) {
+                    best = Math.abs(pivot);
+                    q = j;
+                }
+            }
+            if (q < 0) {
+                continue;
+            }
+
+            // Degenerate pivot: the entering variable keeps its value.
+            for (int k = colStart[q]; k < colStart[q + 1]; k++) {
+                a[rowIndex[k]] = values[k];
+            }
+            lu.ftran(a, alpha, true);
+            for (int k = colStart[q]; k < colStart[q + 1]; k++) {
+                a[rowIndex[k]] = 0;
+            }
+            x[t] = 0;
+            basisPosition[t] = -1;
+            setBasic(p, q);
+            if (!lu.update(p)) {
+                refactorize();
+            }
+        }
+        refactorize();
+    }
+}
@@ -0,0 +1,746 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.optim.linear;
+
+import java.util.Arrays;
+
+/**
+ * Sparse LU factorization of the basis of a linear program, with
+ * Forrest-Tomlin updates.
+ *
+ * <p>The basis {@code B} is a square matrix whose columns are taken from a
+ * matrix stored in compressed sparse column format; rows are the rows of
+ * that matrix, and columns are referred to by their position in the basis.
+ * The factorization is computed by Gaussian elimination with the Markowitz
+ * strategy (a column of minimum count is selected, and within it, among
+ * the entries that pass a threshold test, the row of minimum count), so
+ * that slack columns and other sparse columns cause little fill-in.</p>
+ *
+ * <p>The factorization reads {@code R B = L U}, where {@code L} is stored
+ * as a product of column etas, {@code U} is stored by rows as an upper
+ * triangular matrix up to a permutation of its rows and columns, and
+ * {@code R} is a product of row etas produced by the updates.  Replacing
+ * a column of the basis moves the corresponding column of {@code U} to
+ * the end of the pivot sequence, and restores the triangular shape by
+ * eliminating the off-diagonal part of its pivot row (Forrest and Tomlin,
+ * 1972).</p>
+ */
+final class SparseLUBasis {
+    /** Relative threshold for the selection of pivots during factorization. */
+    private static final double PIVOT_THRESHOLD = 0.1;
+    /** Absolute value below which a column is considered to be zero. */
+    private static final double SINGULARITY_THRESHOLD = 1e-11;
+    /** Relative accuracy required for the diagonal computed by an update. */
+    private static final double UPDATE_ACCURACY = 1e-8;
+    /** Initial capacity of the growable arrays. */
+    private static final int INITIAL_CAPACITY = 4;
+
+    /** Number of rows (and columns) of the basis. */
+    private final int m;
+    /** Start of each column in {@link #rowIndex} and {@link #values}. */
+    private final int[] colStart;
+    /** Row indices of the entries of the matrix. */
+    private final int[] rowIndex;
+    /** Values of the entries of the matrix. */
+    private final double[] values;
+
+    /** Number of column etas of {@code L}. */
+    private int lCount;
+    /** Pivot row of each column eta. */
+    private int[] lPivot;
+    /** Start of each column eta in {@link #lIndex} and {@link #lValue}. */
+    private int[] lStart;
+    /** Rows of the multipliers of the column etas. */
+    private int[] lIndex;
+    /** Multipliers of the column etas. */
+    private double[] lValue;
+
+    /** Number of row etas of {@code R}. */
+    private int rCount;
+    /** Pivot row of each row eta. */
+    private int[] rPivot;
+    /** Start of each row eta in {@link #rIndex} and {@link #rValue}. */
+    private int[] rStart;
+    /** Rows of the multipliers of the row etas. */
+    private int[] rIndex;
+    /** Multipliers of the row etas. */
+    private double[] rValue;
+
+    /** Columns (basis positions) of the entries of each row of {@code U}. */
+    private final int[][] uCol;
+    /** Values of the entries of each row of {@code U}. */
+    private final double[][] uVal;
+    /** Number of entries in each row of {@code U}. */
+    private final int[] uLen;
+    /** Rows of {@code U} that may have an entry in a given column. */
+    private final int[][] uColRows;
+    /** Number of rows in {@link #uColRows}. */
+    private final int[] uColLen;
+    /** Diagonal entry of each row of {@code U}. */
+    private final double[] diag;
+    /** Row of each pivot, in pivot order. */
+    private final int[] seqRow;
+    /** Column of each pivot, in pivot order. */
+    private final int[] seqCol;
+    /** Rank of each column in the pivot order. */
+    private final int[] colRank;
+
+    /** Partially transformed column ({@code R L^-1 a}) of the last entering column. */
+    private final double[] spike;
+    /** Whether {@link #spike} holds a valid column. */
+    private boolean spikeValid;
+    /** Number of updates since the last factorization. */
+    private int updates;
+    /** Work array. */
+    private final double[] work;
+
+    /**
+     * @param m Number of rows.
+     * @param colStart Start of each column in {@code rowIndex} and {@code values}
+     * (the array has one more element than there are columns).
+     * @param rowIndex Row indices of the entries.
+     * @param values Values of the entries.
+     */
+    SparseLUBasis(int m,
+                  int[] colStart,
+                  int[] rowIndex,
+                  double[] values) {
+        this.m = m;
+        this.colStart = colStart;
+        this.rowIndex = rowIndex;
+        this.values = values;
+        uCol = new int[m][];
+        uVal = new double[m][];
+        uLen = new int[m];
+        uColRows = new int[m][];
+        uColLen = new int[m];
+        diag = new double[m];
+        seqRow = new int[m];
+        seqCol = new int[m];
+        colRank = new int[m];
+        spike = new double[m];
+        work = new double[m];
+    }
+
+    /**
+     * Gets the number of updates performed since the last factorization.
+     *
+     * @return the number of updates.
+     */
+    int getUpdateCount() {
+        return updates;
+    }
+
+    /**
+     * Factorizes a basis.
+     * If the basis is (numerically) singular, the factorization is that of
+     * the basis where the columns that could not be pivoted are replaced by
+     * unit columns, whose rows are returned so that the caller can perform
+     * the same substitution.
+     *
+     * @param basis Indices of the columns of the matrix that form the basis.
+     * @return {@code null} if the basis is not singular, or an array whose
+     * entry at each position of a replaced column is the row of the unit
+     * column that replaces it (and -1 elsewhere).
+     */
+    int[] factorize(int[] basis) {
+        lCount = 0;
+        lPivot = new int[INITIAL_CAPACITY];
+        lStart = new int[INITIAL_CAPACITY + 1];
+        lIndex = new int[m + INITIAL_CAPACITY];
+        lValue = new double[m + INITIAL_CAPACITY];
+        rCount = 0;
+        rPivot = new int[INITIAL_CAPACITY];
+        rStart = new int[INITIAL_CAPACITY + 1];
+        rIndex = new int[INITIAL_CAPACITY];
+        rValue = new double[INITIAL_CAPACITY];
+        updates = 0;
+        spikeValid = false;
+
+        // Active submatrix, by rows (the entries are moved to U when the row
+        // is pivoted) and by columns (pattern only).
+        final int[] rowCount = new int[m];
+        final int[] colCount = new int[m];
+        for (int c = 0; c < m; c++) {
+            final int col = basis[c];
+            for (int k = colStart[col]; k < colStart[col + 1]; k++) {
+                if (values[k] != 0) {
+                    ++rowCount[rowIndex[k]];
+                    ++colCount[c];
+                }
+            }
+        }
+        for (int i = 0; i < m; i++) {
+            uCol[i] = new int[Math.max(rowCount[i], INITIAL_CAPACITY)];
+            uVal[i] = new double[uCol[i].length];
+            uLen[i] = 0;
+        }
+        for (int c = 0; c < m; c++) {
+            uColRows[c] = new int[Math.max(colCount[c], INITIAL_CAPACITY)];
+            uColLen[c] = 0;
+            final int col = basis[c];
+            for (int k = colStart[col]; k < colStart[col + 1]; k++) {
+                final double v = values[k];
+                if (v != 0) {
+                    final int i = rowIndex[k];
+                    appendToRow(i, c, v);
+                    appendToColumn(c, i);
+                }
+            }
+        }
+
+        // Columns, in buckets of equal counts.
+        final int[] head = new int[m + 1];
+        final int[] next = new int[m];
+        final int[] prev = new int[m];
+        Arrays.fill(head, -1);
+        for (int c = 0; c < m; c++) {
+            bucketInsert(c, colCount[c], head, next, prev);
+        }
+
+        final boolean[] rowDone = new boolean[m];
+        final boolean[] colDone = new boolean[m];
+        final int[] position = new int[m];
+        Arrays.fill(position, -1);
+        int deficient = 0;
+        final int[] deficientCols = new int[m];
+        int t = 0;
+        while (t + deficient < m) {
+            // Column of minimum count.
+            int c = -1;
+            for (int count = 0; count <= m; count++) {
+                if (head[count] >= 0) {
+                    c = head[count];
+                    break;
+                }
+            }
+            bucketRemove(c, colCount[c], head, next, prev);
+            colDone[c] = true;
+
+            // Threshold test, then minimum row count.
+            double maxAbs = 0;
+            for (int k = 0; k < uColLen[c]; k++) {
+                final int i = uColRows[c][k];
+                if (!rowDone[i]) {
+                    maxAbs = Math.max(maxAbs, Math.abs(entry(i, c)));
+                }
+            }
+            if (maxAbs <= SINGULARITY_THRESHOLD) {
+                // Remove the column, also from the rows already pivoted,
+                // so that it can be replaced by a unit column.
+                for (int k = 0; k < uColLen[c]; k++) {
+                    removeFromRow(uColRows[c][k], c);
+                }
+                deficientCols[deficient++] = c;
+                continue;
+            }
+            int r = -1;
+            double pivot = 0;
+            for (int k = 0; k < uColLen[c]; k++) {
+                final int i = uColRows[c][k];
+                if (!rowDone[i]) {
+                    final double v = entry(i, c);
+                    final double a = Math.abs(v);
+                    if (a >= PIVOT_THRESHOLD * maxAbs &&
+                        (r < 0 ||
+                         uLen[i] < uLen[r] ||
+                         (uLen[i] == uLen[r] && a > Math.abs(pivot)))) {
+                        r = i;
+                        pivot = v;
+                    }
+                }
+            }
+
+            // The pivot row leaves the active submatrix.
+            rowDone[r] = true;
+            seqRow[t] = r;
+            seqCol[t] = c;
+            colRank[c] = t;
+            diag[r] = pivot;
+            for (int k = 0; k < uLen[r]; k++) {
+                final int cc = uCol[r][k];
+                if (cc != c) {
+                    bucketRemove(cc, colCount[cc], head, next, prev);
+                    --colCount[cc];
+                    bucketInsert(cc, colCount[cc], head, next, prev);
+                }
+            }
+
+            // Eliminate the column from the other active rows.
+            final int start = lCount == 0 ? 0 : lStart[lCount];
+            int len = 0;
+            for (int k = 0; k < uColLen[c]; k++) {
+                final int i = uColRows[c][k];
+                if (rowDone[i]) {
+                    continue;
+                }
+                final double l = removeFromRow(i, c) / pivot;
+                if (lIndex.length <= start + len) {
+                    lIndex = Arrays.copyOf(lIndex, 2 * (start + len + 1));
+                    lValue = Arrays.copyOf(lValue, lIndex.length);
+                }
+                lIndex[start + len] = i;
+                lValue[start + len] = l;
+                ++len;
+
+                // Row i -= l * row r.
+                for (int q = 0; q < uLen[i]; q++) {
+                    position[uCol[i][q]] = q;
+                }
+                for (int q = 0; q < uLen[r]; q++) {
+                    final int cc = uCol[r][q];
+                    if (cc == c) {
+                        continue;
+                    }
+                    final int p = position[cc];
+                    if (p >= 0) {
+                        uVal[i][p] -= l * uVal[r][q];
+                    } else {
+                        appendToRow(i, cc, -l * uVal[r][q]);
+                        appendToColumn(cc, i);
+                        bucketRemove(cc, colCount[cc], head, next, prev);
+                        ++colCount[cc];
+                        bucketInsert(cc, colCount[cc], head, next, prev);
+                    }
+                }
+                for (int q = 0; q < uLen[i]; q++) {
+                    position[uCol[i][q]] = -1;
+                }
+            }
+            if (len > 0) {
+                addColumnEta(r, start, len);
+            }
+            ++t;
+        }
+
+        if (deficient == 0) {
+            rebuildColumnPatterns();
+            return null;
+        }
+
+        // Pair the deficient columns with the rows that were not pivoted,
+        // whose unit columns are placed at the end of the pivot sequence.
+        final int[] replacement = new int[m];
+        Arrays.fill(replacement, -1);
+        int d = 0;
+        for (int i = 0; i < m; i++) {
+            if (!rowDone[i]) {
+                final int c = deficientCols[d++];
+                replacement[c] = i;
+                uLen[i] = 0;
+                appendToRow(i, c, 1);
+                diag[i] = 1;
+                seqRow[t] = i;
+                seqCol[t] = c;
+                colRank[c] = t;
+                ++t;
+            }
+        }
+        rebuildColumnPatterns();
+        return replacement;
+    }
+
+    /**
+     * Solves {@code B x = a}.
+     *
+     * @param a Right-hand side, indexed by row (not modified).
+     * @param x Solution, indexed by basis position.
+     * @param saveSpike Whether to keep the transformed column for a
+     * subsequent {@link #update(int) update}.
+     */
+    void ftran(double[] a,
+               double[] x,
+               boolean saveSpike) {
+        final double[] v = work;
+        System.arraycopy(a, 0, v, 0, m);
+
+        // L^-1
+        for (int e = 0; e < lCount; e++) {
+            final double vp = v[lPivot[e]];
+            if (vp != 0) {
+                for (int k = lStart[e]; k < lStart[e + 1]; k++) {
+                    v[lIndex[k]] -= lValue[k] * vp;
+                }
+            }
+        }
+        // R
+        for (int e = 0; e < rCount; e++) {
+            double sum = 0;
+            for (int k = rStart[e]; k < rStart[e + 1]; k++) {
+                sum += rValue[k] * v[rIndex[k]];
+            }
+            v[rPivot[e]] -= sum;
+        }
+        if (saveSpike) {
+            System.arraycopy(v, 0, spike, 0, m);
+            spikeValid = true;
+        }
+        // U^-1
+        for (int t = m - 1; t >= 0; t--) {
+            final int r = seqRow[t];
+            final int c = seqCol[t];
+            double sum = v[r];
+            final int[] cols = uCol[r];
+            final double[] vals = uVal[r];
+            for (int k = 0; k < uLen[r]; k++) {
+                final int cc = cols[k];
+                if (cc != c) {
+                    sum -= vals[k] * x[cc];
+                }
+            }
+            x[c] = sum / diag[r];
+        }
+        Arrays.fill(v, 0);
+    }
+
+    /**
+     * Solves {@code B^T y = c}.
+     *
+     * @param c Right-hand side, indexed by basis position (not modified).
+     * @param y Solution, indexed by row.
+     */
+    void btran(double[] c,
+               double[] y) {
+        final double[] w = work;
+        System.arraycopy(c, 0, w, 0, m);
+
+        // U^-T
+        for (int t = 0; t < m; t++) {
+            final int r = seqRow[t];
+            final int col = seqCol[t];
+            final double yr = w[col] / diag[r];
+            y[r] = yr;
+            if (yr != 0) {
+                final int[] cols = uCol[r];
+                final double[] vals = uVal[r];
+                for (int k = 0; k < uLen[r]; k++) {
+                    final int cc = cols[k];
+                    if (cc != col) {
+                        w[cc] -= vals[k] * yr;
+                    }
+                }
+            }
+        }
+        // R^T
+        for (int e = rCount - 1; e >= 0; e--) {
+            final double yp = y[rPivot[e]];
+            if (yp != 0) {
+                for (int k = rStart[e]; k < rStart[e + 1]; k++) {
+                    y[rIndex[k]] -= rValue[k] * yp;
+                }
+            }
+        }
+        // L^-T
+        for (int e = lCount - 1; e >= 0; e--) {
+            double sum = 0;
+            for (int k = lStart[e]; k < lStart[e + 1]; k++) {
+                sum += lValue[k] * y[lIndex[k]];
+            }
+            y[lPivot[e]] -= sum;
+        }
+        Arrays.fill(w, 0);
+    }
+
+    /**
+     * Replaces a column of the basis by the column that was last passed to
+     * {@link #ftran(double[],double[],boolean) ftran} with {@code saveSpike}
+     * set to {@code true}.
+     *
+     * @param p Position of the column to replace.
+     * @return {@code false} if the updated factorization is not accurate
+     * enough (in which case the basis must be factorized again).
+     */
+    boolean update(int p) {
+        if (!spikeValid) {
+            return false;
+        }
+        spikeValid = false;
+        final int tp = colRank[p];
+        final int rp = seqRow[tp];
+        // Expected value of the new diagonal entry.
+        final double expected = spikeDiagonal(p, rp);
+
+        // Replace the column.
+        for (int k = 0; k < uColLen[p]; k++) {
+            removeFromRow(uColRows[p][k], p);
+        }
+        uColLen[p] = 0;
+        for (int i = 0; i < m; i++) {
+            final double v = spike[i];
+            if (v != 0) {
+                appendToRow(i, p, v);
+                appendToColumn(p, i);
+            }
+        }
+
+        // Move the column and its pivot row to the end of the sequence.
+        for (int t = tp; t < m - 1; t++) {
+            seqRow[t] = seqRow[t + 1];
+            seqCol[t] = seqCol[t + 1];
+            colRank[seqCol[t]] = t;
+        }
+        seqRow[m - 1] = rp;
+        seqCol[m - 1] = p;
+        colRank[p] = m - 1;
+
+        // Eliminate the off-diagonal part of the pivot row.
+        final double[] w = work;
+        for (int k = 0; k < uLen[rp]; k++) {
+            w[uCol[rp][k]] = uVal[rp][k];
+        }
+        final int start = rCount == 0 ? 0 : rStart[rCount];
+        int len = 0;
+        for (int t = tp; t < m - 1; t++) {
+            final int c = seqCol[t];
+            final double v = w[c];
+            if (v == 0) {
+                continue;
+            }
+            final int r = seqRow[t];
+            final double mu = v / diag[r];
+            for (int k = 0; k < uLen[r]; k++) {
+                w[uCol[r][k]] -= mu * uVal[r][k];
+            }
+            w[c] = 0;
+            if (rIndex.length <= start + len) {
+                rIndex = Arrays.copyOf(rIndex, 2 * (start + len + 1));
+                rValue = Arrays.copyOf(rValue, rIndex.length);
+            }
+            rIndex[start + len] = r;
+            rValue[start + len] = mu;
+            ++len;
+        }
+        final double newDiag = w[p];
+        Arrays.fill(w, 0);
+        if (len > 0) {
+            addRowEta(rp, start, len);
+        }
+        uLen[rp] = 0;
+        appendToRow(rp, p, newDiag);
+        if (spike[rp] == 0) {
+            appendToColumn(p, rp);
+        }
+        diag[rp] = newDiag;
+        ++updates;
+
+        return Math.abs(newDiag - expected) <= UPDATE_ACCURACY * (1 + Math.abs(expected)) &&
+            Math.abs(newDiag) > SINGULARITY_THRESHOLD;
+    }
+
+    /**
+     * Computes the diagonal entry that an update should produce: the pivot
+     * of the old diagonal entry times the component of the solution of
+     * {@code B x = a} at the replaced position.
+     *
+     * @param p Position of the column to replace.
+     * @param rp Pivot row of that column.
+     * @return the expected diagonal entry.
+     */
+    private double spikeDiagonal(int p,
+                                 int rp) {
+        // x = U^-1 spike, only the component at position p is needed: it
+        // depends on the components whose rank is higher.
+        final double[] x = work;
+        final int tp = colRank[p];
+        for (int t = m - 1; t >= tp; t--) {
+            final int r = seqRow[t];
+            final int c = seqCol[t];
+            double sum = spike[r];
+            for (int k = 0; k < uLen[r]; k++) {
+                final int cc = uCol[r][k];
+                if (cc != c) {
+                    sum -= uVal[r][k] * x[cc];
+                }
+            }
+            x[c] = sum / diag[r];
+        }
+        final double xp = x[p];
+        Arrays.fill(x, 0);
+        return xp * diag[rp];
+    }
+
+    /**
+     * Gets an entry of the active submatrix.
+     *
+     * @param i Row.
+     * @param c Column.
+     * @return the entry.
+     */
+    private double entry(int i,
+                         int c) {
+        final int[] cols = uCol[i];
+        for (int k = 0; k < uLen[i]; k++) {
+            if (cols[k] == c) {
+                return uVal[i][k];
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Appends an entry to a row of {@code U}.
+     *
+     * @param i Row.
+     * @param c Column.
+     * @param v Value.
+     */
+    private void appendToRow(int i,
+                             int c,
+                             double v) {
+        if (uLen[i] == uCol[i].length) {
+            uCol[i] = Arrays.copyOf(uCol[i], 2 * uLen[i] + 1);
+            uVal[i] = Arrays.copyOf(uVal[i], uCol[i].length);
+        }
+        uCol[i][uLen[i]] = c;
+        uVal[i][uLen[i]] = v;
+        ++uLen[i];
+    }
+
+    /**
+     * Removes an entry from a row of {@code U}.
+     *
+     * @param i Row.
+     * @param c Column.
+     * @return the value of the removed entry (0 if there was none).
+     */
+    private double removeFromRow(int i,
+                                 int c) {
+        final int[] cols = uCol[i];
+        for (int k = 0; k < uLen[i]; k++) {
+            if (cols[k] == c) {
+                final double v = uVal[i][k];
+                final int last = --uLen[i];
+                cols[k] = cols[last];
+                uVal[i][k] = uVal[i][last];
+                return v;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Appends a row to the pattern of a column of {@code U}.
+     *
+     * @param c Column.
+     * @param i Row.
+     */
+    private void appendToColumn(int c,
+                                int i) {
+        if (uColLen[c] == uColRows[c].length) {
+            uColRows[c] = Arrays.copyOf(uColRows[c], 2 * uColLen[c] + 1);
+        }
+        uColRows[c][uColLen[c]++] = i;
+    }
+
+    /**
+     * Rebuilds the column patterns from the rows of {@code U}.
+     */
+    private void rebuildColumnPatterns() {
+        Arrays.fill(uColLen, 0);
+        for (int i = 0; i < m; i++) {
+            for (int k = 0; k < uLen[i]; k++) {
+                appendToColumn(uCol[i][k], i);
+            }
+        }
+    }
+
+    /**
+     * Records a column eta of {@code L}.
+     *
+     * @param pivot Pivot row.
+     * @param start Start of the multipliers.
+     * @param len Number of multipliers.
+     */
+    private void addColumnEta(int pivot,
+                              int start,
+                              int len) {
+        if (lCount + 1 >= lStart.length) {
+            lStart = Arrays.copyOf(lStart, 2 * lStart.length);
+            lPivot = Arrays.copyOf(lPivot, lStart.length);
+        }
+        lPivot[lCount] = pivot;
+        lStart[lCount] = start;
+        lStart[lCount + 1] = start + len;
+        ++lCount;
+    }
+
+    /**
+     * Records a row eta of {@code R}.
+     *
+     * @param pivot Pivot row.
+     * @param start Start of the multipliers.
+     * @param len Number of multipliers.
+     */
+    private void addRowEta(int pivot,
+                           int start,
+                           int len) {
+        if (rCount + 1 >= rStart.length) {
+            rStart = Arrays.copyOf(rStart, 2 * rStart.length);
+            rPivot = Arrays.copyOf(rPivot, rStart.length);
+        }
+        rPivot[rCount] = pivot;
+        rStart[rCount] = start;
+        rStart[rCount + 1] = start + len;
+        ++rCount;
+    }
+
+    /**
+     * Inserts a column in the bucket of its count.
+     *
+     * @param c Column.
+     * @param count Count.
+     * @param head First column of each bucket.
+     * @param next Next column in the same bucket.
+     * @param prev Previous column in the same bucket.
+     */
+    private static void bucketInsert(int c,
+                                     int count,
+                                     int[] head,
+                                     int[] next,
+                                     int[] prev) {
+        prev[c] = -1;
+        next[c] = head[count];
+        if (head[count] >= 0) {
+            prev[head[count]] = c;
+        }
+        head[count] = c;
+    }
+
+    /**
+     * Removes a column from the bucket of its count.
+     *
+     * @param c Column.
+     * @param count Count.
+     * @param head First column of each bucket.
+     * @param next Next column in the same bucket.
+     * @param prev Previous column in the same bucket.
+     */
+    private static void bucketRemove(int c,
+                                     int count,
+                                     int[] head,
+                                     int[] next,
+                                     int[] prev) {
+        if (prev[c] >= 0) {
+            next[prev[c]] = next[c];
+        } else {
+            head[count] = next[c];
+        }
+        if (next[c] >= 0) {
+            prev[next[c]] = prev[c];
+        }
+    }
+}
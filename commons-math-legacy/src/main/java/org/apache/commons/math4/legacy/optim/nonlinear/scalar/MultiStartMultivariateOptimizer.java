@@ -20,10 +20,15 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 import java.util.function.Supplier;
 
+import org.apache.commons.math4.legacy.analysis.MultivariateFunction;
 import org.apache.commons.math4.legacy.optim.BaseMultiStartMultivariateOptimizer;
+import org.apache.commons.math4.legacy.optim.ConcurrentEvaluationCounter;
+import org.apache.commons.math4.legacy.optim.OptimizationData;
 import org.apache.commons.math4.legacy.optim.PointValuePair;
+import org.apache.commons.math4.legacy.optim.TargetValue;
 
 /**
  * Multi-start optimizer.
@@ -31,15 +36,24 @@ import org.apache.commons.math4.legacy.optim.PointValuePair;
  * This class wraps an optimizer in order to use it several times in
  * turn with different starting points (trying to avoid being trapped
  * in a local extremum when looking for a global one).
+ * The starts can also be run concurrently, each one with its own
+ * optimizer instance (see {@link #MultiStartMultivariateOptimizer(Supplier,
+ * int, Supplier, ExecutorService)}).
+ * <br>
+ * If a {@link TargetValue} is passed to {@link #optimize(OptimizationData[])
+ * optimize}, the remaining starts are cancelled as soon as one of them
+ * finds an optimum that reaches it.
  *
  * @since 3.0
  */
 public class MultiStartMultivariateOptimizer
     extends BaseMultiStartMultivariateOptimizer<PointValuePair> {
-    /** Underlying optimizer. */
-    private final MultivariateOptimizer optimizer;
     /** Found optima. */
     private final List<PointValuePair> optima = new ArrayList<>();
+    /** Type of optimization. */
+    private GoalType goal;
+    /** Target value (NaN if there is none). */
+    private double target = Double.NaN;
 
     /**
      * Create a multi-start optimizer from a single-start optimizer.
@@ -57,7 +71,57 @@ public class MultiStartMultivariateOptimizer
                                            final int starts,
                                            final Supplier<double[]> generator) {
         super(optimizer, starts, generator);
-        this.optimizer = optimizer;
+    }
+
+    /**
+     * Create a multi-start optimizer that runs its starts concurrently.
+     *
+     * @param factory Factory of single-start optimizers; it must return
+     * a new instance at each call.
+     * @param starts Number of starts to perform.
+     * @param generator Generator to use for restarts (called in the
+     * thread that calls {@code optimize}).
+     * @param executor Executor ({@code null} for running the starts in
+     * turn in the calling thread).
+     * @throws org.apache.commons.math4.legacy.exception.NotStrictlyPositiveException NotStrictlyPositiveException if {@code starts < 1}.
+     *
+     * @since 4.0
+     */
+    public MultiStartMultivariateOptimizer(final Supplier<? extends MultivariateOptimizer> factory,
+                                           final int starts,
+                                           final Supplier<double[]> generator,
+                                           final ExecutorService executor) {
+        super(factory, starts, generator, executor);
+    }
+
+    /**
+     * Scans the list of (required and optional) optimization data that
+     * characterize the problem.
+     *
+     * @param optData Optimization data.
+     * In addition to the data used by the base class, the following data
+     * will be looked for:
+     * <ul>
+     *  <li>{@link GoalType}</li>
+     *  <li>{@link TargetValue}</li>
+     * </ul>
+     */
+    @Override
+    protected void parseOptimizationData(OptimizationData... optData) {
+        // Allow base class to register its own data.
+        super.parseOptimizationData(optData);
+
+        target = Double.NaN;
+        for (OptimizationData data : optData) {
+            if (data instanceof GoalType) {
+                goal = (GoalType) data;
+                continue;
+            }
+            if (data instanceof TargetValue) {
+                target = ((TargetValue) data).getTargetValue();
+                continue;
+            }
+        }
     }
 
     /**
@@ -85,6 +149,32 @@ public class MultiStartMultivariateOptimizer
         optima.clear();
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected OptimizationData countEvaluations(OptimizationData data,
+                                                ConcurrentEvaluationCounter counter) {
+        if (data instanceof ObjectiveFunction) {
+            final MultivariateFunction f = ((ObjectiveFunction) data).getObjectiveFunction();
+            return new ObjectiveFunction(x -> {
+                    counter.increment();
+                    return f.value(x);
+                });
+        }
+        return data;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean isTargetReached(PointValuePair optimum) {
+        return (goal == GoalType.MINIMIZE) ?
+            optimum.getValue() <= target :
+            optimum.getValue() >= target;
+    }
+
     /**
      * @return a comparator for sorting the optima.
      */
@@ -101,7 +191,7 @@ public class MultiStartMultivariateOptimizer
                 }
                 final double v1 = o1.getValue();
                 final double v2 = o2.getValue();
-                return (optimizer.getGoalType() == GoalType.MINIMIZE) ?
+                return (goal == GoalType.MINIMIZE) ?
                     Double.compare(v1, v2) : Double.compare(v2, v1);
             }
         };
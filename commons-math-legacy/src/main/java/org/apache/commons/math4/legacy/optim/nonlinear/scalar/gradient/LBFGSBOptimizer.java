@@ -0,0 +1,545 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.optim.nonlinear.scalar.gradient;
+
+import java.util.Arrays;
+
+import org.apache.commons.math4.legacy.analysis.MultivariateFunction;
+import org.apache.commons.math4.legacy.exception.NotStrictlyPositiveException;
+import org.apache.commons.math4.legacy.exception.TooManyEvaluationsException;
+import org.apache.commons.math4.legacy.optim.ConvergenceChecker;
+import org.apache.commons.math4.legacy.optim.OptimizationData;
+import org.apache.commons.math4.legacy.optim.PointValuePair;
+import org.apache.commons.math4.legacy.optim.nonlinear.scalar.GoalType;
+import org.apache.commons.math4.legacy.optim.nonlinear.scalar.GradientMultivariateOptimizer;
+
+/**
+ * Limited-memory BFGS optimizer with bounds on the variables (L-BFGS-B).
+ * <br>
+ * The bounds are passed as a
+ * {@link org.apache.commons.math4.legacy.optim.SimpleBounds SimpleBounds}
+ * instance, whose entries may be infinite; without bounds, the algorithm
+ * behaves like {@link LBFGSOptimizer}.
+ * <br>
+ * Each iteration (Byrd, Lu, Nocedal and Zhu, 1995) minimizes the quadratic
+ * model built from the compact representation of the limited-memory BFGS
+ * matrix along the projected steepest descent path (generalized Cauchy
+ * point), which determines the variables that are fixed at a bound; the
+ * model is then minimized over the other variables, and the result is
+ * projected onto the feasible box.  The step towards that point satisfies
+ * the strong Wolfe conditions.
+ * <br>
+ * The algorithm stops when the largest component of the projected gradient
+ * is smaller than a given tolerance, or when the convergence checker (if
+ * any) is satisfied by two successive iterates.
+ *
+ * @since 4.0
+ */
+public class LBFGSBOptimizer
+    extends GradientMultivariateOptimizer {
+    /** Parameter of the sufficient decrease condition. */
+    private static final double C1 = 1e-4;
+    /** Parameter of the curvature condition. */
+    private static final double C2 = 0.9;
+    /** Relative lower bound of the second derivative along the Cauchy path. */
+    private static final double CURVATURE_FLOOR = 2.2e-16;
+
+    /** Number of corrections. */
+    private final int memory;
+    /** Tolerance on the norm of the projected gradient. */
+    private final double gradientTolerance;
+
+    /**
+     * Creates an optimizer that keeps {@link LBFGSOptimizer#DEFAULT_MEMORY}
+     * corrections and stops when the convergence checker is satisfied (or
+     * when the projected gradient is exactly zero).
+     *
+     * @param checker Convergence checker.
+     */
+    public LBFGSBOptimizer(ConvergenceChecker<PointValuePair> checker) {
+        this(LBFGSOptimizer.DEFAULT_MEMORY, 0, checker);
+    }
+
+    /**
+     * @param memory Number of corrections used in the approximation of
+     * the Hessian (usually between 3 and 20).
+     * @param gradientTolerance The algorithm stops when the largest absolute
+     * value of the components of the projected gradient is smaller than or
+     * equal to this value.
+     * @param checker Convergence checker (may be {@code null}).
+     * @throws NotStrictlyPositiveException if {@code memory <= 0}.
+     */
+    public LBFGSBOptimizer(int memory,
+                           double gradientTolerance,
+                           ConvergenceChecker<PointValuePair> checker) {
+        super(checker);
+        if (memory <= 0) {
+            throw new NotStrictlyPositiveException(memory);
+        }
+        this.memory = memory;
+        this.gradientTolerance = gradientTolerance;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public PointValuePair optimize(OptimizationData... optData)
+        throws TooManyEvaluationsException {
+        // Set up base class and perform computation.
+        return super.optimize(optData);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected PointValuePair doOptimize() {
+        final ConvergenceChecker<PointValuePair> checker = getConvergenceChecker();
+        final double sign = getGoalType() == GoalType.MAXIMIZE ? -1 : 1;
+        final MultivariateFunction func = getObjectiveFunction();
+        // Function to minimize.
+        final StrongWolfeLineSearch.Objective objective = (p, grad) -> {
+            final double[] g = computeObjectiveGradient(p);
+            for (int i = 0; i < g.length; i++) {
+                grad[i] = sign * g[i];
+            }
+            return sign * func.value(p);
+        };
+
+        final double[] x = getStartPoint();
+        final int n = x.length;
+        final double[] lower = bounds(getLowerBound(), n, Double.NEGATIVE_INFINITY);
+        final double[] upper = bounds(getUpperBound(), n, Double.POSITIVE_INFINITY);
+        final Workspace w = new Workspace(n, memory, lower, upper);
+        final double[] g = new double[n];
+        final double[] s = new double[n];
+        final double[] y = new double[n];
+        final StrongWolfeLineSearch lineSearch = new StrongWolfeLineSearch(n, C1, C2, lower, upper);
+
+        double f = objective.value(x, g);
+        PointValuePair current = new PointValuePair(x.clone(), sign * f);
+        while (true) {
+            incrementIterationCount();
+            if (w.projectedGradientNorm(x, g) <= gradientTolerance) {
+                return current;
+            }
+
+            final double[] d = w.direction(x, g);
+            if (!(LBFGSOptimizer.dot(g, d) < 0)) {
+                // Restart from the projected steepest descent.
+                w.hessian.clear();
+                w.direction(x, g);
+                if (!(LBFGSOptimizer.dot(g, d) < 0)) {
+                    return current;
+                }
+            }
+
+            // Largest step that keeps the point feasible.
+            double maxStep = Double.POSITIVE_INFINITY;
+            for (int i = 0; i < n; i++) {
+                if (d[i] > 0) {
+                    maxStep = Math.min(maxStep, (upper[i] - x[i]) / d[i]);
+                } else if (d[i] < 0) {
+                    maxStep = Math.min(maxStep, (lower[i] - x[i]) / d[i]);
+                }
+            }
+            final double initialStep = w.hessian.size() == 0 ?
+                Math.min(1, 1 / LBFGSOptimizer.maxAbs(d)) :
+                1;
+            final double step = lineSearch.search(objective, x, f, g, d, initialStep, maxStep);
+            if (step == 0) {
+                if (w.hessian.size() == 0) {
+                    // No progress along the projected steepest descent direction.
+                    return current;
+                }
+                w.hessian.clear();
+                continue;
+            }
+
+            final double[] xNew = lineSearch.getPoint();
+            final double[] gNew = lineSearch.getGradient();
+            for (int i = 0; i < n; i++) {
+                s[i] = xNew[i] - x[i];
+                y[i] = gNew[i] - g[i];
+            }
+            System.arraycopy(xNew, 0, x, 0, n);
+            System.arraycopy(gNew, 0, g, 0, n);
+            f = lineSearch.getValue();
+            w.hessian.update(s, y);
+
+            final PointValuePair previous = current;
+            current = new PointValuePair(x.clone(), sign * f);
+            if (checker != null &&
+                checker.converged(getIterations(), previous, current)) {
+                return current;
+            }
+        }
+    }
+
+    /**
+     * @param b Bounds (may be {@code null}).
+     * @param n Dimension.
+     * @param fill Value used when there are no bounds.
+     * @return the bounds.
+     */
+    private static double[] bounds(double[] b,
+                                   int n,
+                                   double fill) {
+        if (b != null) {
+            return b;
+        }
+        final double[] all = new double[n];
+        Arrays.fill(all, fill);
+        return all;
+    }
+
+    /**
+     * Computation of the search direction.
+     */
+    private static final class Workspace {
+        /** Dimension. */
+        private final int n;
+        /** Lower bounds. */
+        private final double[] lower;
+        /** Upper bounds. */
+        private final double[] upper;
+        /** Approximation of the Hessian. */
+        private final LimitedMemoryBFGS hessian;
+        /** Generalized Cauchy point. */
+        private final double[] xcp;
+        /** Projected steepest descent direction (zero for the fixed variables). */
+        private final double[] dcp;
+        /** Breakpoints. */
+        private final double[] breakpoint;
+        /** Heap of the variables, ordered by breakpoint. */
+        private final int[] heap;
+        /** Indices of the free variables at the Cauchy point. */
+        private final int[] free;
+        /** Subspace step. */
+        private final double[] du;
+        /** Search direction. */
+        private final double[] d;
+        /** {@code W^T} times the direction along the Cauchy path. */
+        private final double[] p;
+        /** {@code W^T (xcp - x)}. */
+        private final double[] c;
+        /** Row of {@code W}. */
+        private final double[] wb;
+        /** Work vector. */
+        private final double[] v;
+
+        /**
+         * @param n Dimension.
+         * @param memory Number of corrections.
+         * @param lower Lower bounds.
+         * @param upper Upper bounds.
+         */
+        Workspace(int n,
+                  int memory,
+                  double[] lower,
+                  double[] upper) {
+            this.n = n;
+            this.lower = lower;
+            this.upper = upper;
+            hessian = new LimitedMemoryBFGS(memory, n);
+            xcp = new double[n];
+            dcp = new double[n];
+            breakpoint = new double[n];
+            heap = new int[n];
+            free = new int[n];
+            du = new double[n];
+            d = new double[n];
+            p = new double[2 * memory];
+            c = new double[2 * memory];
+            wb = new double[2 * memory];
+            v = new double[2 * memory];
+        }
+
+        /**
+         * @param x Point.
+         * @param g Gradient.
+         * @return the largest absolute value of the components of the
+         * projected gradient.
+         */
+        double projectedGradientNorm(double[] x,
+                                     double[] g) {
+            double max = 0;
+            for (int i = 0; i < n; i++) {
+                max = Math.max(max, Math.abs(clamp(x[i] - g[i], i) - x[i]));
+            }
+            return max;
+        }
+
+        /**
+         * Computes the search direction.
+         *
+         * @param x Point.
+         * @param g Gradient.
+         * @return the direction (an internal array).
+         */
+        double[] direction(double[] x,
+                           double[] g) {
+            double[][] m = hessian.size() == 0 ? new double[0][0] : hessian.middleMatrix();
+            if (m == null) {
+                hessian.clear();
+                m = new double[0][0];
+            }
+            final int k2 = m.length;
+            final double theta = hessian.getTheta();
+
+            cauchyPoint(x, g, m, theta);
+
+            int nFree = 0;
+            for (int i = 0; i < n; i++) {
+                if (xcp[i] > lower[i] && xcp[i] < upper[i]) {
+                    free[nFree++] = i;
+                }
+            }
+            System.arraycopy(xcp, 0, d, 0, n);
+            if (nFree > 0) {
+                // Reduced gradient of the model at the Cauchy point.
+                final double[] mc = times(m, c, k2);
+                final double[] wr = new double[k2];
+                final double[][] wtw = new double[k2][k2];
+                for (int f = 0; f < nFree; f++) {
+                    final int i = free[f];
+                    hessian.wRow(i, wb);
+                    final double r = g[i] + theta * (xcp[i] - x[i]) - dot(wb, mc, k2);
+                    du[i] = r;
+                    for (int a = 0; a < k2; a++) {
+                        wr[a] += wb[a] * r;
+                        for (int b = 0; b < k2; b++) {
+                            wtw[a][b] += wb[a] * wb[b];
+                        }
+                    }
+                }
+                // u = (I - M W^T Z Z^T W / theta)^-1 M W^T Z r
+                final double[] u = times(m, wr, k2);
+                final double[][] nMat = new double[k2][k2];
+                for (int a = 0; a < k2; a++) {
+                    for (int b = 0; b < k2; b++) {
+                        double sum = 0;
+                        for (int e = 0; e < k2; e++) {
+                            sum += m[a][e] * wtw[e][b];
+                        }
+                        nMat[a][b] = (a == b ? 1 : 0) - sum / theta;
+                    }
+                }
+                final boolean solved = LimitedMemoryBFGS.solve(nMat, u);
+                for (int f = 0; f < nFree; f++) {
+                    final int i = free[f];
+                    double step = -du[i] / theta;
+                    if (solved) {
+                        hessian.wRow(i, wb);
+                        step -= dot(wb, u, k2) / (theta * theta);
+                    }
+                    du[i] = step;
+                    d[i] = clamp(xcp[i] + step, i);
+                }
+
+                double slope = 0;
+                for (int i = 0; i < n; i++) {
+                    slope += g[i] * (d[i] - x[i]);
+                }
+                if (!(slope < 0)) {
+                    // The projection spoilt the direction: truncate the
+                    // subspace step at the boundary instead.
+                    double alpha = 1;
+                    for (int f = 0; f < nFree; f++) {
+                        final int i = free[f];
+                        if (du[i] > 0) {
+                            alpha = Math.min(alpha, (upper[i] - xcp[i]) / du[i]);
+                        } else if (du[i] < 0) {
+                            alpha = Math.min(alpha, (lower[i] - xcp[i]) / du[i]);
+                        }
+                    }
+                    for (int f = 0; f < nFree; f++) {
+                        final int i = free[f];
+                        d[i] = clamp(xcp[i] + alpha * du[i], i);
+                    }
+                }
+            }
+            for (int i = 0; i < n; i++) {
+                d[i] -= x[i];
+            }
+            return d;
+        }
+
+        /**
+         * Computes the generalized Cauchy point: the first local minimizer
+         * of the quadratic model along the projected steepest descent path.
+         * Result is stored in {@link #xcp} (and {@code W^T (xcp - x)} in
+         * {@link #c}).
+         *
+         * @param x Point.
+         * @param g Gradient.
+         * @param m Middle matrix of the compact representation.
+         * @param theta Scaling factor of the compact representation.
+         */
+        private void cauchyPoint(double[] x,
+                                 double[] g,
+                                 double[][] m,
+                                 double theta) {
+            final int k2 = m.length;
+            int size = 0;
+            for (int i = 0; i < n; i++) {
+                final double gi = g[i];
+                final double t;
+                if (gi < 0) {
+                    t = (x[i] - upper[i]) / gi;
+                } else if (gi > 0) {
+                    t = (x[i] - lower[i]) / gi;
+                } else {
+                    t = Double.POSITIVE_INFINITY;
+                }
+                breakpoint[i] = t;
+                dcp[i] = t == 0 ? 0 : -gi;
+                xcp[i] = x[i];
+                if (t > 0 && t < Double.POSITIVE_INFINITY) {
+                    heap[size++] = i;
+                }
+            }
+            for (int h = size / 2 - 1; h >= 0; h--) {
+                siftDown(h, size);
+            }
+
+            Arrays.fill(c, 0, k2, 0);
+            hessian.wTransposeTimes(dcp, p);
+            double f1 = 0;
+            for (int i = 0; i < n; i++) {
+                f1 -= dcp[i] * dcp[i];
+            }
+            if (f1 == 0) {
+                return;
+            }
+            double f2 = -theta * f1 - dot(p, times(m, p, k2), k2);
+            final double f2Min = CURVATURE_FLOOR * f2;
+            double dtMin = -f1 / f2;
+            double tOld = 0;
+            while (size > 0) {
+                final int b = heap[0];
+                final double dt = breakpoint[b] - tOld;
+                if (dtMin < dt) {
+                    break;
+                }
+                heap[0] = heap[--size];
+                siftDown(0, size);
+
+                // Variable "b" reaches its bound.
+                xcp[b] = dcp[b] > 0 ? upper[b] : lower[b];
+                final double zb = xcp[b] - x[b];
+                for (int a = 0; a < k2; a++) {
+                    c[a] += dt * p[a];
+                }
+                final double gb = g[b];
+                hessian.wRow(b, wb);
+                final double[] mw = times(m, wb, k2);
+                final double wmc = dot(mw, c, k2);
+                final double wmp = dot(mw, p, k2);
+                final double wmw = dot(mw, wb, k2);
+                f1 += dt * f2 + gb * gb + theta * gb * zb - gb * wmc;
+                f2 -= theta * gb * gb + 2 * gb * wmp + gb * gb * wmw;
+                f2 = Math.max(f2, f2Min);
+                for (int a = 0; a < k2; a++) {
+                    p[a] += gb * wb[a];
+                }
+                dcp[b] = 0;
+                dtMin = -f1 / f2;
+                tOld = breakpoint[b];
+            }
+            dtMin = Math.max(dtMin, 0);
+            tOld += dtMin;
+            for (int i = 0; i < n; i++) {
+                if (dcp[i] != 0) {
+                    xcp[i] = clamp(x[i] + tOld * dcp[i], i);
+                }
+            }
+            for (int a = 0; a < k2; a++) {
+                c[a] += dtMin * p[a];
+            }
+        }
+
+        /**
+         * Restores the heap property below a node.
+         *
+         * @param node Node.
+         * @param size Size of the heap.
+         */
+        private void siftDown(int node,
+                              int size) {
+            int h = node;
+            final int e = heap[h];
+            while (true) {
+                int child = 2 * h + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size &&
+                    breakpoint[heap[child + 1]] < breakpoint[heap[child]]) {
+                    ++child;
+                }
+                if (breakpoint[heap[child]] >= breakpoint[e]) {
+                    break;
+                }
+                heap[h] = heap[child];
+                h = child;
+            }
+            heap[h] = e;
+        }
+
+        /**
+         * @param value Value.
+         * @param i Index of a variable.
+         * @return the value projected onto the bounds of the variable.
+         */
+        private double clamp(double value,
+                             int i) {
+            return Math.min(Math.max(value, lower[i]), upper[i]);
+        }
+
+        /**
+         * @param m Square matrix.
+         * @param a Vector.
+         * @param k Dimension.
+         * @return {@code m a}.
+         */
+        private static double[] times(double[][] m,
+                                      double[] a,
+                                      int k) {
+            final double[] out = new double[k];
+            for (int i = 0; i < k; i++) {
+                out[i] = dot(m[i], a, k);
+            }
+            return out;
+        }
+
+        /**
+         * @param a Vector.
+         * @param b Vector.
+         * @param k Number of components.
+         * @return the inner product of the first {@code k} components.
+         */
+        private static double dot(double[] a,
+                                  double[] b,
+                                  int k) {
+            double s = 0;
+            for (int i = 0; i < k; i++) {
+                s += a[i] * b[i];
+            }
+            return s;
+        }
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.optim.nonlinear.scalar.gradient;
+
+import org.apache.commons.math4.legacy.analysis.MultivariateFunction;
+import org.apache.commons.math4.legacy.exception.MathUnsupportedOperationException;
+import org.apache.commons.math4.legacy.exception.NotStrictlyPositiveException;
+import org.apache.commons.math4.legacy.exception.TooManyEvaluationsException;
+import org.apache.commons.math4.legacy.exception.util.LocalizedFormats;
+import org.apache.commons.math4.legacy.optim.ConvergenceChecker;
+import org.apache.commons.math4.legacy.optim.OptimizationData;
+import org.apache.commons.math4.legacy.optim.PointValuePair;
+import org.apache.commons.math4.legacy.optim.nonlinear.scalar.GoalType;
+import org.apache.commons.math4.legacy.optim.nonlinear.scalar.GradientMultivariateOptimizer;
+
+/**
+ * Limited-memory BFGS optimizer (L-BFGS).
+ * <br>
+ * The search direction is obtained by applying an approximation of the
+ * inverse Hessian, built from the last {@code m} changes of the point and
+ * of the gradient, to the gradient (two-loop recursion); the cost of an
+ * iteration is {@code O(m n)} and the memory footprint is {@code 2 m n}.
+ * The step along the direction satisfies the strong Wolfe conditions.
+ * <br>
+ * The algorithm stops when the largest component of the gradient is
+ * smaller than a given tolerance, or when the convergence checker (if
+ * any) is satisfied by two successive iterates.
+ * <br>
+ * Constraints are not supported: the call to
+ * {@link #optimize(OptimizationData[]) optimize} will throw
+ * {@link MathUnsupportedOperationException} if bounds are passed to it;
+ * {@link LBFGSBOptimizer} handles bounds.
+ *
+ * @since 4.0
+ */
+public class LBFGSOptimizer
+    extends GradientMultivariateOptimizer {
+    /** Default number of corrections. */
+    public static final int DEFAULT_MEMORY = 10;
+    /** Parameter of the sufficient decrease condition. */
+    private static final double C1 = 1e-4;
+    /** Parameter of the curvature condition. */
+    private static final double C2 = 0.9;
+
+    /** Number of corrections. */
+    private final int memory;
+    /** Tolerance on the norm of the gradient. */
+    private final double gradientTolerance;
+
+    /**
+     * Creates an optimizer that keeps {@link #DEFAULT_MEMORY} corrections
+     * and stops when the convergence checker is satisfied (or when the
+     * gradient is exactly zero).
+     *
+     * @param checker Convergence checker.
+     */
+    public LBFGSOptimizer(ConvergenceChecker<PointValuePair> checker) {
+        this(DEFAULT_MEMORY, 0, checker);
+    }
+
+    /**
+     * @param memory Number of corrections used in the approximation of
+     * the Hessian (usually between 3 and 20).
+     * @param gradientTolerance The algorithm stops when the largest absolute
+     * value of the components of the gradient is smaller than or equal to
+     * this value.
+     * @param checker Convergence checker (may be {@code null}).
+     * @throws NotStrictlyPositiveException if {@code memory <= 0}.
+     */
+    public LBFGSOptimizer(int memory,
+                          double gradientTolerance,
+                          ConvergenceChecker<PointValuePair> checker) {
+        super(checker);
+        if (memory <= 0) {
+            throw new NotStrictlyPositiveException(memory);
+        }
+        this.memory = memory;
+        this.gradientTolerance = gradientTolerance;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public PointValuePair optimize(OptimizationData... optData)
+        throws TooManyEvaluationsException {
+        // Set up base class and perform computation.
+        return super.optimize(optData);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected PointValuePair doOptimize() {
+        final ConvergenceChecker<PointValuePair> checker = getConvergenceChecker();
+        final double sign = getGoalType() == GoalType.MAXIMIZE ? -1 : 1;
+        final MultivariateFunction func = getObjectiveFunction();
+        // Function to minimize.
+        final StrongWolfeLineSearch.Objective objective = (p, grad) -> {
+            final double[] g = computeObjectiveGradient(p);
+            for (int i = 0; i < g.length; i++) {
+                grad[i] = sign * g[i];
+            }
+            return sign * func.value(p);
+        };
+
+        final double[] x = getStartPoint();
+        final int n = x.length;
+        final double[] g = new double[n];
+        final double[] d = new double[n];
+        final double[] s = new double[n];
+        final double[] y = new double[n];
+        final LimitedMemoryBFGS hessian = new LimitedMemoryBFGS(memory, n);
+        final StrongWolfeLineSearch lineSearch = new StrongWolfeLineSearch(n, C1, C2, null, null);
+
+        double f = objective.value(x, g);
+        PointValuePair current = new PointValuePair(x.clone(), sign * f);
+        while (true) {
+            incrementIterationCount();
+            if (maxAbs(g) <= gradientTolerance) {
+                return current;
+            }
+
+            hessian.twoLoop(g, d);
+            if (!(dot(g, d) < 0)) {
+                // Not a descent direction: restart from steepest descent.
+                hessian.clear();
+                hessian.twoLoop(g, d);
+            }
+            final double initialStep = hessian.size() == 0 ?
+                Math.min(1, 1 / maxAbs(d)) :
+                1;
+            final double step = lineSearch.search(objective, x, f, g, d,
+                                                  initialStep, Double.POSITIVE_INFINITY);
+            if (step == 0) {
+                if (hessian.size() == 0) {
+                    // No progress along the steepest descent direction.
+                    return current;
+                }
+                hessian.clear();
+                continue;
+            }
+
+            final double[] xNew = lineSearch.getPoint();
+            final double[] gNew = lineSearch.getGradient();
+            for (int i = 0; i < n; i++) {
+                s[i] = xNew[i] - x[i];
+                y[i] = gNew[i] - g[i];
+            }
+            System.arraycopy(xNew, 0, x, 0, n);
+            System.arraycopy(gNew, 0, g, 0, n);
+            f = lineSearch.getValue();
+            hessian.update(s, y);
+
+            final PointValuePair previous = current;
+            current = new PointValuePair(x.clone(), sign * f);
+            if (checker != null &&
+                checker.converged(getIterations(), previous, current)) {
+                return current;
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void parseOptimizationData(OptimizationData... optData) {
+        // Allow base class to register its own data.
+        super.parseOptimizationData(optData);
+
+        checkParameters();
+    }
+
+    /**
+     * @param a Vector.
+     * @return the largest absolute value of the components of {@code a}.
+     */
+    static double maxAbs(double[] a) {
+        double max = 0;
+        for (final double v : a) {
+            max = Math.max(max, Math.abs(v));
+        }
+        return max;
+    }
+
+    /**
+     * @param a Vector.
+     * @param b Vector.
+     * @return the inner product of {@code a} and {@code b}.
+     */
+    static double dot(double[] a,
+                      double[] b) {
+        double s = 0;
+        for (int i = 0; i < a.length; i++) {
+            s += a[i] * b[i];
+        }
+        return s;
+    }
+
+    /**
+     * @throws MathUnsupportedOperationException if bounds were passed to the
+     * {@link #optimize(OptimizationData[]) optimize} method.
+     */
+    private void checkParameters() {
+        if (getLowerBound() != null ||
+            getUpperBound() != null) {
+            throw new MathUnsupportedOperationException(LocalizedFormats.CONSTRAINT);
+        }
+    }
+}
@@ -0,0 +1,362 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.optim.nonlinear.scalar.gradient;
+
+/**
+ * Limited-memory BFGS approximation of the Hessian of a function.
+ *
+ * <p>The correction pairs {@code (s, y)} (differences of the points and of
+ * the gradients between successive iterations) are kept in ring buffers
+ * of primitive arrays, together with their inner products, so that adding
+ * a pair costs {@code O(m n)} operations and does not allocate.</p>
+ *
+ * <p>The approximation can be used through the two-loop recursion (which
+ * multiplies a vector by the inverse Hessian approximation), or through
+ * the compact representation of Byrd, Nocedal and Schnabel (1994):
+ * {@code B = theta I - W M W^T}, where {@code W = [Y, theta S]} is the
+ * {@code n x 2k} matrix of the pairs (in chronological order).</p>
+ */
+final class LimitedMemoryBFGS {
+    /** Relative threshold of the curvature condition. */
+    private static final double CURVATURE_THRESHOLD = 2.2e-16;
+
+    /** Maximum number of pairs. */
+    private final int capacity;
+    /** Dimension. */
+    private final int n;
+    /** Differences of the points. */
+    private final double[][] s;
+    /** Differences of the gradients. */
+    private final double[][] y;
+    /** Inner products of the pairs of differences: {@code sTs[a][b] = s[a] . s[b]}. */
+    private final double[][] sTs;
+    /** Inner products of the pairs of differences: {@code sTy[a][b] = s[a] . y[b]}. */
+    private final double[][] sTy;
+    /** Work array of the two-loop recursion. */
+    private final double[] alpha;
+    /** Slot of the oldest pair. */
+    private int start;
+    /** Number of pairs. */
+    private int count;
+    /** Scaling factor ({@code y . y / s . y} for the newest pair). */
+    private double theta = 1;
+
+    /**
+     * @param capacity Maximum number of pairs.
+     * @param n Dimension.
+     */
+    LimitedMemoryBFGS(int capacity,
+                      int n) {
+        this.capacity = capacity;
+        this.n = n;
+        s = new double[capacity][n];
+        y = new double[capacity][n];
+        sTs = new double[capacity][capacity];
+        sTy = new double[capacity][capacity];
+        alpha = new double[capacity];
+    }
+
+    /**
+     * Removes all the pairs.
+     */
+    void clear() {
+        start = 0;
+        count = 0;
+        theta = 1;
+    }
+
+    /**
+     * @return the number of pairs.
+     */
+    int size() {
+        return count;
+    }
+
+    /**
+     * @return the scaling factor of the compact representation.
+     */
+    double getTheta() {
+        return theta;
+    }
+
+    /**
+     * Adds a pair, replacing the oldest one if the memory is full.
+     * The pair is rejected if it does not satisfy the curvature condition
+     * {@code s . y > 0} (up to round-off).
+     *
+     * @param sNew Difference of the points (copied).
+     * @param yNew Difference of the gradients (copied).
+     * @return whether the pair was added.
+     */
+    boolean update(double[] sNew,
+                   double[] yNew) {
+        double sy = 0;
+        double yy = 0;
+        for (int i = 0; i < n; i++) {
+            sy += sNew[i] * yNew[i];
+            yy += yNew[i] * yNew[i];
+        }
+        if (!(sy > CURVATURE_THRESHOLD * yy)) {
+            return false;
+        }
+
+        final int slot;
+        if (count < capacity) {
+            slot = (start + count) % capacity;
+            ++count;
+        } else {
+            slot = start;
+            start = (start + 1) % capacity;
+        }
+        System.arraycopy(sNew, 0, s[slot], 0, n);
+        System.arraycopy(yNew, 0, y[slot], 0, n);
+        for (int j = 0; j < count; j++) {
+            final int other = slot(j);
+            final double[] so = s[other];
+            final double[] yo = y[other];
+            double ss = 0;
+            double s1 = 0;
+            double s2 = 0;
+            for (int i = 0; i < n; i++) {
+                ss += sNew[i] * so[i];
+                s1 += sNew[i] * yo[i];
+                s2 += so[i] * yNew[i];
+            }
+            sTs[slot][other] = ss;
+            sTs[other][slot] = ss;
+            sTy[slot][other] = s1;
+            sTy[other][slot] = s2;
+        }
+        theta = yy / sy;
+        return true;
+    }
+
+    /**
+     * Computes the search direction {@code d = -H g}, where {@code H} is
+     * the approximation of the inverse Hessian (two-loop recursion).
+     *
+     * @param g Gradient.
+     * @param d Direction (output).
+     */
+    void twoLoop(double[] g,
+                 double[] d) {
+        for (int i = 0; i < n; i++) {
+            d[i] = -g[i];
+        }
+        for (int j = count - 1; j >= 0; j--) {
+            final int k = slot(j);
+            final double[] sk = s[k];
+            double dot = 0;
+            for (int i = 0; i < n; i++) {
+                dot += sk[i] * d[i];
+            }
+            final double a = dot / sTy[k][k];
+            alpha[k] = a;
+            final double[] yk = y[k];
+            for (int i = 0; i < n; i++) {
+                d[i] -= a * yk[i];
+            }
+        }
+        final double gamma = 1 / theta;
+        for (int i = 0; i < n; i++) {
+            d[i] *= gamma;
+        }
+        for (int j = 0; j < count; j++) {
+            final int k = slot(j);
+            final double[] yk = y[k];
+            double dot = 0;
+            for (int i = 0; i < n; i++) {
+                dot += yk[i] * d[i];
+            }
+            final double b = alpha[k] - dot / sTy[k][k];
+            final double[] sk = s[k];
+            for (int i = 0; i < n; i++) {
+                d[i] += b * sk[i];
+            }
+        }
+    }
+
+    /**
+     * Computes the middle matrix {@code M} of the compact representation:
+     * the inverse of {@code [[-D, L^T], [L, theta S^T S]]}, where {@code D}
+     * is the diagonal of {@code S^T Y} and {@code L} its strictly lower
+     * triangular part.
+     *
+     * @return the {@code 2k x 2k} matrix, or {@code null} if it is singular.
+     */
+    double[][] middleMatrix() {
+        final int k = count;
+        final double[][] a = new double[2 * k][2 * k];
+        for (int i = 0; i < k; i++) {
+            final int si = slot(i);
+            a[i][i] = -sTy[si][si];
+            for (int j = 0; j < i; j++) {
+                final double l = sTy[si][slot(j)];
+                a[k + i][j] = l;
+                a[j][k + i] = l;
+            }
+            for (int j = 0; j < k; j++) {
+                a[k + i][k + j] = theta * sTs[si][slot(j)];
+            }
+        }
+        return invert(a);
+    }
+
+    /**
+     * Computes {@code W^T v}.
+     *
+     * @param v Vector of dimension {@code n}.
+     * @param out Vector of dimension {@code 2k} (output).
+     */
+    void wTransposeTimes(double[] v,
+                         double[] out) {
+        final int k = count;
+        for (int j = 0; j < k; j++) {
+            final int sl = slot(j);
+            final double[] yj = y[sl];
+            final double[] sj = s[sl];
+            double dy = 0;
+            double ds = 0;
+            for (int i = 0; i < n; i++) {
+                dy += yj[i] * v[i];
+                ds += sj[i] * v[i];
+            }
+            out[j] = dy;
+            out[k + j] = theta * ds;
+        }
+    }
+
+    /**
+     * Gets a row of {@code W}.
+     *
+     * @param i Row index.
+     * @param out Row, of dimension {@code 2k} (output).
+     */
+    void wRow(int i,
+              double[] out) {
+        final int k = count;
+        for (int j = 0; j < k; j++) {
+            final int sl = slot(j);
+            out[j] = y[sl][i];
+            out[k + j] = theta * s[sl][i];
+        }
+    }
+
+    /**
+     * Gets the slot of a pair.
+     *
+     * @param j Chronological index of the pair (0 for the oldest).
+     * @return the slot in the ring buffers.
+     */
+    private int slot(int j) {
+        return (start + j) % capacity;
+    }
+
+    /**
+     * Solves a small dense linear system by Gaussian elimination with
+     * partial pivoting.
+     *
+     * @param a Matrix (destroyed).
+     * @param b Right-hand side, replaced by the solution.
+     * @return {@code false} if the matrix is (numerically) singular.
+     */
+    static boolean solve(double[][] a,
+                         double[] b) {
+        final int m = b.length;
+        for (int c = 0; c < m; c++) {
+            int p = c;
+            for (int r = c + 1; r < m; r++) {
+                if (Math.abs(a[r][c]) > Math.abs(a[p][c])) {
+                    p = r;
+                }
+            }
+            if (a[p][c] == 0 || !Double.isFinite(a[p][c])) {
+                return false;
+            }
+            final double[] tmp = a[p];
+            a[p] = a[c];
+            a[c] = tmp;
+            final double tb = b[p];
+            b[p] = b[c];
+            b[c] = tb;
+            for (int r = c + 1; r < m; r++) {
+                final double f = a[r][c] / a[c][c];
+                if (f != 0) {
+                    for (int j = c; j < m; j++) {
+                        a[r][j] -= f * a[c][j];
+                    }
+                    b[r] -= f * b[c];
+                }
+            }
+        }
+        for (int r = m - 1; r >= 0; r--) {
+            double sum = b[r];
+            for (int j = r + 1; j < m; j++) {
+                sum -= a[r][j] * b[j];
+            }
+            b[r] = sum / a[r][r];
+        }
+        return true;
+    }
+
+    /**
+     * Inverts a small dense matrix (Gauss-Jordan elimination with partial
+     * pivoting).
+     *
+     * @param a Matrix (destroyed).
+     * @return the inverse, or {@code null} if the matrix is singular.
+     */
+    private static double[][] invert(double[][] a) {
+        final int m = a.length;
+        final double[][] inv = new double[m][m];
+        for (int i = 0; i < m; i++) {
+            inv[i][i] = 1;
+        }
+        for (int c = 0; c < m; c++) {
+            int p = c;
+            for (int r = c + 1; r < m; r++) {
+                if (Math.abs(a[r][c]) > Math.abs(a[p][c])) {
+                    p = r;
+                }
+            }
+            if (a[p][c] == 0 || !Double.isFinite(a[p][c])) {
+                return null;
+            }
+            double[] tmp = a[p];
+            a[p] = a[c];
+            a[c] = tmp;
+            tmp = inv[p];
+            inv[p] = inv[c];
+            inv[c] = tmp;
+            final double pivot = a[c][c];
+            for (int j = 0; j < m; j++) {
+                a[c][j] /= pivot;
+                inv[c][j] /= pivot;
+            }
+            for (int r = 0; r < m; r++) {
+                final double f = a[r][c];
+                if (r != c && f != 0) {
+                    for (int j = 0; j < m; j++) {
+                        a[r][j] -= f * a[c][j];
+                        inv[r][j] -= f * inv[c][j];
+                    }
+                }
+            }
+        }
+        return inv;
+    }
+}
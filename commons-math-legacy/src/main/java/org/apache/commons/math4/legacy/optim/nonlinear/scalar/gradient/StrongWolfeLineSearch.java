@@ -0,0 +1,398 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.optim.nonlinear.scalar.gradient;
+
+/**
+ * Line search that finds a step satisfying the strong Wolfe conditions
+ * (Nocedal and Wright, "Numerical Optimization", algorithms 3.5 and 3.6):
+ * sufficient decrease {@code f(x + a d) <= f(x) + c1 a g(x) . d} and
+ * curvature {@code |g(x + a d) . d| <= c2 |g(x) . d|}.
+ *
+ * <p>The step is expanded until an interval containing acceptable steps
+ * is bracketed, which is then narrowed by safeguarded cubic interpolation.
+ * Trial points may be projected onto bounds.  All the work arrays are
+ * allocated once.</p>
+ *
+ * <p>Close to a minimum, the decrease of the function becomes smaller than
+ * the accuracy of its values; the sufficient decrease condition is then
+ * replaced by its approximation in terms of the directional derivative,
+ * {@code g(x + a d) . d <= (2 c1 - 1) g(x) . d} (Hager and Zhang, 2005).</p>
+ */
+final class StrongWolfeLineSearch {
+    /** Factor by which the step is expanded during bracketing. */
+    private static final double EXPANSION = 2;
+    /** Minimum relative distance of an interpolated step to the ends of the interval. */
+    private static final double SAFEGUARD = 0.1;
+    /** Maximum number of function evaluations. */
+    private static final int MAX_EVALUATIONS = 50;
+    /** Relative width below which the interval is considered to be a single point. */
+    private static final double INTERVAL_TOLERANCE = 1e-14;
+    /** Relative difference below which function values are considered equal. */
+    private static final double ROUND_OFF = 1e-10;
+
+    /**
+     * Function whose gradient is available.
+     */
+    interface Objective {
+        /**
+         * @param x Point.
+         * @param gradient Gradient at {@code x} (output).
+         * @return the value of the function at {@code x}.
+         */
+        double value(double[] x,
+                     double[] gradient);
+    }
+
+    /** Parameter of the sufficient decrease condition. */
+    private final double c1;
+    /** Parameter of the curvature condition. */
+    private final double c2;
+    /** Lower bounds (or {@code null}). */
+    private final double[] lower;
+    /** Upper bounds (or {@code null}). */
+    private final double[] upper;
+    /** Trial point. */
+    private double[] xTrial;
+    /** Gradient at the trial point. */
+    private double[] gTrial;
+    /** Best point satisfying the sufficient decrease condition. */
+    private double[] xLow;
+    /** Gradient at {@link #xLow}. */
+    private double[] gLow;
+    /** Value at {@link #xLow}. */
+    private double fLow;
+    /** Point found by the last search. */
+    private double[] point;
+    /** Gradient at {@link #point}. */
+    private double[] gradient;
+    /** Value at {@link #point}. */
+    private double value;
+
+    /**
+     * @param n Dimension.
+     * @param c1 Parameter of the sufficient decrease condition.
+     * @param c2 Parameter of the curvature condition.
+     * @param lower Lower bounds onto which trial points are projected
+     * ({@code null} if there are none).
+     * @param upper Upper bounds onto which trial points are projected
+     * ({@code null} if there are none).
+     */
+    StrongWolfeLineSearch(int n,
+                          double c1,
+                          double c2,
+                          double[] lower,
+                          double[] upper) {
+        this.c1 = c1;
+        this.c2 = c2;
+        this.lower = lower;
+        this.upper = upper;
+        xTrial = new double[n];
+        gTrial = new double[n];
+        xLow = new double[n];
+        gLow = new double[n];
+    }
+
+    /**
+     * Searches along a descent direction.
+     *
+     * @param f Function.
+     * @param x Start point.
+     * @param fx Value at {@code x}.
+     * @param gx Gradient at {@code x}.
+     * @param d Search direction ({@code gx . d} must be negative).
+     * @param initialStep First trial step.
+     * @param maxStep Largest allowed step.
+     * @return the step, or 0 if no point with a lower value was found
+     * (in which case {@link #getPoint()} returns {@code x}).
+     */
+    double search(Objective f,
+                  double[] x,
+                  double fx,
+                  double[] gx,
+                  double[] d,
+                  double initialStep,
+                  double maxStep) {
+        final double dphi0 = dot(gx, d);
+        System.arraycopy(x, 0, xLow, 0, x.length);
+        System.arraycopy(gx, 0, gLow, 0, x.length);
+        fLow = fx;
+        double aLow = 0;
+        double dLow = dphi0;
+
+        double a = Math.min(initialStep, maxStep);
+        for (int k = 0; k < MAX_EVALUATIONS; k++) {
+            final double fa = evaluate(f, x, d, a);
+            final double da = dot(gTrial, d);
+            if (!decreases(fx, dphi0, a, fa, da) ||
+                (k > 0 && higher(fa, fLow, fx))) {
+                return zoom(f, x, fx, d, dphi0, aLow, dLow, a, fa, da, MAX_EVALUATIONS - k - 1);
+            }
+            if (Math.abs(da) <= -c2 * dphi0) {
+                return accept(a, fa);
+            }
+            if (da >= 0) {
+                final double aHigh = aLow;
+                final double fHigh = fLow;
+                final double dHigh = dLow;
+                swapTrialAndLow(fa);
+                return zoom(f, x, fx, d, dphi0, a, da, aHigh, fHigh, dHigh, MAX_EVALUATIONS - k - 1);
+            }
+            swapTrialAndLow(fa);
+            aLow = a;
+            dLow = da;
+            if (a >= maxStep) {
+                break;
+            }
+            a = Math.min(EXPANSION * a, maxStep);
+        }
+        return acceptLow(aLow);
+    }
+
+    /**
+     * @return the point found by the last search.
+     */
+    double[] getPoint() {
+        return point;
+    }
+
+    /**
+     * @return the gradient at the point found by the last search.
+     */
+    double[] getGradient() {
+        return gradient;
+    }
+
+    /**
+     * @return the value at the point found by the last search.
+     */
+    double getValue() {
+        return value;
+    }
+
+    /**
+     * Narrows an interval that contains acceptable steps.
+     *
+     * @param f Function.
+     * @param x Start point.
+     * @param fx Value at {@code x}.
+     * @param d Search direction.
+     * @param dphi0 Directional derivative at {@code x}.
+     * @param aLowInit Step with the lowest value found so far (whose
+     * point and gradient are stored in {@link #xLow} and {@link #gLow}).
+     * @param dLowInit Directional derivative at {@code aLowInit}.
+     * @param aHighInit Other end of the interval.
+     * @param fHighInit Value at {@code aHighInit}.
+     * @param dHighInit Directional derivative at {@code aHighInit}.
+     * @param maxEval Maximum number of evaluations.
+     * @return the step.
+     */
+    private double zoom(Objective f,
+                        double[] x,
+                        double fx,
+                        double[] d,
+                        double dphi0,
+                        double aLowInit,
+                        double dLowInit,
+                        double aHighInit,
+                        double fHighInit,
+                        double dHighInit,
+                        int maxEval) {
+        double aLow = aLowInit;
+        double dLow = dLowInit;
+        double aHigh = aHighInit;
+        double fHigh = fHighInit;
+        double dHigh = dHighInit;
+        for (int k = 0; k < maxEval; k++) {
+            final double width = Math.abs(aHigh - aLow);
+            if (width <= INTERVAL_TOLERANCE * Math.max(aLow, aHigh)) {
+                break;
+            }
+            final double a = interpolate(aLow, fLow, dLow, aHigh, fHigh, dHigh);
+            final double fa = evaluate(f, x, d, a);
+            final double da = dot(gTrial, d);
+            if (!decreases(fx, dphi0, a, fa, da) ||
+                higher(fa, fLow, fx)) {
+                aHigh = a;
+                fHigh = fa;
+                dHigh = da;
+            } else {
+                if (Math.abs(da) <= -c2 * dphi0) {
+                    return accept(a, fa);
+                }
+                if (da * (aHigh - aLow) >= 0) {
+                    aHigh = aLow;
+                    fHigh = fLow;
+                    dHigh = dLow;
+                }
+                swapTrialAndLow(fa);
+                aLow = a;
+                dLow = da;
+            }
+        }
+        return acceptLow(aLow);
+    }
+
+    /**
+     * Checks the (exact or approximate) sufficient decrease condition.
+     *
+     * @param fx Value at the start point.
+     * @param dphi0 Directional derivative at the start point.
+     * @param a Step.
+     * @param fa Value at the trial point.
+     * @param da Directional derivative at the trial point.
+     * @return whether the trial point decreases the function enough.
+     */
+    private boolean decreases(double fx,
+                              double dphi0,
+                              double a,
+                              double fa,
+                              double da) {
+        return fa <= fx + c1 * a * dphi0 ||
+            (Math.abs(fa - fx) <= ROUND_OFF * Math.abs(fx) &&
+             da <= (2 * c1 - 1) * dphi0);
+    }
+
+    /**
+     * @param fa Value at the trial point.
+     * @param fLowest Lowest value found so far.
+     * @param fx Value at the start point.
+     * @return whether the trial value is higher than the lowest value,
+     * by more than the accuracy of the values.
+     */
+    private static boolean higher(double fa,
+                                  double fLowest,
+                                  double fx) {
+        return fa - fLowest > ROUND_OFF * Math.abs(fx);
+    }
+
+    /**
+     * Computes the minimizer of the cubic that interpolates the values and
+     * derivatives at both ends of an interval, safeguarded so that it lies
+     * well inside the interval (bisection is used as a fallback).
+     *
+     * @param a0 First end.
+     * @param f0 Value at {@code a0}.
+     * @param d0 Derivative at {@code a0}.
+     * @param a1 Second end.
+     * @param f1 Value at {@code a1}.
+     * @param d1 Derivative at {@code a1}.
+     * @return the trial step.
+     */
+    private static double interpolate(double a0,
+                                      double f0,
+                                      double d0,
+                                      double a1,
+                                      double f1,
+                                      double d1) {
+        final double lo = Math.min(a0, a1);
+        final double hi = Math.max(a0, a1);
+        final double margin = SAFEGUARD * (hi - lo);
+        final double e1 = d0 + d1 - 3 * (f0 - f1) / (a0 - a1);
+        final double e2 = Math.signum(a1 - a0) * Math.sqrt(e1 * e1 - d0 * d1);
+        final double a = a1 - (a1 - a0) * (d1 + e2 - e1) / (d1 - d0 + 2 * e2);
+        if (Double.isFinite(a) &&
+            a >= lo + margin &&
+            a <= hi - margin) {
+            return a;
+        }
+        return 0.5 * (lo + hi);
+    }
+
+    /**
+     * Evaluates the function at a trial point, stored in {@link #xTrial}
+     * (and its gradient in {@link #gTrial}).
+     *
+     * @param f Function.
+     * @param x Start point.
+     * @param d Search direction.
+     * @param a Step.
+     * @return the value at the trial point.
+     */
+    private double evaluate(Objective f,
+                            double[] x,
+                            double[] d,
+                            double a) {
+        for (int i = 0; i < x.length; i++) {
+            double v = x[i] + a * d[i];
+            if (lower != null) {
+                v = Math.max(v, lower[i]);
+            }
+            if (upper != null) {
+                v = Math.min(v, upper[i]);
+            }
+            xTrial[i] = v;
+        }
+        return f.value(xTrial, gTrial);
+    }
+
+    /**
+     * Makes the trial point the one with the lowest value.
+     *
+     * @param fa Value at the trial point.
+     */
+    private void swapTrialAndLow(double fa) {
+        double[] tmp = xLow;
+        xLow = xTrial;
+        xTrial = tmp;
+        tmp = gLow;
+        gLow = gTrial;
+        gTrial = tmp;
+        fLow = fa;
+    }
+
+    /**
+     * Sets the result to the trial point.
+     *
+     * @param a Step.
+     * @param fa Value at the trial point.
+     * @return {@code a}.
+     */
+    private double accept(double a,
+                          double fa) {
+        point = xTrial;
+        gradient = gTrial;
+        value = fa;
+        return a;
+    }
+
+    /**
+     * Sets the result to the point with the lowest value.
+     *
+     * @param a Step of that point.
+     * @return {@code a}.
+     */
+    private double acceptLow(double a) {
+        point = xLow;
+        gradient = gLow;
+        value = fLow;
+        return a;
+    }
+
+    /**
+     * @param a Vector.
+     * @param b Vector.
+     * @return the inner product of {@code a} and {@code b}.
+     */
+    private static double dot(double[] a,
+                              double[] b) {
+        double s = 0;
+        for (int i = 0; i < a.length; i++) {
+            s += a[i] * b[i];
+        }
+        return s;
+    }
+}
@@ -20,6 +20,7 @@ package org.apache.commons.math4.legacy.optim.nonlinear.scalar.noderiv;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 import org.apache.commons.math4.legacy.analysis.MultivariateFunction;
 import org.apache.commons.math4.legacy.exception.DimensionMismatchException;
@@ -34,9 +35,11 @@ import org.apache.commons.math4.legacy.optim.ConvergenceChecker;
 import org.apache.commons.math4.legacy.optim.OptimizationData;
 import org.apache.commons.math4.legacy.optim.PointValuePair;
 import org.apache.commons.math4.legacy.optim.nonlinear.scalar.GoalType;
+import org.apache.commons.math4.legacy.optim.nonlinear.scalar.ObjectiveFunction;
 import org.apache.commons.math4.legacy.optim.nonlinear.scalar.PopulationSize;
 import org.apache.commons.math4.legacy.optim.nonlinear.scalar.Sigma;
 import org.apache.commons.math4.legacy.optim.nonlinear.scalar.MultivariateOptimizer;
+import org.apache.commons.math4.legacy.util.ConcurrentTasks;
 import org.apache.commons.rng.UniformRandomProvider;
 import org.apache.commons.statistics.distribution.ContinuousDistribution;
 import org.apache.commons.statistics.distribution.NormalDistribution;
@@ -124,6 +127,10 @@ public class CMAESOptimizer
     private boolean isMinimize = true;
     /** Indicates whether statistic data is collected. */
     private final boolean generateStatistics;
+    /** Executor for evaluating the offspring ({@code null} for the calling thread). */
+    private final ExecutorService executor;
+    /** Objective function (whose evaluations are not counted). */
+    private MultivariateFunction objective;
 
     // termination criteria
     /** Maximal number of iterations allowed. */
@@ -145,7 +152,7 @@ public class CMAESOptimizer
     /** log(mu + 0.5), stored for efficiency. */
     private double logMu2;
     /** Array for weighted recombination. */
-    private RealMatrix weights;
+    private double[] weights;
     /** Variance-effectiveness of sum w_i x_i. */
     private double mueff; //
 
@@ -171,28 +178,70 @@ public class CMAESOptimizer
 
     // CMA internal values - updated each generation
     /** Objective variables. */
-    private RealMatrix xmean;
+    private double[] xmean;
     /** Evolution path. */
-    private RealMatrix pc;
+    private double[] pc;
     /** Evolution path for sigma. */
-    private RealMatrix ps;
+    private double[] ps;
     /** Norm of ps, stored for efficiency. */
     private double normps;
-    /** Coordinate system. */
-    private RealMatrix B;
-    /** Scaling. */
-    private RealMatrix D;
-    /** B*D, stored for efficiency. */
-    private RealMatrix BD;
+    /** Coordinate system (row-major). */
+    private double[][] B;
+    /** B*D, stored for efficiency (row-major). */
+    private double[][] BD;
     /** Diagonal of sqrt(D), stored for efficiency. */
-    private RealMatrix diagD;
-    /** Covariance matrix. */
-    private RealMatrix C;
+    private double[] diagD;
+    /** Covariance matrix (row-major). */
+    private double[][] C;
     /** Diagonal of C, used for diagonalOnly. */
-    private RealMatrix diagC;
+    private double[] diagC;
     /** Number of iterations already performed. */
     private int iterations;
 
+    // Work buffers - allocated once per optimization
+    /** Gaussian random values of the offspring (one row per offspring). */
+    private double[][] arz;
+    /** Objective variables of the offspring (one row per offspring). */
+    private double[][] arx;
+    /** Repaired objective variables of the offspring. */
+    private double[][] arxRepaired;
+    /** Objective values and penalties of the offspring. */
+    private ValuePenaltyPair[] valuePenaltyPairs;
+    /** Fitness of the offspring. */
+    private double[] fitness;
+    /** Indices of the offspring, sorted by fitness. */
+    private int[] arindex;
+    /** Work array for sorting. */
+    private int[] sortWork;
+    /** Mean of the previous generation. */
+    private double[] xold;
+    /** Weighted mean of the selected Gaussian random values. */
+    private double[] zmean;
+    /** Square root of the diagonal of C. */
+    private double[] sqrtDiagC;
+    /** Mu difference vectors (one row per selected offspring). */
+    private double[][] arpos;
+    /** Weighted mu difference vectors. */
+    private double[][] arposWeighted;
+    /** Gaussian random values of the worst offspring (active CMA). */
+    private double[][] arzneg;
+    /** Transformed arzneg (active CMA). */
+    private double[][] artmp;
+    /** Weighted artmp (active CMA). */
+    private double[][] artmpWeighted;
+    /** Norms of the rows of arzneg (active CMA). */
+    private double[] arnorms;
+    /** Scaling factors of the rows of arzneg (active CMA). */
+    private double[] arnormsInv;
+    /** Indices of arnorms, sorted by value (active CMA). */
+    private int[] idxnorms;
+    /** Work array for sorting arnorms (active CMA). */
+    private int[] idxnormsWork;
+    /** Accumulator for a row of a rank mu update. */
+    private double[] rowAccumulator;
+    /** Accumulator for a row of the negative update (active CMA). */
+    private double[] negRowAccumulator;
+
     /** History queue of best values. */
     private double[] fitnessHistory;
     /** Size of history queue of best values. */
@@ -233,6 +282,39 @@ public class CMAESOptimizer
                           UniformRandomProvider rng,
                           boolean generateStatistics,
                           ConvergenceChecker<PointValuePair> checker) {
+        this(maxIterations, stopFitness, isActiveCMA, diagonalOnly,
+             checkFeasableCount, rng, generateStatistics, checker, null);
+    }
+
+    /**
+     * @param maxIterations Maximal number of iterations.
+     * @param stopFitness Whether to stop if objective function value is smaller than
+     * {@code stopFitness}.
+     * @param isActiveCMA Chooses the covariance matrix update method.
+     * @param diagonalOnly Number of initial iterations, where the covariance matrix
+     * remains diagonal.
+     * @param checkFeasableCount Determines how often new random objective variables are
+     * generated in case they are out of bounds.
+     * @param rng Random generator.
+     * @param generateStatistics Whether statistic data is collected.
+     * @param checker Convergence checker.
+     * @param executor Executor for evaluating the offspring of a generation
+     * concurrently ({@code null} for evaluating them in turn, in the calling
+     * thread).  When an executor is used, the objective function must be
+     * thread-safe.  The offspring are generated in the calling thread, hence
+     * the result does not depend on the executor.
+     *
+     * @since 4.0
+     */
+    public CMAESOptimizer(int maxIterations,
+                          double stopFitness,
+                          boolean isActiveCMA,
+                          int diagonalOnly,
+                          int checkFeasableCount,
+                          UniformRandomProvider rng,
+                          boolean generateStatistics,
+                          ConvergenceChecker<PointValuePair> checker,
+                          ExecutorService executor) {
         super(checker);
         this.maxIterations = maxIterations;
         this.stopFitness = stopFitness;
@@ -241,6 +323,7 @@ public class CMAESOptimizer
         this.checkFeasableCount = Math.max(0, checkFeasableCount);
         this.random = NormalDistribution.of(0, 1).createSampler(rng);
         this.generateStatistics = generateStatistics;
+        this.executor = executor;
     }
 
     /**
@@ -322,7 +405,8 @@ public class CMAESOptimizer
         dimension = guess.length;
         initializeCMA(guess);
         iterations = 0;
-        ValuePenaltyPair valuePenalty = fitfun.value(guess);
+        final ValuePenaltyPair valuePenalty = new ValuePenaltyPair(0, 0);
+        fitfun.value(getObjectiveFunction(), guess, new double[dimension], valuePenalty);
         double bestValue = valuePenalty.value+valuePenalty.penalty;
         push(fitnessHistory, bestValue);
         PointValuePair optimum
@@ -335,54 +419,47 @@ public class CMAESOptimizer
         for (iterations = 1; iterations <= maxIterations; iterations++) {
             incrementIterationCount();
 
-            // Generate and evaluate lambda offspring
-            final RealMatrix arz = randn1(dimension, lambda);
-            final RealMatrix arx = zeros(dimension, lambda);
-            final double[] fitness = new double[lambda];
-            final ValuePenaltyPair[] valuePenaltyPairs = new ValuePenaltyPair[lambda];
-            // generate random offspring
+            // Generate lambda offspring
+            for (int r = 0; r < dimension; r++) {
+                for (int k = 0; k < lambda; k++) {
+                    arz[k][r] = random.sample();
+                }
+            }
             for (int k = 0; k < lambda; k++) {
-                RealMatrix arxk = null;
                 for (int i = 0; i <= checkFeasableCount; i++) {
-                    if (diagonalOnly <= 0) {
-                        arxk = xmean.add(BD.multiply(arz.getColumnMatrix(k))
-                                         .scalarMultiply(sigma)); // m + sig * Normal(0,C)
-                    } else {
-                        arxk = xmean.add(times(diagD,arz.getColumnMatrix(k))
-                                         .scalarMultiply(sigma));
-                    }
+                    sampleOffspring(k); // m + sig * Normal(0,C)
                     if (i >= checkFeasableCount ||
-                        fitfun.isFeasible(arxk.getColumn(0))) {
+                        fitfun.isFeasible(arx[k])) {
                         break;
                     }
                     // regenerate random arguments for row
-                    arz.setColumn(k, randn(dimension));
-                }
-                copyColumn(arxk, 0, arx, k);
-                try {
-                    valuePenaltyPairs[k] = fitfun.value(arx.getColumn(k)); // compute fitness
-                } catch (TooManyEvaluationsException e) {
-                    break generationLoop;
+                    for (int r = 0; r < dimension; r++) {
+                        arz[k][r] = random.sample();
+                    }
                 }
             }
+            // Evaluate the offspring
+            try {
+                evaluateOffspring(fitfun);
+            } catch (TooManyEvaluationsException e) {
+                break generationLoop;
+            }
             // Compute fitnesses by adding value and penalty after scaling by value range.
             double valueRange = valueRange(valuePenaltyPairs);
             for (int iValue=0;iValue<valuePenaltyPairs.length;iValue++) {
                  fitness[iValue] = valuePenaltyPairs[iValue].value + valuePenaltyPairs[iValue].penalty*valueRange;
             }
             // Sort by fitness and compute weighted mean into xmean
-            final int[] arindex = sortedIndices(fitness);
+            sortedIndices(fitness, arindex, sortWork);
             // Calculate new xmean, this is selection and recombination
-            final RealMatrix xold = xmean; // for speed up of Eq. (2) and (3)
-            final RealMatrix bestArx = selectColumns(arx, Arrays.copyOf(arindex, mu));
-            xmean = bestArx.multiply(weights);
-            final RealMatrix bestArz = selectColumns(arz, Arrays.copyOf(arindex, mu));
-            final RealMatrix zmean = bestArz.multiply(weights);
-            final boolean hsig = updateEvolutionPaths(zmean, xold);
+            System.arraycopy(xmean, 0, xold, 0, dimension); // for speed up of Eq. (2) and (3)
+            weightedMean(arx, xmean);
+            weightedMean(arz, zmean);
+            final boolean hsig = updateEvolutionPaths();
             if (diagonalOnly <= 0) {
-                updateCovariance(hsig, bestArx, arz, arindex, xold);
+                updateCovariance(hsig);
             } else {
-                updateCovarianceDiagonalOnly(hsig, bestArz);
+                updateCovarianceDiagonalOnly(hsig);
             }
             // Adapt step size sigma - Eq. (5)
             sigma *= JdkMath.exp(JdkMath.min(1, (normps/chiN - 1) * cs / damps));
@@ -391,7 +468,7 @@ public class CMAESOptimizer
             if (bestValue > bestFitness) {
                 bestValue = bestFitness;
                 lastResult = optimum;
-                optimum = new PointValuePair(fitfun.repair(bestArx.getColumn(0)),
+                optimum = new PointValuePair(fitfun.repair(arx[arindex[0]]),
                                              isMinimize ? bestFitness : -bestFitness);
                 if (getConvergenceChecker() != null && lastResult != null &&
                     getConvergenceChecker().converged(iterations, optimum, lastResult)) {
@@ -403,10 +480,11 @@ public class CMAESOptimizer
             if (stopFitness != 0 && bestFitness < (isMinimize ? stopFitness : -stopFitness)) {
                 break generationLoop;
             }
-            final double[] sqrtDiagC = sqrt(diagC).getColumn(0);
-            final double[] pcCol = pc.getColumn(0);
             for (int i = 0; i < dimension; i++) {
-                if (sigma * JdkMath.max(JdkMath.abs(pcCol[i]), sqrtDiagC[i]) > stopTolX) {
+                sqrtDiagC[i] = JdkMath.sqrt(diagC[i]);
+            }
+            for (int i = 0; i < dimension; i++) {
+                if (sigma * JdkMath.max(JdkMath.abs(pc[i]), sqrtDiagC[i]) > stopTolX) {
                     break;
                 }
                 if (i >= dimension - 1) {
@@ -436,7 +514,7 @@ public class CMAESOptimizer
             // user-defined termination
             if (getConvergenceChecker() != null) {
                 final PointValuePair current
-                    = new PointValuePair(bestArx.getColumn(0),
+                    = new PointValuePair(arx[arindex[0]],
                                          isMinimize ? bestFitness : -bestFitness);
                 if (lastResult != null &&
                     getConvergenceChecker().converged(iterations, current, lastResult)) {
@@ -457,13 +535,83 @@ public class CMAESOptimizer
             if (generateStatistics) {
                 statisticsSigmaHistory.add(sigma);
                 statisticsFitnessHistory.add(bestFitness);
-                statisticsMeanHistory.add(xmean.transpose());
-                statisticsDHistory.add(diagD.transpose().scalarMultiply(1E5));
+                statisticsMeanHistory.add(MatrixUtils.createRowRealMatrix(xmean));
+                final double[] scaledD = new double[dimension];
+                for (int i = 0; i < dimension; i++) {
+                    scaledD[i] = diagD[i] * 1E5;
+                }
+                statisticsDHistory.add(MatrixUtils.createRowRealMatrix(scaledD));
             }
         }
         return optimum;
     }
 
+    /**
+     * Computes the objective variables of an offspring from its Gaussian
+     * random values.
+     *
+     * @param k Index of the offspring.
+     */
+    private void sampleOffspring(int k) {
+        final double[] z = arz[k];
+        final double[] x = arx[k];
+        if (diagonalOnly <= 0) {
+            for (int i = 0; i < dimension; i++) {
+                final double[] bdRow = BD[i];
+                double sum = 0;
+                for (int j = 0; j < dimension; j++) {
+                    sum += bdRow[j] * z[j];
+                }
+                x[i] = xmean[i] + sum * sigma;
+            }
+        } else {
+            for (int i = 0; i < dimension; i++) {
+                x[i] = xmean[i] + diagD[i] * z[i] * sigma;
+            }
+        }
+    }
+
+    /**
+     * Evaluates all the offspring of the current generation.
+     *
+     * @param fitfun Fitness function.
+     * @throws TooManyEvaluationsException if the maximal number of evaluations
+     * is exceeded.
+     */
+    private void evaluateOffspring(final FitnessFunction fitfun) {
+        if (executor == null) {
+            final MultivariateFunction func = getObjectiveFunction();
+            for (int k = 0; k < lambda; k++) {
+                fitfun.value(func, arx[k], arxRepaired[k], valuePenaltyPairs[k]); // compute fitness
+            }
+        } else {
+            // The evaluation counter is not thread-safe: the whole generation
+            // is accounted for before any evaluation is dispatched.
+            for (int k = 0; k < lambda; k++) {
+                incrementEvaluationCount();
+            }
+            ConcurrentTasks.run(executor, lambda,
+                                k -> fitfun.value(objective, arx[k], arxRepaired[k], valuePenaltyPairs[k]));
+        }
+    }
+
+    /**
+     * Computes the weighted mean of the mu best offspring.
+     *
+     * @param population Values of the offspring (one row per offspring).
+     * @param mean Array where to store the weighted mean.
+     */
+    private void weightedMean(double[][] population,
+                              double[] mean) {
+        for (int i = 0; i < dimension; i++) {
+            double sum = 0;
+            for (int c = 0; c < mu; c++) {
+                sum += population[arindex[c]][i] * weights[c];
+            }
+            mean[i] = sum;
+        }
+    }
+
     /**
      * Scans the list of (required and optional) optimization data that
      * characterize the problem.
@@ -482,6 +630,10 @@ public class CMAESOptimizer
         // The existing values (as set by the previous call) are reused if
         // not provided in the argument list.
         for (OptimizationData data : optData) {
+            if (data instanceof ObjectiveFunction) {
+                objective = ((ObjectiveFunction) data).getObjectiveFunction();
+                continue;
+            }
             if (data instanceof Sigma) {
                 inputSigma = ((Sigma) data).getSigma();
                 continue;
@@ -527,11 +679,7 @@ public class CMAESOptimizer
             throw new NotStrictlyPositiveException(lambda);
         }
         // initialize sigma
-        final double[][] sigmaArray = new double[guess.length][1];
-        for (int i = 0; i < guess.length; i++) {
-            sigmaArray[i][0] = inputSigma[i];
-        }
-        final RealMatrix insigma = new Array2DRowRealMatrix(sigmaArray, false);
+        final double[] insigma = inputSigma.clone();
         sigma = max(insigma); // overall standard deviation
 
         // initialize termination criteria
@@ -543,15 +691,19 @@ public class CMAESOptimizer
         // initialize selection strategy parameters
         mu = lambda / 2; // number of parents/points for recombination
         logMu2 = JdkMath.log(mu + 0.5);
-        weights = log(sequence(1, mu, 1)).scalarMultiply(-1).scalarAdd(logMu2);
+        weights = new double[mu];
         double sumw = 0;
         double sumwq = 0;
         for (int i = 0; i < mu; i++) {
-            double w = weights.getEntry(i, 0);
+            final double w = -JdkMath.log(i + 1.0) + logMu2;
+            weights[i] = w;
             sumw += w;
             sumwq += w * w;
         }
-        weights = weights.scalarMultiply(1 / sumw);
+        final double invSumw = 1 / sumw;
+        for (int i = 0; i < mu; i++) {
+            weights[i] *= invSumw;
+        }
         mueff = sumw * sumw / sumwq; // variance-effectiveness of sum w_i x_i
 
         // initialize dynamic strategy parameters and constants
@@ -570,43 +722,88 @@ public class CMAESOptimizer
         chiN = JdkMath.sqrt(dimension) *
                 (1 - 1 / ((double) 4 * dimension) + 1 / ((double) 21 * dimension * dimension));
         // initialize CMA internal values - updated each generation
-        xmean = MatrixUtils.createColumnRealMatrix(guess); // objective variables
-        diagD = insigma.scalarMultiply(1 / sigma);
-        diagC = square(diagD);
-        pc = zeros(dimension, 1); // evolution paths for C and sigma
-        ps = zeros(dimension, 1); // B defines the coordinate system
-        normps = ps.getFrobeniusNorm();
-
-        B = eye(dimension, dimension);
-        D = ones(dimension, 1); // diagonal D defines the scaling
-        BD = times(B, repmat(diagD.transpose(), dimension, 1));
-        C = B.multiply(diag(square(D)).multiply(B.transpose())); // covariance
+        xmean = guess.clone(); // objective variables
+        final double invSigma = 1 / sigma;
+        diagD = new double[dimension];
+        diagC = new double[dimension];
+        for (int i = 0; i < dimension; i++) {
+            diagD[i] = insigma[i] * invSigma;
+            diagC[i] = diagD[i] * diagD[i];
+        }
+        pc = new double[dimension]; // evolution paths for C and sigma
+        ps = new double[dimension]; // B defines the coordinate system
+        normps = 0;
+
+        B = new double[dimension][dimension];
+        BD = new double[dimension][dimension];
+        C = new double[dimension][dimension]; // covariance
+        for (int i = 0; i < dimension; i++) {
+            B[i][i] = 1;
+            BD[i][i] = diagD[i];
+            C[i][i] = 1; // diagonal D (the scaling) is all ones
+        }
         historySize = 10 + (int) (3 * 10 * dimension / (double) lambda);
         fitnessHistory = new double[historySize]; // history of fitness values
         for (int i = 0; i < historySize; i++) {
             fitnessHistory[i] = Double.MAX_VALUE;
         }
+
+        // work buffers
+        arz = new double[lambda][dimension];
+        arx = new double[lambda][dimension];
+        arxRepaired = new double[lambda][dimension];
+        valuePenaltyPairs = new ValuePenaltyPair[lambda];
+        for (int k = 0; k < lambda; k++) {
+            valuePenaltyPairs[k] = new ValuePenaltyPair(0, 0);
+        }
+        fitness = new double[lambda];
+        arindex = new int[lambda];
+        sortWork = new int[lambda];
+        xold = new double[dimension];
+        zmean = new double[dimension];
+        sqrtDiagC = new double[dimension];
+        arpos = new double[mu][dimension];
+        arposWeighted = new double[mu][dimension];
+        arzneg = new double[mu][dimension];
+        artmp = new double[mu][dimension];
+        artmpWeighted = new double[mu][dimension];
+        arnorms = new double[mu];
+        arnormsInv = new double[mu];
+        idxnorms = new int[mu];
+        idxnormsWork = new int[mu];
+        rowAccumulator = new double[dimension];
+        negRowAccumulator = new double[dimension];
     }
 
     /**
-     * Update of the evolution paths ps and pc.
+     * Update of the evolution paths ps and pc, from the weighted mean of the
+     * gaussian random numbers generating the current offspring, and from the
+     * xmean of the previous generation.
      *
-     * @param zmean Weighted row matrix of the gaussian random numbers generating
-     * the current offspring.
-     * @param xold xmean matrix of the previous generation.
      * @return hsig flag indicating a small correction.
      */
-    private boolean updateEvolutionPaths(RealMatrix zmean, RealMatrix xold) {
-        ps = ps.scalarMultiply(1 - cs).add(
-                B.multiply(zmean).scalarMultiply(
-                        JdkMath.sqrt(cs * (2 - cs) * mueff)));
-        normps = ps.getFrobeniusNorm();
+    private boolean updateEvolutionPaths() {
+        final double psFac = JdkMath.sqrt(cs * (2 - cs) * mueff);
+        double sumSq = 0;
+        for (int i = 0; i < dimension; i++) {
+            final double[] bRow = B[i];
+            double bz = 0;
+            for (int j = 0; j < dimension; j++) {
+                bz += bRow[j] * zmean[j];
+            }
+            ps[i] = ps[i] * (1 - cs) + bz * psFac;
+            sumSq += ps[i] * ps[i];
+        }
+        normps = JdkMath.sqrt(sumSq);
         final boolean hsig = normps /
             JdkMath.sqrt(1 - JdkMath.pow(1 - cs, 2 * iterations)) /
             chiN < 1.4 + 2 / ((double) dimension + 1);
-        pc = pc.scalarMultiply(1 - cc);
-        if (hsig) {
-            pc = pc.add(xmean.subtract(xold).scalarMultiply(JdkMath.sqrt(cc * (2 - cc) * mueff) / sigma));
+        final double pcFac = JdkMath.sqrt(cc * (2 - cc) * mueff) / sigma;
+        for (int i = 0; i < dimension; i++) {
+            pc[i] *= 1 - cc;
+            if (hsig) {
+                pc[i] += (xmean[i] - xold[i]) * pcFac;
+            }
         }
         return hsig;
     }
@@ -615,52 +812,60 @@ public class CMAESOptimizer
      * Update of the covariance matrix C for diagonalOnly > 0.
      *
      * @param hsig Flag indicating a small correction.
-     * @param bestArz Fitness-sorted matrix of the gaussian random values of the
-     * current offspring.
      */
-    private void updateCovarianceDiagonalOnly(boolean hsig,
-                                              final RealMatrix bestArz) {
+    private void updateCovarianceDiagonalOnly(boolean hsig) {
         // minor correction if hsig==false
         double oldFac = hsig ? 0 : ccov1Sep * cc * (2 - cc);
         oldFac += 1 - ccov1Sep - ccovmuSep;
-        diagC = diagC.scalarMultiply(oldFac) // regard old matrix
-            .add(square(pc).scalarMultiply(ccov1Sep)) // plus rank one update
-            .add(times(diagC, square(bestArz).multiply(weights)) // plus rank mu update
-                 .scalarMultiply(ccovmuSep));
-        diagD = sqrt(diagC); // replaces eig(C)
+        for (int i = 0; i < dimension; i++) {
+            double rankMu = 0;
+            for (int c = 0; c < mu; c++) {
+                final double z = arz[arindex[c]][i];
+                rankMu += z * z * weights[c];
+            }
+            diagC[i] = diagC[i] * oldFac // regard old matrix
+                + pc[i] * pc[i] * ccov1Sep // plus rank one update
+                + diagC[i] * rankMu * ccovmuSep; // plus rank mu update
+            diagD[i] = JdkMath.sqrt(diagC[i]); // replaces eig(C)
+        }
         if (diagonalOnly > 1 &&
             iterations > diagonalOnly) {
             // full covariance matrix from now on
             diagonalOnly = 0;
-            B = eye(dimension, dimension);
-            BD = diag(diagD);
-            C = diag(diagC);
+            for (int i = 0; i < dimension; i++) {
+                Arrays.fill(B[i], 0);
+                Arrays.fill(BD[i], 0);
+                Arrays.fill(C[i], 0);
+                B[i][i] = 1;
+                BD[i][i] = diagD[i];
+                C[i][i] = diagC[i];
+            }
         }
     }
 
     /**
-     * Update of the covariance matrix C.
+     * Update of the covariance matrix C, from the fitness-sorted offspring
+     * of the current generation and the xmean of the previous generation.
      *
      * @param hsig Flag indicating a small correction.
-     * @param bestArx Fitness-sorted matrix of the argument vectors producing the
-     * current offspring.
-     * @param arz Unsorted matrix containing the gaussian random values of the
-     * current offspring.
-     * @param arindex Indices indicating the fitness-order of the current offspring.
-     * @param xold xmean matrix of the previous generation.
      */
-    private void updateCovariance(boolean hsig, final RealMatrix bestArx,
-                                  final RealMatrix arz, final int[] arindex,
-                                  final RealMatrix xold) {
+    private void updateCovariance(boolean hsig) {
         double negccov = 0;
         if (ccov1 + ccovmu > 0) {
-            final RealMatrix arpos = bestArx.subtract(repmat(xold, 1, mu))
-                .scalarMultiply(1 / sigma); // mu difference vectors
-            final RealMatrix roneu = pc.multiply(pc.transpose())
-                .scalarMultiply(ccov1); // rank one update
+            final double invSigma = 1 / sigma;
+            for (int c = 0; c < mu; c++) {
+                final double[] x = arx[arindex[c]];
+                final double[] p = arpos[c];
+                final double[] pw = arposWeighted[c];
+                for (int i = 0; i < dimension; i++) {
+                    p[i] = (x[i] - xold[i]) * invSigma; // mu difference vectors
+                    pw[i] = weights[c] * p[i];
+                }
+            }
             // minor correction if hsig==false
             double oldFac = hsig ? 0 : ccov1 * cc * (2 - cc);
             oldFac += 1 - ccov1 - ccovmu;
+            double rankMuFac = ccovmu;
             if (isActiveCMA) {
                 // Adapt covariance matrix C active CMA
                 negccov = (1 - ccovmu) * 0.25 * mueff /
@@ -671,40 +876,82 @@ public class CMAESOptimizer
                 // where to make up for the variance loss
                 final double negalphaold = 0.5;
                 // prepare vectors, compute negative updating matrix Cneg
-                final int[] arReverseIndex = reverse(arindex);
-                RealMatrix arzneg = selectColumns(arz, Arrays.copyOf(arReverseIndex, mu));
-                RealMatrix arnorms = sqrt(sumRows(square(arzneg)));
-                final int[] idxnorms = sortedIndices(arnorms.getRow(0));
-                final RealMatrix arnormsSorted = selectColumns(arnorms, idxnorms);
-                final int[] idxReverse = reverse(idxnorms);
-                final RealMatrix arnormsReverse = selectColumns(arnorms, idxReverse);
-                arnorms = divide(arnormsReverse, arnormsSorted);
-                final int[] idxInv = inverse(idxnorms);
-                final RealMatrix arnormsInv = selectColumns(arnorms, idxInv);
+                for (int c = 0; c < mu; c++) {
+                    // worst offspring first
+                    final double[] z = arzneg[c];
+                    System.arraycopy(arz[arindex[lambda - 1 - c]], 0, z, 0, dimension);
+                    double sumSq = 0;
+                    for (int i = 0; i < dimension; i++) {
+                        sumSq += z[i] * z[i];
+                    }
+                    arnorms[c] = JdkMath.sqrt(sumSq);
+                }
+                sortedIndices(arnorms, idxnorms, idxnormsWork);
+                // the longest vector is scaled to the shortest length, and vice versa
+                for (int r = 0; r < mu; r++) {
+                    final int c = idxnorms[r];
+                    arnormsInv[c] = arnorms[idxnorms[mu - 1 - r]] / arnorms[c];
+                }
                 // check and set learning rate negccov
-                final double negcovMax = (1 - negminresidualvariance) /
-                    square(arnormsInv).multiply(weights).getEntry(0, 0);
+                double sumWeightedSq = 0;
+                for (int c = 0; c < mu; c++) {
+                    sumWeightedSq += arnormsInv[c] * arnormsInv[c] * weights[c];
+                }
+                final double negcovMax = (1 - negminresidualvariance) / sumWeightedSq;
                 if (negccov > negcovMax) {
                     negccov = negcovMax;
                 }
-                arzneg = times(arzneg, repmat(arnormsInv, dimension, 1));
-                final RealMatrix artmp = BD.multiply(arzneg);
-                final RealMatrix cNeg = artmp.multiply(diag(weights)).multiply(artmp.transpose());
+                for (int c = 0; c < mu; c++) {
+                    final double[] z = arzneg[c];
+                    for (int i = 0; i < dimension; i++) {
+                        z[i] *= arnormsInv[c];
+                    }
+                    final double[] t = artmp[c];
+                    final double[] tw = artmpWeighted[c];
+                    for (int i = 0; i < dimension; i++) {
+                        final double[] bdRow = BD[i];
+                        double sum = 0;
+                        for (int j = 0; j < dimension; j++) {
+                            sum += bdRow[j] * z[j];
+                        }
+                        t[i] = sum;
+                        tw[i] = sum * weights[c];
+                    }
+                }
                 oldFac += negalphaold * negccov;
-                C = C.scalarMultiply(oldFac)
-                    .add(roneu) // regard old matrix
-                    .add(arpos.scalarMultiply( // plus rank one update
-                                              ccovmu + (1 - negalphaold) * negccov) // plus rank mu update
-                         .multiply(times(repmat(weights, 1, dimension),
-                                         arpos.transpose())))
-                    .subtract(cNeg.scalarMultiply(negccov));
-            } else {
-                // Adapt covariance matrix C - nonactive
-                C = C.scalarMultiply(oldFac) // regard old matrix
-                    .add(roneu) // plus rank one update
-                    .add(arpos.scalarMultiply(ccovmu) // plus rank mu update
-                         .multiply(times(repmat(weights, 1, dimension),
-                                         arpos.transpose())));
+                rankMuFac += (1 - negalphaold) * negccov;
+            }
+
+            for (int i = 0; i < dimension; i++) {
+                // rank mu update
+                Arrays.fill(rowAccumulator, 0);
+                for (int c = 0; c < mu; c++) {
+                    final double f = arpos[c][i] * rankMuFac;
+                    final double[] pw = arposWeighted[c];
+                    for (int j = 0; j < dimension; j++) {
+                        rowAccumulator[j] += f * pw[j];
+                    }
+                }
+                final double[] cRow = C[i];
+                for (int j = 0; j < dimension; j++) {
+                    cRow[j] = cRow[j] * oldFac // regard old matrix
+                        + pc[i] * pc[j] * ccov1 // plus rank one update
+                        + rowAccumulator[j]; // plus rank mu update
+                }
+                if (isActiveCMA) {
+                    // minus negative update
+                    Arrays.fill(negRowAccumulator, 0);
+                    for (int c = 0; c < mu; c++) {
+                        final double f = artmpWeighted[c][i];
+                        final double[] t = artmp[c];
+                        for (int j = 0; j < dimension; j++) {
+                            negRowAccumulator[j] += f * t[j];
+                        }
+                    }
+                    for (int j = 0; j < dimension; j++) {
+                        cRow[j] -= negRowAccumulator[j] * negccov;
+                    }
+                }
             }
         }
         updateBD(negccov);
@@ -719,30 +966,53 @@ public class CMAESOptimizer
         if (ccov1 + ccovmu + negccov > 0 &&
             (iterations % 1. / (ccov1 + ccovmu + negccov) / dimension / 10.) < 1) {
             // to achieve O(N^2)
-            C = triu(C, 0).add(triu(C, 1).transpose());
             // enforce symmetry to prevent complex numbers
-            final EigenDecomposition eig = new EigenDecomposition(C);
-            B = eig.getV(); // eigen decomposition, B==normalized eigenvectors
-            D = eig.getD();
-            diagD = diag(D);
+            for (int i = 1; i < dimension; i++) {
+                for (int j = 0; j < i; j++) {
+                    C[i][j] = C[j][i];
+                }
+            }
+            final EigenDecomposition eig = new EigenDecomposition(new Array2DRowRealMatrix(C, false));
+            final RealMatrix v = eig.getV(); // eigen decomposition, B==normalized eigenvectors
+            for (int i = 0; i < dimension; i++) {
+                for (int j = 0; j < dimension; j++) {
+                    B[i][j] = v.getEntry(i, j);
+                }
+            }
+            final double[] eigenvalues = eig.getRealEigenvalues();
+            System.arraycopy(eigenvalues, 0, diagD, 0, dimension);
             if (min(diagD) <= 0) {
                 for (int i = 0; i < dimension; i++) {
-                    if (diagD.getEntry(i, 0) < 0) {
-                        diagD.setEntry(i, 0, 0);
+                    if (diagD[i] < 0) {
+                        diagD[i] = 0;
                     }
                 }
-                final double tfac = max(diagD) / 1e14;
-                C = C.add(eye(dimension, dimension).scalarMultiply(tfac));
-                diagD = diagD.add(ones(dimension, 1).scalarMultiply(tfac));
+                addToDiagonals(max(diagD) / 1e14);
             }
             if (max(diagD) > 1e14 * min(diagD)) {
-                final double tfac = max(diagD) / 1e14 - min(diagD);
-                C = C.add(eye(dimension, dimension).scalarMultiply(tfac));
-                diagD = diagD.add(ones(dimension, 1).scalarMultiply(tfac));
+                addToDiagonals(max(diagD) / 1e14 - min(diagD));
+            }
+            for (int i = 0; i < dimension; i++) {
+                diagC[i] = C[i][i];
+                diagD[i] = JdkMath.sqrt(diagD[i]); // D contains standard deviations now
             }
-            diagC = diag(C);
-            diagD = sqrt(diagD); // D contains standard deviations now
-            BD = times(B, repmat(diagD.transpose(), dimension, 1)); // O(n^2)
+            for (int i = 0; i < dimension; i++) {
+                for (int j = 0; j < dimension; j++) {
+                    BD[i][j] = B[i][j] * diagD[j]; // O(n^2)
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the same value to the diagonal of C and to the eigenvalues.
+     *
+     * @param tfac Value to add.
+     */
+    private void addToDiagonals(double tfac) {
+        for (int i = 0; i < dimension; i++) {
+            C[i][i] += tfac;
+            diagD[i] += tfac;
         }
     }
 
@@ -760,24 +1030,53 @@ public class CMAESOptimizer
     }
 
     /**
-     * Sorts fitness values.
+     * Sorts fitness values (lower value first).
+     * The sort is stable: equal values keep their relative order.
      *
      * @param doubles Array of values to be sorted.
-     * @return a sorted array of indices pointing into doubles.
+     * @param indices Array where to store the indices pointing into
+     * {@code doubles}, in sorted order.
+     * @param work Work array (same length as {@code doubles}).
      */
-    private int[] sortedIndices(final double[] doubles) {
-        final DoubleIndex[] dis = new DoubleIndex[doubles.length];
-        for (int i = 0; i < doubles.length; i++) {
-            dis[i] = new DoubleIndex(doubles[i], i);
+    private static void sortedIndices(final double[] doubles,
+                                      final int[] indices,
+                                      final int[] work) {
+        final int n = doubles.length;
+        for (int i = 0; i < n; i++) {
+            indices[i] = i;
         }
-        Arrays.sort(dis);
-        final int[] indices = new int[doubles.length];
-        for (int i = 0; i < doubles.length; i++) {
-            indices[i] = dis[i].index;
+        // Bottom-up merge sort.
+        int[] src = indices;
+        int[] dst = work;
+        for (int width = 1; width < n; width *= 2) {
+            for (int lo = 0; lo < n; lo += 2 * width) {
+                final int mid = Math.min(lo + width, n);
+                final int hi = Math.min(lo + 2 * width, n);
+                int i = lo;
+                int j = mid;
+                int k = lo;
+                while (i < mid && j < hi) {
+                    dst[k++] = Double.compare(doubles[src[j]], doubles[src[i]]) < 0 ?
+                        src[j++] :
+                        src[i++];
+                }
+                while (i < mid) {
+                    dst[k++] = src[i++];
+                }
+                while (j < hi) {
+                    dst[k++] = src[j++];
+                }
+            }
+            final int[] tmp = src;
+            src = dst;
+            dst = tmp;
+        }
+        if (src != indices) {
+            System.arraycopy(src, 0, indices, 0, n);
         }
-        return indices;
     }
-   /**
+
+    /**
      * Get range of values.
      *
      * @param vpPairs Array of valuePenaltyPairs to get range from.
@@ -797,53 +1096,6 @@ public class CMAESOptimizer
         return max-min;
     }
 
-    /**
-     * Used to sort fitness values. Sorting is always in lower value first
-     * order.
-     */
-    private static final class DoubleIndex implements Comparable<DoubleIndex> {
-        /** Value to compare. */
-        private final double value;
-        /** Index into sorted array. */
-        private final int index;
-
-        /**
-         * @param value Value to compare.
-         * @param index Index into sorted array.
-         */
-        DoubleIndex(double value, int index) {
-            this.value = value;
-            this.index = index;
-        }
-
-        /** {@inheritDoc} */
-        @Override
-        public int compareTo(DoubleIndex o) {
-            return Double.compare(value, o.value);
-        }
-
-        /** {@inheritDoc} */
-        @Override
-        public boolean equals(Object other) {
-
-            if (this == other) {
-                return true;
-            }
-
-            if (other instanceof DoubleIndex) {
-                return Double.compare(value, ((DoubleIndex) other).value) == 0;
-            }
-
-            return false;
-        }
-
-        /** {@inheritDoc} */
-        @Override
-        public int hashCode() {
-            long bits = Double.doubleToLongBits(value);
-            return (int) (1438542 ^ (bits >>> 32) ^ bits);
-        }
-    }
     /**
      * Stores the value and penalty (for repair of out of bounds point).
      */
@@ -874,23 +1126,37 @@ public class CMAESOptimizer
          * bounds if defined.
          */
         private final boolean isRepairMode;
+        /** Lower bounds. */
+        private final double[] lB;
+        /** Upper bounds. */
+        private final double[] uB;
 
         /** Simple constructor.
          */
         FitnessFunction() {
             isRepairMode = true;
+            lB = CMAESOptimizer.this.getLowerBound();
+            uB = CMAESOptimizer.this.getUpperBound();
         }
 
         /**
+         * Computes the objective value + penalty for violated bounds.
+         * This method only writes to its last two arguments, hence it can
+         * be called concurrently for different offspring.
+         *
+         * @param func Objective function.
          * @param point Normalized objective variables.
-         * @return the objective value + penalty for violated bounds.
+         * @param repaired Work array for the repaired objective variables.
+         * @param result Where to store the objective value and the penalty.
          */
-        public ValuePenaltyPair value(final double[] point) {
-            final MultivariateFunction func = CMAESOptimizer.this.getObjectiveFunction();
+        void value(final MultivariateFunction func,
+                   final double[] point,
+                   final double[] repaired,
+                   final ValuePenaltyPair result) {
             double value;
             double penalty = 0;
             if (isRepairMode) {
-                double[] repaired = repair(point);
+                repair(point, repaired);
                 value = func.value(repaired);
                 penalty = penalty(point, repaired);
             } else {
@@ -898,7 +1164,8 @@ public class CMAESOptimizer
             }
             value = isMinimize ? value : -value;
             penalty = isMinimize ? penalty : -penalty;
-            return new ValuePenaltyPair(value,penalty);
+            result.value = value;
+            result.penalty = penalty;
         }
 
         /**
@@ -906,9 +1173,6 @@ public class CMAESOptimizer
          * @return {@code true} if in bounds.
          */
         public boolean isFeasible(final double[] x) {
-            final double[] lB = CMAESOptimizer.this.getLowerBound();
-            final double[] uB = CMAESOptimizer.this.getUpperBound();
-
             for (int i = 0; i < x.length; i++) {
                 if (x[i] < lB[i]) {
                     return false;
@@ -925,10 +1189,18 @@ public class CMAESOptimizer
          * @return the repaired (i.e. all in bounds) objective variables.
          */
         private double[] repair(final double[] x) {
-            final double[] lB = CMAESOptimizer.this.getLowerBound();
-            final double[] uB = CMAESOptimizer.this.getUpperBound();
-
             final double[] repaired = new double[x.length];
+            repair(x, repaired);
+            return repaired;
+        }
+
+        /**
+         * @param x Normalized objective variables.
+         * @param repaired Array where to store the repaired (i.e. all in
+         * bounds) objective variables.
+         */
+        private void repair(final double[] x,
+                            final double[] repaired) {
             for (int i = 0; i < x.length; i++) {
                 if (x[i] < lB[i]) {
                     repaired[i] = lB[i];
@@ -938,7 +1210,6 @@ public class CMAESOptimizer
                     repaired[i] = x[i];
                 }
             }
-            return repaired;
         }
 
         /**
@@ -956,270 +1227,6 @@ public class CMAESOptimizer
         }
     }
 
-    // -----Matrix utility functions similar to the Matlab build in functions------
-
-    /**
-     * @param m Input matrix
-     * @return Matrix representing the element-wise logarithm of m.
-     */
-    private static RealMatrix log(final RealMatrix m) {
-        final double[][] d = new double[m.getRowDimension()][m.getColumnDimension()];
-        for (int r = 0; r < m.getRowDimension(); r++) {
-            for (int c = 0; c < m.getColumnDimension(); c++) {
-                d[r][c] = JdkMath.log(m.getEntry(r, c));
-            }
-        }
-        return new Array2DRowRealMatrix(d, false);
-    }
-
-    /**
-     * @param m Input matrix.
-     * @return Matrix representing the element-wise square root of m.
-     */
-    private static RealMatrix sqrt(final RealMatrix m) {
-        final double[][] d = new double[m.getRowDimension()][m.getColumnDimension()];
-        for (int r = 0; r < m.getRowDimension(); r++) {
-            for (int c = 0; c < m.getColumnDimension(); c++) {
-                d[r][c] = JdkMath.sqrt(m.getEntry(r, c));
-            }
-        }
-        return new Array2DRowRealMatrix(d, false);
-    }
-
-    /**
-     * @param m Input matrix.
-     * @return Matrix representing the element-wise square of m.
-     */
-    private static RealMatrix square(final RealMatrix m) {
-        final double[][] d = new double[m.getRowDimension()][m.getColumnDimension()];
-        for (int r = 0; r < m.getRowDimension(); r++) {
-            for (int c = 0; c < m.getColumnDimension(); c++) {
-                double e = m.getEntry(r, c);
-                d[r][c] = e * e;
-            }
-        }
-        return new Array2DRowRealMatrix(d, false);
-    }
-
-    /**
-     * @param m Input matrix 1.
-     * @param n Input matrix 2.
-     * @return the matrix where the elements of m and n are element-wise multiplied.
-     */
-    private static RealMatrix times(final RealMatrix m, final RealMatrix n) {
-        final double[][] d = new double[m.getRowDimension()][m.getColumnDimension()];
-        for (int r = 0; r < m.getRowDimension(); r++) {
-            for (int c = 0; c < m.getColumnDimension(); c++) {
-                d[r][c] = m.getEntry(r, c) * n.getEntry(r, c);
-            }
-        }
-        return new Array2DRowRealMatrix(d, false);
-    }
-
-    /**
-     * @param m Input matrix 1.
-     * @param n Input matrix 2.
-     * @return Matrix where the elements of m and n are element-wise divided.
-     */
-    private static RealMatrix divide(final RealMatrix m, final RealMatrix n) {
-        final double[][] d = new double[m.getRowDimension()][m.getColumnDimension()];
-        for (int r = 0; r < m.getRowDimension(); r++) {
-            for (int c = 0; c < m.getColumnDimension(); c++) {
-                d[r][c] = m.getEntry(r, c) / n.getEntry(r, c);
-            }
-        }
-        return new Array2DRowRealMatrix(d, false);
-    }
-
-    /**
-     * @param m Input matrix.
-     * @param cols Columns to select.
-     * @return Matrix representing the selected columns.
-     */
-    private static RealMatrix selectColumns(final RealMatrix m, final int[] cols) {
-        final double[][] d = new double[m.getRowDimension()][cols.length];
-        for (int r = 0; r < m.getRowDimension(); r++) {
-            for (int c = 0; c < cols.length; c++) {
-                d[r][c] = m.getEntry(r, cols[c]);
-            }
-        }
-        return new Array2DRowRealMatrix(d, false);
-    }
-
-    /**
-     * @param m Input matrix.
-     * @param k Diagonal position.
-     * @return Upper triangular part of matrix.
-     */
-    private static RealMatrix triu(final RealMatrix m, int k) {
-        final double[][] d = new double[m.getRowDimension()][m.getColumnDimension()];
-        for (int r = 0; r < m.getRowDimension(); r++) {
-            for (int c = 0; c < m.getColumnDimension(); c++) {
-                d[r][c] = r <= c - k ? m.getEntry(r, c) : 0;
-            }
-        }
-        return new Array2DRowRealMatrix(d, false);
-    }
-
-    /**
-     * @param m Input matrix.
-     * @return Row matrix representing the sums of the rows.
-     */
-    private static RealMatrix sumRows(final RealMatrix m) {
-        final double[][] d = new double[1][m.getColumnDimension()];
-        for (int c = 0; c < m.getColumnDimension(); c++) {
-            double sum = 0;
-            for (int r = 0; r < m.getRowDimension(); r++) {
-                sum += m.getEntry(r, c);
-            }
-            d[0][c] = sum;
-        }
-        return new Array2DRowRealMatrix(d, false);
-    }
-
-    /**
-     * @param m Input matrix.
-     * @return the diagonal n-by-n matrix if m is a column matrix or the column
-     * matrix representing the diagonal if m is a n-by-n matrix.
-     */
-    private static RealMatrix diag(final RealMatrix m) {
-        if (m.getColumnDimension() == 1) {
-            final double[][] d = new double[m.getRowDimension()][m.getRowDimension()];
-            for (int i = 0; i < m.getRowDimension(); i++) {
-                d[i][i] = m.getEntry(i, 0);
-            }
-            return new Array2DRowRealMatrix(d, false);
-        } else {
-            final double[][] d = new double[m.getRowDimension()][1];
-            for (int i = 0; i < m.getColumnDimension(); i++) {
-                d[i][0] = m.getEntry(i, i);
-            }
-            return new Array2DRowRealMatrix(d, false);
-        }
-    }
-
-    /**
-     * Copies a column from m1 to m2.
-     *
-     * @param m1 Source matrix.
-     * @param col1 Source column.
-     * @param m2 Target matrix.
-     * @param col2 Target column.
-     */
-    private static void copyColumn(final RealMatrix m1, int col1,
-                                   RealMatrix m2, int col2) {
-        for (int i = 0; i < m1.getRowDimension(); i++) {
-            m2.setEntry(i, col2, m1.getEntry(i, col1));
-        }
-    }
-
-    /**
-     * @param n Number of rows.
-     * @param m Number of columns.
-     * @return n-by-m matrix filled with 1.
-     */
-    private static RealMatrix ones(int n, int m) {
-        final double[][] d = new double[n][m];
-        for (int r = 0; r < n; r++) {
-            Arrays.fill(d[r], 1);
-        }
-        return new Array2DRowRealMatrix(d, false);
-    }
-
-    /**
-     * @param n Number of rows.
-     * @param m Number of columns.
-     * @return n-by-m matrix of 0 values out of diagonal, and 1 values on
-     * the diagonal.
-     */
-    private static RealMatrix eye(int n, int m) {
-        final double[][] d = new double[n][m];
-        for (int r = 0; r < n; r++) {
-            if (r < m) {
-                d[r][r] = 1;
-            }
-        }
-        return new Array2DRowRealMatrix(d, false);
-    }
-
-    /**
-     * @param n Number of rows.
-     * @param m Number of columns.
-     * @return n-by-m matrix of zero values.
-     */
-    private static RealMatrix zeros(int n, int m) {
-        return new Array2DRowRealMatrix(n, m);
-    }
-
-    /**
-     * @param mat Input matrix.
-     * @param n Number of row replicates.
-     * @param m Number of column replicates.
-     * @return a matrix which replicates the input matrix in both directions.
-     */
-    private static RealMatrix repmat(final RealMatrix mat, int n, int m) {
-        final int rd = mat.getRowDimension();
-        final int cd = mat.getColumnDimension();
-        final double[][] d = new double[n * rd][m * cd];
-        for (int r = 0; r < n * rd; r++) {
-            for (int c = 0; c < m * cd; c++) {
-                d[r][c] = mat.getEntry(r % rd, c % cd);
-            }
-        }
-        return new Array2DRowRealMatrix(d, false);
-    }
-
-    /**
-     * @param start Start value.
-     * @param end End value.
-     * @param step Step size.
-     * @return a sequence as column matrix.
-     */
-    private static RealMatrix sequence(double start, double end, double step) {
-        final int size = (int) ((end - start) / step + 1);
-        final double[][] d = new double[size][1];
-        double value = start;
-        for (int r = 0; r < size; r++) {
-            d[r][0] = value;
-            value += step;
-        }
-        return new Array2DRowRealMatrix(d, false);
-    }
-
-    /**
-     * @param m Input matrix.
-     * @return the maximum of the matrix element values.
-     */
-    private static double max(final RealMatrix m) {
-        double max = -Double.MAX_VALUE;
-        for (int r = 0; r < m.getRowDimension(); r++) {
-            for (int c = 0; c < m.getColumnDimension(); c++) {
-                double e = m.getEntry(r, c);
-                if (max < e) {
-                    max = e;
-                }
-            }
-        }
-        return max;
-    }
-
-    /**
-     * @param m Input matrix.
-     * @return the minimum of the matrix element values.
-     */
-    private static double min(final RealMatrix m) {
-        double min = Double.MAX_VALUE;
-        for (int r = 0; r < m.getRowDimension(); r++) {
-            for (int c = 0; c < m.getColumnDimension(); c++) {
-                double e = m.getEntry(r, c);
-                if (min > e) {
-                    min = e;
-                }
-            }
-        }
-        return min;
-    }
-
     /**
      * @param m Input array.
      * @return the maximum of the array values.
@@ -1247,55 +1254,4 @@ public class CMAESOptimizer
         }
         return min;
     }
-
-    /**
-     * @param indices Input index array.
-     * @return the inverse of the mapping defined by indices.
-     */
-    private static int[] inverse(final int[] indices) {
-        final int[] inverse = new int[indices.length];
-        for (int i = 0; i < indices.length; i++) {
-            inverse[indices[i]] = i;
-        }
-        return inverse;
-    }
-
-    /**
-     * @param indices Input index array.
-     * @return the indices in inverse order (last is first).
-     */
-    private static int[] reverse(final int[] indices) {
-        final int[] reverse = new int[indices.length];
-        for (int i = 0; i < indices.length; i++) {
-            reverse[i] = indices[indices.length - i - 1];
-        }
-        return reverse;
-    }
-
-    /**
-     * @param size Length of random array.
-     * @return an array of Gaussian random numbers.
-     */
-    private double[] randn(int size) {
-        final double[] randn = new double[size];
-        for (int i = 0; i < size; i++) {
-            randn[i] = random.sample();
-        }
-        return randn;
-    }
-
-    /**
-     * @param size Number of rows.
-     * @param popSize Population size.
-     * @return a 2-dimensional matrix of Gaussian random numbers.
-     */
-    private RealMatrix randn1(int size, int popSize) {
-        final double[][] d = new double[size][popSize];
-        for (int r = 0; r < size; r++) {
-            for (int c = 0; c < popSize; c++) {
-                d[r][c] = random.sample();
-            }
-        }
-        return new Array2DRowRealMatrix(d, false);
-    }
 }
@@ -19,13 +19,20 @@ package org.apache.commons.math4.legacy.optim.univariate;
 
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
 
+import org.apache.commons.math4.legacy.analysis.UnivariateFunction;
 import org.apache.commons.math4.legacy.exception.MathIllegalStateException;
 import org.apache.commons.math4.legacy.exception.NotStrictlyPositiveException;
 import org.apache.commons.math4.legacy.exception.util.LocalizedFormats;
+import org.apache.commons.math4.legacy.optim.ConcurrentEvaluationCounter;
 import org.apache.commons.math4.legacy.optim.MaxEval;
 import org.apache.commons.math4.legacy.optim.OptimizationData;
+import org.apache.commons.math4.legacy.optim.TargetValue;
 import org.apache.commons.math4.legacy.optim.nonlinear.scalar.GoalType;
+import org.apache.commons.math4.legacy.util.ConcurrentTasks;
 import org.apache.commons.rng.UniformRandomProvider;
 
 /**
@@ -35,6 +42,13 @@ import org.apache.commons.rng.UniformRandomProvider;
  * This class wraps an optimizer in order to use it several times in
  * turn with different starting points (trying to avoid being trapped
  * in a local extremum when looking for a global one).
+ * The starts can also be run concurrently, each one with its own
+ * optimizer instance (see {@link #MultiStartUnivariateOptimizer(Supplier,
+ * int, UniformRandomProvider, ExecutorService)}).
+ * <br>
+ * If a {@link TargetValue} is passed to {@link #optimize(OptimizationData[])
+ * optimize}, the remaining starts are cancelled as soon as one of them
+ * finds an optimum that reaches it.
  *
  * @since 3.0
  */
@@ -42,6 +56,12 @@ public class MultiStartUnivariateOptimizer
     extends UnivariateOptimizer {
     /** Underlying classical optimizer. */
     private final UnivariateOptimizer optimizer;
+    /** Factory for per-start optimizers (null for running the starts in turn). */
+    private final Supplier<? extends UnivariateOptimizer> factory;
+    /** Executor (null for running the starts in the calling thread). */
+    private final ExecutorService executor;
+    /** Target value (NaN if there is none). */
+    private double target = Double.NaN;
     /** Number of evaluations already performed for all starts. */
     private int totalEvaluations;
     /** Number of starts to go. */
@@ -83,6 +103,63 @@ public class MultiStartUnivariateOptimizer
         }
 
         this.optimizer = optimizer;
+        this.factory = null;
+        this.executor = null;
+        this.starts = starts;
+        this.generator = generator;
+    }
+
+    /**
+     * Create a multi-start optimizer that runs its starts concurrently.
+     * <p>
+     * Each start is performed by a new optimizer instance, obtained from
+     * the factory.  The objective function is shared by all the starts,
+     * hence it must be thread-safe when an executor is used.
+     * The maximal number of evaluations is a global budget for all the
+     * starts; when it is exhausted, the starts still running fail.
+     * The start values are generated in the calling thread, in the same
+     * order as in a sequential run.
+     * </p>
+     *
+     * @param factory Factory of single-start optimizers; it must return
+     * a new instance at each call.
+     * @param starts Number of starts to perform.
+     * @param generator Random generator to use for restarts.
+     * @param executor Executor ({@code null} for running the starts in
+     * turn in the calling thread).
+     * @throws NotStrictlyPositiveException if {@code starts < 1}.
+     *
+     * @since 4.0
+     */
+    public MultiStartUnivariateOptimizer(final Supplier<? extends UnivariateOptimizer> factory,
+                                         final int starts,
+                                         final UniformRandomProvider generator,
+                                         final ExecutorService executor) {
+        this(factory.get(), starts, generator, factory, executor);
+    }
+
+    /**
+     * @param optimizer Template optimizer.
+     * @param starts Number of starts to perform.
+     * @param generator Random generator to use for restarts.
+     * @param factory Factory of single-start optimizers.
+     * @param executor Executor.
+     * @throws NotStrictlyPositiveException if {@code starts < 1}.
+     */
+    private MultiStartUnivariateOptimizer(final UnivariateOptimizer optimizer,
+                                          final int starts,
+                                          final UniformRandomProvider generator,
+                                          final Supplier<? extends UnivariateOptimizer> factory,
+                                          final ExecutorService executor) {
+        super(optimizer.getConvergenceChecker());
+
+        if (starts < 1) {
+            throw new NotStrictlyPositiveException(starts);
+        }
+
+        this.optimizer = optimizer;
+        this.factory = factory;
+        this.executor = executor;
         this.starts = starts;
         this.generator = generator;
     }
@@ -163,10 +240,56 @@ public class MultiStartUnivariateOptimizer
             throw new MathIllegalStateException();
         }
 
-        RuntimeException lastException = null;
         optima = new UnivariatePointValuePair[starts];
         totalEvaluations = 0;
 
+        final RuntimeException lastException = factory == null ?
+            optimizeInTurn() :
+            optimizeConcurrently();
+
+        sortPairs(getGoalType());
+
+        if (optima[0] == null) {
+            throw lastException; // Cannot be null if starts >= 1.
+        }
+
+        // Return the point with the best objective function value.
+        return optima[0];
+    }
+
+    /**
+     * Scans the list of (required and optional) optimization data that
+     * characterize the problem.
+     *
+     * @param optData Optimization data.
+     * In addition to the data used by the base class, the following data
+     * will be looked for:
+     * <ul>
+     *  <li>{@link TargetValue}</li>
+     * </ul>
+     */
+    @Override
+    protected void parseOptimizationData(OptimizationData... optData) {
+        // Allow base class to register its own data.
+        super.parseOptimizationData(optData);
+
+        target = Double.NaN;
+        for (OptimizationData data : optData) {
+            if (data instanceof TargetValue) {
+                target = ((TargetValue) data).getTargetValue();
+                continue;
+            }
+        }
+    }
+
+    /**
+     * Runs the starts in turn, with the same optimizer.
+     *
+     * @return the exception thrown by the last failed start (or
+     * {@code null} if no start failed).
+     */
+    private RuntimeException optimizeInTurn() {
+        RuntimeException lastException = null;
         final int maxEval = getMaxEvaluations();
         final double min = getMin();
         final double max = getMax();
@@ -185,6 +308,10 @@ public class MultiStartUnivariateOptimizer
                 optimData[searchIntervalIndex] = new SearchInterval(min, max, s);
                 // Optimize.
                 optima[i] = optimizer.optimize(optimData);
+                if (isTargetReached(optima[i])) {
+                    totalEvaluations += optimizer.getEvaluations();
+                    break;
+                }
             } catch (RuntimeException mue) {
                 lastException = mue;
                 optima[i] = null;
@@ -194,14 +321,79 @@ public class MultiStartUnivariateOptimizer
             totalEvaluations += optimizer.getEvaluations();
         }
 
-        sortPairs(getGoalType());
+        return lastException;
+    }
 
-        if (optima[0] == null) {
-            throw lastException; // Cannot be null if starts >= 1.
+    /**
+     * Runs the starts concurrently, with one optimizer per start.
+     *
+     * @return the exception thrown by the last failed start (or
+     * {@code null} if no start failed).
+     */
+    private RuntimeException optimizeConcurrently() {
+        final int maxEval = getMaxEvaluations();
+        final double min = getMin();
+        final double max = getMax();
+
+        // Start values are generated in turn, as the generator is not thread-safe.
+        final double[] startValues = new double[starts];
+        startValues[0] = getStartValue();
+        for (int i = 1; i < starts; i++) {
+            startValues[i] = min + generator.nextDouble() * (max - min);
         }
 
-        // Return the point with the best objective function value.
-        return optima[0];
+        final ConcurrentEvaluationCounter counter = new ConcurrentEvaluationCounter(maxEval);
+        final OptimizationData[] template = optimData.clone();
+        template[maxEvalIndex] = new MaxEval(maxEval);
+        for (int k = 0; k < template.length; k++) {
+            if (template[k] instanceof UnivariateObjectiveFunction) {
+                final UnivariateFunction f = ((UnivariateObjectiveFunction) template[k]).getObjectiveFunction();
+                template[k] = new UnivariateObjectiveFunction(x -> {
+                        counter.increment();
+                        return f.value(x);
+                    });
+            }
+        }
+
+        final RuntimeException[] exceptions = new RuntimeException[starts];
+        ConcurrentTasks.run(executor, starts, i -> {
+                if (counter.isCancelled()) {
+                    return;
+                }
+                final OptimizationData[] data = template.clone();
+                data[searchIntervalIndex] = new SearchInterval(min, max, startValues[i]);
+                // CHECKSTYLE: stop IllegalCatch
+                try {
+                    optima[i] = factory.get().optimize(data);
+                    if (isTargetReached(optima[i])) {
+                        counter.cancel();
+                    }
+                } catch (RuntimeException e) {
+                    exceptions[i] = e;
+                }
+                // CHECKSTYLE: resume IllegalCatch
+            });
+        totalEvaluations = counter.getCount();
+
+        RuntimeException lastException = null;
+        for (final RuntimeException e : exceptions) {
+            if (e != null && !(e instanceof CancellationException)) {
+                lastException = e;
+            }
+        }
+        return lastException;
+    }
+
+    /**
+     * Checks whether an optimum is good enough for stopping the remaining starts.
+     *
+     * @param optimum Result of an optimization run.
+     * @return {@code true} if the optimum reaches the target value.
+     */
+    private boolean isTargetReached(UnivariatePointValuePair optimum) {
+        return (getGoalType() == GoalType.MINIMIZE) ?
+            optimum.getValue() <= target :
+            optimum.getValue() >= target;
     }
 
     /**
@@ -0,0 +1,498 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.stat;
+
+import java.text.NumberFormat;
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.apache.commons.math4.legacy.exception.NullArgumentException;
+import org.apache.commons.math4.legacy.exception.NumberIsTooLargeException;
+import org.apache.commons.math4.legacy.exception.OutOfRangeException;
+import org.apache.commons.math4.legacy.exception.util.LocalizedFormats;
+
+/**
+ * Maintains a frequency distribution of {@code int} values.
+ *
+ * <p>This is a primitive specialization of {@link Frequency Frequency&lt;Integer&gt;}.
+ * Two storage strategies are available:</p>
+ * <ul>
+ *  <li>when the range of the values is known in advance (and small enough),
+ *   the {@link #IntFrequency(int,int) bounded constructor} stores the counts
+ *   in a dense array indexed by value; cumulative queries then cost
+ *   {@code O(1)} once the prefix sums have been computed;</li>
+ *  <li>otherwise the counts are stored in an open addressed hash table
+ *   (see {@link LongFrequency}) and cumulative queries cost {@code O(log n)}
+ *   where {@code n} is the number of distinct values.</li>
+ * </ul>
+ * <p>In both cases, the prefix sums are rebuilt lazily after the table has
+ * been modified.</p>
+ *
+ * <p>This class is not thread-safe. Frequencies computed on separate threads
+ * can be combined with {@link #merge(IntFrequency)}.</p>
+ *
+ * @since 4.0
+ */
+public class IntFrequency {
+    /** Smallest value allowed in dense mode. */
+    private final int lower;
+    /** Largest value allowed in dense mode. */
+    private final int upper;
+    /** Counts indexed by {@code value - lower} (dense mode), or {@code null}. */
+    private final long[] dense;
+    /** Prefix sums of {@link #dense} (lazily computed), or {@code null}. */
+    private long[] denseCum;
+    /** Number of non-zero entries of {@link #dense}. */
+    private int denseUnique;
+    /** Sum of all frequencies (dense mode). */
+    private long denseSum;
+    /** Storage for the sparse mode, or {@code null}. */
+    private final LongFrequency sparse;
+
+    /**
+     * Default constructor.
+     * The counts are stored in a hash table.
+     */
+    public IntFrequency() {
+        lower = Integer.MIN_VALUE;
+        upper = Integer.MAX_VALUE;
+        dense = null;
+        sparse = new LongFrequency();
+    }
+
+    /**
+     * Creates a frequency distribution restricted to the given range of
+     * values; the counts are stored in a dense array of
+     * {@code upper - lower + 1} elements.
+     *
+     * @param lower Smallest value that can be added.
+     * @param upper Largest value that can be added.
+     * @throws NumberIsTooLargeException if {@code lower > upper} or if
+     * the range is too large to be stored in an array.
+     */
+    public IntFrequency(int lower,
+                        int upper) {
+        if (lower > upper) {
+            throw new NumberIsTooLargeException(LocalizedFormats.LOWER_BOUND_NOT_BELOW_UPPER_BOUND,
+                                                lower, upper, true);
+        }
+        final long length = (long) upper - (long) lower + 1;
+        if (length > Integer.MAX_VALUE - 8) {
+            throw new NumberIsTooLargeException(length, Integer.MAX_VALUE - 8, true);
+        }
+        this.lower = lower;
+        this.upper = upper;
+        dense = new long[(int) length];
+        sparse = null;
+    }
+
+    /**
+     * Return a string representation of this frequency distribution.
+     *
+     * @return a string representation.
+     */
+    @Override
+    public String toString() {
+        if (sparse != null) {
+            return sparse.toString();
+        }
+
+        final NumberFormat nf = NumberFormat.getPercentInstance();
+        final StringBuilder outBuffer = new StringBuilder();
+        outBuffer.append("Value \t Freq. \t Pct. \t Cum Pct. \n");
+        final long[] cum = cumulative();
+        for (int i = 0; i < dense.length; i++) {
+            if (dense[i] != 0) {
+                outBuffer.append(lower + i);
+                outBuffer.append('\t');
+                outBuffer.append(dense[i]);
+                outBuffer.append('\t');
+                outBuffer.append(nf.format((double) dense[i] / (double) denseSum));
+                outBuffer.append('\t');
+                outBuffer.append(nf.format((double) cum[i] / (double) denseSum));
+                outBuffer.append('\n');
+            }
+        }
+        return outBuffer.toString();
+    }
+
+    /**
+     * Adds 1 to the frequency count for v.
+     *
+     * @param v the value to add.
+     * @throws OutOfRangeException if {@code v} is outside the range given
+     * at construction.
+     */
+    public void addValue(int v) {
+        incrementValue(v, 1);
+    }
+
+    /**
+     * Adds 1 to the frequency count of each of the given values.
+     *
+     * @param values the values to add.
+     * @throws OutOfRangeException if one of the values is outside the range
+     * given at construction (the table is then left unchanged).
+     */
+    public void addValues(int[] values) {
+        if (sparse != null) {
+            // All values are in range.
+            for (final int v : values) {
+                sparse.incrementValue(v, 1);
+            }
+            return;
+        }
+
+        // Check all the values before modifying the table.
+        for (final int v : values) {
+            denseIndex(v);
+        }
+        for (final int v : values) {
+            final int i = v - lower;
+            if (dense[i]++ == 0) {
+                ++denseUnique;
+            }
+            ++denseSum;
+        }
+        denseCum = null;
+    }
+
+    /**
+     * Increments the frequency count for v.
+     *
+     * @param v the value to add.
+     * @param increment the amount by which the value should be incremented
+     * @throws OutOfRangeException if {@code v} is outside the range given
+     * at construction.
+     */
+    public void incrementValue(int v, long increment) {
+        if (sparse != null) {
+            sparse.incrementValue(v, increment);
+            return;
+        }
+
+        denseIncrement(denseIndex(v), increment);
+        denseSum += increment;
+        denseCum = null;
+    }
+
+    /**
+     * Increments a count of the dense table, and keeps track of the number
+     * of non-zero counts.
+     *
+     * @param i Index into {@link #dense}.
+     * @param increment Increment.
+     */
+    private void denseIncrement(int i,
+                                long increment) {
+        final long before = dense[i];
+        final long after = before + increment;
+        dense[i] = after;
+        if (before == 0) {
+            if (after != 0) {
+                ++denseUnique;
+            }
+        } else if (after == 0) {
+            --denseUnique;
+        }
+    }
+
+    /** Clears the frequency table. */
+    public void clear() {
+        if (sparse != null) {
+            sparse.clear();
+        } else {
+            Arrays.fill(dense, 0);
+            denseCum = null;
+            denseUnique = 0;
+            denseSum = 0;
+        }
+    }
+
+    /**
+     * Returns the distinct values that have been added, in increasing order.
+     *
+     * @return a new array containing the distinct values
+     */
+    public int[] getValues() {
+        final int[] values = new int[getUniqueCount()];
+        if (sparse != null) {
+            final long[] v = sparse.getValues();
+            for (int i = 0; i < v.length; i++) {
+                values[i] = (int) v[i];
+            }
+        } else {
+            int k = 0;
+            for (int i = 0; i < dense.length; i++) {
+                if (dense[i] != 0) {
+                    values[k++] = lower + i;
+                }
+            }
+        }
+        return values;
+    }
+
+    //-------------------------------------------------------------------------
+
+    /**
+     * Returns the sum of all frequencies.
+     *
+     * @return the total frequency count.
+     */
+    public long getSumFreq() {
+        return sparse != null ? sparse.getSumFreq() : denseSum;
+    }
+
+    /**
+     * Returns the number of values equal to v.
+     *
+     * @param v the value to lookup.
+     * @return the frequency of v.
+     */
+    public long getCount(int v) {
+        if (sparse != null) {
+            return sparse.getCount(v);
+        }
+        return v < lower || v > upper ? 0 : dense[v - lower];
+    }
+
+    /**
+     * Returns the number of values in the frequency table.
+     *
+     * @return the number of unique values that have been added to the frequency table.
+     * @see #getValues()
+     */
+    public int getUniqueCount() {
+        return sparse != null ? sparse.getUniqueCount() : denseUnique;
+    }
+
+    /**
+     * Returns the percentage of values that are equal to v
+     * (as a proportion between 0 and 1).
+     * <p>
+     * Returns <code>Double.NaN</code> if no values have been added.
+     * </p>
+     *
+     * @param v the value to lookup
+     * @return the proportion of values equal to v
+     */
+    public double getPct(int v) {
+        final long sumFreq = getSumFreq();
+        if (sumFreq == 0) {
+            return Double.NaN;
+        }
+        return (double) getCount(v) / (double) sumFreq;
+    }
+
+    //-----------------------------------------------------------------------------------------
+
+    /**
+     * Returns the cumulative frequency of values less than or equal to v.
+     *
+     * @param v the value to lookup.
+     * @return the number of values less than or equal to v
+     */
+    public long getCumFreq(int v) {
+        if (sparse != null) {
+            return sparse.getCumFreq(v);
+        }
+        if (v < lower) {
+            return 0;
+        }
+        if (v > upper) {
+            return denseSum;
+        }
+        return cumulative()[v - lower];
+    }
+
+    /**
+     * Returns the cumulative percentage of values less than or equal to v
+     * (as a proportion between 0 and 1).
+     * <p>
+     * Returns <code>Double.NaN</code> if no values have been added.
+     * </p>
+     *
+     * @param v the value to lookup
+     * @return the proportion of values less than or equal to v
+     */
+    public double getCumPct(int v) {
+        final long sumFreq = getSumFreq();
+        if (sumFreq == 0) {
+            return Double.NaN;
+        }
+        return (double) getCumFreq(v) / (double) sumFreq;
+    }
+
+    /**
+     * Returns the mode value(s) in increasing order.
+     *
+     * @return an array containing the value(s) which appear most often.
+     */
+    public int[] getMode() {
+        if (sparse != null) {
+            final long[] m = sparse.getMode();
+            final int[] modes = new int[m.length];
+            for (int i = 0; i < m.length; i++) {
+                modes[i] = (int) m[i];
+            }
+            return modes;
+        }
+
+        long mostPopular = 0; // frequencies are always positive
+        int n = 0;
+        for (final long count : dense) {
+            if (count == 0) {
+                continue;
+            }
+            if (count > mostPopular) {
+                mostPopular = count;
+                n = 1;
+            } else if (count == mostPopular) {
+                ++n;
+            }
+        }
+
+        final int[] modes = new int[n];
+        int k = 0;
+        for (int i = 0; i < dense.length; i++) {
+            if (dense[i] != 0 &&
+                dense[i] == mostPopular) {
+                modes[k++] = lower + i;
+            }
+        }
+        return modes;
+    }
+
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Merge another frequency object's counts into this instance.
+     * This frequency's counts will be incremented (or set when not already set)
+     * by the counts represented by other.
+     *
+     * @param other the other {@link IntFrequency} object to be merged
+     * @throws NullArgumentException if {@code other} is null
+     * @throws OutOfRangeException if {@code other} contains values outside
+     * the range given at construction of this instance.
+     */
+    public void merge(final IntFrequency other) {
+        NullArgumentException.check(other, LocalizedFormats.NULL_NOT_ALLOWED);
+
+        if (other.sparse != null) {
+            other.sparse.forEach((v, c) -> incrementValue((int) v, c));
+        } else if (dense != null &&
+                   lower == other.lower &&
+                   upper == other.upper) {
+            // Same layout: element-wise sum.
+            for (int i = 0; i < dense.length; i++) {
+                final long c = other.dense[i];
+                if (c != 0) {
+                    denseIncrement(i, c);
+                }
+            }
+            denseSum += other.denseSum;
+            denseCum = null;
+        } else {
+            for (int i = 0; i < other.dense.length; i++) {
+                if (other.dense[i] != 0) {
+                    incrementValue(other.lower + i, other.dense[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Merge a {@link Collection} of frequency objects into this instance.
+     * This frequency's counts will be incremented (or set when not already set)
+     * by the counts represented by each of the others.
+     *
+     * @param others the other {@link IntFrequency} objects to be merged
+     * @throws NullArgumentException if the collection is null
+     * @throws OutOfRangeException if one of the {@code others} contains
+     * values outside the range given at construction of this instance.
+     */
+    public void merge(final Collection<IntFrequency> others) {
+        NullArgumentException.check(others, LocalizedFormats.NULL_NOT_ALLOWED);
+
+        for (final IntFrequency freq : others) {
+            merge(freq);
+        }
+    }
+
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * @param v Value.
+     * @return the index of {@code v} in the dense table.
+     * @throws OutOfRangeException if {@code v} is out of range.
+     */
+    private int denseIndex(int v) {
+        if (v < lower || v > upper) {
+            throw new OutOfRangeException(v, lower, upper);
+        }
+        return v - lower;
+    }
+
+    /**
+     * @return the prefix sums of the dense table.
+     */
+    private long[] cumulative() {
+        if (denseCum == null) {
+            final long[] cum = new long[dense.length];
+            long sum = 0;
+            for (int i = 0; i < dense.length; i++) {
+                sum += dense[i];
+                cum[i] = sum;
+            }
+            denseCum = cum;
+        }
+        return denseCum;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int hashCode() {
+        int result = 1;
+        for (final int v : getValues()) {
+            result = 31 * result + v;
+            result = 31 * result + Long.hashCode(getCount(v));
+        }
+        return result;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof IntFrequency)) {
+            return false;
+        }
+        final IntFrequency other = (IntFrequency) obj;
+        if (getUniqueCount() != other.getUniqueCount() ||
+            getSumFreq() != other.getSumFreq()) {
+            return false;
+        }
+        for (final int v : getValues()) {
+            if (getCount(v) != other.getCount(v)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,525 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.stat;
+
+import java.text.NumberFormat;
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.apache.commons.math4.legacy.exception.NullArgumentException;
+import org.apache.commons.math4.legacy.exception.util.LocalizedFormats;
+
+/**
+ * Maintains a frequency distribution of {@code long} values.
+ *
+ * <p>This is a primitive specialization of {@link Frequency Frequency&lt;Long&gt;}:
+ * the counts are stored in an open addressed hash table so that neither the
+ * values nor the counts are boxed. Cumulative queries ({@link #getCumFreq(long)}
+ * and {@link #getCumPct(long)}) use a sorted index of the distinct values with
+ * prefix sums of their counts, so that a cumulative query costs
+ * {@code O(log n)} where {@code n} is the number of distinct values.  The
+ * index is built lazily: the values are sorted again only after a value has
+ * been added to or removed from the table, while a mere change of the counts
+ * only requires the prefix sums to be recomputed.</p>
+ *
+ * <p>This class is not thread-safe. Frequencies computed on separate threads
+ * can be combined with {@link #merge(LongFrequency)}.</p>
+ *
+ * @see IntFrequency
+ * @since 4.0
+ */
+public class LongFrequency {
+    /** Default starting capacity (must be a power of two). */
+    private static final int DEFAULT_CAPACITY = 16;
+    /** Multiplier used to spread the hash of the keys (golden ratio). */
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    /** Keys table. */
+    private long[] keys;
+    /** Counts table. */
+    private long[] counts;
+    /** Flags of used slots. */
+    private boolean[] used;
+    /** Bit mask for hash values. */
+    private int mask;
+    /** Number of distinct values. */
+    private int size;
+    /** Sum of all frequencies. */
+    private long sumFreq;
+
+    /** Sorted distinct values (lazily built index). */
+    private long[] sortedValues;
+    /** Prefix sums of the counts of {@link #sortedValues} (lazily computed). */
+    private long[] cumCounts;
+
+    /**
+     * Default constructor.
+     */
+    public LongFrequency() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an instance sized for the given number of distinct values.
+     *
+     * @param expectedUniqueCount expected number of distinct values
+     */
+    public LongFrequency(int expectedUniqueCount) {
+        allocate(capacityFor(expectedUniqueCount));
+    }
+
+    /**
+     * Return a string representation of this frequency distribution.
+     *
+     * @return a string representation.
+     */
+    @Override
+    public String toString() {
+        final NumberFormat nf = NumberFormat.getPercentInstance();
+        final StringBuilder outBuffer = new StringBuilder();
+        outBuffer.append("Value \t Freq. \t Pct. \t Cum Pct. \n");
+        buildIndex();
+        for (int i = 0; i < sortedValues.length; i++) {
+            final long count = i == 0 ? cumCounts[0] : cumCounts[i] - cumCounts[i - 1];
+            outBuffer.append(sortedValues[i]);
+            outBuffer.append('\t');
+            outBuffer.append(count);
+            outBuffer.append('\t');
+            outBuffer.append(nf.format((double) count / (double) sumFreq));
+            outBuffer.append('\t');
+            outBuffer.append(nf.format((double) cumCounts[i] / (double) sumFreq));
+            outBuffer.append('\n');
+        }
+        return outBuffer.toString();
+    }
+
+    /**
+     * Adds 1 to the frequency count for v.
+     *
+     * @param v the value to add.
+     */
+    public void addValue(long v) {
+        incrementValue(v, 1);
+    }
+
+    /**
+     * Adds 1 to the frequency count of each of the given values.
+     *
+     * @param values the values to add.
+     */
+    public void addValues(long[] values) {
+        for (final long v : values) {
+            incrementValue(v, 1);
+        }
+    }
+
+    /**
+     * Increments the frequency count for v.
+     * A value whose count becomes zero is removed from the table.
+     *
+     * @param v the value to add.
+     * @param increment the amount by which the value should be incremented
+     */
+    public void incrementValue(long v, long increment) {
+        if (increment == 0) {
+            return;
+        }
+
+        int index = indexOf(v);
+        if (!used[index]) {
+            if (2 * (size + 1) > keys.length) {
+                grow();
+                index = indexOf(v);
+            }
+            used[index] = true;
+            keys[index] = v;
+            ++size;
+            sortedValues = null;
+        }
+        counts[index] += increment;
+        sumFreq += increment;
+        if (counts[index] == 0) {
+            remove(index);
+            sortedValues = null;
+        }
+        cumCounts = null;
+    }
+
+    /** Clears the frequency table. */
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(counts, 0);
+        Arrays.fill(used, false);
+        size = 0;
+        sumFreq = 0;
+        sortedValues = null;
+        cumCounts = null;
+    }
+
+    /**
+     * Returns the distinct values that have been added, in increasing order.
+     *
+     * @return a new array containing the distinct values
+     */
+    public long[] getValues() {
+        buildIndex();
+        return sortedValues.clone();
+    }
+
+    //-------------------------------------------------------------------------
+
+    /**
+     * Returns the sum of all frequencies.
+     *
+     * @return the total frequency count.
+     */
+    public long getSumFreq() {
+        return sumFreq;
+    }
+
+    /**
+     * Returns the number of values equal to v.
+     *
+     * @param v the value to lookup.
+     * @return the frequency of v.
+     */
+    public long getCount(long v) {
+        final int index = indexOf(v);
+        return used[index] ? counts[index] : 0;
+    }
+
+    /**
+     * Returns the number of values in the frequency table.
+     *
+     * @return the number of unique values that have been added to the frequency table.
+     * @see #getValues()
+     */
+    public int getUniqueCount() {
+        return size;
+    }
+
+    /**
+     * Returns the percentage of values that are equal to v
+     * (as a proportion between 0 and 1).
+     * <p>
+     * Returns <code>Double.NaN</code> if no values have been added.
+     * </p>
+     *
+     * @param v the value to lookup
+     * @return the proportion of values equal to v
+     */
+    public double getPct(long v) {
+        if (sumFreq == 0) {
+            return Double.NaN;
+        }
+        return (double) getCount(v) / (double) sumFreq;
+    }
+
+    //-----------------------------------------------------------------------------------------
+
+    /**
+     * Returns the cumulative frequency of values less than or equal to v.
+     *
+     * @param v the value to lookup.
+     * @return the number of values less than or equal to v
+     */
+    public long getCumFreq(long v) {
+        if (size == 0) {
+            return 0;
+        }
+        buildIndex();
+        int pos = Arrays.binarySearch(sortedValues, v);
+        if (pos < 0) {
+            // Index of the last value strictly less than v.
+            pos = -pos - 2;
+        }
+        return pos < 0 ? 0 : cumCounts[pos];
+    }
+
+    /**
+     * Returns the cumulative percentage of values less than or equal to v
+     * (as a proportion between 0 and 1).
+     * <p>
+     * Returns <code>Double.NaN</code> if no values have been added.
+     * </p>
+     *
+     * @param v the value to lookup
+     * @return the proportion of values less than or equal to v
+     */
+    public double getCumPct(long v) {
+        if (sumFreq == 0) {
+            return Double.NaN;
+        }
+        return (double) getCumFreq(v) / (double) sumFreq;
+    }
+
+    /**
+     * Returns the mode value(s) in increasing order.
+     *
+     * @return an array containing the value(s) which appear most often.
+     */
+    public long[] getMode() {
+        long mostPopular = 0; // frequencies are always positive
+        int n = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (used[i]) {
+                if (counts[i] > mostPopular) {
+                    mostPopular = counts[i];
+                    n = 1;
+                } else if (counts[i] == mostPopular) {
+                    ++n;
+                }
+            }
+        }
+
+        final long[] modes = new long[n];
+        int k = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (used[i] && counts[i] == mostPopular) {
+                modes[k++] = keys[i];
+            }
+        }
+        Arrays.sort(modes);
+        return modes;
+    }
+
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Merge another frequency object's counts into this instance.
+     * This frequency's counts will be incremented (or set when not already set)
+     * by the counts represented by other.
+     *
+     * @param other the other {@link LongFrequency} object to be merged
+     * @throws NullArgumentException if {@code other} is null
+     */
+    public void merge(final LongFrequency other) {
+        NullArgumentException.check(other, LocalizedFormats.NULL_NOT_ALLOWED);
+
+        final long[] otherKeys = other.keys;
+        final long[] otherCounts = other.counts;
+        final boolean[] otherUsed = other.used;
+        for (int i = 0; i < otherKeys.length; i++) {
+            if (otherUsed[i]) {
+                incrementValue(otherKeys[i], otherCounts[i]);
+            }
+        }
+    }
+
+    /**
+     * Merge a {@link Collection} of frequency objects into this instance.
+     * This frequency's counts will be incremented (or set when not already set)
+     * by the counts represented by each of the others.
+     *
+     * @param others the other {@link LongFrequency} objects to be merged
+     * @throws NullArgumentException if the collection is null
+     */
+    public void merge(final Collection<LongFrequency> others) {
+        NullArgumentException.check(others, LocalizedFormats.NULL_NOT_ALLOWED);
+
+        for (final LongFrequency freq : others) {
+            merge(freq);
+        }
+    }
+
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Calls the given consumer for each distinct value and its count,
+     * in increasing order of the values.
+     *
+     * @param consumer the consumer of the (value, count) pairs
+     */
+    void forEach(ValueCountConsumer consumer) {
+        buildIndex();
+        long previous = 0;
+        for (int i = 0; i < sortedValues.length; i++) {
+            consumer.accept(sortedValues[i], cumCounts[i] - previous);
+            previous = cumCounts[i];
+        }
+    }
+
+    /**
+     * Builds the sorted index of the values, if values have been added or
+     * removed since the last call, and the prefix sums of their counts, if
+     * the table has been modified since the last call.
+     */
+    private void buildIndex() {
+        if (sortedValues == null) {
+            final long[] values = new long[size];
+            int k = 0;
+            for (int i = 0; i < keys.length; i++) {
+                if (used[i]) {
+                    values[k++] = keys[i];
+                }
+            }
+            Arrays.sort(values);
+            sortedValues = values;
+            cumCounts = null;
+        }
+        if (cumCounts != null) {
+            return;
+        }
+
+        final long[] values = sortedValues;
+        final long[] cum = new long[size];
+        long sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += counts[indexOf(values[i])];
+            cum[i] = sum;
+        }
+
+        cumCounts = cum;
+    }
+
+    /**
+     * Finds the slot of a value: either the slot holding it, or the free
+     * slot where it should be inserted.
+     *
+     * @param v value
+     * @return slot index
+     */
+    private int indexOf(long v) {
+        int index = hashOf(v) & mask;
+        while (used[index] && keys[index] != v) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    /**
+     * Frees a slot, and moves back the entries of its probe sequence so
+     * that they can still be found.
+     *
+     * @param index slot index
+     */
+    private void remove(int index) {
+        int hole = index;
+        int i = (index + 1) & mask;
+        while (used[i]) {
+            final int home = hashOf(keys[i]) & mask;
+            // The entry can fill the hole if the hole lies between its home
+            // slot and its current slot.
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                keys[hole] = keys[i];
+                counts[hole] = counts[i];
+                hole = i;
+            }
+            i = (i + 1) & mask;
+        }
+        used[hole] = false;
+        keys[hole] = 0;
+        counts[hole] = 0;
+        --size;
+    }
+
+    /**
+     * Doubles the capacity of the table and rehashes its content.
+     */
+    private void grow() {
+        final long[] oldKeys = keys;
+        final long[] oldCounts = counts;
+        final boolean[] oldUsed = used;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                final int index = indexOf(oldKeys[i]);
+                used[index] = true;
+                keys[index] = oldKeys[i];
+                counts[index] = oldCounts[i];
+            }
+        }
+    }
+
+    /**
+     * Allocates empty tables.
+     *
+     * @param capacity table capacity (a power of two)
+     */
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        counts = new long[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * Computes the table capacity for the expected number of entries.
+     *
+     * @param expected expected number of entries
+     * @return a power of two, at least twice as large as {@code expected}
+     */
+    private static int capacityFor(int expected) {
+        final int min = Math.max(DEFAULT_CAPACITY, 2 * expected);
+        final int capacity = Integer.highestOneBit(min);
+        return capacity == min ? capacity : capacity << 1;
+    }
+
+    /**
+     * Computes the hash of a value.
+     *
+     * @param v value
+     * @return a well-spread hash
+     */
+    private static int hashOf(long v) {
+        final long h = v * HASH_MULTIPLIER;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int hashCode() {
+        buildIndex();
+        final int prime = 31;
+        int result = 1;
+        result = prime * result + Arrays.hashCode(sortedValues);
+        result = prime * result + Arrays.hashCode(cumCounts);
+        return result;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof LongFrequency)) {
+            return false;
+        }
+        final LongFrequency other = (LongFrequency) obj;
+        if (size != other.size ||
+            sumFreq != other.sumFreq) {
+            return false;
+        }
+        buildIndex();
+        other.buildIndex();
+        return Arrays.equals(sortedValues, other.sortedValues) &&
+               Arrays.equals(cumCounts, other.cumCounts);
+    }
+
+    /**
+     * Consumer of a value and its count.
+     */
+    @FunctionalInterface
+    interface ValueCountConsumer {
+        /**
+         * @param value value
+         * @param count frequency count of the value
+         */
+        void accept(long value, long count);
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.stat.correlation;
+
+import java.util.concurrent.ExecutorService;
+import java.util.function.UnaryOperator;
+
+import org.apache.commons.math4.legacy.linear.RealMatrix;
+import org.apache.commons.math4.legacy.util.ConcurrentTasks;
+import org.apache.commons.math4.core.jdkmath.JdkMath;
+import org.apache.commons.statistics.descriptive.Mean;
+
+/**
+ * Computes the matrix of inner products between the (transformed) columns
+ * of a data matrix, i.e. X<sup>T</sup> X.
+ *
+ * <p>The columns are extracted once into contiguous arrays; the product
+ * is then computed by square tiles of the output, each tile being a task
+ * that traverses the rows by chunks small enough for the columns of the
+ * tile to stay in cache.  Every entry is accumulated in the same order
+ * whatever the number of threads, so that the result does not depend on
+ * the executor.</p>
+ */
+final class ColumnCrossProducts {
+    /** Number of columns in a tile. */
+    private static final int TILE = 32;
+    /** Number of rows processed at once for a given tile. */
+    private static final int CHUNK = 256;
+
+    /** Utility class. */
+    private ColumnCrossProducts() {}
+
+    /**
+     * Extracts the columns of a matrix, and transforms them.
+     *
+     * @param matrix Matrix.
+     * @param transform Transform applied to each of the columns (may modify
+     * its argument).
+     * @param executor Executor ({@code null} for computing in the calling thread).
+     * @return the transformed columns.
+     */
+    static double[][] columns(final RealMatrix matrix,
+                              final UnaryOperator<double[]> transform,
+                              final ExecutorService executor) {
+        final double[][] columns = new double[matrix.getColumnDimension()][];
+        ConcurrentTasks.run(executor, columns.length,
+                            j -> columns[j] = transform.apply(matrix.getColumn(j)));
+        return columns;
+    }
+
+    /**
+     * Subtracts the mean from all the values of a column.
+     *
+     * @param column Column (modified in-place).
+     * @return {@code column}.
+     */
+    static double[] center(double[] column) {
+        final double mean = Mean.of(column).getAsDouble();
+        for (int i = 0; i < column.length; i++) {
+            column[i] -= mean;
+        }
+        return column;
+    }
+
+    /**
+     * Centers a column, and scales it to unit Euclidean norm.
+     * If all the values are equal, the result contains {@code NaN}.
+     *
+     * @param column Column (modified in-place).
+     * @return {@code column}.
+     */
+    static double[] standardize(double[] column) {
+        center(column);
+        double sumSq = 0;
+        for (final double v : column) {
+            sumSq += v * v;
+        }
+        final double norm = JdkMath.sqrt(sumSq);
+        for (int i = 0; i < column.length; i++) {
+            column[i] /= norm;
+        }
+        return column;
+    }
+
+    /**
+     * Computes the inner products between all pairs of columns.
+     *
+     * @param columns Columns (must all have the same length).
+     * @param executor Executor ({@code null} for computing in the calling thread).
+     * @return the symmetric matrix whose entry {@code (i, j)} is the
+     * inner product of {@code columns[i]} and {@code columns[j]}.
+     */
+    static double[][] of(final double[][] columns,
+                         final ExecutorService executor) {
+        final int p = columns.length;
+        final int n = p == 0 ? 0 : columns[0].length;
+        final double[][] out = new double[p][p];
+
+        final int tiles = (p + TILE - 1) / TILE;
+        // Tiles (ti, tj) with ti <= tj, numbered row by row.
+        final int[] tileRow = new int[tiles * (tiles + 1) / 2];
+        final int[] tileCol = new int[tileRow.length];
+        int k = 0;
+        for (int ti = 0; ti < tiles; ti++) {
+            for (int tj = ti; tj < tiles; tj++) {
+                tileRow[k] = ti;
+                tileCol[k] = tj;
+                ++k;
+            }
+        }
+
+        ConcurrentTasks.run(executor, tileRow.length, t -> {
+                final int iStart = tileRow[t] * TILE;
+                final int iEnd = Math.min(iStart + TILE, p);
+                final int jStart = tileCol[t] * TILE;
+                final int jEnd = Math.min(jStart + TILE, p);
+                final boolean diagonal = iStart == jStart;
+
+                final double[][] sums = new double[iEnd - iStart][jEnd - jStart];
+                for (int rStart = 0; rStart < n; rStart += CHUNK) {
+                    final int rEnd = Math.min(rStart + CHUNK, n);
+                    for (int i = iStart; i < iEnd; i++) {
+                        final double[] ci = columns[i];
+                        final double[] si = sums[i - iStart];
+                        for (int j = diagonal ? i : jStart; j < jEnd; j++) {
+                            si[j - jStart] += dot(ci, columns[j], rStart, rEnd);
+                        }
+                    }
+                }
+
+                // Tiles cover disjoint parts of the output (and of its transpose).
+                for (int i = iStart; i < iEnd; i++) {
+                    for (int j = diagonal ? i : jStart; j < jEnd; j++) {
+                        final double s = sums[i - iStart][j - jStart];
+                        out[i][j] = s;
+                        out[j][i] = s;
+                    }
+                }
+            });
+
+        return out;
+    }
+
+    /**
+     * Computes the inner product of a range of two arrays.
+     *
+     * @param a First array.
+     * @param b Second array.
+     * @param from Start index (inclusive).
+     * @param to End index (exclusive).
+     * @return the inner product.
+     */
+    private static double dot(double[] a,
+                              double[] b,
+                              int from,
+                              int to) {
+        // Independent partial sums, to shorten the dependency chain.
+        double s0 = 0;
+        double s1 = 0;
+        double s2 = 0;
+        double s3 = 0;
+        int r = from;
+        for (final int end = to - 3; r < end; r += 4) {
+            s0 += a[r] * b[r];
+            s1 += a[r + 1] * b[r + 1];
+            s2 += a[r + 2] * b[r + 2];
+            s3 += a[r + 3] * b[r + 3];
+        }
+        for (; r < to; r++) {
+            s0 += a[r] * b[r];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+}
@@ -16,6 +16,8 @@
  */
 package org.apache.commons.math4.legacy.stat.correlation;
 
+import java.util.concurrent.ExecutorService;
+
 import org.apache.commons.math4.legacy.exception.MathIllegalArgumentException;
 import org.apache.commons.math4.legacy.exception.NotStrictlyPositiveException;
 import org.apache.commons.math4.legacy.exception.util.LocalizedFormats;
@@ -132,6 +134,31 @@ public class Covariance {
         this(matrix, true);
     }
 
+    /**
+     * Create a covariance matrix from a matrix whose columns
+     * represent covariates, using a blocked computation whose tasks
+     * are run by the given executor.
+     *
+     * <p>The <code>biasCorrected</code> parameter determines whether or not
+     * covariance estimates are bias-corrected.</p>
+     *
+     * <p>The matrix must have at least one column and two rows</p>
+     *
+     * @param matrix matrix with columns representing covariates
+     * @param biasCorrected true means covariances are bias-corrected
+     * @param executor executor ({@code null} for computing in the calling thread)
+     * @throws MathIllegalArgumentException if the input matrix does not have
+     * at least two rows and one column
+     * @see #computeCovarianceMatrix(RealMatrix,boolean,ExecutorService)
+     * @since 4.0
+     */
+    public Covariance(RealMatrix matrix, boolean biasCorrected, ExecutorService executor)
+    throws MathIllegalArgumentException {
+       checkSufficientData(matrix);
+       n = matrix.getRowDimension();
+       covarianceMatrix = computeCovarianceMatrix(matrix, biasCorrected, executor);
+    }
+
     /**
      * Returns the covariance matrix.
      *
@@ -174,6 +201,37 @@ public class Covariance {
         return outMatrix;
     }
 
+    /**
+     * Compute a covariance matrix from a matrix whose columns represent
+     * covariates.
+     * The columns are centered once, and the matrix of their inner products
+     * is computed by tiles; the tiles are computed concurrently by the given
+     * executor.  The result does not depend on the number of threads.
+     * @param matrix input matrix (must have at least one column and two rows)
+     * @param biasCorrected determines whether or not covariance estimates are bias-corrected
+     * @param executor executor ({@code null} for computing in the calling thread)
+     * @return covariance matrix
+     * @throws MathIllegalArgumentException if the matrix does not contain sufficient data
+     * @since 4.0
+     */
+    protected RealMatrix computeCovarianceMatrix(RealMatrix matrix,
+                                                 boolean biasCorrected,
+                                                 ExecutorService executor)
+    throws MathIllegalArgumentException {
+        checkSufficientData(matrix);
+        final int nObs = matrix.getRowDimension();
+        final double[][] out =
+            ColumnCrossProducts.of(ColumnCrossProducts.columns(matrix, ColumnCrossProducts::center, executor),
+                                   executor);
+        final double denominator = biasCorrected ? nObs - 1 : nObs;
+        for (final double[] row : out) {
+            for (int j = 0; j < row.length; j++) {
+                row[j] /= denominator;
+            }
+        }
+        return new BlockRealMatrix(out);
+    }
+
     /**
      * Create a covariance matrix from a matrix whose columns represent
      * covariates. Covariances are computed using the bias-corrected formula.
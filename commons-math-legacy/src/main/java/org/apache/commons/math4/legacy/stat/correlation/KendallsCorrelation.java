@@ -17,14 +17,14 @@
 package org.apache.commons.math4.legacy.stat.correlation;
 
 import java.util.Arrays;
-import java.util.Comparator;
+import java.util.concurrent.ExecutorService;
 
 import org.apache.commons.math4.legacy.exception.DimensionMismatchException;
 import org.apache.commons.math4.legacy.linear.BlockRealMatrix;
 import org.apache.commons.math4.legacy.linear.MatrixUtils;
 import org.apache.commons.math4.legacy.linear.RealMatrix;
+import org.apache.commons.math4.legacy.util.ConcurrentTasks;
 import org.apache.commons.math4.core.jdkmath.JdkMath;
-import org.apache.commons.math4.legacy.core.Pair;
 
 /**
  * Implementation of Kendall's Tau-b rank correlation.
@@ -101,6 +101,20 @@ public class KendallsCorrelation {
         correlationMatrix = computeCorrelationMatrix(matrix);
     }
 
+    /**
+     * Create a KendallsCorrelation from a RealMatrix whose columns
+     * represent variables to be correlated.
+     * The pairwise correlations are computed concurrently by the given
+     * executor.
+     *
+     * @param matrix matrix with columns representing variables to correlate
+     * @param executor executor ({@code null} for computing in the calling thread)
+     * @since 4.0
+     */
+    public KendallsCorrelation(RealMatrix matrix, ExecutorService executor) {
+        correlationMatrix = computeCorrelationMatrix(matrix, executor);
+    }
+
     /**
      * Returns the correlation matrix.
      *
@@ -118,17 +132,40 @@ public class KendallsCorrelation {
      * @return correlation matrix
      */
     public RealMatrix computeCorrelationMatrix(final RealMatrix matrix) {
-        int nVars = matrix.getColumnDimension();
-        RealMatrix outMatrix = new BlockRealMatrix(nVars, nVars);
-        for (int i = 0; i < nVars; i++) {
-            for (int j = 0; j < i; j++) {
-                double corr = correlation(matrix.getColumn(i), matrix.getColumn(j));
-                outMatrix.setEntry(i, j, corr);
-                outMatrix.setEntry(j, i, corr);
-            }
-            outMatrix.setEntry(i, i, 1d);
-        }
-        return outMatrix;
+        return computeCorrelationMatrix(matrix, null);
+    }
+
+    /**
+     * Computes the Kendall's Tau rank correlation matrix for the columns of
+     * the input matrix.
+     * Each column is sorted only once; the pairwise correlations are then
+     * computed concurrently by the given executor.
+     *
+     * @param matrix matrix with columns representing variables to correlate
+     * @param executor executor ({@code null} for computing in the calling thread)
+     * @return correlation matrix
+     * @since 4.0
+     */
+    public RealMatrix computeCorrelationMatrix(final RealMatrix matrix,
+                                              final ExecutorService executor) {
+        final int nVars = matrix.getColumnDimension();
+        final int nObs = matrix.getRowDimension();
+        final RankedColumn[] columns = new RankedColumn[nVars];
+        ConcurrentTasks.run(executor, nVars,
+                            j -> columns[j] = new RankedColumn(matrix.getColumn(j)));
+
+        final double[][] out = new double[nVars][nVars];
+        ConcurrentTasks.run(executor, nVars, i -> {
+                final int[] work = new int[nObs];
+                final int[] buffer = new int[nObs];
+                for (int j = 0; j < i; j++) {
+                    final double corr = correlation(columns[i], columns[j], work, buffer);
+                    out[i][j] = corr;
+                    out[j][i] = corr;
+                }
+                out[i][i] = 1d;
+            });
+        return new BlockRealMatrix(out);
     }
 
     /**
@@ -159,52 +196,77 @@ public class KendallsCorrelation {
         }
 
         final int n = xArray.length;
-        final long numPairs = sum(n - 1);
-
-        @SuppressWarnings("unchecked")
-        Pair<Double, Double>[] pairs = new Pair[n];
-        for (int i = 0; i < n; i++) {
-            pairs[i] = new Pair<>(xArray[i], yArray[i]);
-        }
+        return correlation(new RankedColumn(xArray),
+                           new RankedColumn(yArray),
+                           new int[n],
+                           new int[n]);
+    }
 
-        Arrays.sort(pairs, new Comparator<Pair<Double, Double>>() {
-            /** {@inheritDoc} */
-            @Override
-            public int compare(Pair<Double, Double> pair1, Pair<Double, Double> pair2) {
-                int compareFirst = pair1.getFirst().compareTo(pair2.getFirst());
-                return compareFirst != 0 ? compareFirst : pair1.getSecond().compareTo(pair2.getSecond());
-            }
-        });
+    /**
+     * Computes the Kendall's Tau rank correlation coefficient between two
+     * ranked columns of the same length.
+     *
+     * @param x first column
+     * @param y second column
+     * @param work workspace (length must be at least the number of observations)
+     * @param buffer workspace (length must be at least the number of observations)
+     * @return Kendall's Tau rank correlation coefficient
+     */
+    private static double correlation(final RankedColumn x,
+                                      final RankedColumn y,
+                                      final int[] work,
+                                      final int[] buffer) {
+        final int n = x.rank.length;
+        final long numPairs = sum(n - 1);
 
-        long tiedXPairs = 0;
+        // Ranks of "y", sorted by increasing "x" then increasing "y".
         long tiedXYPairs = 0;
-        long consecutiveXTies = 1;
-        long consecutiveXYTies = 1;
-        Pair<Double, Double> prev = pairs[0];
-        for (int i = 1; i < n; i++) {
-            final Pair<Double, Double> curr = pairs[i];
-            if (curr.getFirst().equals(prev.getFirst())) {
-                consecutiveXTies++;
-                if (curr.getSecond().equals(prev.getSecond())) {
-                    consecutiveXYTies++;
-                } else {
-                    tiedXYPairs += sum(consecutiveXYTies - 1);
-                    consecutiveXYTies = 1;
+        int start = 0;
+        while (start < n) {
+            final int group = x.rank[x.order[start]];
+            int end = start;
+            while (end < n &&
+                   x.rank[x.order[end]] == group) {
+                work[end] = y.rank[x.order[end]];
+                ++end;
+            }
+            if (end - start > 1) {
+                Arrays.sort(work, start, end);
+                long consecutiveXYTies = 1;
+                for (int i = start + 1; i < end; i++) {
+                    if (work[i] == work[i - 1]) {
+                        consecutiveXYTies++;
+                    } else {
+                        tiedXYPairs += sum(consecutiveXYTies - 1);
+                        consecutiveXYTies = 1;
+                    }
                 }
-            } else {
-                tiedXPairs += sum(consecutiveXTies - 1);
-                consecutiveXTies = 1;
                 tiedXYPairs += sum(consecutiveXYTies - 1);
-                consecutiveXYTies = 1;
             }
-            prev = curr;
+            start = end;
         }
-        tiedXPairs += sum(consecutiveXTies - 1);
-        tiedXYPairs += sum(consecutiveXYTies - 1);
 
+        final long swaps = countSwaps(work, buffer, n);
+
+        final long concordantMinusDiscordant = numPairs - x.tiedPairs - y.tiedPairs + tiedXYPairs - 2 * swaps;
+        final double nonTiedPairsMultiplied = (numPairs - x.tiedPairs) * (double) (numPairs - y.tiedPairs);
+        return concordantMinusDiscordant / JdkMath.sqrt(nonTiedPairsMultiplied);
+    }
+
+    /**
+     * Counts the number of swaps performed by a bottom-up merge sort.
+     *
+     * @param values values to sort (contents are destroyed)
+     * @param buffer workspace
+     * @param n number of values
+     * @return the number of swaps (i.e. of inversions in {@code values})
+     */
+    private static long countSwaps(final int[] values,
+                                   final int[] buffer,
+                                   final int n) {
         long swaps = 0;
-        @SuppressWarnings("unchecked")
-        Pair<Double, Double>[] pairsDestination = new Pair[n];
+        int[] src = values;
+        int[] dest = buffer;
         for (int segmentSize = 1; segmentSize < n; segmentSize <<= 1) {
             for (int offset = 0; offset < n; offset += 2 * segmentSize) {
                 int i = offset;
@@ -213,51 +275,26 @@ public class KendallsCorrelation {
                 final int jEnd = JdkMath.min(j + segmentSize, n);
 
                 int copyLocation = offset;
-                while (i < iEnd || j < jEnd) {
-                    if (i < iEnd) {
-                        if (j < jEnd) {
-                            if (pairs[i].getSecond().compareTo(pairs[j].getSecond()) <= 0) {
-                                pairsDestination[copyLocation] = pairs[i];
-                                i++;
-                            } else {
-                                pairsDestination[copyLocation] = pairs[j];
-                                j++;
-                                swaps += iEnd - i;
-                            }
-                        } else {
-                            pairsDestination[copyLocation] = pairs[i];
-                            i++;
-                        }
+                while (i < iEnd && j < jEnd) {
+                    if (src[i] <= src[j]) {
+                        dest[copyLocation++] = src[i++];
                     } else {
-                        pairsDestination[copyLocation] = pairs[j];
-                        j++;
+                        dest[copyLocation++] = src[j++];
+                        swaps += iEnd - i;
                     }
-                    copyLocation++;
+                }
+                while (i < iEnd) {
+                    dest[copyLocation++] = src[i++];
+                }
+                while (j < jEnd) {
+                    dest[copyLocation++] = src[j++];
                 }
             }
-            final Pair<Double, Double>[] pairsTemp = pairs;
-            pairs = pairsDestination;
-            pairsDestination = pairsTemp;
-        }
-
-        long tiedYPairs = 0;
-        long consecutiveYTies = 1;
-        prev = pairs[0];
-        for (int i = 1; i < n; i++) {
-            final Pair<Double, Double> curr = pairs[i];
-            if (curr.getSecond().equals(prev.getSecond())) {
-                consecutiveYTies++;
-            } else {
-                tiedYPairs += sum(consecutiveYTies - 1);
-                consecutiveYTies = 1;
-            }
-            prev = curr;
+            final int[] tmp = src;
+            src = dest;
+            dest = tmp;
         }
-        tiedYPairs += sum(consecutiveYTies - 1);
-
-        final long concordantMinusDiscordant = numPairs - tiedXPairs - tiedYPairs + tiedXYPairs - 2 * swaps;
-        final double nonTiedPairsMultiplied = (numPairs - tiedXPairs) * (double) (numPairs - tiedYPairs);
-        return concordantMinusDiscordant / JdkMath.sqrt(nonTiedPairsMultiplied);
+        return swaps;
     }
 
     /**
@@ -270,4 +307,55 @@ public class KendallsCorrelation {
     private static long sum(long n) {
         return n * (n + 1) / 2L;
     }
+
+    /**
+     * Column of data, with the ordering information needed for computing
+     * Kendall's Tau.
+     * Values are compared as by {@link Double#compare(double,double)}.
+     */
+    private static final class RankedColumn {
+        /** Rank of each value (equal values have the same rank). */
+        private final int[] rank;
+        /** Indices of the values, in increasing order. */
+        private final int[] order;
+        /** Number of pairs of equal values. */
+        private final long tiedPairs;
+
+        /**
+         * @param values values
+         */
+        RankedColumn(double[] values) {
+            final int n = values.length;
+            final double[] sorted = values.clone();
+            Arrays.sort(sorted);
+            int nDistinct = 0;
+            for (int i = 0; i < n; i++) {
+                if (i == 0 ||
+                    Double.compare(sorted[i], sorted[nDistinct - 1]) != 0) {
+                    sorted[nDistinct++] = sorted[i];
+                }
+            }
+
+            rank = new int[n];
+            final int[] count = new int[nDistinct + 1];
+            for (int i = 0; i < n; i++) {
+                final int r = Arrays.binarySearch(sorted, 0, nDistinct, values[i]);
+                rank[i] = r;
+                count[r + 1]++;
+            }
+
+            long ties = 0;
+            for (int r = 1; r <= nDistinct; r++) {
+                ties += sum(count[r] - 1L);
+                count[r] += count[r - 1];
+            }
+            tiedPairs = ties;
+
+            // Counting sort ("count[r]" is the position of the first value of rank "r").
+            order = new int[n];
+            for (int i = 0; i < n; i++) {
+                order[count[rank[i]]++] = i;
+            }
+        }
+    }
 }
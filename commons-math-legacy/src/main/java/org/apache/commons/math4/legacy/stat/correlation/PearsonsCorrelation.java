@@ -16,6 +16,8 @@
  */
 package org.apache.commons.math4.legacy.stat.correlation;
 
+import java.util.concurrent.ExecutorService;
+
 import org.apache.commons.statistics.distribution.TDistribution;
 import org.apache.commons.math4.legacy.exception.DimensionMismatchException;
 import org.apache.commons.math4.legacy.exception.MathIllegalArgumentException;
@@ -99,6 +101,26 @@ public class PearsonsCorrelation {
         correlationMatrix = computeCorrelationMatrix(matrix);
     }
 
+    /**
+     * Create a PearsonsCorrelation from a RealMatrix whose columns
+     * represent variables to be correlated, using a blocked computation
+     * whose tasks are run by the given executor.
+     *
+     * Throws MathIllegalArgumentException if the matrix does not have at least
+     * two columns and two rows.  Pairwise correlations are set to NaN if one
+     * of the correlates has zero variance.
+     *
+     * @param matrix matrix with columns representing variables to correlate
+     * @param executor executor ({@code null} for computing in the calling thread)
+     * @throws MathIllegalArgumentException if the matrix does not contain sufficient data
+     * @see #computeCorrelationMatrix(RealMatrix,ExecutorService)
+     * @since 4.0
+     */
+    public PearsonsCorrelation(RealMatrix matrix, ExecutorService executor) {
+        nObs = matrix.getRowDimension();
+        correlationMatrix = computeCorrelationMatrix(matrix, executor);
+    }
+
     /**
      * Create a PearsonsCorrelation from a {@link Covariance}.  The correlation
      * matrix is computed by scaling the Covariance's covariance matrix.
@@ -238,6 +260,35 @@ public class PearsonsCorrelation {
         return outMatrix;
     }
 
+    /**
+     * Computes the correlation matrix for the columns of the
+     * input matrix.
+     * The columns are standardized once, and the matrix of their inner
+     * products is computed by tiles; the tiles are computed concurrently
+     * by the given executor.  The result does not depend on the number of
+     * threads.
+     *
+     * Throws MathIllegalArgumentException if the matrix does not have at least
+     * two columns and two rows.  Pairwise correlations are set to NaN if one
+     * of the correlates has zero variance.
+     *
+     * @param matrix matrix with columns representing variables to correlate
+     * @param executor executor ({@code null} for computing in the calling thread)
+     * @return correlation matrix
+     * @throws MathIllegalArgumentException if the matrix does not contain sufficient data
+     * @since 4.0
+     */
+    public RealMatrix computeCorrelationMatrix(RealMatrix matrix, ExecutorService executor) {
+        checkSufficientData(matrix);
+        final double[][] out =
+            ColumnCrossProducts.of(ColumnCrossProducts.columns(matrix, ColumnCrossProducts::standardize, executor),
+                                   executor);
+        for (int i = 0; i < out.length; i++) {
+            out[i][i] = 1d;
+        }
+        return new BlockRealMatrix(out);
+    }
+
     /**
      * Computes the correlation matrix for the columns of the
      * input rectangular array.  The columns of the array represent values
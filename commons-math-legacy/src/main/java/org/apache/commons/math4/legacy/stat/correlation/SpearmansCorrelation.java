@@ -17,6 +17,8 @@
 
 package org.apache.commons.math4.legacy.stat.correlation;
 
+import java.util.concurrent.ExecutorService;
+
 import org.apache.commons.math4.legacy.exception.DimensionMismatchException;
 import org.apache.commons.math4.legacy.exception.MathIllegalArgumentException;
 import org.apache.commons.math4.legacy.exception.util.LocalizedFormats;
@@ -111,6 +113,38 @@ public class SpearmansCorrelation {
         rankCorrelation = new PearsonsCorrelation(data);
     }
 
+    /**
+     * Create a SpearmansCorrelation with the given input data matrix
+     * and ranking algorithm.
+     * The columns are ranked, and the correlation matrix of the ranks is
+     * computed, by tasks run by the given executor; the ranking algorithm
+     * must then be safe for use by multiple threads.
+     *
+     * @param dataMatrix matrix of data with columns representing
+     * variables to correlate
+     * @param rankingAlgorithm ranking algorithm
+     * @param executor executor ({@code null} for computing in the calling thread)
+     * @throws MathIllegalArgumentException if the provided {@link RankingAlgorithm} is of
+     * type {@link NaturalRanking} and uses a {@link NaNStrategy#REMOVED} strategy
+     * @see PearsonsCorrelation#computeCorrelationMatrix(RealMatrix,ExecutorService)
+     * @since 4.0
+     */
+    public SpearmansCorrelation(final RealMatrix dataMatrix,
+                                final RankingAlgorithm rankingAlgorithm,
+                                final ExecutorService executor)
+        throws MathIllegalArgumentException {
+
+        if (rankingAlgorithm instanceof NaturalRanking &&
+            NaNStrategy.REMOVED == ((NaturalRanking) rankingAlgorithm).getNanStrategy()) {
+            throw new MathIllegalArgumentException(LocalizedFormats.NOT_SUPPORTED_NAN_STRATEGY,
+                                                   NaNStrategy.REMOVED);
+        }
+
+        this.rankingAlgorithm = rankingAlgorithm;
+        this.data = rankTransform(dataMatrix, executor);
+        rankCorrelation = new PearsonsCorrelation(data, executor);
+    }
+
     /**
      * Calculate the Spearman Rank Correlation Matrix.
      *
@@ -151,6 +185,25 @@ public class SpearmansCorrelation {
         return new PearsonsCorrelation().computeCorrelationMatrix(matrixCopy);
     }
 
+    /**
+     * Computes the Spearman's rank correlation matrix for the columns of the
+     * input matrix.
+     * The columns are ranked, and the correlation matrix of the ranks is
+     * computed, by tasks run by the given executor; the ranking algorithm
+     * must then be safe for use by multiple threads.
+     *
+     * @param matrix matrix with columns representing variables to correlate
+     * @param executor executor ({@code null} for computing in the calling thread)
+     * @return correlation matrix
+     * @see PearsonsCorrelation#computeCorrelationMatrix(RealMatrix,ExecutorService)
+     * @since 4.0
+     */
+    public RealMatrix computeCorrelationMatrix(final RealMatrix matrix,
+                                              final ExecutorService executor) {
+        final RealMatrix ranks = rankTransform(matrix, executor);
+        return new PearsonsCorrelation().computeCorrelationMatrix(ranks, executor);
+    }
+
     /**
      * Computes the Spearman's rank correlation matrix for the columns of the
      * input rectangular array.  The columns of the array represent values
@@ -199,4 +252,19 @@ public class SpearmansCorrelation {
 
         return transformed;
     }
+
+    /**
+     * Applies rank transform to each of the columns of <code>matrix</code>
+     * using the current <code>rankingAlgorithm</code>.
+     *
+     * @param matrix matrix to transform
+     * @param executor executor ({@code null} for computing in the calling thread)
+     * @return a rank-transformed matrix
+     */
+    private RealMatrix rankTransform(final RealMatrix matrix,
+                                     final ExecutorService executor) {
+        // Row "j" holds the ranks of column "j".
+        final double[][] ranks = ColumnCrossProducts.columns(matrix, rankingAlgorithm, executor);
+        return new BlockRealMatrix(ranks).transpose();
+    }
 }
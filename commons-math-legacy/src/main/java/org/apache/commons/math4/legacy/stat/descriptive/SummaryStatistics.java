@@ -21,6 +21,7 @@ import java.util.Objects;
 import java.util.function.DoubleConsumer;
 import org.apache.commons.math4.core.jdkmath.JdkMath;
 import org.apache.commons.math4.legacy.exception.MathIllegalStateException;
+import org.apache.commons.math4.legacy.exception.MathUnsupportedOperationException;
 import org.apache.commons.math4.legacy.exception.NullArgumentException;
 import org.apache.commons.math4.legacy.exception.util.LocalizedFormats;
 import org.apache.commons.statistics.descriptive.DoubleStatistics;
@@ -295,6 +296,51 @@ public class SummaryStatistics implements StatisticalSummary {
         clear(varianceImpl);
     }
 
+    /**
+     * Adds the values summarized by another instance to this instance.
+     * The result is the same as if all the values added to {@code other}
+     * had been added to this instance.
+     * <p>
+     * This is only supported when neither instance has been configured with
+     * an overridden statistic implementation.
+     * </p>
+     *
+     * @param other Instance to combine with this one.
+     * @return this instance.
+     * @throws NullArgumentException if {@code other} is null.
+     * @throws MathUnsupportedOperationException if either instance uses an
+     * overridden statistic implementation.
+     * @since 4.0
+     */
+    public SummaryStatistics combine(SummaryStatistics other) {
+        NullArgumentException.check(other);
+        if (!usesDefaultImplementations() ||
+            !other.usesDefaultImplementations()) {
+            throw new MathUnsupportedOperationException();
+        }
+        if (other.n == 0) {
+            return this;
+        }
+        if (n == 0) {
+            createAction();
+        }
+        values.combine(other.values);
+        n += other.n;
+        return this;
+    }
+
+    /**
+     * @return {@code true} if none of the statistic implementations has
+     * been overridden.
+     */
+    private boolean usesDefaultImplementations() {
+        return sumImpl == null &&
+            minImpl == null &&
+            maxImpl == null &&
+            meanImpl == null &&
+            varianceImpl == null;
+    }
+
     /**
      * Clear the statistic if not null.
      *
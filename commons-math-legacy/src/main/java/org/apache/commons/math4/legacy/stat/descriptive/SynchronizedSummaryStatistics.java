@@ -66,6 +66,14 @@ public class SynchronizedSummaryStatistics extends SummaryStatistics {
         super.addValue(value);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized SummaryStatistics combine(SummaryStatistics other) {
+        return super.combine(other);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -16,6 +16,7 @@
  */
 package org.apache.commons.math4.legacy.stat.regression;
 
+import java.io.Serializable;
 import java.util.Arrays;
 
 import org.apache.commons.math4.legacy.exception.util.LocalizedFormats;
@@ -37,6 +38,12 @@ import org.apache.commons.numbers.core.Precision;
  * <p>This method for multiple regression forms the solution to the OLS problem
  * by updating the QR decomposition as described by Gentleman.</p>
  *
+ * <p>The data can be split into partitions fitted by separate instances
+ * (e.g. in different threads), whose decompositions are then merged with
+ * {@link #combine(MillerUpdatingRegression)}.  The decomposition can be
+ * exported with {@link #getState()} (e.g. for transferring it to another
+ * process) and an instance can be restored from it.</p>
+ *
  * @since 3.0
  */
 public class MillerUpdatingRegression implements UpdatingMultipleLinearRegression {
@@ -128,6 +135,25 @@ public class MillerUpdatingRegression implements UpdatingMultipleLinearRegressio
         }
     }
 
+    /**
+     * Creates an instance from the state of another instance.
+     *
+     * @param state State, as returned by {@link #getState()}.
+     * @since 4.0
+     */
+    public MillerUpdatingRegression(State state) {
+        this(state.hasIntercept ? state.d.length - 1 : state.d.length,
+             state.hasIntercept, state.epsilon);
+        System.arraycopy(state.d, 0, d, 0, nvars);
+        System.arraycopy(state.rhs, 0, rhs, 0, nvars);
+        System.arraycopy(state.r, 0, r, 0, r.length);
+        System.arraycopy(state.vorder, 0, vorder, 0, nvars);
+        this.nobs = state.nobs;
+        this.sserr = state.sserr;
+        this.sumy = state.sumy;
+        this.sumsqy = state.sumsqy;
+    }
+
     /**
      * Primary constructor for the MillerUpdatingRegression.
      *
@@ -209,9 +235,88 @@ public class MillerUpdatingRegression implements UpdatingMultipleLinearRegressio
                   LocalizedFormats.NOT_ENOUGH_DATA_FOR_NUMBER_OF_PREDICTORS,
                   x.length, x[0].length);
         }
+        final int nx = hasIntercept ? nvars - 1 : nvars;
         for (int i = 0; i < x.length; i++) {
-            addObservation(x[i], y[i]);
+            if (x[i].length != nx) {
+                throw new ModelSpecificationException(LocalizedFormats.INVALID_REGRESSION_OBSERVATION,
+                                                      x[i].length, nvars);
+            }
         }
+
+        // A single work array is used for all the observations.
+        final double[] work = new double[nvars];
+        final int offset = nvars - nx;
+        for (int i = 0; i < x.length; i++) {
+            if (hasIntercept) {
+                work[0] = 1.0;
+            }
+            System.arraycopy(x[i], 0, work, offset, nx);
+            include(work, 1.0, y[i]);
+        }
+        nobs += x.length;
+    }
+
+    /**
+     * Adds all the observations entered into another instance, by merging
+     * its decomposition into this one.  The other instance is not modified.
+     *
+     * <p>The result is the same (up to rounding errors) as if the observations
+     * had been added to this instance.  The other instance may have reordered
+     * its regressors.</p>
+     *
+     * @param other Regression model.
+     * @throws ModelSpecificationException if the number of regressors of the
+     * two instances do not match, or one of them includes a constant while
+     * the other does not.
+     * @since 4.0
+     */
+    public void combine(MillerUpdatingRegression other) {
+        if (other.nvars != nvars ||
+            other.hasIntercept != hasIntercept) {
+            throw new ModelSpecificationException(LocalizedFormats.DIMENSIONS_MISMATCH_SIMPLE,
+                                                  other.nvars, nvars);
+        }
+
+        // Position of each variable in the other decomposition.
+        final int[] position = new int[nvars];
+        for (int i = 0; i < nvars; i++) {
+            position[other.vorder[i]] = i;
+        }
+
+        // Each row of the other decomposition is an observation
+        // weighted by the corresponding element of "d".
+        final double[] work = new double[nvars];
+        int nextr = 0;
+        for (int i = 0; i < nvars; i++) {
+            final int start = nextr - i - 1;
+            nextr += nvars - i - 1;
+            if (other.d[i] == 0.0) {
+                continue;
+            }
+            for (int k = 0; k < nvars; k++) {
+                final int q = position[vorder[k]];
+                work[k] = q < i ? 0.0 :
+                    q == i ? 1.0 :
+                    other.r[start + q];
+            }
+            includeRow(work, other.d[i], other.rhs[i]);
+        }
+
+        sserr = smartAdd(sserr, other.sserr);
+        sumy = smartAdd(sumy, other.sumy);
+        sumsqy = smartAdd(sumsqy, other.sumsqy);
+        nobs += other.nobs;
+    }
+
+    /**
+     * Gets a copy of the decomposition, from which an instance can be
+     * restored with {@link #MillerUpdatingRegression(State)}.
+     *
+     * @return the state of this instance.
+     * @since 4.0
+     */
+    public State getState() {
+        return new State(this);
     }
 
     /**
@@ -229,6 +334,20 @@ public class MillerUpdatingRegression implements UpdatingMultipleLinearRegressio
      * @param yi observation on the regressand
      */
     private void include(final double[] x, final double wi, final double yi) {
+        sumy = smartAdd(yi, sumy);
+        sumsqy = smartAdd(sumsqy, yi * yi);
+        includeRow(x, wi, yi);
+    }
+
+    /**
+     * Updates the decomposition with a (weighted) row, without updating the
+     * sums of the regressand.
+     *
+     * @param x observations on the regressors (overwritten)
+     * @param wi weight of the this observation
+     * @param yi observation on the regressand
+     */
+    private void includeRow(final double[] x, final double wi, final double yi) {
         int nextr = 0;
         double w = wi;
         double y = yi;
@@ -239,8 +358,6 @@ public class MillerUpdatingRegression implements UpdatingMultipleLinearRegressio
         double xk;
         double wPrev;
         this.rssSet = false;
-        sumy = smartAdd(yi, sumy);
-        sumsqy = smartAdd(sumsqy, yi * yi);
         for (int i = 0; i < x.length; i++) {
             if (w == 0.0) {
                 return;
@@ -1104,4 +1221,51 @@ public class MillerUpdatingRegression implements UpdatingMultipleLinearRegressio
                     this.sumy, this.sumsqy, this.sserr, this.hasIntercept, false);
         }
     }
+
+    /**
+     * Compact representation of the decomposition: it contains only the data
+     * needed for resuming the regression (no work arrays).
+     *
+     * @since 4.0
+     */
+    public static final class State implements Serializable {
+        /** Serializable version identifier. */
+        private static final long serialVersionUID = 20261018L;
+        /** Whether a regression constant is added. */
+        private final boolean hasIntercept;
+        /** Zero tolerance. */
+        private final double epsilon;
+        /** Number of observations. */
+        private final long nobs;
+        /** Summation of Y variable. */
+        private final double sumy;
+        /** Summation of squared Y values. */
+        private final double sumsqy;
+        /** Sum of squared errors of largest regression. */
+        private final double sserr;
+        /** Diagonals of cross products matrix. */
+        private final double[] d;
+        /** Elements of R`Y. */
+        private final double[] rhs;
+        /** Off diagonal portion of the R matrix. */
+        private final double[] r;
+        /** Order of the regressors. */
+        private final int[] vorder;
+
+        /**
+         * @param regression Instance whose state is copied.
+         */
+        private State(MillerUpdatingRegression regression) {
+            hasIntercept = regression.hasIntercept;
+            epsilon = regression.epsilon;
+            nobs = regression.nobs;
+            sumy = regression.sumy;
+            sumsqy = regression.sumsqy;
+            sserr = regression.sserr;
+            d = regression.d.clone();
+            rhs = regression.rhs.clone();
+            r = regression.r.clone();
+            vorder = regression.vorder.clone();
+        }
+    }
 }
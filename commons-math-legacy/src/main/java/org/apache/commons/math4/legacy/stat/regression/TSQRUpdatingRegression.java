@@ -0,0 +1,470 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.stat.regression;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+
+import org.apache.commons.math4.legacy.exception.util.LocalizedFormats;
+import org.apache.commons.math4.legacy.linear.SingularMatrixException;
+import org.apache.commons.math4.legacy.util.ConcurrentTasks;
+import org.apache.commons.numbers.core.Precision;
+
+/**
+ * Ordinary least squares regression computed from the "tall and skinny"
+ * QR decomposition (TSQR) of the data.
+ *
+ * <p>Only the upper triangular factor R of the QR decomposition of the
+ * augmented design matrix [X | y] is kept, so that the memory requirement
+ * does not depend on the number of observations: the data can be fed by
+ * chunks (e.g. read from a file that does not fit into memory).
+ * The rows of a chunk passed to {@link #addObservations(double[][],double[])}
+ * are split into blocks which are factored independently (in parallel if an
+ * {@link ExecutorService} was passed to the constructor); the R factors of
+ * the blocks are then merged pairwise along a binary tree.
+ * Instances filled separately (e.g. by different threads) can also be merged
+ * with {@link #combine(TSQRUpdatingRegression)}.</p>
+ *
+ * <p>The blocking does not depend on the executor, hence the results are
+ * the same whatever the number of threads.</p>
+ *
+ * <p>The results are returned as {@link RegressionResults}, just like
+ * {@link MillerUpdatingRegression}.  The regressors must be linearly
+ * independent: a {@link SingularMatrixException} is thrown otherwise.</p>
+ *
+ * @since 4.0
+ */
+public class TSQRUpdatingRegression implements UpdatingMultipleLinearRegression {
+    /** Number of rows factored by a single task. */
+    private static final int BLOCK_SIZE = 1024;
+    /** Number of variables in regression (including the constant, if any). */
+    private final int nvars;
+    /** Size of the augmented triangular factor. */
+    private final int size;
+    /** Whether a regression constant is added. */
+    private final boolean hasIntercept;
+    /** Executor (may be {@code null}). */
+    private final ExecutorService executor;
+    /**
+     * Factor of the augmented design matrix, stored row by row, in the
+     * square root free form R = D<sup>1/2</sup> U, where U is unit upper
+     * triangular: the diagonal holds D and the upper part holds U.
+     * The last diagonal element is the sum of squared errors.
+     */
+    private final double[] r;
+    /** Number of observations entered. */
+    private long nobs;
+    /** Summation of Y variable. */
+    private double sumy;
+    /** Summation of squared Y values. */
+    private double sumsqy;
+
+    /**
+     * Creates a regression model whose computations are performed in the
+     * calling thread.
+     *
+     * @param numberOfVariables Number of regressors, not including the constant.
+     * @param includeConstant Whether to include a constant automatically.
+     * @throws ModelSpecificationException if {@code numberOfVariables} is less than 1.
+     */
+    public TSQRUpdatingRegression(int numberOfVariables,
+                                  boolean includeConstant) {
+        this(numberOfVariables, includeConstant, null);
+    }
+
+    /**
+     * Creates a regression model.
+     *
+     * @param numberOfVariables Number of regressors, not including the constant.
+     * @param includeConstant Whether to include a constant automatically.
+     * @param executor Executor used to factor the blocks of the chunks passed
+     * to {@link #addObservations(double[][],double[]) addObservations}
+     * ({@code null} for computing in the calling thread).
+     * @throws ModelSpecificationException if {@code numberOfVariables} is less than 1.
+     */
+    public TSQRUpdatingRegression(int numberOfVariables,
+                                  boolean includeConstant,
+                                  ExecutorService executor) {
+        if (numberOfVariables < 1) {
+            throw new ModelSpecificationException(LocalizedFormats.NO_REGRESSORS);
+        }
+        this.nvars = includeConstant ? numberOfVariables + 1 : numberOfVariables;
+        this.size = nvars + 1;
+        this.hasIntercept = includeConstant;
+        this.executor = executor;
+        this.r = new double[size * size];
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean hasIntercept() {
+        return hasIntercept;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long getN() {
+        return nobs;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void addObservation(double[] x,
+                               double y) {
+        checkObservation(x);
+        final double[] row = new double[size];
+        fillRow(x, y, row);
+        include(r, size, row, 0, 0, 1);
+        ++nobs;
+        sumy += y;
+        sumsqy += y * y;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Contrary to {@link MillerUpdatingRegression}, a chunk may contain
+     * fewer observations than there are regressors.</p>
+     */
+    @Override
+    public void addObservations(final double[][] x,
+                                final double[] y) {
+        if (x == null || y == null || x.length != y.length) {
+            throw new ModelSpecificationException(
+                  LocalizedFormats.DIMENSIONS_MISMATCH_SIMPLE,
+                  (x == null) ? 0 : x.length,
+                  (y == null) ? 0 : y.length);
+        }
+        if (x.length == 0) {
+            throw new ModelSpecificationException(LocalizedFormats.NO_DATA);
+        }
+        for (final double[] row : x) {
+            checkObservation(row);
+        }
+
+        final int n = x.length;
+        final int blocks = (n + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        final double[][] factors = new double[blocks][];
+        final double[] blockSumy = new double[blocks];
+        final double[] blockSumsqy = new double[blocks];
+        ConcurrentTasks.run(blocks == 1 ? null : executor, blocks, b -> {
+                // A single block is rotated directly into the current factor.
+                final double[] factor = blocks == 1 ? r : new double[size * size];
+                final double[] row = new double[size];
+                double s = 0;
+                double s2 = 0;
+                final int end = Math.min(n, (b + 1) * BLOCK_SIZE);
+                for (int i = b * BLOCK_SIZE; i < end; i++) {
+                    fillRow(x[i], y[i], row);
+                    include(factor, size, row, 0, 0, 1);
+                    s += y[i];
+                    s2 += y[i] * y[i];
+                }
+                factors[b] = factor;
+                blockSumy[b] = s;
+                blockSumsqy[b] = s2;
+            });
+
+        if (blocks > 1) {
+            // Binary tree reduction: at each level, the factor of the right
+            // sibling is merged into that of the left one.
+            for (int stride = 1; stride < blocks; stride *= 2) {
+                final int step = 2 * stride;
+                final int s = stride;
+                ConcurrentTasks.run(executor, (blocks - stride + step - 1) / step,
+                                    t -> merge(factors[t * step], factors[t * step + s]));
+            }
+            merge(r, factors[0]);
+        }
+
+        nobs += n;
+        for (int b = 0; b < blocks; b++) {
+            sumy += blockSumy[b];
+            sumsqy += blockSumsqy[b];
+        }
+    }
+
+    /**
+     * Adds all the observations entered into another instance.
+     * The other instance is not modified.
+     *
+     * @param other Regression model.
+     * @throws ModelSpecificationException if the number of regressors of the
+     * two instances do not match, or one of them includes a constant while
+     * the other does not.
+     */
+    public void combine(TSQRUpdatingRegression other) {
+        if (other.nvars != nvars ||
+            other.hasIntercept != hasIntercept) {
+            throw new ModelSpecificationException(LocalizedFormats.DIMENSIONS_MISMATCH_SIMPLE,
+                                                  other.nvars, nvars);
+        }
+        merge(r, Arrays.copyOf(other.r, other.r.length));
+        nobs += other.nobs;
+        sumy += other.sumy;
+        sumsqy += other.sumsqy;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void clear() {
+        Arrays.fill(r, 0);
+        nobs = 0;
+        sumy = 0;
+        sumsqy = 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws SingularMatrixException if the regressors are linearly dependent.
+     */
+    @Override
+    public RegressionResults regress() {
+        if (nobs <= nvars) {
+            throw new ModelSpecificationException(
+                    LocalizedFormats.NOT_ENOUGH_DATA_FOR_NUMBER_OF_PREDICTORS,
+                    nobs, nvars);
+        }
+        return solve(r, size, hasIntercept);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The indices refer to the columns of the design matrix: if the model
+     * includes a constant, it is the regressor at index 0.  Duplicate indices
+     * are ignored, and the estimates are returned in increasing order of the
+     * indices.</p>
+     *
+     * @throws SingularMatrixException if the selected regressors are
+     * linearly dependent.
+     */
+    @Override
+    public RegressionResults regress(int[] variablesToInclude) {
+        if (variablesToInclude.length > nvars) {
+            throw new ModelSpecificationException(
+                    LocalizedFormats.TOO_MANY_REGRESSORS, variablesToInclude.length, nvars);
+        }
+        final int[] series = Arrays.stream(variablesToInclude).sorted().distinct().toArray();
+        for (final int index : series) {
+            if (index < 0 ||
+                index >= nvars) {
+                throw new ModelSpecificationException(
+                        LocalizedFormats.INDEX_LARGER_THAN_MAX, index, nvars);
+            }
+        }
+        if (nobs <= series.length) {
+            throw new ModelSpecificationException(
+                    LocalizedFormats.NOT_ENOUGH_DATA_FOR_NUMBER_OF_PREDICTORS,
+                    nobs, series.length);
+        }
+
+        // Since R^T R = [X | y]^T [X | y], the factor of the selected
+        // columns is that of the corresponding columns of R.
+        final int sub = series.length + 1;
+        final double[] subR = new double[sub * sub];
+        final double[] row = new double[sub];
+        for (int i = 0; i < size; i++) {
+            final double weight = r[i * size + i];
+            if (weight == 0) {
+                continue;
+            }
+            for (int j = 0; j <= series.length; j++) {
+                final int col = j < series.length ? series[j] : nvars;
+                row[j] = col < i ? 0 : col == i ? 1 : r[i * size + col];
+            }
+            include(subR, sub, row, 0, 0, weight);
+        }
+
+        return solve(subR, sub,
+                     hasIntercept && series.length > 0 && series[0] == 0);
+    }
+
+    /**
+     * Checks the length of an observation.
+     *
+     * @param x Regressors.
+     * @throws ModelSpecificationException if the length of {@code x} does not
+     * equal the number of independent variables in the model.
+     */
+    private void checkObservation(double[] x) {
+        final int expected = hasIntercept ? nvars - 1 : nvars;
+        if (x.length != expected) {
+            throw new ModelSpecificationException(LocalizedFormats.INVALID_REGRESSION_OBSERVATION,
+                                                  x.length, nvars);
+        }
+    }
+
+    /**
+     * Creates a row of the augmented design matrix.
+     *
+     * @param x Regressors.
+     * @param y Regressand.
+     * @param row Row (output).
+     */
+    private void fillRow(double[] x,
+                         double y,
+                         double[] row) {
+        if (hasIntercept) {
+            row[0] = 1;
+            System.arraycopy(x, 0, row, 1, x.length);
+        } else {
+            System.arraycopy(x, 0, row, 0, x.length);
+        }
+        row[nvars] = y;
+    }
+
+    /**
+     * Merges two factors: {@code dest} is replaced with the factor of the
+     * stacked matrices.
+     *
+     * @param dest Factor (updated in-place).
+     * @param src Factor (destroyed).
+     */
+    private void merge(double[] dest,
+                       double[] src) {
+        for (int i = 0; i < size; i++) {
+            final int ii = i * size + i;
+            final double weight = src[ii];
+            if (weight != 0) {
+                // Row "i" of the unit triangular matrix.
+                src[ii] = 1;
+                include(dest, size, src, i * size, i, weight);
+            }
+        }
+    }
+
+    /**
+     * Updates a factor with a new weighted row, using Gentleman's square
+     * root free Givens rotations (as in {@link MillerUpdatingRegression}).
+     *
+     * @param factor Factor, stored row by row (updated in-place).
+     * @param n Size of the factor.
+     * @param row Array containing the row (destroyed).
+     * @param offset Index of the first element of the row in {@code row}.
+     * @param from Index of the first non-zero element of the row.
+     * @param weight Weight of the row.
+     */
+    private static void include(double[] factor,
+                                int n,
+                                double[] row,
+                                int offset,
+                                int from,
+                                double weight) {
+        double w = weight;
+        for (int j = from; j < n; j++) {
+            if (w == 0) {
+                return;
+            }
+            final double xj = row[offset + j];
+            if (xj == 0) {
+                continue;
+            }
+            final int jj = j * n + j;
+            final double dj = factor[jj];
+            final double wxj = w * xj;
+            final double dpj = dj + wxj * xj;
+            factor[jj] = dpj;
+            if (dj != 0) {
+                for (int k = j + 1; k < n; k++) {
+                    final int jk = jj - j + k;
+                    final double xk = row[offset + k];
+                    row[offset + k] = xk - xj * factor[jk];
+                    factor[jk] = (dj * factor[jk] + wxj * xk) / dpj;
+                }
+                w = dj * w / dpj;
+            } else {
+                for (int k = j + 1; k < n; k++) {
+                    factor[jj - j + k] = row[offset + k] / xj;
+                }
+                w = 0;
+            }
+        }
+    }
+
+    /**
+     * Solves the least squares problem from the factor of the augmented
+     * design matrix.
+     *
+     * @param factor Factor, stored row by row.
+     * @param n Size of the factor (number of regressors + 1).
+     * @param containsConstant Whether the regressors include the constant.
+     * @return the regression results.
+     * @throws SingularMatrixException if the regressors are linearly dependent.
+     */
+    private RegressionResults solve(double[] factor,
+                                    int n,
+                                    boolean containsConstant) {
+        final int p = n - 1;
+
+        // Rank check, relative to the norm of each column.
+        for (int j = 0; j < p; j++) {
+            final double dj = factor[j * n + j];
+            double norm2 = dj;
+            for (int i = 0; i < j; i++) {
+                final double v = factor[i * n + j];
+                norm2 += factor[i * n + i] * v * v;
+            }
+            if (dj <= Precision.EPSILON * Precision.EPSILON * norm2) {
+                throw new SingularMatrixException();
+            }
+        }
+
+        // Back substitution.
+        final double[] beta = new double[p];
+        for (int i = p - 1; i >= 0; i--) {
+            double sum = factor[i * n + p];
+            for (int k = i + 1; k < p; k++) {
+                sum -= factor[i * n + k] * beta[k];
+            }
+            beta[i] = sum;
+        }
+
+        // Inverse of the unit triangular matrix.
+        final double[][] inv = new double[p][p];
+        for (int i = p - 1; i >= 0; i--) {
+            inv[i][i] = 1;
+            for (int j = i + 1; j < p; j++) {
+                double sum = 0;
+                for (int k = i + 1; k <= j; k++) {
+                    sum -= factor[i * n + k] * inv[k][j];
+                }
+                inv[i][j] = sum;
+            }
+        }
+
+        final double sse = factor[p * n + p];
+        final double sigma2 = sse / (nobs - p);
+
+        // Lower triangular part of sigma^2 (R^T R)^-1, in compressed form.
+        final double[] cov = new double[p * (p + 1) / 2];
+        int idx = 0;
+        for (int i = 0; i < p; i++) {
+            for (int j = 0; j <= i; j++) {
+                double sum = 0;
+                for (int k = i; k < p; k++) {
+                    sum += inv[i][k] * inv[j][k] / factor[k * n + k];
+                }
+                cov[idx++] = sigma2 * sum;
+            }
+        }
+
+        return new RegressionResults(beta, new double[][] {cov}, true, nobs, p,
+                                     sumy, sumsqy, sse, containsConstant, false);
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.IntConsumer;
+
+import org.apache.commons.math4.legacy.exception.MathIllegalStateException;
+import org.apache.commons.math4.legacy.exception.util.LocalizedFormats;
+
+/**
+ * Runs groups of independent tasks, either in the calling thread or
+ * on a user-supplied {@link ExecutorService}.
+ *
+ * <p>Classes that offer a multithreaded computation path take an
+ * {@code ExecutorService} argument, so that the caller controls the
+ * number of threads (and their life cycle); a {@code null} executor
+ * means that all the work is done in the calling thread.  The tasks
+ * must write to disjoint locations, so that the result does not depend
+ * on the order in which they are run.</p>
+ *
+ * @since 4.0
+ */
+public final class ConcurrentTasks {
+    /** Utility class. */
+    private ConcurrentTasks() {}
+
+    /**
+     * Runs {@code task.accept(i)} for {@code i} in {@code [0, count)},
+     * and waits for all of them to complete.
+     *
+     * <p>If some of the tasks fail, the exception thrown by the task with
+     * the lowest index is rethrown.</p>
+     *
+     * @param executor Executor ({@code null} to run all the tasks in the
+     * calling thread, in increasing order of their index).
+     * @param count Number of tasks.
+     * @param task Task.
+     * @throws MathIllegalStateException if the calling thread is interrupted
+     * while waiting for the tasks to complete.
+     */
+    public static void run(ExecutorService executor,
+                           int count,
+                           IntConsumer task) {
+        if (executor == null ||
+            count <= 1) {
+            for (int i = 0; i < count; i++) {
+                task.accept(i);
+            }
+            return;
+        }
+
+        final List<Callable<Void>> callables = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            final int index = i;
+            callables.add(() -> {
+                    task.accept(index);
+                    return null;
+                });
+        }
+
+        try {
+            for (final Future<Void> f : executor.invokeAll(callables)) {
+                f.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MathIllegalStateException(e, LocalizedFormats.INTERRUPTED);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            // Cannot happen: "IntConsumer" does not throw checked exceptions.
+            throw new MathIllegalStateException(cause, LocalizedFormats.SIMPLE_MESSAGE, cause);
+        }
+    }
+
+    /**
+     * Splits {@code [0, n)} into consecutive ranges of {@code rangeSize}
+     * indices (the last one may be shorter), and runs {@code task} on each
+     * of them.
+     * Since the ranges do not depend on the executor, tasks that accumulate
+     * partial results per range produce the same results whatever the number
+     * of threads.
+     *
+     * @param executor Executor ({@code null} to run all the tasks in the
+     * calling thread, in increasing order of the ranges).
+     * @param n Number of indices.
+     * @param rangeSize Number of indices in a range.
+     * @param task Task.
+     * @throws MathIllegalStateException if the calling thread is interrupted
+     * while waiting for the tasks to complete.
+     *
+     * @see #run(ExecutorService,int,IntConsumer)
+     */
+    public static void runRanges(ExecutorService executor,
+                                 int n,
+                                 int rangeSize,
+                                 RangeTask task) {
+        final int count = (n + rangeSize - 1) / rangeSize;
+        run(executor, count, r -> {
+                final int from = r * rangeSize;
+                task.run(from, Math.min(n, from + rangeSize));
+            });
+    }
+
+    /** Task that processes a range of indices. */
+    @FunctionalInterface
+    public interface RangeTask {
+        /**
+         * @param from First index (inclusive).
+         * @param to Last index (exclusive).
+         */
+        void run(int from, int to);
+    }
+}
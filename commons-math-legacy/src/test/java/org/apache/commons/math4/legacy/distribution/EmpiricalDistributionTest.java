@@ -21,6 +21,7 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Arrays;
 
 import org.apache.commons.rng.UniformRandomProvider;
 import org.apache.commons.rng.simple.RandomSource;
@@ -32,7 +33,11 @@ import org.apache.commons.math4.legacy.TestUtils;
 import org.apache.commons.math4.legacy.analysis.UnivariateFunction;
 import org.apache.commons.math4.legacy.analysis.integration.BaseAbstractUnivariateIntegrator;
 import org.apache.commons.math4.legacy.analysis.integration.IterativeLegendreGaussIntegrator;
+import org.apache.commons.math4.legacy.exception.MathIllegalArgumentException;
+import org.apache.commons.math4.legacy.exception.NoDataException;
+import org.apache.commons.math4.legacy.exception.NotFiniteNumberException;
 import org.apache.commons.math4.legacy.exception.NotStrictlyPositiveException;
+import org.apache.commons.math4.legacy.exception.OutOfRangeException;
 import org.apache.commons.math4.legacy.stat.descriptive.SummaryStatistics;
 import org.apache.commons.math4.core.jdkmath.JdkMath;
 import org.junit.Assert;
@@ -497,4 +502,128 @@ public final class EmpiricalDistributionTest extends RealDistributionAbstractTes
             Assert.assertTrue("p=" + p + " => v=" + v, Double.isFinite(v));
         }
     }
+
+    @Test
+    public void testBuilderFixedRange() {
+        final double min = empiricalDistribution.getSampleStats().getMin();
+        final double max = empiricalDistribution.getSampleStats().getMax();
+        final EmpiricalDistribution ed = EmpiricalDistribution.builder(100, min, max)
+            .addValues(dataArray)
+            .build();
+
+        Assert.assertEquals(min, ed.getSupportLowerBound(), 0);
+        Assert.assertEquals(max, ed.getSupportUpperBound(), 0);
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals(empiricalDistribution.getBinStats().get(i).getN(),
+                                ed.getBinStats().get(i).getN());
+        }
+        Assert.assertArrayEquals(empiricalDistribution.getUpperBounds(),
+                                 ed.getUpperBounds(), 0);
+        for (double x = min; x <= max; x += 0.1) {
+            Assert.assertEquals(empiricalDistribution.cumulativeProbability(x),
+                                ed.cumulativeProbability(x), 1e-15);
+        }
+    }
+
+    @Test
+    public void testBuilderCombine() {
+        final int chunk = 137;
+        final EmpiricalDistribution.Builder all = EmpiricalDistribution.builder(100);
+        all.addValues(dataArray);
+
+        EmpiricalDistribution.Builder combined = EmpiricalDistribution.builder(100);
+        for (int begin = 0; begin < dataArray.length; begin += chunk) {
+            final EmpiricalDistribution.Builder part = EmpiricalDistribution.builder(100);
+            part.addValues(dataArray, begin, Math.min(chunk, dataArray.length - begin));
+            combined = part.combine(combined);
+        }
+
+        final EmpiricalDistribution expected = all.build();
+        final EmpiricalDistribution actual = combined.build();
+        Assert.assertEquals(expected.getSupportLowerBound(), actual.getSupportLowerBound(), 0);
+        Assert.assertEquals(expected.getSupportUpperBound(), actual.getSupportUpperBound(), 0);
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals(expected.getBinStats().get(i).getN(),
+                                actual.getBinStats().get(i).getN());
+        }
+        Assert.assertEquals(expected.getSampleStats().getMean(),
+                            actual.getSampleStats().getMean(), 1e-12);
+        Assert.assertEquals(expected.getSampleStats().getVariance(),
+                            actual.getSampleStats().getVariance(), 1e-12);
+    }
+
+    @Test
+    public void testBuilderParallelStream() {
+        final EmpiricalDistribution ed = Arrays.stream(dataArray).parallel()
+            .collect(() -> EmpiricalDistribution.builder(100),
+                     EmpiricalDistribution.Builder::accept,
+                     EmpiricalDistribution.Builder::combine)
+            .build();
+        final EmpiricalDistribution expected = EmpiricalDistribution.builder(100)
+            .addValues(Arrays.stream(dataArray))
+            .build();
+
+        Assert.assertEquals(dataArray.length, ed.getSampleStats().getN());
+        Assert.assertArrayEquals(expected.getUpperBounds(), ed.getUpperBounds(), 1e-15);
+    }
+
+    @Test
+    public void testBuilderAdaptiveCoverage() {
+        final int binCount = 10;
+        final double[] data = {3.5, -1.25, 7, 100, 2, 2, -30.5, 64};
+        final EmpiricalDistribution.Builder builder = EmpiricalDistribution.builder(binCount);
+        for (double v : data) {
+            builder.accept(v);
+
+            final EmpiricalDistribution ed = builder.build();
+            long count = 0;
+            for (SummaryStatistics s : ed.getBinStats()) {
+                count += s.getN();
+            }
+            Assert.assertEquals(ed.getSampleStats().getN(), count);
+            Assert.assertTrue(ed.getSupportLowerBound() <= ed.getSampleStats().getMin());
+            Assert.assertTrue(ed.getSupportUpperBound() >= ed.getSampleStats().getMax());
+            // Each value lies in the bin whose statistics it was added to.
+            final double width = (ed.getSupportUpperBound() - ed.getSupportLowerBound()) / binCount;
+            for (int i = 0; i < binCount; i++) {
+                final SummaryStatistics s = ed.getBinStats().get(i);
+                if (s.getN() != 0) {
+                    Assert.assertTrue(s.getMin() > ed.getSupportLowerBound() + i * width ||
+                                      i == 0);
+                    Assert.assertTrue(s.getMax() <= ed.getSupportLowerBound() + (i + 1) * width);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testBuilderConstantData() {
+        final EmpiricalDistribution ed = EmpiricalDistribution.builder(5)
+            .addValues(new double[] {1.5, 1.5, 1.5})
+            .build();
+        Assert.assertEquals(1.5, ed.getSupportLowerBound(), 0);
+        Assert.assertEquals(1.5, ed.getSupportUpperBound(), 0);
+        Assert.assertEquals(1.5, ed.inverseCumulativeProbability(0.5), 0);
+    }
+
+    @Test(expected=NoDataException.class)
+    public void testBuilderNoData() {
+        EmpiricalDistribution.builder(10).build();
+    }
+
+    @Test(expected=OutOfRangeException.class)
+    public void testBuilderOutOfRange() {
+        EmpiricalDistribution.builder(10, 0, 1).accept(1.5);
+    }
+
+    @Test(expected=NotFiniteNumberException.class)
+    public void testBuilderNaN() {
+        EmpiricalDistribution.builder(10).accept(Double.NaN);
+    }
+
+    @Test(expected=MathIllegalArgumentException.class)
+    public void testBuilderCombineIncompatible() {
+        EmpiricalDistribution.builder(10, 0, 1)
+            .combine(EmpiricalDistribution.builder(10, 0, 2));
+    }
 }
@@ -0,0 +1,223 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.filter;
+
+import java.util.Random;
+
+import org.apache.commons.math4.legacy.exception.DimensionMismatchException;
+import org.apache.commons.math4.legacy.exception.MathUnsupportedOperationException;
+import org.apache.commons.math4.legacy.linear.Array2DRowRealMatrix;
+import org.apache.commons.math4.legacy.linear.ArrayRealVector;
+import org.apache.commons.math4.legacy.linear.MatrixUtils;
+import org.apache.commons.math4.legacy.linear.RealMatrix;
+import org.apache.commons.math4.legacy.linear.RealVector;
+import org.apache.commons.math4.legacy.linear.SingularMatrixException;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link ExtendedKalmanFilter}.
+ */
+public class ExtendedKalmanFilterTest {
+    /** Time step. */
+    private static final double DT = 0.1;
+
+    @Test
+    public void testLinear() {
+        final DefaultProcessModel pm = SquareRootKalmanFilterTest.constantAcceleration(null);
+        final DefaultMeasurementModel mm
+            = new DefaultMeasurementModel(new double[][] { { 1, 0 } }, new double[][] { { 100 } });
+
+        final KalmanFilter expected = new KalmanFilter(pm, mm);
+        final ExtendedKalmanFilter actual = new ExtendedKalmanFilter(pm, mm);
+        Assert.assertEquals(2, actual.getStateDimension());
+        Assert.assertEquals(1, actual.getMeasurementDimension());
+        assertEquals(expected, actual, 1e-12);
+
+        final Random random = new Random(1234L);
+        final double[] u = { 0.1 };
+        double position = 0;
+        double velocity = 0;
+        for (int i = 0; i < 100; i++) {
+            expected.predict(u);
+            actual.predict(u);
+            assertEquals(expected, actual, 1e-10);
+
+            velocity += DT * u[0];
+            position += DT * velocity;
+            final double[] z = { position + 10 * random.nextGaussian() };
+            expected.correct(z);
+            actual.correct(z);
+            assertEquals(expected, actual, 1e-10);
+        }
+    }
+
+    @Test
+    public void testRanges() {
+        final ExtendedKalmanFilter filter
+            = new ExtendedKalmanFilter(new Stationary(), new Ranges());
+        filter.reset(new ArrayRealVector(new double[] { 5, 5 }),
+                     MatrixUtils.createRealIdentityMatrix(2).scalarMultiply(4));
+
+        final Random random = new Random(4321L);
+        final double[] position = { 3, 4 };
+        final double[] z = new double[2];
+        for (int i = 0; i < 100; i++) {
+            filter.predict();
+            new Ranges().measure(position, z);
+            z[0] += 0.1 * random.nextGaussian();
+            z[1] += 0.1 * random.nextGaussian();
+            filter.correct(z);
+        }
+        Assert.assertArrayEquals(position, filter.getStateEstimation(), 0.05);
+        final double[][] p = filter.getErrorCovariance();
+        Assert.assertTrue(p[0][0] > 0 && p[0][0] < 1e-3);
+        Assert.assertTrue(p[1][1] > 0 && p[1][1] < 1e-3);
+        Assert.assertEquals(p[0][1], p[1][0], 0);
+    }
+
+    @Test(expected = MathUnsupportedOperationException.class)
+    public void testMissingJacobian() {
+        final NonLinearMeasurementModel mm = new NonLinearMeasurementModel() {
+                @Override
+                public void measure(double[] state, double[] result) {
+                    result[0] = state[0] * state[0];
+                }
+
+                @Override
+                public RealMatrix getMeasurementNoise() {
+                    return MatrixUtils.createRealIdentityMatrix(1);
+                }
+            };
+        new ExtendedKalmanFilter(new Stationary(), mm).correct(new double[] { 1 });
+    }
+
+    @Test(expected = SingularMatrixException.class)
+    public void testSingularInnovation() {
+        final ExtendedKalmanFilter filter
+            = new ExtendedKalmanFilter(SquareRootKalmanFilterTest.constantAcceleration(null),
+                                       new DefaultMeasurementModel(new double[][] { { 0, 0 } },
+                                                                   new double[][] { { 0 } }));
+        filter.correct(new double[] { 1 });
+    }
+
+    @Test(expected = DimensionMismatchException.class)
+    public void testMeasurementDimension() {
+        new ExtendedKalmanFilter(SquareRootKalmanFilterTest.constantAcceleration(null),
+                                 new DefaultMeasurementModel(new double[][] { { 1, 0 } },
+                                                             new double[][] { { 1 } }))
+            .correct(new double[] { 1, 2 });
+    }
+
+    @Test(expected = DimensionMismatchException.class)
+    public void testControlDimension() {
+        new ExtendedKalmanFilter(SquareRootKalmanFilterTest.constantAcceleration(null),
+                                 new DefaultMeasurementModel(new double[][] { { 1, 0 } },
+                                                             new double[][] { { 1 } }))
+            .predict(new double[] { 1, 2 });
+    }
+
+    @Test(expected = DimensionMismatchException.class)
+    public void testInitialStateDimension() {
+        new ExtendedKalmanFilter(new Stationary(), new Ranges())
+            .reset(new ArrayRealVector(3), null);
+    }
+
+    /**
+     * @param expected Reference filter.
+     * @param actual Nonlinear filter.
+     * @param tol Relative tolerance.
+     */
+    static void assertEquals(KalmanFilter expected,
+                             AbstractNonLinearKalmanFilter actual,
+                             double tol) {
+        final double[] x = expected.getStateEstimation();
+        final double[] y = actual.getStateEstimation();
+        for (int i = 0; i < x.length; i++) {
+            Assert.assertEquals(x[i], y[i], tol * (1 + Math.abs(x[i])));
+        }
+        final double[][] p = expected.getErrorCovariance();
+        final double[][] q = actual.getErrorCovariance();
+        for (int i = 0; i < p.length; i++) {
+            for (int j = 0; j < p.length; j++) {
+                Assert.assertEquals(p[i][j], q[i][j], tol * (1 + Math.abs(p[i][j])));
+            }
+        }
+    }
+
+    /**
+     * Stationary point in the plane.
+     */
+    static class Stationary implements NonLinearProcessModel {
+        @Override
+        public void evolve(double[] state, double[] control, double[] result) {
+            System.arraycopy(state, 0, result, 0, state.length);
+        }
+
+        @Override
+        public void getJacobian(double[] state, double[] control, double[][] result) {
+            result[0][0] = 1;
+            result[0][1] = 0;
+            result[1][0] = 0;
+            result[1][1] = 1;
+        }
+
+        @Override
+        public RealMatrix getProcessNoise() {
+            return MatrixUtils.createRealIdentityMatrix(2).scalarMultiply(1e-8);
+        }
+
+        @Override
+        public RealVector getInitialStateEstimate() {
+            return null;
+        }
+
+        @Override
+        public RealMatrix getInitialErrorCovariance() {
+            return null;
+        }
+    }
+
+    /**
+     * Distances to two beacons, at (0, 0) and (10, 0).
+     */
+    static class Ranges implements NonLinearMeasurementModel {
+        /** Abscissa of the second beacon. */
+        private static final double BEACON = 10;
+
+        @Override
+        public void measure(double[] state, double[] result) {
+            result[0] = Math.hypot(state[0], state[1]);
+            result[1] = Math.hypot(state[0] - BEACON, state[1]);
+        }
+
+        @Override
+        public void getJacobian(double[] state, double[][] result) {
+            final double r0 = Math.hypot(state[0], state[1]);
+            final double r1 = Math.hypot(state[0] - BEACON, state[1]);
+            result[0][0] = state[0] / r0;
+            result[0][1] = state[1] / r0;
+            result[1][0] = (state[0] - BEACON) / r1;
+            result[1][1] = state[1] / r1;
+        }
+
+        @Override
+        public RealMatrix getMeasurementNoise() {
+            return new Array2DRowRealMatrix(new double[][] { { 0.01, 0 }, { 0, 0.01 } });
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.filter;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.commons.math4.legacy.exception.DimensionMismatchException;
+import org.apache.commons.math4.legacy.exception.NotStrictlyPositiveException;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link KalmanFilterBank}.
+ */
+public class KalmanFilterBankTest {
+
+    @Test
+    public void testMatchesIndividualFilters() {
+        final ProcessModel pm = SquareRootKalmanFilterTest.constantAcceleration(null);
+        final MeasurementModel mm
+            = new DefaultMeasurementModel(new double[][] { { 1, 0 } }, new double[][] { { 4 } });
+        final int size = 300;
+        final int steps = 20;
+
+        final Random random = new Random(97531L);
+        final double[][][] u = new double[steps][size][1];
+        final double[][][] z = new double[steps][size][];
+        for (int k = 0; k < steps; k++) {
+            for (int i = 0; i < size; i++) {
+                u[k][i][0] = random.nextDouble();
+                // Some filters have no measurement at some steps.
+                z[k][i] = random.nextInt(5) == 0 ? null : new double[] { random.nextGaussian() + 0.1 * k };
+            }
+        }
+
+        final KalmanFilterBank sequential = new KalmanFilterBank(pm, mm, size);
+        final KalmanFilterBank concurrent = new KalmanFilterBank(pm, mm, size);
+        final SquareRootKalmanFilter[] single = new SquareRootKalmanFilter[size];
+        for (int i = 0; i < size; i++) {
+            single[i] = new SquareRootKalmanFilter(pm, mm);
+        }
+        Assert.assertEquals(size, concurrent.getSize());
+
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (int k = 0; k < steps; k++) {
+                sequential.predict(u[k], null);
+                concurrent.predict(u[k], executor);
+                sequential.correct(z[k], null);
+                concurrent.correct(z[k], executor);
+                for (int i = 0; i < size; i++) {
+                    single[i].predict(u[k][i]);
+                    if (z[k][i] != null) {
+                        single[i].correct(z[k][i]);
+                    }
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        for (int i = 0; i < size; i++) {
+            final SquareRootKalmanFilter expected = single[i];
+            for (final KalmanFilterBank bank : new KalmanFilterBank[] { sequential, concurrent }) {
+                final SquareRootKalmanFilter actual = bank.getFilter(i);
+                Assert.assertArrayEquals(expected.getStateEstimation(), actual.getStateEstimation(), 0);
+                for (int j = 0; j < 2; j++) {
+                    Assert.assertArrayEquals(expected.getErrorCovarianceSquareRoot()[j],
+                                             actual.getErrorCovarianceSquareRoot()[j], 0);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testNoControl() {
+        final KalmanFilterBank bank
+            = new KalmanFilterBank(SquareRootKalmanFilterTest.constantAcceleration(null),
+                                   new DefaultMeasurementModel(new double[][] { { 1, 0 } },
+                                                               new double[][] { { 1 } }),
+                                   3);
+        bank.getFilter(1).reset(new double[] { 1, 2 }, bank.getFilter(1).getErrorCovarianceMatrix());
+        bank.predict(null, null);
+        Assert.assertArrayEquals(new double[] { 0, 0 }, bank.getFilter(0).getStateEstimation(), 0);
+        Assert.assertArrayEquals(new double[] { 1.2, 2 }, bank.getFilter(1).getStateEstimation(), 1e-15);
+    }
+
+    @Test(expected = NotStrictlyPositiveException.class)
+    public void testEmpty() {
+        new KalmanFilterBank(SquareRootKalmanFilterTest.constantAcceleration(null),
+                             new DefaultMeasurementModel(new double[][] { { 1, 0 } },
+                                                         new double[][] { { 1 } }),
+                             0);
+    }
+
+    @Test(expected = DimensionMismatchException.class)
+    public void testMeasurementCount() {
+        new KalmanFilterBank(SquareRootKalmanFilterTest.constantAcceleration(null),
+                             new DefaultMeasurementModel(new double[][] { { 1, 0 } },
+                                                         new double[][] { { 1 } }),
+                             2)
+            .correct(new double[1][], null);
+    }
+}
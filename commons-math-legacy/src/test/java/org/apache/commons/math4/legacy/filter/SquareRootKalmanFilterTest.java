@@ -0,0 +1,215 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.filter;
+
+import java.util.Random;
+
+import org.apache.commons.math4.legacy.exception.DimensionMismatchException;
+import org.apache.commons.math4.legacy.linear.Array2DRowRealMatrix;
+import org.apache.commons.math4.legacy.linear.ArrayRealVector;
+import org.apache.commons.math4.legacy.linear.MatrixDimensionMismatchException;
+import org.apache.commons.math4.legacy.linear.NonPositiveDefiniteMatrixException;
+import org.apache.commons.math4.legacy.linear.RealMatrix;
+import org.apache.commons.math4.legacy.linear.SingularMatrixException;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link SquareRootKalmanFilter}.
+ */
+public class SquareRootKalmanFilterTest {
+    /** Time step. */
+    private static final double DT = 0.1;
+
+    @Test
+    public void testConstantAcceleration() {
+        // Semi-definite initial covariance.
+        final RealMatrix p0 = new Array2DRowRealMatrix(new double[][] { { 1, 1 }, { 1, 1 } });
+        final ProcessModel pm = constantAcceleration(p0);
+        final MeasurementModel mm
+            = new DefaultMeasurementModel(new double[][] { { 1, 0 } }, new double[][] { { 100 } });
+
+        final KalmanFilter expected = new KalmanFilter(pm, mm);
+        final SquareRootKalmanFilter actual = new SquareRootKalmanFilter(pm, mm);
+        Assert.assertEquals(2, actual.getStateDimension());
+        Assert.assertEquals(1, actual.getMeasurementDimension());
+        assertEquals(expected, actual, 1e-12);
+
+        final Random random = new Random(1234L);
+        final double[] u = { 0.1 };
+        double position = 0;
+        double velocity = 0;
+        for (int i = 0; i < 100; i++) {
+            expected.predict(u);
+            actual.predict(u);
+            assertEquals(expected, actual, 1e-10);
+
+            velocity += DT * u[0];
+            position += DT * velocity;
+            final double[] z = { position + 10 * random.nextGaussian() };
+            expected.correct(z);
+            actual.correct(z);
+            assertEquals(expected, actual, 1e-10);
+        }
+    }
+
+    @Test
+    public void testCorrelatedMeasurementNoise() {
+        final ProcessModel pm = constantAcceleration(null);
+        // Position and velocity are measured, with correlated errors.
+        final MeasurementModel mm
+            = new DefaultMeasurementModel(new double[][] { { 1, 0 }, { 1, 1 } },
+                                          new double[][] { { 4, 1 }, { 1, 2 } });
+
+        final KalmanFilter expected = new KalmanFilter(pm, mm);
+        final SquareRootKalmanFilter actual = new SquareRootKalmanFilter(pm, mm);
+
+        final Random random = new Random(5678L);
+        for (int i = 0; i < 50; i++) {
+            expected.predict();
+            actual.predict();
+            final double[] z = { random.nextGaussian(), 1 + random.nextGaussian() };
+            expected.correct(z);
+            actual.correct(z);
+            assertEquals(expected, actual, 1e-10);
+        }
+    }
+
+    @Test
+    public void testPrecision() {
+        // Very precise measurements of a very uncertain state.
+        final ProcessModel pm
+            = new DefaultProcessModel(new Array2DRowRealMatrix(new double[][] { { 1, DT }, { 0, 1 } }),
+                                      null,
+                                      new Array2DRowRealMatrix(new double[][] { { 1e-20, 0 }, { 0, 1e-20 } }),
+                                      new ArrayRealVector(2),
+                                      new Array2DRowRealMatrix(new double[][] { { 1e10, 0 }, { 0, 1e10 } }));
+        final MeasurementModel mm
+            = new DefaultMeasurementModel(new double[][] { { 1, 0 } }, new double[][] { { 1e-10 } });
+        final SquareRootKalmanFilter filter = new SquareRootKalmanFilter(pm, mm);
+
+        for (int i = 0; i < 1000; i++) {
+            filter.predict();
+            filter.correct(new double[] { 1 + DT * i });
+            final double[][] s = filter.getErrorCovarianceSquareRoot();
+            final double[][] p = filter.getErrorCovariance();
+            for (int j = 0; j < 2; j++) {
+                Assert.assertTrue(s[j][j] >= 0);
+                Assert.assertTrue(p[j][j] >= 0);
+            }
+            Assert.assertEquals(0, s[0][1], 0);
+            Assert.assertTrue(p[0][0] * p[1][1] >= p[0][1] * p[0][1] * (1 - 1e-10));
+        }
+        Assert.assertEquals(1 + DT * 999, filter.getStateEstimation()[0], 1e-6);
+        Assert.assertEquals(1, filter.getStateEstimation()[1], 1e-6);
+    }
+
+    @Test
+    public void testReset() {
+        final SquareRootKalmanFilter filter
+            = new SquareRootKalmanFilter(constantAcceleration(null),
+                                         new DefaultMeasurementModel(new double[][] { { 1, 0 } },
+                                                                     new double[][] { { 1 } }));
+        filter.reset(new double[] { 3, 4 }, new Array2DRowRealMatrix(new double[][] { { 4, 2 }, { 2, 5 } }));
+        Assert.assertArrayEquals(new double[] { 3, 4 }, filter.getStateEstimation(), 0);
+        Assert.assertArrayEquals(new double[] { 4, 2 }, filter.getErrorCovariance()[0], 1e-15);
+        Assert.assertArrayEquals(new double[] { 2, 5 }, filter.getErrorCovariance()[1], 1e-15);
+        Assert.assertArrayEquals(new double[] { 2, 0 }, filter.getErrorCovarianceSquareRoot()[0], 1e-15);
+        Assert.assertArrayEquals(new double[] { 1, 2 }, filter.getErrorCovarianceSquareRoot()[1], 1e-15);
+
+        filter.reset(null, new Array2DRowRealMatrix(2, 2));
+        Assert.assertArrayEquals(new double[] { 0, 0 }, filter.getStateEstimation(), 0);
+    }
+
+    @Test(expected = NonPositiveDefiniteMatrixException.class)
+    public void testResetNotPositive() {
+        final SquareRootKalmanFilter filter
+            = new SquareRootKalmanFilter(constantAcceleration(null),
+                                         new DefaultMeasurementModel(new double[][] { { 1, 0 } },
+                                                                     new double[][] { { 1 } }));
+        filter.reset(null, new Array2DRowRealMatrix(new double[][] { { 1, 2 }, { 2, 1 } }));
+    }
+
+    @Test(expected = SingularMatrixException.class)
+    public void testSingularMeasurementNoise() {
+        final SquareRootKalmanFilter filter
+            = new SquareRootKalmanFilter(constantAcceleration(null),
+                                         new DefaultMeasurementModel(new double[][] { { 1, 0 } },
+                                                                     new double[][] { { 0 } }));
+        filter.correct(new double[] { 1 });
+    }
+
+    @Test(expected = MatrixDimensionMismatchException.class)
+    public void testTransitionMeasurementMatrixMismatch() {
+        new SquareRootKalmanFilter(constantAcceleration(null),
+                                   new DefaultMeasurementModel(new double[][] { { 1, 0, 0 } },
+                                                               new double[][] { { 1 } }));
+    }
+
+    @Test(expected = DimensionMismatchException.class)
+    public void testMeasurementDimension() {
+        new SquareRootKalmanFilter(constantAcceleration(null),
+                                   new DefaultMeasurementModel(new double[][] { { 1, 0 } },
+                                                               new double[][] { { 1 } }))
+            .correct(new double[] { 1, 2 });
+    }
+
+    @Test(expected = DimensionMismatchException.class)
+    public void testControlDimension() {
+        new SquareRootKalmanFilter(constantAcceleration(null),
+                                   new DefaultMeasurementModel(new double[][] { { 1, 0 } },
+                                                               new double[][] { { 1 } }))
+            .predict(new double[] { 1, 2 });
+    }
+
+    /**
+     * @param p0 Initial error covariance (may be {@code null}).
+     * @return the model of a vehicle driven by its acceleration.
+     */
+    static DefaultProcessModel constantAcceleration(RealMatrix p0) {
+        final RealMatrix a = new Array2DRowRealMatrix(new double[][] { { 1, DT }, { 0, 1 } });
+        final RealMatrix b = new Array2DRowRealMatrix(new double[][] { { DT * DT / 2 }, { DT } });
+        final double accelNoise = 0.2;
+        final RealMatrix q = new Array2DRowRealMatrix(new double[][] {
+                { DT * DT * DT * DT / 4, DT * DT * DT / 2 },
+                { DT * DT * DT / 2, DT * DT }
+            }).scalarMultiply(accelNoise * accelNoise);
+        return new DefaultProcessModel(a, b, q, new ArrayRealVector(2), p0);
+    }
+
+    /**
+     * @param expected Reference filter.
+     * @param actual Square-root filter.
+     * @param tol Relative tolerance.
+     */
+    private static void assertEquals(KalmanFilter expected,
+                                     SquareRootKalmanFilter actual,
+                                     double tol) {
+        final double[] x = expected.getStateEstimation();
+        final double[] y = actual.getStateEstimation();
+        for (int i = 0; i < x.length; i++) {
+            Assert.assertEquals(x[i], y[i], tol * (1 + Math.abs(x[i])));
+        }
+        final double[][] p = expected.getErrorCovariance();
+        final double[][] q = actual.getErrorCovariance();
+        for (int i = 0; i < p.length; i++) {
+            for (int j = 0; j < p.length; j++) {
+                Assert.assertEquals(p[i][j], q[i][j], tol * (1 + Math.abs(p[i][j])));
+            }
+        }
+    }
+}
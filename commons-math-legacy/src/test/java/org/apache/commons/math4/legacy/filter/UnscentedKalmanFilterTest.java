@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.filter;
+
+import java.util.Random;
+
+import org.apache.commons.math4.legacy.exception.DimensionMismatchException;
+import org.apache.commons.math4.legacy.exception.NotStrictlyPositiveException;
+import org.apache.commons.math4.legacy.linear.ArrayRealVector;
+import org.apache.commons.math4.legacy.linear.MatrixUtils;
+import org.apache.commons.math4.legacy.linear.RealMatrix;
+import org.apache.commons.math4.legacy.linear.RealVector;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link UnscentedKalmanFilter}.
+ */
+public class UnscentedKalmanFilterTest {
+    /** Time step. */
+    private static final double DT = 0.1;
+
+    @Test
+    public void testLinear() {
+        // The unscented transform is exact for linear models.
+        final DefaultProcessModel pm = SquareRootKalmanFilterTest.constantAcceleration(null);
+        final DefaultMeasurementModel mm
+            = new DefaultMeasurementModel(new double[][] { { 1, 0 } }, new double[][] { { 100 } });
+
+        final KalmanFilter expected = new KalmanFilter(pm, mm);
+        final UnscentedKalmanFilter actual = new UnscentedKalmanFilter(pm, mm, 0.5, 2, 1);
+        Assert.assertEquals(2, actual.getStateDimension());
+        Assert.assertEquals(1, actual.getMeasurementDimension());
+
+        final Random random = new Random(1234L);
+        final double[] u = { 0.1 };
+        double position = 0;
+        double velocity = 0;
+        for (int i = 0; i < 100; i++) {
+            expected.predict(u);
+            actual.predict(u);
+            ExtendedKalmanFilterTest.assertEquals(expected, actual, 1e-10);
+
+            velocity += DT * u[0];
+            position += DT * velocity;
+            final double[] z = { position + 10 * random.nextGaussian() };
+            expected.correct(z);
+            actual.correct(z);
+            ExtendedKalmanFilterTest.assertEquals(expected, actual, 1e-10);
+        }
+    }
+
+    @Test
+    public void testRanges() {
+        final UnscentedKalmanFilter filter
+            = new UnscentedKalmanFilter(new ExtendedKalmanFilterTest.Stationary(),
+                                        new ExtendedKalmanFilterTest.Ranges());
+        filter.reset(new ArrayRealVector(new double[] { 5, 5 }),
+                     MatrixUtils.createRealIdentityMatrix(2).scalarMultiply(4));
+
+        final Random random = new Random(4321L);
+        final double[] position = { 3, 4 };
+        final double[] z = new double[2];
+        for (int i = 0; i < 100; i++) {
+            filter.predict();
+            new ExtendedKalmanFilterTest.Ranges().measure(position, z);
+            z[0] += 0.1 * random.nextGaussian();
+            z[1] += 0.1 * random.nextGaussian();
+            filter.correct(z);
+        }
+        Assert.assertArrayEquals(position, filter.getStateEstimation(), 0.05);
+        final double[][] p = filter.getErrorCovariance();
+        Assert.assertTrue(p[0][0] > 0 && p[0][0] < 1e-3);
+        Assert.assertTrue(p[1][1] > 0 && p[1][1] < 1e-3);
+    }
+
+    @Test
+    public void testPendulum() {
+        // Angle and angular velocity; only the horizontal position of the
+        // bob is measured.  No Jacobian is provided.
+        final double g = 9.81;
+        final NonLinearProcessModel pm = new NonLinearProcessModel() {
+                @Override
+                public void evolve(double[] state, double[] control, double[] result) {
+                    result[1] = state[1] - DT * g * Math.sin(state[0]);
+                    result[0] = state[0] + DT * result[1];
+                }
+
+                @Override
+                public RealMatrix getProcessNoise() {
+                    return MatrixUtils.createRealIdentityMatrix(2).scalarMultiply(1e-6);
+                }
+
+                @Override
+                public RealVector getInitialStateEstimate() {
+                    return new ArrayRealVector(new double[] { 0.5, 0 });
+                }
+
+                @Override
+                public RealMatrix getInitialErrorCovariance() {
+                    return MatrixUtils.createRealIdentityMatrix(2).scalarMultiply(0.1);
+                }
+            };
+        final NonLinearMeasurementModel mm = new NonLinearMeasurementModel() {
+                @Override
+                public void measure(double[] state, double[] result) {
+                    result[0] = Math.sin(state[0]);
+                }
+
+                @Override
+                public RealMatrix getMeasurementNoise() {
+                    return MatrixUtils.createRealIdentityMatrix(1).scalarMultiply(1e-4);
+                }
+            };
+        final UnscentedKalmanFilter filter = new UnscentedKalmanFilter(pm, mm);
+
+        final Random random = new Random(2468L);
+        double[] truth = { 0.8, 0 };
+        final double[] next = new double[2];
+        final double[] z = new double[1];
+        for (int i = 0; i < 200; i++) {
+            pm.evolve(truth, null, next);
+            truth = next.clone();
+            filter.predict();
+            mm.measure(truth, z);
+            z[0] += 0.01 * random.nextGaussian();
+            filter.correct(z);
+        }
+        Assert.assertArrayEquals(truth, filter.getStateEstimation(), 0.05);
+    }
+
+    @Test(expected = NotStrictlyPositiveException.class)
+    public void testAlpha() {
+        new UnscentedKalmanFilter(new ExtendedKalmanFilterTest.Stationary(),
+                                  new ExtendedKalmanFilterTest.Ranges(),
+                                  0, 2, 0);
+    }
+
+    @Test(expected = NotStrictlyPositiveException.class)
+    public void testKappa() {
+        new UnscentedKalmanFilter(new ExtendedKalmanFilterTest.Stationary(),
+                                  new ExtendedKalmanFilterTest.Ranges(),
+                                  1, 2, -2);
+    }
+
+    @Test(expected = DimensionMismatchException.class)
+    public void testMeasurementDimension() {
+        new UnscentedKalmanFilter(new ExtendedKalmanFilterTest.Stationary(),
+                                  new ExtendedKalmanFilterTest.Ranges())
+            .correct(new double[] { 1 });
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.fitting;
+
+import java.util.Random;
+
+import org.apache.commons.math4.legacy.analysis.function.Gaussian;
+import org.apache.commons.math4.legacy.analysis.function.HarmonicOscillator;
+import org.apache.commons.math4.legacy.analysis.polynomials.PolynomialFunction;
+import org.apache.commons.math4.legacy.exception.DimensionMismatchException;
+import org.apache.commons.math4.legacy.exception.TooManyIterationsException;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test for class {@link CurveFittingSession}.
+ */
+public class CurveFittingSessionTest {
+    @Test
+    public void testPolynomial() {
+        final Random random = new Random(1234L);
+        final PolynomialFunction f = new PolynomialFunction(new double[] { 12.9, -3.4, 2.1 });
+        final int n = 50;
+        final double[] x = new double[n];
+        final double[] y = new double[n];
+        final double[] w = new double[n];
+        final WeightedObservedPoints obs = new WeightedObservedPoints();
+        for (int i = 0; i < n; i++) {
+            x[i] = 20 * random.nextDouble() - 10;
+            y[i] = f.value(x[i]) + random.nextGaussian();
+            w[i] = 0.5 + random.nextDouble();
+            obs.add(w[i], x[i], y[i]);
+        }
+
+        final PolynomialCurveFitter fitter = PolynomialCurveFitter.create(2);
+        final double[] expected = fitter.fit(obs.toList());
+        final double[] actual = fitter.newSession(false).fit(x, y, w);
+        Assert.assertArrayEquals(expected, actual, 1e-10);
+    }
+
+    @Test
+    public void testGaussianWithGuesser() {
+        final Random random = new Random(5678L);
+        final Gaussian g = new Gaussian(3.4, 1.5, 0.7);
+        final int n = 40;
+        final double[] x = new double[n];
+        final double[] y = new double[n];
+        final WeightedObservedPoints obs = new WeightedObservedPoints();
+        for (int i = 0; i < n; i++) {
+            x[i] = -1 + 0.1 * i;
+            y[i] = g.value(x[i]) + 0.01 * random.nextGaussian();
+            obs.add(x[i], y[i]);
+        }
+
+        final GaussianCurveFitter fitter = GaussianCurveFitter.create();
+        final double[] expected = fitter.fit(obs.toList());
+        final double[] actual = fitter.newSession(false).fit(x, y, null);
+        Assert.assertArrayEquals(expected, actual, 1e-8);
+    }
+
+    @Test
+    public void testHarmonic() {
+        final HarmonicOscillator h = new HarmonicOscillator(0.2, 3.4, 0.1);
+        final int n = 60;
+        final double[] x = new double[n];
+        final double[] y = new double[n];
+        final WeightedObservedPoints obs = new WeightedObservedPoints();
+        for (int i = 0; i < n; i++) {
+            x[i] = 0.05 * i;
+            y[i] = h.value(x[i]);
+            obs.add(x[i], y[i]);
+        }
+
+        final HarmonicCurveFitter fitter = HarmonicCurveFitter.create();
+        final double[] expected = fitter.fit(obs.toList());
+        final double[] actual = fitter.newSession(false).fit(x, y, null);
+        Assert.assertArrayEquals(expected, actual, 1e-8);
+        Assert.assertEquals(0.2, actual[0], 1e-12);
+        Assert.assertEquals(3.4, actual[1], 1e-12);
+    }
+
+    @Test
+    public void testReuse() {
+        final GaussianCurveFitter fitter = GaussianCurveFitter.create();
+        final CurveFittingSession session = fitter.newSession(false);
+        final double[] x = new double[100];
+        final double[] y = new double[100];
+
+        // Samples of decreasing sizes, in the same (oversized) arrays.
+        for (int n = 100; n >= 20; n -= 40) {
+            final Gaussian g = new Gaussian(1 + n, 0.01 * n, 0.5);
+            for (int i = 0; i < n; i++) {
+                x[i] = 3.0 * i / n;
+                y[i] = g.value(x[i]);
+            }
+            final double[] expected = fitter.newSession(false).fit(x.clone(), y.clone(), null, n);
+            final double[] actual = session.fit(x, y, null, n);
+            Assert.assertArrayEquals(expected, actual, 0);
+            Assert.assertEquals(1 + n, actual[0], 1e-8);
+            Assert.assertEquals(0.01 * n, actual[1], 1e-8);
+            Assert.assertEquals(0.5, actual[2], 1e-8);
+        }
+    }
+
+    @Test
+    public void testWarmStart() {
+        final SimpleCurveFitter fitter = GaussianCurveFitter.create().withStartPoint(new double[] { 1, 0, 1 });
+        final CurveFittingSession cold = fitter.newSession(false);
+        final CurveFittingSession warm = fitter.newSession(true);
+        final int n = 50;
+        final double[] x = new double[n];
+        final double[] y = new double[n];
+        int coldIterations = 0;
+        int warmIterations = 0;
+        for (int k = 0; k < 20; k++) {
+            // Slowly drifting curve.
+            final Gaussian g = new Gaussian(2 + 0.01 * k, 0.5 + 0.01 * k, 0.8);
+            for (int i = 0; i < n; i++) {
+                x[i] = -2 + 0.1 * i;
+                y[i] = g.value(x[i]);
+            }
+            final double[] c = cold.fit(x, y, null).clone();
+            coldIterations += cold.getIterations();
+            final double[] w = warm.fit(x, y, null);
+            warmIterations += warm.getIterations();
+            Assert.assertArrayEquals(c, w, 1e-8);
+        }
+        Assert.assertTrue(warmIterations < coldIterations);
+
+        // After a reset, the fit starts from the initial guess again.
+        warm.reset();
+        warm.fit(x, y, null);
+        Assert.assertEquals(cold.getIterations(), warm.getIterations());
+    }
+
+    @Test(expected = TooManyIterationsException.class)
+    public void testMaxIterations() {
+        final double[] x = { 0, 1, 2, 3, 4 };
+        final double[] y = { 1, 3, 2, 5, 4 };
+        GaussianCurveFitter.create().withStartPoint(new double[] { 1, 10, 1 }).withMaxIterations(1)
+            .newSession(false).fit(x, y, null);
+    }
+
+    @Test(expected = DimensionMismatchException.class)
+    public void testLengthMismatch() {
+        PolynomialCurveFitter.create(1).newSession(false).fit(new double[3], new double[2], null);
+    }
+
+    @Test(expected = DimensionMismatchException.class)
+    public void testWeightsLengthMismatch() {
+        PolynomialCurveFitter.create(1).newSession(false).fit(new double[3], new double[3], new double[2]);
+    }
+}
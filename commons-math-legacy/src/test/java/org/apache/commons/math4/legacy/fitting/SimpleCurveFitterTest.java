@@ -17,6 +17,8 @@
 package org.apache.commons.math4.legacy.fitting;
 
 import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.apache.commons.math4.legacy.TestUtils;
 import org.apache.commons.math4.legacy.analysis.ParametricUnivariateFunction;
@@ -24,6 +26,7 @@ import org.apache.commons.math4.legacy.analysis.polynomials.PolynomialFunction;
 import org.apache.commons.statistics.distribution.ContinuousDistribution;
 import org.apache.commons.statistics.distribution.UniformContinuousDistribution;
 import org.apache.commons.rng.simple.RandomSource;
+import org.junit.Assert;
 import org.junit.Test;
 
 /**
@@ -55,4 +58,42 @@ public class SimpleCurveFitterTest {
 
         TestUtils.assertEquals("best != coeff", coeff, best, 2e-2);
     }
+
+    @Test
+    public void testBatchFit() {
+        final Random random = new Random(3579L);
+        final int count = 150;
+        final double[][] x = new double[count][];
+        final double[][] y = new double[count][];
+        for (int k = 0; k < count; k++) {
+            final int n = 10 + random.nextInt(20);
+            final PolynomialFunction f
+                = new PolynomialFunction(new double[] { random.nextDouble(), random.nextDouble() });
+            x[k] = new double[n];
+            y[k] = new double[n];
+            for (int i = 0; i < n; i++) {
+                x[k][i] = random.nextDouble();
+                y[k][i] = f.value(x[k][i]) + 0.01 * random.nextGaussian();
+            }
+        }
+
+        final SimpleCurveFitter fitter
+            = SimpleCurveFitter.create(new PolynomialFunction.Parametric(), new double[2]);
+        final double[][] expected = fitter.fit(x, y, null, null);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final double[][] actual = fitter.fit(x, y, null, executor);
+            for (int k = 0; k < count; k++) {
+                Assert.assertArrayEquals(expected[k], actual[k], 0);
+
+                final WeightedObservedPoints obs = new WeightedObservedPoints();
+                for (int i = 0; i < x[k].length; i++) {
+                    obs.add(x[k][i], y[k][i]);
+                }
+                Assert.assertArrayEquals(fitter.fit(obs.toList()), actual[k], 1e-8);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
 }
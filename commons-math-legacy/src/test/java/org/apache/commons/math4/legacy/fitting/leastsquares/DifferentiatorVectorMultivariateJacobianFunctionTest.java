@@ -16,8 +16,14 @@
  */
 package org.apache.commons.math4.legacy.fitting.leastsquares;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.commons.math4.legacy.analysis.MultivariateVectorFunction;
 import org.apache.commons.math4.legacy.analysis.differentiation.FiniteDifferencesDifferentiator;
 import org.apache.commons.math4.legacy.analysis.differentiation.UnivariateVectorFunctionDifferentiator;
+import org.apache.commons.math4.legacy.core.Pair;
+import org.apache.commons.math4.legacy.linear.ArrayRealVector;
 import org.apache.commons.math4.legacy.linear.DiagonalMatrix;
 import org.apache.commons.math4.legacy.linear.RealMatrix;
 import org.apache.commons.math4.legacy.linear.RealVector;
@@ -103,6 +109,31 @@ public class DifferentiatorVectorMultivariateJacobianFunctionTest {
         Assert.assertEquals(analyticalOptimum.getReducedChiSquare(automaticOptimum.getPoint().getDimension()), automaticOptimum.getReducedChiSquare(automaticOptimum.getPoint().getDimension()), tol);
     }
 
+    @Test
+    public void testConcurrentColumns() {
+        final BevingtonProblem problem = new BevingtonProblem();
+        for (int i = 0; i < 30; i++) {
+            problem.addPoint(15 * (i + 1), 100);
+        }
+        final MultivariateVectorFunction f = problem.getModelFunction();
+        final RealVector point = new ArrayRealVector(new double[] {10, 900, 80, 27, 225});
+
+        final Pair<RealVector, RealMatrix> expected
+            = new DifferentiatorVectorMultivariateJacobianFunction(f, differentiator).value(point);
+        final ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            final Pair<RealVector, RealMatrix> actual
+                = new DifferentiatorVectorMultivariateJacobianFunction(f, differentiator, executor).value(point);
+
+            Assert.assertArrayEquals(expected.getFirst().toArray(), actual.getFirst().toArray(), 0);
+            for (int i = 0; i < expected.getSecond().getRowDimension(); i++) {
+                Assert.assertArrayEquals(expected.getSecond().getRow(i), actual.getSecond().getRow(i), 0);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     /**
      * Build the problem and return the optimum, doesn't actually test the results.
      *
@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.fitting.leastsquares;
+
+import java.util.Arrays;
+
+import org.apache.commons.math4.legacy.linear.Array2DRowRealMatrix;
+import org.apache.commons.math4.legacy.linear.ArrayRealVector;
+import org.apache.commons.math4.legacy.linear.QRDecomposition;
+import org.apache.commons.math4.legacy.linear.RealMatrix;
+import org.apache.commons.math4.legacy.linear.RealVector;
+import org.apache.commons.rng.UniformRandomProvider;
+import org.apache.commons.rng.simple.RandomSource;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link LSMR}.
+ */
+public class LSMRTest {
+
+    @Test
+    public void testLeastSquares() {
+        final UniformRandomProvider rng = RandomSource.XO_RO_SHI_RO_128_PP.create(9876L);
+        final int rows = 40;
+        final int columns = 8;
+        final RealMatrix a = SparseJacobianTest.randomSparseMatrix(rng, rows, columns)
+            .add(identityBlock(rows, columns));
+        final RealVector b = SparseJacobianTest.randomVector(rng, rows);
+        final double[] scale = unitScale(columns);
+
+        final LSMR lsmr = new LSMR(rows, columns);
+        final double[] x = lsmr.solve(SparseJacobian.of(a), scale, b.toArray(), 0, 1e-12, 100);
+
+        final RealVector expected = new QRDecomposition(a).getSolver().solve(b);
+        Assert.assertArrayEquals(expected.toArray(), x, 1e-10);
+        Assert.assertTrue(lsmr.getIterations() <= 2 * columns);
+    }
+
+    @Test
+    public void testScaledDamped() {
+        final UniformRandomProvider rng = RandomSource.XO_RO_SHI_RO_128_PP.create(1111L);
+        final int rows = 25;
+        final int columns = 6;
+        final double damp = 0.7;
+        final RealMatrix a = SparseJacobianTest.randomSparseMatrix(rng, rows, columns)
+            .add(identityBlock(rows, columns));
+        final RealVector b = SparseJacobianTest.randomVector(rng, rows);
+        final double[] scale = new double[columns];
+        for (int j = 0; j < columns; j++) {
+            scale[j] = 0.5 + rng.nextDouble();
+        }
+
+        final LSMR lsmr = new LSMR(rows, columns);
+        final double[] x = lsmr.solve(SparseJacobian.of(a), scale, b.toArray(), damp, 1e-12, 100);
+
+        // Solution of the augmented problem [A S; damp I] x = [b; 0].
+        final RealMatrix augmented = new Array2DRowRealMatrix(rows + columns, columns);
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < columns; j++) {
+                augmented.setEntry(i, j, a.getEntry(i, j) * scale[j]);
+            }
+        }
+        for (int j = 0; j < columns; j++) {
+            augmented.setEntry(rows + j, j, damp);
+        }
+        final RealVector rhs = new ArrayRealVector(rows + columns);
+        rhs.setSubVector(0, b);
+        final RealVector expected = new QRDecomposition(augmented).getSolver().solve(rhs);
+        Assert.assertArrayEquals(expected.toArray(), x, 1e-10);
+    }
+
+    @Test
+    public void testZeroRightHandSide() {
+        final RealMatrix a = new Array2DRowRealMatrix(new double[][] {
+                { 1, 2 },
+                { 3, 4 },
+                { 5, 6 },
+        });
+        final LSMR lsmr = new LSMR(3, 2);
+        final double[] x = lsmr.solve(SparseJacobian.of(a), unitScale(2), new double[3], 0, 1e-12, 10);
+        Assert.assertArrayEquals(new double[2], x, 0);
+        Assert.assertEquals(0, lsmr.getIterations());
+    }
+
+    @Test
+    public void testReuse() {
+        final RealMatrix a = new Array2DRowRealMatrix(new double[][] {
+                { 2, 0 },
+                { 0, 4 },
+        });
+        final SparseJacobian j = SparseJacobian.of(a);
+        final LSMR lsmr = new LSMR(2, 2);
+        Assert.assertArrayEquals(new double[] { 0.5, 0.25 },
+                                 lsmr.solve(j, unitScale(2), new double[] { 1, 1 }, 0, 1e-14, 10), 1e-14);
+        Assert.assertArrayEquals(new double[] { 1, 0.5 },
+                                 lsmr.solve(j, unitScale(2), new double[] { 2, 2 }, 0, 1e-14, 10), 1e-14);
+    }
+
+    /**
+     * @param rows Number of rows.
+     * @param columns Number of columns.
+     * @return a matrix whose upper square block is the identity.
+     */
+    private static RealMatrix identityBlock(int rows,
+                                           int columns) {
+        final RealMatrix m = new Array2DRowRealMatrix(rows, columns);
+        for (int j = 0; j < columns; j++) {
+            m.setEntry(j, j, 1);
+        }
+        return m;
+    }
+
+    /**
+     * @param n Dimension.
+     * @return an array filled with 1.
+     */
+    private static double[] unitScale(int n) {
+        final double[] s = new double[n];
+        Arrays.fill(s, 1);
+        return s;
+    }
+}
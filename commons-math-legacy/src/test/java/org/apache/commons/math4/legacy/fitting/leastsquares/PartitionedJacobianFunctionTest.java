@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.fitting.leastsquares;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.commons.math4.legacy.core.Pair;
+import org.apache.commons.math4.legacy.fitting.leastsquares.LeastSquaresOptimizer.Optimum;
+import org.apache.commons.math4.legacy.linear.ArrayRealVector;
+import org.apache.commons.math4.legacy.linear.RealMatrix;
+import org.apache.commons.math4.legacy.linear.RealVector;
+import org.apache.commons.math4.core.jdkmath.JdkMath;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link PartitionedJacobianFunction} and
+ * {@link LeastSquaresFactory#model(PartitionedJacobianFunction,ExecutorService)}.
+ */
+public class PartitionedJacobianFunctionTest {
+    /** Number of observations in each block. */
+    private static final int[] SIZES = { 7, 1, 12, 5, 9 };
+    /** Parameters used to generate the observations. */
+    private static final double[] PARAMETERS = { 3.5, 0.4, 0.25 };
+
+    @Test
+    public void testValueAndJacobian() {
+        final DecayModel partitioned = new DecayModel();
+        final MultivariateJacobianFunction model = LeastSquaresFactory.model(partitioned, null);
+        final RealVector point = new ArrayRealVector(new double[] { 1.2, 0.3, 0.5 });
+        final Pair<RealVector, RealMatrix> value = model.value(point);
+
+        Assert.assertEquals(partitioned.size(), value.getFirst().getDimension());
+        Assert.assertEquals(partitioned.size(), value.getSecond().getRowDimension());
+        Assert.assertEquals(3, value.getSecond().getColumnDimension());
+        int row = 0;
+        for (int k = 0; k < SIZES.length; k++) {
+            for (int i = 0; i < SIZES[k]; i++) {
+                final double t = partitioned.time(k, i);
+                final double e = JdkMath.exp(-0.3 * t);
+                Assert.assertEquals(1.2 * e + 0.5 * k, value.getFirst().getEntry(row), 1e-15);
+                Assert.assertArrayEquals(new double[] { e, -1.2 * t * e, k },
+                                         value.getSecond().getRow(row), 1e-15);
+                ++row;
+            }
+        }
+    }
+
+    @Test
+    public void testConcurrentEvaluation() {
+        final ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            final RealVector point = new ArrayRealVector(new double[] { 1.2, 0.3, 0.5 });
+            final Pair<RealVector, RealMatrix> expected
+                = LeastSquaresFactory.model(new DecayModel(), null).value(point);
+            final Pair<RealVector, RealMatrix> actual
+                = LeastSquaresFactory.model(new DecayModel(), executor).value(point);
+
+            Assert.assertArrayEquals(expected.getFirst().toArray(), actual.getFirst().toArray(), 0);
+            for (int i = 0; i < expected.getSecond().getRowDimension(); i++) {
+                Assert.assertArrayEquals(expected.getSecond().getRow(i),
+                                         actual.getSecond().getRow(i), 0);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testFit() {
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final DecayModel partitioned = new DecayModel();
+            final double[] observed = LeastSquaresFactory.model(partitioned, null)
+                .value(new ArrayRealVector(PARAMETERS)).getFirst().toArray();
+
+            final Optimum optimum = new LevenbergMarquardtOptimizer().optimize(
+                    new LeastSquaresBuilder()
+                    .model(LeastSquaresFactory.model(partitioned, executor))
+                    .target(observed)
+                    .start(new double[] { 1, 1, 1 })
+                    .maxEvaluations(100)
+                    .maxIterations(100)
+                    .build());
+
+            Assert.assertArrayEquals(PARAMETERS, optimum.getPoint().toArray(), 1e-10);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Model "a exp(-b t) + c k" where {@code k} is the block index.
+     */
+    private static class DecayModel implements PartitionedJacobianFunction {
+        @Override
+        public int getBlockCount() {
+            return SIZES.length;
+        }
+
+        @Override
+        public int getBlockSize(int block) {
+            return SIZES[block];
+        }
+
+        @Override
+        public void value(int block,
+                          double[] point,
+                          int offset,
+                          double[] values,
+                          double[][] jacobian) {
+            for (int i = 0; i < SIZES[block]; i++) {
+                final double t = time(block, i);
+                final double e = JdkMath.exp(-point[1] * t);
+                values[offset + i] = point[0] * e + point[2] * block;
+                jacobian[offset + i][0] = e;
+                jacobian[offset + i][1] = -point[0] * t * e;
+                jacobian[offset + i][2] = block;
+            }
+        }
+
+        /**
+         * @param block Block index.
+         * @param i Index of the observation within the block.
+         * @return the abscissa of the observation.
+         */
+        double time(int block,
+                    int i) {
+            return 0.5 * i + 0.1 * block;
+        }
+
+        /**
+         * @return the number of observations.
+         */
+        int size() {
+            int n = 0;
+            for (final int s : SIZES) {
+                n += s;
+            }
+            return n;
+        }
+    }
+}
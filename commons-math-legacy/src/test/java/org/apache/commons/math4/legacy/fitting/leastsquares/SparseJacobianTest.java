@@ -0,0 +1,203 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.fitting.leastsquares;
+
+import org.apache.commons.math4.legacy.exception.DimensionMismatchException;
+import org.apache.commons.math4.legacy.exception.NonMonotonicSequenceException;
+import org.apache.commons.math4.legacy.exception.OutOfRangeException;
+import org.apache.commons.math4.legacy.linear.Array2DRowRealMatrix;
+import org.apache.commons.math4.legacy.linear.ArrayRealVector;
+import org.apache.commons.math4.legacy.linear.RealMatrix;
+import org.apache.commons.math4.legacy.linear.RealVector;
+import org.apache.commons.rng.UniformRandomProvider;
+import org.apache.commons.rng.simple.RandomSource;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link SparseJacobian}.
+ */
+public class SparseJacobianTest {
+
+    @Test
+    public void testBuilder() {
+        final UniformRandomProvider rng = RandomSource.XO_RO_SHI_RO_128_PP.create(1234L);
+        final int rows = 20;
+        final int columns = 10;
+        final double[][] dense = new double[rows][columns];
+        // Entries are added in random row order.
+        final SparseJacobian.Builder builder = new SparseJacobian.Builder(rows, columns);
+        int count = 0;
+        for (int k = 0; k < 60; k++) {
+            final int i = rng.nextInt(rows);
+            final int j = rng.nextInt(columns);
+            final double v = rng.nextDouble() - 0.5;
+            dense[i][j] += v;
+            builder.add(i, j, v);
+            ++count;
+        }
+        final SparseJacobian jacobian = builder.build();
+
+        Assert.assertEquals(rows, jacobian.getRowDimension());
+        Assert.assertEquals(columns, jacobian.getColumnDimension());
+        Assert.assertEquals(count, jacobian.getEntryCount());
+        assertEquals(new Array2DRowRealMatrix(dense), jacobian.toRealMatrix(), 1e-15);
+    }
+
+    @Test
+    public void testOperate() {
+        final UniformRandomProvider rng = RandomSource.XO_RO_SHI_RO_128_PP.create(5678L);
+        final RealMatrix dense = randomSparseMatrix(rng, 15, 7);
+        final SparseJacobian jacobian = SparseJacobian.of(dense);
+
+        final RealVector x = randomVector(rng, 7);
+        final RealVector y = randomVector(rng, 15);
+        assertEquals(dense.operate(x), jacobian.operate(x), 1e-14);
+        assertEquals(dense.preMultiply(y), jacobian.operateTranspose(y), 1e-14);
+        Assert.assertTrue(jacobian.isTransposable());
+    }
+
+    @Test
+    public void testOf() {
+        final RealMatrix dense = new Array2DRowRealMatrix(new double[][] {
+                { 1, 0, 2 },
+                { 0, 0, 0 },
+                { 0, 3, 0 },
+        });
+        final SparseJacobian jacobian = SparseJacobian.of(dense);
+        Assert.assertEquals(3, jacobian.getEntryCount());
+        assertEquals(dense, jacobian.toRealMatrix(), 0);
+    }
+
+    @Test
+    public void testDuplicateEntries() {
+        final SparseJacobian jacobian = new SparseJacobian.Builder(2, 2)
+            .add(0, 0, 1)
+            .add(1, 1, 4)
+            .add(0, 0, 2)
+            .build();
+        Assert.assertEquals(3, jacobian.getEntryCount());
+        Assert.assertEquals(3, jacobian.toRealMatrix().getEntry(0, 0), 0);
+
+        final double[] norms = new double[2];
+        jacobian.columnNorms(norms);
+        Assert.assertEquals(3, norms[0], 0);
+        Assert.assertEquals(4, norms[1], 0);
+    }
+
+    @Test
+    public void testColumnNorms() {
+        final UniformRandomProvider rng = RandomSource.XO_RO_SHI_RO_128_PP.create(42L);
+        final RealMatrix dense = randomSparseMatrix(rng, 12, 5);
+        final double[] norms = new double[5];
+        SparseJacobian.of(dense).columnNorms(norms);
+        for (int j = 0; j < 5; j++) {
+            Assert.assertEquals(dense.getColumnVector(j).getNorm(), norms[j], 1e-15);
+        }
+    }
+
+    @Test
+    public void testScaleRows() {
+        final RealMatrix dense = new Array2DRowRealMatrix(new double[][] {
+                { 1, 2 },
+                { 3, 0 },
+        });
+        final SparseJacobian jacobian = SparseJacobian.of(dense);
+        final SparseJacobian scaled = jacobian.scaleRows(new double[] { 2, -1 });
+        assertEquals(new Array2DRowRealMatrix(new double[][] {
+                    { 2, 4 },
+                    { -3, 0 },
+                }), scaled.toRealMatrix(), 0);
+        // The original matrix is not modified.
+        assertEquals(dense, jacobian.toRealMatrix(), 0);
+    }
+
+    @Test(expected = OutOfRangeException.class)
+    public void testBuilderRowOutOfRange() {
+        new SparseJacobian.Builder(2, 2).add(2, 0, 1);
+    }
+
+    @Test(expected = OutOfRangeException.class)
+    public void testBuilderColumnOutOfRange() {
+        new SparseJacobian.Builder(2, 2).add(0, -1, 1);
+    }
+
+    @Test(expected = DimensionMismatchException.class)
+    public void testRowStartLength() {
+        new SparseJacobian(2, 2, new int[] { 0, 1 }, new int[] { 0 }, new double[] { 1 });
+    }
+
+    @Test(expected = NonMonotonicSequenceException.class)
+    public void testRowStartNonMonotonic() {
+        new SparseJacobian(2, 2, new int[] { 0, 3, 2 }, new int[] { 0, 1 }, new double[] { 1, 2 });
+    }
+
+    @Test(expected = OutOfRangeException.class)
+    public void testColumnIndexOutOfRange() {
+        new SparseJacobian(2, 2, new int[] { 0, 1, 2 }, new int[] { 0, 2 }, new double[] { 1, 2 });
+    }
+
+    /**
+     * @param rng Generator.
+     * @param rows Number of rows.
+     * @param columns Number of columns.
+     * @return a matrix with about a third of non-zero entries.
+     */
+    static RealMatrix randomSparseMatrix(UniformRandomProvider rng,
+                                         int rows,
+                                         int columns) {
+        final RealMatrix m = new Array2DRowRealMatrix(rows, columns);
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < columns; j++) {
+                if (rng.nextInt(3) == 0) {
+                    m.setEntry(i, j, 2 * rng.nextDouble() - 1);
+                }
+            }
+        }
+        return m;
+    }
+
+    /**
+     * @param rng Generator.
+     * @param n Dimension.
+     * @return a random vector.
+     */
+    static RealVector randomVector(UniformRandomProvider rng,
+                                   int n) {
+        final RealVector v = new ArrayRealVector(n);
+        for (int i = 0; i < n; i++) {
+            v.setEntry(i, 2 * rng.nextDouble() - 1);
+        }
+        return v;
+    }
+
+    private static void assertEquals(RealMatrix expected,
+                                     RealMatrix actual,
+                                     double tol) {
+        Assert.assertEquals(expected.getRowDimension(), actual.getRowDimension());
+        Assert.assertEquals(expected.getColumnDimension(), actual.getColumnDimension());
+        for (int i = 0; i < expected.getRowDimension(); i++) {
+            Assert.assertArrayEquals(expected.getRow(i), actual.getRow(i), tol);
+        }
+    }
+
+    private static void assertEquals(RealVector expected,
+                                     RealVector actual,
+                                     double tol) {
+        Assert.assertArrayEquals(expected.toArray(), actual.toArray(), tol);
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.fitting.leastsquares;
+
+import org.apache.commons.math4.legacy.core.Pair;
+import org.apache.commons.math4.legacy.exception.NotPositiveException;
+import org.apache.commons.math4.legacy.exception.NotStrictlyPositiveException;
+import org.apache.commons.math4.legacy.exception.TooManyEvaluationsException;
+import org.apache.commons.math4.legacy.fitting.leastsquares.LeastSquaresOptimizer.Optimum;
+import org.apache.commons.math4.legacy.linear.ArrayRealVector;
+import org.apache.commons.math4.legacy.linear.DiagonalMatrix;
+import org.apache.commons.math4.legacy.linear.RealVector;
+import org.apache.commons.math4.legacy.optim.SimpleVectorValueChecker;
+import org.apache.commons.math4.core.jdkmath.JdkMath;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link SparseLevenbergMarquardtOptimizer}.
+ */
+public class SparseLevenbergMarquardtOptimizerTest {
+
+    @Test
+    public void testDenseProblem() {
+        final double[] weights = { 1, 2, 1, 3, 1, 2, 1, 1 };
+        final LeastSquaresProblem problem = exponentialDecay()
+            .weight(new DiagonalMatrix(weights))
+            .build();
+
+        final Optimum expected = new LevenbergMarquardtOptimizer().optimize(problem);
+        final Optimum actual = new SparseLevenbergMarquardtOptimizer().optimize(problem);
+
+        Assert.assertArrayEquals(expected.getPoint().toArray(),
+                                 actual.getPoint().toArray(), 1e-8);
+        Assert.assertEquals(expected.getRMS(), actual.getRMS(), 1e-10);
+    }
+
+    @Test
+    public void testLinearWeighted() {
+        // Fit a constant to observations 1 and 3, with weights 3 and 1.
+        final SparseJacobianFunction model = point -> {
+            final double c = point.getEntry(0);
+            final SparseJacobian jacobian = new SparseJacobian.Builder(2, 1)
+                .add(0, 0, 1)
+                .add(1, 0, 1)
+                .build();
+            return new Pair<>(new ArrayRealVector(new double[] { c, c }), jacobian);
+        };
+        final LeastSquaresProblem problem
+            = LeastSquaresFactory.createSparse(model,
+                                               new ArrayRealVector(new double[] { 1, 3 }),
+                                               new ArrayRealVector(new double[] { 0 }),
+                                               new ArrayRealVector(new double[] { 3, 1 }),
+                                               null, 100, 100);
+        final Optimum optimum = new SparseLevenbergMarquardtOptimizer().optimize(problem);
+        Assert.assertEquals(1.5, optimum.getPoint().getEntry(0), 1e-10);
+        // Weighted residuals: sqrt(3) * (1 - 1.5) and 3 - 1.5.
+        Assert.assertEquals(JdkMath.sqrt(3 * 0.25 + 2.25), optimum.getCost(), 1e-10);
+    }
+
+    @Test
+    public void testLargeSparse() {
+        // Residuals "exp(x_i) - exp(t_i)" and "(x_{i+1} - x_i) - (t_{i+1} - t_i)":
+        // the solution is "x = t".
+        final int n = 20000;
+        final double[] t = new double[n];
+        for (int i = 0; i < n; i++) {
+            t[i] = JdkMath.sin(0.001 * i);
+        }
+        final RealVector observed = new ArrayRealVector(2 * n - 1);
+        for (int i = 0; i < n; i++) {
+            observed.setEntry(i, JdkMath.exp(t[i]));
+        }
+        for (int i = 0; i < n - 1; i++) {
+            observed.setEntry(n + i, t[i + 1] - t[i]);
+        }
+        final SparseJacobianFunction model = point -> {
+            final double[] x = point.toArray();
+            final double[] values = new double[2 * n - 1];
+            final SparseJacobian.Builder jacobian = new SparseJacobian.Builder(2 * n - 1, n);
+            for (int i = 0; i < n; i++) {
+                final double e = JdkMath.exp(x[i]);
+                values[i] = e;
+                jacobian.add(i, i, e);
+            }
+            for (int i = 0; i < n - 1; i++) {
+                values[n + i] = x[i + 1] - x[i];
+                jacobian.add(n + i, i, -1);
+                jacobian.add(n + i, i + 1, 1);
+            }
+            return new Pair<>(new ArrayRealVector(values, false), jacobian.build());
+        };
+        final LeastSquaresProblem problem
+            = LeastSquaresFactory.createSparse(model, observed, new ArrayRealVector(n),
+                                               null, null, 100, 100);
+
+        final Optimum optimum = new SparseLevenbergMarquardtOptimizer().optimize(problem);
+
+        Assert.assertArrayEquals(t, optimum.getPoint().toArray(), 1e-8);
+        Assert.assertEquals(0, optimum.getRMS(), 1e-8);
+        Assert.assertTrue(optimum.getIterations() < 20);
+    }
+
+    @Test
+    public void testConvergenceChecker() {
+        final LeastSquaresProblem problem = exponentialDecay()
+            .checkerPair(new SimpleVectorValueChecker(1e-6, 1e-6))
+            .build();
+
+        final Optimum expected = new LevenbergMarquardtOptimizer().optimize(problem);
+        final Optimum actual = new SparseLevenbergMarquardtOptimizer().optimize(problem);
+        Assert.assertArrayEquals(expected.getPoint().toArray(),
+                                 actual.getPoint().toArray(), 1e-4);
+        Assert.assertTrue(actual.getEvaluations() < 20);
+    }
+
+    @Test(expected = TooManyEvaluationsException.class)
+    public void testMaxEvaluations() {
+        new SparseLevenbergMarquardtOptimizer().optimize(exponentialDecay().maxEvaluations(2).build());
+    }
+
+    @Test
+    public void testWithers() {
+        final SparseLevenbergMarquardtOptimizer optimizer = new SparseLevenbergMarquardtOptimizer()
+            .withInitialDamping(0.5)
+            .withCostRelativeTolerance(1e-5)
+            .withParameterRelativeTolerance(1e-6)
+            .withOrthoTolerance(1e-7)
+            .withLinearSolver(1e-8, 50);
+        Assert.assertEquals(0.5, optimizer.getInitialDamping(), 0);
+        Assert.assertEquals(1e-5, optimizer.getCostRelativeTolerance(), 0);
+        Assert.assertEquals(1e-6, optimizer.getParameterRelativeTolerance(), 0);
+        Assert.assertEquals(1e-7, optimizer.getOrthoTolerance(), 0);
+        Assert.assertEquals(1e-8, optimizer.getLinearSolverTolerance(), 0);
+        Assert.assertEquals(50, optimizer.getLinearSolverMaxIterations());
+    }
+
+    @Test(expected = NotStrictlyPositiveException.class)
+    public void testInvalidDamping() {
+        new SparseLevenbergMarquardtOptimizer().withInitialDamping(0);
+    }
+
+    @Test(expected = NotPositiveException.class)
+    public void testInvalidLinearSolverIterations() {
+        new SparseLevenbergMarquardtOptimizer().withLinearSolver(1e-8, -1);
+    }
+
+    /**
+     * Fit of "a exp(-b t)" to noisy data.
+     *
+     * @return the builder of the problem (without weights nor checker).
+     */
+    private static LeastSquaresBuilder exponentialDecay() {
+        final double[] t = { 0, 0.5, 1, 1.5, 2, 3, 4, 5 };
+        final double[] y = { 5.1, 3.8, 3.1, 2.3, 1.8, 1.1, 0.7, 0.4 };
+        return new LeastSquaresBuilder()
+            .model(p -> {
+                    final double[] v = new double[t.length];
+                    for (int i = 0; i < t.length; i++) {
+                        v[i] = p[0] * JdkMath.exp(-p[1] * t[i]);
+                    }
+                    return v;
+                },
+                p -> {
+                    final double[][] j = new double[t.length][2];
+                    for (int i = 0; i < t.length; i++) {
+                        final double e = JdkMath.exp(-p[1] * t[i]);
+                        j[i][0] = e;
+                        j[i][1] = -p[0] * t[i] * e;
+                    }
+                    return j;
+                })
+            .target(y)
+            .start(new double[] { 1, 1 })
+            .maxEvaluations(100)
+            .maxIterations(100);
+    }
+}
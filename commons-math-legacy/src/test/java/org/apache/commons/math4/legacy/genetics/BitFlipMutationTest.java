@@ -0,0 +1,62 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.genetics;
+
+import org.apache.commons.math4.legacy.exception.MathIllegalArgumentException;
+import org.apache.commons.math4.legacy.exception.OutOfRangeException;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BitFlipMutationTest {
+
+    @Test(expected = OutOfRangeException.class)
+    public void testRateTooHigh() {
+        new BitFlipMutation(1.1);
+    }
+
+    @Test(expected = MathIllegalArgumentException.class)
+    public void testWrongChromosome() {
+        new BitFlipMutation(0.1).mutate(new DummyBinaryChromosome(new Integer[] {1, 0}));
+    }
+
+    @Test
+    public void testMutate() {
+        final int length = 20000;
+        for (double rate : new double[] {0, 1d / length, 0.1, 0.5, 0.9, 1}) {
+            final BitFlipMutation mutation = new BitFlipMutation(rate);
+            Assert.assertEquals(rate, mutation.getBitMutationRate(), 0);
+            final DummyBitStringChromosome original =
+                new DummyBitStringChromosome(BitStringChromosome.randomWords(length), length);
+            final BitStringChromosome mutated = (BitStringChromosome) mutation.mutate(original);
+
+            int flipped = 0;
+            for (int i = 0; i < length; i++) {
+                if (original.getBit(i) != mutated.getBit(i)) {
+                    ++flipped;
+                }
+            }
+            Assert.assertEquals(rate * length, flipped, 4 * Math.sqrt(length * rate * (1 - rate)) + 3);
+        }
+    }
+
+    @Test
+    public void testMutateAll() {
+        final DummyBitStringChromosome original = new DummyBitStringChromosome(new long[2], 70);
+        final BitStringChromosome mutated = (BitStringChromosome) new BitFlipMutation(1).mutate(original);
+        Assert.assertEquals(70, mutated.cardinality());
+    }
+}
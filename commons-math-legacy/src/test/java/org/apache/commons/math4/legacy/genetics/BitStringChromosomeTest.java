@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.genetics;
+
+import java.util.BitSet;
+
+import org.apache.commons.math4.legacy.exception.NotPositiveException;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BitStringChromosomeTest {
+
+    @Test(expected = InvalidRepresentationException.class)
+    public void testWrongNumberOfWords() {
+        new DummyBitStringChromosome(new long[2], 64);
+    }
+
+    @Test(expected = InvalidRepresentationException.class)
+    public void testBitBeyondLength() {
+        new DummyBitStringChromosome(new long[] {1L << 10}, 10);
+    }
+
+    @Test(expected = InvalidRepresentationException.class)
+    public void testBitSetBeyondLength() {
+        final BitSet bits = new BitSet();
+        bits.set(70);
+        new DummyBitStringChromosome(bits, 70);
+    }
+
+    @Test(expected = NotPositiveException.class)
+    public void testNegativeLength() {
+        new DummyBitStringChromosome(new long[0], -1);
+    }
+
+    @Test
+    public void testAccessors() {
+        final BitSet bits = new BitSet();
+        bits.set(0);
+        bits.set(63);
+        bits.set(64);
+        bits.set(99);
+        final DummyBitStringChromosome c = new DummyBitStringChromosome(bits, 100);
+        Assert.assertEquals(100, c.getLength());
+        Assert.assertEquals(2, c.getWords().length);
+        Assert.assertEquals(4, c.cardinality());
+        Assert.assertEquals(4, c.getFitness(), 0);
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals(bits.get(i), c.getBit(i));
+        }
+        Assert.assertEquals(bits, c.toBitSet());
+
+        // The input is copied.
+        final long[] words = bits.toLongArray();
+        final DummyBitStringChromosome d = new DummyBitStringChromosome(words, 100);
+        words[0] = 0;
+        Assert.assertTrue(d.getBit(0));
+        Assert.assertTrue(c.isSame(d));
+        Assert.assertFalse(c.isSame(new DummyBitStringChromosome(new long[2], 100)));
+        Assert.assertFalse(c.isSame(new DummyBitStringChromosome(bits, 128)));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testGetBitOutOfRange() {
+        new DummyBitStringChromosome(new long[1], 10).getBit(10);
+    }
+
+    @Test
+    public void testRandomWords() {
+        for (int length : new int[] {0, 1, 63, 64, 65, 1000}) {
+            final long[] words = BitStringChromosome.randomWords(length);
+            Assert.assertEquals((length + 63) / 64, words.length);
+            // Does not throw.
+            new DummyBitStringChromosome(words, length);
+        }
+        final DummyBitStringChromosome c = new DummyBitStringChromosome(BitStringChromosome.randomWords(100000), 100000);
+        Assert.assertEquals(50000, c.cardinality(), 1000);
+    }
+
+    @Test
+    public void testToString() {
+        final DummyBitStringChromosome c = new DummyBitStringChromosome(new long[] {5}, 4);
+        Assert.assertEquals("(f=2.0 1010)", c.toString());
+    }
+}
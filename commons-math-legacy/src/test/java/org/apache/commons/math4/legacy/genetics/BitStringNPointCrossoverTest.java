@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.genetics;
+
+import java.util.BitSet;
+
+import org.apache.commons.math4.legacy.exception.DimensionMismatchException;
+import org.apache.commons.math4.legacy.exception.MathIllegalArgumentException;
+import org.apache.commons.math4.legacy.exception.NotStrictlyPositiveException;
+import org.apache.commons.math4.legacy.exception.NumberIsTooLargeException;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BitStringNPointCrossoverTest {
+
+    @Test(expected = NotStrictlyPositiveException.class)
+    public void testZeroPoints() {
+        new BitStringNPointCrossover(0);
+    }
+
+    @Test(expected = DimensionMismatchException.class)
+    public void testCrossoverDimensionMismatchException() {
+        new BitStringNPointCrossover(1).crossover(new DummyBitStringChromosome(new long[1], 10),
+                                                   new DummyBitStringChromosome(new long[1], 11));
+    }
+
+    @Test(expected = NumberIsTooLargeException.class)
+    public void testNumberIsTooLargeException() {
+        new BitStringNPointCrossover(10).crossover(new DummyBitStringChromosome(new long[1], 10),
+                                                    new DummyBitStringChromosome(new long[1], 10));
+    }
+
+    @Test(expected = MathIllegalArgumentException.class)
+    public void testCrossoverInvalidFixedLengthChromosomeFirst() {
+        new BitStringNPointCrossover(1).crossover(new DummyBinaryChromosome(new Integer[] {1, 0}),
+                                                   new DummyBitStringChromosome(new long[1], 2));
+    }
+
+    @Test
+    public void testSwap() {
+        for (int from = 0; from <= 200; from += 7) {
+            for (int to = from; to <= 200; to += 5) {
+                final long[] a = new long[4];
+                final long[] b = {-1L, -1L, -1L, (1L << 8) - 1};
+                BitStringNPointCrossover.swap(a, b, from, to);
+                final BitSet sa = BitSet.valueOf(a);
+                final BitSet sb = BitSet.valueOf(b);
+                for (int i = 0; i < 200; i++) {
+                    final boolean inside = i >= from && i < to;
+                    Assert.assertEquals(inside, sa.get(i));
+                    Assert.assertEquals(!inside, sb.get(i));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testCrossover() {
+        final int length = 300;
+        final long[] ones = new long[5];
+        for (int w = 0; w < ones.length; w++) {
+            ones[w] = -1L;
+        }
+        ones[4] = (1L << 44) - 1;
+        final DummyBitStringChromosome p1 = new DummyBitStringChromosome(new long[5], length);
+        final DummyBitStringChromosome p2 = new DummyBitStringChromosome(ones, length);
+
+        for (int order = 1; order <= 20; order++) {
+            final BitStringNPointCrossover cp = new BitStringNPointCrossover(order);
+            Assert.assertEquals(order, cp.getCrossoverPoints());
+            for (int trial = 0; trial < 20; trial++) {
+                final ChromosomePair pair = cp.crossover(p1, p2);
+                final BitStringChromosome c1 = (BitStringChromosome) pair.getFirst();
+                final BitStringChromosome c2 = (BitStringChromosome) pair.getSecond();
+                Assert.assertEquals(length, c1.getLength());
+
+                // Children are complementary, start like their parent,
+                // and switch parent exactly "order" times.
+                Assert.assertFalse(c1.getBit(0));
+                Assert.assertTrue(c2.getBit(0));
+                int switches = 0;
+                for (int i = 0; i < length; i++) {
+                    Assert.assertNotEquals(c1.getBit(i), c2.getBit(i));
+                    if (i > 0 && c1.getBit(i) != c1.getBit(i - 1)) {
+                        ++switches;
+                    }
+                }
+                Assert.assertEquals(order, switches);
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.genetics;
+
+import org.apache.commons.math4.legacy.exception.DimensionMismatchException;
+import org.apache.commons.math4.legacy.exception.MathIllegalArgumentException;
+import org.apache.commons.math4.legacy.exception.OutOfRangeException;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BitStringUniformCrossoverTest {
+    private static final int LEN = 10000;
+
+    @Test(expected = OutOfRangeException.class)
+    public void testRatioTooLow() {
+        new BitStringUniformCrossover(-0.5d);
+    }
+
+    @Test(expected = OutOfRangeException.class)
+    public void testRatioTooHigh() {
+        new BitStringUniformCrossover(1.5d);
+    }
+
+    @Test(expected = DimensionMismatchException.class)
+    public void testCrossoverDimensionMismatchException() {
+        new BitStringUniformCrossover(0.5).crossover(new DummyBitStringChromosome(new long[1], 10),
+                                                      new DummyBitStringChromosome(new long[1], 11));
+    }
+
+    @Test(expected = MathIllegalArgumentException.class)
+    public void testCrossoverInvalidFixedLengthChromosome() {
+        new BitStringUniformCrossover(0.5).crossover(new DummyBitStringChromosome(new long[1], 2),
+                                                      new DummyRealValuedChromosome(new double[2]));
+    }
+
+    @Test
+    public void testCrossover() {
+        for (double ratio : new double[] {0, 0.01, 0.3, 0.5, 0.7, 0.99, 1}) {
+            performCrossover(ratio);
+        }
+    }
+
+    private void performCrossover(double ratio) {
+        final long[] ones = new long[(LEN + 63) / 64];
+        for (int w = 0; w < ones.length; w++) {
+            ones[w] = -1L;
+        }
+        ones[ones.length - 1] = (1L << (LEN % 64)) - 1;
+        final DummyBitStringChromosome p1 = new DummyBitStringChromosome(new long[ones.length], LEN);
+        final DummyBitStringChromosome p2 = new DummyBitStringChromosome(ones, LEN);
+
+        final BitStringUniformCrossover cp = new BitStringUniformCrossover(ratio);
+        Assert.assertEquals(ratio, cp.getRatio(), 0);
+        for (int trial = 0; trial < 10; trial++) {
+            final ChromosomePair pair = cp.crossover(p1, p2);
+            final BitStringChromosome c1 = (BitStringChromosome) pair.getFirst();
+            final BitStringChromosome c2 = (BitStringChromosome) pair.getSecond();
+
+            // Bits from the other parent.
+            Assert.assertEquals(ratio, (double) c1.cardinality() / LEN, 0.02);
+            Assert.assertEquals(LEN, c1.cardinality() + c2.cardinality());
+            for (int i = 0; i < LEN; i++) {
+                Assert.assertNotEquals(c1.getBit(i), c2.getBit(i));
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.genetics;
+
+import org.apache.commons.math4.legacy.exception.DimensionMismatchException;
+import org.apache.commons.math4.legacy.exception.MathIllegalArgumentException;
+import org.apache.commons.math4.legacy.exception.NotPositiveException;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BlendCrossoverTest {
+
+    @Test(expected = NotPositiveException.class)
+    public void testNegativeAlpha() {
+        new BlendCrossover(-0.1);
+    }
+
+    @Test(expected = DimensionMismatchException.class)
+    public void testCrossoverDimensionMismatchException() {
+        new BlendCrossover(0.5).crossover(new DummyRealValuedChromosome(new double[2]),
+                                          new DummyRealValuedChromosome(new double[3]));
+    }
+
+    @Test(expected = MathIllegalArgumentException.class)
+    public void testWrongChromosome() {
+        new BlendCrossover(0.5).crossover(new DummyRealValuedChromosome(new double[2]),
+                                          new DummyBitStringChromosome(new long[1], 2));
+    }
+
+    @Test
+    public void testCrossover() {
+        final double alpha = 0.5;
+        final BlendCrossover cp = new BlendCrossover(alpha);
+        Assert.assertEquals(alpha, cp.getAlpha(), 0);
+        final double[] g1 = {0, 1, 5, -3};
+        final double[] g2 = {1, 1, 2, 3};
+        final DummyRealValuedChromosome p1 = new DummyRealValuedChromosome(g1);
+        final DummyRealValuedChromosome p2 = new DummyRealValuedChromosome(g2);
+
+        final double[] min = {Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY,
+                              Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY};
+        final double[] max = {Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY,
+                              Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY};
+        for (int trial = 0; trial < 1000; trial++) {
+            final ChromosomePair pair = cp.crossover(p1, p2);
+            for (Chromosome c : new Chromosome[] {pair.getFirst(), pair.getSecond()}) {
+                final double[] g = ((RealValuedChromosome) c).toArray();
+                for (int i = 0; i < g.length; i++) {
+                    min[i] = Math.min(min[i], g[i]);
+                    max[i] = Math.max(max[i], g[i]);
+                }
+            }
+        }
+        for (int i = 0; i < g1.length; i++) {
+            final double lo = Math.min(g1[i], g2[i]);
+            final double hi = Math.max(g1[i], g2[i]);
+            final double d = hi - lo;
+            Assert.assertTrue(min[i] >= lo - alpha * d);
+            Assert.assertTrue(max[i] <= hi + alpha * d);
+            Assert.assertEquals(lo - alpha * d, min[i], 0.02 * (d + 1));
+            Assert.assertEquals(hi + alpha * d, max[i], 0.02 * (d + 1));
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.genetics;
+
+import java.util.BitSet;
+
+/**
+ * Implementation of BitStringChromosome for testing purposes: the fitness
+ * is the number of bits that are set.
+ */
+public class DummyBitStringChromosome extends BitStringChromosome {
+
+    public DummyBitStringChromosome(long[] words, int length) {
+        super(words, length);
+    }
+
+    public DummyBitStringChromosome(BitSet bits, int length) {
+        super(bits, length);
+    }
+
+    private DummyBitStringChromosome(long[] words, int length, boolean copy) {
+        super(words, length, copy);
+    }
+
+    @Override
+    public BitStringChromosome newBitStringChromosome(long[] newWords) {
+        return new DummyBitStringChromosome(newWords, getLength(), false);
+    }
+
+    @Override
+    public double fitness() {
+        return cardinality();
+    }
+}
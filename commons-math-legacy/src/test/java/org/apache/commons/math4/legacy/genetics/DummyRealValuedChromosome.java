@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.genetics;
+
+/**
+ * Implementation of RealValuedChromosome for testing purposes: the fitness
+ * is the opposite of the squared norm of the genes.
+ */
+public class DummyRealValuedChromosome extends RealValuedChromosome {
+
+    public DummyRealValuedChromosome(double[] genes) {
+        super(genes);
+    }
+
+    private DummyRealValuedChromosome(double[] genes, boolean copy) {
+        super(genes, copy);
+    }
+
+    @Override
+    public RealValuedChromosome newRealValuedChromosome(double[] newGenes) {
+        return new DummyRealValuedChromosome(newGenes, false);
+    }
+
+    @Override
+    public double fitness() {
+        double sum = 0;
+        for (double g : getGenes()) {
+            sum += g * g;
+        }
+        return -sum;
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.genetics;
+
+import org.apache.commons.math4.legacy.exception.MathIllegalArgumentException;
+import org.apache.commons.math4.legacy.exception.NotStrictlyPositiveException;
+import org.apache.commons.math4.legacy.exception.OutOfRangeException;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class GaussianMutationTest {
+
+    @Test(expected = NotStrictlyPositiveException.class)
+    public void testZeroSigma() {
+        new GaussianMutation(0, 0.5);
+    }
+
+    @Test(expected = OutOfRangeException.class)
+    public void testRateTooLow() {
+        new GaussianMutation(1, -0.1);
+    }
+
+    @Test(expected = MathIllegalArgumentException.class)
+    public void testWrongChromosome() {
+        new GaussianMutation(1, 0.5).mutate(new DummyBitStringChromosome(new long[1], 2));
+    }
+
+    @Test
+    public void testMutate() {
+        final int length = 20000;
+        final double sigma = 2;
+        for (double rate : new double[] {0, 0.01, 0.5, 1}) {
+            final GaussianMutation mutation = new GaussianMutation(sigma, rate);
+            Assert.assertEquals(sigma, mutation.getSigma(), 0);
+            Assert.assertEquals(rate, mutation.getGeneMutationRate(), 0);
+            final DummyRealValuedChromosome original = new DummyRealValuedChromosome(new double[length]);
+            final double[] mutated = ((RealValuedChromosome) mutation.mutate(original)).toArray();
+
+            int changed = 0;
+            double sumSq = 0;
+            for (double g : mutated) {
+                if (g != 0) {
+                    ++changed;
+                    sumSq += g * g;
+                }
+            }
+            Assert.assertEquals(rate * length, changed, 4 * Math.sqrt(length * rate * (1 - rate)) + 1);
+            if (changed > 100) {
+                Assert.assertEquals(sigma, Math.sqrt(sumSq / changed), 0.1 * sigma);
+            }
+            // The original is unchanged.
+            Assert.assertEquals(0, original.getFitness(), 0);
+        }
+    }
+}
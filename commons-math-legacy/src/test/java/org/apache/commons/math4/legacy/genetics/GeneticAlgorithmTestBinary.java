@@ -17,9 +17,14 @@
 package org.apache.commons.math4.legacy.genetics;
 
 
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+import org.apache.commons.rng.UniformRandomProvider;
+import org.apache.commons.rng.simple.RandomSource;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -73,6 +78,53 @@ public class GeneticAlgorithmTestBinary {
         Assert.assertEquals(NUM_GENERATIONS, ga.getGenerationsEvolved());
     }
 
+    @Test
+    public void testConcurrentFitness() {
+        final ExecutorService single = Executors.newSingleThreadExecutor();
+        final ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            // The result does not depend on the number of threads.
+            final List<Double> expected = noisyEvolution(single);
+            Assert.assertEquals(POPULATION_SIZE, expected.size());
+            Assert.assertEquals(expected, noisyEvolution(pool));
+        } finally {
+            single.shutdown();
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Evolves a population whose fitness is perturbed with the GA generator.
+     *
+     * @param executor Executor.
+     * @return the fitness of the chromosomes of the final population.
+     */
+    private static List<Double> noisyEvolution(ExecutorService executor) {
+        final UniformRandomProvider saved = GeneticAlgorithm.getRandomGenerator();
+        GeneticAlgorithm.setRandomGenerator(RandomSource.WELL_19937_C.create(1234567L));
+        try {
+            final List<Chromosome> popList = new ArrayList<>();
+            for (int i = 0; i < POPULATION_SIZE; i++) {
+                popList.add(new NoisyFindOnes(BinaryChromosome.randomBinaryRepresentation(DIMENSION)));
+            }
+            final GeneticAlgorithm ga = new GeneticAlgorithm(new OnePointCrossover<>(),
+                                                             CROSSOVER_RATE,
+                                                             new BinaryMutation(),
+                                                             MUTATION_RATE,
+                                                             new TournamentSelection(TOURNAMENT_ARITY),
+                                                             executor);
+            final Population result = ga.evolve(new ElitisticListPopulation(popList, POPULATION_SIZE, ELITISM_RATE),
+                                                new FixedGenerationCount(NUM_GENERATIONS));
+            final List<Double> fitness = new ArrayList<>();
+            for (Chromosome c : result) {
+                fitness.add(c.getFitness());
+            }
+            return fitness;
+        } finally {
+            GeneticAlgorithm.setRandomGenerator(saved);
+        }
+    }
+
 
 
 
@@ -120,4 +172,28 @@ public class GeneticAlgorithmTestBinary {
             return new FindOnes(chromosomeRepresentation);
         }
     }
+
+    /**
+     * Same as {@link FindOnes}, with random noise.
+     */
+    private static final class NoisyFindOnes extends BinaryChromosome {
+
+        NoisyFindOnes(List<Integer> representation) {
+            super(representation);
+        }
+
+        @Override
+        public double fitness() {
+            int num = 0;
+            for (int val : this.getRepresentation()) {
+                num += val;
+            }
+            return num + GeneticAlgorithm.getRandomGenerator().nextDouble();
+        }
+
+        @Override
+        public AbstractListChromosome<Integer> newFixedLengthChromosome(List<Integer> chromosomeRepresentation) {
+            return new NoisyFindOnes(chromosomeRepresentation);
+        }
+    }
 }
@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.genetics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Same problem as in {@link GeneticAlgorithmTestBinary}, with a much longer
+ * genome represented by {@link BitStringChromosome}s.
+ */
+public class GeneticAlgorithmTestBitString {
+
+    // parameters for the GA
+    private static final int DIMENSION = 10000;
+    private static final int POPULATION_SIZE = 50;
+    private static final int NUM_GENERATIONS = 50;
+    private static final double ELITISM_RATE = 0.2;
+    private static final double CROSSOVER_RATE = 1;
+    private static final double MUTATION_RATE = 0.5;
+    private static final int TOURNAMENT_ARITY = 2;
+
+    @Test
+    public void test() {
+        final GeneticAlgorithm ga = new GeneticAlgorithm(new BitStringUniformCrossover(0.5),
+                                                         CROSSOVER_RATE,
+                                                         new BitFlipMutation(1d / DIMENSION),
+                                                         MUTATION_RATE,
+                                                         new TournamentSelection(TOURNAMENT_ARITY));
+
+        final List<Chromosome> popList = new ArrayList<>();
+        for (int i = 0; i < POPULATION_SIZE; i++) {
+            popList.add(new DummyBitStringChromosome(BitStringChromosome.randomWords(DIMENSION), DIMENSION));
+        }
+        final Population initial = new ElitisticListPopulation(popList, POPULATION_SIZE, ELITISM_RATE);
+        final Chromosome bestInitial = initial.getFittestChromosome();
+
+        final Population finalPopulation = ga.evolve(initial, new FixedGenerationCount(NUM_GENERATIONS));
+        final Chromosome bestFinal = finalPopulation.getFittestChromosome();
+
+        Assert.assertTrue(bestFinal.compareTo(bestInitial) > 0);
+        Assert.assertEquals(NUM_GENERATIONS, ga.getGenerationsEvolved());
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.genetics;
+
+import org.apache.commons.math4.legacy.exception.NotFiniteNumberException;
+import org.apache.commons.math4.legacy.exception.NumberIsTooLargeException;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RealValuedChromosomeTest {
+
+    @Test(expected = NotFiniteNumberException.class)
+    public void testNaN() {
+        new DummyRealValuedChromosome(new double[] {1, Double.NaN});
+    }
+
+    @Test
+    public void testAccessors() {
+        final double[] genes = {1, -2, 3};
+        final DummyRealValuedChromosome c = new DummyRealValuedChromosome(genes);
+        genes[0] = 0;
+        Assert.assertEquals(3, c.getLength());
+        Assert.assertEquals(1, c.getGene(0), 0);
+        Assert.assertArrayEquals(new double[] {1, -2, 3}, c.toArray(), 0);
+        Assert.assertEquals(-14, c.getFitness(), 0);
+        Assert.assertTrue(c.isSame(new DummyRealValuedChromosome(new double[] {1, -2, 3})));
+        Assert.assertFalse(c.isSame(new DummyRealValuedChromosome(genes)));
+        Assert.assertFalse(c.isSame(new DummyBitStringChromosome(new long[1], 3)));
+        Assert.assertEquals("(f=-14.0 [1.0, -2.0, 3.0])", c.toString());
+    }
+
+    @Test
+    public void testRandomGenes() {
+        final double[] g = RealValuedChromosome.randomGenes(1000, -2, 3);
+        Assert.assertEquals(1000, g.length);
+        for (double v : g) {
+            Assert.assertTrue(v >= -2 && v < 3);
+        }
+    }
+
+    @Test(expected = NumberIsTooLargeException.class)
+    public void testRandomGenesWrongBounds() {
+        RealValuedChromosome.randomGenes(10, 3, 2);
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.genetics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.math4.legacy.exception.MathUnsupportedOperationException;
+import org.apache.commons.math4.legacy.exception.NotStrictlyPositiveException;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link SteadyStateGeneticAlgorithm}.
+ */
+public class SteadyStateGeneticAlgorithmTest {
+    private static final int DIMENSION = 40;
+    private static final int POPULATION_SIZE = 30;
+
+    @Test(expected = NotStrictlyPositiveException.class)
+    public void testZeroPending() {
+        create(null, 0);
+    }
+
+    @Test(expected = MathUnsupportedOperationException.class)
+    public void testUnsupportedPopulation() {
+        create(null, 1).evolve(new Population() {
+                @Override
+                public int getPopulationSize() {
+                    return 0;
+                }
+                @Override
+                public int getPopulationLimit() {
+                    return 1;
+                }
+                @Override
+                public Population nextGeneration() {
+                    return this;
+                }
+                @Override
+                public void addChromosome(Chromosome chromosome) {}
+                @Override
+                public Chromosome getFittestChromosome() {
+                    return null;
+                }
+                @Override
+                public java.util.Iterator<Chromosome> iterator() {
+                    return new ArrayList<Chromosome>().iterator();
+                }
+            }, new FixedGenerationCount(1));
+    }
+
+    @Test
+    public void testSequential() {
+        final ElitisticListPopulation population = randomPopulation(new AtomicInteger());
+        final double worstInitial = worst(population);
+        final Chromosome bestInitial = population.getFittestChromosome();
+
+        final SteadyStateGeneticAlgorithm ga = create(null, 1);
+        final Population result = ga.evolve(population, new FixedGenerationCount(2000));
+
+        Assert.assertSame(population, result);
+        Assert.assertEquals(2000, ga.getGenerationsEvolved());
+        Assert.assertEquals(POPULATION_SIZE, result.getPopulationSize());
+        Assert.assertTrue(result.getFittestChromosome().compareTo(bestInitial) > 0);
+        Assert.assertTrue(worst(result) > worstInitial);
+    }
+
+    @Test
+    public void testConcurrent() {
+        final int threads = 4;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final AtomicInteger evaluations = new AtomicInteger();
+            final ElitisticListPopulation population = randomPopulation(evaluations);
+            final Chromosome bestInitial = population.getFittestChromosome();
+            evaluations.set(0);
+
+            final SteadyStateGeneticAlgorithm ga = create(executor, 2 * threads);
+            Assert.assertEquals(2 * threads, ga.getMaxPending());
+            final Population result = ga.evolve(population, new FixedGenerationCount(1000));
+
+            Assert.assertEquals(1000, ga.getGenerationsEvolved());
+            Assert.assertEquals(POPULATION_SIZE, result.getPopulationSize());
+            Assert.assertTrue(result.getFittestChromosome().compareTo(bestInitial) > 0);
+            // Parents that are neither recombined nor mutated are not evaluated
+            // again; pending evaluations may have been started (but are discarded).
+            Assert.assertTrue(evaluations.get() <= 1000 + 2 * threads);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testFailingFitness() {
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final List<Chromosome> list = new ArrayList<>();
+            final AtomicInteger count = new AtomicInteger();
+            for (int i = 0; i < POPULATION_SIZE; i++) {
+                list.add(new CountingFindOnes(BinaryChromosome.randomBinaryRepresentation(DIMENSION),
+                                              count, POPULATION_SIZE + 10));
+            }
+            create(executor, 4).evolve(new ElitisticListPopulation(list, POPULATION_SIZE, 0.1),
+                                       new FixedGenerationCount(1000));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * @param executor Executor.
+     * @param maxPending Maximum number of pending evaluations.
+     * @return a new instance.
+     */
+    private static SteadyStateGeneticAlgorithm create(ExecutorService executor,
+                                                      int maxPending) {
+        return new SteadyStateGeneticAlgorithm(new OnePointCrossover<>(), 0.9,
+                                               new BinaryMutation(), 0.2,
+                                               new TournamentSelection(2),
+                                               executor, maxPending);
+    }
+
+    /**
+     * @param counter Number of fitness evaluations.
+     * @return a random population.
+     */
+    private static ElitisticListPopulation randomPopulation(AtomicInteger counter) {
+        final List<Chromosome> list = new ArrayList<>();
+        for (int i = 0; i < POPULATION_SIZE; i++) {
+            list.add(new CountingFindOnes(BinaryChromosome.randomBinaryRepresentation(DIMENSION),
+                                          counter, Integer.MAX_VALUE));
+        }
+        return new ElitisticListPopulation(list, POPULATION_SIZE, 0.1);
+    }
+
+    /**
+     * @param population Population.
+     * @return the lowest fitness.
+     */
+    private static double worst(Population population) {
+        double w = Double.POSITIVE_INFINITY;
+        for (Chromosome c : population) {
+            w = Math.min(w, c.getFitness());
+        }
+        return w;
+    }
+
+    /**
+     * Number of ones, with a computation time that depends on the chromosome.
+     */
+    private static final class CountingFindOnes extends BinaryChromosome {
+        /** Number of evaluations. */
+        private final AtomicInteger counter;
+        /** Number of evaluations after which the computation fails. */
+        private final int maxEvaluations;
+
+        CountingFindOnes(List<Integer> representation,
+                         AtomicInteger counter,
+                         int maxEvaluations) {
+            super(representation);
+            this.counter = counter;
+            this.maxEvaluations = maxEvaluations;
+        }
+
+        @Override
+        public double fitness() {
+            if (counter.incrementAndGet() > maxEvaluations) {
+                throw new IllegalStateException();
+            }
+            int num = 0;
+            for (int val : getRepresentation()) {
+                num += val;
+            }
+            if (num % 3 == 0) {
+                // Slow evaluation.
+                Thread.yield();
+            }
+            return num;
+        }
+
+        @Override
+        public AbstractListChromosome<Integer> newFixedLengthChromosome(List<Integer> chromosomeRepresentation) {
+            return new CountingFindOnes(chromosomeRepresentation, counter, maxEvaluations);
+        }
+    }
+}
@@ -16,11 +16,20 @@
  */
 package org.apache.commons.math4.legacy.ml.clustering;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.apache.commons.math4.legacy.exception.MathIllegalArgumentException;
 import org.apache.commons.math4.legacy.exception.NullArgumentException;
+import org.apache.commons.math4.legacy.ml.distance.ChebyshevDistance;
+import org.apache.commons.math4.legacy.ml.distance.DistanceMeasure;
+import org.apache.commons.math4.legacy.ml.distance.EuclideanDistance;
+import org.apache.commons.math4.legacy.ml.distance.ManhattanDistance;
+import org.apache.commons.rng.UniformRandomProvider;
+import org.apache.commons.rng.simple.RandomSource;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -185,4 +194,108 @@ public class DBSCANClustererTest {
         DBSCANClusterer<DoublePoint> clusterer = new DBSCANClusterer<>(2.0, 5);
         clusterer.cluster(null);
     }
+
+    @Test
+    public void testIndexedSameAsScan() {
+        final List<DoublePoint> points = createBlobs(3000, 2, 1234L);
+        final double eps = 0.8;
+        final int minPts = 6;
+        for (final DistanceMeasure measure : new DistanceMeasure[] {new EuclideanDistance(),
+                                                                    new ManhattanDistance(),
+                                                                    new ChebyshevDistance()}) {
+            // The tree is not used with an arbitrary distance.
+            final DistanceMeasure scanned = (a, b) -> measure.compute(a, b);
+            final List<Cluster<DoublePoint>> expected =
+                new DBSCANClusterer<DoublePoint>(eps, minPts, scanned).cluster(points);
+            Assert.assertTrue(expected.size() > 1);
+            final List<Cluster<DoublePoint>> actual =
+                new DBSCANClusterer<DoublePoint>(eps, minPts, measure).cluster(points);
+            assertSameClusters(expected, actual);
+        }
+    }
+
+    @Test
+    public void testExecutor() {
+        final List<DoublePoint> points = createBlobs(5000, 3, 98765L);
+        final List<Cluster<DoublePoint>> expected =
+            new DBSCANClusterer<DoublePoint>(1.2, 5).cluster(points);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Cluster<DoublePoint>> actual =
+                new DBSCANClusterer<DoublePoint>(1.2, 5, new EuclideanDistance(), executor).cluster(points);
+            assertSameClusters(expected, actual);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testDuplicatePoints() {
+        final List<DoublePoint> points = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            points.add(new DoublePoint(new double[] {0, 0}));
+        }
+        points.add(new DoublePoint(new double[] {0.5, 0}));
+        points.add(new DoublePoint(new double[] {10, 10}));
+
+        final List<Cluster<DoublePoint>> clusters = new DBSCANClusterer<DoublePoint>(1, 3).cluster(points);
+        Assert.assertEquals(1, clusters.size());
+        // All the copies belong to the cluster.
+        Assert.assertEquals(4, clusters.get(0).getPoints().size());
+    }
+
+    /**
+     * Checks that two lists of clusters contain the same points, in the same order.
+     *
+     * @param expected Expected clusters.
+     * @param actual Actual clusters.
+     */
+    private static void assertSameClusters(List<Cluster<DoublePoint>> expected,
+                                           List<Cluster<DoublePoint>> actual) {
+        Assert.assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            final List<DoublePoint> e = expected.get(i).getPoints();
+            final List<DoublePoint> a = actual.get(i).getPoints();
+            Assert.assertEquals(e.size(), a.size());
+            for (int j = 0; j < e.size(); j++) {
+                Assert.assertSame(e.get(j), a.get(j));
+            }
+        }
+    }
+
+    /**
+     * Creates points around a few random centers, plus uniform noise.
+     *
+     * @param n Number of points.
+     * @param dim Dimension.
+     * @param seed Seed.
+     * @return the points.
+     */
+    private static List<DoublePoint> createBlobs(int n,
+                                                 int dim,
+                                                 long seed) {
+        final UniformRandomProvider rng = RandomSource.WELL_1024_A.create(seed);
+        final double[][] centers = new double[5][dim];
+        for (final double[] c : centers) {
+            for (int k = 0; k < dim; k++) {
+                c[k] = 100 * rng.nextDouble();
+            }
+        }
+        final List<DoublePoint> points = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            final double[] p = new double[dim];
+            if (i % 10 == 0) {
+                for (int k = 0; k < dim; k++) {
+                    p[k] = 100 * rng.nextDouble();
+                }
+            } else {
+                final double[] c = centers[i % centers.length];
+                for (int k = 0; k < dim; k++) {
+                    p[k] = c[k] + 10 * (rng.nextDouble() - 0.5);
+                }
+            }
+            points.add(new DoublePoint(p));
+        }
+        return points;
+    }
 }
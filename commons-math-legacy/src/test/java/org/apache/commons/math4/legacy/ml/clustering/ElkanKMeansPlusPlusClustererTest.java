@@ -21,6 +21,8 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -28,6 +30,7 @@ import org.apache.commons.rng.simple.RandomSource;
 import org.apache.commons.rng.sampling.shape.BoxSampler;
 import org.apache.commons.math4.legacy.exception.NotStrictlyPositiveException;
 import org.apache.commons.math4.legacy.exception.NumberIsTooSmallException;
+import org.apache.commons.math4.legacy.ml.distance.EuclideanDistance;
 import org.apache.commons.math4.legacy.stat.descriptive.moment.VectorialMean;
 import org.apache.commons.math4.legacy.core.MathArrays;
 
@@ -125,6 +128,31 @@ public class ElkanKMeansPlusPlusClustererTest {
         clusterer.cluster(points);
     }
 
+    @Test
+    public void testExecutor() {
+        final int n = 3 * KMeansPlusPlusClusterer.BLOCK_SIZE + 17;
+        final List<DoublePoint> testPoints = generatePoints(n, 3);
+        final List<CentroidCluster<DoublePoint>> expected =
+            new ElkanKMeansPlusPlusClusterer<DoublePoint>(8, 50, new EuclideanDistance(),
+                                                          RandomSource.MT_64.create(123L)).cluster(testPoints);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<CentroidCluster<DoublePoint>> actual =
+                new ElkanKMeansPlusPlusClusterer<DoublePoint>(8, 50, new EuclideanDistance(),
+                                                              RandomSource.MT_64.create(123L),
+                                                              KMeansPlusPlusClusterer.EmptyClusterStrategy.LARGEST_VARIANCE,
+                                                              executor).cluster(testPoints);
+            Assert.assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                Assert.assertArrayEquals(expected.get(i).getCenter().getPoint(),
+                                         actual.get(i).getCenter().getPoint(), 0);
+                Assert.assertEquals(expected.get(i).getPoints(), actual.get(i).getPoints());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     /**
      * Generates a list of random uncorrelated points to cluster.
      *
@@ -0,0 +1,256 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.ml.clustering;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.math4.legacy.exception.MathIllegalArgumentException;
+import org.apache.commons.math4.legacy.exception.NotStrictlyPositiveException;
+import org.apache.commons.math4.legacy.exception.NumberIsTooSmallException;
+import org.apache.commons.math4.legacy.ml.distance.EuclideanDistance;
+import org.apache.commons.math4.legacy.ml.distance.ManhattanDistance;
+import org.apache.commons.rng.UniformRandomProvider;
+import org.apache.commons.rng.simple.RandomSource;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for the clustering of points stored in flat arrays.
+ */
+public class FlatClusteringTest {
+    /** Dimension of the test points. */
+    private static final int DIM = 3;
+
+    @Test
+    public void testKMeansPlusPlus() {
+        final double[] data = createBlobs(2000, 5, 123L);
+        final List<CentroidCluster<DoublePoint>> expected =
+            new KMeansPlusPlusClusterer<DoublePoint>(5, 100, new EuclideanDistance(),
+                                                     RandomSource.MT_64.create(42L)).cluster(toPoints(data));
+        final FlatClustering actual =
+            new KMeansPlusPlusClusterer<DoublePoint>(5, 100, new EuclideanDistance(),
+                                                     RandomSource.MT_64.create(42L)).cluster(data, DIM);
+        assertSame(expected, actual, data);
+    }
+
+    @Test
+    public void testKMeansPlusPlusEmptyClusters() {
+        // Only 3 distinct points: 2 of the initial centers are duplicates.
+        final double[] data = new double[2 * 300];
+        for (int i = 0; i < 300; i++) {
+            data[2 * i] = i % 3;
+        }
+        for (KMeansPlusPlusClusterer.EmptyClusterStrategy strategy :
+                 new KMeansPlusPlusClusterer.EmptyClusterStrategy[] {
+                     KMeansPlusPlusClusterer.EmptyClusterStrategy.LARGEST_VARIANCE,
+                     KMeansPlusPlusClusterer.EmptyClusterStrategy.LARGEST_POINTS_NUMBER,
+                     KMeansPlusPlusClusterer.EmptyClusterStrategy.FARTHEST_POINT }) {
+            final List<DoublePoint> points = new ArrayList<>();
+            for (int i = 0; i < 300; i++) {
+                points.add(new DoublePoint(new double[] {data[2 * i], data[2 * i + 1]}));
+            }
+            final List<CentroidCluster<DoublePoint>> expected =
+                new KMeansPlusPlusClusterer<DoublePoint>(5, 10, new EuclideanDistance(),
+                                                         RandomSource.MT_64.create(7L), strategy).cluster(points);
+            final FlatClustering actual =
+                new KMeansPlusPlusClusterer<DoublePoint>(5, 10, new EuclideanDistance(),
+                                                         RandomSource.MT_64.create(7L), strategy).cluster(data, 2);
+            Assert.assertEquals(expected.size(), actual.getNumberOfClusters());
+            final double[][] centroids = actual.getCentroids();
+            for (int c = 0; c < centroids.length; c++) {
+                Assert.assertArrayEquals(expected.get(c).getCenter().getPoint(), centroids[c], 0);
+            }
+        }
+    }
+
+    @Test
+    public void testElkan() {
+        final double[] data = createBlobs(2000, 4, 456L);
+        final List<CentroidCluster<DoublePoint>> expected =
+            new ElkanKMeansPlusPlusClusterer<DoublePoint>(4, 100, new EuclideanDistance(),
+                                                          RandomSource.MT_64.create(42L)).cluster(toPoints(data));
+        final FlatClustering actual =
+            new ElkanKMeansPlusPlusClusterer<DoublePoint>(4, 100, new EuclideanDistance(),
+                                                          RandomSource.MT_64.create(42L)).cluster(data, DIM);
+        assertSame(expected, actual, data);
+    }
+
+    @Test
+    public void testMiniBatch() {
+        final double[] data = createBlobs(3000, 4, 789L);
+        final List<CentroidCluster<DoublePoint>> expected =
+            new MiniBatchKMeansClusterer<DoublePoint>(4, 10, 100, 3, 300, 10, new EuclideanDistance(),
+                                                      RandomSource.MT_64.create(42L),
+                                                      KMeansPlusPlusClusterer.EmptyClusterStrategy.LARGEST_VARIANCE)
+            .cluster(toPoints(data));
+        final FlatClustering actual =
+            new MiniBatchKMeansClusterer<DoublePoint>(4, 10, 100, 3, 300, 10, new EuclideanDistance(),
+                                                      RandomSource.MT_64.create(42L),
+                                                      KMeansPlusPlusClusterer.EmptyClusterStrategy.LARGEST_VARIANCE)
+            .cluster(data, DIM);
+        assertSame(expected, actual, data);
+    }
+
+    @Test
+    public void testFuzzy() {
+        final double[] data = createBlobs(500, 3, 246L);
+        final FuzzyKMeansClusterer<DoublePoint> fuzzy1 =
+            new FuzzyKMeansClusterer<>(3, 2, 100, new EuclideanDistance(), 1e-6, RandomSource.MT_64.create(42L));
+        final List<CentroidCluster<DoublePoint>> expected = fuzzy1.cluster(toPoints(data));
+        final FuzzyKMeansClusterer<DoublePoint> fuzzy2 =
+            new FuzzyKMeansClusterer<>(3, 2, 100, new EuclideanDistance(), 1e-6, RandomSource.MT_64.create(42L));
+        final FlatClustering actual = fuzzy2.cluster(data, DIM);
+        assertSame(expected, actual, data);
+        Assert.assertEquals(fuzzy1.getMembershipMatrix(), fuzzy2.getMembershipMatrix());
+        Assert.assertNull(fuzzy2.getDataPoints());
+        Assert.assertNull(fuzzy2.getClusters());
+    }
+
+    @Test
+    public void testBuffer() {
+        final double[] data = createBlobs(1000, 3, 135L);
+        final FlatClustering expected =
+            new KMeansPlusPlusClusterer<DoublePoint>(3, 100, new ManhattanDistance(),
+                                                     RandomSource.MT_64.create(42L)).cluster(data, DIM);
+
+        // Direct buffer (not backed by an array), with leading garbage.
+        final DoubleBuffer direct = ByteBuffer.allocateDirect(8 * (data.length + 5)).asDoubleBuffer();
+        direct.put(new double[5]).put(data);
+        direct.position(5);
+        final FlatClustering actual1 =
+            new KMeansPlusPlusClusterer<DoublePoint>(3, 100, new ManhattanDistance(),
+                                                     RandomSource.MT_64.create(42L)).cluster(direct, DIM);
+        assertSame(expected, actual1);
+        Assert.assertEquals(5, direct.position());
+
+        // Buffer backed by an array, with an offset.
+        final double[] shifted = new double[data.length + 2];
+        System.arraycopy(data, 0, shifted, 2, data.length);
+        final DoubleBuffer wrapped = DoubleBuffer.wrap(shifted);
+        wrapped.position(2);
+        final FlatClustering actual2 =
+            new KMeansPlusPlusClusterer<DoublePoint>(3, 100, new ManhattanDistance(),
+                                                     RandomSource.MT_64.create(42L)).cluster(wrapped.slice(), DIM);
+        assertSame(expected, actual2);
+    }
+
+    @Test(expected = NotStrictlyPositiveException.class)
+    public void testInvalidDimension() {
+        new KMeansPlusPlusClusterer<DoublePoint>(2).cluster(new double[6], 0);
+    }
+
+    @Test(expected = MathIllegalArgumentException.class)
+    public void testInvalidShape() {
+        new KMeansPlusPlusClusterer<DoublePoint>(2).cluster(new double[7], 2);
+    }
+
+    @Test(expected = NumberIsTooSmallException.class)
+    public void testTooManyClusters() {
+        new ElkanKMeansPlusPlusClusterer<DoublePoint>(4).cluster(new double[6], 2);
+    }
+
+    @Test
+    public void testCentroidsAreCopied() {
+        final double[] data = createBlobs(100, 2, 975L);
+        final FlatClustering result = new KMeansPlusPlusClusterer<DoublePoint>(2).cluster(data, DIM);
+        result.getCentroids()[0][0] = Double.NaN;
+        Assert.assertFalse(Double.isNaN(result.getCentroids()[0][0]));
+        Assert.assertEquals(100, result.getLabels().length);
+    }
+
+    /**
+     * @param expected Clusters.
+     * @param actual Labels and centroids.
+     * @param data Coordinates of the points.
+     */
+    private static void assertSame(List<CentroidCluster<DoublePoint>> expected,
+                                   FlatClustering actual,
+                                   double[] data) {
+        Assert.assertEquals(expected.size(), actual.getNumberOfClusters());
+        final double[][] centroids = actual.getCentroids();
+        final int[] labels = actual.getLabels();
+        for (int c = 0; c < expected.size(); c++) {
+            Assert.assertArrayEquals(expected.get(c).getCenter().getPoint(), centroids[c], 0);
+            final List<DoublePoint> members = new ArrayList<>();
+            for (int i = 0; i < labels.length; i++) {
+                if (labels[i] == c) {
+                    members.add(point(data, i));
+                }
+            }
+            Assert.assertEquals(expected.get(c).getPoints(), members);
+        }
+    }
+
+    /**
+     * @param expected Labels and centroids.
+     * @param actual Labels and centroids.
+     */
+    private static void assertSame(FlatClustering expected,
+                                   FlatClustering actual) {
+        Assert.assertArrayEquals(expected.getLabels(), actual.getLabels());
+        final double[][] e = expected.getCentroids();
+        final double[][] a = actual.getCentroids();
+        Assert.assertEquals(e.length, a.length);
+        for (int c = 0; c < e.length; c++) {
+            Assert.assertArrayEquals(e[c], a[c], 0);
+        }
+    }
+
+    /**
+     * @param data Coordinates.
+     * @return the points.
+     */
+    private static List<DoublePoint> toPoints(double[] data) {
+        final List<DoublePoint> points = new ArrayList<>();
+        for (int i = 0; i < data.length / DIM; i++) {
+            points.add(point(data, i));
+        }
+        return points;
+    }
+
+    /**
+     * @param data Coordinates.
+     * @param i Index of a point.
+     * @return the point.
+     */
+    private static DoublePoint point(double[] data, int i) {
+        final double[] x = new double[DIM];
+        System.arraycopy(data, i * DIM, x, 0, DIM);
+        return new DoublePoint(x);
+    }
+
+    /**
+     * @param n Number of points.
+     * @param blobs Number of blobs.
+     * @param seed Seed.
+     * @return the coordinates of points scattered around a few centers.
+     */
+    private static double[] createBlobs(int n, int blobs, long seed) {
+        final UniformRandomProvider rng = RandomSource.MT_64.create(seed);
+        final double[] data = new double[n * DIM];
+        for (int i = 0; i < n; i++) {
+            final int b = i % blobs;
+            for (int j = 0; j < DIM; j++) {
+                data[i * DIM + j] = 10 * b * (j + 1) + rng.nextDouble();
+            }
+        }
+        return data;
+    }
+}
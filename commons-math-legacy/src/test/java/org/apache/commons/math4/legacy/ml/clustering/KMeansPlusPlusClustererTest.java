@@ -21,6 +21,8 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.apache.commons.math4.legacy.exception.NumberIsTooSmallException;
 import org.apache.commons.math4.legacy.ml.distance.EuclideanDistance;
@@ -175,4 +177,33 @@ public class KMeansPlusPlusClustererTest {
 
         transformer.cluster(Arrays.asList(points));
     }
+
+    @Test
+    public void testExecutor() {
+        final List<DoublePoint> points = new ArrayList<>();
+        final UniformRandomProvider rng = RandomSource.MT_64.create(2345L);
+        for (int i = 0; i < 3 * KMeansPlusPlusClusterer.BLOCK_SIZE + 17; i++) {
+            points.add(new DoublePoint(new double[] {rng.nextDouble(), rng.nextDouble(), rng.nextDouble()}));
+        }
+
+        final List<CentroidCluster<DoublePoint>> expected =
+            new KMeansPlusPlusClusterer<DoublePoint>(8, 50, new EuclideanDistance(),
+                                                     RandomSource.MT_64.create(123L)).cluster(points);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<CentroidCluster<DoublePoint>> actual =
+                new KMeansPlusPlusClusterer<DoublePoint>(8, 50, new EuclideanDistance(),
+                                                         RandomSource.MT_64.create(123L),
+                                                         KMeansPlusPlusClusterer.EmptyClusterStrategy.LARGEST_VARIANCE,
+                                                         executor).cluster(points);
+            Assert.assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                Assert.assertArrayEquals(expected.get(i).getCenter().getPoint(),
+                                         actual.get(i).getCenter().getPoint(), 0);
+                Assert.assertEquals(expected.get(i).getPoints(), actual.get(i).getPoints());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
 }
@@ -41,6 +41,25 @@ public class MiniBatchKMeansClustererTest {
         expectNumberIsTooSmallException(() -> new MiniBatchKMeansClusterer<>(1, -1, 100, 3, 300, -10, null, null, null));
     }
 
+    /**
+     * The smoothing factor of the average inertia must not be truncated
+     * to zero when there are many more points than the batch size.
+     */
+    @Test
+    public void testImprovementEvaluatorSmoothing() {
+        final int batchSize = 100;
+        final int pointSize = 1000;
+        final MiniBatchKMeansClusterer.ImprovementEvaluator evaluator =
+            new MiniBatchKMeansClusterer.ImprovementEvaluator(batchSize, 10);
+        evaluator.converge(1.0 * batchSize, pointSize);
+        Assert.assertEquals(1.0, evaluator.getEwaInertia(), 0);
+        evaluator.converge(0.5 * batchSize, pointSize);
+        final double alpha = 2.0 * batchSize / (pointSize + 1);
+        Assert.assertEquals(1.0 * (1 - alpha) + 0.5 * alpha, evaluator.getEwaInertia(), 1e-15);
+        Assert.assertEquals(evaluator.getEwaInertia(), evaluator.getEwaInertiaMin(), 0);
+        Assert.assertEquals(0, evaluator.getNoImprovementTimes());
+    }
+
     /**
      * Expects block throws NumberIsTooSmallException.
      * @param block the block need to run.
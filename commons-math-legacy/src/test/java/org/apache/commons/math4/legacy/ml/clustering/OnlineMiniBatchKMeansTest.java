@@ -0,0 +1,200 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.ml.clustering;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.math4.legacy.TestUtils;
+import org.apache.commons.math4.legacy.exception.DimensionMismatchException;
+import org.apache.commons.math4.legacy.exception.MathIllegalStateException;
+import org.apache.commons.math4.legacy.exception.NumberIsTooSmallException;
+import org.apache.commons.math4.legacy.ml.distance.EuclideanDistance;
+import org.apache.commons.rng.UniformRandomProvider;
+import org.apache.commons.rng.simple.RandomSource;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link OnlineMiniBatchKMeans}.
+ */
+public class OnlineMiniBatchKMeansTest {
+    /** Dimension of the test points. */
+    private static final int DIM = 2;
+    /** Centers of the blobs. */
+    private static final double[][] BLOBS = {
+        {0, 0}, {20, 0}, {0, 20}, {20, 20}
+    };
+
+    @Test
+    public void testConvergesToBlobs() {
+        final UniformRandomProvider data = RandomSource.MT_64.create(123L);
+        final OnlineMiniBatchKMeans model =
+            new OnlineMiniBatchKMeans(BLOBS.length, 10, new EuclideanDistance(),
+                                      RandomSource.MT_64.create(42L));
+        boolean converged = false;
+        int batches = 0;
+        while (!converged && batches < 1000) {
+            converged = model.update(createBatch(100, data), DIM);
+            ++batches;
+        }
+        Assert.assertTrue(converged);
+        Assert.assertTrue(model.hasConverged());
+        Assert.assertEquals(100L * batches, model.getPointCount());
+        Assert.assertEquals(model.getPointCount(), Arrays.stream(model.getCounts()).sum());
+
+        // Every blob is found (its mean is the center of the blob).
+        final double[][] centroids = model.getCentroids();
+        final boolean[] found = new boolean[BLOBS.length];
+        for (double[] blob : BLOBS) {
+            final int c = model.predict(blob);
+            Assert.assertFalse(found[c]);
+            found[c] = true;
+            Assert.assertArrayEquals(blob, centroids[c], 0.1);
+        }
+    }
+
+    @Test
+    public void testCollectionAndArrayAreEquivalent() {
+        final double[] batch = createBatch(200, RandomSource.MT_64.create(5L));
+        final List<DoublePoint> points = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            points.add(new DoublePoint(Arrays.copyOfRange(batch, i * DIM, (i + 1) * DIM)));
+        }
+        final OnlineMiniBatchKMeans flat =
+            new OnlineMiniBatchKMeans(3, 10, new EuclideanDistance(), RandomSource.MT_64.create(9L));
+        final OnlineMiniBatchKMeans objects =
+            new OnlineMiniBatchKMeans(3, 10, new EuclideanDistance(), RandomSource.MT_64.create(9L));
+        flat.update(batch, DIM);
+        objects.update(points);
+        assertSameModel(flat, objects);
+    }
+
+    @Test
+    public void testRestore() {
+        final UniformRandomProvider data = RandomSource.MT_64.create(77L);
+        final OnlineMiniBatchKMeans model =
+            new OnlineMiniBatchKMeans(BLOBS.length, 5, new EuclideanDistance(),
+                                      RandomSource.MT_64.create(1L));
+        for (int i = 0; i < 3; i++) {
+            model.update(createBatch(50, data), DIM);
+        }
+
+        final OnlineMiniBatchKMeans.State state =
+            (OnlineMiniBatchKMeans.State) TestUtils.serializeAndRecover(model.getState());
+        final OnlineMiniBatchKMeans restored =
+            new OnlineMiniBatchKMeans(state, new EuclideanDistance(), RandomSource.MT_64.create(2L));
+        assertSameModel(model, restored);
+
+        // Both models evolve identically.
+        for (int i = 0; i < 50; i++) {
+            final double[] batch = createBatch(50, data);
+            Assert.assertEquals(model.update(batch, DIM), restored.update(batch, DIM));
+            assertSameModel(model, restored);
+        }
+    }
+
+    @Test
+    public void testRestoreBeforeFirstUpdate() {
+        final OnlineMiniBatchKMeans model =
+            new OnlineMiniBatchKMeans(2, 5, new EuclideanDistance(), RandomSource.MT_64.create(3L));
+        final OnlineMiniBatchKMeans restored =
+            new OnlineMiniBatchKMeans(model.getState(), new EuclideanDistance(), RandomSource.MT_64.create(3L));
+        final double[] batch = createBatch(20, RandomSource.MT_64.create(4L));
+        model.update(batch, DIM);
+        restored.update(batch, DIM);
+        assertSameModel(model, restored);
+    }
+
+    @Test
+    public void testPredict() {
+        final OnlineMiniBatchKMeans model =
+            new OnlineMiniBatchKMeans(BLOBS.length, 10, new EuclideanDistance(),
+                                      RandomSource.MT_64.create(11L));
+        final double[] batch = createBatch(400, RandomSource.MT_64.create(12L));
+        model.update(batch, DIM);
+        final int[] labels = model.predict(batch, DIM);
+        Assert.assertEquals(400, labels.length);
+        for (int i = 0; i < labels.length; i++) {
+            Assert.assertEquals(model.predict(Arrays.copyOfRange(batch, i * DIM, (i + 1) * DIM)),
+                                labels[i]);
+            // Points of the same blob belong to the same cluster.
+            Assert.assertEquals(labels[i % BLOBS.length], labels[i]);
+        }
+    }
+
+    @Test(expected = MathIllegalStateException.class)
+    public void testPredictBeforeUpdate() {
+        new OnlineMiniBatchKMeans(2, 10, new EuclideanDistance(), RandomSource.MT_64.create(0L))
+            .predict(new double[DIM]);
+    }
+
+    @Test(expected = NumberIsTooSmallException.class)
+    public void testFirstBatchTooSmall() {
+        new OnlineMiniBatchKMeans(5, 10, new EuclideanDistance(), RandomSource.MT_64.create(0L))
+            .update(new double[4 * DIM], DIM);
+    }
+
+    @Test(expected = DimensionMismatchException.class)
+    public void testDimensionMismatch() {
+        final OnlineMiniBatchKMeans model =
+            new OnlineMiniBatchKMeans(2, 10, new EuclideanDistance(), RandomSource.MT_64.create(0L));
+        model.update(createBatch(10, RandomSource.MT_64.create(0L)), DIM);
+        model.update(new double[9], 3);
+    }
+
+    @Test(expected = NumberIsTooSmallException.class)
+    public void testInvalidNumberOfClusters() {
+        new OnlineMiniBatchKMeans(0, 10, new EuclideanDistance(), RandomSource.MT_64.create(0L));
+    }
+
+    /**
+     * @param expected Model.
+     * @param actual Model.
+     */
+    private static void assertSameModel(OnlineMiniBatchKMeans expected,
+                                        OnlineMiniBatchKMeans actual) {
+        Assert.assertEquals(expected.getPointCount(), actual.getPointCount());
+        Assert.assertEquals(expected.hasConverged(), actual.hasConverged());
+        Assert.assertArrayEquals(expected.getCounts(), actual.getCounts());
+        final double[][] e = expected.getCentroids();
+        final double[][] a = actual.getCentroids();
+        Assert.assertEquals(e.length, a.length);
+        for (int c = 0; c < e.length; c++) {
+            Assert.assertArrayEquals(e[c], a[c], 0);
+        }
+    }
+
+    /**
+     * @param n Number of points.
+     * @param rng Generator.
+     * @return the coordinates of points drawn around the centers of the blobs
+     * (point {@code i} belongs to blob {@code i % BLOBS.length}).
+     */
+    private static double[] createBatch(int n,
+                                        UniformRandomProvider rng) {
+        final double[] data = new double[n * DIM];
+        for (int i = 0; i < n; i++) {
+            final double[] blob = BLOBS[i % BLOBS.length];
+            for (int j = 0; j < DIM; j++) {
+                data[i * DIM + j] = blob[j] + rng.nextDouble() - 0.5;
+            }
+        }
+        return data;
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.ml.clustering.evaluation;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.commons.math4.legacy.exception.InsufficientDataException;
+import org.apache.commons.math4.legacy.ml.clustering.CentroidCluster;
+import org.apache.commons.math4.legacy.ml.clustering.Cluster;
+import org.apache.commons.math4.legacy.ml.clustering.ClusterEvaluator;
+import org.apache.commons.math4.legacy.ml.clustering.DoublePoint;
+import org.apache.commons.math4.legacy.ml.distance.EuclideanDistance;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DaviesBouldinTest {
+    @Test
+    public void testSmallExample() {
+        // Expected value computed by the brute-force definition.
+        final List<Cluster<DoublePoint>> clusters = SilhouetteTest.smallExample();
+        final ClusterEvaluator evaluator = new DaviesBouldin(new EuclideanDistance());
+        Assert.assertEquals(0.2224646497238364, evaluator.score(clusters), 1e-15);
+
+        // Empty clusters are ignored.
+        clusters.add(new Cluster<>());
+        Assert.assertEquals(0.2224646497238364, evaluator.score(clusters), 1e-15);
+    }
+
+    @Test
+    public void testExecutor() {
+        final List<CentroidCluster<DoublePoint>> clusters =
+            SilhouetteTest.cluster(SilhouetteTest.createBlobs(10000, 12L), 5, 1L);
+        final double expected = new DaviesBouldin(new EuclideanDistance()).score(clusters);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Assert.assertEquals(expected,
+                                new DaviesBouldin(new EuclideanDistance(), executor).score(clusters),
+                                0);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testBestNumberOfClusters() {
+        final List<DoublePoint> points = SilhouetteTest.createBlobs(800, 34L);
+        final ClusterEvaluator evaluator = new DaviesBouldin(new EuclideanDistance());
+        Assert.assertTrue(evaluator.isBetterScore(1, 2));
+        int bestK = 0;
+        double best = Double.POSITIVE_INFINITY;
+        for (int k = 2; k <= 6; k++) {
+            final double score = evaluator.score(SilhouetteTest.cluster(points, k, 4L));
+            if (evaluator.isBetterScore(score, best)) {
+                best = score;
+                bestK = k;
+            }
+        }
+        Assert.assertEquals(4, bestK);
+    }
+
+    @Test(expected = InsufficientDataException.class)
+    public void testNoPoints() {
+        final List<Cluster<DoublePoint>> clusters = SilhouetteTest.smallExample();
+        clusters.clear();
+        clusters.add(new Cluster<>());
+        new DaviesBouldin(new EuclideanDistance()).score(clusters);
+    }
+}
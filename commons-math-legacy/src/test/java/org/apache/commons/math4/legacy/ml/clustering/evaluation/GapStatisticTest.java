@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.ml.clustering.evaluation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.commons.math4.legacy.exception.NotPositiveException;
+import org.apache.commons.math4.legacy.exception.NotStrictlyPositiveException;
+import org.apache.commons.math4.legacy.ml.clustering.CentroidCluster;
+import org.apache.commons.math4.legacy.ml.clustering.ClusterEvaluator;
+import org.apache.commons.math4.legacy.ml.clustering.DoublePoint;
+import org.apache.commons.math4.legacy.ml.distance.EuclideanDistance;
+import org.apache.commons.rng.simple.RandomSource;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class GapStatisticTest {
+    @Test
+    public void testStructuredDataHasPositiveGap() {
+        final List<CentroidCluster<DoublePoint>> clusters =
+            SilhouetteTest.cluster(SilhouetteTest.createBlobs(400, 1L), 4, 2L);
+        final ClusterEvaluator evaluator =
+            new GapStatistic(new EuclideanDistance(), 10, RandomSource.MT_64.create(3L));
+        Assert.assertTrue(evaluator.score(clusters) > 1);
+    }
+
+    @Test
+    public void testBestNumberOfClusters() {
+        final List<DoublePoint> points = SilhouetteTest.createBlobs(600, 5L);
+        final ClusterEvaluator evaluator =
+            new GapStatistic(new EuclideanDistance(), 5, RandomSource.MT_64.create(6L));
+        int bestK = 0;
+        double best = Double.NEGATIVE_INFINITY;
+        for (int k = 1; k <= 6; k++) {
+            final double score = evaluator.score(SilhouetteTest.cluster(points, k, 7L));
+            if (evaluator.isBetterScore(score, best)) {
+                best = score;
+                bestK = k;
+            }
+        }
+        Assert.assertEquals(4, bestK);
+    }
+
+    @Test
+    public void testExecutor() {
+        final List<CentroidCluster<DoublePoint>> clusters =
+            SilhouetteTest.cluster(SilhouetteTest.createBlobs(1000, 8L), 3, 9L);
+        final double expected =
+            new GapStatistic(new EuclideanDistance(), 8, 0, 100,
+                             RandomSource.MT_64.create(10L), null).score(clusters);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Assert.assertEquals(expected,
+                                new GapStatistic(new EuclideanDistance(), 8, 0, 100,
+                                                 RandomSource.MT_64.create(10L), executor).score(clusters),
+                                0);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testRepeatedScore() {
+        final List<CentroidCluster<DoublePoint>> clusters =
+            SilhouetteTest.cluster(SilhouetteTest.createBlobs(300, 16L), 3, 17L);
+        final ClusterEvaluator evaluator =
+            new GapStatistic(new EuclideanDistance(), 5, RandomSource.MT_64.create(18L));
+        Assert.assertEquals(evaluator.score(clusters), evaluator.score(clusters), 0);
+    }
+
+    @Test
+    public void testSampledReference() {
+        final List<CentroidCluster<DoublePoint>> clusters =
+            SilhouetteTest.cluster(SilhouetteTest.createBlobs(4000, 11L), 4, 12L);
+        final double exact =
+            new GapStatistic(new EuclideanDistance(), 10, RandomSource.MT_64.create(13L)).score(clusters);
+        final double sampled =
+            new GapStatistic(new EuclideanDistance(), 10, 500, 100,
+                             RandomSource.MT_64.create(13L), null).score(clusters);
+        Assert.assertEquals(exact, sampled, 0.05 * exact);
+    }
+
+    @Test
+    public void testZeroDispersion() {
+        // Duplicate points: the clustering is perfect.
+        final List<CentroidCluster<DoublePoint>> clusters = new ArrayList<>();
+        for (final double c : new double[] { 0, 5 }) {
+            final CentroidCluster<DoublePoint> cluster =
+                new CentroidCluster<>(new DoublePoint(new double[] { c, c }));
+            for (int i = 0; i < 3; i++) {
+                cluster.addPoint(new DoublePoint(new double[] { c, c }));
+            }
+            clusters.add(cluster);
+        }
+        Assert.assertEquals(Double.POSITIVE_INFINITY,
+                            new GapStatistic(new EuclideanDistance(), 5,
+                                             RandomSource.MT_64.create(14L)).score(clusters),
+                            0);
+    }
+
+    @Test
+    public void testOneClusterPerPoint() {
+        // The reference data sets also have a zero dispersion.
+        final List<CentroidCluster<DoublePoint>> clusters = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            final DoublePoint p = new DoublePoint(new double[] { i, i * i });
+            final CentroidCluster<DoublePoint> cluster = new CentroidCluster<>(p);
+            cluster.addPoint(p);
+            clusters.add(cluster);
+        }
+        Assert.assertEquals(0,
+                            new GapStatistic(new EuclideanDistance(), 5,
+                                             RandomSource.MT_64.create(15L)).score(clusters),
+                            0);
+    }
+
+    @Test(expected = NotPositiveException.class)
+    public void testInvalidReferenceSize() {
+        new GapStatistic(new EuclideanDistance(), 5, -1, 100,
+                         RandomSource.MT_64.create(0L), null);
+    }
+
+    @Test(expected = NotStrictlyPositiveException.class)
+    public void testInvalidMaxIterations() {
+        new GapStatistic(new EuclideanDistance(), 5, 0, 0,
+                         RandomSource.MT_64.create(0L), null);
+    }
+
+    @Test(expected = NotStrictlyPositiveException.class)
+    public void testInvalidReferences() {
+        new GapStatistic(new EuclideanDistance(), 0, RandomSource.MT_64.create(0L));
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.ml.clustering.evaluation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.commons.math4.legacy.exception.InsufficientDataException;
+import org.apache.commons.math4.legacy.exception.NotStrictlyPositiveException;
+import org.apache.commons.math4.legacy.ml.clustering.CentroidCluster;
+import org.apache.commons.math4.legacy.ml.clustering.Cluster;
+import org.apache.commons.math4.legacy.ml.clustering.ClusterEvaluator;
+import org.apache.commons.math4.legacy.ml.clustering.DoublePoint;
+import org.apache.commons.math4.legacy.ml.clustering.KMeansPlusPlusClusterer;
+import org.apache.commons.math4.legacy.ml.clustering.MultiKMeansPlusPlusClusterer;
+import org.apache.commons.math4.legacy.ml.distance.EuclideanDistance;
+import org.apache.commons.rng.UniformRandomProvider;
+import org.apache.commons.rng.simple.RandomSource;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SilhouetteTest {
+    @Test
+    public void testSmallExample() {
+        // Expected value computed by the brute-force definition.
+        final ClusterEvaluator evaluator = new Silhouette(new EuclideanDistance());
+        Assert.assertEquals(0.6147692625446771, evaluator.score(smallExample()), 1e-15);
+    }
+
+    @Test
+    public void testEmptyClusterIsIgnored() {
+        final List<Cluster<DoublePoint>> clusters = smallExample();
+        clusters.add(1, new Cluster<>());
+        final ClusterEvaluator evaluator = new Silhouette(new EuclideanDistance());
+        Assert.assertEquals(0.6147692625446771, evaluator.score(clusters), 1e-15);
+    }
+
+    @Test
+    public void testExecutor() {
+        final List<CentroidCluster<DoublePoint>> clusters = cluster(createBlobs(1000, 123L), 4, 1L);
+        final double expected = new Silhouette(new EuclideanDistance()).score(clusters);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Assert.assertEquals(expected,
+                                new Silhouette(new EuclideanDistance(), executor).score(clusters),
+                                0);
+            // Sampling more points than available is the exact computation.
+            Assert.assertEquals(expected,
+                                new Silhouette(new EuclideanDistance(), 2000,
+                                               RandomSource.MT_64.create(1L), executor).score(clusters),
+                                0);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testSampled() {
+        final List<CentroidCluster<DoublePoint>> clusters = cluster(createBlobs(2000, 456L), 3, 2L);
+        final double exact = new Silhouette(new EuclideanDistance()).score(clusters);
+        final double sampled = new Silhouette(new EuclideanDistance(), 300,
+                                              RandomSource.MT_64.create(3L), null).score(clusters);
+        Assert.assertEquals(exact, sampled, 0.05);
+    }
+
+    @Test
+    public void testBestNumberOfClusters() {
+        final List<DoublePoint> points = createBlobs(800, 789L);
+        final ClusterEvaluator evaluator = new Silhouette(new EuclideanDistance());
+        int bestK = 0;
+        double best = Double.NEGATIVE_INFINITY;
+        for (int k = 2; k <= 6; k++) {
+            final double score = evaluator.score(cluster(points, k, 4L));
+            if (evaluator.isBetterScore(score, best)) {
+                best = score;
+                bestK = k;
+            }
+        }
+        Assert.assertEquals(4, bestK);
+    }
+
+    @Test
+    public void testMultiKMeansPlusPlus() {
+        final List<DoublePoint> points = createBlobs(400, 321L);
+        final KMeansPlusPlusClusterer<DoublePoint> kMeans =
+            new KMeansPlusPlusClusterer<>(4, 100, new EuclideanDistance(), RandomSource.MT_64.create(5L));
+        final ClusterEvaluator evaluator =
+            new Silhouette(new EuclideanDistance(), 100, RandomSource.MT_64.create(6L), null);
+        final List<CentroidCluster<DoublePoint>> clusters =
+            new MultiKMeansPlusPlusClusterer<>(kMeans, 5, ClusterEvaluator.ranking(evaluator)).cluster(points);
+        Assert.assertEquals(4, clusters.size());
+        for (CentroidCluster<DoublePoint> c : clusters) {
+            Assert.assertEquals(100, c.getPoints().size());
+        }
+    }
+
+    @Test(expected = InsufficientDataException.class)
+    public void testSingleCluster() {
+        final List<Cluster<DoublePoint>> clusters = new ArrayList<>();
+        clusters.add(smallExample().get(0));
+        new Silhouette(new EuclideanDistance()).score(clusters);
+    }
+
+    @Test(expected = NotStrictlyPositiveException.class)
+    public void testInvalidSampleSize() {
+        new Silhouette(new EuclideanDistance(), 0, RandomSource.MT_64.create(0L), null);
+    }
+
+    /**
+     * @return 3 clusters of 3, 2 and 1 points.
+     */
+    static List<Cluster<DoublePoint>> smallExample() {
+        final double[][][] coordinates = {
+            {{0, 0}, {0, 1}, {1, 0}},
+            {{4, 0}, {5, 0}},
+            {{0, 6}}
+        };
+        final List<Cluster<DoublePoint>> clusters = new ArrayList<>();
+        for (double[][] c : coordinates) {
+            final Cluster<DoublePoint> cluster = new Cluster<>();
+            for (double[] p : c) {
+                cluster.addPoint(new DoublePoint(p));
+            }
+            clusters.add(cluster);
+        }
+        return clusters;
+    }
+
+    /**
+     * @param points Points.
+     * @param k Number of clusters.
+     * @param seed Seed.
+     * @return the clusters found by k-means++.
+     */
+    static List<CentroidCluster<DoublePoint>> cluster(List<DoublePoint> points,
+                                                      int k,
+                                                      long seed) {
+        return new KMeansPlusPlusClusterer<DoublePoint>(k, 100, new EuclideanDistance(),
+                                                        RandomSource.MT_64.create(seed)).cluster(points);
+    }
+
+    /**
+     * @param n Number of points.
+     * @param seed Seed.
+     * @return points around 4 well-separated centers.
+     */
+    static List<DoublePoint> createBlobs(int n,
+                                         long seed) {
+        final double[][] centers = {{-5, -5}, {0, 0}, {5, 5}, {10, -5}};
+        final UniformRandomProvider rng = RandomSource.MT_64.create(seed);
+        final List<DoublePoint> points = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            final double[] p = Arrays.copyOf(centers[i % centers.length], 2);
+            for (int j = 0; j < p.length; j++) {
+                p[j] += rng.nextDouble() - 0.5;
+            }
+            points.add(new DoublePoint(p));
+        }
+        return points;
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.ode;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.apache.commons.math4.legacy.exception.MathIllegalStateException;
+import org.apache.commons.math4.legacy.exception.OutOfRangeException;
+import org.apache.commons.math4.legacy.ode.nonstiff.ClassicalRungeKuttaIntegrator;
+import org.apache.commons.math4.legacy.ode.nonstiff.DormandPrince54Integrator;
+import org.apache.commons.math4.legacy.ode.nonstiff.DormandPrince853Integrator;
+import org.apache.commons.math4.core.jdkmath.JdkMath;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DenseOutputModelTest {
+
+    @Test
+    public void testSameAsContinuousOutputModel() {
+        // the Dormand-Prince 5(4) interpolator is a quartic polynomial,
+        // it is reproduced exactly by the default quintic model
+        TestProblem3 pb = new TestProblem3(0.9);
+        FirstOrderIntegrator integ = new DormandPrince54Integrator(0, 1, 1.0e-8, 1.0e-8);
+        ContinuousOutputModel reference = new ContinuousOutputModel();
+        DenseOutputModel model = new DenseOutputModel();
+        integ.addStepHandler(reference);
+        integ.addStepHandler(model);
+        integ.integrate(pb, pb.getInitialTime(), pb.getInitialState(),
+                        pb.getFinalTime(), new double[pb.getDimension()]);
+
+        Assert.assertEquals(pb.getInitialTime(), model.getInitialTime(), 0);
+        Assert.assertEquals(pb.getFinalTime(), model.getFinalTime(), 0);
+        Assert.assertEquals(pb.getDimension(), model.getDimension());
+        Assert.assertTrue(model.getNumberOfSteps() > 10);
+
+        Random random = new Random(347588535632L);
+        for (int i = 0; i < 1000; ++i) {
+            double r = random.nextDouble();
+            double time = r * pb.getInitialTime() + (1.0 - r) * pb.getFinalTime();
+            reference.setInterpolatedTime(time);
+            model.setInterpolatedTime(time);
+            Assert.assertEquals(time, model.getInterpolatedTime(), 0);
+            Assert.assertArrayEquals(reference.getInterpolatedState(), model.getInterpolatedState(), 1.0e-12);
+            Assert.assertArrayEquals(reference.getInterpolatedDerivatives(), model.getInterpolatedDerivatives(), 1.0e-9);
+        }
+    }
+
+    @Test
+    public void testHighOrderIntegrator() {
+        // the Dormand-Prince 8(5,3) interpolator is a polynomial of degree 7,
+        // it is only approximated, more accurately with more interior nodes
+        TestProblem3 pb = new TestProblem3(0.9);
+        final double[] tolerance = { 1.0e-4, 1.0e-7, 1.0e-9, 1.0e-10 };
+        for (int nodes = 0; nodes <= 3; ++nodes) {
+            FirstOrderIntegrator integ = new DormandPrince853Integrator(0, 1, 1.0e-10, 1.0e-10);
+            ContinuousOutputModel reference = new ContinuousOutputModel();
+            DenseOutputModel model = new DenseOutputModel(nodes);
+            integ.addStepHandler(reference);
+            integ.addStepHandler(model);
+            integ.integrate(pb, pb.getInitialTime(), pb.getInitialState(),
+                            pb.getFinalTime(), new double[pb.getDimension()]);
+            double maxError = 0;
+            for (int i = 0; i <= 1000; ++i) {
+                double time = pb.getInitialTime() + i * (pb.getFinalTime() - pb.getInitialTime()) / 1000;
+                reference.setInterpolatedTime(time);
+                model.setInterpolatedTime(time);
+                for (int j = 0; j < pb.getDimension(); ++j) {
+                    maxError = JdkMath.max(maxError,
+                                           JdkMath.abs(model.getInterpolatedState()[j] -
+                                                       reference.getInterpolatedState()[j]));
+                }
+            }
+            Assert.assertEquals(0, maxError, tolerance[nodes]);
+        }
+    }
+
+    @Test
+    public void testBackward() {
+        TestProblem5 pb = new TestProblem5();
+        FirstOrderIntegrator integ = new DormandPrince54Integrator(0, 1, 1.0e-10, 1.0e-10);
+        DenseOutputModel model = new DenseOutputModel();
+        integ.addStepHandler(model);
+        integ.integrate(pb, pb.getInitialTime(), pb.getInitialState(),
+                        pb.getFinalTime(), new double[pb.getDimension()]);
+        for (int i = 0; i <= 100; ++i) {
+            double time = pb.getInitialTime() + i * (pb.getFinalTime() - pb.getInitialTime()) / 100;
+            model.setInterpolatedTime(time);
+            Assert.assertArrayEquals(pb.computeTheoreticalState(time), model.getInterpolatedState(), 1.0e-6);
+        }
+    }
+
+    @Test
+    public void testBoundaries() {
+        TestProblem1 pb = new TestProblem1();
+        FirstOrderIntegrator integ = new DormandPrince54Integrator(0, 1, 1.0e-10, 1.0e-10);
+        DenseOutputModel model = new DenseOutputModel();
+        integ.addStepHandler(model);
+        integ.integrate(pb, pb.getInitialTime(), pb.getInitialState(),
+                        pb.getFinalTime(), new double[pb.getDimension()]);
+        model.setInterpolatedTime(pb.getInitialTime());
+        Assert.assertArrayEquals(pb.getInitialState(), model.getInterpolatedState(), 1.0e-15);
+        model.setInterpolatedTime(pb.getFinalTime());
+        Assert.assertArrayEquals(pb.computeTheoreticalState(pb.getFinalTime()), model.getInterpolatedState(), 1.0e-9);
+        model.setInterpolatedTime(2.0 * pb.getInitialTime() - pb.getFinalTime());
+        model.setInterpolatedTime(2.0 * pb.getFinalTime() - pb.getInitialTime());
+
+        // a new integration resets the model
+        integ.integrate(pb, pb.getInitialTime(), pb.getInitialState(),
+                        0.5 * pb.getFinalTime(), new double[pb.getDimension()]);
+        Assert.assertEquals(0.5 * pb.getFinalTime(), model.getFinalTime(), 0);
+    }
+
+    @Test
+    public void testSpillFile() throws IOException {
+        // enough steps to fill several storage blocks
+        TestProblem3 pb = new TestProblem3(0.9);
+        Path file = Files.createTempFile("dense-output", ".bin");
+        try (DenseOutputModel model = new DenseOutputModel(1, file)) {
+            DenseOutputModel heap = new DenseOutputModel();
+            FirstOrderIntegrator integ = new ClassicalRungeKuttaIntegrator(1.0e-4);
+            integ.addStepHandler(model);
+            integ.addStepHandler(heap);
+            integ.integrate(pb, pb.getInitialTime(), pb.getInitialState(),
+                            pb.getFinalTime(), new double[pb.getDimension()]);
+            Assert.assertTrue(model.getNumberOfSteps() > 200000);
+            Assert.assertTrue(Files.size(file) > 200000L * 2 * 6 * Double.BYTES);
+
+            Random random = new Random(0x6a1c9ffe3d1b7e2L);
+            for (int i = 0; i < 1000; ++i) {
+                double time = pb.getInitialTime() + random.nextDouble() * (pb.getFinalTime() - pb.getInitialTime());
+                model.setInterpolatedTime(time);
+                heap.setInterpolatedTime(time);
+                Assert.assertArrayEquals(heap.getInterpolatedState(), model.getInterpolatedState(), 0);
+                Assert.assertArrayEquals(pb.computeTheoreticalState(time), model.getInterpolatedState(), 1.0e-6);
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test(expected=MathIllegalStateException.class)
+    public void testNoData() {
+        new DenseOutputModel().setInterpolatedTime(1.0);
+    }
+
+    @Test(expected=OutOfRangeException.class)
+    public void testTooManyNodes() {
+        new DenseOutputModel(4);
+    }
+}
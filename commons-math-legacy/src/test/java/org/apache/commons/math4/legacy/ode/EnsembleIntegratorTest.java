@@ -0,0 +1,189 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.ode;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.commons.math4.legacy.exception.DimensionMismatchException;
+import org.apache.commons.math4.legacy.exception.NoDataException;
+import org.apache.commons.math4.legacy.exception.NonMonotonicSequenceException;
+import org.apache.commons.math4.legacy.exception.NumberIsTooSmallException;
+import org.apache.commons.math4.legacy.ode.events.EventHandler;
+import org.apache.commons.math4.legacy.ode.nonstiff.DormandPrince54Integrator;
+import org.apache.commons.math4.core.jdkmath.JdkMath;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class EnsembleIntegratorTest {
+
+    /** Harmonic oscillator (stateless, hence thread-safe). */
+    private static final FirstOrderDifferentialEquations OSCILLATOR = new FirstOrderDifferentialEquations() {
+        @Override
+        public int getDimension() {
+            return 2;
+        }
+
+        @Override
+        public void computeDerivatives(double t, double[] y, double[] yDot) {
+            yDot[0] = y[1];
+            yDot[1] = -y[0];
+        }
+    };
+
+    private static double[][] initialStates(int n) {
+        final double[][] y0 = new double[n][];
+        for (int i = 0; i < n; i++) {
+            final double phase = 0.1 * i;
+            y0[i] = new double[] { JdkMath.sin(phase), JdkMath.cos(phase) };
+        }
+        return y0;
+    }
+
+    private static EnsembleIntegrator ensemble(ExecutorService executor) {
+        return new EnsembleIntegrator(() -> new DormandPrince54Integrator(1.0e-8, 1, 1.0e-10, 1.0e-10),
+                                      executor);
+    }
+
+    @Test
+    public void testFinalStates() {
+        final double[][] y0 = initialStates(50);
+        final EnsembleIntegrator.Result result = ensemble(null).integrate(OSCILLATOR, 0, y0, 3.0);
+        Assert.assertEquals(50, result.getSize());
+        Assert.assertEquals(2, result.getDimension());
+        Assert.assertNull(result.getTimes());
+        Assert.assertNull(result.getSamples());
+        Assert.assertEquals(100, result.getFinalStates().length);
+        for (int i = 0; i < y0.length; i++) {
+            final double phase = 0.1 * i + 3.0;
+            final double[] y = result.getFinalState(i);
+            Assert.assertEquals(JdkMath.sin(phase), y[0], 1.0e-8);
+            Assert.assertEquals(JdkMath.cos(phase), y[1], 1.0e-8);
+            Assert.assertEquals(3.0, result.getFinalTimes()[i], 0);
+            Assert.assertTrue(result.getEvaluations()[i] > 0);
+        }
+    }
+
+    @Test
+    public void testSamples() {
+        final double[][] y0 = initialStates(20);
+        final double[] times = { 0, 0.5, 1.25, 2.0, 2.5 };
+        final EnsembleIntegrator.Result result = ensemble(null).integrate(OSCILLATOR, 0, y0, times);
+        Assert.assertArrayEquals(times, result.getTimes(), 0);
+        Assert.assertEquals(20 * times.length * 2, result.getSamples().length);
+        for (int i = 0; i < y0.length; i++) {
+            for (int k = 0; k < times.length; k++) {
+                final double phase = 0.1 * i + times[k];
+                final double[] y = result.getSample(i, k);
+                Assert.assertEquals(JdkMath.sin(phase), y[0], 1.0e-8);
+                Assert.assertEquals(JdkMath.cos(phase), y[1], 1.0e-8);
+            }
+            Assert.assertArrayEquals(result.getFinalState(i), result.getSample(i, times.length - 1), 0);
+        }
+    }
+
+    @Test
+    public void testBackward() {
+        final double[][] y0 = initialStates(10);
+        final double[] times = { 1, 0, -1, -2 };
+        final EnsembleIntegrator.Result result = ensemble(null).integrate(OSCILLATOR, 1, y0, times);
+        for (int i = 0; i < y0.length; i++) {
+            for (int k = 0; k < times.length; k++) {
+                final double phase = 0.1 * i + times[k] - 1;
+                final double[] y = result.getSample(i, k);
+                Assert.assertEquals(JdkMath.sin(phase), y[0], 1.0e-8);
+                Assert.assertEquals(JdkMath.cos(phase), y[1], 1.0e-8);
+            }
+        }
+    }
+
+    @Test
+    public void testExecutor() throws InterruptedException {
+        final double[][] y0 = initialStates(100);
+        final double[] times = { 0.5, 1, 1.5 };
+        final EnsembleIntegrator.Result sequential = ensemble(null).integrate(OSCILLATOR, 0, y0, times);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final EnsembleIntegrator.Result parallel = ensemble(executor).integrate(OSCILLATOR, 0, y0, times);
+            Assert.assertArrayEquals(sequential.getFinalStates(), parallel.getFinalStates(), 0);
+            Assert.assertArrayEquals(sequential.getSamples(), parallel.getSamples(), 0);
+            Assert.assertArrayEquals(sequential.getEvaluations(), parallel.getEvaluations());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testStopEvent() {
+        // stop each trajectory when its first component crosses zero downwards
+        final EnsembleIntegrator ensemble =
+            new EnsembleIntegrator(() -> {
+                final DormandPrince54Integrator integrator =
+                    new DormandPrince54Integrator(1.0e-8, 1, 1.0e-10, 1.0e-10);
+                integrator.addEventHandler(new EventHandler() {
+                    @Override
+                    public void init(double t0, double[] y0, double t) {
+                    }
+
+                    @Override
+                    public double g(double t, double[] y) {
+                        return y[0];
+                    }
+
+                    @Override
+                    public Action eventOccurred(double t, double[] y, boolean increasing) {
+                        return Action.STOP;
+                    }
+
+                    @Override
+                    public void resetState(double t, double[] y) {
+                    }
+                }, 0.1, 1.0e-10, 1000);
+                return integrator;
+            }, null);
+        final double[][] y0 = initialStates(3);
+        final double[] times = { 1, 2, 4 };
+        final EnsembleIntegrator.Result result = ensemble.integrate(OSCILLATOR, 0, y0, times);
+        for (int i = 0; i < y0.length; i++) {
+            // sin(0.1 i + t) vanishes at t = pi - 0.1 i
+            Assert.assertEquals(JdkMath.PI - 0.1 * i, result.getFinalTimes()[i], 1.0e-8);
+            Assert.assertEquals(JdkMath.sin(0.1 * i + 2), result.getSample(i, 1)[0], 1.0e-8);
+            Assert.assertTrue(Double.isNaN(result.getSample(i, 2)[0]));
+            Assert.assertTrue(Double.isNaN(result.getSample(i, 2)[1]));
+        }
+    }
+
+    @Test(expected=DimensionMismatchException.class)
+    public void testDimensionMismatch() {
+        ensemble(null).integrate(OSCILLATOR, 0, new double[][] { { 1, 2 }, { 1, 2, 3 } }, 1.0);
+    }
+
+    @Test(expected=NoDataException.class)
+    public void testNoSampleTimes() {
+        ensemble(null).integrate(OSCILLATOR, 0, initialStates(2), new double[0]);
+    }
+
+    @Test(expected=NonMonotonicSequenceException.class)
+    public void testNonMonotonicSampleTimes() {
+        ensemble(null).integrate(OSCILLATOR, 0, initialStates(2), new double[] { 1, 3, 2, 4 });
+    }
+
+    @Test(expected=NumberIsTooSmallException.class)
+    public void testSampleBeforeStart() {
+        ensemble(null).integrate(OSCILLATOR, 0, initialStates(2), new double[] { -1, 1, 2 });
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.ode.nonstiff;
+
+import org.apache.commons.math4.legacy.exception.DimensionMismatchException;
+import org.apache.commons.math4.legacy.exception.MaxCountExceededException;
+import org.apache.commons.math4.legacy.ode.FirstOrderIntegrator;
+import org.apache.commons.math4.legacy.ode.TestProblem1;
+import org.apache.commons.math4.legacy.ode.TestProblem3;
+import org.apache.commons.math4.legacy.ode.TestProblemAbstract;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RungeKuttaSessionTest {
+
+    @Test
+    public void testFixedStepSameAsIntegrator() {
+        TestProblem3 pb = new TestProblem3(0.9);
+        ClassicalRungeKuttaIntegrator integ = new ClassicalRungeKuttaIntegrator(0.01);
+        RungeKuttaSession session = integ.newSession(pb);
+        checkSameAsIntegrator(integ, session, pb, pb.getFinalTime(), 0);
+        checkSameAsIntegrator(integ, session, pb, -pb.getFinalTime(), 0);
+        checkSameAsIntegrator(integ, session, pb, 0.123, 0);
+    }
+
+    @Test
+    public void testAdaptiveSameAsIntegrator() {
+        TestProblem3 pb = new TestProblem3(0.9);
+        DormandPrince54Integrator integ = new DormandPrince54Integrator(0, 1, 1.0e-10, 1.0e-10);
+        RungeKuttaSession session = integ.newSession(pb);
+        checkSameAsIntegrator(integ, session, pb, pb.getFinalTime(), 1.0e-13);
+        session.reset();
+        checkSameAsIntegrator(integ, session, pb, -pb.getFinalTime(), 1.0e-13);
+    }
+
+    @Test
+    public void testNonFsalSameAsIntegrator() {
+        TestProblem3 pb = new TestProblem3(0.9);
+        HighamHall54Integrator integ = new HighamHall54Integrator(0, 1, 1.0e-10, 1.0e-10);
+        checkSameAsIntegrator(integ, integ.newSession(pb), pb, pb.getFinalTime(), 1.0e-13);
+        checkSameAsIntegrator(integ, integ.newSession(pb), pb, -pb.getFinalTime(), 1.0e-13);
+    }
+
+    private void checkSameAsIntegrator(FirstOrderIntegrator integ, RungeKuttaSession session,
+                                       TestProblemAbstract pb, double t, double tolerance) {
+        double[] expected = new double[pb.getDimension()];
+        integ.integrate(pb, pb.getInitialTime(), pb.getInitialState(), t, expected);
+        double[] y = new double[pb.getDimension()];
+        session.integrate(pb.getInitialTime(), pb.getInitialState(), t, y);
+        Assert.assertArrayEquals(expected, y, tolerance);
+        // unlike the integrator, the session does not evaluate again
+        // the first stage of non-fsal methods after a step rejection
+        Assert.assertTrue(session.getEvaluations() <= integ.getEvaluations());
+        Assert.assertTrue(session.getEvaluations() > integ.getEvaluations() - 10);
+    }
+
+    @Test
+    public void testRepeatedIntegrations() {
+        TestProblem1 pb = new TestProblem1();
+        DormandPrince54Integrator integ = new DormandPrince54Integrator(0, 1, 1.0e-10, 1.0e-10);
+        RungeKuttaSession session = integ.newSession(pb);
+
+        // a control loop advancing the state in short intervals
+        double[] y = pb.getInitialState().clone();
+        session.integrate(0, y, 0.01, y);
+        final int first = session.getEvaluations();
+        for (int i = 1; i < 400; ++i) {
+            session.integrate(0.01 * i, y, 0.01 * (i + 1), y);
+        }
+        Assert.assertArrayEquals(pb.computeTheoreticalState(4.0), y, 1.0e-9);
+
+        // the step size is reused from one call to the next one
+        Assert.assertTrue(session.getEvaluations() < first);
+
+        // starting again from scratch gives the same result as the first call
+        session.reset();
+        double[] y2 = new double[pb.getDimension()];
+        session.integrate(0, pb.getInitialState(), 0.01, y2);
+        Assert.assertEquals(first, session.getEvaluations());
+    }
+
+    @Test
+    public void testShortLastStep() {
+        TestProblem1 pb = new TestProblem1();
+        DormandPrince54Integrator integ = new DormandPrince54Integrator(0, 1, 1.0e-10, 1.0e-10);
+        double[] y = new double[pb.getDimension()];
+
+        RungeKuttaSession session = integ.newSession(pb);
+        session.integrate(0, pb.getInitialState(), 1.0, y);
+        session.integrate(1.0, y, 2.0, y);
+        final int expected = session.getEvaluations();
+
+        // a very short interval must not shrink the first step of the next call
+        session = integ.newSession(pb);
+        session.integrate(0, pb.getInitialState(), 1.0, y);
+        session.integrate(1.0, y, 1.0 + 1.0e-9, y);
+        session.integrate(1.0 + 1.0e-9, y, 2.0, y);
+        Assert.assertEquals(expected, session.getEvaluations());
+    }
+
+    @Test
+    public void testUserInitialStepSize() {
+        TestProblem1 pb = new TestProblem1();
+        DormandPrince54Integrator integ = new DormandPrince54Integrator(0, 1, 1.0e-10, 1.0e-10);
+        RungeKuttaSession session = integ.newSession(pb);
+        double[] y = new double[pb.getDimension()];
+        session.integrate(0, pb.getInitialState(), 1.0, y);
+
+        // the user setting takes precedence over the step of the previous call
+        integ.setInitialStepSize(1.0e-6);
+        session.integrate(0, pb.getInitialState(), 0.01, y);
+        final int evaluations = session.getEvaluations();
+        double[] y2 = new double[pb.getDimension()];
+        integ.newSession(pb).integrate(0, pb.getInitialState(), 0.01, y2);
+        Assert.assertArrayEquals(y2, y, 0);
+        session.reset();
+        session.integrate(0, pb.getInitialState(), 0.01, y);
+        Assert.assertEquals(session.getEvaluations(), evaluations);
+
+        // the previous step is reused again once the setting is dropped
+        integ.setInitialStepSize(-1);
+        session.integrate(0, pb.getInitialState(), 0.01, y);
+        Assert.assertTrue(session.getEvaluations() < evaluations);
+    }
+
+    @Test
+    public void testZeroLength() {
+        TestProblem1 pb = new TestProblem1();
+        RungeKuttaSession session = new ClassicalRungeKuttaIntegrator(0.01).newSession(pb);
+        double[] y = new double[pb.getDimension()];
+        session.integrate(1.0, pb.getInitialState(), 1.0, y);
+        Assert.assertArrayEquals(pb.getInitialState(), y, 0);
+        Assert.assertEquals(0, session.getEvaluations());
+    }
+
+    @Test(expected=MaxCountExceededException.class)
+    public void testMaxEvaluations() {
+        TestProblem1 pb = new TestProblem1();
+        ClassicalRungeKuttaIntegrator integ = new ClassicalRungeKuttaIntegrator(0.01);
+        integ.setMaxEvaluations(100);
+        integ.newSession(pb).integrate(0, pb.getInitialState(), 1.0, new double[pb.getDimension()]);
+    }
+
+    @Test(expected=DimensionMismatchException.class)
+    public void testDimensionCheck() {
+        TestProblem1 pb = new TestProblem1();
+        new ClassicalRungeKuttaIntegrator(0.01).newSession(pb).
+            integrate(0, new double[pb.getDimension() + 1], 1.0, new double[pb.getDimension()]);
+    }
+
+    @Test(expected=DimensionMismatchException.class)
+    public void testTolerancesCheck() {
+        new DormandPrince54Integrator(0, 1, new double[] { 1.0e-10 }, new double[] { 1.0e-10 }).
+            newSession(new TestProblem1());
+    }
+}
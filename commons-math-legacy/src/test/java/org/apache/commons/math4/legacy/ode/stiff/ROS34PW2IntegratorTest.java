@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.ode.stiff;
+
+import org.apache.commons.math4.legacy.exception.DimensionMismatchException;
+import org.apache.commons.math4.legacy.exception.MaxCountExceededException;
+import org.apache.commons.math4.legacy.exception.NoBracketingException;
+import org.apache.commons.math4.legacy.exception.NumberIsTooSmallException;
+import org.apache.commons.math4.legacy.ode.TestProblem1;
+import org.apache.commons.math4.legacy.ode.TestProblem4;
+import org.apache.commons.math4.legacy.ode.TestProblem5;
+import org.apache.commons.math4.legacy.ode.TestProblemHandler;
+import org.apache.commons.math4.legacy.ode.events.EventHandler;
+import org.apache.commons.math4.legacy.ode.nonstiff.DormandPrince54Integrator;
+import org.apache.commons.math4.legacy.ode.sampling.StepHandler;
+import org.apache.commons.math4.legacy.ode.sampling.StepInterpolator;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ROS34PW2IntegratorTest {
+
+    @Test(expected=DimensionMismatchException.class)
+    public void testDimensionCheck() {
+        TestProblem1 pb = new TestProblem1();
+        ROS34PW2Integrator integrator = new ROS34PW2Integrator(0.0, 1.0, 1.0e-10, 1.0e-10);
+        integrator.integrate(pb,
+                             0.0, new double[pb.getDimension() + 10],
+                             1.0, new double[pb.getDimension() + 10]);
+    }
+
+    @Test
+    public void testAccuracy()
+        throws DimensionMismatchException, NumberIsTooSmallException,
+               MaxCountExceededException, NoBracketingException {
+        TestProblem1 pb = new TestProblem1();
+        ROS34PW2Integrator integ = new ROS34PW2Integrator(0, pb.getFinalTime() - pb.getInitialTime(),
+                                                  1.0e-8, 1.0e-8);
+        TestProblemHandler handler = new TestProblemHandler(pb, integ);
+        integ.addStepHandler(handler);
+        integ.integrate(pb, pb.getInitialTime(), pb.getInitialState(),
+                        pb.getFinalTime(), new double[pb.getDimension()]);
+
+        Assert.assertEquals(0, handler.getLastError(), ACCURACY);
+        Assert.assertEquals(0, handler.getMaximalValueError(), DENSE_ACCURACY);
+        Assert.assertEquals(0, handler.getMaximalTimeError(), 1.0e-12);
+    }
+
+    @Test
+    public void testBackward()
+        throws DimensionMismatchException, NumberIsTooSmallException,
+               MaxCountExceededException, NoBracketingException {
+        TestProblem5 pb = new TestProblem5();
+        ROS34PW2Integrator integ = new ROS34PW2Integrator(0, pb.getInitialTime() - pb.getFinalTime(),
+                                                  1.0e-8, 1.0e-8);
+        TestProblemHandler handler = new TestProblemHandler(pb, integ);
+        integ.addStepHandler(handler);
+        integ.integrate(pb, pb.getInitialTime(), pb.getInitialState(),
+                        pb.getFinalTime(), new double[pb.getDimension()]);
+
+        Assert.assertEquals(0, handler.getLastError(), BACKWARD_ACCURACY);
+        Assert.assertEquals(0, handler.getMaximalValueError(), BACKWARD_ACCURACY);
+        Assert.assertEquals(pb.getFinalTime(), handler.getLastTime(), 1.0e-12);
+    }
+
+    @Test
+    public void testEvents()
+        throws DimensionMismatchException, NumberIsTooSmallException,
+               MaxCountExceededException, NoBracketingException {
+        TestProblem4 pb = new TestProblem4();
+        ROS34PW2Integrator integ = new ROS34PW2Integrator(0, pb.getFinalTime() - pb.getInitialTime(),
+                                                  1.0e-10, 1.0e-10);
+        TestProblemHandler handler = new TestProblemHandler(pb, integ);
+        integ.addStepHandler(handler);
+        for (EventHandler functions : pb.getEventsHandlers()) {
+            integ.addEventHandler(functions, 0.1, 1.0e-8, 1000);
+        }
+        integ.integrate(pb, pb.getInitialTime(), pb.getInitialState(),
+                        pb.getFinalTime(), new double[pb.getDimension()]);
+
+        Assert.assertEquals(0, handler.getMaximalValueError(), 1.0e-7);
+        Assert.assertEquals(0, handler.getMaximalTimeError(), 1.0e-8);
+        Assert.assertEquals(12.0, handler.getLastTime(), 1.0e-8);
+    }
+
+    @Test
+    public void testStiff() {
+        ROS34PW2Integrator integ = new ROS34PW2Integrator(0, 40, 1.0e-10, 1.0e-6);
+        StepCounter counter = new StepCounter();
+        integ.addStepHandler(counter);
+        double[] y = new double[3];
+        integ.integrate(new Robertson(), 0, Robertson.initialState(), 40, y);
+        for (int i = 0; i < y.length; ++i) {
+            Assert.assertEquals(Robertson.Y40[i], y[i], 1.0e-4 * Robertson.Y40[i]);
+        }
+
+        // an explicit integrator needs far more steps on the same problem
+        DormandPrince54Integrator explicit = new DormandPrince54Integrator(0, 40, 1.0e-10, 1.0e-6);
+        StepCounter explicitCounter = new StepCounter();
+        explicit.addStepHandler(explicitCounter);
+        explicit.integrate(new Robertson(), 0, Robertson.initialState(), 40, new double[3]);
+        Assert.assertTrue(counter.steps * 10 < explicitCounter.steps);
+
+        // the LU decomposition is reused across steps
+        Assert.assertTrue(integ.getFactorizations() < counter.steps);
+        Assert.assertTrue(integ.getJacobianEvaluations() < counter.steps);
+    }
+
+    @Test
+    public void testAnalyticJacobian() {
+        ROS34PW2Integrator integ = new ROS34PW2Integrator(0, 40, 1.0e-10, 1.0e-6);
+        Robertson.WithJacobian pb = new Robertson.WithJacobian();
+        double[] y = new double[3];
+        integ.integrate(pb, 0, Robertson.initialState(), 40, y);
+        for (int i = 0; i < y.length; ++i) {
+            Assert.assertEquals(Robertson.Y40[i], y[i], 1.0e-4 * Robertson.Y40[i]);
+        }
+        Assert.assertTrue(pb.getEvaluations() > 0);
+        Assert.assertEquals(integ.getJacobianEvaluations(), pb.getEvaluations());
+    }
+
+    @Test
+    public void testName() {
+        ROS34PW2Integrator integ = new ROS34PW2Integrator(0, 1, 1.0e-6, 1.0e-6);
+        Assert.assertEquals("ROS34PW2", integ.getName());
+        Assert.assertEquals(3, integ.getOrder());
+    }
+
+    private static final double ACCURACY = 1.0e-6;
+    // the solution grows by a factor e^4 when integrating backward
+    private static final double BACKWARD_ACCURACY = 5.0e-6;
+    private static final double DENSE_ACCURACY = 1.0e-5;
+
+    private static final class StepCounter implements StepHandler {
+        private int steps;
+
+        @Override
+        public void init(double t0, double[] y0, double t) {
+            steps = 0;
+        }
+
+        @Override
+        public void handleStep(StepInterpolator interpolator, boolean isLast) {
+            ++steps;
+        }
+    }
+}
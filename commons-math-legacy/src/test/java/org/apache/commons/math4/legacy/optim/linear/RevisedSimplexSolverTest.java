@@ -0,0 +1,433 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.optim.linear;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.apache.commons.rng.UniformRandomProvider;
+import org.apache.commons.rng.simple.RandomSource;
+import org.apache.commons.math4.legacy.exception.DimensionMismatchException;
+import org.apache.commons.math4.legacy.exception.TooManyIterationsException;
+import org.apache.commons.math4.legacy.linear.OpenMapRealVector;
+import org.apache.commons.math4.legacy.optim.MaxIter;
+import org.apache.commons.math4.legacy.optim.PointValuePair;
+import org.apache.commons.math4.legacy.optim.SimpleBounds;
+import org.apache.commons.math4.legacy.optim.nonlinear.scalar.GoalType;
+
+/**
+ * Tests for {@link RevisedSimplexSolver}.
+ */
+public class RevisedSimplexSolverTest {
+    private static final MaxIter DEFAULT_MAX_ITER = new MaxIter(100);
+
+    @Test
+    public void testMath842Cycle() {
+        LinearObjectiveFunction f = new LinearObjectiveFunction(new double[] { 10, -57, -9, -24}, 0);
+        List<LinearConstraint> constraints = new ArrayList<>();
+        constraints.add(new LinearConstraint(new double[] {0.5, -5.5, -2.5, 9}, Relationship.LEQ, 0));
+        constraints.add(new LinearConstraint(new double[] {0.5, -1.5, -0.5, 1}, Relationship.LEQ, 0));
+        constraints.add(new LinearConstraint(new double[] {  1,    0,    0, 0}, Relationship.LEQ, 1));
+
+        for (PivotSelectionRule rule : PivotSelectionRule.values()) {
+            PointValuePair solution = new RevisedSimplexSolver().optimize(DEFAULT_MAX_ITER, f,
+                                                                          new LinearConstraintSet(constraints),
+                                                                          GoalType.MAXIMIZE,
+                                                                          new NonNegativeConstraint(true),
+                                                                          rule);
+            Assert.assertEquals(1.0, solution.getValue(), 1e-6);
+            Assert.assertTrue(validSolution(solution, constraints, 1e-6));
+        }
+    }
+
+    @Test
+    public void testMath272() {
+        LinearObjectiveFunction f = new LinearObjectiveFunction(new double[] { 2, 2, 1 }, 0);
+        Collection<LinearConstraint> constraints = new ArrayList<>();
+        constraints.add(new LinearConstraint(new double[] { 1, 1, 0 }, Relationship.GEQ,  1));
+        constraints.add(new LinearConstraint(new double[] { 1, 0, 1 }, Relationship.GEQ,  1));
+        constraints.add(new LinearConstraint(new double[] { 0, 1, 0 }, Relationship.GEQ,  1));
+
+        RevisedSimplexSolver solver = new RevisedSimplexSolver();
+        PointValuePair solution = solver.optimize(DEFAULT_MAX_ITER, f, new LinearConstraintSet(constraints),
+                                                  GoalType.MINIMIZE, new NonNegativeConstraint(true));
+
+        Assert.assertEquals(0.0, solution.getPoint()[0], 1e-7);
+        Assert.assertEquals(1.0, solution.getPoint()[1], 1e-7);
+        Assert.assertEquals(1.0, solution.getPoint()[2], 1e-7);
+        Assert.assertEquals(3.0, solution.getValue(), 1e-7);
+    }
+
+    @Test
+    public void testMath293() {
+        LinearObjectiveFunction f = new LinearObjectiveFunction(new double[] { 0.8, 0.2, 0.7, 0.3, 0.4, 0.6}, 0 );
+        Collection<LinearConstraint> constraints = new ArrayList<>();
+        constraints.add(new LinearConstraint(new double[] { 1, 0, 1, 0, 1, 0 }, Relationship.EQ, 30.0));
+        constraints.add(new LinearConstraint(new double[] { 0, 1, 0, 1, 0, 1 }, Relationship.EQ, 30.0));
+        constraints.add(new LinearConstraint(new double[] { 0.8, 0.2, 0.0, 0.0, 0.0, 0.0 }, Relationship.GEQ, 10.0));
+        constraints.add(new LinearConstraint(new double[] { 0.0, 0.0, 0.7, 0.3, 0.0, 0.0 }, Relationship.GEQ, 10.0));
+        constraints.add(new LinearConstraint(new double[] { 0.0, 0.0, 0.0, 0.0, 0.4, 0.6 }, Relationship.GEQ, 10.0));
+
+        RevisedSimplexSolver solver = new RevisedSimplexSolver();
+        PointValuePair solution = solver.optimize(DEFAULT_MAX_ITER, f, new LinearConstraintSet(constraints),
+                                                  GoalType.MAXIMIZE, new NonNegativeConstraint(true));
+
+        Assert.assertEquals(15.7143, solution.getPoint()[0], 1e-4);
+        Assert.assertEquals(0.0, solution.getPoint()[1], 1e-4);
+        Assert.assertEquals(14.2857, solution.getPoint()[2], 1e-4);
+        Assert.assertEquals(0.0, solution.getPoint()[3], 1e-4);
+        Assert.assertEquals(0.0, solution.getPoint()[4], 1e-4);
+        Assert.assertEquals(30.0, solution.getPoint()[5], 1e-4);
+        Assert.assertEquals(40.57143, solution.getValue(), 1e-4);
+    }
+
+    @Test
+    public void testRestrictVariablesToNonNegative() {
+        LinearObjectiveFunction f = new LinearObjectiveFunction(new double[] { 409, 523, 70, 204, 339 }, 0);
+        Collection<LinearConstraint> constraints = new ArrayList<>();
+        constraints.add(new LinearConstraint(new double[] {    43,   56, 345,  56,    5 }, Relationship.LEQ,  4567456));
+        constraints.add(new LinearConstraint(new double[] {    12,   45,   7,  56,   23 }, Relationship.LEQ,    56454));
+        constraints.add(new LinearConstraint(new double[] {     8,  768,   0,  34, 7456 }, Relationship.LEQ,  1923421));
+        constraints.add(new LinearConstraint(new double[] { 12342, 2342,  34, 678, 2342 }, Relationship.GEQ,     4356));
+        constraints.add(new LinearConstraint(new double[] {    45,  678,  76,  52,   23 }, Relationship.EQ,    456356));
+
+        RevisedSimplexSolver solver = new RevisedSimplexSolver();
+        PointValuePair solution = solver.optimize(DEFAULT_MAX_ITER, f, new LinearConstraintSet(constraints),
+                                                  GoalType.MAXIMIZE, new NonNegativeConstraint(true));
+        Assert.assertEquals(2902.92783505155, solution.getPoint()[0], 1e-7);
+        Assert.assertEquals(480.419243986254, solution.getPoint()[1], 1e-7);
+        Assert.assertEquals(0.0, solution.getPoint()[2], 1e-7);
+        Assert.assertEquals(0.0, solution.getPoint()[3], 1e-7);
+        Assert.assertEquals(0.0, solution.getPoint()[4], 1e-7);
+        Assert.assertEquals(1438556.7491409, solution.getValue(), 1e-6);
+    }
+
+    @Test
+    public void testSolutionWithNegativeDecisionVariable() {
+        LinearObjectiveFunction f = new LinearObjectiveFunction(new double[] { -2, 1 }, 0);
+        Collection<LinearConstraint> constraints = new ArrayList<>();
+        constraints.add(new LinearConstraint(new double[] { 1, 1 }, Relationship.GEQ, 6));
+        constraints.add(new LinearConstraint(new double[] { 1, 2 }, Relationship.LEQ, 14));
+
+        RevisedSimplexSolver solver = new RevisedSimplexSolver();
+        PointValuePair solution = solver.optimize(DEFAULT_MAX_ITER, f, new LinearConstraintSet(constraints),
+                                                  GoalType.MAXIMIZE, new NonNegativeConstraint(false));
+        Assert.assertEquals(-2.0, solution.getPoint()[0], 1e-12);
+        Assert.assertEquals(8.0, solution.getPoint()[1], 1e-12);
+        Assert.assertEquals(12.0, solution.getValue(), 1e-12);
+    }
+
+    @Test
+    public void testRedundantEqualities() {
+        LinearObjectiveFunction f = new LinearObjectiveFunction(new double[] { 1, 2, 3 }, 0);
+        Collection<LinearConstraint> constraints = new ArrayList<>();
+        constraints.add(new LinearConstraint(new double[] { 1, 1, 1 }, Relationship.EQ, 6));
+        constraints.add(new LinearConstraint(new double[] { 2, 2, 2 }, Relationship.EQ, 12));
+        constraints.add(new LinearConstraint(new double[] { 1, 0, 0 }, Relationship.LEQ, 2));
+
+        RevisedSimplexSolver solver = new RevisedSimplexSolver();
+        PointValuePair solution = solver.optimize(DEFAULT_MAX_ITER, f, new LinearConstraintSet(constraints),
+                                                  GoalType.MINIMIZE, new NonNegativeConstraint(true));
+        Assert.assertEquals(2, solution.getPoint()[0], 1e-10);
+        Assert.assertEquals(4, solution.getPoint()[1], 1e-10);
+        Assert.assertEquals(0, solution.getPoint()[2], 1e-10);
+        Assert.assertEquals(10, solution.getValue(), 1e-10);
+    }
+
+    @Test
+    public void testBounds() {
+        // minimize -x - 2 y subject to x + y <= 3, with 0 <= x <= 1 and -1 <= y <= 1.5.
+        LinearObjectiveFunction f = new LinearObjectiveFunction(new double[] { -1, -2 }, 0);
+        Collection<LinearConstraint> constraints = new ArrayList<>();
+        constraints.add(new LinearConstraint(new double[] { 1, 1 }, Relationship.LEQ, 3));
+
+        RevisedSimplexSolver solver = new RevisedSimplexSolver();
+        PointValuePair solution = solver.optimize(DEFAULT_MAX_ITER, f, new LinearConstraintSet(constraints),
+                                                  new SimpleBounds(new double[] { 0, -1 },
+                                                                   new double[] { 1, 1.5 }));
+        Assert.assertEquals(1, solution.getPoint()[0], 0);
+        Assert.assertEquals(1.5, solution.getPoint()[1], 0);
+        Assert.assertEquals(-4, solution.getValue(), 0);
+
+        // The constraint becomes active.
+        solution = solver.optimize(DEFAULT_MAX_ITER, f, new LinearConstraintSet(constraints),
+                                   new SimpleBounds(new double[] { 0, -1 },
+                                                    new double[] { 2, 2.5 }));
+        Assert.assertEquals(0.5, solution.getPoint()[0], 1e-12);
+        Assert.assertEquals(2.5, solution.getPoint()[1], 1e-12);
+        Assert.assertEquals(-5.5, solution.getValue(), 1e-12);
+    }
+
+    @Test
+    public void testBoundsCombinedWithNonNegativeConstraint() {
+        LinearObjectiveFunction f = new LinearObjectiveFunction(new double[] { 1, 1 }, 0);
+        Collection<LinearConstraint> constraints = new ArrayList<>();
+        constraints.add(new LinearConstraint(new double[] { 1, -1 }, Relationship.LEQ, 1));
+
+        RevisedSimplexSolver solver = new RevisedSimplexSolver();
+        PointValuePair solution = solver.optimize(DEFAULT_MAX_ITER, f, new LinearConstraintSet(constraints),
+                                                  new NonNegativeConstraint(true),
+                                                  new SimpleBounds(new double[] { -5, -5 },
+                                                                   new double[] { 5, 5 }));
+        Assert.assertEquals(0, solution.getPoint()[0], 0);
+        Assert.assertEquals(0, solution.getPoint()[1], 0);
+    }
+
+    @Test
+    public void testNoConstraints() {
+        LinearObjectiveFunction f = new LinearObjectiveFunction(new double[] { 1, -1 }, 3);
+        RevisedSimplexSolver solver = new RevisedSimplexSolver();
+        PointValuePair solution = solver.optimize(DEFAULT_MAX_ITER, f,
+                                                  new LinearConstraintSet(new ArrayList<LinearConstraint>()),
+                                                  new SimpleBounds(new double[] { 2, 2 },
+                                                                   new double[] { 5, 7 }));
+        Assert.assertEquals(2, solution.getPoint()[0], 0);
+        Assert.assertEquals(7, solution.getPoint()[1], 0);
+        Assert.assertEquals(-2, solution.getValue(), 0);
+    }
+
+    @Test(expected = NoFeasibleSolutionException.class)
+    public void testInfeasibleSolution() {
+        LinearObjectiveFunction f = new LinearObjectiveFunction(new double[] { 15 }, 0);
+        Collection<LinearConstraint> constraints = new ArrayList<>();
+        constraints.add(new LinearConstraint(new double[] { 1 }, Relationship.LEQ, 1));
+        constraints.add(new LinearConstraint(new double[] { 1 }, Relationship.GEQ, 3));
+
+        new RevisedSimplexSolver().optimize(DEFAULT_MAX_ITER, f, new LinearConstraintSet(constraints),
+                                            GoalType.MAXIMIZE, new NonNegativeConstraint(false));
+    }
+
+    @Test(expected = NoFeasibleSolutionException.class)
+    public void testInfeasibleBounds() {
+        LinearObjectiveFunction f = new LinearObjectiveFunction(new double[] { 1, 1 }, 0);
+        Collection<LinearConstraint> constraints = new ArrayList<>();
+        constraints.add(new LinearConstraint(new double[] { 1, 1 }, Relationship.GEQ, 5));
+
+        new RevisedSimplexSolver().optimize(DEFAULT_MAX_ITER, f, new LinearConstraintSet(constraints),
+                                            new SimpleBounds(new double[] { 0, 0 },
+                                                             new double[] { 2, 2 }));
+    }
+
+    @Test(expected = NoFeasibleSolutionException.class)
+    public void testMath290LEQ() {
+        LinearObjectiveFunction f = new LinearObjectiveFunction(new double[] { 1, 5 }, 0 );
+        Collection<LinearConstraint> constraints = new ArrayList<>();
+        constraints.add(new LinearConstraint(new double[] { 2, 0 }, Relationship.LEQ, -1.0));
+        new RevisedSimplexSolver().optimize(DEFAULT_MAX_ITER, f, new LinearConstraintSet(constraints),
+                                            GoalType.MINIMIZE, new NonNegativeConstraint(true));
+    }
+
+    @Test(expected = UnboundedSolutionException.class)
+    public void testUnboundedSolution() {
+        LinearObjectiveFunction f = new LinearObjectiveFunction(new double[] { 15, 10 }, 0);
+        Collection<LinearConstraint> constraints = new ArrayList<>();
+        constraints.add(new LinearConstraint(new double[] { 1, 0 }, Relationship.EQ, 2));
+
+        new RevisedSimplexSolver().optimize(DEFAULT_MAX_ITER, f, new LinearConstraintSet(constraints),
+                                            GoalType.MAXIMIZE, new NonNegativeConstraint(false));
+    }
+
+    @Test(expected = DimensionMismatchException.class)
+    public void testDimensionMatch() {
+        LinearObjectiveFunction f = new LinearObjectiveFunction(new double[] { 1, 1 }, 0);
+        Collection<LinearConstraint> constraints = new ArrayList<>();
+        constraints.add(new LinearConstraint(new double[] { 1, 1, 1 }, Relationship.LEQ, 5));
+
+        new RevisedSimplexSolver().optimize(DEFAULT_MAX_ITER, f, new LinearConstraintSet(constraints));
+    }
+
+    @Test(expected = TooManyIterationsException.class)
+    public void testMaxIter() {
+        final UniformRandomProvider rng = RandomSource.XO_RO_SHI_RO_128_PP.create(4L);
+        final Problem p = randomProblem(rng, 30, 40, 0.3);
+        new RevisedSimplexSolver().optimize(new MaxIter(3), p.function, new LinearConstraintSet(p.constraints),
+                                            GoalType.MAXIMIZE, p.bounds);
+    }
+
+    @Test
+    public void testRandomProblemsMatchSimplexSolver() {
+        final UniformRandomProvider rng = RandomSource.XO_RO_SHI_RO_128_PP.create(123L);
+        for (int k = 0; k < 30; k++) {
+            final Problem p = randomProblem(rng, 5 + rng.nextInt(20), 5 + rng.nextInt(20), 0.3);
+            for (GoalType goal : GoalType.values()) {
+                final PointValuePair revised =
+                    new RevisedSimplexSolver().optimize(new MaxIter(1000), p.function,
+                                                        new LinearConstraintSet(p.constraints),
+                                                        goal, p.bounds);
+                final PointValuePair dense =
+                    new SimplexSolver().optimize(new MaxIter(1000), p.function,
+                                                 new LinearConstraintSet(p.boundsAsConstraints()),
+                                                 goal, new NonNegativeConstraint(true));
+                Assert.assertEquals(dense.getValue(), revised.getValue(),
+                                    1e-9 * (1 + Math.abs(dense.getValue())));
+                Assert.assertTrue(validSolution(revised, p.boundsAsConstraints(), 1e-9));
+            }
+        }
+    }
+
+    @Test
+    public void testLargeSparseProblem() {
+        // Transportation problem: "n" sources, "n" sinks and a cost per route.
+        final int n = 40;
+        final UniformRandomProvider rng = RandomSource.XO_RO_SHI_RO_128_PP.create(17L);
+        final double[] cost = new double[n * n];
+        for (int i = 0; i < cost.length; i++) {
+            cost[i] = 1 + rng.nextInt(100);
+        }
+        final List<LinearConstraint> constraints = new ArrayList<>();
+        double total = 0;
+        for (int i = 0; i < n; i++) {
+            final OpenMapRealVector a = new OpenMapRealVector(n * n);
+            for (int j = 0; j < n; j++) {
+                a.setEntry(i * n + j, 1);
+            }
+            final double supply = 10 + rng.nextInt(10);
+            total += supply;
+            constraints.add(new LinearConstraint(a, Relationship.LEQ, supply));
+        }
+        for (int j = 0; j < n; j++) {
+            final OpenMapRealVector a = new OpenMapRealVector(n * n);
+            for (int i = 0; i < n; i++) {
+                a.setEntry(i * n + j, 1);
+            }
+            constraints.add(new LinearConstraint(a, Relationship.EQ, Math.floor(0.9 * total / n)));
+        }
+        final LinearObjectiveFunction f = new LinearObjectiveFunction(cost, 0);
+
+        final PointValuePair revised = new RevisedSimplexSolver().optimize(new MaxIter(10000), f,
+                                                                           new LinearConstraintSet(constraints),
+                                                                           new NonNegativeConstraint(true));
+        Assert.assertTrue(validSolution(revised, constraints, 1e-9));
+
+        final PointValuePair dense = new SimplexSolver().optimize(new MaxIter(10000), f,
+                                                                  new LinearConstraintSet(constraints),
+                                                                  new NonNegativeConstraint(true));
+        Assert.assertEquals(dense.getValue(), revised.getValue(), 1e-9 * dense.getValue());
+    }
+
+    /**
+     * @param rng Generator.
+     * @param m Number of constraints.
+     * @param n Number of variables.
+     * @param density Probability for a coefficient to be non-zero.
+     * @return a feasible problem whose variables are bounded.
+     */
+    private static Problem randomProblem(UniformRandomProvider rng,
+                                         int m,
+                                         int n,
+                                         double density) {
+        final double[] lower = new double[n];
+        final double[] upper = new double[n];
+        final double[] feasible = new double[n];
+        for (int j = 0; j < n; j++) {
+            lower[j] = rng.nextBoolean() ? 0 : rng.nextInt(3);
+            upper[j] = lower[j] + 1 + rng.nextInt(10);
+            feasible[j] = lower[j] + rng.nextDouble() * (upper[j] - lower[j]);
+        }
+        final double[] c = new double[n];
+        for (int j = 0; j < n; j++) {
+            c[j] = rng.nextInt(21) - 10;
+        }
+        final List<LinearConstraint> constraints = new ArrayList<>();
+        for (int i = 0; i < m; i++) {
+            final double[] a = new double[n];
+            double ax = 0;
+            for (int j = 0; j < n; j++) {
+                if (rng.nextDouble() < density) {
+                    a[j] = rng.nextInt(19) - 9;
+                    ax += a[j] * feasible[j];
+                }
+            }
+            final Relationship r = Relationship.values()[rng.nextInt(3)];
+            final double b = r == Relationship.EQ ? ax :
+                r == Relationship.LEQ ? Math.ceil(ax) : Math.floor(ax);
+            constraints.add(new LinearConstraint(a, r, b));
+        }
+        return new Problem(new LinearObjectiveFunction(c, 0), constraints, new SimpleBounds(lower, upper));
+    }
+
+    /**
+     * @param solution Solution.
+     * @param constraints Constraints.
+     * @param tol Tolerance.
+     * @return whether the solution satisfies the constraints.
+     */
+    private static boolean validSolution(PointValuePair solution,
+                                         Collection<LinearConstraint> constraints,
+                                         double tol) {
+        final double[] x = solution.getPoint();
+        for (LinearConstraint c : constraints) {
+            final double ax = c.getCoefficients().dotProduct(new OpenMapRealVector(x));
+            final double scale = tol * (1 + Math.abs(c.getValue()));
+            switch (c.getRelationship()) {
+            case LEQ:
+                if (ax > c.getValue() + scale) {
+                    return false;
+                }
+                break;
+            case GEQ:
+                if (ax < c.getValue() - scale) {
+                    return false;
+                }
+                break;
+            default:
+                if (Math.abs(ax - c.getValue()) > scale) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /** Random problem. */
+    private static final class Problem {
+        /** Objective. */
+        private final LinearObjectiveFunction function;
+        /** Constraints. */
+        private final List<LinearConstraint> constraints;
+        /** Bounds. */
+        private final SimpleBounds bounds;
+
+        Problem(LinearObjectiveFunction function,
+                List<LinearConstraint> constraints,
+                SimpleBounds bounds) {
+            this.function = function;
+            this.constraints = constraints;
+            this.bounds = bounds;
+        }
+
+        /**
+         * @return the constraints, including the bounds (except the
+         * non-negativity constraints).
+         */
+        List<LinearConstraint> boundsAsConstraints() {
+            final List<LinearConstraint> all = new ArrayList<>(constraints);
+            final int n = bounds.getLower().length;
+            for (int j = 0; j < n; j++) {
+                final double[] e = new double[n];
+                e[j] = 1;
+                all.add(new LinearConstraint(e, Relationship.GEQ, bounds.getLower()[j]));
+                all.add(new LinearConstraint(e, Relationship.LEQ, bounds.getUpper()[j]));
+            }
+            return all;
+        }
+    }
+}
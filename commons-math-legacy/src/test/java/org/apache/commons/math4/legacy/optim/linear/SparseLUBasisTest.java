@@ -0,0 +1,242 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.optim.linear;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.apache.commons.rng.UniformRandomProvider;
+import org.apache.commons.rng.simple.RandomSource;
+
+/**
+ * Tests for {@link SparseLUBasis}.
+ */
+public class SparseLUBasisTest {
+    @Test
+    public void testSolve() {
+        final UniformRandomProvider rng = RandomSource.XO_RO_SHI_RO_128_PP.create(1L);
+        final int m = 30;
+        final Columns a = randomColumns(rng, m, 2 * m, 0.1);
+        final SparseLUBasis lu = new SparseLUBasis(m, a.start, a.row, a.value);
+        final int[] basis = identityBasis(m);
+        Assert.assertNull(lu.factorize(basis));
+        checkSolves(rng, lu, a, basis);
+    }
+
+    @Test
+    public void testUpdates() {
+        final UniformRandomProvider rng = RandomSource.XO_RO_SHI_RO_128_PP.create(2L);
+        final int m = 25;
+        final Columns a = randomColumns(rng, m, 4 * m, 0.15);
+        final SparseLUBasis lu = new SparseLUBasis(m, a.start, a.row, a.value);
+        final int[] basis = identityBasis(m);
+        Assert.assertNull(lu.factorize(basis));
+
+        final double[] col = new double[m];
+        final double[] alpha = new double[m];
+        int done = 0;
+        for (int k = 0; k < 500 && done < 60; k++) {
+            // Enter a random non-basic column at a position where it has a
+            // large enough pivot.
+            final int q = m + rng.nextInt(3 * m);
+            if (contains(basis, q)) {
+                continue;
+            }
+            a.dense(q, col);
+            lu.ftran(col, alpha, true);
+            int p = -1;
+            for (int i = 0; i < m; i++) {
+                if (Math.abs(alpha[i]) > 0.5 && (p < 0 || rng.nextBoolean())) {
+                    p = i;
+                }
+            }
+            if (p < 0) {
+                continue;
+            }
+            basis[p] = q;
+            Assert.assertTrue(lu.update(p));
+            ++done;
+            Assert.assertEquals(done, lu.getUpdateCount());
+            checkSolves(rng, lu, a, basis);
+        }
+        Assert.assertEquals(60, done);
+
+        // Factorization from scratch of the final basis.
+        Assert.assertNull(lu.factorize(basis));
+        Assert.assertEquals(0, lu.getUpdateCount());
+        checkSolves(rng, lu, a, basis);
+    }
+
+    @Test
+    public void testSingularBasis() {
+        final int m = 3;
+        // Columns: e0, e1, e2, then (1, 1, 0) and (2, 2, 0).
+        final Columns a = new Columns(new int[] { 0, 1, 2, 3, 5, 7 },
+                                      new int[] { 0, 1, 2, 0, 1, 0, 1 },
+                                      new double[] { 1, 1, 1, 1, 1, 2, 2 });
+        final SparseLUBasis lu = new SparseLUBasis(m, a.start, a.row, a.value);
+        final int[] basis = { 3, 4, 2 };
+        final int[] replacement = lu.factorize(basis);
+        Assert.assertNotNull(replacement);
+        int replaced = -1;
+        for (int p = 0; p < m; p++) {
+            if (replacement[p] >= 0) {
+                Assert.assertEquals(-1, replaced);
+                replaced = p;
+            }
+        }
+        Assert.assertTrue(replaced == 0 || replaced == 1);
+        // The factorization is that of the basis with the unit column.
+        basis[replaced] = replacement[replaced];
+        checkSolves(RandomSource.XO_RO_SHI_RO_128_PP.create(3L), lu, a, basis);
+    }
+
+    /**
+     * Checks the solutions of {@code B x = b} and {@code B^T y = c}.
+     *
+     * @param rng Generator.
+     * @param lu Factorization.
+     * @param a Matrix.
+     * @param basis Basis.
+     */
+    private static void checkSolves(UniformRandomProvider rng,
+                                    SparseLUBasis lu,
+                                    Columns a,
+                                    int[] basis) {
+        final int m = basis.length;
+        final double[][] b = new double[m][m];
+        final double[] col = new double[m];
+        for (int p = 0; p < m; p++) {
+            a.dense(basis[p], col);
+            for (int i = 0; i < m; i++) {
+                b[i][p] = col[i];
+            }
+        }
+
+        final double[] rhs = new double[m];
+        for (int i = 0; i < m; i++) {
+            rhs[i] = rng.nextDouble() - 0.5;
+        }
+        final double[] x = new double[m];
+        lu.ftran(rhs, x, false);
+        for (int i = 0; i < m; i++) {
+            double s = 0;
+            for (int p = 0; p < m; p++) {
+                s += b[i][p] * x[p];
+            }
+            Assert.assertEquals(rhs[i], s, 1e-10);
+        }
+
+        final double[] y = new double[m];
+        lu.btran(rhs, y);
+        for (int p = 0; p < m; p++) {
+            double s = 0;
+            for (int i = 0; i < m; i++) {
+                s += b[i][p] * y[i];
+            }
+            Assert.assertEquals(rhs[p], s, 1e-10);
+        }
+    }
+
+    /**
+     * @param rng Generator.
+     * @param m Number of rows.
+     * @param n Number of columns in addition to the identity.
+     * @param density Probability for an entry to be non-zero.
+     * @return a matrix whose first {@code m} columns are the identity.
+     */
+    private static Columns randomColumns(UniformRandomProvider rng,
+                                         int m,
+                                         int n,
+                                         double density) {
+        final int[] start = new int[m + n + 1];
+        final int[] row = new int[m + n * m];
+        final double[] value = new double[row.length];
+        int k = 0;
+        for (int j = 0; j < m + n; j++) {
+            start[j] = k;
+            for (int i = 0; i < m; i++) {
+                if (j < m ? i == j : rng.nextDouble() < density) {
+                    row[k] = i;
+                    value[k] = j < m ? 1 : rng.nextDouble() * 4 - 2;
+                    ++k;
+                }
+            }
+        }
+        start[m + n] = k;
+        return new Columns(start, row, value);
+    }
+
+    /**
+     * @param m Size.
+     * @return the indices of the first {@code m} columns.
+     */
+    private static int[] identityBasis(int m) {
+        final int[] basis = new int[m];
+        for (int i = 0; i < m; i++) {
+            basis[i] = i;
+        }
+        return basis;
+    }
+
+    /**
+     * @param a Array.
+     * @param v Value.
+     * @return whether the array contains the value.
+     */
+    private static boolean contains(int[] a,
+                                    int v) {
+        for (final int e : a) {
+            if (e == v) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Matrix in compressed sparse column format. */
+    private static final class Columns {
+        /** Start of each column. */
+        private final int[] start;
+        /** Row indices. */
+        private final int[] row;
+        /** Values. */
+        private final double[] value;
+
+        Columns(int[] start,
+                int[] row,
+                double[] value) {
+            this.start = start;
+            this.row = row;
+            this.value = value;
+        }
+
+        /**
+         * @param j Column.
+         * @param out Dense column (overwritten).
+         */
+        void dense(int j,
+                   double[] out) {
+            Arrays.fill(out, 0);
+            for (int k = start[j]; k < start[j + 1]; k++) {
+                out[row[k]] = value[k];
+            }
+        }
+    }
+}
@@ -16,6 +16,8 @@
  */
 package org.apache.commons.math4.legacy.optim.nonlinear.scalar;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.Supplier;
 import org.apache.commons.geometry.euclidean.twod.Vector2D;
 import org.apache.commons.math4.legacy.analysis.MultivariateFunction;
@@ -23,6 +25,7 @@ import org.apache.commons.math4.legacy.optim.InitialGuess;
 import org.apache.commons.math4.legacy.optim.MaxEval;
 import org.apache.commons.math4.legacy.optim.PointValuePair;
 import org.apache.commons.math4.legacy.optim.SimpleValueChecker;
+import org.apache.commons.math4.legacy.optim.TargetValue;
 import org.apache.commons.math4.legacy.optim.nonlinear.scalar.gradient.CircleScalar;
 import org.apache.commons.math4.legacy.optim.nonlinear.scalar.gradient.NonLinearConjugateGradientOptimizer;
 import org.apache.commons.math4.legacy.optim.nonlinear.scalar.noderiv.NelderMeadTransform;
@@ -111,6 +114,116 @@ public class MultiStartMultivariateOptimizerTest {
         Assert.assertTrue("optimum=" + optimum.getValue(), optimum.getValue() < 5e-5);
     }
 
+    @Test
+    public void testConcurrentStartsMatchSequentialStarts() {
+        final MultivariateFunction f = x -> {
+            final double a = x[1] - x[0] * x[0];
+            final double b = 1 - x[0];
+            return 100 * a * a + b * b;
+        };
+        final Simplex simplex = Simplex.of(new double[][] {
+                { -1.2,  1.0 },
+                { 0.9, 1.2 } ,
+                {  3.5, -2.3 }
+            });
+        final int nbStarts = 8;
+
+        final MultiStartMultivariateOptimizer sequential
+            = new MultiStartMultivariateOptimizer(new SimplexOptimizer(new SimpleValueChecker(-1, 1e-6)),
+                                                  nbStarts,
+                                                  gaussianRandom(new double[] { 0, 0 },
+                                                                 new double[] { 1, 1 },
+                                                                 RandomSource.MT_64.create(1234L)));
+        final PointValuePair expected
+            = sequential.optimize(new MaxEval(100000),
+                                  new ObjectiveFunction(f),
+                                  GoalType.MINIMIZE,
+                                  simplex,
+                                  new NelderMeadTransform(),
+                                  new InitialGuess(new double[] { -1.2, 1.0 }));
+
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final MultiStartMultivariateOptimizer concurrent
+                = new MultiStartMultivariateOptimizer(() -> new SimplexOptimizer(new SimpleValueChecker(-1, 1e-6)),
+                                                      nbStarts,
+                                                      gaussianRandom(new double[] { 0, 0 },
+                                                                     new double[] { 1, 1 },
+                                                                     RandomSource.MT_64.create(1234L)),
+                                                      executor);
+            final PointValuePair actual
+                = concurrent.optimize(new MaxEval(100000),
+                                      new ObjectiveFunction(f),
+                                      GoalType.MINIMIZE,
+                                      simplex,
+                                      new NelderMeadTransform(),
+                                      new InitialGuess(new double[] { -1.2, 1.0 }));
+
+            Assert.assertArrayEquals(expected.getPoint(), actual.getPoint(), 0);
+            Assert.assertEquals(expected.getValue(), actual.getValue(), 0);
+            Assert.assertEquals(sequential.getEvaluations(), concurrent.getEvaluations());
+            final PointValuePair[] expectedOptima = sequential.getOptima();
+            final PointValuePair[] actualOptima = concurrent.getOptima();
+            Assert.assertEquals(expectedOptima.length, actualOptima.length);
+            for (int i = 0; i < expectedOptima.length; i++) {
+                Assert.assertEquals(expectedOptima[i].getValue(), actualOptima[i].getValue(), 0);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testTargetValueStopsRemainingStarts() {
+        final MultivariateFunction f = x -> x[0] * x[0] + x[1] * x[1];
+        final int nbStarts = 20;
+        final MultiStartMultivariateOptimizer optimizer
+            = new MultiStartMultivariateOptimizer(() -> new SimplexOptimizer(new SimpleValueChecker(-1, 1e-10)),
+                                                  nbStarts,
+                                                  gaussianRandom(new double[] { 0, 0 },
+                                                                 new double[] { 1, 1 },
+                                                                 RandomSource.MT_64.create(42L)),
+                                                  null);
+        final PointValuePair optimum
+            = optimizer.optimize(new MaxEval(100000),
+                                 new ObjectiveFunction(f),
+                                 GoalType.MINIMIZE,
+                                 Simplex.equalSidesAlongAxes(2, 0.5),
+                                 new NelderMeadTransform(),
+                                 new InitialGuess(new double[] { 1, 1 }),
+                                 new TargetValue(1e-6));
+        Assert.assertTrue(optimum.getValue() <= 1e-6);
+        // The first start reaches the target: the others are not run.
+        Assert.assertEquals(1, optimizer.getOptima().length);
+    }
+
+    @Test
+    public void testSharedEvaluationBudget() {
+        final MultivariateFunction f = x -> x[0] * x[0] + x[1] * x[1];
+        final int maxEval = 500;
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final MultiStartMultivariateOptimizer optimizer
+                = new MultiStartMultivariateOptimizer(() -> new SimplexOptimizer(new SimpleValueChecker(-1, 1e-12)),
+                                                      50,
+                                                      gaussianRandom(new double[] { 0, 0 },
+                                                                     new double[] { 1, 1 },
+                                                                     RandomSource.MT_64.create(42L)),
+                                                      executor);
+            final PointValuePair optimum
+                = optimizer.optimize(new MaxEval(maxEval),
+                                     new ObjectiveFunction(f),
+                                     GoalType.MINIMIZE,
+                                     Simplex.equalSidesAlongAxes(2, 0.5),
+                                     new NelderMeadTransform(),
+                                     new InitialGuess(new double[] { 1, 1 }));
+            Assert.assertTrue(optimum.getValue() < 1e-6);
+            Assert.assertEquals(maxEval, optimizer.getEvaluations());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     private static final class Rosenbrock implements MultivariateFunction {
         private int count;
 
@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.optim.nonlinear.scalar.gradient;
+
+import java.util.Arrays;
+
+import org.apache.commons.math4.legacy.exception.NotStrictlyPositiveException;
+import org.apache.commons.math4.legacy.optim.InitialGuess;
+import org.apache.commons.math4.legacy.optim.MaxEval;
+import org.apache.commons.math4.legacy.optim.PointValuePair;
+import org.apache.commons.math4.legacy.optim.SimpleBounds;
+import org.apache.commons.math4.legacy.optim.SimpleValueChecker;
+import org.apache.commons.math4.legacy.optim.nonlinear.scalar.GoalType;
+import org.apache.commons.math4.legacy.optim.nonlinear.scalar.ObjectiveFunction;
+import org.apache.commons.math4.legacy.optim.nonlinear.scalar.ObjectiveFunctionGradient;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link LBFGSBOptimizer}.
+ */
+public class LBFGSBOptimizerTest {
+    @Test(expected = NotStrictlyPositiveException.class)
+    public void testMemory() {
+        new LBFGSBOptimizer(-1, 1e-8, null);
+    }
+
+    @Test
+    public void testUnbounded() {
+        final LBFGSBOptimizer optimizer = new LBFGSBOptimizer(5, 1e-10, null);
+        final PointValuePair optimum =
+            optimizer.optimize(new MaxEval(1000),
+                               new ObjectiveFunction(TestFunctions::rosenbrock),
+                               new ObjectiveFunctionGradient(TestFunctions::rosenbrockGradient),
+                               GoalType.MINIMIZE,
+                               new InitialGuess(new double[] { -1.2, 1 }));
+        Assert.assertEquals(1, optimum.getPoint()[0], 1e-8);
+        Assert.assertEquals(1, optimum.getPoint()[1], 1e-8);
+        Assert.assertTrue(optimizer.getIterations() > 0);
+    }
+
+    @Test
+    public void testBoundedRosenbrock() {
+        final LBFGSBOptimizer optimizer = new LBFGSBOptimizer(5, 1e-10, null);
+        final PointValuePair optimum =
+            optimizer.optimize(new MaxEval(1000),
+                               new ObjectiveFunction(TestFunctions::rosenbrock),
+                               new ObjectiveFunctionGradient(TestFunctions::rosenbrockGradient),
+                               GoalType.MINIMIZE,
+                               new InitialGuess(new double[] { -1.2, 1 }),
+                               new SimpleBounds(new double[] { -2, -2 },
+                                                new double[] { 0.5, 2 }));
+        Assert.assertEquals(0.5, optimum.getPoint()[0], 0);
+        Assert.assertEquals(0.25, optimum.getPoint()[1], 1e-9);
+        Assert.assertEquals(0.25, optimum.getValue(), 1e-12);
+    }
+
+    @Test
+    public void testMaximize() {
+        // Maximum of -(x - 2)^2 - (y + 3)^2 - z^2 in the box, with an
+        // unbounded variable.
+        final LBFGSBOptimizer optimizer = new LBFGSBOptimizer(new SimpleValueChecker(1e-14, 1e-14));
+        final PointValuePair optimum =
+            optimizer.optimize(new MaxEval(100),
+                               new ObjectiveFunction(p -> -(p[0] - 2) * (p[0] - 2) -
+                                                     (p[1] + 3) * (p[1] + 3) -
+                                                     p[2] * p[2]),
+                               new ObjectiveFunctionGradient(p -> new double[] { -2 * (p[0] - 2),
+                                                                                -2 * (p[1] + 3),
+                                                                                -2 * p[2] }),
+                               GoalType.MAXIMIZE,
+                               new InitialGuess(new double[] { 0.5, 0, 7 }),
+                               new SimpleBounds(new double[] { 0, -1, Double.NEGATIVE_INFINITY },
+                                                new double[] { 1, 1, Double.POSITIVE_INFINITY }));
+        Assert.assertEquals(1, optimum.getPoint()[0], 0);
+        Assert.assertEquals(-1, optimum.getPoint()[1], 0);
+        Assert.assertEquals(0, optimum.getPoint()[2], 1e-7);
+        Assert.assertEquals(-5, optimum.getValue(), 1e-12);
+    }
+
+    @Test
+    public void testLargeBoundedQuadratic() {
+        final int n = 5000;
+        final TestFunctions.Quadratic q = new TestFunctions.Quadratic(n, 1e3);
+        final double[] lower = new double[n];
+        final double[] upper = new double[n];
+        Arrays.fill(lower, -0.05);
+        Arrays.fill(upper, 0.1);
+        final LBFGSBOptimizer optimizer = new LBFGSBOptimizer(10, 1e-9, null);
+        final PointValuePair optimum =
+            optimizer.optimize(new MaxEval(5000),
+                               new ObjectiveFunction(q::value),
+                               new ObjectiveFunctionGradient(q::gradient),
+                               GoalType.MINIMIZE,
+                               new InitialGuess(new double[n]),
+                               new SimpleBounds(lower, upper));
+
+        // Optimality conditions.
+        final double[] x = optimum.getPoint();
+        final double[] g = q.gradient(x);
+        int active = 0;
+        for (int i = 0; i < n; i++) {
+            Assert.assertTrue(x[i] >= lower[i]);
+            Assert.assertTrue(x[i] <= upper[i]);
+            if (x[i] == lower[i]) {
+                Assert.assertTrue(g[i] >= -1e-9);
+                ++active;
+            } else if (x[i] == upper[i]) {
+                Assert.assertTrue(g[i] <= 1e-9);
+                ++active;
+            } else {
+                Assert.assertEquals(0, g[i], 1e-9);
+            }
+        }
+        Assert.assertTrue(active > n / 10);
+        Assert.assertTrue(active < n);
+    }
+
+    @Test
+    public void testStartAtBound() {
+        final LBFGSBOptimizer optimizer = new LBFGSBOptimizer(5, 1e-10, null);
+        final PointValuePair optimum =
+            optimizer.optimize(new MaxEval(100),
+                               new ObjectiveFunction(p -> (p[0] - 3) * (p[0] - 3) + (p[1] - 3) * (p[1] - 3)),
+                               new ObjectiveFunctionGradient(p -> new double[] { 2 * (p[0] - 3), 2 * (p[1] - 3) }),
+                               new InitialGuess(new double[] { 1, 1 }),
+                               new SimpleBounds(new double[] { 0, 0 },
+                                                new double[] { 1, 5 }));
+        Assert.assertEquals(1, optimum.getPoint()[0], 0);
+        Assert.assertEquals(3, optimum.getPoint()[1], 1e-10);
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.optim.nonlinear.scalar.gradient;
+
+import org.apache.commons.math4.legacy.exception.MathUnsupportedOperationException;
+import org.apache.commons.math4.legacy.exception.NotStrictlyPositiveException;
+import org.apache.commons.math4.legacy.exception.TooManyEvaluationsException;
+import org.apache.commons.math4.legacy.optim.InitialGuess;
+import org.apache.commons.math4.legacy.optim.MaxEval;
+import org.apache.commons.math4.legacy.optim.PointValuePair;
+import org.apache.commons.math4.legacy.optim.SimpleBounds;
+import org.apache.commons.math4.legacy.optim.SimpleValueChecker;
+import org.apache.commons.math4.legacy.optim.nonlinear.scalar.GoalType;
+import org.apache.commons.math4.legacy.optim.nonlinear.scalar.ObjectiveFunction;
+import org.apache.commons.math4.legacy.optim.nonlinear.scalar.ObjectiveFunctionGradient;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link LBFGSOptimizer}.
+ */
+public class LBFGSOptimizerTest {
+    @Test(expected = MathUnsupportedOperationException.class)
+    public void testBoundsUnsupported() {
+        new LBFGSOptimizer(new SimpleValueChecker(1e-6, 1e-6))
+            .optimize(new MaxEval(100),
+                      new ObjectiveFunction(p -> p[0] * p[0]),
+                      new ObjectiveFunctionGradient(p -> new double[] { 2 * p[0] }),
+                      new InitialGuess(new double[] { 1 }),
+                      new SimpleBounds(new double[] { -1 }, new double[] { 1 }));
+    }
+
+    @Test(expected = NotStrictlyPositiveException.class)
+    public void testMemory() {
+        new LBFGSOptimizer(0, 1e-8, null);
+    }
+
+    @Test
+    public void testRosenbrock() {
+        final LBFGSOptimizer optimizer = new LBFGSOptimizer(5, 1e-10, null);
+        final PointValuePair optimum =
+            optimizer.optimize(new MaxEval(1000),
+                               new ObjectiveFunction(TestFunctions::rosenbrock),
+                               new ObjectiveFunctionGradient(TestFunctions::rosenbrockGradient),
+                               GoalType.MINIMIZE,
+                               new InitialGuess(new double[] { -1.2, 1 }));
+        Assert.assertEquals(1, optimum.getPoint()[0], 1e-8);
+        Assert.assertEquals(1, optimum.getPoint()[1], 1e-8);
+        Assert.assertEquals(0, optimum.getValue(), 1e-15);
+        Assert.assertTrue(optimizer.getIterations() > 0);
+        Assert.assertTrue(optimizer.getEvaluations() < 200);
+    }
+
+    @Test
+    public void testMaximize() {
+        final LBFGSOptimizer optimizer = new LBFGSOptimizer(new SimpleValueChecker(1e-14, 1e-14));
+        final PointValuePair optimum =
+            optimizer.optimize(new MaxEval(1000),
+                               new ObjectiveFunction(p -> -TestFunctions.rosenbrock(p)),
+                               new ObjectiveFunctionGradient(p -> {
+                                       final double[] g = TestFunctions.rosenbrockGradient(p);
+                                       for (int i = 0; i < g.length; i++) {
+                                           g[i] = -g[i];
+                                       }
+                                       return g;
+                                   }),
+                               GoalType.MAXIMIZE,
+                               new InitialGuess(new double[] { -1.2, 1 }));
+        Assert.assertEquals(1, optimum.getPoint()[0], 1e-6);
+        Assert.assertEquals(1, optimum.getPoint()[1], 1e-6);
+        Assert.assertEquals(0, optimum.getValue(), 1e-12);
+    }
+
+    @Test
+    public void testIllConditionedQuadratic() {
+        final int n = 2000;
+        final TestFunctions.Quadratic q = new TestFunctions.Quadratic(n, 1e4);
+        final LBFGSOptimizer optimizer = new LBFGSOptimizer(10, 1e-9, null);
+        final PointValuePair optimum =
+            optimizer.optimize(new MaxEval(5000),
+                               new ObjectiveFunction(q::value),
+                               new ObjectiveFunctionGradient(q::gradient),
+                               new InitialGuess(new double[n]));
+        final double[] x = optimum.getPoint();
+        final double[] expected = q.solution();
+        for (int i = 0; i < n; i++) {
+            Assert.assertEquals(expected[i], x[i], 1e-8);
+        }
+
+        // Conjugate gradient needs many more evaluations.
+        final NonLinearConjugateGradientOptimizer cg =
+            new NonLinearConjugateGradientOptimizer(NonLinearConjugateGradientOptimizer.Formula.POLAK_RIBIERE,
+                                                    new SimpleValueChecker(1e-15, 1e-15));
+        try {
+            cg.optimize(new MaxEval(optimizer.getEvaluations()),
+                        new ObjectiveFunction(q::value),
+                        new ObjectiveFunctionGradient(q::gradient),
+                        new InitialGuess(new double[n]));
+            Assert.fail("an exception should have been thrown");
+        } catch (TooManyEvaluationsException e) {
+            // Expected.
+        }
+    }
+
+    @Test(expected = TooManyEvaluationsException.class)
+    public void testMaxEval() {
+        new LBFGSOptimizer(5, 0, null)
+            .optimize(new MaxEval(10),
+                      new ObjectiveFunction(TestFunctions::rosenbrock),
+                      new ObjectiveFunctionGradient(TestFunctions::rosenbrockGradient),
+                      new InitialGuess(new double[] { -1.2, 1 }));
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.optim.nonlinear.scalar.gradient;
+
+/**
+ * Functions (with their gradient) for testing the quasi-Newton optimizers.
+ */
+final class TestFunctions {
+    /** Utility class. */
+    private TestFunctions() {}
+
+    /**
+     * @param x Point.
+     * @return the (extended) Rosenbrock function.
+     */
+    static double rosenbrock(double[] x) {
+        double f = 0;
+        for (int i = 0; i < x.length - 1; i++) {
+            final double a = 1 - x[i];
+            final double b = x[i + 1] - x[i] * x[i];
+            f += a * a + 100 * b * b;
+        }
+        return f;
+    }
+
+    /**
+     * @param x Point.
+     * @return the gradient of the Rosenbrock function.
+     */
+    static double[] rosenbrockGradient(double[] x) {
+        final double[] g = new double[x.length];
+        for (int i = 0; i < x.length - 1; i++) {
+            final double b = x[i + 1] - x[i] * x[i];
+            g[i] += -2 * (1 - x[i]) - 400 * x[i] * b;
+            g[i + 1] += 200 * b;
+        }
+        return g;
+    }
+
+    /**
+     * Quadratic {@code 0.5 x^T A x - b^T x}, where {@code A} is tridiagonal
+     * with a diagonal that spans several orders of magnitude.
+     */
+    static final class Quadratic {
+        /** Diagonal. */
+        private final double[] diag;
+        /** Off-diagonal. */
+        private final double off;
+        /** Linear term. */
+        private final double[] b;
+
+        /**
+         * @param n Dimension.
+         * @param condition Ratio of the largest to the smallest diagonal entry.
+         */
+        Quadratic(int n,
+                  double condition) {
+            diag = new double[n];
+            b = new double[n];
+            for (int i = 0; i < n; i++) {
+                diag[i] = 1 + Math.pow(condition, (double) i / (n - 1));
+                b[i] = Math.sin(i);
+            }
+            off = -0.5;
+        }
+
+        /**
+         * @param x Point.
+         * @return {@code A x}.
+         */
+        private double[] times(double[] x) {
+            final int n = x.length;
+            final double[] y = new double[n];
+            for (int i = 0; i < n; i++) {
+                y[i] = diag[i] * x[i];
+                if (i > 0) {
+                    y[i] += off * x[i - 1];
+                }
+                if (i < n - 1) {
+                    y[i] += off * x[i + 1];
+                }
+            }
+            return y;
+        }
+
+        /**
+         * @param x Point.
+         * @return the value.
+         */
+        double value(double[] x) {
+            final double[] ax = times(x);
+            double f = 0;
+            for (int i = 0; i < x.length; i++) {
+                f += 0.5 * x[i] * ax[i] - b[i] * x[i];
+            }
+            return f;
+        }
+
+        /**
+         * @param x Point.
+         * @return the gradient.
+         */
+        double[] gradient(double[] x) {
+            final double[] g = times(x);
+            for (int i = 0; i < x.length; i++) {
+                g[i] -= b[i];
+            }
+            return g;
+        }
+
+        /**
+         * @return the unconstrained minimizer (tridiagonal solve).
+         */
+        double[] solution() {
+            final int n = b.length;
+            final double[] c = new double[n];
+            final double[] d = new double[n];
+            c[0] = off / diag[0];
+            d[0] = b[0] / diag[0];
+            for (int i = 1; i < n; i++) {
+                final double m = diag[i] - off * c[i - 1];
+                c[i] = off / m;
+                d[i] = (b[i] - off * d[i - 1]) / m;
+            }
+            final double[] x = new double[n];
+            x[n - 1] = d[n - 1];
+            for (int i = n - 2; i >= 0; i--) {
+                x[i] = d[i] - c[i] * x[i + 1];
+            }
+            return x;
+        }
+    }
+}
@@ -16,6 +16,10 @@
  */
 package org.apache.commons.math4.legacy.optim.nonlinear.scalar.noderiv;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.apache.commons.math4.legacy.analysis.MultivariateFunction;
 import org.apache.commons.math4.legacy.exception.DimensionMismatchException;
 import org.apache.commons.math4.legacy.exception.NotStrictlyPositiveException;
@@ -468,6 +472,92 @@ public class CMAESOptimizerTest {
         Assert.assertEquals(resNoBound, resNearHi, 1e-3);
     }
 
+    @Test
+    public void testConcurrentEvaluation() {
+        final int dim = 10;
+        final MultivariateFunction func = TestFunction.ELLI.withDimension(dim);
+        final double[] startPoint = OptimTestUtils.point(dim, 1.0);
+        final double[] insigma = OptimTestUtils.point(dim, 0.1);
+        final double[][] boundaries = boundaries(dim, -1, 2);
+
+        final CMAESOptimizer sequential
+            = new CMAESOptimizer(30000, 0, true, 0, 1,
+                                 RandomSource.MT_64.create(1234567L), true, null);
+        final PointValuePair expected
+            = sequential.optimize(new MaxEval(100000),
+                                  new ObjectiveFunction(func),
+                                  GoalType.MINIMIZE,
+                                  new SimpleBounds(boundaries[0], boundaries[1]),
+                                  new InitialGuess(startPoint),
+                                  new Sigma(insigma),
+                                  new PopulationSize(LAMBDA));
+
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final AtomicInteger count = new AtomicInteger();
+            final CMAESOptimizer concurrent
+                = new CMAESOptimizer(30000, 0, true, 0, 1,
+                                     RandomSource.MT_64.create(1234567L), true, null,
+                                     executor);
+            final PointValuePair actual
+                = concurrent.optimize(new MaxEval(100000),
+                                      new ObjectiveFunction(x -> {
+                                              count.incrementAndGet();
+                                              return func.value(x);
+                                          }),
+                                      GoalType.MINIMIZE,
+                                      new SimpleBounds(boundaries[0], boundaries[1]),
+                                      new InitialGuess(startPoint),
+                                      new Sigma(insigma),
+                                      new PopulationSize(LAMBDA));
+
+            // The result does not depend on the executor.
+            Assert.assertEquals(expected.getValue(), actual.getValue(), 0);
+            Assert.assertArrayEquals(expected.getPoint(), actual.getPoint(), 0);
+            Assert.assertEquals(sequential.getIterations(), concurrent.getIterations());
+            Assert.assertEquals(sequential.getEvaluations(), concurrent.getEvaluations());
+            Assert.assertEquals(concurrent.getEvaluations(), count.get());
+            Assert.assertEquals(sequential.getStatisticsSigmaHistory(),
+                                concurrent.getStatisticsSigmaHistory());
+            Assert.assertEquals(0, actual.getValue(), 1e-10);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testConcurrentEvaluationMaxEval() {
+        final int dim = 5;
+        final int maxEval = 200;
+        final MultivariateFunction func = TestFunction.SPHERE.withDimension(dim);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final AtomicInteger count = new AtomicInteger();
+            final CMAESOptimizer optim
+                = new CMAESOptimizer(30000, 0, true, 0, 0,
+                                     RandomSource.MT_64.create(), false, null,
+                                     executor);
+            final PointValuePair result
+                = optim.optimize(new MaxEval(maxEval),
+                                 new ObjectiveFunction(x -> {
+                                         count.incrementAndGet();
+                                         return func.value(x);
+                                     }),
+                                 GoalType.MINIMIZE,
+                                 SimpleBounds.unbounded(dim),
+                                 new InitialGuess(OptimTestUtils.point(dim, 1.0)),
+                                 new Sigma(OptimTestUtils.point(dim, 0.1)),
+                                 new PopulationSize(LAMBDA));
+
+            Assert.assertNotNull(result);
+            Assert.assertEquals(maxEval, optim.getEvaluations());
+            // The evaluations of the last (incomplete) generation are not performed.
+            Assert.assertTrue(count.get() <= maxEval);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     /**
      * @param func Function to optimize.
      * @param startPoint Starting point.
@@ -16,11 +16,15 @@
  */
 package org.apache.commons.math4.legacy.optim.univariate;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 import org.apache.commons.math4.legacy.analysis.QuinticFunction;
 import org.apache.commons.math4.legacy.analysis.UnivariateFunction;
 import org.apache.commons.math4.legacy.analysis.function.Sin;
 import org.apache.commons.math4.legacy.exception.MathIllegalStateException;
 import org.apache.commons.math4.legacy.optim.MaxEval;
+import org.apache.commons.math4.legacy.optim.TargetValue;
 import org.apache.commons.math4.legacy.optim.nonlinear.scalar.GoalType;
 import org.apache.commons.rng.UniformRandomProvider;
 import org.apache.commons.rng.simple.RandomSource;
@@ -121,6 +125,81 @@ public class MultiStartUnivariateOptimizerTest {
         Assert.assertNull(optimizer.getOptima()[0]);
     }
 
+    @Test
+    public void testConcurrentStartsMatchSequentialStarts() {
+        final UnivariateFunction f = new Sin();
+        final MultiStartUnivariateOptimizer sequential
+            = new MultiStartUnivariateOptimizer(new BrentOptimizer(1e-10, 1e-14), 10,
+                                                RandomSource.TWO_CMRES.create(44428400075L));
+        final UnivariatePointValuePair expected
+            = sequential.optimize(new MaxEval(300),
+                                  new UnivariateObjectiveFunction(f),
+                                  GoalType.MINIMIZE,
+                                  new SearchInterval(-100.0, 100.0));
+
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final MultiStartUnivariateOptimizer concurrent
+                = new MultiStartUnivariateOptimizer(() -> new BrentOptimizer(1e-10, 1e-14), 10,
+                                                    RandomSource.TWO_CMRES.create(44428400075L),
+                                                    executor);
+            final UnivariatePointValuePair actual
+                = concurrent.optimize(new MaxEval(300),
+                                      new UnivariateObjectiveFunction(f),
+                                      GoalType.MINIMIZE,
+                                      new SearchInterval(-100.0, 100.0));
+
+            Assert.assertEquals(expected.getPoint(), actual.getPoint(), 0);
+            Assert.assertEquals(expected.getValue(), actual.getValue(), 0);
+            Assert.assertEquals(sequential.getEvaluations(), concurrent.getEvaluations());
+            final UnivariatePointValuePair[] expectedOptima = sequential.getOptima();
+            final UnivariatePointValuePair[] actualOptima = concurrent.getOptima();
+            for (int i = 0; i < expectedOptima.length; i++) {
+                Assert.assertEquals(expectedOptima[i].getPoint(), actualOptima[i].getPoint(), 0);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testTargetValueStopsRemainingStarts() {
+        final MultiStartUnivariateOptimizer optimizer
+            = new MultiStartUnivariateOptimizer(new BrentOptimizer(1e-10, 1e-14), 10,
+                                                RandomSource.TWO_CMRES.create(44428400075L));
+        optimizer.optimize(new MaxEval(300),
+                           new UnivariateObjectiveFunction(new Sin()),
+                           GoalType.MINIMIZE,
+                           new SearchInterval(-100.0, 100.0),
+                           new TargetValue(-0.999));
+        final UnivariatePointValuePair[] optima = optimizer.getOptima();
+        Assert.assertTrue(optima[0].getValue() <= -0.999);
+        // The first start reaches the target: the others are not run.
+        for (int i = 1; i < optima.length; i++) {
+            Assert.assertNull(optima[i]);
+        }
+    }
+
+    @Test
+    public void testSharedEvaluationBudget() {
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final MultiStartUnivariateOptimizer optimizer
+                = new MultiStartUnivariateOptimizer(() -> new BrentOptimizer(1e-10, 1e-14), 50,
+                                                    RandomSource.TWO_CMRES.create(44428400075L),
+                                                    executor);
+            final UnivariatePointValuePair optimum
+                = optimizer.optimize(new MaxEval(100),
+                                     new UnivariateObjectiveFunction(new Sin()),
+                                     GoalType.MINIMIZE,
+                                     new SearchInterval(-100.0, 100.0));
+            Assert.assertEquals(-1, optimum.getValue(), 1e-10);
+            Assert.assertEquals(100, optimizer.getEvaluations());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     private static final class LocalException extends RuntimeException {
         private static final long serialVersionUID = 1194682757034350629L;
     }
@@ -0,0 +1,224 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.stat;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.apache.commons.math4.legacy.exception.NullArgumentException;
+import org.apache.commons.math4.legacy.exception.NumberIsTooLargeException;
+import org.apache.commons.math4.legacy.exception.OutOfRangeException;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test cases for the {@link IntFrequency} class.
+ */
+public final class IntFrequencyTest {
+    private static final double TOLERANCE = 10E-15d;
+
+    @Test
+    public void testCountsSparse() {
+        checkCounts(new IntFrequency());
+    }
+
+    @Test
+    public void testCountsDense() {
+        checkCounts(new IntFrequency(-10, 10));
+    }
+
+    private static void checkCounts(IntFrequency f) {
+        Assert.assertEquals("total count", 0, f.getSumFreq());
+        Assert.assertTrue(Double.isNaN(f.getPct(1)));
+        Assert.assertTrue(Double.isNaN(f.getCumPct(1)));
+        f.addValue(1);
+        f.addValue(2);
+        f.addValue(1);
+        f.addValue(1);
+        Assert.assertEquals("one frequency count", 3, f.getCount(1));
+        Assert.assertEquals("two frequency count", 1, f.getCount(2));
+        Assert.assertEquals("three frequency count", 0, f.getCount(3));
+        Assert.assertEquals("total count", 4, f.getSumFreq());
+        Assert.assertEquals("zero cumulative frequency", 0, f.getCumFreq(0));
+        Assert.assertEquals("one cumulative frequency", 3, f.getCumFreq(1));
+        Assert.assertEquals("two cumulative frequency", 4, f.getCumFreq(2));
+        Assert.assertEquals("large cumulative frequency", 4, f.getCumFreq(Integer.MAX_VALUE));
+        Assert.assertEquals("small cumulative frequency", 0, f.getCumFreq(Integer.MIN_VALUE));
+        Assert.assertEquals("one pct", 0.75, f.getPct(1), TOLERANCE);
+        Assert.assertEquals("one cum pct", 0.75, f.getCumPct(1), TOLERANCE);
+        Assert.assertArrayEquals(new int[] {1, 2}, f.getValues());
+        Assert.assertArrayEquals(new int[] {1}, f.getMode());
+
+        f.clear();
+        Assert.assertEquals("total count", 0, f.getSumFreq());
+        Assert.assertEquals("unique count", 0, f.getUniqueCount());
+        Assert.assertEquals(0, f.getMode().length);
+    }
+
+    @Test
+    public void testConsistencyWithFrequency() {
+        final Random rng = new Random(7654321L);
+        final Frequency<Integer> expected = new Frequency<>();
+        final IntFrequency sparse = new IntFrequency();
+        final IntFrequency dense = new IntFrequency(-100, 100);
+        final int[] values = new int[10000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = rng.nextInt(150) - 75;
+            expected.addValue(values[i]);
+        }
+        sparse.addValues(values);
+        dense.addValues(values);
+
+        Assert.assertEquals(expected.getUniqueCount(), sparse.getUniqueCount());
+        Assert.assertEquals(expected.getUniqueCount(), dense.getUniqueCount());
+        for (int v = -120; v <= 120; v++) {
+            Assert.assertEquals(expected.getCount(v), sparse.getCount(v));
+            Assert.assertEquals(expected.getCount(v), dense.getCount(v));
+            Assert.assertEquals(expected.getCumFreq(v), sparse.getCumFreq(v));
+            Assert.assertEquals(expected.getCumFreq(v), dense.getCumFreq(v));
+            Assert.assertEquals(expected.getCumPct(v), dense.getCumPct(v), TOLERANCE);
+        }
+        Assert.assertEquals(sparse, dense);
+        Assert.assertEquals(sparse.hashCode(), dense.hashCode());
+        Assert.assertEquals(sparse.toString(), dense.toString());
+    }
+
+    @Test
+    public void testSparseDenseIncrements() {
+        final Random rng = new Random(97531L);
+        final IntFrequency sparse = new IntFrequency();
+        final IntFrequency dense = new IntFrequency(-20, 20);
+        for (int i = 0; i < 5000; i++) {
+            final int v = rng.nextInt(41) - 20;
+            // Zero increments, and decrements that bring counts back to zero.
+            final long increment = Math.max(rng.nextInt(5) - 2, -dense.getCount(v));
+            sparse.incrementValue(v, increment);
+            dense.incrementValue(v, increment);
+
+            Assert.assertEquals(dense.getUniqueCount(), sparse.getUniqueCount());
+            Assert.assertArrayEquals(dense.getValues(), sparse.getValues());
+            Assert.assertEquals(dense.getCumFreq(v), sparse.getCumFreq(v));
+            Assert.assertEquals(dense, sparse);
+        }
+        Assert.assertEquals(dense.hashCode(), sparse.hashCode());
+        Assert.assertEquals(dense.toString(), sparse.toString());
+    }
+
+    @Test
+    public void testMerge() {
+        final IntFrequency f1 = new IntFrequency(0, 10);
+        final IntFrequency f2 = new IntFrequency(0, 10);
+        final IntFrequency f3 = new IntFrequency();
+        f1.addValues(new int[] {1, 2, 3});
+        f2.addValues(new int[] {3, 4});
+        f3.incrementValue(5, 10);
+
+        final IntFrequency dense = new IntFrequency(0, 5);
+        dense.merge(Arrays.asList(f1, f2, f3));
+        final IntFrequency sparse = new IntFrequency();
+        sparse.merge(Arrays.asList(f1, f2, f3));
+        for (IntFrequency merged : Arrays.asList(dense, sparse)) {
+            Assert.assertEquals(15, merged.getSumFreq());
+            Assert.assertEquals(5, merged.getUniqueCount());
+            Assert.assertEquals(2, merged.getCount(3));
+            Assert.assertEquals(5, merged.getCumFreq(4));
+            Assert.assertArrayEquals(new int[] {5}, merged.getMode());
+        }
+
+        f1.merge(f2);
+        f1.merge(f3);
+        Assert.assertEquals(dense, f1);
+    }
+
+    @Test
+    public void testZeroIncrementDense() {
+        final IntFrequency f = new IntFrequency(0, 10);
+        f.addValue(3);
+        f.incrementValue(5, 0);
+        f.incrementValue(5, 0);
+        Assert.assertEquals(1, f.getUniqueCount());
+        Assert.assertArrayEquals(new int[] { 3 }, f.getValues());
+        Assert.assertEquals(1, f.getSumFreq());
+    }
+
+    @Test
+    public void testBackToZeroDense() {
+        final IntFrequency f = new IntFrequency(0, 10);
+        f.incrementValue(3, 2);
+        f.incrementValue(7, 1);
+        Assert.assertEquals(2, f.getUniqueCount());
+        f.incrementValue(3, -2);
+        Assert.assertEquals(1, f.getUniqueCount());
+        Assert.assertArrayEquals(new int[] { 7 }, f.getValues());
+        Assert.assertEquals(0, f.getCount(3));
+        Assert.assertEquals(1, f.getSumFreq());
+
+        final IntFrequency g = new IntFrequency(0, 10);
+        g.incrementValue(7, -1);
+        f.merge(g);
+        Assert.assertEquals(0, f.getUniqueCount());
+        Assert.assertArrayEquals(new int[0], f.getValues());
+    }
+
+    @Test(expected = NullArgumentException.class)
+    public void testMergeNull() {
+        new IntFrequency().merge((IntFrequency) null);
+    }
+
+    @Test(expected = OutOfRangeException.class)
+    public void testMergeOutOfRange() {
+        final IntFrequency f = new IntFrequency();
+        f.addValue(11);
+        new IntFrequency(0, 10).merge(f);
+    }
+
+    @Test(expected = OutOfRangeException.class)
+    public void testOutOfRange() {
+        new IntFrequency(0, 10).addValue(-1);
+    }
+
+    @Test
+    public void testAddValuesOutOfRange() {
+        final IntFrequency f = new IntFrequency(0, 10);
+        f.addValues(new int[] { 1, 2, 2 });
+        final IntFrequency copy = new IntFrequency(0, 10);
+        copy.merge(f);
+        // Build the cumulative frequencies.
+        Assert.assertEquals(1, f.getCumFreq(1));
+        try {
+            f.addValues(new int[] { 1, 3, 11, 4 });
+            Assert.fail("an exception should have been thrown");
+        } catch (OutOfRangeException e) {
+            // Expected.
+        }
+        Assert.assertEquals(copy, f);
+        Assert.assertEquals(3, f.getSumFreq());
+        Assert.assertEquals(2, f.getUniqueCount());
+        Assert.assertEquals(1, f.getCumFreq(1));
+        Assert.assertEquals(3, f.getCumFreq(4));
+    }
+
+    @Test(expected = NumberIsTooLargeException.class)
+    public void testInvalidRange() {
+        new IntFrequency(10, 0);
+    }
+
+    @Test(expected = NumberIsTooLargeException.class)
+    public void testRangeTooLarge() {
+        new IntFrequency(Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+}
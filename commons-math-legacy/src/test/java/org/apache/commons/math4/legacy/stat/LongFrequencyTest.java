@@ -0,0 +1,211 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.stat;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.apache.commons.math4.legacy.exception.NullArgumentException;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test cases for the {@link LongFrequency} class.
+ */
+public final class LongFrequencyTest {
+    private static final double TOLERANCE = 10E-15d;
+
+    @Test
+    public void testCounts() {
+        final LongFrequency f = new LongFrequency();
+        Assert.assertEquals("total count", 0, f.getSumFreq());
+        Assert.assertEquals("empty cumulative frequency", 0, f.getCumFreq(1L));
+        f.addValue(1L);
+        f.addValue(2L);
+        f.addValue(1L);
+        f.addValue(1L);
+        Assert.assertEquals("one frequency count", 3, f.getCount(1L));
+        Assert.assertEquals("two frequency count", 1, f.getCount(2L));
+        Assert.assertEquals("three frequency count", 0, f.getCount(3L));
+        Assert.assertEquals("total count", 4, f.getSumFreq());
+        Assert.assertEquals("zero cumulative frequency", 0, f.getCumFreq(0L));
+        Assert.assertEquals("one cumulative frequency", 3, f.getCumFreq(1L));
+        Assert.assertEquals("two cumulative frequency", 4, f.getCumFreq(2L));
+        Assert.assertEquals("five cumulative frequency", 4, f.getCumFreq(5L));
+        Assert.assertEquals("minus one cumulative frequency", 0, f.getCumFreq(-1L));
+        Assert.assertEquals("unique count", 2, f.getUniqueCount());
+
+        f.clear();
+        Assert.assertEquals("total count", 0, f.getSumFreq());
+        Assert.assertEquals("unique count", 0, f.getUniqueCount());
+    }
+
+    @Test
+    public void testPercents() {
+        final LongFrequency f = new LongFrequency();
+        Assert.assertTrue(Double.isNaN(f.getPct(1L)));
+        Assert.assertTrue(Double.isNaN(f.getCumPct(1L)));
+        f.addValues(new long[] {1L, 2L, 3L, 3L});
+        Assert.assertEquals("one pct", 0.25, f.getPct(1L), TOLERANCE);
+        Assert.assertEquals("three pct", 0.5, f.getPct(3L), TOLERANCE);
+        Assert.assertEquals("five pct", 0, f.getPct(5L), TOLERANCE);
+        Assert.assertEquals("one cum pct", 0.25, f.getCumPct(1L), TOLERANCE);
+        Assert.assertEquals("two cum pct", 0.5, f.getCumPct(2L), TOLERANCE);
+        Assert.assertEquals("five cum pct", 1.0, f.getCumPct(5L), TOLERANCE);
+        Assert.assertEquals("zero cum pct", 0.0, f.getCumPct(0L), TOLERANCE);
+    }
+
+    @Test
+    public void testExtremeValues() {
+        final LongFrequency f = new LongFrequency();
+        f.addValue(Long.MIN_VALUE);
+        f.addValue(0L);
+        f.addValue(Long.MAX_VALUE);
+        Assert.assertArrayEquals(new long[] {Long.MIN_VALUE, 0L, Long.MAX_VALUE}, f.getValues());
+        Assert.assertEquals(1, f.getCumFreq(Long.MIN_VALUE));
+        Assert.assertEquals(2, f.getCumFreq(Long.MAX_VALUE - 1));
+        Assert.assertEquals(3, f.getCumFreq(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testConsistencyWithFrequency() {
+        final Random rng = new Random(1234567L);
+        final Frequency<Long> expected = new Frequency<>();
+        final LongFrequency f = new LongFrequency();
+        for (int i = 0; i < 10000; i++) {
+            final long v = rng.nextInt(1000) - 500;
+            expected.addValue(v);
+            f.addValue(v);
+            if (i % 1000 == 0) {
+                // Interleave queries to exercise the index invalidation.
+                Assert.assertEquals(expected.getCumFreq(v), f.getCumFreq(v));
+            }
+        }
+        Assert.assertEquals(expected.getUniqueCount(), f.getUniqueCount());
+        for (long v = -600; v <= 600; v++) {
+            Assert.assertEquals(expected.getCount(v), f.getCount(v));
+            Assert.assertEquals(expected.getCumFreq(v), f.getCumFreq(v));
+            Assert.assertEquals(expected.getCumPct(v), f.getCumPct(v), TOLERANCE);
+        }
+        final long[] modes = f.getMode();
+        Assert.assertEquals(expected.getMode().size(), modes.length);
+        for (int i = 0; i < modes.length; i++) {
+            Assert.assertEquals(expected.getMode().get(i).longValue(), modes[i]);
+        }
+    }
+
+    @Test
+    public void testRemoval() {
+        // Values whose count goes back to zero are removed, including
+        // from the middle of probe sequences.
+        final Random rng = new Random(8642L);
+        final LongFrequency f = new LongFrequency();
+        final Map<Long, Long> expected = new HashMap<>();
+        for (int i = 0; i < 20000; i++) {
+            final long v = rng.nextInt(200) * 1024L;
+            final long count = expected.getOrDefault(v, 0L);
+            final long increment = rng.nextBoolean() ? 1 : -count;
+            f.incrementValue(v, increment);
+            if (count + increment == 0) {
+                expected.remove(v);
+            } else {
+                expected.put(v, count + increment);
+            }
+        }
+        f.incrementValue(-1, 0);
+        Assert.assertEquals(expected.size(), f.getUniqueCount());
+        Assert.assertEquals(expected.size(), f.getValues().length);
+        for (long v = -1024; v <= 201 * 1024; v += 1024) {
+            Assert.assertEquals(expected.getOrDefault(v, 0L).longValue(), f.getCount(v));
+        }
+    }
+
+    @Test
+    public void testCumulativeAfterUpdates() {
+        // Updates of existing values interleaved with cumulative queries.
+        final LongFrequency f = new LongFrequency();
+        final long[] counts = new long[50];
+        for (int v = 0; v < counts.length; v++) {
+            f.addValue(v);
+            counts[v] = 1;
+        }
+        final Random rng = new Random(1357L);
+        for (int i = 0; i < 1000; i++) {
+            final int v = rng.nextInt(counts.length);
+            f.incrementValue(v, 3);
+            counts[v] += 3;
+            final int q = rng.nextInt(counts.length);
+            long expected = 0;
+            for (int j = 0; j <= q; j++) {
+                expected += counts[j];
+            }
+            Assert.assertEquals(expected, f.getCumFreq(q));
+        }
+    }
+
+    @Test
+    public void testMode() {
+        final LongFrequency f = new LongFrequency();
+        Assert.assertEquals(0, f.getMode().length);
+        f.addValues(new long[] {3L, 3L, -2L, 7L, -2L, 5L});
+        Assert.assertArrayEquals(new long[] {-2L, 3L}, f.getMode());
+    }
+
+    @Test
+    public void testMerge() {
+        final LongFrequency f1 = new LongFrequency();
+        final LongFrequency f2 = new LongFrequency();
+        final LongFrequency f3 = new LongFrequency();
+        f1.addValues(new long[] {1L, 2L, 3L});
+        f2.addValues(new long[] {3L, 4L});
+        f3.incrementValue(5L, 10L);
+
+        final LongFrequency merged = new LongFrequency();
+        merged.merge(Arrays.asList(f1, f2, f3));
+        Assert.assertEquals(15, merged.getSumFreq());
+        Assert.assertEquals(5, merged.getUniqueCount());
+        Assert.assertEquals(2, merged.getCount(3L));
+        Assert.assertEquals(5, merged.getCumFreq(4L));
+
+        f1.merge(f2);
+        f1.merge(f3);
+        Assert.assertEquals(merged, f1);
+        Assert.assertEquals(merged.hashCode(), f1.hashCode());
+        Assert.assertEquals(merged.toString(), f1.toString());
+    }
+
+    @Test(expected = NullArgumentException.class)
+    public void testMergeNull() {
+        new LongFrequency().merge((LongFrequency) null);
+    }
+
+    @Test
+    public void testEquals() {
+        final LongFrequency f1 = new LongFrequency();
+        final LongFrequency f2 = new LongFrequency(1000);
+        Assert.assertEquals(f1, f2);
+        f1.addValue(42L);
+        Assert.assertNotEquals(f1, f2);
+        f2.addValue(42L);
+        Assert.assertEquals(f1, f2);
+        Assert.assertEquals(f1.hashCode(), f2.hashCode());
+        f2.addValue(43L);
+        Assert.assertNotEquals(f1, f2);
+    }
+}
@@ -16,6 +16,9 @@
  */
 package org.apache.commons.math4.legacy.stat.correlation;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 import org.apache.commons.math4.legacy.TestUtils;
 import org.apache.commons.math4.legacy.exception.MathIllegalArgumentException;
 import org.apache.commons.math4.legacy.exception.NotStrictlyPositiveException;
@@ -239,6 +242,29 @@ public class CovarianceTest {
                 new Covariance().covariance(x, y, true), Double.MIN_VALUE);
     }
 
+    @Test
+    public void testExecutor() {
+        final RealMatrix matrix = createRealMatrix(swissData, 47, 5);
+        final ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            for (boolean biasCorrected : new boolean[] {true, false}) {
+                final RealMatrix expected = new Covariance(matrix, biasCorrected).getCovarianceMatrix();
+                final Covariance cov = new Covariance(matrix, biasCorrected, executor);
+                Assert.assertEquals(47, cov.getN());
+                TestUtils.assertEquals("Covariances", expected, cov.getCovarianceMatrix(), 1e-12);
+                TestUtils.assertEquals("Covariances", cov.getCovarianceMatrix(),
+                                       new Covariance(matrix, biasCorrected, null).getCovarianceMatrix(), Double.MIN_VALUE);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test(expected = MathIllegalArgumentException.class)
+    public void testExecutorInsufficientData() {
+        new Covariance(new Array2DRowRealMatrix(1, 3), true, null);
+    }
+
     protected RealMatrix createRealMatrix(double[] data, int nRows, int nCols) {
         double[][] matrixData = new double[nRows][nCols];
         int ptr = 0;
@@ -17,6 +17,8 @@
 package org.apache.commons.math4.legacy.stat.correlation;
 
 import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.apache.commons.math4.legacy.TestUtils;
 import org.apache.commons.math4.legacy.linear.BlockRealMatrix;
@@ -276,4 +278,66 @@ public class KendallsCorrelationTest extends PearsonsCorrelationTest {
         double coefficient = correlation.correlation(xArray, yArray);
         Assert.assertTrue(1.0 >= coefficient && -1.0 <= coefficient);
     }
+
+    @Override
+    @Test
+    public void testExecutor() {
+        final RealMatrix matrix = createRandomMatrix(300, 40, 789);
+        final ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            final RealMatrix corr = new KendallsCorrelation(matrix, executor).getCorrelationMatrix();
+            for (int i = 0; i < 40; i++) {
+                for (int j = 0; j < 40; j++) {
+                    final double expected = i == j ?
+                        1 :
+                        correlation.correlation(matrix.getColumn(i), matrix.getColumn(j));
+                    Assert.assertEquals(expected, corr.getEntry(i, j), 0);
+                }
+            }
+            TestUtils.assertEquals("Correlation matrix", corr,
+                                   correlation.computeCorrelationMatrix(matrix), Double.MIN_VALUE);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testTiesAgainstBruteForce() {
+        final UniformRandomProvider rng = RandomSource.WELL_1024_A.create(42);
+        final double[] xArray = new double[200];
+        final double[] yArray = new double[200];
+        for (int i = 0; i < xArray.length; i++) {
+            xArray[i] = rng.nextInt(10);
+            yArray[i] = rng.nextInt(7) - 0.5 * xArray[i];
+        }
+        xArray[3] = Double.NaN;
+        xArray[7] = Double.NaN;
+        yArray[5] = -0.0;
+        yArray[6] = 0.0;
+
+        long concordant = 0;
+        long discordant = 0;
+        long tiedX = 0;
+        long tiedY = 0;
+        for (int i = 0; i < xArray.length; i++) {
+            for (int j = 0; j < i; j++) {
+                final int cx = Double.compare(xArray[i], xArray[j]);
+                final int cy = Double.compare(yArray[i], yArray[j]);
+                if (cx == 0) {
+                    tiedX++;
+                }
+                if (cy == 0) {
+                    tiedY++;
+                }
+                if (cx * cy > 0) {
+                    concordant++;
+                } else if (cx * cy < 0) {
+                    discordant++;
+                }
+            }
+        }
+        final long n0 = xArray.length * (xArray.length - 1L) / 2;
+        final double expected = (concordant - discordant) / Math.sqrt((double) (n0 - tiedX) * (n0 - tiedY));
+        Assert.assertEquals(expected, correlation.correlation(xArray, yArray), 1e-15);
+    }
 }
@@ -16,12 +16,17 @@
  */
 package org.apache.commons.math4.legacy.stat.correlation;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 import org.apache.commons.math4.legacy.TestUtils;
 import org.apache.commons.statistics.distribution.TDistribution;
 import org.apache.commons.math4.legacy.exception.MathIllegalArgumentException;
 import org.apache.commons.math4.legacy.linear.BlockRealMatrix;
 import org.apache.commons.math4.legacy.linear.RealMatrix;
 import org.apache.commons.math4.core.jdkmath.JdkMath;
+import org.apache.commons.rng.UniformRandomProvider;
+import org.apache.commons.rng.simple.RandomSource;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -284,6 +289,43 @@ public class PearsonsCorrelationTest {
                 new PearsonsCorrelation().computeCorrelationMatrix(data), Double.MIN_VALUE);
     }
 
+    @Test
+    public void testExecutor() {
+        // Several tiles, and a number of rows that is not a multiple of the chunk size.
+        final RealMatrix matrix = createRandomMatrix(300, 70, 123);
+        final RealMatrix expected = new PearsonsCorrelation().computeCorrelationMatrix(matrix);
+        final RealMatrix serial = new PearsonsCorrelation().computeCorrelationMatrix(matrix, null);
+        TestUtils.assertEquals("Correlation matrix", expected, serial, 1e-12);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            final PearsonsCorrelation corrInstance = new PearsonsCorrelation(matrix, executor);
+            // Result does not depend on the number of threads.
+            TestUtils.assertEquals("Correlation matrix", serial, corrInstance.getCorrelationMatrix(), Double.MIN_VALUE);
+
+            final RealMatrix longley = createRealMatrix(longleyData, 16, 7);
+            TestUtils.assertEquals("Correlation matrix",
+                                   new PearsonsCorrelation(longley).getCorrelationMatrix(),
+                                   new PearsonsCorrelation(longley, executor).getCorrelationMatrix(), 1e-14);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    protected RealMatrix createRandomMatrix(int nRows, int nCols, long seed) {
+        final UniformRandomProvider rng = RandomSource.WELL_1024_A.create(seed);
+        final double[][] data = new double[nRows][nCols];
+        for (int i = 0; i < nRows; i++) {
+            for (int j = 0; j < nCols; j++) {
+                // Correlated columns, with some ties.
+                data[i][j] = j == 0 ?
+                    rng.nextInt(50) :
+                    data[i][j - 1] + rng.nextInt(20);
+            }
+        }
+        return new BlockRealMatrix(data);
+    }
+
     protected RealMatrix createRealMatrix(double[] data, int nRows, int nCols) {
         double[][] matrixData = new double[nRows][nCols];
         int ptr = 0;
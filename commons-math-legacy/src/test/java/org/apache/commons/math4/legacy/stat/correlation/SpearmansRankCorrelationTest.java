@@ -16,6 +16,9 @@
  */
 package org.apache.commons.math4.legacy.stat.correlation;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 import org.apache.commons.math4.legacy.TestUtils;
 import org.apache.commons.math4.legacy.exception.MathIllegalArgumentException;
 import org.apache.commons.math4.legacy.linear.BlockRealMatrix;
@@ -121,6 +124,34 @@ public class SpearmansRankCorrelationTest extends PearsonsCorrelationTest {
                 new SpearmansCorrelation().computeCorrelationMatrix(data), Double.MIN_VALUE);
     }
 
+    @Override
+    @Test
+    public void testExecutor() {
+        final RealMatrix matrix = createRandomMatrix(300, 70, 456);
+        final RealMatrix expected = new SpearmansCorrelation().computeCorrelationMatrix(matrix);
+        final RealMatrix serial = new SpearmansCorrelation().computeCorrelationMatrix(matrix, null);
+        TestUtils.assertEquals("Correlation matrix", expected, serial, 1e-12);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            final SpearmansCorrelation corrInstance =
+                new SpearmansCorrelation(matrix, new NaturalRanking(), executor);
+            TestUtils.assertEquals("Correlation matrix", serial, corrInstance.getCorrelationMatrix(), Double.MIN_VALUE);
+            TestUtils.assertEquals("Ranks",
+                                   new SpearmansCorrelation(matrix).getRankCorrelation().getCorrelationMatrix(),
+                                   corrInstance.getRankCorrelation().getCorrelationMatrix(), 1e-12);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test(expected = MathIllegalArgumentException.class)
+    public void testExecutorNaNRemoved() {
+        new SpearmansCorrelation(createRandomMatrix(10, 3, 0),
+                                 new NaturalRanking(NaNStrategy.REMOVED),
+                                 null);
+    }
+
     @Test(expected = MathIllegalArgumentException.class)
     public void testMath891Array() {
         // NaNStrategy.REMOVED is not supported since 4.0
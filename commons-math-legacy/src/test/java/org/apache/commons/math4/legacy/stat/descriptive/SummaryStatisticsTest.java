@@ -20,6 +20,7 @@ package org.apache.commons.math4.legacy.stat.descriptive;
 import org.apache.commons.math4.legacy.TestUtils;
 import org.apache.commons.math4.legacy.exception.MathIllegalArgumentException;
 import org.apache.commons.math4.legacy.exception.MathIllegalStateException;
+import org.apache.commons.math4.legacy.exception.MathUnsupportedOperationException;
 import org.apache.commons.math4.legacy.stat.StatUtils;
 import org.apache.commons.math4.core.jdkmath.JdkMath;
 import org.junit.Assert;
@@ -173,6 +174,45 @@ public class SummaryStatisticsTest {
         Assert.assertEquals(u.getSumImpl().getClass(), v.getSumImpl().getClass());
     }
 
+    @Test
+    public void testCombine() {
+        final double[] data = {2, 1, 3, 4, 7, 9, 11, 23, -5, 0.5};
+        final SummaryStatistics all = createSummaryStatistics();
+        final SummaryStatistics u = createSummaryStatistics();
+        final SummaryStatistics v = createSummaryStatistics();
+        for (int i = 0; i < data.length; i++) {
+            all.addValue(data[i]);
+            (i < 4 ? u : v).addValue(data[i]);
+        }
+
+        Assert.assertSame(u, u.combine(v));
+        Assert.assertEquals(all.getN(), u.getN());
+        Assert.assertEquals(all.getMin(), u.getMin(), 0);
+        Assert.assertEquals(all.getMax(), u.getMax(), 0);
+        Assert.assertEquals(all.getSum(), u.getSum(), tolerance);
+        Assert.assertEquals(all.getMean(), u.getMean(), tolerance);
+        Assert.assertEquals(all.getVariance(), u.getVariance(), tolerance);
+
+        // Combining with an empty instance (in either direction).
+        final SummaryStatistics empty = createSummaryStatistics();
+        u.combine(createSummaryStatistics());
+        assertEquals(all, u);
+        empty.combine(v);
+        assertEquals(v, empty);
+        empty.addValue(42);
+        Assert.assertEquals(v.getN() + 1, empty.getN());
+    }
+
+    @Test
+    public void testCombineUnsupported() {
+        final SummaryStatistics u = createSummaryStatistics();
+        u.setSumImpl(new SumStat());
+        Assertions.assertThrows(MathUnsupportedOperationException.class,
+            () -> u.combine(createSummaryStatistics()));
+        Assertions.assertThrows(MathUnsupportedOperationException.class,
+            () -> createSummaryStatistics().combine(u));
+    }
+
     private static void assertEquals(SummaryStatistics summary, SummaryStatistics summary2) {
         Assert.assertArrayEquals(toArray(summary), toArray(summary2), 0);
     }
@@ -16,6 +16,8 @@
  */
 package org.apache.commons.math4.legacy.stat.regression;
 
+import java.util.Arrays;
+
 import org.apache.commons.math4.legacy.TestUtils;
 import org.apache.commons.math4.legacy.exception.MathIllegalArgumentException;
 import org.apache.commons.math4.legacy.linear.RealMatrix;
@@ -1104,4 +1106,141 @@ public class MillerUpdatingRegressionTest {
         }
     }
 
+    @Test
+    public void testAddObservationsSameAsDrip() {
+        final double[][] x = airlineRegressors();
+        final double[] y = airlineRegressand();
+        final MillerUpdatingRegression bulk = new MillerUpdatingRegression(3, true);
+        bulk.addObservations(x, y);
+        final MillerUpdatingRegression drip = new MillerUpdatingRegression(3, true);
+        for (int i = 0; i < x.length; i++) {
+            drip.addObservation(x[i], y[i]);
+        }
+        final RegressionResults expected = drip.regress();
+        final RegressionResults actual = bulk.regress();
+        Assert.assertArrayEquals(expected.getParameterEstimates(), actual.getParameterEstimates(), 0);
+        Assert.assertArrayEquals(expected.getStdErrorOfEstimates(), actual.getStdErrorOfEstimates(), 0);
+        Assert.assertEquals(expected.getRSquared(), actual.getRSquared(), 0);
+    }
+
+    @Test
+    public void testAddObservationsInvalidRow() {
+        final double[][] x = airlineRegressors();
+        x[10] = new double[2];
+        final MillerUpdatingRegression instance = new MillerUpdatingRegression(3, true);
+        try {
+            instance.addObservations(x, airlineRegressand());
+            Assert.fail("an exception should have been thrown");
+        } catch (ModelSpecificationException e) {
+            // Expected: no observation was added.
+            Assert.assertEquals(0, instance.getN());
+        }
+    }
+
+    @Test
+    public void testCombine() {
+        final double[][] x = airlineRegressors();
+        final double[] y = airlineRegressand();
+        for (final boolean constant : new boolean[] {true, false}) {
+            final MillerUpdatingRegression all = new MillerUpdatingRegression(3, constant);
+            all.addObservations(x, y);
+            final RegressionResults expected = all.regress();
+
+            // Partitions fitted separately, then reduced.
+            final MillerUpdatingRegression[] parts = new MillerUpdatingRegression[3];
+            for (int p = 0; p < parts.length; p++) {
+                parts[p] = new MillerUpdatingRegression(3, constant);
+            }
+            for (int i = 0; i < x.length; i++) {
+                parts[i % parts.length].addObservation(x[i], y[i]);
+            }
+            parts[0].combine(parts[1]);
+            parts[0].combine(parts[2]);
+            Assert.assertEquals(x.length, parts[0].getN());
+
+            final RegressionResults actual = parts[0].regress();
+            TestUtils.assertEquals(expected.getParameterEstimates(), actual.getParameterEstimates(), 1e-10);
+            TestUtils.assertEquals(expected.getStdErrorOfEstimates(), actual.getStdErrorOfEstimates(), 1e-10);
+            Assert.assertEquals(expected.getRSquared(), actual.getRSquared(), 1e-12);
+            Assert.assertEquals(expected.getErrorSumSquares(), actual.getErrorSumSquares(), 1e-10);
+        }
+    }
+
+    @Test
+    public void testCombineReordered() {
+        final double[][] x = airlineRegressors();
+        final double[] y = airlineRegressand();
+        final MillerUpdatingRegression all = new MillerUpdatingRegression(3, true);
+        all.addObservations(x, y);
+        final RegressionResults expected = all.regress();
+
+        final MillerUpdatingRegression first = new MillerUpdatingRegression(3, true);
+        final MillerUpdatingRegression second = new MillerUpdatingRegression(3, true);
+        final int half = x.length / 2;
+        first.addObservations(Arrays.copyOfRange(x, 0, half), Arrays.copyOfRange(y, 0, half));
+        second.addObservations(Arrays.copyOfRange(x, half, x.length), Arrays.copyOfRange(y, half, x.length));
+        // Change the order of the regressors in one of the decompositions.
+        second.regress(new int[] {0, 3});
+        Assert.assertFalse(Arrays.equals(new int[] {0, 1, 2, 3}, second.getOrderOfRegressors()));
+
+        first.combine(second);
+        final RegressionResults actual = first.regress();
+        TestUtils.assertEquals(expected.getParameterEstimates(), actual.getParameterEstimates(), 1e-10);
+        TestUtils.assertEquals(expected.getStdErrorOfEstimates(), actual.getStdErrorOfEstimates(), 1e-10);
+    }
+
+    @Test(expected = ModelSpecificationException.class)
+    public void testCombineIncompatible() {
+        new MillerUpdatingRegression(3, true).combine(new MillerUpdatingRegression(4, false));
+    }
+
+    @Test
+    public void testState() {
+        final double[][] x = airlineRegressors();
+        final double[] y = airlineRegressand();
+        final MillerUpdatingRegression instance = new MillerUpdatingRegression(3, true);
+        final int half = x.length / 2;
+        instance.addObservations(Arrays.copyOfRange(x, 0, half), Arrays.copyOfRange(y, 0, half));
+
+        // Transfer the state, and resume the regression from there.
+        final MillerUpdatingRegression.State state =
+            (MillerUpdatingRegression.State) TestUtils.serializeAndRecover(instance.getState());
+        final MillerUpdatingRegression restored = new MillerUpdatingRegression(state);
+        Assert.assertTrue(restored.hasIntercept());
+        Assert.assertEquals(half, restored.getN());
+
+        final double[][] xRest = Arrays.copyOfRange(x, half, x.length);
+        final double[] yRest = Arrays.copyOfRange(y, half, y.length);
+        instance.addObservations(xRest, yRest);
+        restored.addObservations(xRest, yRest);
+        final RegressionResults expected = instance.regress();
+        final RegressionResults actual = restored.regress();
+        Assert.assertArrayEquals(expected.getParameterEstimates(), actual.getParameterEstimates(), 0);
+        Assert.assertArrayEquals(expected.getStdErrorOfEstimates(), actual.getStdErrorOfEstimates(), 0);
+        Assert.assertEquals(expected.getRSquared(), actual.getRSquared(), 0);
+    }
+
+    /**
+     * @return the regressors of the airline cost model.
+     */
+    private static double[][] airlineRegressors() {
+        final double[][] x = new double[airdata[0].length][];
+        for (int i = 0; i < x.length; i++) {
+            x[i] = new double[] {JdkMath.log(airdata[3][i]),
+                                 JdkMath.log(airdata[4][i]),
+                                 airdata[5][i]};
+        }
+        return x;
+    }
+
+    /**
+     * @return the regressand of the airline cost model.
+     */
+    private static double[] airlineRegressand() {
+        final double[] y = new double[airdata[0].length];
+        for (int i = 0; i < y.length; i++) {
+            y[i] = JdkMath.log(airdata[2][i]);
+        }
+        return y;
+    }
 }
@@ -0,0 +1,339 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.legacy.stat.regression;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.commons.math4.legacy.TestUtils;
+import org.apache.commons.math4.legacy.linear.SingularMatrixException;
+import org.apache.commons.rng.UniformRandomProvider;
+import org.apache.commons.rng.simple.RandomSource;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TSQRUpdatingRegressionTest {
+    /**
+     * Longley data, from NIST: each row contains y, followed by the
+     * independent variables.
+     */
+    private static final double[][] LONGLEY = {
+        {60323, 83.0, 234289, 2356, 1590, 107608, 1947},
+        {61122, 88.5, 259426, 2325, 1456, 108632, 1948},
+        {60171, 88.2, 258054, 3682, 1616, 109773, 1949},
+        {61187, 89.5, 284599, 3351, 1650, 110929, 1950},
+        {63221, 96.2, 328975, 2099, 3099, 112075, 1951},
+        {63639, 98.1, 346999, 1932, 3594, 113270, 1952},
+        {64989, 99.0, 365385, 1870, 3547, 115094, 1953},
+        {63761, 100.0, 363112, 3578, 3350, 116219, 1954},
+        {66019, 101.2, 397469, 2904, 3048, 117388, 1955},
+        {67857, 104.6, 419180, 2822, 2857, 118734, 1956},
+        {68169, 108.4, 442769, 2936, 2798, 120445, 1957},
+        {66513, 110.8, 444546, 4681, 2637, 121950, 1958},
+        {68655, 112.6, 482704, 3813, 2552, 123366, 1959},
+        {69564, 114.2, 502601, 3931, 2514, 125368, 1960},
+        {69331, 115.7, 518173, 4806, 2572, 127852, 1961},
+        {70551, 116.9, 554894, 4007, 2827, 130081, 1962}
+    };
+
+    @Test
+    public void testLongley() {
+        TSQRUpdatingRegression model = new TSQRUpdatingRegression(6, true);
+        for (final double[] row : LONGLEY) {
+            model.addObservation(Arrays.copyOfRange(row, 1, row.length), row[0]);
+        }
+        Assert.assertTrue(model.hasIntercept());
+        Assert.assertEquals(16, model.getN());
+
+        // Certified values from NIST.
+        RegressionResults result = model.regress();
+        TestUtils.assertEquals(result.getParameterEstimates(),
+                               new double[] {-3482258.63459582, 15.0618722713733,
+                                             -0.358191792925910E-01, -2.02022980381683,
+                                             -1.03322686717359, -0.511041056535807E-01,
+                                             1829.15146461355}, 1E-8);
+        TestUtils.assertEquals(new double[] {890420.383607373,
+                                             84.9149257747669,
+                                             0.334910077722432E-01,
+                                             0.488399681651699,
+                                             0.214274163161675,
+                                             0.226073200069370,
+                                             455.478499142212}, result.getStdErrorOfEstimates(), 1E-6);
+        TestUtils.assertEquals(0.995479004577296, result.getRSquared(), 1E-12);
+        TestUtils.assertEquals(0.992465007628826, result.getAdjustedRSquared(), 1E-12);
+
+        // Model without intercept (reference values from R).
+        model = new TSQRUpdatingRegression(6, false);
+        model.addObservations(longleyX(), longleyY());
+        result = model.regress();
+        TestUtils.assertEquals(result.getParameterEstimates(),
+                               new double[] {-52.99357013868291, 0.07107319907358,
+                                             -0.42346585566399, -0.57256866841929,
+                                             -0.41420358884978, 48.41786562001326}, 1E-11);
+        TestUtils.assertEquals(new double[] {129.54486693117232, 0.03016640003786,
+                                             0.41773654056612, 0.27899087467676, 0.32128496193363,
+                                             17.68948737819961}, result.getStdErrorOfEstimates(), 1E-11);
+        TestUtils.assertEquals(0.9999670130706, result.getRSquared(), 1E-12);
+        TestUtils.assertEquals(0.999947220913, result.getAdjustedRSquared(), 1E-12);
+    }
+
+    @Test
+    public void testChunksMatchOLS() {
+        final int n = 5000;
+        final int p = 7;
+        final double[][] x = new double[n][p];
+        final double[] y = new double[n];
+        createData(x, y, 1234L);
+
+        final OLSMultipleLinearRegression ols = new OLSMultipleLinearRegression();
+        ols.newSampleData(y, x);
+        final double[] expectedBeta = ols.estimateRegressionParameters();
+        final double[] expectedErrors = ols.estimateRegressionParametersStandardErrors();
+
+        // Chunks of various sizes, some of them smaller than the number of regressors.
+        final TSQRUpdatingRegression model = new TSQRUpdatingRegression(p, true);
+        final int[] chunks = {3, 1500, 1, 2490, 1006};
+        int start = 0;
+        for (final int length : chunks) {
+            model.addObservations(Arrays.copyOfRange(x, start, start + length),
+                                  Arrays.copyOfRange(y, start, start + length));
+            start += length;
+        }
+        Assert.assertEquals(n, model.getN());
+
+        final RegressionResults result = model.regress();
+        assertRelativelyEquals(expectedBeta, result.getParameterEstimates(), 1e-10);
+        assertRelativelyEquals(expectedErrors, result.getStdErrorOfEstimates(), 1e-10);
+        Assert.assertEquals(ols.calculateResidualSumOfSquares(), result.getErrorSumSquares(),
+                            1e-10 * result.getErrorSumSquares());
+        Assert.assertEquals(ols.calculateRSquared(), result.getRSquared(), 1e-12);
+    }
+
+    @Test
+    public void testExecutor() {
+        final int n = 10000;
+        final int p = 5;
+        final double[][] x = new double[n][p];
+        final double[] y = new double[n];
+        createData(x, y, 98765L);
+
+        final TSQRUpdatingRegression serial = new TSQRUpdatingRegression(p, true);
+        serial.addObservations(x, y);
+        final RegressionResults expected = serial.regress();
+
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final TSQRUpdatingRegression parallel = new TSQRUpdatingRegression(p, true, executor);
+            parallel.addObservations(x, y);
+            final RegressionResults actual = parallel.regress();
+
+            // Identical results, whatever the number of threads.
+            Assert.assertArrayEquals(expected.getParameterEstimates(),
+                                     actual.getParameterEstimates(), 0);
+            Assert.assertArrayEquals(expected.getStdErrorOfEstimates(),
+                                     actual.getStdErrorOfEstimates(), 0);
+            Assert.assertEquals(expected.getErrorSumSquares(), actual.getErrorSumSquares(), 0);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testCombine() {
+        final int n = 3000;
+        final int p = 4;
+        final double[][] x = new double[n][p];
+        final double[] y = new double[n];
+        createData(x, y, 42L);
+
+        final TSQRUpdatingRegression all = new TSQRUpdatingRegression(p, false);
+        all.addObservations(x, y);
+        final RegressionResults expected = all.regress();
+
+        final TSQRUpdatingRegression first = new TSQRUpdatingRegression(p, false);
+        final TSQRUpdatingRegression second = new TSQRUpdatingRegression(p, false);
+        for (int i = 0; i < n; i++) {
+            (i % 3 == 0 ? first : second).addObservation(x[i], y[i]);
+        }
+        first.combine(second);
+        Assert.assertEquals(n, first.getN());
+        Assert.assertEquals(n - n / 3, second.getN());
+
+        final RegressionResults actual = first.regress();
+        assertRelativelyEquals(expected.getParameterEstimates(),
+                                         actual.getParameterEstimates(), 1e-12);
+        assertRelativelyEquals(expected.getStdErrorOfEstimates(),
+                                         actual.getStdErrorOfEstimates(), 1e-12);
+        Assert.assertEquals(expected.getRSquared(), actual.getRSquared(), 1e-14);
+    }
+
+    @Test(expected = ModelSpecificationException.class)
+    public void testCombineIncompatible() {
+        new TSQRUpdatingRegression(3, true).combine(new TSQRUpdatingRegression(4, false));
+    }
+
+    @Test
+    public void testSubset() {
+        final double[][] x = longleyX();
+        final double[] y = longleyY();
+        final MillerUpdatingRegression miller = new MillerUpdatingRegression(6, true);
+        miller.addObservations(x, y);
+        final TSQRUpdatingRegression model = new TSQRUpdatingRegression(6, true);
+        model.addObservations(x, y);
+
+        final int[][] subsets = {{0, 2, 5}, {1, 3, 4, 6}, {0, 1, 2, 3, 4, 5, 6}};
+        for (final int[] subset : subsets) {
+            final RegressionResults expected = miller.regress(subset.clone());
+            final RegressionResults actual = model.regress(subset.clone());
+            assertRelativelyEquals(expected.getParameterEstimates(),
+                                             actual.getParameterEstimates(), 1e-8);
+            assertRelativelyEquals(expected.getStdErrorOfEstimates(),
+                                             actual.getStdErrorOfEstimates(), 1e-8);
+        }
+
+        // Duplicate indices are ignored.
+        TestUtils.assertEquals(model.regress(new int[] {0, 2, 5}).getParameterEstimates(),
+                               model.regress(new int[] {5, 2, 0, 2}).getParameterEstimates(), 0);
+    }
+
+    @Test(expected = ModelSpecificationException.class)
+    public void testSubsetInvalidIndex() {
+        final TSQRUpdatingRegression model = new TSQRUpdatingRegression(6, true);
+        model.addObservations(longleyX(), longleyY());
+        model.regress(new int[] {0, 7});
+    }
+
+    @Test(expected = SingularMatrixException.class)
+    public void testSingular() {
+        final TSQRUpdatingRegression model = new TSQRUpdatingRegression(3, true);
+        for (int i = 0; i < 10; i++) {
+            model.addObservation(new double[] {i, 2 * i, i * i}, 3 * i + 1);
+        }
+        model.regress();
+    }
+
+    @Test(expected = ModelSpecificationException.class)
+    public void testNotEnoughData() {
+        final TSQRUpdatingRegression model = new TSQRUpdatingRegression(3, true);
+        model.addObservations(new double[][] {{1, 2, 3}, {4, 5, 7}, {7, 9, 9}},
+                              new double[] {1, 2, 3});
+        model.regress();
+    }
+
+    @Test(expected = ModelSpecificationException.class)
+    public void testInvalidObservation() {
+        new TSQRUpdatingRegression(3, true).addObservation(new double[] {1, 2}, 3);
+    }
+
+    @Test
+    public void testInvalidObservations() {
+        final TSQRUpdatingRegression model = new TSQRUpdatingRegression(2, false);
+        try {
+            model.addObservations(new double[][] {{1, 2}, {3}}, new double[] {1, 2});
+            Assert.fail("an exception should have been thrown");
+        } catch (ModelSpecificationException e) {
+            // Expected: no observation was added.
+            Assert.assertEquals(0, model.getN());
+        }
+        try {
+            model.addObservations(new double[][] {{1, 2}}, new double[] {1, 2});
+            Assert.fail("an exception should have been thrown");
+        } catch (ModelSpecificationException e) {
+            // Expected.
+        }
+        try {
+            model.addObservations(new double[0][], new double[0]);
+            Assert.fail("an exception should have been thrown");
+        } catch (ModelSpecificationException e) {
+            // Expected.
+        }
+    }
+
+    @Test
+    public void testClear() {
+        final TSQRUpdatingRegression model = new TSQRUpdatingRegression(6, true);
+        model.addObservations(longleyX(), longleyY());
+        final double[] expected = model.regress().getParameterEstimates();
+
+        model.addObservation(new double[] {1, 2, 3, 4, 5, 6}, 7);
+        model.clear();
+        Assert.assertEquals(0, model.getN());
+        model.addObservations(longleyX(), longleyY());
+        TestUtils.assertEquals(expected, model.regress().getParameterEstimates(), 0);
+    }
+
+    /**
+     * Checks that all the elements of two arrays are equal, up to a
+     * relative tolerance.
+     *
+     * @param expected Expected values.
+     * @param actual Actual values.
+     * @param relativeError Relative tolerance.
+     */
+    private static void assertRelativelyEquals(double[] expected,
+                                               double[] actual,
+                                               double relativeError) {
+        Assert.assertEquals(expected.length, actual.length);
+        for (int i = 0; i < expected.length; i++) {
+            TestUtils.assertRelativelyEquals("index " + i, expected[i], actual[i], relativeError);
+        }
+    }
+
+    /**
+     * @return the independent variables of the Longley data.
+     */
+    private static double[][] longleyX() {
+        final double[][] x = new double[LONGLEY.length][];
+        for (int i = 0; i < x.length; i++) {
+            x[i] = Arrays.copyOfRange(LONGLEY[i], 1, LONGLEY[i].length);
+        }
+        return x;
+    }
+
+    /**
+     * @return the dependent variable of the Longley data.
+     */
+    private static double[] longleyY() {
+        final double[] y = new double[LONGLEY.length];
+        for (int i = 0; i < y.length; i++) {
+            y[i] = LONGLEY[i][0];
+        }
+        return y;
+    }
+
+    /**
+     * Fills arrays with data from a linear model with noise.
+     *
+     * @param x Regressors (output).
+     * @param y Regressand (output).
+     * @param seed Seed of the random generator.
+     */
+    private static void createData(double[][] x,
+                                   double[] y,
+                                   long seed) {
+        final UniformRandomProvider rng = RandomSource.WELL_1024_A.create(seed);
+        for (int i = 0; i < x.length; i++) {
+            double sum = 10;
+            for (int j = 0; j < x[i].length; j++) {
+                x[i][j] = 100 * rng.nextDouble() - 50;
+                sum += (j + 1) * x[i][j];
+            }
+            y[i] = sum + rng.nextDouble() - 0.5;
+        }
+    }
+}